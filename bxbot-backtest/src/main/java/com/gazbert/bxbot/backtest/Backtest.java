@@ -0,0 +1,184 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.backtest;
+
+import com.gazbert.bxbot.marketdata.MarketDataSet;
+import com.gazbert.bxbot.strategy.api.OrderEventListener;
+import com.gazbert.bxbot.strategy.api.StrategyConfig;
+import com.gazbert.bxbot.strategy.api.StrategyException;
+import com.gazbert.bxbot.strategy.api.TradingStrategy;
+import com.gazbert.bxbot.trading.api.Market;
+import com.google.common.base.MoreObjects;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.math.BigDecimal;
+
+import static com.gazbert.bxbot.marketdata.MarketDataFile.NULL_VALUE;
+
+/**
+ * <p>
+ * Runs a Trading Strategy against recorded market data.
+ * </p>
+ * <p>
+ * Each run gives the strategy a new {@link BacktestExchangeAdapter} over the market data, calls
+ * {@link TradingStrategy#init} once, and then steps through the rows as fast as they can be read, calling
+ * {@link TradingStrategy#execute()} whenever a trade cycle interval of market data time has passed. Strategies that
+ * implement {@link OrderEventListener} are sent their fill and cancel events before each execute, as the Trading
+ * Engine does.
+ * </p>
+ * <p>
+ * A backtest holds no state between runs, so it can run many strategies at the same time from different threads -
+ * the market data is only read.
+ * </p>
+ *
+ * @author gazbert
+ * @since 1.2
+ */
+public final class Backtest {
+
+    private static final Logger LOG = LogManager.getLogger();
+
+    private final MarketDataSet marketData;
+    private final Market market;
+    private final BacktestConfig config;
+
+    /**
+     * Creates a backtest.
+     *
+     * @param marketData the recorded market data to replay.
+     * @param market     the market the strategy trades. Its id must match the market data.
+     * @param config     the simulation config.
+     */
+    public Backtest(MarketDataSet marketData, Market market, BacktestConfig config) {
+        if (!marketData.getMarketId().equals(market.getId())) {
+            throw new IllegalArgumentException("Market data is for market " + marketData.getMarketId()
+                    + ", not " + market.getId());
+        }
+        this.marketData = marketData;
+        this.market = market;
+        this.config = config;
+    }
+
+    /**
+     * Runs a strategy over all of the market data.
+     *
+     * @param strategy       a new instance of the strategy.
+     * @param strategyConfig the strategy's config items.
+     * @return the result.
+     * @throws StrategyException if the strategy throws one. The run is stopped, as the Trading Engine would be.
+     */
+    public BacktestResult run(TradingStrategy strategy, StrategyConfig strategyConfig) throws StrategyException {
+
+        final long startTime = System.currentTimeMillis();
+        final BacktestExchangeAdapter adapter = new BacktestExchangeAdapter(marketData.cursor(), market, config);
+        final OrderEventListener orderEventListener =
+                strategy instanceof OrderEventListener ? (OrderEventListener) strategy : null;
+        final double priceDivisor = Math.pow(10, adapter.getPriceScale());
+
+        strategy.init(adapter, market, strategyConfig);
+
+        final long firstTimestamp = adapter.getTimestamp();
+        long lastTimestamp = firstTimestamp;
+        long nextTradeCycle = firstTimestamp;
+        long rowCount = 0;
+        long tradeCycleCount = 0;
+
+        long firstMarkPrice = NULL_VALUE;
+        long markPrice = NULL_VALUE;
+        long balanceTradeCount = 0;
+        double baseBalance = config.getStartingBaseBalance().doubleValue();
+        double counterBalance = config.getStartingCounterBalance().doubleValue();
+        double peakValue = 0;
+        double maxDrawdown = 0;
+
+        do {
+            rowCount++;
+            lastTimestamp = adapter.getTimestamp();
+
+            if (lastTimestamp >= nextTradeCycle) {
+                if (orderEventListener != null) {
+                    adapter.sendOrderEvents(orderEventListener);
+                } else {
+                    adapter.clearOrderEvents();
+                }
+                strategy.execute();
+                tradeCycleCount++;
+                nextTradeCycle = lastTimestamp + config.getTradeCycleMillis();
+            }
+
+            // The balances only change when an order fills
+            if (adapter.getTradeCount() != balanceTradeCount) {
+                balanceTradeCount = adapter.getTradeCount();
+                baseBalance = adapter.getBaseBalance().doubleValue();
+                counterBalance = adapter.getCounterBalance().doubleValue();
+            }
+
+            final long rowMarkPrice = adapter.getMarkPrice();
+            if (rowMarkPrice != NULL_VALUE) {
+                markPrice = rowMarkPrice;
+                if (firstMarkPrice == NULL_VALUE) {
+                    firstMarkPrice = rowMarkPrice;
+                }
+            }
+            if (markPrice != NULL_VALUE) {
+                final double value = counterBalance + baseBalance * (markPrice / priceDivisor);
+                if (value > peakValue) {
+                    peakValue = value;
+                } else if (peakValue > 0) {
+                    maxDrawdown = Math.max(maxDrawdown, (peakValue - value) / peakValue);
+                }
+            }
+        } while (adapter.nextRow());
+
+        final BigDecimal startingValue = valueAt(config.getStartingBaseBalance(), config.getStartingCounterBalance(),
+                firstMarkPrice, adapter.getPriceScale());
+        final BigDecimal endingValue = valueAt(adapter.getBaseBalance(), adapter.getCounterBalance(), markPrice,
+                adapter.getPriceScale());
+
+        final BacktestResult result = new BacktestResult(market.getId(), firstTimestamp, lastTimestamp, rowCount,
+                tradeCycleCount, adapter.getTradeCount(), adapter.getFeesPaid(), adapter.getBaseBalance(),
+                adapter.getCounterBalance(), startingValue, endingValue, maxDrawdown,
+                System.currentTimeMillis() - startTime);
+        LOG.info(() -> "Backtest finished: " + result);
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                .add("marketData", marketData)
+                .add("market", market)
+                .add("config", config)
+                .toString();
+    }
+
+    private static BigDecimal valueAt(BigDecimal baseBalance, BigDecimal counterBalance, long markPrice,
+                                      int priceScale) {
+        if (markPrice == NULL_VALUE) {
+            return counterBalance;
+        }
+        return counterBalance.add(baseBalance.multiply(BigDecimal.valueOf(markPrice, priceScale)));
+    }
+}
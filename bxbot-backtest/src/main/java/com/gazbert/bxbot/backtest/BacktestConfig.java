@@ -0,0 +1,200 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.backtest;
+
+import com.google.common.base.MoreObjects;
+
+import java.math.BigDecimal;
+
+/**
+ * <p>
+ * The simulation settings for a {@link Backtest}: the exchange fees, the order latency, the starting balances and how
+ * often the strategy is run.
+ * </p>
+ * <p>
+ * Instances are immutable and thread safe, so one config can be shared by many backtests. Use the {@link Builder} to
+ * create one.
+ * </p>
+ *
+ * @author gazbert
+ * @since 1.2
+ */
+public final class BacktestConfig {
+
+    private final BigDecimal buyFee;
+    private final BigDecimal sellFee;
+    private final long latencyMillis;
+    private final long tradeCycleMillis;
+    private final BigDecimal startingBaseBalance;
+    private final BigDecimal startingCounterBalance;
+
+    private BacktestConfig(Builder builder) {
+        buyFee = builder.buyFee;
+        sellFee = builder.sellFee;
+        latencyMillis = builder.latencyMillis;
+        tradeCycleMillis = builder.tradeCycleMillis;
+        startingBaseBalance = builder.startingBaseBalance;
+        startingCounterBalance = builder.startingCounterBalance;
+    }
+
+    /**
+     * Returns the fee taken from buy orders, as a fraction of the order total, e.g. 0.0025 for 0.25%.
+     *
+     * @return the buy fee.
+     */
+    public BigDecimal getBuyFee() {
+        return buyFee;
+    }
+
+    /**
+     * Returns the fee taken from sell orders, as a fraction of the order total, e.g. 0.0025 for 0.25%.
+     *
+     * @return the sell fee.
+     */
+    public BigDecimal getSellFee() {
+        return sellFee;
+    }
+
+    /**
+     * Returns how long after it is created an order reaches the simulated exchange and can be matched.
+     *
+     * @return the latency in millis.
+     */
+    public long getLatencyMillis() {
+        return latencyMillis;
+    }
+
+    /**
+     * Returns the interval between runs of the strategy, in market data time. 0 runs the strategy on every row.
+     *
+     * @return the trade cycle interval in millis.
+     */
+    public long getTradeCycleMillis() {
+        return tradeCycleMillis;
+    }
+
+    public BigDecimal getStartingBaseBalance() {
+        return startingBaseBalance;
+    }
+
+    public BigDecimal getStartingCounterBalance() {
+        return startingCounterBalance;
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                .add("buyFee", buyFee)
+                .add("sellFee", sellFee)
+                .add("latencyMillis", latencyMillis)
+                .add("tradeCycleMillis", tradeCycleMillis)
+                .add("startingBaseBalance", startingBaseBalance)
+                .add("startingCounterBalance", startingCounterBalance)
+                .toString();
+    }
+
+    /**
+     * Builds a {@link BacktestConfig}. Everything defaults to zero.
+     */
+    public static final class Builder {
+
+        private BigDecimal buyFee = BigDecimal.ZERO;
+        private BigDecimal sellFee = BigDecimal.ZERO;
+        private long latencyMillis;
+        private long tradeCycleMillis;
+        private BigDecimal startingBaseBalance = BigDecimal.ZERO;
+        private BigDecimal startingCounterBalance = BigDecimal.ZERO;
+
+        /**
+         * Sets the exchange fees.
+         *
+         * @param buyFee  the fee taken from buy orders, as a fraction of the order total.
+         * @param sellFee the fee taken from sell orders, as a fraction of the order total.
+         * @return this builder.
+         */
+        public Builder fees(BigDecimal buyFee, BigDecimal sellFee) {
+            if (buyFee.signum() < 0 || sellFee.signum() < 0) {
+                throw new IllegalArgumentException("Fees cannot be negative - buyFee: " + buyFee + ", sellFee: "
+                        + sellFee);
+            }
+            this.buyFee = buyFee;
+            this.sellFee = sellFee;
+            return this;
+        }
+
+        /**
+         * Sets the order latency.
+         *
+         * @param latencyMillis how long after it is created an order can be matched, in millis.
+         * @return this builder.
+         */
+        public Builder latencyMillis(long latencyMillis) {
+            if (latencyMillis < 0) {
+                throw new IllegalArgumentException("Latency cannot be negative: " + latencyMillis);
+            }
+            this.latencyMillis = latencyMillis;
+            return this;
+        }
+
+        /**
+         * Sets the trade cycle interval.
+         *
+         * @param tradeCycleMillis the interval between runs of the strategy, in millis of market data time.
+         * @return this builder.
+         */
+        public Builder tradeCycleMillis(long tradeCycleMillis) {
+            if (tradeCycleMillis < 0) {
+                throw new IllegalArgumentException("Trade cycle interval cannot be negative: " + tradeCycleMillis);
+            }
+            this.tradeCycleMillis = tradeCycleMillis;
+            return this;
+        }
+
+        /**
+         * Sets the balances the simulated account starts with.
+         *
+         * @param baseBalance    the balance of the market's base currency.
+         * @param counterBalance the balance of the market's counter currency.
+         * @return this builder.
+         */
+        public Builder startingBalances(BigDecimal baseBalance, BigDecimal counterBalance) {
+            if (baseBalance.signum() < 0 || counterBalance.signum() < 0) {
+                throw new IllegalArgumentException("Balances cannot be negative - base: " + baseBalance
+                        + ", counter: " + counterBalance);
+            }
+            this.startingBaseBalance = baseBalance;
+            this.startingCounterBalance = counterBalance;
+            return this;
+        }
+
+        /**
+         * Builds the config.
+         *
+         * @return the config.
+         */
+        public BacktestConfig build() {
+            return new BacktestConfig(this);
+        }
+    }
+}
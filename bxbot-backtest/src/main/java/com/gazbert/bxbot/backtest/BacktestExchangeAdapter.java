@@ -0,0 +1,627 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.backtest;
+
+import com.gazbert.bxbot.marketdata.MarketDataCursor;
+import com.gazbert.bxbot.marketdata.MarketDataFile;
+import com.gazbert.bxbot.exchange.api.ExchangeAdapter;
+import com.gazbert.bxbot.exchange.api.ExchangeConfig;
+import com.gazbert.bxbot.exchanges.trading.api.impl.BalanceInfoImpl;
+import com.gazbert.bxbot.exchanges.trading.api.impl.OpenOrderImpl;
+import com.gazbert.bxbot.exchanges.trading.api.impl.TickerImpl;
+import com.gazbert.bxbot.strategy.api.OrderEvent;
+import com.gazbert.bxbot.strategy.api.OrderEventListener;
+import com.gazbert.bxbot.trading.api.BalanceInfo;
+import com.gazbert.bxbot.trading.api.FixedPointMarketOrderBook;
+import com.gazbert.bxbot.trading.api.Market;
+import com.gazbert.bxbot.trading.api.MarketOrderBook;
+import com.gazbert.bxbot.trading.api.OpenOrder;
+import com.gazbert.bxbot.trading.api.OrderType;
+import com.gazbert.bxbot.trading.api.Ticker;
+import com.gazbert.bxbot.trading.api.TradingApiException;
+import com.google.common.base.MoreObjects;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import static com.gazbert.bxbot.marketdata.MarketDataFile.NULL_VALUE;
+
+/**
+ * <p>
+ * A simulated Exchange Adapter that trades a single market against recorded market data.
+ * </p>
+ * <p>
+ * The market data calls return the current row of a {@link MarketDataCursor}; the {@link Backtest} moves the cursor
+ * on between trade cycles. Orders are matched against the recorded order book:
+ * </p>
+ * <ul>
+ * <li>An order becomes active on the first row at or after its creation time plus the configured latency. With no
+ * latency, it is matched against the current row as soon as it is created.</li>
+ * <li>When it becomes active, an order takes the recorded levels it crosses, at their prices.</li>
+ * <li>After that, it rests at its limit price and fills whenever the recorded book trades through it: a buy fills
+ * against the asks at or below its price, a sell against the bids at or above it.</li>
+ * <li>The recorded liquidity is shared between the open orders: what the simulated fills take from a level stays
+ * taken until a row records a different quantity at that price (or no level at it), so an unchanged level is not
+ * filled again on every row.</li>
+ * </ul>
+ * <p>
+ * Balances are held for the open orders and the configured fees are taken from the counter currency of each fill. Fill
+ * and cancel events are queued for strategies that implement {@link OrderEventListener}, and sent at the start of the
+ * next trade cycle as the Trading Engine does.
+ * </p>
+ * <p>
+ * Stepping through rows with no open orders only moves the cursor, so the replay loop does not allocate. Instances
+ * are not thread safe; each backtest uses its own.
+ * </p>
+ *
+ * @author gazbert
+ * @since 1.2
+ */
+public final class BacktestExchangeAdapter implements ExchangeAdapter {
+
+    private static final Logger LOG = LogManager.getLogger();
+
+    private final MarketDataCursor cursor;
+    private final Market market;
+    private final BacktestConfig config;
+    private final int priceScale;
+    private final int quantityScale;
+    private final FixedPointMarketOrderBook.Builder orderBookBuilder;
+
+    private final List<SimulatedOrder> openOrders = new ArrayList<>();
+    private final List<QueuedOrderEvent> pendingOrderEvents = new ArrayList<>();
+
+    /*
+     * The quantity the simulated fills have taken from each recorded price level, and the level quantity it was
+     * taken from: price -> {levelQuantity, takenQuantity}.
+     */
+    private final Map<Long, long[]> takenAsks = new HashMap<>();
+    private final Map<Long, long[]> takenBids = new HashMap<>();
+    private long nextOrderId = 1;
+
+    private BigDecimal baseAvailable;
+    private BigDecimal baseOnHold = BigDecimal.ZERO;
+    private BigDecimal counterAvailable;
+    private BigDecimal counterOnHold = BigDecimal.ZERO;
+
+    private boolean hasRow;
+    private long tradeCount;
+    private BigDecimal feesPaid = BigDecimal.ZERO;
+
+    /**
+     * Creates the adapter. The cursor is moved onto its first row.
+     *
+     * @param cursor the recorded market data, positioned before its first row.
+     * @param market the market being traded. Its id must match the market data.
+     * @param config the simulation config.
+     * @throws IllegalArgumentException if the market data is for a different market, or is empty.
+     */
+    public BacktestExchangeAdapter(MarketDataCursor cursor, Market market, BacktestConfig config) {
+        this.cursor = cursor;
+        this.market = market;
+        this.config = config;
+        baseAvailable = config.getStartingBaseBalance();
+        counterAvailable = config.getStartingCounterBalance();
+
+        if (!cursor.next()) {
+            throw new IllegalArgumentException("No market data to replay for market: " + market.getId());
+        }
+        if (!cursor.getMarketId().equals(market.getId())) {
+            throw new IllegalArgumentException("Market data is for market " + cursor.getMarketId()
+                    + ", not " + market.getId());
+        }
+        hasRow = true;
+        priceScale = cursor.getPriceScale();
+        quantityScale = cursor.getQuantityScale();
+        orderBookBuilder = new FixedPointMarketOrderBook.Builder(market.getId(), priceScale, quantityScale);
+    }
+
+    @Override
+    public void init(ExchangeConfig config) {
+        LOG.info(() -> "Backtest adapter does not use the Exchange config - market data is replayed from file.");
+    }
+
+    @Override
+    public String getImplName() {
+        return "Backtest Adapter - replays recorded market data";
+    }
+
+    @Override
+    public MarketOrderBook getMarketOrders(String marketId) throws TradingApiException {
+        checkMarket(marketId);
+        orderBookBuilder.clear();
+        final int bidDepth = cursor.getBidDepth();
+        for (int level = 0; level < bidDepth; level++) {
+            orderBookBuilder.addBid(cursor.getBidPrice(level), cursor.getBidQuantity(level));
+        }
+        final int askDepth = cursor.getAskDepth();
+        for (int level = 0; level < askDepth; level++) {
+            orderBookBuilder.addAsk(cursor.getAskPrice(level), cursor.getAskQuantity(level));
+        }
+        return orderBookBuilder.build();
+    }
+
+    @Override
+    public List<OpenOrder> getYourOpenOrders(String marketId) throws TradingApiException {
+        checkMarket(marketId);
+        final List<OpenOrder> orders = new ArrayList<>(openOrders.size());
+        for (final SimulatedOrder order : openOrders) {
+            final BigDecimal price = toPrice(order.price);
+            final BigDecimal quantity = toQuantity(order.remainingQuantity);
+            orders.add(new OpenOrderImpl(order.id, new Date(order.creationTime), marketId, order.type, price,
+                    quantity, toQuantity(order.originalQuantity), price.multiply(quantity)));
+        }
+        return orders;
+    }
+
+    @Override
+    public String createOrder(String marketId, OrderType orderType, BigDecimal quantity, BigDecimal price)
+            throws TradingApiException {
+
+        checkMarket(marketId);
+        final long fixedPointPrice = toFixedPoint(price, priceScale);
+        final long fixedPointQuantity = toFixedPoint(quantity, quantityScale);
+        if (fixedPointPrice <= 0 || fixedPointQuantity <= 0) {
+            throw new TradingApiException("Order price and quantity must be positive - price: " + price
+                    + ", quantity: " + quantity);
+        }
+
+        final SimulatedOrder order = new SimulatedOrder(Long.toString(nextOrderId++), orderType, fixedPointPrice,
+                fixedPointQuantity, cursor.getTimestamp());
+        if (orderType == OrderType.BUY) {
+            final BigDecimal hold = withBuyFee(toPrice(fixedPointPrice).multiply(toQuantity(fixedPointQuantity)));
+            if (hold.compareTo(counterAvailable) > 0) {
+                throw new TradingApiException("Insufficient " + market.getCounterCurrency() + " balance to buy "
+                        + quantity + " at " + price + " - available: " + counterAvailable + ", required: " + hold);
+            }
+            counterAvailable = counterAvailable.subtract(hold);
+            counterOnHold = counterOnHold.add(hold);
+            order.counterOnHold = hold;
+        } else {
+            final BigDecimal hold = toQuantity(fixedPointQuantity);
+            if (hold.compareTo(baseAvailable) > 0) {
+                throw new TradingApiException("Insufficient " + market.getBaseCurrency() + " balance to sell "
+                        + quantity + " - available: " + baseAvailable);
+            }
+            baseAvailable = baseAvailable.subtract(hold);
+            baseOnHold = baseOnHold.add(hold);
+        }
+        openOrders.add(order);
+
+        if (config.getLatencyMillis() == 0) {
+            matchOrder(order);
+            if (order.remainingQuantity == 0) {
+                openOrders.remove(order);
+            }
+        }
+        return order.id;
+    }
+
+    @Override
+    public boolean cancelOrder(String orderId, String marketId) throws TradingApiException {
+        checkMarket(marketId);
+        for (int i = 0; i < openOrders.size(); i++) {
+            final SimulatedOrder order = openOrders.get(i);
+            if (order.id.equals(orderId)) {
+                openOrders.remove(i);
+                releaseHold(order);
+                pendingOrderEvents.add(new QueuedOrderEvent(EventKind.CANCELLED, order.toEvent(marketId)));
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public BigDecimal getLatestMarketPrice(String marketId) throws TradingApiException {
+        checkMarket(marketId);
+        long lastPrice = cursor.getLastPrice();
+        if (lastPrice == NULL_VALUE) {
+            lastPrice = cursor.getTickerPrice(MarketDataFile.TICKER_LAST);
+        }
+        if (lastPrice == NULL_VALUE) {
+            throw new TradingApiException("No latest market price was recorded for market " + marketId + " at "
+                    + cursor.getTimestamp());
+        }
+        return toPrice(lastPrice);
+    }
+
+    @Override
+    public BalanceInfo getBalanceInfo() {
+        final Map<String, BigDecimal> available = new HashMap<>();
+        available.put(market.getBaseCurrency(), baseAvailable);
+        available.put(market.getCounterCurrency(), counterAvailable);
+        final Map<String, BigDecimal> onHold = new HashMap<>();
+        onHold.put(market.getBaseCurrency(), baseOnHold);
+        onHold.put(market.getCounterCurrency(), counterOnHold);
+        return new BalanceInfoImpl(available, onHold);
+    }
+
+    @Override
+    public BigDecimal getPercentageOfBuyOrderTakenForExchangeFee(String marketId) throws TradingApiException {
+        checkMarket(marketId);
+        return config.getBuyFee();
+    }
+
+    @Override
+    public BigDecimal getPercentageOfSellOrderTakenForExchangeFee(String marketId) throws TradingApiException {
+        checkMarket(marketId);
+        return config.getSellFee();
+    }
+
+    @Override
+    public Ticker getTicker(String marketId) throws TradingApiException {
+        checkMarket(marketId);
+        final long volume = cursor.getTickerVolume();
+        return new TickerImpl(
+                toNullablePrice(cursor.getTickerPrice(MarketDataFile.TICKER_LAST)),
+                toNullablePrice(cursor.getTickerPrice(MarketDataFile.TICKER_BID)),
+                toNullablePrice(cursor.getTickerPrice(MarketDataFile.TICKER_ASK)),
+                toNullablePrice(cursor.getTickerPrice(MarketDataFile.TICKER_LOW)),
+                toNullablePrice(cursor.getTickerPrice(MarketDataFile.TICKER_HIGH)),
+                toNullablePrice(cursor.getTickerPrice(MarketDataFile.TICKER_OPEN)),
+                volume == NULL_VALUE ? null : toQuantity(volume),
+                toNullablePrice(cursor.getTickerPrice(MarketDataFile.TICKER_VWAP)),
+                cursor.getTimestamp());
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                .add("market", market)
+                .add("config", config)
+                .add("openOrders", openOrders.size())
+                .add("tradeCount", tradeCount)
+                .toString();
+    }
+
+    // ------------------------------------------------------------------------
+    // Replay - called by the Backtest
+    // ------------------------------------------------------------------------
+
+    /**
+     * Moves on to the next row of market data and matches the open orders against it.
+     *
+     * @return true if there was another row, false if the market data has run out.
+     */
+    boolean nextRow() {
+        if (!hasRow || !cursor.next()) {
+            hasRow = false;
+            return false;
+        }
+        if (!takenAsks.isEmpty()) {
+            releaseChangedLevels(takenAsks, true);
+        }
+        if (!takenBids.isEmpty()) {
+            releaseChangedLevels(takenBids, false);
+        }
+        // Oldest first, so the earlier orders take the shared liquidity first
+        int i = 0;
+        while (i < openOrders.size()) {
+            final SimulatedOrder order = openOrders.get(i);
+            matchOrder(order);
+            if (order.remainingQuantity == 0) {
+                openOrders.remove(i);
+            } else {
+                i++;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the time of the current row of market data.
+     *
+     * @return the timestamp in millis since the epoch.
+     */
+    long getTimestamp() {
+        return cursor.getTimestamp();
+    }
+
+    /**
+     * Returns the price the balances are valued at on the current row: the latest market price if it was recorded,
+     * otherwise the middle of the best bid and ask.
+     *
+     * @return the fixed-point price, or {@link MarketDataFile#NULL_VALUE} if there is no price on this row.
+     */
+    long getMarkPrice() {
+        final long lastPrice = cursor.getLastPrice();
+        if (lastPrice != NULL_VALUE) {
+            return lastPrice;
+        }
+        if (cursor.getBidDepth() > 0 && cursor.getAskDepth() > 0) {
+            return (cursor.getBidPrice(0) + cursor.getAskPrice(0)) / 2;
+        }
+        return NULL_VALUE;
+    }
+
+    /**
+     * Sends the fill and cancel events that have happened since the last call.
+     *
+     * @param listener the strategy to send them to.
+     */
+    void sendOrderEvents(OrderEventListener listener) {
+        for (int i = 0; i < pendingOrderEvents.size(); i++) {
+            final QueuedOrderEvent queuedEvent = pendingOrderEvents.get(i);
+            switch (queuedEvent.kind) {
+                case FILLED:
+                    listener.onOrderFilled(queuedEvent.orderEvent);
+                    break;
+                case PARTIALLY_FILLED:
+                    listener.onOrderPartiallyFilled(queuedEvent.orderEvent);
+                    break;
+                default:
+                    listener.onOrderCancelled(queuedEvent.orderEvent);
+            }
+        }
+        pendingOrderEvents.clear();
+    }
+
+    /**
+     * Drops the queued events, for strategies that do not listen for them.
+     */
+    void clearOrderEvents() {
+        pendingOrderEvents.clear();
+    }
+
+    BigDecimal getBaseBalance() {
+        return baseAvailable.add(baseOnHold);
+    }
+
+    BigDecimal getCounterBalance() {
+        return counterAvailable.add(counterOnHold);
+    }
+
+    int getPriceScale() {
+        return priceScale;
+    }
+
+    long getTradeCount() {
+        return tradeCount;
+    }
+
+    BigDecimal getFeesPaid() {
+        return feesPaid;
+    }
+
+    // ------------------------------------------------------------------------
+    // Matching
+    // ------------------------------------------------------------------------
+
+    private void matchOrder(SimulatedOrder order) {
+
+        final long timestamp = cursor.getTimestamp();
+        if (timestamp - order.creationTime < config.getLatencyMillis()) {
+            return;
+        }
+
+        // Takes the levels it crosses at their prices when it arrives, then rests at its own price
+        final boolean taking = !order.active;
+        order.active = true;
+        final long remainingQuantity = order.remainingQuantity;
+
+        if (order.type == OrderType.BUY) {
+            final int askDepth = cursor.getAskDepth();
+            for (int level = 0; level < askDepth && order.remainingQuantity > 0; level++) {
+                final long askPrice = cursor.getAskPrice(level);
+                if (askPrice > order.price) {
+                    break;
+                }
+                final long fillQuantity = take(takenAsks, askPrice, cursor.getAskQuantity(level),
+                        order.remainingQuantity);
+                if (fillQuantity > 0) {
+                    fill(order, taking ? askPrice : order.price, fillQuantity);
+                }
+            }
+        } else {
+            final int bidDepth = cursor.getBidDepth();
+            for (int level = 0; level < bidDepth && order.remainingQuantity > 0; level++) {
+                final long bidPrice = cursor.getBidPrice(level);
+                if (bidPrice < order.price) {
+                    break;
+                }
+                final long fillQuantity = take(takenBids, bidPrice, cursor.getBidQuantity(level),
+                        order.remainingQuantity);
+                if (fillQuantity > 0) {
+                    fill(order, taking ? bidPrice : order.price, fillQuantity);
+                }
+            }
+        }
+
+        if (order.remainingQuantity != remainingQuantity) {
+            final EventKind kind = order.remainingQuantity == 0 ? EventKind.FILLED : EventKind.PARTIALLY_FILLED;
+            pendingOrderEvents.add(new QueuedOrderEvent(kind, order.toEvent(market.getId())));
+        }
+    }
+
+    /*
+     * Takes up to the wanted quantity from a recorded level, less what earlier fills have already taken from it.
+     * Returns the quantity taken.
+     */
+    private static long take(Map<Long, long[]> takenLiquidity, long price, long levelQuantity,
+                             long wantedQuantity) {
+        long[] taken = takenLiquidity.get(price);
+        if (taken == null) {
+            taken = new long[]{levelQuantity, 0};
+            takenLiquidity.put(price, taken);
+        }
+        final long quantity = Math.min(wantedQuantity, levelQuantity - taken[1]);
+        taken[1] += quantity;
+        return quantity;
+    }
+
+    /*
+     * Forgets what was taken from the levels that the current row records with a different quantity, or not at all.
+     */
+    private void releaseChangedLevels(Map<Long, long[]> takenLiquidity, boolean asks) {
+        final int depth = asks ? cursor.getAskDepth() : cursor.getBidDepth();
+        final Iterator<Map.Entry<Long, long[]>> entries = takenLiquidity.entrySet().iterator();
+        while (entries.hasNext()) {
+            final Map.Entry<Long, long[]> entry = entries.next();
+            final long price = entry.getKey();
+            long levelQuantity = 0;
+            for (int level = 0; level < depth; level++) {
+                if ((asks ? cursor.getAskPrice(level) : cursor.getBidPrice(level)) == price) {
+                    levelQuantity = asks ? cursor.getAskQuantity(level) : cursor.getBidQuantity(level);
+                    break;
+                }
+            }
+            if (levelQuantity != entry.getValue()[0]) {
+                entries.remove();
+            }
+        }
+    }
+
+    private void fill(SimulatedOrder order, long price, long quantity) {
+
+        final BigDecimal fillQuantity = toQuantity(quantity);
+        final BigDecimal total = toPrice(price).multiply(fillQuantity);
+        order.remainingQuantity -= quantity;
+        tradeCount++;
+
+        if (order.type == OrderType.BUY) {
+            final BigDecimal fee = total.multiply(config.getBuyFee());
+            final BigDecimal cost = total.add(fee);
+            feesPaid = feesPaid.add(fee);
+            counterOnHold = counterOnHold.subtract(cost);
+            order.counterOnHold = order.counterOnHold.subtract(cost);
+            baseAvailable = baseAvailable.add(fillQuantity);
+            if (order.remainingQuantity == 0) {
+                // Return whatever was held over, e.g. from filling below the limit price
+                counterOnHold = counterOnHold.subtract(order.counterOnHold);
+                counterAvailable = counterAvailable.add(order.counterOnHold);
+                order.counterOnHold = BigDecimal.ZERO;
+            }
+        } else {
+            final BigDecimal fee = total.multiply(config.getSellFee());
+            feesPaid = feesPaid.add(fee);
+            baseOnHold = baseOnHold.subtract(fillQuantity);
+            counterAvailable = counterAvailable.add(total.subtract(fee));
+        }
+
+        LOG.debug(() -> "Filled " + fillQuantity + " of " + order.type + " order " + order.id + " at "
+                + toPrice(price));
+    }
+
+    private void releaseHold(SimulatedOrder order) {
+        if (order.type == OrderType.BUY) {
+            counterOnHold = counterOnHold.subtract(order.counterOnHold);
+            counterAvailable = counterAvailable.add(order.counterOnHold);
+            order.counterOnHold = BigDecimal.ZERO;
+        } else {
+            final BigDecimal hold = toQuantity(order.remainingQuantity);
+            baseOnHold = baseOnHold.subtract(hold);
+            baseAvailable = baseAvailable.add(hold);
+        }
+    }
+
+    // ------------------------------------------------------------------------
+    // Private utils
+    // ------------------------------------------------------------------------
+
+    private void checkMarket(String marketId) throws TradingApiException {
+        if (!market.getId().equals(marketId)) {
+            throw new TradingApiException("Backtest is replaying market " + market.getId() + ", not " + marketId);
+        }
+    }
+
+    private BigDecimal withBuyFee(BigDecimal total) {
+        return total.add(total.multiply(config.getBuyFee()));
+    }
+
+    private BigDecimal toPrice(long price) {
+        return BigDecimal.valueOf(price, priceScale);
+    }
+
+    private BigDecimal toNullablePrice(long price) {
+        return price == NULL_VALUE ? null : toPrice(price);
+    }
+
+    private BigDecimal toQuantity(long quantity) {
+        return BigDecimal.valueOf(quantity, quantityScale);
+    }
+
+    private static long toFixedPoint(BigDecimal value, int scale) throws TradingApiException {
+        try {
+            return value.setScale(scale, RoundingMode.HALF_EVEN).unscaledValue().longValueExact();
+        } catch (ArithmeticException e) {
+            throw new TradingApiException("Value is out of range: " + value, e);
+        }
+    }
+
+    /*
+     * An order placed with the simulated exchange.
+     */
+    private final class SimulatedOrder {
+
+        private final String id;
+        private final OrderType type;
+        private final long price;
+        private final long originalQuantity;
+        private final long creationTime;
+        private long remainingQuantity;
+        private boolean active;
+        private BigDecimal counterOnHold = BigDecimal.ZERO;
+
+        private SimulatedOrder(String id, OrderType type, long price, long quantity, long creationTime) {
+            this.id = id;
+            this.type = type;
+            this.price = price;
+            this.originalQuantity = quantity;
+            this.remainingQuantity = quantity;
+            this.creationTime = creationTime;
+        }
+
+        private OrderEvent toEvent(String marketId) {
+            return new OrderEvent(id, marketId, type, toPrice(price), toQuantity(originalQuantity),
+                    toQuantity(originalQuantity - remainingQuantity));
+        }
+    }
+
+    private enum EventKind {
+        FILLED, PARTIALLY_FILLED, CANCELLED
+    }
+
+    /*
+     * An order event waiting to be sent at the start of the next trade cycle.
+     */
+    private static final class QueuedOrderEvent {
+
+        private final EventKind kind;
+        private final OrderEvent orderEvent;
+
+        private QueuedOrderEvent(EventKind kind, OrderEvent orderEvent) {
+            this.kind = kind;
+            this.orderEvent = orderEvent;
+        }
+    }
+}
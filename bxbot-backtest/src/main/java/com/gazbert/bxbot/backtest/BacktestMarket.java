@@ -0,0 +1,104 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.backtest;
+
+import com.gazbert.bxbot.trading.api.Market;
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Objects;
+
+/**
+ * The market a strategy under test trades, as it would be set in the markets.xml config file.
+ *
+ * @author gazbert
+ * @since 1.2
+ */
+public final class BacktestMarket implements Market {
+
+    private final String name;
+    private String id;
+    private final String baseCurrency;
+    private final String counterCurrency;
+
+    /**
+     * Creates the market.
+     *
+     * @param id              the market id, as used in the market data files.
+     * @param baseCurrency    the base currency, e.g. BTC in a BTC/USD market.
+     * @param counterCurrency the counter currency, e.g. USD in a BTC/USD market.
+     */
+    public BacktestMarket(String id, String baseCurrency, String counterCurrency) {
+        this.name = baseCurrency + "/" + counterCurrency;
+        this.id = id;
+        this.baseCurrency = baseCurrency;
+        this.counterCurrency = counterCurrency;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    @Override
+    public String getId() {
+        return id;
+    }
+
+    @Override
+    public String getBaseCurrency() {
+        return baseCurrency;
+    }
+
+    @Override
+    public String getCounterCurrency() {
+        return counterCurrency;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        final BacktestMarket market = (BacktestMarket) o;
+        return Objects.equal(id, market.id);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(id);
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                .add("name", name)
+                .add("id", id)
+                .add("baseCurrency", baseCurrency)
+                .add("counterCurrency", counterCurrency)
+                .toString();
+    }
+}
@@ -0,0 +1,204 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.backtest;
+
+import com.google.common.base.MoreObjects;
+
+import java.math.BigDecimal;
+
+/**
+ * <p>
+ * The outcome of a {@link Backtest} run.
+ * </p>
+ * <p>
+ * Values are in the market's counter currency. The account is valued at the mark price of the market: its latest
+ * market price, or the middle of the best bid and ask where no price was recorded.
+ * </p>
+ *
+ * @author gazbert
+ * @since 1.2
+ */
+public final class BacktestResult {
+
+    private final String marketId;
+    private final long firstTimestamp;
+    private final long lastTimestamp;
+    private final long rowCount;
+    private final long tradeCycleCount;
+    private final long tradeCount;
+    private final BigDecimal feesPaid;
+    private final BigDecimal endingBaseBalance;
+    private final BigDecimal endingCounterBalance;
+    private final BigDecimal startingValue;
+    private final BigDecimal endingValue;
+    private final double maxDrawdown;
+    private final long elapsedMillis;
+
+    BacktestResult(String marketId, long firstTimestamp, long lastTimestamp, long rowCount, long tradeCycleCount,
+                   long tradeCount, BigDecimal feesPaid, BigDecimal endingBaseBalance,
+                   BigDecimal endingCounterBalance, BigDecimal startingValue, BigDecimal endingValue,
+                   double maxDrawdown, long elapsedMillis) {
+        this.marketId = marketId;
+        this.firstTimestamp = firstTimestamp;
+        this.lastTimestamp = lastTimestamp;
+        this.rowCount = rowCount;
+        this.tradeCycleCount = tradeCycleCount;
+        this.tradeCount = tradeCount;
+        this.feesPaid = feesPaid;
+        this.endingBaseBalance = endingBaseBalance;
+        this.endingCounterBalance = endingCounterBalance;
+        this.startingValue = startingValue;
+        this.endingValue = endingValue;
+        this.maxDrawdown = maxDrawdown;
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    public String getMarketId() {
+        return marketId;
+    }
+
+    /**
+     * Returns the time of the first row of market data replayed.
+     *
+     * @return the timestamp in millis since the epoch.
+     */
+    public long getFirstTimestamp() {
+        return firstTimestamp;
+    }
+
+    /**
+     * Returns the time of the last row of market data replayed.
+     *
+     * @return the timestamp in millis since the epoch.
+     */
+    public long getLastTimestamp() {
+        return lastTimestamp;
+    }
+
+    /**
+     * Returns the number of rows of market data replayed.
+     *
+     * @return the row count.
+     */
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * Returns the number of times the strategy was run.
+     *
+     * @return the trade cycle count.
+     */
+    public long getTradeCycleCount() {
+        return tradeCycleCount;
+    }
+
+    /**
+     * Returns the number of fills. An order that filled against several levels, or over several rows, counts once for
+     * each.
+     *
+     * @return the trade count.
+     */
+    public long getTradeCount() {
+        return tradeCount;
+    }
+
+    public BigDecimal getFeesPaid() {
+        return feesPaid;
+    }
+
+    public BigDecimal getEndingBaseBalance() {
+        return endingBaseBalance;
+    }
+
+    public BigDecimal getEndingCounterBalance() {
+        return endingCounterBalance;
+    }
+
+    /**
+     * Returns the value of the starting balances at the first mark price.
+     *
+     * @return the starting value.
+     */
+    public BigDecimal getStartingValue() {
+        return startingValue;
+    }
+
+    /**
+     * Returns the value of the ending balances at the last mark price.
+     *
+     * @return the ending value.
+     */
+    public BigDecimal getEndingValue() {
+        return endingValue;
+    }
+
+    /**
+     * Returns the profit (or loss, if negative) over the run: the ending value less the starting value.
+     *
+     * @return the profit and loss.
+     */
+    public BigDecimal getProfitAndLoss() {
+        return endingValue.subtract(startingValue);
+    }
+
+    /**
+     * Returns the largest fall in the account value from a previous high, as a fraction of that high, e.g. 0.1 for
+     * a 10% drawdown. The value is checked on every row.
+     *
+     * @return the maximum drawdown.
+     */
+    public double getMaxDrawdown() {
+        return maxDrawdown;
+    }
+
+    /**
+     * Returns how long the run took.
+     *
+     * @return the wall clock time in millis.
+     */
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                .add("marketId", marketId)
+                .add("firstTimestamp", firstTimestamp)
+                .add("lastTimestamp", lastTimestamp)
+                .add("rowCount", rowCount)
+                .add("tradeCycleCount", tradeCycleCount)
+                .add("tradeCount", tradeCount)
+                .add("feesPaid", feesPaid)
+                .add("endingBaseBalance", endingBaseBalance)
+                .add("endingCounterBalance", endingCounterBalance)
+                .add("startingValue", startingValue)
+                .add("endingValue", endingValue)
+                .add("profitAndLoss", getProfitAndLoss())
+                .add("maxDrawdown", maxDrawdown)
+                .add("elapsedMillis", elapsedMillis)
+                .toString();
+    }
+}
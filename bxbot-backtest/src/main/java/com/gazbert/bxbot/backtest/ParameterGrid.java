@@ -0,0 +1,256 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+
+package com.gazbert.bxbot.backtest;
+
+import com.google.common.base.MoreObjects;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * <p>
+ * The Strategy Config Items to sweep a strategy over: a list of values for each swept item, plus any items that are
+ * the same for every run. Each combination of the swept values is a point in the grid.
+ * </p>
+ * <p>
+ * The grid can be run in full - see {@link #getAll()} - or, when it is too big for that, a random sample of its
+ * points can be run instead - see {@link #sample(int, long)}. The points are worked out as they are needed, so a
+ * sample can be taken from a grid far too big to list.
+ * </p>
+ * <p>
+ * Instances are immutable. Use the {@link Builder} to create one.
+ * </p>
+ *
+ * @author gazbert
+ * @since 1.2
+ */
+public final class ParameterGrid {
+
+    private final Map<String, String> fixedItems;
+    private final String[] sweptKeys;
+    private final String[][] sweptValues;
+    private final long size;
+
+    private ParameterGrid(Builder builder) {
+        fixedItems = Collections.unmodifiableMap(new LinkedHashMap<>(builder.fixedItems));
+        sweptKeys = builder.sweptItems.keySet().toArray(new String[0]);
+        sweptValues = new String[sweptKeys.length][];
+        long points = 1;
+        for (int i = 0; i < sweptKeys.length; i++) {
+            sweptValues[i] = builder.sweptItems.get(sweptKeys[i]).toArray(new String[0]);
+            points = Math.multiplyExact(points, sweptValues[i].length);
+        }
+        size = points;
+    }
+
+    /**
+     * Returns the number of points in the grid.
+     *
+     * @return the number of combinations of the swept values.
+     */
+    public long size() {
+        return size;
+    }
+
+    /**
+     * Returns every point in the grid. The last swept item changes fastest.
+     *
+     * @return the config for each point.
+     * @throws IllegalStateException if the grid is too big to list.
+     */
+    public List<BacktestStrategyConfig> getAll() {
+        if (size > Integer.MAX_VALUE) {
+            throw new IllegalStateException("Grid has too many points to list - take a sample instead: " + size);
+        }
+        final List<BacktestStrategyConfig> configs = new ArrayList<>((int) size);
+        for (long index = 0; index < size; index++) {
+            configs.add(get(index));
+        }
+        return configs;
+    }
+
+    /**
+     * Returns a random sample of the points in the grid, without repeats. The same seed always gives the same sample.
+     *
+     * @param count the number of points to sample. If it is not less than the size of the grid, every point is
+     *              returned.
+     * @param seed  the seed for the random number generator.
+     * @return the config for each sampled point, in grid order.
+     */
+    public List<BacktestStrategyConfig> sample(int count, long seed) {
+        if (count < 0) {
+            throw new IllegalArgumentException("Sample count cannot be negative: " + count);
+        }
+        if (count >= size) {
+            return getAll();
+        }
+
+        // Floyd's algorithm - count distinct indexes without listing the grid
+        final Random random = new Random(seed);
+        final Set<Long> indexes = new HashSet<>();
+        for (long upper = size - count; upper < size; upper++) {
+            final long index = randomIndex(random, upper + 1);
+            if (!indexes.add(index)) {
+                indexes.add(upper);
+            }
+        }
+
+        final long[] sorted = new long[count];
+        int i = 0;
+        for (final Long index : indexes) {
+            sorted[i++] = index;
+        }
+        Arrays.sort(sorted);
+
+        final List<BacktestStrategyConfig> configs = new ArrayList<>(count);
+        for (final long index : sorted) {
+            configs.add(get(index));
+        }
+        return configs;
+    }
+
+    @Override
+    public String toString() {
+        final Map<String, List<String>> swept = new LinkedHashMap<>();
+        for (int i = 0; i < sweptKeys.length; i++) {
+            swept.put(sweptKeys[i], Arrays.asList(sweptValues[i]));
+        }
+        return MoreObjects.toStringHelper(this)
+                .add("fixedItems", fixedItems)
+                .add("sweptItems", swept)
+                .add("size", size)
+                .toString();
+    }
+
+    // ------------------------------------------------------------------------
+    // Private utils
+    // ------------------------------------------------------------------------
+
+    /*
+     * Works out the point at an index - the index is a mixed-radix number with a digit for each swept item.
+     */
+    private BacktestStrategyConfig get(long index) {
+        final Map<String, String> items = new LinkedHashMap<>(fixedItems);
+        long remainder = index;
+        for (int i = sweptKeys.length - 1; i >= 0; i--) {
+            final int radix = sweptValues[i].length;
+            items.put(sweptKeys[i], sweptValues[i][(int) (remainder % radix)]);
+            remainder /= radix;
+        }
+        return new BacktestStrategyConfig(items);
+    }
+
+    private static long randomIndex(Random random, long bound) {
+        if (bound <= Integer.MAX_VALUE) {
+            return random.nextInt((int) bound);
+        }
+        long bits;
+        long value;
+        do {
+            bits = random.nextLong() >>> 1;
+            value = bits % bound;
+        } while (bits - value + (bound - 1) < 0);
+        return value;
+    }
+
+    /**
+     * Builds a Parameter Grid.
+     */
+    public static final class Builder {
+
+        private final Map<String, String> fixedItems = new LinkedHashMap<>();
+        private final Map<String, List<String>> sweptItems = new LinkedHashMap<>();
+
+        /**
+         * Sets a config item that is the same for every point.
+         *
+         * @param key   the config item key.
+         * @param value the config item value.
+         * @return this builder.
+         */
+        public Builder fixed(String key, String value) {
+            sweptItems.remove(key);
+            fixedItems.put(key, value);
+            return this;
+        }
+
+        /**
+         * Sweeps a config item over a list of values.
+         *
+         * @param key    the config item key.
+         * @param values the values to try.
+         * @return this builder.
+         */
+        public Builder values(String key, String... values) {
+            if (values.length == 0) {
+                throw new IllegalArgumentException("No values to sweep for config item: " + key);
+            }
+            fixedItems.remove(key);
+            sweptItems.put(key, new ArrayList<>(Arrays.asList(values)));
+            return this;
+        }
+
+        /**
+         * Sweeps a numeric config item over a range, e.g. 0.1 to 0.5 in steps of 0.1.
+         *
+         * @param key  the config item key.
+         * @param from the first value.
+         * @param to   the last value - it is included if it is a whole number of steps from the first.
+         * @param step the step between values. It must be positive.
+         * @return this builder.
+         */
+        public Builder range(String key, BigDecimal from, BigDecimal to, BigDecimal step) {
+            if (step.signum() <= 0) {
+                throw new IllegalArgumentException("Step must be positive: " + step);
+            }
+            if (from.compareTo(to) > 0) {
+                throw new IllegalArgumentException("Range is empty - from: " + from + ", to: " + to);
+            }
+            final List<String> values = new ArrayList<>();
+            for (BigDecimal value = from; value.compareTo(to) <= 0; value = value.add(step)) {
+                values.add(value.toPlainString());
+            }
+            return values(key, values.toArray(new String[0]));
+        }
+
+        /**
+         * Builds the grid.
+         *
+         * @return the grid.
+         * @throws ArithmeticException if the grid has more than Long.MAX_VALUE points.
+         */
+        public ParameterGrid build() {
+            return new ParameterGrid(this);
+        }
+    }
+}
@@ -0,0 +1,180 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+
+package com.gazbert.bxbot.backtest;
+
+import com.gazbert.bxbot.strategy.api.StrategyException;
+import com.gazbert.bxbot.strategy.api.TradingStrategy;
+import com.google.common.base.MoreObjects;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Supplier;
+
+/**
+ * <p>
+ * Runs a Trading Strategy over a set of Strategy Config Items in parallel, to find the config that does best against
+ * the recorded market data - see {@link ParameterGrid} for building the set.
+ * </p>
+ * <p>
+ * The runs are split across a fork/join pool, with a thread per core by default. Every run gets a new instance of the
+ * strategy and its own simulated Exchange Adapter, but they all read the same memory-mapped market data, so memory
+ * use does not grow with the number of threads.
+ * </p>
+ * <p>
+ * A strategy that throws a {@link StrategyException} or a RuntimeException fails that run only; it is reported in its
+ * {@link SweepResult} and the rest of the sweep carries on. The results are ranked by {@link SweepResult#RANKING}.
+ * </p>
+ *
+ * @author gazbert
+ * @since 1.2
+ */
+public final class ParameterSweep {
+
+    private static final Logger LOG = LogManager.getLogger();
+
+    private final Backtest backtest;
+    private final Supplier<? extends TradingStrategy> strategyFactory;
+    private final int parallelism;
+
+    /**
+     * Creates a sweep that uses a thread per core.
+     *
+     * @param backtest        the backtest to run each config through.
+     * @param strategyFactory creates a new instance of the strategy for each run.
+     */
+    public ParameterSweep(Backtest backtest, Supplier<? extends TradingStrategy> strategyFactory) {
+        this(backtest, strategyFactory, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Creates a sweep.
+     *
+     * @param backtest        the backtest to run each config through.
+     * @param strategyFactory creates a new instance of the strategy for each run.
+     * @param parallelism     the number of threads to run the backtests on.
+     */
+    public ParameterSweep(Backtest backtest, Supplier<? extends TradingStrategy> strategyFactory, int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be at least 1: " + parallelism);
+        }
+        this.backtest = backtest;
+        this.strategyFactory = strategyFactory;
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Runs the strategy with every point in a grid.
+     *
+     * @param grid the config items to sweep.
+     * @return the results, best first.
+     */
+    public List<SweepResult> run(ParameterGrid grid) {
+        return run(grid.getAll());
+    }
+
+    /**
+     * Runs the strategy with each of the given configs.
+     *
+     * @param strategyConfigs the config items for each run.
+     * @return the results, best first.
+     */
+    public List<SweepResult> run(List<BacktestStrategyConfig> strategyConfigs) {
+
+        final long startTime = System.currentTimeMillis();
+        final BacktestStrategyConfig[] configs = strategyConfigs.toArray(new BacktestStrategyConfig[0]);
+        final SweepResult[] results = new SweepResult[configs.length];
+
+        final ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            pool.invoke(new SweepTask(configs, results, 0, configs.length));
+        } finally {
+            pool.shutdown();
+        }
+
+        final List<SweepResult> ranked = new ArrayList<>(Arrays.asList(results));
+        ranked.sort(SweepResult.RANKING);
+        LOG.info(() -> "Parameter sweep of " + configs.length + " configs finished in "
+                + (System.currentTimeMillis() - startTime) + "ms");
+        return ranked;
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                .add("backtest", backtest)
+                .add("parallelism", parallelism)
+                .toString();
+    }
+
+    /*
+     * Runs a range of the configs, splitting it in half until there is a single backtest to run.
+     * Each backtest is far bigger than the cost of a fork, so there is no point running more than 1 per leaf.
+     */
+    private final class SweepTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final BacktestStrategyConfig[] configs;
+        private final SweepResult[] results;
+        private final int from;
+        private final int to;
+
+        private SweepTask(BacktestStrategyConfig[] configs, SweepResult[] results, int from, int to) {
+            this.configs = configs;
+            this.results = results;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > 1) {
+                final int middle = (from + to) >>> 1;
+                invokeAll(new SweepTask(configs, results, from, middle),
+                        new SweepTask(configs, results, middle, to));
+            } else if (to > from) {
+                results[from] = runOne(configs[from]);
+            }
+        }
+    }
+
+    private SweepResult runOne(BacktestStrategyConfig strategyConfig) {
+        try {
+            return new SweepResult(strategyConfig, backtest.run(strategyFactory.get(), strategyConfig), null);
+        } catch (StrategyException e) {
+            LOG.warn("Backtest failed for config " + strategyConfig + ": " + e.getMessage());
+            return new SweepResult(strategyConfig, null, e);
+        } catch (RuntimeException e) {
+            // A bug in the strategy must not take the other runs in the sweep down with it
+            LOG.error("Unexpected error in backtest for config " + strategyConfig, e);
+            return new SweepResult(strategyConfig, null, e);
+        }
+    }
+}
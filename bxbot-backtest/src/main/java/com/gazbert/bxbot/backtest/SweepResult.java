@@ -0,0 +1,110 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+
+package com.gazbert.bxbot.backtest;
+
+import com.google.common.base.MoreObjects;
+
+import java.math.BigDecimal;
+import java.util.Comparator;
+
+/**
+ * <p>
+ * The outcome of one run of a {@link ParameterSweep}: the Strategy Config Items the strategy was run with, and either
+ * the {@link BacktestResult} or the exception the strategy failed with.
+ * </p>
+ *
+ * @author gazbert
+ * @since 1.2
+ */
+public final class SweepResult {
+
+    /**
+     * The order the sweep results are ranked in: highest profit first, then lowest maximum drawdown, then most trades
+     * - of 2 runs that did equally well, the one that traded more is less likely to have got lucky. Failed runs are
+     * ranked last.
+     */
+    public static final Comparator<SweepResult> RANKING = Comparator
+            .comparing(SweepResult::isFailed)
+            .thenComparing(SweepResult::profitAndLoss, Comparator.reverseOrder())
+            .thenComparingDouble(SweepResult::maxDrawdown)
+            .thenComparing(SweepResult::tradeCount, Comparator.reverseOrder());
+
+    private final BacktestStrategyConfig strategyConfig;
+    private final BacktestResult backtestResult;
+    private final Exception failure;
+
+    SweepResult(BacktestStrategyConfig strategyConfig, BacktestResult backtestResult, Exception failure) {
+        this.strategyConfig = strategyConfig;
+        this.backtestResult = backtestResult;
+        this.failure = failure;
+    }
+
+    public BacktestStrategyConfig getStrategyConfig() {
+        return strategyConfig;
+    }
+
+    /**
+     * Returns the result of the run.
+     *
+     * @return the result, or null if the strategy failed.
+     */
+    public BacktestResult getBacktestResult() {
+        return backtestResult;
+    }
+
+    /**
+     * Returns why the run failed.
+     *
+     * @return the StrategyException or RuntimeException the run failed with, or null if it did not fail.
+     */
+    public Exception getFailure() {
+        return failure;
+    }
+
+    public boolean isFailed() {
+        return failure != null;
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                .add("strategyConfig", strategyConfig)
+                .add("backtestResult", backtestResult)
+                .add("failure", failure)
+                .toString();
+    }
+
+    private BigDecimal profitAndLoss() {
+        return backtestResult == null ? BigDecimal.ZERO : backtestResult.getProfitAndLoss();
+    }
+
+    private double maxDrawdown() {
+        return backtestResult == null ? 0 : backtestResult.getMaxDrawdown();
+    }
+
+    private long tradeCount() {
+        return backtestResult == null ? 0 : backtestResult.getTradeCount();
+    }
+}
@@ -0,0 +1,202 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.backtest;
+
+import com.gazbert.bxbot.marketdata.MarketDataFileWriter;
+import com.gazbert.bxbot.marketdata.MarketDataSet;
+import com.gazbert.bxbot.marketdata.MarketSnapshot;
+import com.gazbert.bxbot.strategy.api.OrderEvent;
+import com.gazbert.bxbot.strategy.api.OrderEventListener;
+import com.gazbert.bxbot.strategy.api.StrategyConfig;
+import com.gazbert.bxbot.strategy.api.StrategyException;
+import com.gazbert.bxbot.strategy.api.TradingStrategy;
+import com.gazbert.bxbot.trading.api.Market;
+import com.gazbert.bxbot.trading.api.OrderType;
+import com.gazbert.bxbot.trading.api.TradingApi;
+import com.gazbert.bxbot.trading.api.TradingApiException;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests a Backtest drives a strategy through the market data as expected.
+ *
+ * @author gazbert
+ */
+public class TestBacktest {
+
+    private static final String MARKET_ID = "btcusd";
+    private static final Market MARKET = new BacktestMarket(MARKET_ID, "BTC", "USD");
+    private static final StrategyConfig STRATEGY_CONFIG =
+            new BacktestStrategyConfig(Collections.singletonMap("quantity", "1"));
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    private MarketDataSet marketData;
+
+    @Before
+    public void setupForEachTest() throws Exception {
+        final Path file = folder.getRoot().toPath().resolve("btcusd.bxmd");
+        final long[] lastPrices = {10000, 10000, 9500, 10500, 11000};
+        final MarketSnapshot snapshot = new MarketSnapshot(1);
+        try (MarketDataFileWriter writer = new MarketDataFileWriter(file, MARKET_ID, 1, 2, 2)) {
+            for (int row = 0; row < lastPrices.length; row++) {
+                snapshot.clear();
+                snapshot.setTimestamp(1000L * (row + 1));
+                snapshot.setLastPrice(lastPrices[row]);
+                snapshot.addBid(lastPrices[row] - 100, 1000);
+                snapshot.addAsk(lastPrices[row] + 100, 1000);
+                writer.append(snapshot);
+            }
+        }
+        marketData = MarketDataSet.of(file);
+    }
+
+    @Test
+    public void testStrategyIsRunEachTradeCycleAndTheResultIsValued() throws Exception {
+
+        final Backtest backtest = new Backtest(marketData, MARKET, new BacktestConfig.Builder()
+                .tradeCycleMillis(2000)
+                .startingBalances(BigDecimal.ZERO, new BigDecimal("1000"))
+                .build());
+        final BuyOnceStrategy strategy = new BuyOnceStrategy();
+
+        final BacktestResult result = backtest.run(strategy, STRATEGY_CONFIG);
+
+        assertSame(STRATEGY_CONFIG, strategy.config);
+        assertEquals(3, strategy.executeCount);
+        assertEquals(1, strategy.filledCount);
+
+        assertEquals(MARKET_ID, result.getMarketId());
+        assertEquals(1000, result.getFirstTimestamp());
+        assertEquals(5000, result.getLastTimestamp());
+        assertEquals(5, result.getRowCount());
+        assertEquals(3, result.getTradeCycleCount());
+        assertEquals(1, result.getTradeCount());
+        assertEquals(0, BigDecimal.ONE.compareTo(result.getEndingBaseBalance()));
+        assertEquals(0, new BigDecimal("899").compareTo(result.getEndingCounterBalance()));
+
+        // bought 1 at 101, valued at 110 at the end
+        assertEquals(0, new BigDecimal("1000").compareTo(result.getStartingValue()));
+        assertEquals(0, new BigDecimal("1009").compareTo(result.getEndingValue()));
+        assertEquals(0, new BigDecimal("9").compareTo(result.getProfitAndLoss()));
+
+        // 999 after buying, down to 994 when the price drops to 95
+        assertEquals(5.0 / 999, result.getMaxDrawdown(), 1e-9);
+    }
+
+    @Test
+    public void testStrategyIsRunOnEveryRowWithNoTradeCycleInterval() throws Exception {
+
+        final Backtest backtest = new Backtest(marketData, MARKET, new BacktestConfig.Builder().build());
+        final BuyOnceStrategy strategy = new BuyOnceStrategy();
+
+        // no balance to buy with - the strategy gives up
+        final BacktestResult result = backtest.run(strategy, STRATEGY_CONFIG);
+
+        assertEquals(5, strategy.executeCount);
+        assertEquals(0, result.getTradeCount());
+        assertEquals(0, BigDecimal.ZERO.compareTo(result.getProfitAndLoss()));
+        assertEquals(0.0, result.getMaxDrawdown(), 0.0);
+        assertTrue(result.getElapsedMillis() >= 0);
+    }
+
+    @Test(expected = StrategyException.class)
+    public void testStrategyExceptionStopsTheRun() throws Exception {
+
+        final Backtest backtest = new Backtest(marketData, MARKET, new BacktestConfig.Builder().build());
+        backtest.run(new TradingStrategy() {
+            @Override
+            public void init(TradingApi tradingApi, Market market, StrategyConfig config) {
+            }
+
+            @Override
+            public void execute() throws StrategyException {
+                throw new StrategyException("Strategy is broken");
+            }
+        }, STRATEGY_CONFIG);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testMarketDataForADifferentMarketIsRejected() {
+        new Backtest(marketData, new BacktestMarket("ltcusd", "LTC", "USD"), new BacktestConfig.Builder().build());
+    }
+
+    /*
+     * Buys at the best ask on its first run, if it can afford to.
+     */
+    private static final class BuyOnceStrategy implements TradingStrategy, OrderEventListener {
+
+        private TradingApi tradingApi;
+        private Market market;
+        private StrategyConfig config;
+        private boolean bought;
+        private int executeCount;
+        private int filledCount;
+
+        @Override
+        public void init(TradingApi tradingApi, Market market, StrategyConfig config) {
+            this.tradingApi = tradingApi;
+            this.market = market;
+            this.config = config;
+        }
+
+        @Override
+        public void execute() throws StrategyException {
+            executeCount++;
+            if (bought) {
+                return;
+            }
+            bought = true;
+            try {
+                final BigDecimal price = tradingApi.getMarketOrders(market.getId()).getSellOrders().get(0).getPrice();
+                tradingApi.createOrder(market.getId(), OrderType.BUY, new BigDecimal(config.getConfigItem("quantity")),
+                        price);
+            } catch (TradingApiException e) {
+                // not enough to buy with
+            } catch (Exception e) {
+                throw new StrategyException(e);
+            }
+        }
+
+        @Override
+        public void onOrderFilled(OrderEvent orderEvent) {
+            filledCount++;
+        }
+
+        @Override
+        public void onOrderCancelled(OrderEvent orderEvent) {
+        }
+    }
+}
@@ -0,0 +1,322 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.backtest;
+
+import com.gazbert.bxbot.marketdata.MarketDataFileWriter;
+import com.gazbert.bxbot.marketdata.MarketDataSet;
+import com.gazbert.bxbot.marketdata.MarketSnapshot;
+import com.gazbert.bxbot.strategy.api.OrderEvent;
+import com.gazbert.bxbot.strategy.api.OrderEventListener;
+import com.gazbert.bxbot.trading.api.BalanceInfo;
+import com.gazbert.bxbot.trading.api.Market;
+import com.gazbert.bxbot.trading.api.MarketOrderBook;
+import com.gazbert.bxbot.trading.api.OpenOrder;
+import com.gazbert.bxbot.trading.api.OrderType;
+import com.gazbert.bxbot.trading.api.Ticker;
+import com.gazbert.bxbot.trading.api.TradingApiException;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests the Backtest Exchange Adapter replays market data and matches orders as expected.
+ *
+ * @author gazbert
+ */
+public class TestBacktestExchangeAdapter {
+
+    private static final String MARKET_ID = "btcusd";
+    private static final Market MARKET = new BacktestMarket(MARKET_ID, "BTC", "USD");
+    private static final int DEPTH = 2;
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    private MarketDataSet marketData;
+    private RecordingListener listener;
+
+    /*
+     * Row 0 at 1000: last 100.00, bids 99.00 x 1, 98.00 x 2, asks 101.00 x 1, 102.00 x 2
+     * Row 1 at 2000: last 97.00,  bids 96.00 x 1, 95.00 x 1, asks 97.00 x 1.5, 98.00 x 1
+     * Row 2 at 3000: last 103.00, bids 103.00 x 2, 102.00 x 1, asks 104.00 x 1, 105.00 x 1
+     */
+    @Before
+    public void setupForEachTest() throws Exception {
+        final Path file = folder.getRoot().toPath().resolve("btcusd.bxmd");
+        try (MarketDataFileWriter writer = new MarketDataFileWriter(file, MARKET_ID, DEPTH, 2, 2)) {
+            writer.append(row(1000, 10000, 9900, 100, 9800, 200, 10100, 100, 10200, 200));
+            writer.append(row(2000, 9700, 9600, 100, 9500, 100, 9700, 150, 9800, 100));
+            writer.append(row(3000, 10300, 10300, 200, 10200, 100, 10400, 100, 10500, 100));
+        }
+        marketData = MarketDataSet.of(file);
+        listener = new RecordingListener();
+    }
+
+    @Test
+    public void testMarketDataComesFromTheCurrentRow() throws Exception {
+
+        final BacktestExchangeAdapter adapter = newAdapter(new BacktestConfig.Builder().build());
+
+        assertEquals(new BigDecimal("100.00"), adapter.getLatestMarketPrice(MARKET_ID));
+        final MarketOrderBook orderBook = adapter.getMarketOrders(MARKET_ID);
+        assertEquals(2, orderBook.getBuyOrders().size());
+        assertEquals(new BigDecimal("99.00"), orderBook.getBuyOrders().get(0).getPrice());
+        assertEquals(new BigDecimal("2.00"), orderBook.getBuyOrders().get(1).getQuantity());
+        assertEquals(new BigDecimal("101.00"), orderBook.getSellOrders().get(0).getPrice());
+
+        final Ticker ticker = adapter.getTicker(MARKET_ID);
+        assertNull(ticker.getLast());
+        assertNull(ticker.getVolume());
+        assertEquals(Long.valueOf(1000), ticker.getTimestamp());
+
+        assertTrue(adapter.nextRow());
+        assertEquals(new BigDecimal("97.00"), adapter.getLatestMarketPrice(MARKET_ID));
+        assertTrue(adapter.nextRow());
+        assertEquals(3000, adapter.getTimestamp());
+        assertFalse(adapter.nextRow());
+    }
+
+    @Test(expected = TradingApiException.class)
+    public void testOtherMarketsAreRejected() throws Exception {
+        newAdapter(new BacktestConfig.Builder().build()).getLatestMarketPrice("ltcusd");
+    }
+
+    @Test
+    public void testCrossingBuyTakesTheLevelsAtTheirPricesAndPaysTheFee() throws Exception {
+
+        final BacktestExchangeAdapter adapter = newAdapter(new BacktestConfig.Builder()
+                .fees(new BigDecimal("0.01"), new BigDecimal("0.01"))
+                .startingBalances(BigDecimal.ZERO, new BigDecimal("1000"))
+                .build());
+
+        final String orderId = adapter.createOrder(MARKET_ID, OrderType.BUY, new BigDecimal("1.5"),
+                new BigDecimal("102"));
+
+        // 1 @ 101 + 0.5 @ 102 = 152 + 1% fee
+        assertEquals(2, adapter.getTradeCount());
+        assertTrue(adapter.getYourOpenOrders(MARKET_ID).isEmpty());
+        final BalanceInfo balanceInfo = adapter.getBalanceInfo();
+        assertEquals(0, new BigDecimal("1.5").compareTo(balanceInfo.getBalancesAvailable().get("BTC")));
+        assertEquals(0, new BigDecimal("846.48").compareTo(balanceInfo.getBalancesAvailable().get("USD")));
+        assertEquals(0, BigDecimal.ZERO.compareTo(balanceInfo.getBalancesOnHold().get("USD")));
+        assertEquals(0, new BigDecimal("1.52").compareTo(adapter.getFeesPaid()));
+
+        adapter.sendOrderEvents(listener);
+        assertEquals(1, listener.filled.size());
+        assertEquals(orderId, listener.filled.get(0).getOrderId());
+    }
+
+    @Test
+    public void testRestingBuyFillsAtItsPriceWhenTheBookTradesThroughIt() throws Exception {
+
+        final BacktestExchangeAdapter adapter = newAdapter(new BacktestConfig.Builder()
+                .startingBalances(BigDecimal.ZERO, new BigDecimal("1000"))
+                .build());
+
+        final String orderId = adapter.createOrder(MARKET_ID, OrderType.BUY, BigDecimal.ONE, new BigDecimal("98"));
+
+        final List<OpenOrder> openOrders = adapter.getYourOpenOrders(MARKET_ID);
+        assertEquals(1, openOrders.size());
+        assertEquals(orderId, openOrders.get(0).getId());
+        assertEquals(0, new BigDecimal("902").compareTo(adapter.getBalanceInfo().getBalancesAvailable().get("USD")));
+        assertEquals(0, new BigDecimal("98").compareTo(adapter.getBalanceInfo().getBalancesOnHold().get("USD")));
+
+        // asks drop to 97.00 - filled at the resting price, not the ask
+        assertTrue(adapter.nextRow());
+        assertTrue(adapter.getYourOpenOrders(MARKET_ID).isEmpty());
+        assertEquals(0, new BigDecimal("902").compareTo(adapter.getBalanceInfo().getBalancesAvailable().get("USD")));
+        assertEquals(0, BigDecimal.ONE.compareTo(adapter.getBalanceInfo().getBalancesAvailable().get("BTC")));
+
+        adapter.sendOrderEvents(listener);
+        assertEquals(1, listener.filled.size());
+        assertEquals(0, BigDecimal.ONE.compareTo(listener.filled.get(0).getFilledQuantity()));
+    }
+
+    @Test
+    public void testOrdersAreNotMatchedUntilTheLatencyHasPassed() throws Exception {
+
+        final BacktestExchangeAdapter adapter = newAdapter(new BacktestConfig.Builder()
+                .latencyMillis(1500)
+                .startingBalances(BigDecimal.ZERO, new BigDecimal("1000"))
+                .build());
+
+        adapter.createOrder(MARKET_ID, OrderType.BUY, BigDecimal.ONE, new BigDecimal("105"));
+        assertEquals(0, adapter.getTradeCount());
+
+        // 1000ms later - still on its way, so it misses the 97.00 ask
+        assertTrue(adapter.nextRow());
+        assertEquals(0, adapter.getTradeCount());
+
+        // 2000ms later - arrives and takes the 104.00 ask
+        assertTrue(adapter.nextRow());
+        assertEquals(1, adapter.getTradeCount());
+        assertEquals(0, new BigDecimal("896").compareTo(adapter.getCounterBalance()));
+    }
+
+    @Test
+    public void testSellIsPartiallyFilledThenFilled() throws Exception {
+
+        final BacktestExchangeAdapter adapter = newAdapter(new BacktestConfig.Builder()
+                .startingBalances(new BigDecimal("3"), BigDecimal.ZERO)
+                .build());
+
+        adapter.createOrder(MARKET_ID, OrderType.SELL, new BigDecimal("3"), new BigDecimal("99"));
+        assertEquals(0, new BigDecimal("99").compareTo(adapter.getCounterBalance()));
+        assertEquals(0, new BigDecimal("2").compareTo(adapter.getBalanceInfo().getBalancesOnHold().get("BTC")));
+
+        assertTrue(adapter.nextRow());
+        assertTrue(adapter.nextRow());
+        assertEquals(0, new BigDecimal("297").compareTo(adapter.getCounterBalance()));
+        assertEquals(0, BigDecimal.ZERO.compareTo(adapter.getBaseBalance()));
+
+        adapter.sendOrderEvents(listener);
+        assertEquals(1, listener.partiallyFilled.size());
+        assertEquals(0, BigDecimal.ONE.compareTo(listener.partiallyFilled.get(0).getFilledQuantity()));
+        assertEquals(1, listener.filled.size());
+        assertTrue(listener.cancelled.isEmpty());
+    }
+
+    @Test
+    public void testFilledLiquidityIsNotFilledAgainUntilTheRecordedLevelChanges() throws Exception {
+
+        final Path file = folder.getRoot().toPath().resolve("unchanged.bxmd");
+        try (MarketDataFileWriter writer = new MarketDataFileWriter(file, MARKET_ID, DEPTH, 2, 2)) {
+            writer.append(row(1000, 10000, 9900, 100, 9800, 200, 10100, 100, 10200, 200));
+            writer.append(row(2000, 10000, 9900, 100, 9800, 200, 10100, 100, 10200, 200));
+            writer.append(row(3000, 10000, 9900, 100, 9800, 200, 10100, 100, 10200, 200));
+            writer.append(row(4000, 10000, 9900, 100, 9800, 200, 10100, 150, 10200, 200));
+        }
+        final BacktestExchangeAdapter adapter = new BacktestExchangeAdapter(MarketDataSet.of(file).cursor(),
+                MARKET, new BacktestConfig.Builder().startingBalances(BigDecimal.ZERO, new BigDecimal("20000"))
+                .build());
+
+        // Takes the 1 at 101.00 - the second order at the same price gets none of it
+        adapter.createOrder(MARKET_ID, OrderType.BUY, new BigDecimal("100"), new BigDecimal("101"));
+        adapter.createOrder(MARKET_ID, OrderType.BUY, BigDecimal.ONE, new BigDecimal("101"));
+        assertEquals(1, adapter.getTradeCount());
+        assertEquals(0, BigDecimal.ONE.compareTo(adapter.getBaseBalance()));
+
+        // The level is recorded unchanged, so there is nothing more to fill
+        assertTrue(adapter.nextRow());
+        assertTrue(adapter.nextRow());
+        assertEquals(1, adapter.getTradeCount());
+        assertEquals(0, BigDecimal.ONE.compareTo(adapter.getBaseBalance()));
+
+        // The level changes to 1.5 - all of it is available again, to the first order in the queue
+        assertTrue(adapter.nextRow());
+        assertEquals(2, adapter.getTradeCount());
+        assertEquals(0, new BigDecimal("2.5").compareTo(adapter.getBaseBalance()));
+        final List<OpenOrder> openOrders = adapter.getYourOpenOrders(MARKET_ID);
+        assertEquals(2, openOrders.size());
+        assertEquals(0, new BigDecimal("97.5").compareTo(openOrders.get(0).getQuantity()));
+        assertEquals(0, BigDecimal.ONE.compareTo(openOrders.get(1).getQuantity()));
+    }
+
+    @Test
+    public void testCancelReleasesTheHoldAndSendsACancelEvent() throws Exception {
+
+        final BacktestExchangeAdapter adapter = newAdapter(new BacktestConfig.Builder()
+                .startingBalances(BigDecimal.ONE, BigDecimal.ZERO)
+                .build());
+
+        final String orderId = adapter.createOrder(MARKET_ID, OrderType.SELL, new BigDecimal("0.5"),
+                new BigDecimal("110"));
+        assertEquals(0, new BigDecimal("0.5").compareTo(adapter.getBalanceInfo().getBalancesAvailable().get("BTC")));
+
+        assertTrue(adapter.cancelOrder(orderId, MARKET_ID));
+        assertFalse(adapter.cancelOrder(orderId, MARKET_ID));
+        assertEquals(0, BigDecimal.ONE.compareTo(adapter.getBalanceInfo().getBalancesAvailable().get("BTC")));
+        assertTrue(adapter.getYourOpenOrders(MARKET_ID).isEmpty());
+
+        adapter.sendOrderEvents(listener);
+        assertEquals(1, listener.cancelled.size());
+        assertEquals(orderId, listener.cancelled.get(0).getOrderId());
+    }
+
+    @Test(expected = TradingApiException.class)
+    public void testOrdersBiggerThanTheBalanceAreRejected() throws Exception {
+
+        final BacktestExchangeAdapter adapter = newAdapter(new BacktestConfig.Builder()
+                .startingBalances(BigDecimal.ZERO, new BigDecimal("1000"))
+                .build());
+        adapter.createOrder(MARKET_ID, OrderType.BUY, BigDecimal.TEN, new BigDecimal("101"));
+    }
+
+    // ------------------------------------------------------------------------
+    // Private utils
+    // ------------------------------------------------------------------------
+
+    private BacktestExchangeAdapter newAdapter(BacktestConfig config) {
+        return new BacktestExchangeAdapter(marketData.cursor(), MARKET, config);
+    }
+
+    private static MarketSnapshot row(long timestamp, long lastPrice, long bid0, long bid0Quantity, long bid1,
+                                      long bid1Quantity, long ask0, long ask0Quantity, long ask1,
+                                      long ask1Quantity) {
+        final MarketSnapshot snapshot = new MarketSnapshot(DEPTH);
+        snapshot.setTimestamp(timestamp);
+        snapshot.setLastPrice(lastPrice);
+        snapshot.addBid(bid0, bid0Quantity);
+        snapshot.addBid(bid1, bid1Quantity);
+        snapshot.addAsk(ask0, ask0Quantity);
+        snapshot.addAsk(ask1, ask1Quantity);
+        return snapshot;
+    }
+
+    /*
+     * Collects the events sent to it.
+     */
+    private static final class RecordingListener implements OrderEventListener {
+
+        private final List<OrderEvent> filled = new ArrayList<>();
+        private final List<OrderEvent> partiallyFilled = new ArrayList<>();
+        private final List<OrderEvent> cancelled = new ArrayList<>();
+
+        @Override
+        public void onOrderFilled(OrderEvent orderEvent) {
+            filled.add(orderEvent);
+        }
+
+        @Override
+        public void onOrderCancelled(OrderEvent orderEvent) {
+            cancelled.add(orderEvent);
+        }
+
+        @Override
+        public void onOrderPartiallyFilled(OrderEvent orderEvent) {
+            partiallyFilled.add(orderEvent);
+        }
+    }
+}
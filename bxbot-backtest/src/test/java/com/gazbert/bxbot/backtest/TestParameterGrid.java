@@ -0,0 +1,143 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+
+package com.gazbert.bxbot.backtest;
+
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Tests a Parameter Grid works out its points as expected.
+ *
+ * @author gazbert
+ */
+public class TestParameterGrid {
+
+    private static final String BUY_AMOUNT = "counter-currency-buy-order-amount";
+    private static final String MINIMUM_GAIN = "minimum-percentage-gain";
+    private static final String FIXED_KEY = "some-fixed-item";
+
+    @Test
+    public void testEveryCombinationOfTheSweptValuesIsListed() {
+
+        final ParameterGrid grid = new ParameterGrid.Builder()
+                .fixed(FIXED_KEY, "fixed")
+                .values(BUY_AMOUNT, "10", "20")
+                .range(MINIMUM_GAIN, new BigDecimal("0.1"), new BigDecimal("0.3"), new BigDecimal("0.1"))
+                .build();
+
+        assertEquals(6, grid.size());
+        final List<BacktestStrategyConfig> configs = grid.getAll();
+        assertEquals(6, configs.size());
+
+        // The last swept item changes fastest
+        assertConfig(configs.get(0), "10", "0.1");
+        assertConfig(configs.get(1), "10", "0.2");
+        assertConfig(configs.get(2), "10", "0.3");
+        assertConfig(configs.get(3), "20", "0.1");
+        assertConfig(configs.get(4), "20", "0.2");
+        assertConfig(configs.get(5), "20", "0.3");
+    }
+
+    @Test
+    public void testRangeOnlyIncludesTheLastValueIfItIsAWholeStep() {
+
+        final ParameterGrid grid = new ParameterGrid.Builder()
+                .range(MINIMUM_GAIN, new BigDecimal("0.1"), new BigDecimal("0.35"), new BigDecimal("0.1"))
+                .build();
+
+        assertEquals(3, grid.size());
+        assertEquals("0.3", grid.getAll().get(2).getConfigItem(MINIMUM_GAIN));
+    }
+
+    @Test
+    public void testSampleHasNoRepeatsAndIsTheSameForTheSameSeed() {
+
+        final ParameterGrid grid = new ParameterGrid.Builder()
+                .range(BUY_AMOUNT, new BigDecimal("1"), new BigDecimal("100"), BigDecimal.ONE)
+                .range(MINIMUM_GAIN, new BigDecimal("0.01"), new BigDecimal("1.00"), new BigDecimal("0.01"))
+                .build();
+        assertEquals(10000, grid.size());
+
+        final List<BacktestStrategyConfig> sample = grid.sample(500, 42L);
+        assertEquals(500, sample.size());
+
+        final Set<String> points = new HashSet<>();
+        for (final BacktestStrategyConfig config : sample) {
+            points.add(config.getConfigItem(BUY_AMOUNT) + "/" + config.getConfigItem(MINIMUM_GAIN));
+        }
+        assertEquals(500, points.size());
+
+        final List<BacktestStrategyConfig> sameSample = grid.sample(500, 42L);
+        for (int i = 0; i < sample.size(); i++) {
+            assertEquals(sample.get(i).getItems(), sameSample.get(i).getItems());
+        }
+    }
+
+    @Test
+    public void testSampleOfTheWholeGridReturnsEveryPoint() {
+
+        final ParameterGrid grid = new ParameterGrid.Builder()
+                .values(BUY_AMOUNT, "10", "20", "30")
+                .build();
+
+        assertEquals(3, grid.sample(10, 1L).size());
+    }
+
+    @Test
+    public void testGridTooBigToListCanStillBeSampled() {
+
+        final String[] values = new String[1000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = String.valueOf(i);
+        }
+        final ParameterGrid grid = new ParameterGrid.Builder()
+                .values("a", values)
+                .values("b", values)
+                .values("c", values)
+                .values("d", values)
+                .build();
+
+        assertEquals(1_000_000_000_000L, grid.size());
+        assertEquals(10, grid.sample(10, 7L).size());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testSweptItemMustHaveValues() {
+        new ParameterGrid.Builder().values(BUY_AMOUNT);
+    }
+
+    private static void assertConfig(BacktestStrategyConfig config, String buyAmount, String minimumGain) {
+        assertEquals(3, config.getNumberOfConfigItems());
+        assertEquals("fixed", config.getConfigItem(FIXED_KEY));
+        assertEquals(buyAmount, config.getConfigItem(BUY_AMOUNT));
+        assertEquals(minimumGain, config.getConfigItem(MINIMUM_GAIN));
+    }
+}
@@ -0,0 +1,221 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+
+package com.gazbert.bxbot.backtest;
+
+import com.gazbert.bxbot.marketdata.MarketDataFileWriter;
+import com.gazbert.bxbot.marketdata.MarketDataSet;
+import com.gazbert.bxbot.marketdata.MarketSnapshot;
+import com.gazbert.bxbot.strategy.api.StrategyConfig;
+import com.gazbert.bxbot.strategy.api.StrategyException;
+import com.gazbert.bxbot.strategy.api.TradingStrategy;
+import com.gazbert.bxbot.trading.api.Market;
+import com.gazbert.bxbot.trading.api.OrderType;
+import com.gazbert.bxbot.trading.api.TradingApi;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests a Parameter Sweep runs and ranks every config as expected.
+ *
+ * @author gazbert
+ */
+public class TestParameterSweep {
+
+    private static final String MARKET_ID = "btcusd";
+    private static final Market MARKET = new BacktestMarket(MARKET_ID, "BTC", "USD");
+    private static final String QUANTITY = "quantity";
+    private static final String FAIL = "fail";
+    private static final String CRASH = "crash";
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    private Backtest backtest;
+
+    @Before
+    public void setupForEachTest() throws Exception {
+
+        // The price rises steadily - the more the strategy buys up front, the more it makes
+        final Path file = folder.getRoot().toPath().resolve("btcusd.bxmd");
+        final MarketSnapshot snapshot = new MarketSnapshot(1);
+        try (MarketDataFileWriter writer = new MarketDataFileWriter(file, MARKET_ID, 1, 2, 2)) {
+            for (int row = 0; row < 50; row++) {
+                final long price = 10000 + row * 100;
+                snapshot.clear();
+                snapshot.setTimestamp(1000L * (row + 1));
+                snapshot.setLastPrice(price);
+                snapshot.addBid(price - 10, 100000);
+                snapshot.addAsk(price + 10, 100000);
+                writer.append(snapshot);
+            }
+        }
+        backtest = new Backtest(MarketDataSet.of(file), MARKET, new BacktestConfig.Builder()
+                .startingBalances(BigDecimal.ZERO, new BigDecimal("10000"))
+                .build());
+    }
+
+    @Test
+    public void testEveryConfigIsRunAndTheResultsAreRankedByProfit() {
+
+        final ParameterGrid grid = new ParameterGrid.Builder()
+                .values(QUANTITY, "1", "5", "0", "3")
+                .build();
+
+        final List<SweepResult> results = new ParameterSweep(backtest, BuyOnceStrategy::new, 4).run(grid);
+
+        assertEquals(4, results.size());
+        assertEquals("5", results.get(0).getStrategyConfig().getConfigItem(QUANTITY));
+        assertEquals("3", results.get(1).getStrategyConfig().getConfigItem(QUANTITY));
+        assertEquals("1", results.get(2).getStrategyConfig().getConfigItem(QUANTITY));
+        assertEquals("0", results.get(3).getStrategyConfig().getConfigItem(QUANTITY));
+
+        for (final SweepResult result : results) {
+            assertFalse(result.isFailed());
+            assertEquals(50, result.getBacktestResult().getRowCount());
+        }
+        assertEquals(1, results.get(0).getBacktestResult().getTradeCount());
+        assertEquals(0, results.get(3).getBacktestResult().getTradeCount());
+
+        // bought 5 at 100.10, valued at 149.00 at the end
+        assertEquals(0, new BigDecimal("244.50").compareTo(results.get(0).getBacktestResult().getProfitAndLoss()));
+    }
+
+    @Test
+    public void testFailedRunIsReportedAndRankedLast() {
+
+        final ParameterGrid grid = new ParameterGrid.Builder()
+                .values(QUANTITY, "1", "2")
+                .values(FAIL, "true", "false")
+                .build();
+
+        final List<SweepResult> results = new ParameterSweep(backtest, BuyOnceStrategy::new, 2).run(grid);
+
+        assertEquals(4, results.size());
+        assertFalse(results.get(0).isFailed());
+        assertFalse(results.get(1).isFailed());
+        assertTrue(results.get(2).isFailed());
+        assertTrue(results.get(3).isFailed());
+        assertNull(results.get(3).getBacktestResult());
+        assertEquals("Strategy is broken", results.get(3).getFailure().getMessage());
+    }
+
+    @Test
+    public void testRuntimeExceptionFailsOnlyItsOwnRun() {
+
+        final ParameterGrid grid = new ParameterGrid.Builder()
+                .values(QUANTITY, "1", "2")
+                .values(CRASH, "false", "true")
+                .build();
+
+        final List<SweepResult> results = new ParameterSweep(backtest, BuyOnceStrategy::new, 2).run(grid);
+
+        assertEquals(4, results.size());
+        assertFalse(results.get(0).isFailed());
+        assertEquals("2", results.get(0).getStrategyConfig().getConfigItem(QUANTITY));
+        assertFalse(results.get(1).isFailed());
+        assertTrue(results.get(2).isFailed());
+        assertTrue(results.get(3).isFailed());
+        assertTrue(results.get(3).getFailure() instanceof IllegalStateException);
+        assertEquals("Strategy has a bug", results.get(3).getFailure().getMessage());
+    }
+
+    @Test
+    public void testSingleThreadedSweepGivesTheSameResults() {
+
+        final List<BacktestStrategyConfig> configs = new ParameterGrid.Builder()
+                .values(QUANTITY, "1", "2", "3", "4", "5", "6", "7")
+                .build()
+                .getAll();
+
+        final List<SweepResult> parallel = new ParameterSweep(backtest, BuyOnceStrategy::new).run(configs);
+        final List<SweepResult> sequential = new ParameterSweep(backtest, BuyOnceStrategy::new, 1).run(configs);
+
+        assertEquals(configs.size(), parallel.size());
+        for (int i = 0; i < configs.size(); i++) {
+            assertEquals(sequential.get(i).getStrategyConfig().getItems(),
+                    parallel.get(i).getStrategyConfig().getItems());
+            assertEquals(0, sequential.get(i).getBacktestResult().getProfitAndLoss()
+                    .compareTo(parallel.get(i).getBacktestResult().getProfitAndLoss()));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testParallelismMustBeAtLeastOne() {
+        new ParameterSweep(backtest, BuyOnceStrategy::new, 0);
+    }
+
+    /*
+     * Buys the configured quantity at the best ask on its first run, or throws if configured to fail or crash.
+     */
+    private static final class BuyOnceStrategy implements TradingStrategy {
+
+        private TradingApi tradingApi;
+        private Market market;
+        private StrategyConfig config;
+        private boolean bought;
+
+        @Override
+        public void init(TradingApi tradingApi, Market market, StrategyConfig config) {
+            this.tradingApi = tradingApi;
+            this.market = market;
+            this.config = config;
+        }
+
+        @Override
+        public void execute() throws StrategyException {
+            if ("true".equals(config.getConfigItem(FAIL))) {
+                throw new StrategyException("Strategy is broken");
+            }
+            if ("true".equals(config.getConfigItem(CRASH))) {
+                throw new IllegalStateException("Strategy has a bug");
+            }
+            if (bought) {
+                return;
+            }
+            bought = true;
+            final BigDecimal quantity = new BigDecimal(config.getConfigItem(QUANTITY));
+            if (quantity.signum() == 0) {
+                return;
+            }
+            try {
+                final BigDecimal price = tradingApi.getMarketOrders(market.getId()).getSellOrders().get(0).getPrice();
+                tradingApi.createOrder(market.getId(), OrderType.BUY, quantity, price);
+            } catch (Exception e) {
+                throw new StrategyException(e);
+            }
+        }
+    }
+}
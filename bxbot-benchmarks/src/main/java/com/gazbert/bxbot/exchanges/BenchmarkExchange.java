@@ -0,0 +1,176 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.exchanges;
+
+import com.gazbert.bxbot.exchange.api.ExchangeAdapter;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.io.Resources;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * The Exchange Adapters that are benchmarked, along with the canned responses they are fed.
+ * <p>
+ * The canned responses are the ones used by the Exchange Adapter unit tests. Each route maps a fragment of the
+ * request URL or post data to the response file under the exchange's test data folder.
+ *
+ * @author gazbert
+ */
+public enum BenchmarkExchange {
+
+    BITFINEX(BitfinexExchangeAdapter::new, "btcusd", true, "bitfinex",
+            ImmutableMap.of(
+                    "/book/", "book.json",
+                    "/orders", "orders.json",
+                    "/balances", "balances.json",
+                    "/pubticker/", "pubticker.json")),
+
+    BITSTAMP(BitstampExchangeAdapter::new, "btcusd", true, "bitstamp",
+            ImmutableMap.of(
+                    "/order_book/", "order_book.json",
+                    "/open_orders/", "open_orders.json",
+                    "/balance", "balance.json",
+                    "/ticker/", "ticker.json")),
+
+    GDAX(GdaxExchangeAdapter::new, "BTC-GBP", true, "gdax",
+            ImmutableMap.of(
+                    "/book", "book.json",
+                    "/orders", "orders.json",
+                    "/accounts", "accounts.json",
+                    "/ticker", "ticker.json",
+                    "/stats", "stats.json")),
+
+    GEMINI(GeminiExchangeAdapter::new, "ethbtc", false, "gemini",
+            ImmutableMap.of(
+                    "/book/", "book.json",
+                    "/orders", "orders.json",
+                    "/balances", "balances.json",
+                    "/pubticker/", "pubticker.json")),
+
+    HUOBI(HuobiExchangeAdapter::new, "BTC-USD", false, "huobi",
+            ImmutableMap.of(
+                    "detail_btc_json", "detail_btc.json",
+                    "method=get_orders", "get_orders.json",
+                    "method=get_account_info", "get_account_info.json",
+                    "ticker_btc_json", "ticker_btc.json")),
+
+    ITBIT(ItBitExchangeAdapter::new, "XBTUSD", true, "itbit",
+            ImmutableMap.of(
+                    "/order_book", "order_book.json",
+                    "/orders", "orders.json",
+                    "/wallets", "wallets.json",
+                    "/ticker", "ticker.json")),
+
+    KRAKEN(KrakenExchangeAdapter::new, "XBTUSD", true, "kraken",
+            ImmutableMap.of(
+                    "/Depth", "Depth.json",
+                    "/OpenOrders", "OpenOrders.json",
+                    "/Balance", "Balance.json",
+                    "/Ticker", "Ticker.json")),
+
+    OKCOIN(OkCoinExchangeAdapter::new, "btc_usd", true, "okcoin",
+            ImmutableMap.of(
+                    "/depth.do", "depth.json",
+                    "/order_info.do", "order_info.json",
+                    "/userinfo.do", "userinfo.json",
+                    "/ticker.do", "ticker.json"));
+
+    /*
+     * Every adapter is given the same config; each one only reads the items it needs.
+     */
+    private static final Map<String, String> CONFIG_ITEMS = ImmutableMap.<String, String>builder()
+            .put("key", "key123")
+            .put("secret", "c2VjcmV0MTIz")
+            .put("client-id", "clientId123")
+            .put("passphrase", "passphrase123")
+            .put("userId", "userId123")
+            .put("buy-fee", "0.25")
+            .put("sell-fee", "0.25")
+            .put("account-info-market", "usd")
+            .put("keep-alive-during-maintenance", "false")
+            .build();
+
+    private final Supplier<ExchangeAdapter> exchangeAdapterFactory;
+    private final String marketId;
+    private final boolean tickerSupported;
+    private final String exchangeDataFolder;
+    private final Map<String, String> routes;
+
+    BenchmarkExchange(Supplier<ExchangeAdapter> exchangeAdapterFactory, String marketId, boolean tickerSupported,
+                      String exchangeDataFolder, Map<String, String> routes) {
+        this.exchangeAdapterFactory = exchangeAdapterFactory;
+        this.marketId = marketId;
+        this.tickerSupported = tickerSupported;
+        this.exchangeDataFolder = exchangeDataFolder;
+        this.routes = routes;
+    }
+
+    /**
+     * Creates and initialises the Exchange Adapter, wired up to send its requests to a
+     * {@link CannedResponseHttpTransport}.
+     *
+     * @return the Exchange Adapter.
+     */
+    ExchangeAdapter createExchangeAdapter() {
+        final ExchangeAdapter exchangeAdapter = exchangeAdapterFactory.get();
+        exchangeAdapter.init(new BenchmarkExchangeConfig(name(), CONFIG_ITEMS));
+        ((AbstractExchangeAdapter) exchangeAdapter).setHttpTransport(new CannedResponseHttpTransport(loadRoutes()));
+        return exchangeAdapter;
+    }
+
+    /**
+     * Returns the market the canned responses are for.
+     *
+     * @return the market id.
+     */
+    String getMarketId() {
+        return marketId;
+    }
+
+    /**
+     * Returns true if the adapter implements getTicker(); the others only support getLatestMarketPrice().
+     *
+     * @return true if the adapter implements getTicker().
+     */
+    boolean isTickerSupported() {
+        return tickerSupported;
+    }
+
+    private Map<String, byte[]> loadRoutes() {
+        final Map<String, byte[]> cannedResponses = new LinkedHashMap<>();
+        for (final Map.Entry<String, String> route : routes.entrySet()) {
+            final String cannedResponseFile = "exchange-data/" + exchangeDataFolder + "/" + route.getValue();
+            try {
+                cannedResponses.put(route.getKey(), Resources.toByteArray(Resources.getResource(cannedResponseFile)));
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to load canned response: " + cannedResponseFile, e);
+            }
+        }
+        return cannedResponses;
+    }
+}
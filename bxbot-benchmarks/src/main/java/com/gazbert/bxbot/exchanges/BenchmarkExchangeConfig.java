@@ -0,0 +1,120 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.exchanges;
+
+import com.gazbert.bxbot.exchange.api.AuthenticationConfig;
+import com.gazbert.bxbot.exchange.api.ExchangeConfig;
+import com.gazbert.bxbot.exchange.api.NetworkConfig;
+import com.gazbert.bxbot.exchange.api.OptionalConfig;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The Exchange config used to initialise the Exchange Adapters under benchmark.
+ * <p>
+ * The same items are returned for the authentication and optional config - the adapters only look up the items they
+ * need. No network limits are set, so requests are never throttled.
+ *
+ * @author gazbert
+ */
+class BenchmarkExchangeConfig implements ExchangeConfig, AuthenticationConfig, NetworkConfig, OptionalConfig {
+
+    private static final int CONNECTION_TIMEOUT = 30;
+
+    private final String exchangeName;
+    private final Map<String, String> items;
+
+    BenchmarkExchangeConfig(String exchangeName, Map<String, String> items) {
+        this.exchangeName = exchangeName;
+        this.items = new HashMap<>(items);
+    }
+
+    @Override
+    public String getExchangeName() {
+        return exchangeName;
+    }
+
+    @Override
+    public String getExchangeAdapter() {
+        return null;
+    }
+
+    @Override
+    public AuthenticationConfig getAuthenticationConfig() {
+        return this;
+    }
+
+    @Override
+    public NetworkConfig getNetworkConfig() {
+        return this;
+    }
+
+    @Override
+    public OptionalConfig getOptionalConfig() {
+        return this;
+    }
+
+    @Override
+    public String getItem(String name) {
+        return items.get(name);
+    }
+
+    @Override
+    public List<Integer> getNonFatalErrorCodes() {
+        return Collections.emptyList();
+    }
+
+    @Override
+    public List<String> getNonFatalErrorMessages() {
+        return Collections.emptyList();
+    }
+
+    @Override
+    public Integer getConnectionTimeout() {
+        return CONNECTION_TIMEOUT;
+    }
+
+    @Override
+    public Integer getConnectionPoolSize() {
+        return null;
+    }
+
+    @Override
+    public Integer getConnectionIdleTimeout() {
+        return null;
+    }
+
+    @Override
+    public Integer getMaxRequestsPerMinute() {
+        return null;
+    }
+
+    @Override
+    public Integer getMaxRequestBurst() {
+        return null;
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.exchanges;
+
+import com.gazbert.bxbot.exchanges.AbstractExchangeAdapter.ExchangeHttpResponse;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * An {@link HttpTransport} that answers every request with a canned exchange response instead of going over the
+ * network.
+ * <p>
+ * Responses are routed on a fragment of the request: the first route whose fragment appears in the request URL, or
+ * in the post data, is used. The response bodies are held as raw bytes and decoded on every request, as they would be
+ * off the wire, so the decoding cost is included in what the benchmarks measure.
+ * <p>
+ * This class is thread safe.
+ *
+ * @author gazbert
+ */
+class CannedResponseHttpTransport implements HttpTransport {
+
+    private static final int HTTP_OK = 200;
+    private static final String HTTP_OK_REASON_PHRASE = "OK";
+
+    private final Map<String, byte[]> routes;
+
+    /**
+     * Creates the transport.
+     *
+     * @param routes the canned response bodies, keyed on the URL or post data fragment they answer. Routes are tried
+     *               in iteration order.
+     */
+    CannedResponseHttpTransport(Map<String, byte[]> routes) {
+        this.routes = new LinkedHashMap<>(routes);
+    }
+
+    @Override
+    public ExchangeHttpResponse send(URL url, String httpMethod, String postData, Map<String, String> requestHeaders)
+            throws IOException {
+        final byte[] body = route(url, postData);
+        return new ExchangeHttpResponse(HTTP_OK, HTTP_OK_REASON_PHRASE, new String(body, StandardCharsets.UTF_8));
+    }
+
+    @Override
+    public <T> T send(URL url, String httpMethod, String postData, Map<String, String> requestHeaders,
+                      ResponseReader<T> responseReader) throws IOException {
+        final byte[] body = route(url, postData);
+        try (final Reader reader = new InputStreamReader(new ByteArrayInputStream(body), StandardCharsets.UTF_8)) {
+            return responseReader.read(HTTP_OK, HTTP_OK_REASON_PHRASE, reader);
+        }
+    }
+
+    @Override
+    public void close() {
+        // no connections to close
+    }
+
+    private byte[] route(URL url, String postData) throws IOException {
+        final String urlString = url.toString();
+        for (final Map.Entry<String, byte[]> route : routes.entrySet()) {
+            if (urlString.contains(route.getKey()) || (postData != null && postData.contains(route.getKey()))) {
+                return route.getValue();
+            }
+        }
+        throw new IOException("No canned response for request: " + urlString + " postData: " + postData);
+    }
+}
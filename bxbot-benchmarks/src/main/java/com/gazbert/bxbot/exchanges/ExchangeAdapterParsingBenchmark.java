@@ -0,0 +1,125 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.exchanges;
+
+import com.gazbert.bxbot.exchange.api.ExchangeAdapter;
+import com.gazbert.bxbot.trading.api.BalanceInfo;
+import com.gazbert.bxbot.trading.api.ExchangeNetworkException;
+import com.gazbert.bxbot.trading.api.MarketOrderBook;
+import com.gazbert.bxbot.trading.api.OpenOrder;
+import com.gazbert.bxbot.trading.api.TradingApiException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how expensive each Exchange Adapter's response handling is.
+ * <p>
+ * Every Trading API call goes through the adapter as normal - building and signing the request, then parsing the
+ * response - but the request is answered with a canned exchange response instead of going over the network. Each
+ * benchmark is run for every exchange in {@link BenchmarkExchange}.
+ * <p>
+ * Run it from the command line after a <code>mvn clean install</code>:
+ * <pre>
+ * java -jar bxbot-benchmarks/target/benchmarks.jar ExchangeAdapterParsingBenchmark -prof gc
+ * </pre>
+ * The <code>-prof gc</code> option adds the allocation rate (<code>gc.alloc.rate.norm</code> is bytes allocated per
+ * call) to the ops/sec score. Running {@link #main(String[])} does the same.
+ *
+ * @author gazbert
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ExchangeAdapterParsingBenchmark {
+
+    @Param
+    BenchmarkExchange exchange;
+
+    private ExchangeAdapter exchangeAdapter;
+    private String marketId;
+
+    @Setup
+    public void setup() {
+        exchangeAdapter = exchange.createExchangeAdapter();
+        marketId = exchange.getMarketId();
+    }
+
+    @Benchmark
+    public MarketOrderBook getMarketOrders() throws TradingApiException, ExchangeNetworkException {
+        return exchangeAdapter.getMarketOrders(marketId);
+    }
+
+    @Benchmark
+    public List<OpenOrder> getYourOpenOrders() throws TradingApiException, ExchangeNetworkException {
+        return exchangeAdapter.getYourOpenOrders(marketId);
+    }
+
+    @Benchmark
+    public BalanceInfo getBalanceInfo() throws TradingApiException, ExchangeNetworkException {
+        return exchangeAdapter.getBalanceInfo();
+    }
+
+    /*
+     * Adapters that do not implement getTicker() are measured on getLatestMarketPrice(), which parses the same
+     * ticker response.
+     */
+    @Benchmark
+    public Object getTicker() throws TradingApiException, ExchangeNetworkException {
+        return exchange.isTickerSupported()
+                ? exchangeAdapter.getTicker(marketId)
+                : exchangeAdapter.getLatestMarketPrice(marketId);
+    }
+
+    /**
+     * Runs the benchmarks with the GC profiler.
+     *
+     * @param args not used.
+     * @throws RunnerException if the benchmarks could not be run.
+     */
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ExchangeAdapterParsingBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
@@ -0,0 +1,169 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.exchanges;
+
+import com.gazbert.bxbot.exchanges.RequestSigner.Encoding;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the per-request cost of signing authenticated requests with the {@link RequestSigner}.
+ * <p>
+ * The <code>legacy</code> benchmarks sign the same messages the way the Exchange Adapters used to - a new
+ * MessageDigest per request, <code>String.getBytes()</code> for every message, and <code>String.format()</code> to hex
+ * encode the signature - so the two can be compared.
+ * <p>
+ * Run it from the command line after a <code>mvn clean install</code>:
+ * <pre>
+ * java -jar bxbot-benchmarks/target/benchmarks.jar RequestSigningBenchmark -prof gc
+ * </pre>
+ *
+ * @author gazbert
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+@State(Scope.Benchmark)
+public class RequestSigningBenchmark {
+
+    private static final byte[] SECRET = "benchmark-secret-key-benchmark-secret-key".getBytes(StandardCharsets.UTF_8);
+
+    // Kraken style: HMAC-SHA512 of path + SHA-256 of nonce and post data
+    private static final String KRAKEN_PATH = "/0/private/AddOrder";
+    private static final String KRAKEN_POST_DATA =
+            "1483228800000nonce=1483228800000&pair=XBTUSD&type=buy&ordertype=limit&price=1000.00&volume=0.01";
+
+    // Bitfinex style: HMAC-SHA384 of the Base64 encoded JSON payload
+    private static final String BITFINEX_PAYLOAD = Base64.getEncoder().encodeToString(
+            ("{\"request\":\"/v1/order/new\",\"nonce\":\"1483228800000\",\"symbol\":\"btcusd\","
+                    + "\"amount\":\"0.01\",\"price\":\"1000.00\",\"exchange\":\"bitfinex\","
+                    + "\"side\":\"buy\",\"type\":\"exchange limit\"}").getBytes(StandardCharsets.UTF_8));
+
+    // OKCoin style: MD5 of the sorted request params and secret key
+    private static final String OKCOIN_PARAMS =
+            "amount=0.01&api_key=benchmark-api-key&price=1000.00&symbol=btc_usd&type=buy&secret_key=benchmark-secret";
+
+    private RequestSigner krakenSigner;
+    private RequestSigner bitfinexSigner;
+    private RequestSigner okCoinSigner;
+
+    @Setup
+    public void setup() throws Exception {
+        krakenSigner = RequestSigner.forHmacWithDigest("HmacSHA512", SECRET, "SHA-256");
+        bitfinexSigner = RequestSigner.forHmac("HmacSHA384", SECRET);
+        okCoinSigner = RequestSigner.forDigest("MD5");
+    }
+
+    @Benchmark
+    public String krakenSignature() {
+        return krakenSigner.signWithDigest(Encoding.BASE64, KRAKEN_PATH, KRAKEN_POST_DATA);
+    }
+
+    @Benchmark
+    public String bitfinexSignature() {
+        return bitfinexSigner.sign(Encoding.LOWER_CASE_HEX, BITFINEX_PAYLOAD);
+    }
+
+    @Benchmark
+    public String okCoinSignature() {
+        return okCoinSigner.digest(Encoding.UPPER_CASE_HEX, OKCOIN_PARAMS);
+    }
+
+    @Benchmark
+    public String legacyKrakenSignature(LegacySigners signers) throws Exception {
+        final MessageDigest md = MessageDigest.getInstance("SHA-256");
+        md.update(KRAKEN_POST_DATA.getBytes("UTF-8"));
+        final byte[] messageHash = md.digest();
+        signers.krakenMac.reset();
+        signers.krakenMac.update(KRAKEN_PATH.getBytes("UTF-8"));
+        signers.krakenMac.update(messageHash);
+        return Base64.getEncoder().encodeToString(signers.krakenMac.doFinal());
+    }
+
+    @Benchmark
+    public String legacyBitfinexSignature(LegacySigners signers) throws Exception {
+        signers.bitfinexMac.reset();
+        signers.bitfinexMac.update(BITFINEX_PAYLOAD.getBytes());
+        final StringBuilder hexString = new StringBuilder();
+        for (final byte aByte : signers.bitfinexMac.doFinal()) {
+            hexString.append(String.format("%02x", aByte & 0xff));
+        }
+        return hexString.toString();
+    }
+
+    /*
+     * The adapters used to share one Mac across all threads, which is not safe; the legacy benchmarks give each
+     * thread its own so they measure signing cost only.
+     */
+    @State(Scope.Thread)
+    public static class LegacySigners {
+
+        Mac krakenMac;
+        Mac bitfinexMac;
+
+        @Setup
+        public void setup() throws Exception {
+            krakenMac = Mac.getInstance("HmacSHA512");
+            krakenMac.init(new SecretKeySpec(SECRET, "HmacSHA512"));
+            bitfinexMac = Mac.getInstance("HmacSHA384");
+            bitfinexMac.init(new SecretKeySpec(SECRET, "HmacSHA384"));
+        }
+    }
+
+    /**
+     * Runs the benchmarks with the GC profiler.
+     *
+     * @param args not used.
+     * @throws RunnerException if the benchmarks could not be run.
+     */
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(RequestSigningBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
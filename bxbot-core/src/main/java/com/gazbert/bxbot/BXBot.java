@@ -28,14 +28,18 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
 import org.springframework.util.Assert;
 
 /**
  * BX-bot - here be the main boot app.
+ * <p>
+ * Spring Boot's DataSource auto-config is switched off: the bot only uses a database when the H2 config datastore
+ * profile is active, and that profile sets up its own DataSource.
  *
  * @author gazbert
  */
-@SpringBootApplication
+@SpringBootApplication(exclude = DataSourceAutoConfiguration.class)
 public class BXBot implements CommandLineRunner {
 
     private final TradingEngine tradingEngine;
@@ -39,6 +39,10 @@ public class NetworkConfigImpl implements NetworkConfig {
     private Integer connectionTimeout;
     private List<Integer> nonFatalErrorCodes;
     private List<String> nonFatalErrorMessages;
+    private Integer connectionPoolSize;
+    private Integer connectionIdleTimeout;
+    private Integer maxRequestsPerMinute;
+    private Integer maxRequestBurst;
 
     public NetworkConfigImpl() {
         nonFatalErrorCodes = new ArrayList<>();
@@ -72,12 +76,52 @@ public class NetworkConfigImpl implements NetworkConfig {
         this.nonFatalErrorMessages = nonFatalErrorMessages;
     }
 
+    @Override
+    public Integer getConnectionPoolSize() {
+        return connectionPoolSize;
+    }
+
+    public void setConnectionPoolSize(Integer connectionPoolSize) {
+        this.connectionPoolSize = connectionPoolSize;
+    }
+
+    @Override
+    public Integer getConnectionIdleTimeout() {
+        return connectionIdleTimeout;
+    }
+
+    public void setConnectionIdleTimeout(Integer connectionIdleTimeout) {
+        this.connectionIdleTimeout = connectionIdleTimeout;
+    }
+
+    @Override
+    public Integer getMaxRequestsPerMinute() {
+        return maxRequestsPerMinute;
+    }
+
+    public void setMaxRequestsPerMinute(Integer maxRequestsPerMinute) {
+        this.maxRequestsPerMinute = maxRequestsPerMinute;
+    }
+
+    @Override
+    public Integer getMaxRequestBurst() {
+        return maxRequestBurst;
+    }
+
+    public void setMaxRequestBurst(Integer maxRequestBurst) {
+        this.maxRequestBurst = maxRequestBurst;
+    }
+
     @Override
     public String toString() {
         return MoreObjects.toStringHelper(this)
                 .add("connectionTimeout", connectionTimeout)
                 .add("nonFatalErrorCodes", nonFatalErrorCodes)
                 .add("nonFatalErrorMessages", nonFatalErrorMessages)
+                .add("connectionPoolSize", connectionPoolSize)
+                .add("connectionIdleTimeout", connectionIdleTimeout)
+                .add("maxRequestsPerMinute", maxRequestsPerMinute)
+                .add("maxRequestBurst", maxRequestBurst)
                 .toString();
     }
 }
@@ -0,0 +1,388 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.core.engine;
+
+import com.gazbert.bxbot.core.engine.TradingApiCacheStatistics.CachedCall;
+import com.gazbert.bxbot.domain.engine.TradingApiCacheConfig;
+import com.gazbert.bxbot.trading.api.AsyncTradingApi;
+import com.gazbert.bxbot.trading.api.BalanceInfo;
+import com.gazbert.bxbot.trading.api.ExchangeNetworkException;
+import com.gazbert.bxbot.trading.api.MarketOrderBook;
+import com.gazbert.bxbot.trading.api.OpenOrder;
+import com.gazbert.bxbot.trading.api.OrderType;
+import com.gazbert.bxbot.trading.api.Ticker;
+import com.gazbert.bxbot.trading.api.TradingApi;
+import com.gazbert.bxbot.trading.api.TradingApiException;
+
+import java.math.BigDecimal;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Caches the results of the Exchange Adapter calls that the Trading Strategies and the Emergency Stop check make
+ * every trade cycle, so strategies trading different markets on the same exchange share a single request.
+ * <p>
+ * Each cached call has its own TTL, in seconds - a call without a TTL (or a TTL of 0) is passed straight through.
+ * The whole cache is cleared by the Trading Engine at the start of every trade cycle, so a result is never carried
+ * over into the next cycle. Market data is cached per market; the balance info is cached for the whole exchange.
+ * <p>
+ * When an order is created or cancelled, the balance info and everything cached for that market is invalidated,
+ * whether or not the call succeeded. Results fetched before the invalidation that complete after it are discarded
+ * rather than cached.
+ * <p>
+ * Cached results are shared between the Trading Strategies: they must not be modified. Concurrent misses for the same
+ * entry are not coalesced - each is sent to the exchange.
+ *
+ * @author gazbert
+ */
+class CachingTradingApi implements TradingApi {
+
+    /*
+     * The balance info is not market specific - it is cached under this key.
+     */
+    private static final String EXCHANGE_KEY = "";
+
+    private final TradingApi delegate;
+
+    private final CallCache<MarketOrderBook> marketOrdersCache;
+    private final CallCache<BigDecimal> latestMarketPriceCache;
+    private final CallCache<Ticker> tickerCache;
+    private final CallCache<List<OpenOrder>> openOrdersCache;
+    private final CallCache<BalanceInfo> balanceInfoCache;
+
+    private final AsyncTradingApi asyncTradingApi = new CachingAsyncTradingApi();
+
+    CachingTradingApi(TradingApi delegate, TradingApiCacheConfig cacheConfig) {
+        this.delegate = delegate;
+        marketOrdersCache = new CallCache<>(CachedCall.MARKET_ORDERS, cacheConfig.getMarketOrdersTtl());
+        latestMarketPriceCache = new CallCache<>(CachedCall.LATEST_MARKET_PRICE, cacheConfig.getLatestMarketPriceTtl());
+        tickerCache = new CallCache<>(CachedCall.TICKER, cacheConfig.getTickerTtl());
+        openOrdersCache = new CallCache<>(CachedCall.OPEN_ORDERS, cacheConfig.getOpenOrdersTtl());
+        balanceInfoCache = new CallCache<>(CachedCall.BALANCE_INFO, cacheConfig.getBalanceInfoTtl());
+    }
+
+    /**
+     * Clears the cache. Called by the Trading Engine at the start of every trade cycle.
+     */
+    void invalidateAll() {
+        marketOrdersCache.invalidateAll();
+        latestMarketPriceCache.invalidateAll();
+        tickerCache.invalidateAll();
+        openOrdersCache.invalidateAll();
+        balanceInfoCache.invalidateAll();
+    }
+
+    /**
+     * Returns a snapshot of the cache hit and miss counts.
+     *
+     * @return the cache statistics.
+     */
+    TradingApiCacheStatistics getStatistics() {
+        final Map<CachedCall, Long> hits = new EnumMap<>(CachedCall.class);
+        final Map<CachedCall, Long> misses = new EnumMap<>(CachedCall.class);
+        for (final CallCache<?> callCache : new CallCache<?>[]{marketOrdersCache, latestMarketPriceCache, tickerCache,
+                openOrdersCache, balanceInfoCache}) {
+            hits.put(callCache.cachedCall, callCache.hits.get());
+            misses.put(callCache.cachedCall, callCache.misses.get());
+        }
+        return new TradingApiCacheStatistics(hits, misses);
+    }
+
+    @Override
+    public String getVersion() {
+        return delegate.getVersion();
+    }
+
+    @Override
+    public String getImplName() {
+        return delegate.getImplName();
+    }
+
+    @Override
+    public AsyncTradingApi getAsyncTradingApi() {
+        return asyncTradingApi;
+    }
+
+    // ------------------------------------------------------------------------
+    // Cached API calls
+    // ------------------------------------------------------------------------
+
+    @Override
+    public MarketOrderBook getMarketOrders(String marketId) throws ExchangeNetworkException, TradingApiException {
+        return marketOrdersCache.get(marketId, () -> delegate.getMarketOrders(marketId));
+    }
+
+    @Override
+    public BigDecimal getLatestMarketPrice(String marketId) throws ExchangeNetworkException, TradingApiException {
+        return latestMarketPriceCache.get(marketId, () -> delegate.getLatestMarketPrice(marketId));
+    }
+
+    @Override
+    public Ticker getTicker(String marketId) throws TradingApiException, ExchangeNetworkException {
+        return tickerCache.get(marketId, () -> delegate.getTicker(marketId));
+    }
+
+    @Override
+    public List<OpenOrder> getYourOpenOrders(String marketId) throws ExchangeNetworkException, TradingApiException {
+        return openOrdersCache.get(marketId, () -> delegate.getYourOpenOrders(marketId));
+    }
+
+    @Override
+    public BalanceInfo getBalanceInfo() throws ExchangeNetworkException, TradingApiException {
+        return balanceInfoCache.get(EXCHANGE_KEY, delegate::getBalanceInfo);
+    }
+
+    // ------------------------------------------------------------------------
+    // Order API calls - invalidate the cache
+    // ------------------------------------------------------------------------
+
+    @Override
+    public String createOrder(String marketId, OrderType orderType, BigDecimal quantity, BigDecimal price)
+            throws ExchangeNetworkException, TradingApiException {
+        try {
+            return delegate.createOrder(marketId, orderType, quantity, price);
+        } finally {
+            invalidateOrderState(marketId);
+        }
+    }
+
+    @Override
+    public boolean cancelOrder(String orderId, String marketId) throws ExchangeNetworkException, TradingApiException {
+        try {
+            return delegate.cancelOrder(orderId, marketId);
+        } finally {
+            invalidateOrderState(marketId);
+        }
+    }
+
+    // ------------------------------------------------------------------------
+    // Fee API calls - passed straight through
+    // ------------------------------------------------------------------------
+
+    @Override
+    public BigDecimal getPercentageOfBuyOrderTakenForExchangeFee(String marketId)
+            throws TradingApiException, ExchangeNetworkException {
+        return delegate.getPercentageOfBuyOrderTakenForExchangeFee(marketId);
+    }
+
+    @Override
+    public BigDecimal getPercentageOfSellOrderTakenForExchangeFee(String marketId)
+            throws TradingApiException, ExchangeNetworkException {
+        return delegate.getPercentageOfSellOrderTakenForExchangeFee(marketId);
+    }
+
+    // ------------------------------------------------------------------------
+    // Private utils
+    // ------------------------------------------------------------------------
+
+    /*
+     * Placing or cancelling an order changes the balances, our open orders and (if it trades) the market itself.
+     */
+    private void invalidateOrderState(String marketId) {
+        balanceInfoCache.invalidate(EXCHANGE_KEY);
+        openOrdersCache.invalidate(marketId);
+        marketOrdersCache.invalidate(marketId);
+        latestMarketPriceCache.invalidate(marketId);
+        tickerCache.invalidate(marketId);
+    }
+
+    // ------------------------------------------------------------------------
+    // Async API calls
+    // ------------------------------------------------------------------------
+
+    /*
+     * Shares the same cache as the blocking calls. A hit returns an already completed future.
+     */
+    private class CachingAsyncTradingApi implements AsyncTradingApi {
+
+        @Override
+        public CompletableFuture<MarketOrderBook> getMarketOrders(String marketId) {
+            return marketOrdersCache.getAsync(marketId, () -> delegate.getAsyncTradingApi().getMarketOrders(marketId));
+        }
+
+        @Override
+        public CompletableFuture<BigDecimal> getLatestMarketPrice(String marketId) {
+            return latestMarketPriceCache.getAsync(marketId,
+                    () -> delegate.getAsyncTradingApi().getLatestMarketPrice(marketId));
+        }
+
+        @Override
+        public CompletableFuture<Ticker> getTicker(String marketId) {
+            return tickerCache.getAsync(marketId, () -> delegate.getAsyncTradingApi().getTicker(marketId));
+        }
+
+        @Override
+        public CompletableFuture<List<OpenOrder>> getYourOpenOrders(String marketId) {
+            return openOrdersCache.getAsync(marketId, () -> delegate.getAsyncTradingApi().getYourOpenOrders(marketId));
+        }
+
+        @Override
+        public CompletableFuture<BalanceInfo> getBalanceInfo() {
+            return balanceInfoCache.getAsync(EXCHANGE_KEY, () -> delegate.getAsyncTradingApi().getBalanceInfo());
+        }
+
+        @Override
+        public CompletableFuture<String> createOrder(String marketId, OrderType orderType, BigDecimal quantity,
+                                                     BigDecimal price) {
+            return delegate.getAsyncTradingApi().createOrder(marketId, orderType, quantity, price)
+                    .whenComplete((orderId, error) -> invalidateOrderState(marketId));
+        }
+
+        @Override
+        public CompletableFuture<Boolean> cancelOrder(String orderId, String marketId) {
+            return delegate.getAsyncTradingApi().cancelOrder(orderId, marketId)
+                    .whenComplete((cancelled, error) -> invalidateOrderState(marketId));
+        }
+
+        @Override
+        public CompletableFuture<BigDecimal> getPercentageOfBuyOrderTakenForExchangeFee(String marketId) {
+            return delegate.getAsyncTradingApi().getPercentageOfBuyOrderTakenForExchangeFee(marketId);
+        }
+
+        @Override
+        public CompletableFuture<BigDecimal> getPercentageOfSellOrderTakenForExchangeFee(String marketId) {
+            return delegate.getAsyncTradingApi().getPercentageOfSellOrderTakenForExchangeFee(marketId);
+        }
+    }
+
+    // ------------------------------------------------------------------------
+    // Cache storage
+    // ------------------------------------------------------------------------
+
+    /*
+     * A Trading API call that can be cached.
+     */
+    @FunctionalInterface
+    private interface CacheableCall<V> {
+        V call() throws ExchangeNetworkException, TradingApiException;
+    }
+
+    /*
+     * The cached results of 1 type of Trading API call, keyed on market id.
+     *
+     * Every invalidation bumps the generation before removing entries. A result is only kept if no invalidation
+     * happened between its call being made and it being stored.
+     */
+    private static final class CallCache<V> {
+
+        private final CachedCall cachedCall;
+        private final long ttlNanos;
+        private final Map<String, CacheEntry<V>> entries = new ConcurrentHashMap<>();
+        private final AtomicLong generation = new AtomicLong();
+        private final AtomicLong hits = new AtomicLong();
+        private final AtomicLong misses = new AtomicLong();
+
+        private CallCache(CachedCall cachedCall, Integer ttlInSecs) {
+            this.cachedCall = cachedCall;
+            this.ttlNanos = ttlInSecs == null ? 0 : TimeUnit.SECONDS.toNanos(ttlInSecs);
+        }
+
+        private V get(String key, CacheableCall<V> call) throws ExchangeNetworkException, TradingApiException {
+            if (ttlNanos <= 0) {
+                return call.call();
+            }
+
+            final CacheEntry<V> entry = lookup(key);
+            if (entry != null) {
+                return entry.value;
+            }
+
+            final long callGeneration = generation.get();
+            final V value = call.call();
+            store(key, value, callGeneration);
+            return value;
+        }
+
+        private CompletableFuture<V> getAsync(String key, Supplier<CompletableFuture<V>> call) {
+            if (ttlNanos <= 0) {
+                return call.get();
+            }
+
+            final CacheEntry<V> entry = lookup(key);
+            if (entry != null) {
+                return CompletableFuture.completedFuture(entry.value);
+            }
+
+            final long callGeneration = generation.get();
+            return call.get().whenComplete((value, error) -> {
+                if (error == null) {
+                    store(key, value, callGeneration);
+                }
+            });
+        }
+
+        private void invalidate(String key) {
+            generation.incrementAndGet();
+            entries.remove(key);
+        }
+
+        private void invalidateAll() {
+            generation.incrementAndGet();
+            entries.clear();
+        }
+
+        /*
+         * Returns the unexpired entry for the key, or null if there isn't one. Counts the hit or miss.
+         */
+        private CacheEntry<V> lookup(String key) {
+            final CacheEntry<V> entry = entries.get(key);
+            if (entry != null && System.nanoTime() - entry.expiryTime < 0) {
+                hits.incrementAndGet();
+                return entry;
+            }
+            misses.incrementAndGet();
+            return null;
+        }
+
+        private void store(String key, V value, long callGeneration) {
+            if (value == null) {
+                return;
+            }
+            final CacheEntry<V> entry = new CacheEntry<>(value, System.nanoTime() + ttlNanos);
+            entries.put(key, entry);
+
+            // An invalidation may have raced with the call - if so, drop the (possibly stale) result
+            if (generation.get() != callGeneration) {
+                entries.remove(key, entry);
+            }
+        }
+    }
+
+    private static final class CacheEntry<V> {
+
+        private final V value;
+        private final long expiryTime;
+
+        private CacheEntry(V value, long expiryTime) {
+            this.value = value;
+            this.expiryTime = expiryTime;
+        }
+    }
+}
@@ -0,0 +1,420 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+
+package com.gazbert.bxbot.core.engine;
+
+import com.gazbert.bxbot.marketdata.MarketDataFile;
+import com.gazbert.bxbot.marketdata.MarketDataFileWriter;
+import com.gazbert.bxbot.marketdata.MarketSnapshot;
+import com.gazbert.bxbot.domain.engine.MarketDataRecorderConfig;
+import com.gazbert.bxbot.trading.api.FixedPointMarketOrderBook;
+import com.gazbert.bxbot.trading.api.MarketOrder;
+import com.gazbert.bxbot.trading.api.MarketOrderBook;
+import com.gazbert.bxbot.trading.api.Ticker;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.gazbert.bxbot.marketdata.MarketDataFile.NULL_VALUE;
+import static com.gazbert.bxbot.marketdata.MarketDataFile.TICKER_ASK;
+import static com.gazbert.bxbot.marketdata.MarketDataFile.TICKER_BID;
+import static com.gazbert.bxbot.marketdata.MarketDataFile.TICKER_HIGH;
+import static com.gazbert.bxbot.marketdata.MarketDataFile.TICKER_LAST;
+import static com.gazbert.bxbot.marketdata.MarketDataFile.TICKER_LOW;
+import static com.gazbert.bxbot.marketdata.MarketDataFile.TICKER_OPEN;
+import static com.gazbert.bxbot.marketdata.MarketDataFile.TICKER_VWAP;
+
+/**
+ * Records the market data fetched from the exchanges to a file per market per exchange per (UTC) day, in the format
+ * the backtests are replayed from - see {@link MarketDataFile}. Markets with the same id on different exchanges are
+ * recorded to separate files.
+ * <p>
+ * Recording must never slow down a trade cycle, so the calling thread only timestamps the sample and offers it to a
+ * bounded ring buffer. A single daemon writer thread drains the buffer, converts the sample to fixed-point and appends
+ * it to the market's file. If the buffer is full, the sample is dropped and counted rather than blocking the caller.
+ * <p>
+ * Every sample is written as a full row: the latest market price, Ticker and order book last recorded for the market
+ * are carried forward, so each row is a complete snapshot of the market as the bot saw it. Only the top order book
+ * levels are kept - see the order-book-depth engine config.
+ * <p>
+ * The file for the current day is reopened and appended to if the bot is restarted. Buffered rows are written out
+ * every {@link #FLUSH_INTERVAL_SECS}s, when the day rolls over, and when the recorder is closed.
+ * <p>
+ * The record methods can be called from any thread.
+ *
+ * @author gazbert
+ */
+class MarketDataRecorder {
+
+    private static final Logger LOG = LogManager.getLogger();
+
+    static final int DEFAULT_ORDER_BOOK_DEPTH = 10;
+    static final int DEFAULT_SCALE = FixedPointMarketOrderBook.DEFAULT_SCALE;
+    static final int DEFAULT_BUFFER_SIZE = 4096;
+
+    /*
+     * How often the writer thread writes out the rows it has buffered.
+     */
+    static final long FLUSH_INTERVAL_SECS = 60;
+
+    /*
+     * How long the writer thread waits on an empty buffer before checking whether it is time to flush.
+     */
+    private static final long POLL_INTERVAL_MILLIS = 1000;
+
+    private final Path dataDirectory;
+    private final int orderBookDepth;
+    private final int priceScale;
+    private final int quantityScale;
+    private final Clock clock;
+
+    private final BlockingQueue<Sample> buffer;
+    private final AtomicLong recordedCount = new AtomicLong();
+    private final AtomicLong droppedCount = new AtomicLong();
+
+    private final Thread writerThread;
+    private volatile boolean running = true;
+
+    /*
+     * The open file for each market, keyed by exchange id and market id - only accessed by the writer thread.
+     */
+    private final Map<String, MarketFile> marketFiles = new HashMap<>();
+
+    MarketDataRecorder(MarketDataRecorderConfig config) {
+        this(config, Clock.systemUTC());
+    }
+
+    MarketDataRecorder(MarketDataRecorderConfig config, Clock clock) {
+
+        dataDirectory = Paths.get(config.getDataDirectory());
+        orderBookDepth = valueOrDefault(config.getOrderBookDepth(), DEFAULT_ORDER_BOOK_DEPTH);
+        priceScale = valueOrDefault(config.getPriceScale(), DEFAULT_SCALE);
+        quantityScale = valueOrDefault(config.getQuantityScale(), DEFAULT_SCALE);
+        this.clock = clock;
+
+        if (orderBookDepth < 0 || orderBookDepth > MarketDataFile.MAX_DEPTH) {
+            throw new IllegalArgumentException("Order book depth must be between 0 and " + MarketDataFile.MAX_DEPTH
+                    + ": " + orderBookDepth);
+        }
+        buffer = new ArrayBlockingQueue<>(valueOrDefault(config.getBufferSize(), DEFAULT_BUFFER_SIZE));
+
+        writerThread = new Thread(this::runWriter, "bxbot-market-data-recorder");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    /**
+     * Records an order book fetched from the exchange.
+     *
+     * @param exchangeId      the id of the exchange.
+     * @param marketId        the market id.
+     * @param marketOrderBook the order book.
+     */
+    void recordMarketOrders(String exchangeId, String marketId, MarketOrderBook marketOrderBook) {
+        offer(new Sample(exchangeId, marketId, clock.millis(), marketOrderBook));
+    }
+
+    /**
+     * Records a Ticker fetched from the exchange.
+     *
+     * @param exchangeId the id of the exchange.
+     * @param marketId   the market id.
+     * @param ticker     the Ticker.
+     */
+    void recordTicker(String exchangeId, String marketId, Ticker ticker) {
+        offer(new Sample(exchangeId, marketId, clock.millis(), ticker));
+    }
+
+    /**
+     * Records a latest market price fetched from the exchange.
+     *
+     * @param exchangeId  the id of the exchange.
+     * @param marketId    the market id.
+     * @param latestPrice the latest market price.
+     */
+    void recordLatestMarketPrice(String exchangeId, String marketId, BigDecimal latestPrice) {
+        offer(new Sample(exchangeId, marketId, clock.millis(), latestPrice));
+    }
+
+    /**
+     * Returns the number of samples accepted into the buffer.
+     *
+     * @return the recorded sample count.
+     */
+    long getRecordedCount() {
+        return recordedCount.get();
+    }
+
+    /**
+     * Returns the number of samples dropped because the buffer was full.
+     *
+     * @return the dropped sample count.
+     */
+    long getDroppedCount() {
+        return droppedCount.get();
+    }
+
+    /**
+     * Stops the writer thread once it has written out everything in the buffer, and closes the files.
+     * Samples recorded after this is called are dropped.
+     *
+     * @param timeout how long to wait for the writer thread to finish.
+     * @param unit    the unit of the timeout.
+     * @throws InterruptedException if interrupted while waiting.
+     */
+    void close(long timeout, TimeUnit unit) throws InterruptedException {
+        running = false;
+        writerThread.join(unit.toMillis(timeout));
+        if (writerThread.isAlive()) {
+            LOG.warn(() -> "Market data recorder did not finish writing within " + timeout + " " + unit);
+        }
+    }
+
+    // ------------------------------------------------------------------------
+    // Private utils
+    // ------------------------------------------------------------------------
+
+    private void offer(Sample sample) {
+        if (sample.value == null || !running) {
+            return;
+        }
+        if (buffer.offer(sample)) {
+            recordedCount.incrementAndGet();
+        } else {
+            droppedCount.incrementAndGet();
+        }
+    }
+
+    private void runWriter() {
+
+        long nextFlush = System.nanoTime() + TimeUnit.SECONDS.toNanos(FLUSH_INTERVAL_SECS);
+        try {
+            while (running || !buffer.isEmpty()) {
+                final Sample sample = buffer.poll(POLL_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+                if (sample != null) {
+                    write(sample);
+                }
+                if (System.nanoTime() - nextFlush >= 0) {
+                    flushAll();
+                    nextFlush = System.nanoTime() + TimeUnit.SECONDS.toNanos(FLUSH_INTERVAL_SECS);
+                }
+            }
+        } catch (InterruptedException e) {
+            LOG.warn("Market data recorder was interrupted - closing the market data files", e);
+            Thread.currentThread().interrupt();
+        } finally {
+            closeAll();
+        }
+    }
+
+    private void write(Sample sample) {
+
+        final MarketFile marketFile = marketFiles.computeIfAbsent(sample.exchangeId + '/' + sample.marketId,
+                key -> new MarketFile(sample.exchangeId, sample.marketId, new MarketSnapshot(orderBookDepth)));
+        final MarketSnapshot snapshot = marketFile.snapshot;
+
+        snapshot.setTimestamp(sample.timestamp);
+        if (sample.value instanceof MarketOrderBook) {
+            setOrderBook(snapshot, (MarketOrderBook) sample.value);
+        } else if (sample.value instanceof Ticker) {
+            setTicker(snapshot, (Ticker) sample.value);
+        } else {
+            snapshot.setLastPrice(toFixedPoint((BigDecimal) sample.value, priceScale));
+        }
+
+        final LocalDate date = LocalDate.ofEpochDay(Math.floorDiv(sample.timestamp, TimeUnit.DAYS.toMillis(1)));
+        try {
+            if (marketFile.writer != null && !date.equals(marketFile.date)) {
+                closeFile(marketFile);
+            }
+            if (marketFile.writer == null) {
+                final Path file = MarketDataFile.getPath(dataDirectory, marketFile.exchangeId, marketFile.marketId,
+                        date);
+                marketFile.writer = new MarketDataFileWriter(file, marketFile.marketId, orderBookDepth, priceScale,
+                        quantityScale);
+                marketFile.date = date;
+                LOG.info(() -> "Recording market data for " + marketFile + " to " + file);
+            }
+            marketFile.writer.append(snapshot);
+
+        } catch (IOException | RuntimeException e) {
+            // The file is reopened for the next sample
+            LOG.error("Failed to record market data for " + marketFile, e);
+            closeFile(marketFile);
+        }
+    }
+
+    private void setOrderBook(MarketSnapshot snapshot, MarketOrderBook marketOrderBook) {
+
+        snapshot.clearBook();
+
+        // Use the fixed-point levels as they are if they are at the scales we are recording
+        if (marketOrderBook instanceof FixedPointMarketOrderBook) {
+            final FixedPointMarketOrderBook fixedPointBook = (FixedPointMarketOrderBook) marketOrderBook;
+            if (fixedPointBook.getPriceScale() == priceScale && fixedPointBook.getQuantityScale() == quantityScale) {
+                final int bidDepth = Math.min(orderBookDepth, fixedPointBook.getBidDepth());
+                for (int level = 0; level < bidDepth; level++) {
+                    snapshot.addBid(fixedPointBook.getBidPrice(level), fixedPointBook.getBidQuantity(level));
+                }
+                final int askDepth = Math.min(orderBookDepth, fixedPointBook.getAskDepth());
+                for (int level = 0; level < askDepth; level++) {
+                    snapshot.addAsk(fixedPointBook.getAskPrice(level), fixedPointBook.getAskQuantity(level));
+                }
+                return;
+            }
+        }
+
+        final List<MarketOrder> buyOrders = marketOrderBook.getBuyOrders();
+        for (int i = 0; i < buyOrders.size() && i < orderBookDepth; i++) {
+            final MarketOrder order = buyOrders.get(i);
+            snapshot.addBid(toFixedPoint(order.getPrice(), priceScale),
+                    toFixedPoint(order.getQuantity(), quantityScale));
+        }
+        final List<MarketOrder> sellOrders = marketOrderBook.getSellOrders();
+        for (int i = 0; i < sellOrders.size() && i < orderBookDepth; i++) {
+            final MarketOrder order = sellOrders.get(i);
+            snapshot.addAsk(toFixedPoint(order.getPrice(), priceScale),
+                    toFixedPoint(order.getQuantity(), quantityScale));
+        }
+    }
+
+    private void setTicker(MarketSnapshot snapshot, Ticker ticker) {
+        snapshot.setTickerPrice(TICKER_LAST, toFixedPoint(ticker.getLast(), priceScale));
+        snapshot.setTickerPrice(TICKER_BID, toFixedPoint(ticker.getBid(), priceScale));
+        snapshot.setTickerPrice(TICKER_ASK, toFixedPoint(ticker.getAsk(), priceScale));
+        snapshot.setTickerPrice(TICKER_LOW, toFixedPoint(ticker.getLow(), priceScale));
+        snapshot.setTickerPrice(TICKER_HIGH, toFixedPoint(ticker.getHigh(), priceScale));
+        snapshot.setTickerPrice(TICKER_OPEN, toFixedPoint(ticker.getOpen(), priceScale));
+        snapshot.setTickerPrice(TICKER_VWAP, toFixedPoint(ticker.getVwap(), priceScale));
+        snapshot.setTickerVolume(toFixedPoint(ticker.getVolume(), quantityScale));
+    }
+
+    private void flushAll() {
+        for (final MarketFile marketFile : marketFiles.values()) {
+            if (marketFile.writer != null) {
+                try {
+                    marketFile.writer.flush();
+                } catch (IOException e) {
+                    LOG.error("Failed to flush market data for " + marketFile, e);
+                    closeFile(marketFile);
+                }
+            }
+        }
+    }
+
+    private void closeAll() {
+        for (final MarketFile marketFile : marketFiles.values()) {
+            closeFile(marketFile);
+        }
+        LOG.info(() -> "Market data recorder closed - recorded " + recordedCount.get() + " samples, dropped "
+                + droppedCount.get());
+    }
+
+    private static void closeFile(MarketFile marketFile) {
+        if (marketFile.writer == null) {
+            return;
+        }
+        try {
+            marketFile.writer.close();
+        } catch (IOException e) {
+            LOG.error("Failed to close market data file for " + marketFile, e);
+        } finally {
+            marketFile.writer = null;
+            marketFile.date = null;
+        }
+    }
+
+    /*
+     * Converts to fixed-point, rounding half-even. Values too big to hold are recorded as missing.
+     */
+    private static long toFixedPoint(BigDecimal value, int scale) {
+        if (value == null) {
+            return NULL_VALUE;
+        }
+        try {
+            return value.setScale(scale, RoundingMode.HALF_EVEN).unscaledValue().longValueExact();
+        } catch (ArithmeticException e) {
+            return NULL_VALUE;
+        }
+    }
+
+    private static int valueOrDefault(Integer value, int defaultValue) {
+        return value != null ? value : defaultValue;
+    }
+
+    /*
+     * A market data call result, timestamped when it was recorded.
+     */
+    private static final class Sample {
+
+        private final String exchangeId;
+        private final String marketId;
+        private final long timestamp;
+        private final Object value;
+
+        private Sample(String exchangeId, String marketId, long timestamp, Object value) {
+            this.exchangeId = exchangeId;
+            this.marketId = marketId;
+            this.timestamp = timestamp;
+            this.value = value;
+        }
+    }
+
+    /*
+     * The latest recorded snapshot of a market, and the file it is being written to.
+     */
+    private static final class MarketFile {
+
+        private final String exchangeId;
+        private final String marketId;
+        private final MarketSnapshot snapshot;
+        private MarketDataFileWriter writer;
+        private LocalDate date;
+
+        private MarketFile(String exchangeId, String marketId, MarketSnapshot snapshot) {
+            this.exchangeId = exchangeId;
+            this.marketId = marketId;
+            this.snapshot = snapshot;
+        }
+
+        @Override
+        public String toString() {
+            return "market " + marketId + " on exchange " + exchangeId;
+        }
+    }
+}
@@ -0,0 +1,262 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+
+package com.gazbert.bxbot.core.engine;
+
+import com.gazbert.bxbot.trading.api.AsyncTradingApi;
+import com.gazbert.bxbot.trading.api.BalanceInfo;
+import com.gazbert.bxbot.trading.api.ExchangeNetworkException;
+import com.gazbert.bxbot.trading.api.MarketOrderBook;
+import com.gazbert.bxbot.trading.api.OpenOrder;
+import com.gazbert.bxbot.trading.api.OrderType;
+import com.gazbert.bxbot.trading.api.Ticker;
+import com.gazbert.bxbot.trading.api.TradingApi;
+import com.gazbert.bxbot.trading.api.TradingApiException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times every Trading API call made to an Exchange Adapter.
+ * <p>
+ * The calls are timed by exchange, Trading API method, and the exception thrown - None if the call succeeded - with a
+ * percentile histogram, so the latency of e.g. getMarketOrders can be tracked per exchange and the
+ * ExchangeNetworkExceptions counted. The Trading Engine wraps this directly around the adapter, so cache hits and time
+ * spent waiting for the {@link SerialisingTradingApi} lock are not included.
+ *
+ * @author gazbert
+ */
+class MeteredTradingApi implements TradingApi {
+
+    /*
+     * Name of the timer for the Trading API calls.
+     */
+    static final String CALL_TIMER_NAME = "bxbot.tradingapi.calls";
+
+    /*
+     * Exception tag value for calls that succeeded.
+     */
+    private static final String NO_EXCEPTION = "None";
+
+    private final TradingApi delegate;
+    private final String exchangeId;
+    private final MeterRegistry meterRegistry;
+
+    private final AsyncTradingApi asyncTradingApi = new MeteredAsyncTradingApi();
+
+    MeteredTradingApi(TradingApi delegate, String exchangeId, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.exchangeId = exchangeId;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public String getVersion() {
+        return delegate.getVersion();
+    }
+
+    @Override
+    public String getImplName() {
+        return delegate.getImplName();
+    }
+
+    @Override
+    public AsyncTradingApi getAsyncTradingApi() {
+        return asyncTradingApi;
+    }
+
+    // ------------------------------------------------------------------------
+    // Timed API calls
+    // ------------------------------------------------------------------------
+
+    @Override
+    public MarketOrderBook getMarketOrders(String marketId) throws ExchangeNetworkException, TradingApiException {
+        return time("getMarketOrders", () -> delegate.getMarketOrders(marketId));
+    }
+
+    @Override
+    public List<OpenOrder> getYourOpenOrders(String marketId) throws ExchangeNetworkException, TradingApiException {
+        return time("getYourOpenOrders", () -> delegate.getYourOpenOrders(marketId));
+    }
+
+    @Override
+    public String createOrder(String marketId, OrderType orderType, BigDecimal quantity, BigDecimal price)
+            throws ExchangeNetworkException, TradingApiException {
+        return time("createOrder", () -> delegate.createOrder(marketId, orderType, quantity, price));
+    }
+
+    @Override
+    public boolean cancelOrder(String orderId, String marketId) throws ExchangeNetworkException, TradingApiException {
+        return time("cancelOrder", () -> delegate.cancelOrder(orderId, marketId));
+    }
+
+    @Override
+    public BigDecimal getLatestMarketPrice(String marketId) throws ExchangeNetworkException, TradingApiException {
+        return time("getLatestMarketPrice", () -> delegate.getLatestMarketPrice(marketId));
+    }
+
+    @Override
+    public BalanceInfo getBalanceInfo() throws ExchangeNetworkException, TradingApiException {
+        return time("getBalanceInfo", delegate::getBalanceInfo);
+    }
+
+    @Override
+    public BigDecimal getPercentageOfBuyOrderTakenForExchangeFee(String marketId)
+            throws TradingApiException, ExchangeNetworkException {
+        return time("getPercentageOfBuyOrderTakenForExchangeFee",
+                () -> delegate.getPercentageOfBuyOrderTakenForExchangeFee(marketId));
+    }
+
+    @Override
+    public BigDecimal getPercentageOfSellOrderTakenForExchangeFee(String marketId)
+            throws TradingApiException, ExchangeNetworkException {
+        return time("getPercentageOfSellOrderTakenForExchangeFee",
+                () -> delegate.getPercentageOfSellOrderTakenForExchangeFee(marketId));
+    }
+
+    @Override
+    public Ticker getTicker(String marketId) throws TradingApiException, ExchangeNetworkException {
+        return time("getTicker", () -> delegate.getTicker(marketId));
+    }
+
+    // ------------------------------------------------------------------------
+    // Async API calls
+    // ------------------------------------------------------------------------
+
+    /*
+     * Times each call from when it is made until its future completes.
+     */
+    private class MeteredAsyncTradingApi implements AsyncTradingApi {
+
+        @Override
+        public CompletableFuture<MarketOrderBook> getMarketOrders(String marketId) {
+            final long startTime = System.nanoTime();
+            return whenComplete("getMarketOrders", startTime,
+                    delegate.getAsyncTradingApi().getMarketOrders(marketId));
+        }
+
+        @Override
+        public CompletableFuture<List<OpenOrder>> getYourOpenOrders(String marketId) {
+            final long startTime = System.nanoTime();
+            return whenComplete("getYourOpenOrders", startTime,
+                    delegate.getAsyncTradingApi().getYourOpenOrders(marketId));
+        }
+
+        @Override
+        public CompletableFuture<String> createOrder(String marketId, OrderType orderType, BigDecimal quantity,
+                                                     BigDecimal price) {
+            final long startTime = System.nanoTime();
+            return whenComplete("createOrder", startTime,
+                    delegate.getAsyncTradingApi().createOrder(marketId, orderType, quantity, price));
+        }
+
+        @Override
+        public CompletableFuture<Boolean> cancelOrder(String orderId, String marketId) {
+            final long startTime = System.nanoTime();
+            return whenComplete("cancelOrder", startTime,
+                    delegate.getAsyncTradingApi().cancelOrder(orderId, marketId));
+        }
+
+        @Override
+        public CompletableFuture<BigDecimal> getLatestMarketPrice(String marketId) {
+            final long startTime = System.nanoTime();
+            return whenComplete("getLatestMarketPrice", startTime,
+                    delegate.getAsyncTradingApi().getLatestMarketPrice(marketId));
+        }
+
+        @Override
+        public CompletableFuture<BalanceInfo> getBalanceInfo() {
+            final long startTime = System.nanoTime();
+            return whenComplete("getBalanceInfo", startTime, delegate.getAsyncTradingApi().getBalanceInfo());
+        }
+
+        @Override
+        public CompletableFuture<BigDecimal> getPercentageOfBuyOrderTakenForExchangeFee(String marketId) {
+            final long startTime = System.nanoTime();
+            return whenComplete("getPercentageOfBuyOrderTakenForExchangeFee", startTime,
+                    delegate.getAsyncTradingApi().getPercentageOfBuyOrderTakenForExchangeFee(marketId));
+        }
+
+        @Override
+        public CompletableFuture<BigDecimal> getPercentageOfSellOrderTakenForExchangeFee(String marketId) {
+            final long startTime = System.nanoTime();
+            return whenComplete("getPercentageOfSellOrderTakenForExchangeFee", startTime,
+                    delegate.getAsyncTradingApi().getPercentageOfSellOrderTakenForExchangeFee(marketId));
+        }
+
+        @Override
+        public CompletableFuture<Ticker> getTicker(String marketId) {
+            final long startTime = System.nanoTime();
+            return whenComplete("getTicker", startTime, delegate.getAsyncTradingApi().getTicker(marketId));
+        }
+
+        private <V> CompletableFuture<V> whenComplete(String method, long startTime, CompletableFuture<V> future) {
+            return future.whenComplete((result, error) -> {
+                final Throwable failure = error instanceof CompletionException && error.getCause() != null
+                        ? error.getCause() : error;
+                record(method, failure, System.nanoTime() - startTime);
+            });
+        }
+    }
+
+    // ------------------------------------------------------------------------
+    // Private utils
+    // ------------------------------------------------------------------------
+
+    private <V> V time(String method, TimedCall<V> call) throws ExchangeNetworkException, TradingApiException {
+        final long startTime = System.nanoTime();
+        Throwable failure = null;
+        try {
+            return call.call();
+        } catch (ExchangeNetworkException | TradingApiException | RuntimeException e) {
+            failure = e;
+            throw e;
+        } finally {
+            record(method, failure, System.nanoTime() - startTime);
+        }
+    }
+
+    private void record(String method, Throwable failure, long durationNanos) {
+        Timer.builder(CALL_TIMER_NAME)
+                .description("Trading API calls made to the exchange")
+                .tags("exchange", exchangeId, "method", method,
+                        "exception", failure == null ? NO_EXCEPTION : failure.getClass().getSimpleName())
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(durationNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /*
+     * A Trading API call that is timed.
+     */
+    @FunctionalInterface
+    private interface TimedCall<V> {
+        V call() throws ExchangeNetworkException, TradingApiException;
+    }
+}
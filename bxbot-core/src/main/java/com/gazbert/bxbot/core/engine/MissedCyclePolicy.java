@@ -0,0 +1,58 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+
+package com.gazbert.bxbot.core.engine;
+
+/**
+ * What the Trade Cycle Scheduler does when a trade cycle overruns and one or more scheduled cycle start times
+ * have been missed.
+ *
+ * @author gazbert
+ */
+enum MissedCyclePolicy {
+
+    /**
+     * Drop the missed cycles and wait for the next scheduled cycle start time. Cycles never run back-to-back.
+     */
+    SKIP,
+
+    /**
+     * Merge the missed cycles into a single cycle that is started immediately, then carry on at the fixed rate.
+     */
+    COALESCE;
+
+    /**
+     * Returns the policy for the given config value.
+     *
+     * @param configValue the engine config value, e.g. skip, coalesce. Can be null.
+     * @return the policy; SKIP if no value is configured.
+     * @throws IllegalArgumentException if the config value is not recognised.
+     */
+    static MissedCyclePolicy fromConfig(String configValue) {
+        if (configValue == null) {
+            return SKIP;
+        }
+        return valueOf(configValue.trim().toUpperCase());
+    }
+}
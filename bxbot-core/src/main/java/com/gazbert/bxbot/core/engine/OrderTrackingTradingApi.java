@@ -0,0 +1,383 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.core.engine;
+
+import com.gazbert.bxbot.strategy.api.OrderEvent;
+import com.gazbert.bxbot.strategy.api.OrderEventListener;
+import com.gazbert.bxbot.trading.api.AsyncTradingApi;
+import com.gazbert.bxbot.trading.api.BalanceInfo;
+import com.gazbert.bxbot.trading.api.ExchangeNetworkException;
+import com.gazbert.bxbot.trading.api.MarketOrderBook;
+import com.gazbert.bxbot.trading.api.OpenOrder;
+import com.gazbert.bxbot.trading.api.OrderType;
+import com.gazbert.bxbot.trading.api.Ticker;
+import com.gazbert.bxbot.trading.api.TradingApi;
+import com.gazbert.bxbot.trading.api.TradingApiException;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Tracks the orders that Trading Strategies implementing {@link OrderEventListener} create, and tells them when the
+ * orders are filled or cancelled.
+ * <p>
+ * The Trading Engine gives these strategies this wrapper as their Trading API. Orders created through it on a market
+ * with a registered listener are indexed by order id until they fill or are cancelled. At the start of each trade
+ * cycle, the Trading Engine calls {@link #refresh(Collection)} with the markets that are due: a single open orders
+ * request is made for each market that still has live orders - markets with nothing to track cost nothing - and the
+ * result is matched against the tracked orders by id. Orders cancelled through this wrapper are reported as cancelled;
+ * orders that are no longer open are reported as filled.
+ * <p>
+ * Orders can be created from strategy threads while the Trading Engine thread refreshes; an order that was created
+ * after the open orders request was sent is not judged on that request's result.
+ *
+ * @author gazbert
+ */
+class OrderTrackingTradingApi implements TradingApi {
+
+    private static final Logger LOG = LogManager.getLogger();
+
+    private final TradingApi delegate;
+
+    /*
+     * The strategies to tell about their orders, keyed by market id.
+     */
+    private final Map<String, OrderEventListener> listeners = new ConcurrentHashMap<>();
+
+    /*
+     * The orders that have not yet been reported filled or cancelled, keyed by order id.
+     */
+    private final Map<String, TrackedOrder> trackedOrders = new ConcurrentHashMap<>();
+
+    private final AsyncTradingApi asyncTradingApi = new OrderTrackingAsyncTradingApi();
+
+    OrderTrackingTradingApi(TradingApi delegate) {
+        this.delegate = delegate;
+    }
+
+    /**
+     * Starts tracking the orders created on a market.
+     *
+     * @param marketId the market id.
+     * @param listener the strategy to tell about the orders.
+     */
+    void addListener(String marketId, OrderEventListener listener) {
+        listeners.put(marketId, listener);
+    }
+
+    /**
+     * Stops tracking the orders created on a market, and forgets the orders being tracked.
+     *
+     * @param marketId the market id.
+     */
+    void removeListener(String marketId) {
+        listeners.remove(marketId);
+        trackedOrders.values().removeIf(order -> order.marketId.equals(marketId));
+    }
+
+    /**
+     * Returns the number of orders being tracked.
+     *
+     * @return the number of tracked orders.
+     */
+    int getTrackedOrderCount() {
+        return trackedOrders.size();
+    }
+
+    /**
+     * Checks the tracked orders on the given markets and sends the fill and cancel events to the listeners.
+     * Called by the Trading Engine at the start of every trade cycle, before the strategies are executed.
+     * A market whose open orders can't be fetched because of a network error is skipped until the next trade cycle.
+     *
+     * @param marketIds the markets to check.
+     * @throws TradingApiException if the open orders request failed for any other reason.
+     */
+    void refresh(Collection<String> marketIds) throws TradingApiException {
+
+        final Map<String, List<TrackedOrder>> ordersByMarket = new HashMap<>();
+        for (final TrackedOrder order : trackedOrders.values()) {
+            if (marketIds.contains(order.marketId)) {
+                ordersByMarket.computeIfAbsent(order.marketId, id -> new ArrayList<>()).add(order);
+            }
+        }
+
+        for (final Map.Entry<String, List<TrackedOrder>> marketOrders : ordersByMarket.entrySet()) {
+
+            final String marketId = marketOrders.getKey();
+            final OrderEventListener listener = listeners.get(marketId);
+            if (listener == null) {
+                continue;
+            }
+
+            // Cancelled orders don't need the exchange to tell us anything
+            final List<TrackedOrder> liveOrders = new ArrayList<>();
+            for (final TrackedOrder order : marketOrders.getValue()) {
+                if (order.cancelled) {
+                    trackedOrders.remove(order.id);
+                    LOG.info(() -> "Order cancelled: " + order.id + " on market: " + marketId);
+                    listener.onOrderCancelled(order.toEvent());
+                } else {
+                    liveOrders.add(order);
+                }
+            }
+            if (liveOrders.isEmpty()) {
+                continue;
+            }
+
+            final long requestTime = System.nanoTime();
+            final Map<String, OpenOrder> openOrders = new HashMap<>();
+            try {
+                for (final OpenOrder openOrder : delegate.getYourOpenOrders(marketId)) {
+                    openOrders.put(openOrder.getId(), openOrder);
+                }
+            } catch (ExchangeNetworkException e) {
+                LOG.error("Failed to fetch open orders to check tracked orders on market: " + marketId
+                        + " - will try again at next trade cycle", e);
+                continue;
+            }
+
+            for (final TrackedOrder order : liveOrders) {
+
+                // Created after the request went out, or cancelled while it was in flight - leave it for next time
+                if (order.trackedTime - requestTime > 0 || order.cancelled) {
+                    continue;
+                }
+
+                final OpenOrder openOrder = openOrders.get(order.id);
+                if (openOrder == null) {
+                    trackedOrders.remove(order.id);
+                    order.filledQuantity = order.originalQuantity;
+                    LOG.info(() -> "Order filled: " + order.id + " on market: " + marketId);
+                    listener.onOrderFilled(order.toEvent());
+                    continue;
+                }
+
+                final BigDecimal remainingQuantity = openOrder.getQuantity();
+                if (remainingQuantity != null) {
+                    final BigDecimal filledQuantity = order.originalQuantity.subtract(remainingQuantity);
+                    if (filledQuantity.compareTo(order.filledQuantity) > 0) {
+                        order.filledQuantity = filledQuantity;
+                        LOG.info(() -> "Order partially filled: " + order.id + " on market: " + marketId);
+                        listener.onOrderPartiallyFilled(order.toEvent());
+                    }
+                }
+            }
+        }
+    }
+
+    @Override
+    public String getVersion() {
+        return delegate.getVersion();
+    }
+
+    @Override
+    public String getImplName() {
+        return delegate.getImplName();
+    }
+
+    @Override
+    public AsyncTradingApi getAsyncTradingApi() {
+        return asyncTradingApi;
+    }
+
+    // ------------------------------------------------------------------------
+    // Order API calls - tracked
+    // ------------------------------------------------------------------------
+
+    @Override
+    public String createOrder(String marketId, OrderType orderType, BigDecimal quantity, BigDecimal price)
+            throws ExchangeNetworkException, TradingApiException {
+        final String orderId = delegate.createOrder(marketId, orderType, quantity, price);
+        track(orderId, marketId, orderType, quantity, price);
+        return orderId;
+    }
+
+    @Override
+    public boolean cancelOrder(String orderId, String marketId) throws ExchangeNetworkException, TradingApiException {
+        final boolean cancelled = delegate.cancelOrder(orderId, marketId);
+        markCancelled(orderId, cancelled);
+        return cancelled;
+    }
+
+    // ------------------------------------------------------------------------
+    // Other API calls - passed straight through
+    // ------------------------------------------------------------------------
+
+    @Override
+    public MarketOrderBook getMarketOrders(String marketId) throws ExchangeNetworkException, TradingApiException {
+        return delegate.getMarketOrders(marketId);
+    }
+
+    @Override
+    public BigDecimal getLatestMarketPrice(String marketId) throws ExchangeNetworkException, TradingApiException {
+        return delegate.getLatestMarketPrice(marketId);
+    }
+
+    @Override
+    public Ticker getTicker(String marketId) throws TradingApiException, ExchangeNetworkException {
+        return delegate.getTicker(marketId);
+    }
+
+    @Override
+    public List<OpenOrder> getYourOpenOrders(String marketId) throws ExchangeNetworkException, TradingApiException {
+        return delegate.getYourOpenOrders(marketId);
+    }
+
+    @Override
+    public BalanceInfo getBalanceInfo() throws ExchangeNetworkException, TradingApiException {
+        return delegate.getBalanceInfo();
+    }
+
+    @Override
+    public BigDecimal getPercentageOfBuyOrderTakenForExchangeFee(String marketId)
+            throws TradingApiException, ExchangeNetworkException {
+        return delegate.getPercentageOfBuyOrderTakenForExchangeFee(marketId);
+    }
+
+    @Override
+    public BigDecimal getPercentageOfSellOrderTakenForExchangeFee(String marketId)
+            throws TradingApiException, ExchangeNetworkException {
+        return delegate.getPercentageOfSellOrderTakenForExchangeFee(marketId);
+    }
+
+    // ------------------------------------------------------------------------
+    // Private utils
+    // ------------------------------------------------------------------------
+
+    private void track(String orderId, String marketId, OrderType orderType, BigDecimal quantity, BigDecimal price) {
+        if (orderId != null && listeners.containsKey(marketId)) {
+            trackedOrders.put(orderId, new TrackedOrder(orderId, marketId, orderType, quantity, price));
+        }
+    }
+
+    private void markCancelled(String orderId, boolean cancelled) {
+        final TrackedOrder order = trackedOrders.get(orderId);
+        if (order != null && cancelled) {
+            order.cancelled = true;
+        }
+    }
+
+    // ------------------------------------------------------------------------
+    // Async API calls
+    // ------------------------------------------------------------------------
+
+    /*
+     * Tracks orders created and cancelled through the async calls in the same way as the blocking ones.
+     */
+    private class OrderTrackingAsyncTradingApi implements AsyncTradingApi {
+
+        @Override
+        public CompletableFuture<MarketOrderBook> getMarketOrders(String marketId) {
+            return delegate.getAsyncTradingApi().getMarketOrders(marketId);
+        }
+
+        @Override
+        public CompletableFuture<BigDecimal> getLatestMarketPrice(String marketId) {
+            return delegate.getAsyncTradingApi().getLatestMarketPrice(marketId);
+        }
+
+        @Override
+        public CompletableFuture<Ticker> getTicker(String marketId) {
+            return delegate.getAsyncTradingApi().getTicker(marketId);
+        }
+
+        @Override
+        public CompletableFuture<List<OpenOrder>> getYourOpenOrders(String marketId) {
+            return delegate.getAsyncTradingApi().getYourOpenOrders(marketId);
+        }
+
+        @Override
+        public CompletableFuture<BalanceInfo> getBalanceInfo() {
+            return delegate.getAsyncTradingApi().getBalanceInfo();
+        }
+
+        @Override
+        public CompletableFuture<String> createOrder(String marketId, OrderType orderType, BigDecimal quantity,
+                                                     BigDecimal price) {
+            return delegate.getAsyncTradingApi().createOrder(marketId, orderType, quantity, price)
+                    .whenComplete((orderId, error) -> {
+                        if (error == null) {
+                            track(orderId, marketId, orderType, quantity, price);
+                        }
+                    });
+        }
+
+        @Override
+        public CompletableFuture<Boolean> cancelOrder(String orderId, String marketId) {
+            return delegate.getAsyncTradingApi().cancelOrder(orderId, marketId)
+                    .whenComplete((cancelled, error) -> {
+                        if (error == null) {
+                            markCancelled(orderId, cancelled);
+                        }
+                    });
+        }
+
+        @Override
+        public CompletableFuture<BigDecimal> getPercentageOfBuyOrderTakenForExchangeFee(String marketId) {
+            return delegate.getAsyncTradingApi().getPercentageOfBuyOrderTakenForExchangeFee(marketId);
+        }
+
+        @Override
+        public CompletableFuture<BigDecimal> getPercentageOfSellOrderTakenForExchangeFee(String marketId) {
+            return delegate.getAsyncTradingApi().getPercentageOfSellOrderTakenForExchangeFee(marketId);
+        }
+    }
+
+    /*
+     * An order that has not yet been reported filled or cancelled.
+     * The filled quantity is only read and written by the Trading Engine thread.
+     */
+    private static final class TrackedOrder {
+
+        private final String id;
+        private final String marketId;
+        private final OrderType type;
+        private final BigDecimal originalQuantity;
+        private final BigDecimal price;
+        private final long trackedTime = System.nanoTime();
+        private BigDecimal filledQuantity = BigDecimal.ZERO;
+        private volatile boolean cancelled;
+
+        private TrackedOrder(String id, String marketId, OrderType type, BigDecimal originalQuantity,
+                             BigDecimal price) {
+            this.id = id;
+            this.marketId = marketId;
+            this.type = type;
+            this.originalQuantity = originalQuantity;
+            this.price = price;
+        }
+
+        private OrderEvent toEvent() {
+            return new OrderEvent(id, marketId, type, price, originalQuantity, filledQuantity);
+        }
+    }
+}
@@ -0,0 +1,354 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+
+package com.gazbert.bxbot.core.engine;
+
+import com.gazbert.bxbot.strategy.api.StrategyException;
+import com.gazbert.bxbot.strategy.api.TradingStrategy;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Executes the Trading Strategies for a trade cycle in parallel using a bounded pool of worker threads.
+ * <p>
+ * The {@link #execute(List)} method acts as a barrier: it submits every strategy and then waits for each of them to
+ * finish before returning to the Trading Engine. The Trading Engine can also {@link #submit(List)} the strategies and
+ * {@link CycleRun#await()} them later, so the strategies for several executors (one per Exchange) run at the same
+ * time. Each strategy is given up to its timeout, measured from when it starts running, to complete. Strategies use
+ * the executor's timeout unless they have been given their own. A strategy that overruns is not interrupted - it is
+ * left to finish in the background and is not executed again until its previous run has completed. Any failure from
+ * an overrunning strategy is reported at the start of the next cycle.
+ * <p>
+ * If one or more strategies fail, the first failure (in strategy list order) is rethrown so the Trading Engine
+ * applies its usual error policy; any other failures are logged.
+ * <p>
+ * This class is only called by the Trading Engine thread - it is not thread safe.
+ *
+ * @author gazbert
+ */
+class ParallelStrategyExecutor {
+
+    private static final Logger LOG = LogManager.getLogger();
+
+    /*
+     * How often we check on a strategy that is still queued waiting for a free worker thread.
+     */
+    private static final long QUEUED_STRATEGY_POLL_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    /*
+     * The pool of worker threads the strategies are executed on.
+     */
+    private final ExecutorService executorService;
+
+    /*
+     * Number of worker threads in the pool.
+     */
+    private final int threadCount;
+
+    /*
+     * Max time in nanos a strategy is given to complete its execute() call, unless it has its own timeout.
+     */
+    private final long timeoutNanos;
+
+    /*
+     * The strategies given their own timeout, keyed on strategy instance.
+     */
+    private final Map<TradingStrategy, Long> strategyTimeoutsNanos = new IdentityHashMap<>();
+
+    /*
+     * Strategies that did not complete within the timeout, keyed on strategy instance.
+     */
+    private final Map<TradingStrategy, StrategyRun> overrunningStrategies = new IdentityHashMap<>();
+
+    ParallelStrategyExecutor(int threadCount, int timeoutInSecs) {
+        this("bxbot-strategy", threadCount, timeoutInSecs);
+    }
+
+    ParallelStrategyExecutor(String threadNamePrefix, int threadCount, int timeoutInSecs) {
+
+        if (threadCount < 1) {
+            throw new IllegalArgumentException("Strategy execution thread count must be at least 1: " + threadCount);
+        }
+        if (timeoutInSecs < 1) {
+            throw new IllegalArgumentException("Strategy execution timeout must be at least 1 second: " + timeoutInSecs);
+        }
+
+        this.threadCount = threadCount;
+        this.timeoutNanos = TimeUnit.SECONDS.toNanos(timeoutInSecs);
+
+        final AtomicInteger threadNumber = new AtomicInteger(1);
+        executorService = Executors.newFixedThreadPool(threadCount, runnable -> {
+            final Thread thread = new Thread(runnable, threadNamePrefix + "-" + threadNumber.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Gives a Trading Strategy its own timeout in place of the executor's.
+     *
+     * @param tradingStrategy the strategy.
+     * @param timeoutInSecs   the max time the strategy is given to complete each execution.
+     */
+    void setTimeout(TradingStrategy tradingStrategy, int timeoutInSecs) {
+        if (timeoutInSecs < 1) {
+            throw new IllegalArgumentException("Strategy execution timeout must be at least 1 second: " + timeoutInSecs);
+        }
+        strategyTimeoutsNanos.put(tradingStrategy, TimeUnit.SECONDS.toNanos(timeoutInSecs));
+    }
+
+    /**
+     * Forgets a Trading Strategy's own timeout, e.g. when it has stopped trading.
+     *
+     * @param tradingStrategy the strategy.
+     */
+    void removeTimeout(TradingStrategy tradingStrategy) {
+        strategyTimeoutsNanos.remove(tradingStrategy);
+    }
+
+    /**
+     * Executes the given Trading Strategies in parallel and waits for them to complete.
+     *
+     * @param tradingStrategies the strategies to execute.
+     * @throws StrategyException if a strategy threw a StrategyException. Unchecked exceptions thrown by a strategy
+     *                           are rethrown as-is.
+     */
+    void execute(List<TradingStrategy> tradingStrategies) throws StrategyException {
+        submit(tradingStrategies).await();
+    }
+
+    /**
+     * Submits the given Trading Strategies for execution without waiting for them to complete.
+     *
+     * @param tradingStrategies the strategies to execute.
+     * @return the trade cycle run to wait on.
+     */
+    CycleRun submit(List<TradingStrategy> tradingStrategies) {
+
+        final CycleRun cycleRun = new CycleRun(tradingStrategies.size());
+
+        for (final TradingStrategy tradingStrategy : tradingStrategies) {
+
+            final StrategyRun previousRun = overrunningStrategies.get(tradingStrategy);
+            if (previousRun != null) {
+                if (!previousRun.future.isDone()) {
+                    LOG.warn(() -> "Trading Strategy " + strategyName(tradingStrategy) + " is still running from a "
+                            + "previous trade cycle - skipping it this cycle");
+                    continue;
+                }
+
+                overrunningStrategies.remove(tradingStrategy);
+                final Throwable previousFailure = getFailure(previousRun.future);
+                if (previousFailure != null) {
+                    LOG.error("Trading Strategy " + strategyName(tradingStrategy) + " failed after overrunning a "
+                            + "previous trade cycle", previousFailure);
+                    cycleRun.failures.add(previousFailure);
+                    continue;
+                }
+            }
+
+            LOG.info(() -> "Executing Trading Strategy ---> " + strategyName(tradingStrategy));
+            cycleRun.runs.add(submitStrategy(tradingStrategy));
+        }
+
+        // Worst case for a queued strategy is waiting for every worker to run a full timeout per 'wave' of strategies
+        long maxTimeoutNanos = 0;
+        for (final StrategyRun run : cycleRun.runs) {
+            maxTimeoutNanos = Math.max(maxTimeoutNanos, run.timeoutNanos);
+        }
+        final long waves = (cycleRun.runs.size() + threadCount - 1) / threadCount;
+        cycleRun.deadline = System.nanoTime() + waves * maxTimeoutNanos;
+        return cycleRun;
+    }
+
+    /**
+     * Stops the worker threads. Any strategies still running are interrupted.
+     */
+    void shutdown() {
+        LOG.info(() -> "Shutting down Trading Strategy executor...");
+        executorService.shutdownNow();
+    }
+
+    // ------------------------------------------------------------------------
+    // Private utils
+    // ------------------------------------------------------------------------
+
+    private StrategyRun submitStrategy(TradingStrategy tradingStrategy) {
+        final StrategyRun run = new StrategyRun(tradingStrategy,
+                strategyTimeoutsNanos.getOrDefault(tradingStrategy, timeoutNanos));
+        run.future = executorService.submit(() -> {
+            run.startTime = System.nanoTime();
+            run.started = true;
+            tradingStrategy.execute();
+            return null;
+        });
+        return run;
+    }
+
+    /*
+     * Waits for the strategy to complete. A strategy that has started gets the full timeout from its start time;
+     * a strategy still queued behind busy workers is polled until it starts or the cycle deadline passes.
+     */
+    private void awaitCompletion(StrategyRun run, long cycleDeadline) throws TimeoutException, InterruptedException {
+
+        while (true) {
+            final long now = System.nanoTime();
+            final long waitNanos;
+            if (run.started) {
+                waitNanos = run.startTime + run.timeoutNanos - now;
+            } else {
+                waitNanos = Math.min(QUEUED_STRATEGY_POLL_INTERVAL_NANOS, cycleDeadline - now);
+            }
+
+            try {
+                run.future.get(Math.max(0, waitNanos), TimeUnit.NANOSECONDS);
+                return;
+            } catch (ExecutionException e) {
+                return; // failure is collected by the caller
+            } catch (TimeoutException e) {
+                final long deadline = run.started ? run.startTime + run.timeoutNanos : cycleDeadline;
+                if (System.nanoTime() - deadline >= 0) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    private static Throwable getFailure(Future<?> future) {
+        try {
+            future.get();
+            return null;
+        } catch (ExecutionException e) {
+            return e.getCause();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return e;
+        }
+    }
+
+    private static void rethrow(Throwable failure) throws StrategyException {
+        if (failure instanceof StrategyException) {
+            throw (StrategyException) failure;
+        } else if (failure instanceof RuntimeException) {
+            throw (RuntimeException) failure;
+        } else if (failure instanceof Error) {
+            throw (Error) failure;
+        } else {
+            throw new StrategyException(failure);
+        }
+    }
+
+    static String strategyName(TradingStrategy tradingStrategy) {
+        final TradingStrategy strategy = tradingStrategy instanceof TimedTradingStrategy
+                ? ((TimedTradingStrategy) tradingStrategy).getDelegate() : tradingStrategy;
+        return strategy.getClass().getSimpleName();
+    }
+
+    /**
+     * The Trading Strategies submitted for a trade cycle.
+     */
+    final class CycleRun {
+
+        private final List<Throwable> failures = new ArrayList<>();
+        private final List<StrategyRun> runs;
+        private long deadline;
+
+        private CycleRun(int strategyCount) {
+            runs = new ArrayList<>(strategyCount);
+        }
+
+        /**
+         * Waits for the submitted Trading Strategies to complete.
+         *
+         * @throws StrategyException if a strategy threw a StrategyException. Unchecked exceptions thrown by a
+         *                           strategy are rethrown as-is.
+         */
+        void await() throws StrategyException {
+
+            boolean interrupted = false;
+            for (final StrategyRun run : runs) {
+
+                if (interrupted) {
+                    overrunningStrategies.put(run.tradingStrategy, run);
+                    continue;
+                }
+
+                try {
+                    awaitCompletion(run, deadline);
+                    final Throwable failure = getFailure(run.future);
+                    if (failure != null) {
+                        failures.add(failure);
+                    }
+
+                } catch (TimeoutException e) {
+                    LOG.warn(() -> "Trading Strategy " + strategyName(run.tradingStrategy) + " did not complete within "
+                            + TimeUnit.NANOSECONDS.toSeconds(run.timeoutNanos) + "s - it will not be run again until it finishes");
+                    overrunningStrategies.put(run.tradingStrategy, run);
+
+                } catch (InterruptedException e) {
+                    LOG.warn("Control Loop thread interrupted when waiting for Trading Strategies to complete");
+                    Thread.currentThread().interrupt();
+                    interrupted = true;
+                    overrunningStrategies.put(run.tradingStrategy, run);
+                }
+            }
+
+            if (!failures.isEmpty()) {
+                for (int i = 1; i < failures.size(); i++) {
+                    LOG.error("Additional Trading Strategy failure in this trade cycle", failures.get(i));
+                }
+                rethrow(failures.get(0));
+            }
+        }
+    }
+
+    /*
+     * Tracks a single execution of a Trading Strategy.
+     */
+    private static final class StrategyRun {
+
+        private final TradingStrategy tradingStrategy;
+        private final long timeoutNanos;
+        private Future<?> future;
+        private volatile long startTime;
+        private volatile boolean started;
+
+        private StrategyRun(TradingStrategy tradingStrategy, long timeoutNanos) {
+            this.tradingStrategy = tradingStrategy;
+            this.timeoutNanos = timeoutNanos;
+        }
+    }
+}
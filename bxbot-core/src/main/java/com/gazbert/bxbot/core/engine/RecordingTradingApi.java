@@ -0,0 +1,211 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+
+package com.gazbert.bxbot.core.engine;
+
+import com.gazbert.bxbot.trading.api.AsyncTradingApi;
+import com.gazbert.bxbot.trading.api.BalanceInfo;
+import com.gazbert.bxbot.trading.api.ExchangeNetworkException;
+import com.gazbert.bxbot.trading.api.MarketOrderBook;
+import com.gazbert.bxbot.trading.api.OpenOrder;
+import com.gazbert.bxbot.trading.api.OrderType;
+import com.gazbert.bxbot.trading.api.Ticker;
+import com.gazbert.bxbot.trading.api.TradingApi;
+import com.gazbert.bxbot.trading.api.TradingApiException;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Hands the results of the market data calls to the {@link MarketDataRecorder} as they are returned to the caller.
+ * <p>
+ * The order book, Ticker and latest market price calls are recorded; every other call is passed straight through.
+ * Failed calls are not recorded. The Trading Engine wraps this inside the Trading API cache, so a result that is
+ * shared between the Trading Strategies is only recorded once.
+ *
+ * @author gazbert
+ */
+class RecordingTradingApi implements TradingApi {
+
+    private final TradingApi delegate;
+    private final String exchangeId;
+    private final MarketDataRecorder recorder;
+
+    private final AsyncTradingApi asyncTradingApi = new RecordingAsyncTradingApi();
+
+    RecordingTradingApi(TradingApi delegate, String exchangeId, MarketDataRecorder recorder) {
+        this.delegate = delegate;
+        this.exchangeId = exchangeId;
+        this.recorder = recorder;
+    }
+
+    @Override
+    public String getVersion() {
+        return delegate.getVersion();
+    }
+
+    @Override
+    public String getImplName() {
+        return delegate.getImplName();
+    }
+
+    @Override
+    public AsyncTradingApi getAsyncTradingApi() {
+        return asyncTradingApi;
+    }
+
+    // ------------------------------------------------------------------------
+    // Recorded API calls
+    // ------------------------------------------------------------------------
+
+    @Override
+    public MarketOrderBook getMarketOrders(String marketId) throws ExchangeNetworkException, TradingApiException {
+        final MarketOrderBook marketOrderBook = delegate.getMarketOrders(marketId);
+        recorder.recordMarketOrders(exchangeId, marketId, marketOrderBook);
+        return marketOrderBook;
+    }
+
+    @Override
+    public BigDecimal getLatestMarketPrice(String marketId) throws ExchangeNetworkException, TradingApiException {
+        final BigDecimal latestMarketPrice = delegate.getLatestMarketPrice(marketId);
+        recorder.recordLatestMarketPrice(exchangeId, marketId, latestMarketPrice);
+        return latestMarketPrice;
+    }
+
+    @Override
+    public Ticker getTicker(String marketId) throws TradingApiException, ExchangeNetworkException {
+        final Ticker ticker = delegate.getTicker(marketId);
+        recorder.recordTicker(exchangeId, marketId, ticker);
+        return ticker;
+    }
+
+    // ------------------------------------------------------------------------
+    // Other API calls - passed straight through
+    // ------------------------------------------------------------------------
+
+    @Override
+    public List<OpenOrder> getYourOpenOrders(String marketId) throws ExchangeNetworkException, TradingApiException {
+        return delegate.getYourOpenOrders(marketId);
+    }
+
+    @Override
+    public BalanceInfo getBalanceInfo() throws ExchangeNetworkException, TradingApiException {
+        return delegate.getBalanceInfo();
+    }
+
+    @Override
+    public String createOrder(String marketId, OrderType orderType, BigDecimal quantity, BigDecimal price)
+            throws ExchangeNetworkException, TradingApiException {
+        return delegate.createOrder(marketId, orderType, quantity, price);
+    }
+
+    @Override
+    public boolean cancelOrder(String orderId, String marketId) throws ExchangeNetworkException, TradingApiException {
+        return delegate.cancelOrder(orderId, marketId);
+    }
+
+    @Override
+    public BigDecimal getPercentageOfBuyOrderTakenForExchangeFee(String marketId)
+            throws TradingApiException, ExchangeNetworkException {
+        return delegate.getPercentageOfBuyOrderTakenForExchangeFee(marketId);
+    }
+
+    @Override
+    public BigDecimal getPercentageOfSellOrderTakenForExchangeFee(String marketId)
+            throws TradingApiException, ExchangeNetworkException {
+        return delegate.getPercentageOfSellOrderTakenForExchangeFee(marketId);
+    }
+
+    // ------------------------------------------------------------------------
+    // Async API calls
+    // ------------------------------------------------------------------------
+
+    /*
+     * Records the results of the market data calls when their futures complete successfully.
+     */
+    private class RecordingAsyncTradingApi implements AsyncTradingApi {
+
+        @Override
+        public CompletableFuture<MarketOrderBook> getMarketOrders(String marketId) {
+            return delegate.getAsyncTradingApi().getMarketOrders(marketId)
+                    .whenComplete((marketOrderBook, error) -> {
+                        if (error == null) {
+                            recorder.recordMarketOrders(exchangeId, marketId, marketOrderBook);
+                        }
+                    });
+        }
+
+        @Override
+        public CompletableFuture<BigDecimal> getLatestMarketPrice(String marketId) {
+            return delegate.getAsyncTradingApi().getLatestMarketPrice(marketId)
+                    .whenComplete((latestMarketPrice, error) -> {
+                        if (error == null) {
+                            recorder.recordLatestMarketPrice(exchangeId, marketId, latestMarketPrice);
+                        }
+                    });
+        }
+
+        @Override
+        public CompletableFuture<Ticker> getTicker(String marketId) {
+            return delegate.getAsyncTradingApi().getTicker(marketId)
+                    .whenComplete((ticker, error) -> {
+                        if (error == null) {
+                            recorder.recordTicker(exchangeId, marketId, ticker);
+                        }
+                    });
+        }
+
+        @Override
+        public CompletableFuture<List<OpenOrder>> getYourOpenOrders(String marketId) {
+            return delegate.getAsyncTradingApi().getYourOpenOrders(marketId);
+        }
+
+        @Override
+        public CompletableFuture<BalanceInfo> getBalanceInfo() {
+            return delegate.getAsyncTradingApi().getBalanceInfo();
+        }
+
+        @Override
+        public CompletableFuture<String> createOrder(String marketId, OrderType orderType, BigDecimal quantity,
+                                                     BigDecimal price) {
+            return delegate.getAsyncTradingApi().createOrder(marketId, orderType, quantity, price);
+        }
+
+        @Override
+        public CompletableFuture<Boolean> cancelOrder(String orderId, String marketId) {
+            return delegate.getAsyncTradingApi().cancelOrder(orderId, marketId);
+        }
+
+        @Override
+        public CompletableFuture<BigDecimal> getPercentageOfBuyOrderTakenForExchangeFee(String marketId) {
+            return delegate.getAsyncTradingApi().getPercentageOfBuyOrderTakenForExchangeFee(marketId);
+        }
+
+        @Override
+        public CompletableFuture<BigDecimal> getPercentageOfSellOrderTakenForExchangeFee(String marketId) {
+            return delegate.getAsyncTradingApi().getPercentageOfSellOrderTakenForExchangeFee(marketId);
+        }
+    }
+}
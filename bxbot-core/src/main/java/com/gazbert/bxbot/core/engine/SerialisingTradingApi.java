@@ -0,0 +1,243 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+
+package com.gazbert.bxbot.core.engine;
+
+import com.gazbert.bxbot.trading.api.AsyncTradingApi;
+import com.gazbert.bxbot.trading.api.BalanceInfo;
+import com.gazbert.bxbot.trading.api.ExchangeNetworkException;
+import com.gazbert.bxbot.trading.api.MarketOrderBook;
+import com.gazbert.bxbot.trading.api.OpenOrder;
+import com.gazbert.bxbot.trading.api.OrderType;
+import com.gazbert.bxbot.trading.api.Ticker;
+import com.gazbert.bxbot.trading.api.TradingApi;
+import com.gazbert.bxbot.trading.api.TradingApiException;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.function.Supplier;
+
+/**
+ * Wraps the Exchange Adapter when Trading Strategies are executed in parallel.
+ * <p>
+ * Exchange Adapters were written on the basis that only 1 thread would call them at a time: the authenticated API
+ * calls share state such as the nonce and the MAC used to sign requests. This wrapper serialises the authenticated
+ * (account) calls through a single lock so that only 1 strategy thread is ever signing a request. The public market
+ * data calls hold no shared state in the adapters and are passed straight through so they can run concurrently.
+ * <p>
+ * Account calls made through the {@link #getAsyncTradingApi()} hold the same lock until their future completes, so a
+ * strategy's async account call can never overlap with another strategy's blocking one. The lock is a permit rather
+ * than a monitor because it is released on whichever thread completes the future.
+ *
+ * @author gazbert
+ */
+class SerialisingTradingApi implements TradingApi {
+
+    private final TradingApi delegate;
+
+    /*
+     * Lock held for the duration of every authenticated API call.
+     */
+    private final Semaphore accountCallLock = new Semaphore(1);
+
+    private final AsyncTradingApi asyncTradingApi = new SerialisingAsyncTradingApi();
+
+    SerialisingTradingApi(TradingApi delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public String getVersion() {
+        return delegate.getVersion();
+    }
+
+    @Override
+    public String getImplName() {
+        return delegate.getImplName();
+    }
+
+    @Override
+    public AsyncTradingApi getAsyncTradingApi() {
+        return asyncTradingApi;
+    }
+
+    // ------------------------------------------------------------------------
+    // Public API calls - passed straight through
+    // ------------------------------------------------------------------------
+
+    @Override
+    public MarketOrderBook getMarketOrders(String marketId) throws ExchangeNetworkException, TradingApiException {
+        return delegate.getMarketOrders(marketId);
+    }
+
+    @Override
+    public BigDecimal getLatestMarketPrice(String marketId) throws ExchangeNetworkException, TradingApiException {
+        return delegate.getLatestMarketPrice(marketId);
+    }
+
+    @Override
+    public Ticker getTicker(String marketId) throws TradingApiException, ExchangeNetworkException {
+        return delegate.getTicker(marketId);
+    }
+
+    // ------------------------------------------------------------------------
+    // Authenticated API calls - serialised
+    // ------------------------------------------------------------------------
+
+    @Override
+    public List<OpenOrder> getYourOpenOrders(String marketId) throws ExchangeNetworkException, TradingApiException {
+        accountCallLock.acquireUninterruptibly();
+        try {
+            return delegate.getYourOpenOrders(marketId);
+        } finally {
+            accountCallLock.release();
+        }
+    }
+
+    @Override
+    public String createOrder(String marketId, OrderType orderType, BigDecimal quantity, BigDecimal price)
+            throws ExchangeNetworkException, TradingApiException {
+        accountCallLock.acquireUninterruptibly();
+        try {
+            return delegate.createOrder(marketId, orderType, quantity, price);
+        } finally {
+            accountCallLock.release();
+        }
+    }
+
+    @Override
+    public boolean cancelOrder(String orderId, String marketId) throws ExchangeNetworkException, TradingApiException {
+        accountCallLock.acquireUninterruptibly();
+        try {
+            return delegate.cancelOrder(orderId, marketId);
+        } finally {
+            accountCallLock.release();
+        }
+    }
+
+    @Override
+    public BalanceInfo getBalanceInfo() throws ExchangeNetworkException, TradingApiException {
+        accountCallLock.acquireUninterruptibly();
+        try {
+            return delegate.getBalanceInfo();
+        } finally {
+            accountCallLock.release();
+        }
+    }
+
+    @Override
+    public BigDecimal getPercentageOfBuyOrderTakenForExchangeFee(String marketId)
+            throws TradingApiException, ExchangeNetworkException {
+        accountCallLock.acquireUninterruptibly();
+        try {
+            return delegate.getPercentageOfBuyOrderTakenForExchangeFee(marketId);
+        } finally {
+            accountCallLock.release();
+        }
+    }
+
+    @Override
+    public BigDecimal getPercentageOfSellOrderTakenForExchangeFee(String marketId)
+            throws TradingApiException, ExchangeNetworkException {
+        accountCallLock.acquireUninterruptibly();
+        try {
+            return delegate.getPercentageOfSellOrderTakenForExchangeFee(marketId);
+        } finally {
+            accountCallLock.release();
+        }
+    }
+
+    // ------------------------------------------------------------------------
+    // Async API calls
+    // ------------------------------------------------------------------------
+
+    /*
+     * Passes the public calls straight through to the Exchange Adapter's async API and serialises the account calls.
+     */
+    private class SerialisingAsyncTradingApi implements AsyncTradingApi {
+
+        @Override
+        public CompletableFuture<MarketOrderBook> getMarketOrders(String marketId) {
+            return delegate.getAsyncTradingApi().getMarketOrders(marketId);
+        }
+
+        @Override
+        public CompletableFuture<BigDecimal> getLatestMarketPrice(String marketId) {
+            return delegate.getAsyncTradingApi().getLatestMarketPrice(marketId);
+        }
+
+        @Override
+        public CompletableFuture<Ticker> getTicker(String marketId) {
+            return delegate.getAsyncTradingApi().getTicker(marketId);
+        }
+
+        @Override
+        public CompletableFuture<List<OpenOrder>> getYourOpenOrders(String marketId) {
+            return serialise(() -> delegate.getAsyncTradingApi().getYourOpenOrders(marketId));
+        }
+
+        @Override
+        public CompletableFuture<String> createOrder(String marketId, OrderType orderType, BigDecimal quantity,
+                                                     BigDecimal price) {
+            return serialise(() -> delegate.getAsyncTradingApi().createOrder(marketId, orderType, quantity, price));
+        }
+
+        @Override
+        public CompletableFuture<Boolean> cancelOrder(String orderId, String marketId) {
+            return serialise(() -> delegate.getAsyncTradingApi().cancelOrder(orderId, marketId));
+        }
+
+        @Override
+        public CompletableFuture<BalanceInfo> getBalanceInfo() {
+            return serialise(() -> delegate.getAsyncTradingApi().getBalanceInfo());
+        }
+
+        @Override
+        public CompletableFuture<BigDecimal> getPercentageOfBuyOrderTakenForExchangeFee(String marketId) {
+            return serialise(() -> delegate.getAsyncTradingApi().getPercentageOfBuyOrderTakenForExchangeFee(marketId));
+        }
+
+        @Override
+        public CompletableFuture<BigDecimal> getPercentageOfSellOrderTakenForExchangeFee(String marketId) {
+            return serialise(() -> delegate.getAsyncTradingApi().getPercentageOfSellOrderTakenForExchangeFee(marketId));
+        }
+
+        /*
+         * Blocks until no other account call is in progress, then holds the lock until the call's future completes.
+         */
+        private <T> CompletableFuture<T> serialise(Supplier<CompletableFuture<T>> accountCall) {
+            accountCallLock.acquireUninterruptibly();
+            final CompletableFuture<T> future;
+            try {
+                future = accountCall.get();
+            } catch (RuntimeException e) {
+                accountCallLock.release();
+                throw e;
+            }
+            return future.whenComplete((result, error) -> accountCallLock.release());
+        }
+    }
+}
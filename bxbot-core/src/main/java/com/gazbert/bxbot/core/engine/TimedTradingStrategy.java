@@ -0,0 +1,77 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+
+package com.gazbert.bxbot.core.engine;
+
+import com.gazbert.bxbot.strategy.api.StrategyConfig;
+import com.gazbert.bxbot.strategy.api.StrategyException;
+import com.gazbert.bxbot.strategy.api.TradingStrategy;
+import com.gazbert.bxbot.trading.api.Market;
+import com.gazbert.bxbot.trading.api.TradingApi;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times every execute() call of a Trading Strategy.
+ * <p>
+ * The Trading Engine creates 1 of these for each Market when its strategy is started and executes the strategy through
+ * it, so it is the same instance every trade cycle - the {@link ParallelStrategyExecutor} tracks overrunning strategies
+ * by instance. The engine still checks the wrapped strategy for the optional strategy interfaces.
+ *
+ * @author gazbert
+ */
+final class TimedTradingStrategy implements TradingStrategy {
+
+    private final TradingStrategy delegate;
+    private final Timer executionTimer;
+
+    TimedTradingStrategy(TradingStrategy delegate, Timer executionTimer) {
+        this.delegate = delegate;
+        this.executionTimer = executionTimer;
+    }
+
+    @Override
+    public void init(TradingApi tradingApi, Market market, StrategyConfig config) {
+        delegate.init(tradingApi, market, config);
+    }
+
+    @Override
+    public void execute() throws StrategyException {
+        final long startTime = System.nanoTime();
+        try {
+            delegate.execute();
+        } finally {
+            executionTimer.record(System.nanoTime() - startTime, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    TradingStrategy getDelegate() {
+        return delegate;
+    }
+
+    Timer getExecutionTimer() {
+        return executionTimer;
+    }
+}
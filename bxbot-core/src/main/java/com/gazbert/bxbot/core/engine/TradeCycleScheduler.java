@@ -0,0 +1,313 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.core.engine;
+
+import com.google.common.base.Ticker;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Schedules the Trading Engine's trade cycles at a fixed rate.
+ * <p>
+ * Each scheduled item - a Trading Strategy for a given Market - has its own trade cycle interval. The items are held
+ * in a priority queue ordered by when they are next due, so the engine only wakes up when the earliest item is due
+ * and then runs every item that is due at that point. Items are started together on the first cycle, and are then
+ * scheduled every interval seconds from their previous scheduled start rather than sleeping for the interval after
+ * each cycle completes. This means the time taken to execute the strategies is subtracted from the wait, and the
+ * period does not drift when the exchange is slow.
+ * <p>
+ * If a cycle runs past an item's next scheduled start time, the overrun is logged and the item's missed cycles are
+ * handled according to the configured {@link MissedCyclePolicy}.
+ * <p>
+ * The scheduler also records timing statistics for each cycle, including jitter - how late the engine woke up
+ * compared to when the next cycle was scheduled to start. The scheduling methods are only called by the Trading
+ * Engine thread; the statistics can be read from any thread.
+ *
+ * @param <T> the type of item being scheduled.
+ * @author gazbert
+ */
+class TradeCycleScheduler<T> {
+
+    private static final Logger LOG = LogManager.getLogger();
+
+    /**
+     * Sleeps the calling thread. Allows tests to control time.
+     */
+    interface Sleeper {
+        void sleep(long nanos) throws InterruptedException;
+    }
+
+    /*
+     * How long to wait between cycles if there is nothing scheduled.
+     */
+    private final long defaultPeriodNanos;
+
+    private final MissedCyclePolicy missedCyclePolicy;
+    private final Ticker ticker;
+    private final Sleeper sleeper;
+
+    /*
+     * The scheduled items, earliest due first.
+     */
+    private final PriorityQueue<ScheduledItem<T>> scheduledItems = new PriorityQueue<>();
+
+    /*
+     * The items taken off the queue for the current trade cycle.
+     */
+    private final List<ScheduledItem<T>> dueItems = new ArrayList<>();
+
+    /*
+     * Used to keep items due at the same time in the order they were scheduled.
+     */
+    private long nextSequenceNumber;
+
+    /*
+     * When the engine was scheduled to wake up and when it actually started the current trade cycle, in ticker nanos.
+     */
+    private long scheduledCycleStart;
+    private long actualCycleStart;
+    private boolean isFirstCycle = true;
+
+    /*
+     * Cycle statistics. Guarded by 'this'.
+     */
+    private long cycleCount;
+    private long overrunCount;
+    private long missedCycleCount;
+    private long lastJitterNanos;
+    private long maxJitterNanos;
+    private long totalJitterNanos;
+    private long lastCycleDurationNanos;
+
+    TradeCycleScheduler(int defaultTradeCycleIntervalInSecs, MissedCyclePolicy missedCyclePolicy) {
+        this(TimeUnit.SECONDS.toNanos(defaultTradeCycleIntervalInSecs), missedCyclePolicy, Ticker.systemTicker(),
+                TimeUnit.NANOSECONDS::sleep);
+    }
+
+    TradeCycleScheduler(long defaultPeriodNanos, MissedCyclePolicy missedCyclePolicy, Ticker ticker,
+                        Sleeper sleeper) {
+
+        if (defaultPeriodNanos <= 0) {
+            throw new IllegalArgumentException("Trade cycle period must be greater than 0: " + defaultPeriodNanos);
+        }
+
+        this.defaultPeriodNanos = defaultPeriodNanos;
+        this.missedCyclePolicy = missedCyclePolicy;
+        this.ticker = ticker;
+        this.sleeper = sleeper;
+    }
+
+    /**
+     * Schedules an item to be returned by {@link #startCycle()} every given number of seconds.
+     *
+     * @param item                    the item to schedule.
+     * @param description             description of the item for logging.
+     * @param tradeCycleIntervalInSecs the trade cycle interval for the item in secs.
+     */
+    void schedule(T item, String description, int tradeCycleIntervalInSecs) {
+        schedule(item, description, TimeUnit.SECONDS.toNanos(tradeCycleIntervalInSecs));
+    }
+
+    /**
+     * Schedules an item to be returned by {@link #startCycle()} every given number of nanos.
+     * The item is first due at the next trade cycle.
+     *
+     * @param item        the item to schedule.
+     * @param description description of the item for logging.
+     * @param periodNanos the trade cycle period for the item in nanos.
+     */
+    void schedule(T item, String description, long periodNanos) {
+
+        if (periodNanos <= 0) {
+            throw new IllegalArgumentException("Trade cycle period for " + description + " must be greater than 0: "
+                    + periodNanos);
+        }
+        scheduledItems.add(new ScheduledItem<>(item, description, periodNanos, ticker.read(), nextSequenceNumber++));
+    }
+
+    /**
+     * Removes an item from the schedule. Must only be called between trade cycles.
+     *
+     * @param item the item to remove.
+     * @return true if the item was scheduled, false otherwise.
+     */
+    boolean unschedule(T item) {
+        return scheduledItems.removeIf(scheduledItem -> scheduledItem.item == item);
+    }
+
+    /**
+     * Marks the start of a trade cycle. Must be called at the start of every cycle.
+     *
+     * @return the items due to run in this cycle, in the order they were scheduled. Can be empty.
+     */
+    List<T> startCycle() {
+
+        final long now = ticker.read();
+        if (isFirstCycle) {
+            // Start everything together on the first cycle
+            scheduledCycleStart = now;
+            for (final ScheduledItem<T> scheduledItem : scheduledItems) {
+                scheduledItem.nextDue = now;
+            }
+            isFirstCycle = false;
+        }
+        actualCycleStart = now;
+
+        dueItems.clear();
+        while (!scheduledItems.isEmpty() && scheduledItems.peek().nextDue - now <= 0) {
+            dueItems.add(scheduledItems.poll());
+        }
+        Collections.sort(dueItems, (a, b) -> Long.compare(a.sequenceNumber, b.sequenceNumber));
+
+        final long jitterNanos = Math.max(0, now - scheduledCycleStart);
+        synchronized (this) {
+            cycleCount++;
+            lastJitterNanos = jitterNanos;
+            maxJitterNanos = Math.max(maxJitterNanos, jitterNanos);
+            totalJitterNanos += jitterNanos;
+        }
+
+        final List<T> items = new ArrayList<>(dueItems.size());
+        for (final ScheduledItem<T> dueItem : dueItems) {
+            items.add(dueItem.item);
+        }
+        return items;
+    }
+
+    /**
+     * Reschedules the items run in this cycle and blocks until the next trade cycle is due to start.
+     * Must be called at the end of every cycle.
+     *
+     * @throws InterruptedException if the thread is interrupted while waiting.
+     */
+    void awaitNextCycle() throws InterruptedException {
+
+        final long now = ticker.read();
+        boolean isOverrun = false;
+        long cyclesMissed = 0;
+
+        for (final ScheduledItem<T> dueItem : dueItems) {
+
+            final long periodNanos = dueItem.periodNanos;
+            long nextDue = dueItem.nextDue + periodNanos;
+
+            if (now - nextDue > 0) {
+
+                final long cyclesOverrun = (now - nextDue) / periodNanos + 1;
+                final long itemCyclesMissed;
+                if (missedCyclePolicy == MissedCyclePolicy.SKIP) {
+                    nextDue += cyclesOverrun * periodNanos;
+                    itemCyclesMissed = cyclesOverrun;
+                } else {
+                    nextDue += (cyclesOverrun - 1) * periodNanos;
+                    itemCyclesMissed = cyclesOverrun - 1;
+                }
+
+                final long overrunMillis = TimeUnit.NANOSECONDS.toMillis(now - dueItem.nextDue - periodNanos);
+                LOG.warn(() -> "Trade cycle overran the trade cycle interval for " + dueItem.description + " by "
+                        + overrunMillis + "ms - " + missedCyclePolicy + " policy has missed " + itemCyclesMissed
+                        + " scheduled trade cycle(s)");
+
+                isOverrun = true;
+                cyclesMissed += itemCyclesMissed;
+            }
+
+            dueItem.nextDue = nextDue;
+            scheduledItems.add(dueItem);
+        }
+        dueItems.clear();
+
+        synchronized (this) {
+            lastCycleDurationNanos = now - actualCycleStart;
+            if (isOverrun) {
+                overrunCount++;
+            }
+            missedCycleCount += cyclesMissed;
+        }
+
+        final long nextCycleStart = scheduledItems.isEmpty()
+                ? scheduledCycleStart + defaultPeriodNanos
+                : scheduledItems.peek().nextDue;
+
+        scheduledCycleStart = nextCycleStart;
+        final long sleepNanos = nextCycleStart - now;
+        if (sleepNanos > 0) {
+            LOG.info(() -> "*** Sleeping " + TimeUnit.NANOSECONDS.toMillis(sleepNanos) + "ms til next trade cycle... ***");
+            sleeper.sleep(sleepNanos);
+        }
+    }
+
+    /**
+     * Returns how late the last trade cycle started compared to its scheduled start time.
+     *
+     * @return the last jitter in nanos.
+     */
+    synchronized long getLastJitterNanos() {
+        return lastJitterNanos;
+    }
+
+    /**
+     * Returns a snapshot of the trade cycle statistics.
+     *
+     * @return the trade cycle statistics.
+     */
+    synchronized TradeCycleStatistics getStatistics() {
+        final double meanJitterMillis = cycleCount == 0 ? 0 : (double) totalJitterNanos / cycleCount / 1_000_000;
+        return new TradeCycleStatistics(cycleCount, overrunCount, missedCycleCount,
+                TimeUnit.NANOSECONDS.toMillis(lastJitterNanos), TimeUnit.NANOSECONDS.toMillis(maxJitterNanos),
+                meanJitterMillis, TimeUnit.NANOSECONDS.toMillis(lastCycleDurationNanos));
+    }
+
+    /*
+     * An item in the schedule. Ordered by when it is next due, then by the order it was scheduled.
+     */
+    private static final class ScheduledItem<T> implements Comparable<ScheduledItem<T>> {
+
+        private final T item;
+        private final String description;
+        private final long periodNanos;
+        private final long sequenceNumber;
+        private long nextDue;
+
+        private ScheduledItem(T item, String description, long periodNanos, long nextDue, long sequenceNumber) {
+            this.item = item;
+            this.description = description;
+            this.periodNanos = periodNanos;
+            this.nextDue = nextDue;
+            this.sequenceNumber = sequenceNumber;
+        }
+
+        @Override
+        public int compareTo(ScheduledItem<T> other) {
+            final int byDueTime = Long.compare(nextDue - other.nextDue, 0);
+            return byDueTime != 0 ? byDueTime : Long.compare(sequenceNumber, other.sequenceNumber);
+        }
+    }
+}
@@ -0,0 +1,133 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+
+package com.gazbert.bxbot.core.engine;
+
+import com.google.common.base.MoreObjects;
+
+/**
+ * A point-in-time snapshot of the Trading Engine's trade cycle timing statistics.
+ * <p>
+ * Jitter is how late a trade cycle started compared to its scheduled start time.
+ *
+ * @author gazbert
+ */
+public final class TradeCycleStatistics {
+
+    private final long cycleCount;
+    private final long overrunCount;
+    private final long missedCycleCount;
+    private final long lastJitterMillis;
+    private final long maxJitterMillis;
+    private final double meanJitterMillis;
+    private final long lastCycleDurationMillis;
+
+    public TradeCycleStatistics(long cycleCount, long overrunCount, long missedCycleCount, long lastJitterMillis,
+                                long maxJitterMillis, double meanJitterMillis, long lastCycleDurationMillis) {
+
+        this.cycleCount = cycleCount;
+        this.overrunCount = overrunCount;
+        this.missedCycleCount = missedCycleCount;
+        this.lastJitterMillis = lastJitterMillis;
+        this.maxJitterMillis = maxJitterMillis;
+        this.meanJitterMillis = meanJitterMillis;
+        this.lastCycleDurationMillis = lastCycleDurationMillis;
+    }
+
+    /**
+     * Returns the number of trade cycles started.
+     *
+     * @return the number of trade cycles started.
+     */
+    public long getCycleCount() {
+        return cycleCount;
+    }
+
+    /**
+     * Returns the number of trade cycles that ran past the next scheduled cycle start time.
+     *
+     * @return the number of overrunning trade cycles.
+     */
+    public long getOverrunCount() {
+        return overrunCount;
+    }
+
+    /**
+     * Returns the number of scheduled trade cycles that were skipped or coalesced because of overruns.
+     *
+     * @return the number of missed trade cycles.
+     */
+    public long getMissedCycleCount() {
+        return missedCycleCount;
+    }
+
+    /**
+     * Returns the jitter of the most recent trade cycle.
+     *
+     * @return the last jitter in millis.
+     */
+    public long getLastJitterMillis() {
+        return lastJitterMillis;
+    }
+
+    /**
+     * Returns the largest jitter seen since the engine started.
+     *
+     * @return the max jitter in millis.
+     */
+    public long getMaxJitterMillis() {
+        return maxJitterMillis;
+    }
+
+    /**
+     * Returns the mean jitter since the engine started.
+     *
+     * @return the mean jitter in millis.
+     */
+    public double getMeanJitterMillis() {
+        return meanJitterMillis;
+    }
+
+    /**
+     * Returns how long the most recently completed trade cycle took to run.
+     *
+     * @return the last cycle duration in millis.
+     */
+    public long getLastCycleDurationMillis() {
+        return lastCycleDurationMillis;
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                .add("cycleCount", cycleCount)
+                .add("overrunCount", overrunCount)
+                .add("missedCycleCount", missedCycleCount)
+                .add("lastJitterMillis", lastJitterMillis)
+                .add("maxJitterMillis", maxJitterMillis)
+                .add("meanJitterMillis", meanJitterMillis)
+                .add("lastCycleDurationMillis", lastCycleDurationMillis)
+                .toString();
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.core.engine;
+
+import com.google.common.base.MoreObjects;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * A point-in-time snapshot of the Trading API cache hit and miss counts for each cached call.
+ * <p>
+ * A hit is a call answered from the cache; a miss is a call that went to the exchange. Calls whose TTL is not
+ * configured are not cached and are not counted.
+ *
+ * @author gazbert
+ */
+public final class TradingApiCacheStatistics {
+
+    /**
+     * The Trading API calls that can be cached.
+     */
+    public enum CachedCall {
+
+        MARKET_ORDERS("marketorders"),
+        LATEST_MARKET_PRICE("latestmarketprice"),
+        TICKER("ticker"),
+        OPEN_ORDERS("openorders"),
+        BALANCE_INFO("balanceinfo");
+
+        private final String metricName;
+
+        CachedCall(String metricName) {
+            this.metricName = metricName;
+        }
+
+        /**
+         * Returns the name used for this call when publishing metrics.
+         *
+         * @return the metric name.
+         */
+        public String getMetricName() {
+            return metricName;
+        }
+    }
+
+    private final Map<CachedCall, Long> hits;
+    private final Map<CachedCall, Long> misses;
+
+    public TradingApiCacheStatistics(Map<CachedCall, Long> hits, Map<CachedCall, Long> misses) {
+        this.hits = Collections.unmodifiableMap(copyOf(hits));
+        this.misses = Collections.unmodifiableMap(copyOf(misses));
+    }
+
+    /**
+     * Returns the number of times the call was answered from the cache.
+     *
+     * @param cachedCall the call.
+     * @return the number of cache hits.
+     */
+    public long getHits(CachedCall cachedCall) {
+        return hits.getOrDefault(cachedCall, 0L);
+    }
+
+    /**
+     * Returns the number of times the call was not in the cache and was sent to the exchange.
+     *
+     * @param cachedCall the call.
+     * @return the number of cache misses.
+     */
+    public long getMisses(CachedCall cachedCall) {
+        return misses.getOrDefault(cachedCall, 0L);
+    }
+
+    /**
+     * Returns the total number of cache hits across all calls.
+     *
+     * @return the total number of cache hits.
+     */
+    public long getTotalHits() {
+        return hits.values().stream().mapToLong(Long::longValue).sum();
+    }
+
+    /**
+     * Returns the total number of cache misses across all calls.
+     *
+     * @return the total number of cache misses.
+     */
+    public long getTotalMisses() {
+        return misses.values().stream().mapToLong(Long::longValue).sum();
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                .add("hits", hits)
+                .add("misses", misses)
+                .toString();
+    }
+
+    private static Map<CachedCall, Long> copyOf(Map<CachedCall, Long> counts) {
+        final Map<CachedCall, Long> copy = new EnumMap<>(CachedCall.class);
+        copy.putAll(counts);
+        return copy;
+    }
+}
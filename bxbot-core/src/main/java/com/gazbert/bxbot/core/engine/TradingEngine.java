@@ -29,9 +29,12 @@ import com.gazbert.bxbot.core.config.exchange.NetworkConfigImpl;
 import com.gazbert.bxbot.core.config.exchange.OptionalConfigImpl;
 import com.gazbert.bxbot.core.config.market.MarketImpl;
 import com.gazbert.bxbot.core.config.strategy.StrategyConfigItems;
+import com.gazbert.bxbot.core.engine.TradingApiCacheStatistics.CachedCall;
 import com.gazbert.bxbot.core.mail.EmailAlerter;
 import com.gazbert.bxbot.core.util.ConfigurableComponentFactory;
 import com.gazbert.bxbot.domain.engine.EngineConfig;
+import com.gazbert.bxbot.domain.engine.MarketDataRecorderConfig;
+import com.gazbert.bxbot.domain.engine.TradingApiCacheConfig;
 import com.gazbert.bxbot.domain.exchange.AuthenticationConfig;
 import com.gazbert.bxbot.domain.exchange.ExchangeConfig;
 import com.gazbert.bxbot.domain.exchange.NetworkConfig;
@@ -39,28 +42,46 @@ import com.gazbert.bxbot.domain.exchange.OptionalConfig;
 import com.gazbert.bxbot.domain.market.MarketConfig;
 import com.gazbert.bxbot.domain.strategy.StrategyConfig;
 import com.gazbert.bxbot.exchange.api.ExchangeAdapter;
+import com.gazbert.bxbot.services.ConfigChangedEvent;
 import com.gazbert.bxbot.services.EngineConfigService;
 import com.gazbert.bxbot.services.ExchangeConfigService;
 import com.gazbert.bxbot.services.MarketConfigService;
 import com.gazbert.bxbot.services.StrategyConfigService;
+import com.gazbert.bxbot.strategy.api.ConsolidatedMarketDataAware;
+import com.gazbert.bxbot.strategy.api.OrderEventListener;
 import com.gazbert.bxbot.strategy.api.StrategyException;
 import com.gazbert.bxbot.strategy.api.TradingStrategy;
 import com.gazbert.bxbot.trading.api.BalanceInfo;
+import com.gazbert.bxbot.trading.api.ConsolidatedMarketData;
+import com.gazbert.bxbot.trading.api.CurrencyPair;
 import com.gazbert.bxbot.trading.api.ExchangeNetworkException;
 import com.gazbert.bxbot.trading.api.Market;
+import com.gazbert.bxbot.trading.api.TradingApi;
 import com.gazbert.bxbot.trading.api.TradingApiException;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
 
 import java.io.PrintWriter;
 import java.io.StringWriter;
 import java.math.BigDecimal;
 import java.text.DecimalFormat;
+import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * The main Trading Engine.
@@ -68,13 +89,55 @@ import java.util.*;
  * The engine has been coded to fail *hard and fast* whenever something unexpected happens. If Email
  * Alerts are enabled, a message will be sent with details of the problem before the bot is shutdown.
  * <p>
- * The only time the bot does not fail hard and fast is for network issues connecting to the exchange - it logs the error
+ * The only time the bot does not fail hard and fast is for network issues connecting to an exchange - it logs the error
  * and retries at next trade cycle.
  * <p>
+ * Trade cycles are run at a fixed rate by the {@link TradeCycleScheduler}: the time taken to run a cycle is subtracted
+ * from the wait before the next one. Cycles that overrun are logged and handled according to the configured
+ * missed-cycle-policy. Each Market can set its own trade-cycle-interval; if not set, the engine's
+ * trade-cycle-interval is used. The engine wakes up when the next Market is due and only executes the Trading
+ * Strategies for the Markets that are due - the Emergency Stop check is run every time the engine wakes up.
+ * <p>
+ * By default, the Trading Strategies are executed one after the other on the engine thread. If the
+ * strategy-execution-threads engine config is greater than 1, the strategies are executed in parallel on a bounded pool
+ * of worker threads and the engine waits for them all to complete (or time out) before sleeping until the next trade
+ * cycle. In parallel mode, the authenticated Exchange Adapter calls are serialised - see {@link SerialisingTradingApi}.
+ * <p>
+ * If the trading-api-cache engine config is set, the results of the market data, open orders and balance info calls
+ * are shared between the Trading Strategies and the Emergency Stop check for the duration of a trade cycle - see
+ * {@link CachingTradingApi}.
+ * <p>
+ * If the market-data-recorder engine config is set, the order books, Tickers and latest market prices fetched from the
+ * exchanges are recorded to a file per market per day on a background thread, ready to be replayed by a backtest - see
+ * {@link MarketDataRecorder}.
+ * <p>
+ * The engine can trade on more than 1 exchange: an Exchange Adapter is created for every exchange in the Exchange
+ * config, and each Market is traded on the exchange it references - or the first (default) exchange if it doesn't
+ * reference one. When there is more than 1 exchange, each one gets its own executor for its Trading Strategies, using
+ * the strategy-execution-threads and strategy-execution-timeout engine config; the strategies for all the exchanges are
+ * started before the engine waits for any of them, so a slow exchange can't hold up trading on the others. The
+ * Emergency Stop check is run against every exchange: a breach on any exchange stops the bot, but an exchange that
+ * can't be reached is just skipped for that trade cycle.
+ * <p>
+ * Market and Strategy config can be changed while the bot is running. The config services publish a
+ * {@link ConfigChangedEvent} for every change; the engine queues them and applies them at the start of the next trade
+ * cycle. Only the Trading Strategies for Markets that have been added, removed, or whose Market or Strategy config has
+ * changed are stopped, (re-)initialised, or started - the rest keep running with their existing state. If the changed
+ * config is invalid, e.g. a Market refers to a Strategy that does not exist, it is rejected and the engine keeps trading
+ * with the current config.
+ * <p>
+ * Trading Strategies that implement {@link OrderEventListener} are told when their orders fill or are cancelled. The
+ * engine tracks the orders they create and, at the start of each trade cycle, makes a single open orders request for
+ * each due Market that still has live orders, before the strategies are executed - see
+ * {@link OrderTrackingTradingApi}.
+ * <p>
+ * The engine publishes Micrometer timers to the global registry, which the Spring Boot Actuator exposes: every Trading
+ * API call made to an Exchange Adapter ({@link MeteredTradingApi}), every Trading Strategy execute() call
+ * ({@link TimedTradingStrategy}), and every trade cycle.
+ * <p>
  * To keep things simple:
- * - The engine is single threaded.
- * - The engine only supports trading on 1 exchange per instance of the bot, i.e. 1 Exchange Adapter per process.
  * - The engine only supports 1 Trading Strategy per Market.
+ * - Market ids must be unique across all the exchanges.
  *
  * @author gazbert
  */
@@ -92,10 +155,55 @@ public class TradingEngine {
     private static final String HORIZONTAL_RULE = "--------------------------------------------------" + NEWLINE;
 
     /*
-     * Trade execution interval in secs. The time we wait/sleep in between trade cycles.
+     * How long to wait for the market data recorder to write out its buffered samples when shutting down.
+     */
+    private static final long MARKET_DATA_RECORDER_CLOSE_TIMEOUT_SECS = 10;
+
+    /*
+     * Name of the timer for the trade cycles.
+     */
+    static final String TRADE_CYCLE_TIMER_NAME = "bxbot.tradecycle.duration";
+
+    /*
+     * Name of the timer for the Trading Strategy execute() calls.
+     */
+    static final String STRATEGY_EXECUTION_TIMER_NAME = "bxbot.strategy.execution";
+
+    /*
+     * Name of the timer for how late each trade cycle started compared to its schedule.
+     */
+    static final String TRADE_CYCLE_JITTER_TIMER_NAME = "bxbot.tradecycle.jitter";
+
+    /*
+     * Names of the counters for the trade cycles that overran, and the scheduled cycles missed because of them.
+     */
+    static final String TRADE_CYCLE_OVERRUNS_COUNTER_NAME = "bxbot.tradecycle.overruns";
+    static final String TRADE_CYCLE_MISSED_COUNTER_NAME = "bxbot.tradecycle.missed";
+
+    /*
+     * Names of the counters for the Trading API cache hits and misses.
+     */
+    static final String TRADING_API_CACHE_HITS_COUNTER_NAME = "bxbot.tradingapi.cache.hits";
+    static final String TRADING_API_CACHE_MISSES_COUNTER_NAME = "bxbot.tradingapi.cache.misses";
+
+    /*
+     * Trade execution interval in secs. The fixed rate at which trade cycles are started for Markets that do not set
+     * their own trade cycle interval.
      */
     private static int tradeExecutionInterval;
 
+    /*
+     * True if the Trading Strategies executed in parallel are given their Market's trade cycle interval to complete,
+     * because no strategy execution timeout has been configured.
+     */
+    private boolean isStrategyTimeoutPerMarket;
+
+    /*
+     * Schedules the Trading Strategies for each Market at a fixed rate and records the cycle timing statistics.
+     * Created when the engine config is loaded; read by other threads wanting the statistics.
+     */
+    private volatile TradeCycleScheduler<ActiveMarket> tradeCycleScheduler;
+
     /*
      * Control flag decides if the Trading Engine lives or dies.
      */
@@ -122,9 +230,40 @@ public class TradingEngine {
     private final Map<String, StrategyConfig> strategyDescriptions = new HashMap<>();
 
     /*
-     * List of cached Trading Strategy implementations for the Trade Engine to execute.
+     * The Exchanges being traded on, keyed by Exchange id, in config order - the first one is the default Exchange.
+     * Only accessed by the Trading Engine thread.
+     */
+    private final Map<String, ActiveExchange> activeExchanges = new LinkedHashMap<>();
+
+    /*
+     * The Trading Strategies being executed, keyed by Market id.
+     * Only accessed by the Trading Engine thread.
+     */
+    private final Map<String, ActiveMarket> activeMarkets = new LinkedHashMap<>();
+
+    /*
+     * Market and Strategy config changes waiting to be applied at the start of the next trade cycle.
+     * Added to by the threads that change the config; drained by the Trading Engine thread.
      */
-    private final List<TradingStrategy> tradingStrategiesToExecute = new ArrayList<>();
+    private final Queue<ConfigChangedEvent> pendingConfigChanges = new ConcurrentLinkedQueue<>();
+
+    /*
+     * Fetches consolidated market data from the Exchanges in parallel.
+     * Only created if a Trading Strategy wants consolidated market data.
+     */
+    private ExecutorService marketDataExecutor;
+
+    /*
+     * The Trading API caches for each Exchange.
+     * Empty if the Trading API cache is not enabled; read by other threads wanting the statistics.
+     */
+    private volatile List<CachingTradingApi> cachingTradingApis = Collections.emptyList();
+
+    /*
+     * Records the market data fetched from the Exchanges.
+     * Null if the market data recorder is not enabled.
+     */
+    private MarketDataRecorder marketDataRecorder;
 
     /*
      * The emergency stop currency value is used to prevent a catastrophic loss on the exchange.
@@ -137,16 +276,39 @@ public class TradingEngine {
      * The Emergency Stop balance.
      * It is used to prevent a catastrophic loss on the exchange.
      * The Trading Engine checks this value at the start of every trade cycle: if the balance on
-     * the exchange drops below this value, the Trading Engine will stop trading on all markets.
+     * any exchange drops below this value, the Trading Engine will stop trading on all markets.
      * Manual intervention is then required to restart the bot.
      */
     private BigDecimal emergencyStopBalance;
 
+    /*
+     * The engine metrics are published to the Micrometer global registry, which the Spring Boot Actuator adds its
+     * registries to.
+     */
+    private final MeterRegistry meterRegistry = Metrics.globalRegistry;
+
+    /*
+     * Times each trade cycle, from the start of the cycle until the engine waits for the next one.
+     * Created when the engine config is loaded.
+     */
+    private Timer tradeCycleTimer;
+
+    /*
+     * Times how late each trade cycle started compared to its schedule.
+     * Created when the engine config is loaded.
+     */
+    private Timer tradeCycleJitterTimer;
+
+    /*
+     * The meters registered for the lifetime of the engine. They read the engine's own state, so they are removed when
+     * the engine shuts down.
+     */
+    private final List<Meter> engineMeters = new ArrayList<>();
+
     private String botId;
     private String botName;
 
     private final EmailAlerter emailAlerter;
-    private ExchangeAdapter exchangeAdapter;
 
     // Services
     private final ExchangeConfigService exchangeConfigService;
@@ -195,6 +357,9 @@ public class TradingEngine {
 
         LOG.info(() -> "Initialising BX-bot config...");
 
+        // we're about to load the latest config, so there's nothing to apply yet
+        pendingConfigChanges.clear();
+
         // the sequence order of these methods is significant - don't change it.
         loadExchangeAdapterConfig();
         loadEngineConfig();
@@ -215,41 +380,56 @@ public class TradingEngine {
 
             try {
 
+                // Config changes are only applied between trade cycles
+                applyPendingConfigChanges();
+
                 LOG.info(() -> "*** Starting next trade cycle... ***");
+                final List<ActiveMarket> dueMarkets = tradeCycleScheduler.startCycle();
+                final long cycleStartTime = System.nanoTime();
+                tradeCycleJitterTimer.record(tradeCycleScheduler.getLastJitterNanos(), TimeUnit.NANOSECONDS);
 
-                // Emergency Stop Check MUST run at start of every trade cycle.
-                if (isEmergencyStopLimitBreached()) {
-                    break;
+                // Nothing cached is carried over from the previous trade cycle
+                for (final CachingTradingApi cachingTradingApi : cachingTradingApis) {
+                    cachingTradingApi.invalidateAll();
                 }
 
-                // Execute the Trading Strategies
-                for (final TradingStrategy tradingStrategy : tradingStrategiesToExecute) {
-                    LOG.info(() -> "Executing Trading Strategy ---> " + tradingStrategy.getClass().getSimpleName());
-                    tradingStrategy.execute();
+                // Emergency Stop Check MUST run at start of every trade cycle.
+                final List<ActiveExchange> exchangesToTrade = new ArrayList<>();
+                boolean isEmergencyStopLimitBreached = false;
+                for (final ActiveExchange exchange : activeExchanges.values()) {
+                    try {
+                        if (isEmergencyStopLimitBreached(exchange)) {
+                            isEmergencyStopLimitBreached = true;
+                            break;
+                        }
+                        exchangesToTrade.add(exchange);
+
+                    } catch (ExchangeNetworkException e) {
+
+                        /*
+                         * We have a network connection issue reported by Exchange Adapter when called directly from
+                         * Trading Engine. Current policy is to log it and skip the exchange until next trade cycle.
+                         */
+                        final String WARNING_MSG = "A network error has occurred in Exchange Adapter for "
+                                + exchange.id + " exchange! BX-bot will try again at next trade cycle...";
+                        LOG.error(WARNING_MSG, e);
+                    }
                 }
 
-                LOG.info(() -> "*** Sleeping " + tradeExecutionInterval + "s til next trade cycle... ***");
-
-                try {
-                    Thread.sleep(tradeExecutionInterval * 1000);
-                } catch (InterruptedException e) {
-                    LOG.warn("Control Loop thread interrupted when sleeping before next trade cycle");
-                    Thread.currentThread().interrupt();
+                if (isEmergencyStopLimitBreached) {
+                    break;
                 }
 
-            } catch (ExchangeNetworkException e) {
+                // Tell the Trading Strategies about their filled and cancelled orders before they're executed
+                sendOrderEvents(dueMarkets, exchangesToTrade);
 
-                /*
-                 * We have a network connection issue reported by Exchange Adapter when called directly from
-                 * Trading Engine. Current policy is to log it and sleep until next trade cycle.
-                 */
-                final String WARNING_MSG = "A network error has occurred in Exchange Adapter! " +
-                        "BX-bot will try again in " + tradeExecutionInterval + "s...";
-                LOG.error(WARNING_MSG, e);
+                // Execute the Trading Strategies for the Markets due this cycle
+                executeTradingStrategies(dueMarkets, exchangesToTrade);
+                tradeCycleTimer.record(System.nanoTime() - cycleStartTime, TimeUnit.NANOSECONDS);
 
                 try {
-                    Thread.sleep(tradeExecutionInterval * 1000);
-                } catch (InterruptedException e1) {
+                    tradeCycleScheduler.awaitNextCycle();
+                } catch (InterruptedException e) {
                     LOG.warn("Control Loop thread interrupted when sleeping before next trade cycle");
                     Thread.currentThread().interrupt();
                 }
@@ -299,6 +479,32 @@ public class TradingEngine {
         }
 
         LOG.fatal("BX-bot " + botId + " is shutting down NOW!");
+        for (final ActiveExchange exchange : activeExchanges.values()) {
+            if (exchange.strategyExecutor != null) {
+                exchange.strategyExecutor.shutdown();
+            }
+        }
+        if (marketDataExecutor != null) {
+            marketDataExecutor.shutdownNow();
+        }
+        if (marketDataRecorder != null) {
+            // The engine thread may have been interrupted to shut down - the recorded data still needs writing out
+            final boolean wasInterrupted = Thread.interrupted();
+            try {
+                marketDataRecorder.close(MARKET_DATA_RECORDER_CLOSE_TIMEOUT_SECS, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                LOG.warn("Interrupted while closing the market data recorder", e);
+                Thread.currentThread().interrupt();
+            }
+            if (wasInterrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        for (final ActiveMarket activeMarket : activeMarkets.values()) {
+            meterRegistry.remove(activeMarket.timedTradingStrategy.getExecutionTimer());
+        }
+        engineMeters.forEach(meterRegistry::remove);
+        engineMeters.clear();
         synchronized (IS_RUNNING_MONITOR) {
             isRunning = false;
         }
@@ -318,11 +524,82 @@ public class TradingEngine {
         engineThread.interrupt(); // poke it in case bot is sleeping
     }
 
+    /**
+     * Queues a Market or Strategy config change to be applied at the start of the next trade cycle.
+     * Can be called from any thread.
+     * <p>
+     * A change made in a transaction is only queued once the transaction has committed, so the trade cycle never
+     * reads the config back before it has been saved.
+     *
+     * @param configChangedEvent the config change.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onConfigChanged(ConfigChangedEvent configChangedEvent) {
+        LOG.info(() -> "Received config change: " + configChangedEvent + " - it will be applied at the next trade cycle");
+        pendingConfigChanges.add(configChangedEvent);
+    }
+
     synchronized boolean isRunning() {
         LOG.info(() -> "isRunning: " + isRunning);
         return isRunning;
     }
 
+    /*
+     * Checks the tracked orders for the Markets due this cycle on the given Exchanges, and sends the fill and cancel
+     * events to their Trading Strategies.
+     */
+    private void sendOrderEvents(List<ActiveMarket> dueMarkets, List<ActiveExchange> exchangesToTrade)
+            throws TradingApiException {
+
+        for (final ActiveExchange exchange : exchangesToTrade) {
+            if (exchange.orderTracker == null) {
+                continue;
+            }
+
+            final Set<String> dueMarketIds = new HashSet<>();
+            for (final ActiveMarket market : dueMarkets) {
+                if (market.exchange == exchange) {
+                    dueMarketIds.add(market.marketConfig.getId());
+                }
+            }
+            exchange.orderTracker.refresh(dueMarketIds);
+        }
+    }
+
+    /*
+     * Executes the Trading Strategies for the Markets due this cycle on the given Exchanges.
+     * Each Exchange's strategies are submitted to its own executor before we wait for any of them, so a slow Exchange
+     * doesn't hold up the strategies trading on the others.
+     */
+    private void executeTradingStrategies(List<ActiveMarket> dueMarkets, List<ActiveExchange> exchangesToTrade)
+            throws StrategyException {
+
+        final List<ParallelStrategyExecutor.CycleRun> cycleRuns = new ArrayList<>();
+        for (final ActiveExchange exchange : exchangesToTrade) {
+
+            final List<TradingStrategy> dueTradingStrategies = new ArrayList<>();
+            for (final ActiveMarket market : dueMarkets) {
+                if (market.exchange == exchange) {
+                    dueTradingStrategies.add(market.timedTradingStrategy);
+                }
+            }
+
+            if (exchange.strategyExecutor != null) {
+                cycleRuns.add(exchange.strategyExecutor.submit(dueTradingStrategies));
+            } else {
+                for (final TradingStrategy tradingStrategy : dueTradingStrategies) {
+                    LOG.info(() -> "Executing Trading Strategy ---> "
+                            + ParallelStrategyExecutor.strategyName(tradingStrategy));
+                    tradingStrategy.execute();
+                }
+            }
+        }
+
+        for (final ParallelStrategyExecutor.CycleRun cycleRun : cycleRuns) {
+            cycleRun.await();
+        }
+    }
+
     /*
      * Checks if the Emergency Stop Currency (e.g. USD, BTC) wallet balance on exchange has gone *below* configured limit.
      * If the balance cannot be obtained or has dropped below the configured limit, we notify the main control loop to
@@ -333,7 +610,8 @@ public class TradingEngine {
      * - Unforeseen bugs in the Trading Engine and Exchange Adapter
      * - the exchange sending corrupt order book data and the Trading Strategy being misled... this has happened.
      */
-    private boolean isEmergencyStopLimitBreached() throws TradingApiException, ExchangeNetworkException {
+    private boolean isEmergencyStopLimitBreached(ActiveExchange exchange)
+            throws TradingApiException, ExchangeNetworkException {
 
         boolean isEmergencyStopLimitBreached = true;
 
@@ -341,11 +619,11 @@ public class TradingEngine {
             return false;
         }
 
-        LOG.info(() -> "Performing Emergency Stop check...");
+        LOG.info(() -> "Performing Emergency Stop check for " + exchange.id + " exchange...");
 
         BalanceInfo balanceInfo;
         try {
-            balanceInfo = exchangeAdapter.getBalanceInfo();
+            balanceInfo = exchange.tradingApi.getBalanceInfo();
         } catch (TradingApiException e) {
             final String errorMsg = "Failed to get Balance info from exchange to perform Emergency Stop check - letting"
                     + " Trade Engine error policy decide what to do next...";
@@ -360,12 +638,12 @@ public class TradingEngine {
             final String errorMsg =
                     "Emergency stop check: Failed to get current Emergency Stop Currency balance as '"
                             + emergencyStopCurrency + "' key into Balances map "
-                            + "returned null. Balances returned: " + balancesAvailable;
+                            + "returned null. Balances returned from " + exchange.id + " exchange: " + balancesAvailable;
             LOG.error(errorMsg);
             throw new IllegalStateException(errorMsg);
         } else {
 
-            LOG.info(() -> "Emergency Stop Currency balance available on exchange is ["
+            LOG.info(() -> "Emergency Stop Currency balance available on " + exchange.id + " exchange is ["
                     + new DecimalFormat("#.########").format(currentBalance) + "] "
                     + emergencyStopCurrency);
 
@@ -377,7 +655,8 @@ public class TradingEngine {
                         "EMERGENCY STOP triggered! - Current Emergency Stop Currency [" + emergencyStopCurrency + "] wallet balance ["
                                 + new DecimalFormat("#.########").format(currentBalance) + "] on exchange "
                                 + "is lower than configured Emergency Stop balance ["
-                                + new DecimalFormat("#.########").format(emergencyStopBalance) + "] " + emergencyStopCurrency;
+                                + new DecimalFormat("#.########").format(emergencyStopBalance) + "] " + emergencyStopCurrency
+                                + " - Exchange: " + exchange.id;
 
                 LOG.fatal(balanceBlownErrorMsg);
                 emailAlerter.sendMessage(CRITICAL_EMAIL_ALERT_SUBJECT,
@@ -405,10 +684,15 @@ public class TradingEngine {
         msgContent.append(NEWLINE).append(NEWLINE);
 
         msgContent.append(HORIZONTAL_RULE);
-        msgContent.append("Exchange Adapter:");
-        msgContent.append(NEWLINE).append(NEWLINE);
-        msgContent.append(exchangeAdapter.getClass().getName());
+        msgContent.append("Exchange Adapters:");
         msgContent.append(NEWLINE).append(NEWLINE);
+        for (final ActiveExchange exchange : activeExchanges.values()) {
+            msgContent.append(exchange.id);
+            msgContent.append(" / ");
+            msgContent.append(exchange.exchangeAdapter.getClass().getName());
+            msgContent.append(NEWLINE);
+        }
+        msgContent.append(NEWLINE);
 
         msgContent.append(HORIZONTAL_RULE);
         msgContent.append("Event Time:");
@@ -447,10 +731,33 @@ public class TradingEngine {
 
     private void loadExchangeAdapterConfig() {
 
-        final ExchangeConfig domainExchangeConfig = exchangeConfigService.getExchangeConfig();
-        LOG.info(() -> "Fetched Exchange config from repository: " + domainExchangeConfig);
+        final List<ExchangeConfig> exchanges = exchangeConfigService.getAllExchangeConfig();
+        LOG.info(() -> "Fetched Exchanges config from repository: " + exchanges);
 
-        exchangeAdapter = ConfigurableComponentFactory.createComponent(domainExchangeConfig.getExchangeAdapter());
+        if (exchanges.isEmpty()) {
+            final String errorMsg = "No Exchanges have been configured!";
+            LOG.fatal(errorMsg);
+            throw new IllegalArgumentException(errorMsg);
+        }
+
+        for (final ExchangeConfig exchange : exchanges) {
+
+            if (activeExchanges.containsKey(exchange.getId())) {
+                final String errorMsg = "Found duplicate Exchange! Exchange details: " + exchange;
+                LOG.fatal(errorMsg);
+                throw new IllegalArgumentException(errorMsg);
+            }
+
+            final ExchangeAdapter exchangeAdapter = createExchangeAdapter(exchange);
+            activeExchanges.put(exchange.getId(), new ActiveExchange(exchange.getId(), exchangeAdapter,
+                    new MeteredTradingApi(exchangeAdapter, exchange.getId(), meterRegistry)));
+        }
+    }
+
+    private ExchangeAdapter createExchangeAdapter(ExchangeConfig domainExchangeConfig) {
+
+        final ExchangeAdapter exchangeAdapter =
+                ConfigurableComponentFactory.createComponent(domainExchangeConfig.getExchangeAdapter());
         LOG.info(() -> "Trading Engine will use Exchange Adapter for: " + exchangeAdapter.getImplName());
 
         final ExchangeConfigImpl adapterExchangeConfig = new ExchangeConfigImpl();
@@ -461,6 +768,10 @@ public class TradingEngine {
 
             final NetworkConfigImpl adapterNetworkConfig = new NetworkConfigImpl();
             adapterNetworkConfig.setConnectionTimeout(networkConfig.getConnectionTimeout());
+            adapterNetworkConfig.setConnectionPoolSize(networkConfig.getConnectionPoolSize());
+            adapterNetworkConfig.setConnectionIdleTimeout(networkConfig.getConnectionIdleTimeout());
+            adapterNetworkConfig.setMaxRequestsPerMinute(networkConfig.getMaxRequestsPerMinute());
+            adapterNetworkConfig.setMaxRequestBurst(networkConfig.getMaxRequestBurst());
 
             // Grab optional non-fatal error codes
             final List<Integer> nonFatalErrorCodes = networkConfig.getNonFatalErrorCodes();
@@ -519,6 +830,7 @@ public class TradingEngine {
         }
 
         exchangeAdapter.init(adapterExchangeConfig);
+        return exchangeAdapter;
     }
 
     private void loadEngineConfig() {
@@ -530,8 +842,98 @@ public class TradingEngine {
         botName = engineConfig.getBotName();
 
         tradeExecutionInterval = engineConfig.getTradeCycleInterval();
+        final MissedCyclePolicy missedCyclePolicy = MissedCyclePolicy.fromConfig(engineConfig.getMissedCyclePolicy());
+        tradeCycleScheduler = new TradeCycleScheduler<>(tradeExecutionInterval, missedCyclePolicy);
+        LOG.info(() -> "Trade cycles will run every " + tradeExecutionInterval + "s with " + missedCyclePolicy
+                + " missed cycle policy");
+
+        // The SLA bucket shows how many cycles took longer than the trade cycle interval
+        tradeCycleTimer = Timer.builder(TRADE_CYCLE_TIMER_NAME)
+                .description("Trade cycles run by the Trading Engine")
+                .publishPercentileHistogram()
+                .sla(Duration.ofSeconds(tradeExecutionInterval))
+                .register(meterRegistry);
+        tradeCycleJitterTimer = Timer.builder(TRADE_CYCLE_JITTER_TIMER_NAME)
+                .description("How late the trade cycles started compared to their schedule")
+                .register(meterRegistry);
+        engineMeters.add(tradeCycleTimer);
+        engineMeters.add(tradeCycleJitterTimer);
+        engineMeters.add(FunctionCounter.builder(TRADE_CYCLE_OVERRUNS_COUNTER_NAME, tradeCycleScheduler,
+                scheduler -> scheduler.getStatistics().getOverrunCount())
+                .description("Trade cycles that took longer than the trade cycle interval")
+                .register(meterRegistry));
+        engineMeters.add(FunctionCounter.builder(TRADE_CYCLE_MISSED_COUNTER_NAME, tradeCycleScheduler,
+                scheduler -> scheduler.getStatistics().getMissedCycleCount())
+                .description("Scheduled trade cycles missed because of overruns")
+                .register(meterRegistry));
+
         emergencyStopCurrency = engineConfig.getEmergencyStopCurrency();
         emergencyStopBalance = engineConfig.getEmergencyStopBalance();
+
+        // Each Exchange gets its own executor when there's more than 1, so a slow Exchange can't stall the others
+        final Integer configuredThreads = engineConfig.getStrategyExecutionThreads();
+        final boolean isParallelExecution = configuredThreads != null && configuredThreads > 1;
+        if (isParallelExecution || activeExchanges.size() > 1) {
+
+            final int strategyExecutionThreads = isParallelExecution ? configuredThreads : 1;
+
+            // If not set, each Market's trade cycle interval is used as the timeout when its strategy is started
+            final Integer configuredTimeout = engineConfig.getStrategyExecutionTimeout();
+            isStrategyTimeoutPerMarket = configuredTimeout == null;
+            final int strategyExecutionTimeout = configuredTimeout != null ? configuredTimeout : tradeExecutionInterval;
+
+            for (final ActiveExchange exchange : activeExchanges.values()) {
+                exchange.strategyExecutor = new ParallelStrategyExecutor("bxbot-strategy-" + exchange.id,
+                        strategyExecutionThreads, strategyExecutionTimeout);
+                exchange.tradingApi = new SerialisingTradingApi(exchange.tradingApi);
+            }
+            LOG.info(() -> "Trading Strategies will be executed in parallel using " + strategyExecutionThreads
+                    + " threads per exchange with " + (isStrategyTimeoutPerMarket
+                    ? "their market's trade cycle interval as the timeout"
+                    : "a " + strategyExecutionTimeout + "s timeout"));
+        } else {
+            isStrategyTimeoutPerMarket = false;
+            LOG.info(() -> "Trading Strategies will be executed sequentially");
+        }
+
+        // Recorded inside the cache, so a result shared between the Trading Strategies is only recorded once
+        final MarketDataRecorderConfig marketDataRecorderConfig = engineConfig.getMarketDataRecorder();
+        if (marketDataRecorderConfig != null) {
+            marketDataRecorder = new MarketDataRecorder(marketDataRecorderConfig);
+            for (final ActiveExchange exchange : activeExchanges.values()) {
+                exchange.tradingApi = new RecordingTradingApi(exchange.tradingApi, exchange.id,
+                        marketDataRecorder);
+            }
+            LOG.info(() -> "Market data recorder is enabled: " + marketDataRecorderConfig);
+        }
+
+        final TradingApiCacheConfig tradingApiCacheConfig = engineConfig.getTradingApiCache();
+        if (tradingApiCacheConfig != null) {
+            final List<CachingTradingApi> caches = new ArrayList<>();
+            for (final ActiveExchange exchange : activeExchanges.values()) {
+                final CachingTradingApi cachingTradingApi = new CachingTradingApi(exchange.tradingApi, tradingApiCacheConfig);
+                exchange.tradingApi = cachingTradingApi;
+                caches.add(cachingTradingApi);
+                registerCacheCounters(exchange.id, cachingTradingApi);
+            }
+            cachingTradingApis = Collections.unmodifiableList(caches);
+            LOG.info(() -> "Trading API cache is enabled: " + tradingApiCacheConfig);
+        }
+    }
+
+    private void registerCacheCounters(String exchangeId, CachingTradingApi cachingTradingApi) {
+        for (final CachedCall cachedCall : CachedCall.values()) {
+            engineMeters.add(FunctionCounter.builder(TRADING_API_CACHE_HITS_COUNTER_NAME, cachingTradingApi,
+                    cache -> cache.getStatistics().getHits(cachedCall))
+                    .description("Trading API calls answered from the cache")
+                    .tags("exchange", exchangeId, "call", cachedCall.getMetricName())
+                    .register(meterRegistry));
+            engineMeters.add(FunctionCounter.builder(TRADING_API_CACHE_MISSES_COUNTER_NAME, cachingTradingApi,
+                    cache -> cache.getStatistics().getMisses(cachedCall))
+                    .description("Trading API calls sent to the exchange because nothing was cached")
+                    .tags("exchange", exchangeId, "call", cachedCall.getMetricName())
+                    .register(meterRegistry));
+        }
     }
 
     private void loadTradingStrategyConfig() {
@@ -550,10 +952,108 @@ public class TradingEngine {
         final List<MarketConfig> markets = marketConfigService.getAllMarketConfig();
         LOG.info(() -> "Fetched Markets config from repository: " + markets);
 
+        // Load em up and create the Strategies
+        for (final MarketConfig market : getEnabledMarkets(markets, strategyDescriptions, activeExchanges.keySet())) {
+            final StrategyConfig tradingStrategy = strategyDescriptions.get(market.getTradingStrategyId());
+            startTradingStrategy(market, tradingStrategy, initTradingStrategy(market, tradingStrategy));
+        }
+        setConsolidatedMarketData();
+
+        LOG.info(() -> "Loaded and set Market configuration successfully!");
+    }
+
+    /*
+     * Applies the Market and Strategy config changes queued since the last trade cycle.
+     * The latest config is fetched and compared with the config the active Markets were started with, and only the
+     * Trading Strategies for the Markets that have changed are stopped, re-initialised, or started.
+     * A changed Market's new Trading Strategy is created and initialised before its current one is stopped. If that
+     * fails, e.g. the Strategy class cannot be loaded, the Market keeps trading with its current Trading Strategy.
+     */
+    private void applyPendingConfigChanges() {
+
+        if (pendingConfigChanges.isEmpty()) {
+            return;
+        }
+
+        ConfigChangedEvent configChange;
+        while ((configChange = pendingConfigChanges.poll()) != null) {
+            final ConfigChangedEvent change = configChange;
+            LOG.info(() -> "Applying config change: " + change);
+        }
+
+        final Map<String, StrategyConfig> latestStrategyDescriptions = new HashMap<>();
+        for (final StrategyConfig strategy : strategyConfigService.getAllStrategyConfig()) {
+            latestStrategyDescriptions.put(strategy.getId(), strategy);
+        }
+
+        final List<MarketConfig> markets = marketConfigService.getAllMarketConfig();
+        LOG.info(() -> "Fetched Markets config from repository: " + markets);
+
+        final List<MarketConfig> enabledMarkets;
+        try {
+            enabledMarkets = getEnabledMarkets(markets, latestStrategyDescriptions, activeExchanges.keySet());
+        } catch (IllegalArgumentException e) {
+            LOG.error("Rejected Market and Strategy config changes - BX-bot will keep trading with the current config", e);
+            return;
+        }
+
+        strategyDescriptions.clear();
+        strategyDescriptions.putAll(latestStrategyDescriptions);
+
+        // Stop trading the Markets that have been deleted or disabled
+        final Set<String> enabledMarketIds = new HashSet<>();
+        for (final MarketConfig market : enabledMarkets) {
+            enabledMarketIds.add(market.getId());
+        }
+        for (final String marketId : new ArrayList<>(activeMarkets.keySet())) {
+            if (!enabledMarketIds.contains(marketId)) {
+                stopTradingStrategy(marketId);
+            }
+        }
+
+        // Start trading the new Markets and re-initialise the ones that have changed
+        for (final MarketConfig market : enabledMarkets) {
+
+            final StrategyConfig tradingStrategy = latestStrategyDescriptions.get(market.getTradingStrategyId());
+            final ActiveMarket activeMarket = activeMarkets.get(market.getId());
+            if (activeMarket != null && activeMarket.isConfiguredBy(market, tradingStrategy)) {
+                continue;
+            }
+
+            final TradingStrategy strategyImpl;
+            try {
+                strategyImpl = initTradingStrategy(market, tradingStrategy);
+            } catch (RuntimeException e) {
+                LOG.error("Rejected config change for " + market.getName() + " market - failed to initialise Trading "
+                        + "Strategy: " + tradingStrategy.getId() + (activeMarket != null
+                        ? " - BX-bot will keep trading the market with the current config"
+                        : " - BX-bot will not trade the market"), e);
+                continue;
+            }
+
+            if (activeMarket != null) {
+                stopTradingStrategy(market.getId());
+            }
+            startTradingStrategy(market, tradingStrategy, strategyImpl);
+        }
+        setConsolidatedMarketData();
+
+        LOG.info(() -> "Applied Market and Strategy config changes successfully! Active Markets: "
+                + activeMarkets.keySet());
+    }
+
+    /*
+     * Returns the enabled Markets, checking they are unique and their Trading Strategies and Exchanges exist.
+     * Throws IllegalArgumentException if the config integrity is blown.
+     */
+    private static List<MarketConfig> getEnabledMarkets(List<MarketConfig> markets,
+                                                        Map<String, StrategyConfig> strategyDescriptions,
+                                                        Set<String> exchangeIds) {
+
         // used only as crude mechanism for checking for duplicate Markets
         final Set<Market> loadedMarkets = new HashSet<>();
+        final List<MarketConfig> enabledMarkets = new ArrayList<>();
 
-        // Load em up and create the Strategies
         for (final MarketConfig market : markets) {
 
             final String marketName = market.getName();
@@ -570,36 +1070,8 @@ public class TradingEngine {
                 throw new IllegalArgumentException(errorMsg);
             }
 
-            // Get the strategy to use for this Market
             final String strategyToUse = market.getTradingStrategyId();
-            LOG.info(() -> "Market Trading Strategy Id: " + strategyToUse);
-
-            if (strategyDescriptions.containsKey(strategyToUse)) {
-                final StrategyConfig tradingStrategy = strategyDescriptions.get(strategyToUse);
-
-                // Grab optional config for the Trading Strategy
-                final StrategyConfigItems tradingStrategyConfig = new StrategyConfigItems();
-                final Map<String, String> configItems = tradingStrategy.getConfigItems();
-                if (configItems != null) {
-                    tradingStrategyConfig.setItems(configItems);
-                } else {
-                    LOG.info(() -> "No (optional) configuration has been set for Trading Strategy: " + strategyToUse);
-                }
-
-                LOG.info(() -> "StrategyConfigImpl (optional): " + tradingStrategyConfig);
-
-                /*
-                 * Load the Trading Strategy impl, instantiate it, set its config, and store in the cached
-                 * Trading Strategy execution list.
-                 */
-                TradingStrategy strategyImpl = obtainTradingStrategyInstance(tradingStrategy);;
-                strategyImpl.init(exchangeAdapter, tradingMarket, tradingStrategyConfig);
-
-                LOG.info(() -> "Initialized trading strategy successfully. Name: [" + tradingStrategy.getName()
-                        + "] Class: " + tradingStrategy.getClassName());
-
-                tradingStrategiesToExecute.add(strategyImpl);
-            } else {
+            if (!strategyDescriptions.containsKey(strategyToUse)) {
 
                 // Game over. Config integrity blown - we can't find strat.
                 final String errorMsg = "Failed to find matching Strategy for Market " + market
@@ -608,9 +1080,171 @@ public class TradingEngine {
                 LOG.error(errorMsg);
                 throw new IllegalArgumentException(errorMsg);
             }
+
+            final String exchangeToUse = market.getExchangeId();
+            if (exchangeToUse != null && !exchangeIds.contains(exchangeToUse)) {
+
+                // Game over. Config integrity blown - we can't find the exchange.
+                final String errorMsg = "Failed to find matching Exchange for Market " + market
+                        + " - The Exchange " + "[" + exchangeToUse + "] cannot be found in the "
+                        + " Exchanges: " + exchangeIds;
+                LOG.error(errorMsg);
+                throw new IllegalArgumentException(errorMsg);
+            }
+
+            enabledMarkets.add(market);
         }
+        return enabledMarkets;
+    }
 
-        LOG.info(() -> "Loaded and set Market configuration successfully!");
+    /*
+     * Creates the Market's Trading Strategy and initialises it. The Market is not traded until the strategy is
+     * started. Throws a RuntimeException if the strategy cannot be created, or its init() fails.
+     */
+    private TradingStrategy initTradingStrategy(MarketConfig market, StrategyConfig tradingStrategy) {
+
+        final String marketName = market.getName();
+        final Market tradingMarket = new MarketImpl(marketName, market.getId(), market.getBaseCurrency(), market.getCounterCurrency());
+
+        // Get the strategy to use for this Market
+        final String strategyToUse = market.getTradingStrategyId();
+        LOG.info(() -> "Market Trading Strategy Id: " + strategyToUse);
+
+        // Grab optional config for the Trading Strategy
+        final StrategyConfigItems tradingStrategyConfig = new StrategyConfigItems();
+        final Map<String, String> configItems = tradingStrategy.getConfigItems();
+        if (configItems != null) {
+            tradingStrategyConfig.setItems(configItems);
+        } else {
+            LOG.info(() -> "No (optional) configuration has been set for Trading Strategy: " + strategyToUse);
+        }
+
+        LOG.info(() -> "StrategyConfigImpl (optional): " + tradingStrategyConfig);
+
+        /*
+         * Load the Trading Strategy impl, instantiate it, and set its config.
+         */
+        final ActiveExchange exchange = getExchange(market);
+        final TradingStrategy strategyImpl = obtainTradingStrategyInstance(tradingStrategy);
+
+        // Strategies that want order events create their orders through the Exchange's order tracker
+        TradingApi strategyTradingApi = exchange.tradingApi;
+        if (strategyImpl instanceof OrderEventListener) {
+            if (exchange.orderTracker == null) {
+                exchange.orderTracker = new OrderTrackingTradingApi(exchange.tradingApi);
+            }
+            strategyTradingApi = exchange.orderTracker;
+        }
+        strategyImpl.init(strategyTradingApi, tradingMarket, tradingStrategyConfig);
+
+        LOG.info(() -> "Initialized trading strategy successfully. Name: [" + tradingStrategy.getName()
+                + "] Class: " + tradingStrategy.getClassName());
+        return strategyImpl;
+    }
+
+    /*
+     * Starts trading the Market with its initialised Trading Strategy: stores it in the active Markets map and
+     * schedules its trade cycles.
+     */
+    private void startTradingStrategy(MarketConfig market, StrategyConfig tradingStrategy,
+                                      TradingStrategy strategyImpl) {
+
+        final String marketName = market.getName();
+        final Market tradingMarket = new MarketImpl(marketName, market.getId(), market.getBaseCurrency(), market.getCounterCurrency());
+        final String strategyToUse = market.getTradingStrategyId();
+        final ActiveExchange exchange = getExchange(market);
+
+        if (strategyImpl instanceof OrderEventListener) {
+            exchange.orderTracker.addListener(market.getId(), (OrderEventListener) strategyImpl);
+            LOG.info(() -> marketName + " market orders will be tracked for Trading Strategy: " + strategyToUse);
+        }
+
+        final Timer executionTimer = Timer.builder(STRATEGY_EXECUTION_TIMER_NAME)
+                .description("Trading Strategy execute() calls")
+                .tags("exchange", exchange.id, "market", market.getId(), "strategy", strategyToUse)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+
+        final ActiveMarket activeMarket = new ActiveMarket(market, tradingMarket, tradingStrategy, strategyImpl,
+                new TimedTradingStrategy(strategyImpl, executionTimer), exchange);
+        activeMarkets.put(market.getId(), activeMarket);
+
+        // Markets use the engine's trade cycle interval unless they set their own
+        final int marketTradeCycleInterval = market.getTradeCycleInterval() != null
+                ? market.getTradeCycleInterval() : tradeExecutionInterval;
+        tradeCycleScheduler.schedule(activeMarket, marketName + " market", marketTradeCycleInterval);
+        if (isStrategyTimeoutPerMarket) {
+            exchange.strategyExecutor.setTimeout(activeMarket.timedTradingStrategy, marketTradeCycleInterval);
+        }
+        LOG.info(() -> marketName + " market will be traded on " + exchange.id + " exchange every "
+                + marketTradeCycleInterval + "s");
+    }
+
+    /*
+     * Markets that don't reference an Exchange are traded on the default one.
+     */
+    private ActiveExchange getExchange(MarketConfig market) {
+        return market.getExchangeId() != null
+                ? activeExchanges.get(market.getExchangeId()) : activeExchanges.values().iterator().next();
+    }
+
+    private void stopTradingStrategy(String marketId) {
+        final ActiveMarket activeMarket = activeMarkets.remove(marketId);
+        tradeCycleScheduler.unschedule(activeMarket);
+        if (activeMarket.exchange.strategyExecutor != null) {
+            activeMarket.exchange.strategyExecutor.removeTimeout(activeMarket.timedTradingStrategy);
+        }
+        if (activeMarket.exchange.orderTracker != null) {
+            activeMarket.exchange.orderTracker.removeListener(marketId);
+        }
+        // The Timer is tagged with the strategy id, so leaving it registered would leak a Meter per strategy change
+        meterRegistry.remove(activeMarket.timedTradingStrategy.getExecutionTimer());
+        LOG.info(() -> activeMarket.marketConfig.getName() + " market has stopped trading");
+    }
+
+    /*
+     * Gives the Trading Strategies that want it a consolidated view of their Market on all the Exchanges it's being
+     * traded on. Called whenever the active Markets change, so the strategies pick up the new venues.
+     */
+    private void setConsolidatedMarketData() {
+
+        for (final ActiveMarket activeMarket : activeMarkets.values()) {
+
+            if (!(activeMarket.tradingStrategy instanceof ConsolidatedMarketDataAware)) {
+                continue;
+            }
+
+            if (marketDataExecutor == null) {
+                final AtomicInteger threadNumber = new AtomicInteger(1);
+                marketDataExecutor = Executors.newCachedThreadPool(runnable -> {
+                    final Thread thread = new Thread(runnable, "bxbot-market-data-" + threadNumber.getAndIncrement());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+            }
+
+            // The strategy's own Market comes first; only 1 Market per Exchange can be a venue
+            final CurrencyPair currencyPair = CurrencyPair.of(activeMarket.market);
+            final ConsolidatedMarketData.Builder consolidatedMarketData =
+                    new ConsolidatedMarketData.Builder(marketDataExecutor);
+            consolidatedMarketData.addVenue(activeMarket.exchange.id, activeMarket.exchange.tradingApi,
+                    activeMarket.market);
+
+            final Set<String> venueExchangeIds = new HashSet<>();
+            venueExchangeIds.add(activeMarket.exchange.id);
+            for (final ActiveMarket otherMarket : activeMarkets.values()) {
+                if (currencyPair.equals(CurrencyPair.of(otherMarket.market))
+                        && venueExchangeIds.add(otherMarket.exchange.id)) {
+                    consolidatedMarketData.addVenue(otherMarket.exchange.id, otherMarket.exchange.tradingApi,
+                            otherMarket.market);
+                }
+            }
+
+            ((ConsolidatedMarketDataAware) activeMarket.tradingStrategy)
+                    .setConsolidatedMarketData(consolidatedMarketData.build());
+            LOG.info(() -> activeMarket.marketConfig.getName() + " market has consolidated " + currencyPair.getId()
+                    + " market data from exchanges: " + venueExchangeIds);
+        }
     }
 
     private TradingStrategy obtainTradingStrategyInstance(StrategyConfig tradingStrategy) {
@@ -635,4 +1269,84 @@ public class TradingEngine {
         }
         return strategyImpl;
     }
-}
\ No newline at end of file
+
+    /*
+     * An Exchange being traded on, and the Trading API its Trading Strategies use.
+     */
+    private static final class ActiveExchange {
+
+        private final String id;
+        private final ExchangeAdapter exchangeAdapter;
+
+        /*
+         * The Exchange Adapter wrapped for metrics, and wrapped again when strategies are executed in parallel, the
+         * market data recorder and/or the Trading API cache is enabled.
+         */
+        private TradingApi tradingApi;
+
+        /*
+         * Executes this Exchange's Trading Strategies in parallel.
+         * Null if the strategies are executed sequentially on the engine thread.
+         */
+        private ParallelStrategyExecutor strategyExecutor;
+
+        /*
+         * Tracks the orders of this Exchange's Trading Strategies that want order events.
+         * Null until the first of them is started.
+         */
+        private OrderTrackingTradingApi orderTracker;
+
+        private ActiveExchange(String id, ExchangeAdapter exchangeAdapter, MeteredTradingApi meteredTradingApi) {
+            this.id = id;
+            this.exchangeAdapter = exchangeAdapter;
+            this.tradingApi = meteredTradingApi;
+        }
+    }
+
+    /*
+     * A Market being traded, and the config its Trading Strategy was initialised with.
+     */
+    private static final class ActiveMarket {
+
+        private final MarketConfig marketConfig;
+        private final Market market;
+        private final StrategyConfig strategyConfig;
+        private final TradingStrategy tradingStrategy;
+        private final ActiveExchange exchange;
+
+        /*
+         * The Trading Strategy is executed through this, so its execute() calls are timed.
+         */
+        private final TimedTradingStrategy timedTradingStrategy;
+
+        private ActiveMarket(MarketConfig marketConfig, Market market, StrategyConfig strategyConfig,
+                             TradingStrategy tradingStrategy, TimedTradingStrategy timedTradingStrategy,
+                             ActiveExchange exchange) {
+            // take copies - the config we're given might be changed by the caller
+            this.marketConfig = new MarketConfig(marketConfig);
+            this.market = market;
+            this.strategyConfig = new StrategyConfig(strategyConfig);
+            if (strategyConfig.getConfigItems() != null) {
+                this.strategyConfig.setConfigItems(new HashMap<>(strategyConfig.getConfigItems()));
+            }
+            this.tradingStrategy = tradingStrategy;
+            this.timedTradingStrategy = timedTradingStrategy;
+            this.exchange = exchange;
+        }
+
+        /*
+         * Returns true if the Trading Strategy would be initialised and scheduled the same way using the given config.
+         */
+        private boolean isConfiguredBy(MarketConfig market, StrategyConfig strategy) {
+            return Objects.equals(marketConfig.getName(), market.getName())
+                    && Objects.equals(marketConfig.getBaseCurrency(), market.getBaseCurrency())
+                    && Objects.equals(marketConfig.getCounterCurrency(), market.getCounterCurrency())
+                    && Objects.equals(marketConfig.getTradingStrategyId(), market.getTradingStrategyId())
+                    && Objects.equals(marketConfig.getTradeCycleInterval(), market.getTradeCycleInterval())
+                    && Objects.equals(marketConfig.getExchangeId(), market.getExchangeId())
+                    && Objects.equals(strategyConfig.getClassName(), strategy.getClassName())
+                    && Objects.equals(strategyConfig.getBeanName(), strategy.getBeanName())
+                    && Objects.equals(strategyConfig.getConfigItems(), strategy.getConfigItems());
+        }
+    }
+}
@@ -39,6 +39,10 @@ import static org.junit.Assert.assertTrue;
 public class TestNetworkConfigImpl {
 
     private static final Integer CONNECTION_TIMEOUT = 30;
+    private static final Integer CONNECTION_POOL_SIZE = 10;
+    private static final Integer CONNECTION_IDLE_TIMEOUT = 120;
+    private static final Integer MAX_REQUESTS_PER_MINUTE = 60;
+    private static final Integer MAX_REQUEST_BURST = 10;
     private static final List<Integer> NON_FATAL_ERROR_CODES = Arrays.asList(502, 503, 504);
     private static final List<String> NON_FATAL_ERROR_MESSAGES = Arrays.asList(
             "Connection refused", "Connection reset", "Remote host closed connection during handshake");
@@ -50,6 +54,10 @@ public class TestNetworkConfigImpl {
         assertEquals(null, networkConfig.getConnectionTimeout());
         assertTrue(networkConfig.getNonFatalErrorCodes().isEmpty());
         assertTrue(networkConfig.getNonFatalErrorMessages().isEmpty());
+        assertEquals(null, networkConfig.getConnectionPoolSize());
+        assertEquals(null, networkConfig.getConnectionIdleTimeout());
+        assertEquals(null, networkConfig.getMaxRequestsPerMinute());
+        assertEquals(null, networkConfig.getMaxRequestBurst());
     }
 
     @Test
@@ -65,5 +73,17 @@ public class TestNetworkConfigImpl {
 
         networkConfig.setNonFatalErrorMessages(NON_FATAL_ERROR_MESSAGES);
         assertEquals(NON_FATAL_ERROR_MESSAGES, networkConfig.getNonFatalErrorMessages());
+
+        networkConfig.setConnectionPoolSize(CONNECTION_POOL_SIZE);
+        assertEquals(CONNECTION_POOL_SIZE, networkConfig.getConnectionPoolSize());
+
+        networkConfig.setConnectionIdleTimeout(CONNECTION_IDLE_TIMEOUT);
+        assertEquals(CONNECTION_IDLE_TIMEOUT, networkConfig.getConnectionIdleTimeout());
+
+        networkConfig.setMaxRequestsPerMinute(MAX_REQUESTS_PER_MINUTE);
+        assertEquals(MAX_REQUESTS_PER_MINUTE, networkConfig.getMaxRequestsPerMinute());
+
+        networkConfig.setMaxRequestBurst(MAX_REQUEST_BURST);
+        assertEquals(MAX_REQUEST_BURST, networkConfig.getMaxRequestBurst());
     }
 }
@@ -0,0 +1,268 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.core.engine;
+
+import com.gazbert.bxbot.core.engine.TradingApiCacheStatistics.CachedCall;
+import com.gazbert.bxbot.domain.engine.TradingApiCacheConfig;
+import com.gazbert.bxbot.trading.api.AsyncTradingApi;
+import com.gazbert.bxbot.trading.api.BalanceInfo;
+import com.gazbert.bxbot.trading.api.ExchangeNetworkException;
+import com.gazbert.bxbot.trading.api.MarketOrderBook;
+import com.gazbert.bxbot.trading.api.OpenOrder;
+import com.gazbert.bxbot.trading.api.OrderType;
+import com.gazbert.bxbot.trading.api.TradingApi;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.easymock.EasyMock.createMock;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.replay;
+import static org.easymock.EasyMock.verify;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests the Caching Trading API behaves as expected.
+ *
+ * @author gazbert
+ */
+public class TestCachingTradingApi {
+
+    private static final String MARKET_ID = "btcusd";
+    private static final String OTHER_MARKET_ID = "ltcusd";
+    private static final String ORDER_ID = "12345";
+    private static final BigDecimal LATEST_PRICE = new BigDecimal("1000.50");
+    private static final BigDecimal ORDER_QUANTITY = new BigDecimal("0.5");
+    private static final int TTL_IN_SECS = 60;
+
+    private TradingApi exchangeAdapter;
+    private AsyncTradingApi exchangeAdapterAsyncApi;
+    private BalanceInfo balanceInfo;
+    private MarketOrderBook marketOrderBook;
+    private CachingTradingApi cachingTradingApi;
+
+    @Before
+    public void setupForEachTest() {
+        exchangeAdapter = createMock(TradingApi.class);
+        exchangeAdapterAsyncApi = createMock(AsyncTradingApi.class);
+        balanceInfo = createMock(BalanceInfo.class);
+        marketOrderBook = createMock(MarketOrderBook.class);
+
+        // Ticker is deliberately left uncached
+        final TradingApiCacheConfig cacheConfig = new TradingApiCacheConfig();
+        cacheConfig.setMarketOrdersTtl(TTL_IN_SECS);
+        cacheConfig.setLatestMarketPriceTtl(TTL_IN_SECS);
+        cacheConfig.setOpenOrdersTtl(TTL_IN_SECS);
+        cacheConfig.setBalanceInfoTtl(TTL_IN_SECS);
+        cachingTradingApi = new CachingTradingApi(exchangeAdapter, cacheConfig);
+    }
+
+    @Test
+    public void testCachedCallIsOnlySentToExchangeOnceWithinTtl() throws Exception {
+
+        expect(exchangeAdapter.getBalanceInfo()).andReturn(balanceInfo);
+        expect(exchangeAdapter.getLatestMarketPrice(MARKET_ID)).andReturn(LATEST_PRICE);
+        replay(exchangeAdapter);
+
+        assertSame(balanceInfo, cachingTradingApi.getBalanceInfo());
+        assertSame(balanceInfo, cachingTradingApi.getBalanceInfo());
+        assertSame(balanceInfo, cachingTradingApi.getBalanceInfo());
+        assertEquals(LATEST_PRICE, cachingTradingApi.getLatestMarketPrice(MARKET_ID));
+        assertEquals(LATEST_PRICE, cachingTradingApi.getLatestMarketPrice(MARKET_ID));
+
+        final TradingApiCacheStatistics statistics = cachingTradingApi.getStatistics();
+        assertEquals(2, statistics.getHits(CachedCall.BALANCE_INFO));
+        assertEquals(1, statistics.getMisses(CachedCall.BALANCE_INFO));
+        assertEquals(1, statistics.getHits(CachedCall.LATEST_MARKET_PRICE));
+        assertEquals(1, statistics.getMisses(CachedCall.LATEST_MARKET_PRICE));
+        assertEquals(3, statistics.getTotalHits());
+        assertEquals(2, statistics.getTotalMisses());
+
+        verify(exchangeAdapter);
+    }
+
+    @Test
+    public void testMarketDataIsCachedPerMarket() throws Exception {
+
+        final BigDecimal otherMarketPrice = new BigDecimal("50.25");
+        expect(exchangeAdapter.getLatestMarketPrice(MARKET_ID)).andReturn(LATEST_PRICE);
+        expect(exchangeAdapter.getLatestMarketPrice(OTHER_MARKET_ID)).andReturn(otherMarketPrice);
+        replay(exchangeAdapter);
+
+        assertEquals(LATEST_PRICE, cachingTradingApi.getLatestMarketPrice(MARKET_ID));
+        assertEquals(otherMarketPrice, cachingTradingApi.getLatestMarketPrice(OTHER_MARKET_ID));
+        assertEquals(LATEST_PRICE, cachingTradingApi.getLatestMarketPrice(MARKET_ID));
+
+        verify(exchangeAdapter);
+    }
+
+    @Test
+    public void testCallWithoutTtlIsPassedStraightThroughAndNotCounted() throws Exception {
+
+        expect(exchangeAdapter.getTicker(MARKET_ID)).andReturn(null).times(2);
+        replay(exchangeAdapter);
+
+        cachingTradingApi.getTicker(MARKET_ID);
+        cachingTradingApi.getTicker(MARKET_ID);
+
+        final TradingApiCacheStatistics statistics = cachingTradingApi.getStatistics();
+        assertEquals(0, statistics.getHits(CachedCall.TICKER));
+        assertEquals(0, statistics.getMisses(CachedCall.TICKER));
+
+        verify(exchangeAdapter);
+    }
+
+    @Test
+    public void testCreateOrderInvalidatesBalanceInfoAndThatMarketOnly() throws Exception {
+
+        final List<OpenOrder> openOrders = Collections.emptyList();
+        final MarketOrderBook otherMarketOrderBook = createMock(MarketOrderBook.class);
+
+        expect(exchangeAdapter.getBalanceInfo()).andReturn(balanceInfo).times(2);
+        expect(exchangeAdapter.getYourOpenOrders(MARKET_ID)).andReturn(openOrders).times(2);
+        expect(exchangeAdapter.getMarketOrders(MARKET_ID)).andReturn(marketOrderBook).times(2);
+        expect(exchangeAdapter.getMarketOrders(OTHER_MARKET_ID)).andReturn(otherMarketOrderBook);
+        expect(exchangeAdapter.createOrder(MARKET_ID, OrderType.BUY, ORDER_QUANTITY, LATEST_PRICE)).andReturn(ORDER_ID);
+        replay(exchangeAdapter);
+
+        cachingTradingApi.getBalanceInfo();
+        cachingTradingApi.getYourOpenOrders(MARKET_ID);
+        cachingTradingApi.getMarketOrders(MARKET_ID);
+        cachingTradingApi.getMarketOrders(OTHER_MARKET_ID);
+
+        assertEquals(ORDER_ID, cachingTradingApi.createOrder(MARKET_ID, OrderType.BUY, ORDER_QUANTITY, LATEST_PRICE));
+
+        cachingTradingApi.getBalanceInfo();
+        cachingTradingApi.getYourOpenOrders(MARKET_ID);
+        cachingTradingApi.getMarketOrders(MARKET_ID);
+        assertSame(otherMarketOrderBook, cachingTradingApi.getMarketOrders(OTHER_MARKET_ID));
+
+        verify(exchangeAdapter);
+    }
+
+    @Test
+    public void testFailedCancelOrderStillInvalidatesCache() throws Exception {
+
+        expect(exchangeAdapter.getBalanceInfo()).andReturn(balanceInfo).times(2);
+        expect(exchangeAdapter.cancelOrder(ORDER_ID, MARKET_ID)).andThrow(new ExchangeNetworkException("timeout"));
+        replay(exchangeAdapter);
+
+        cachingTradingApi.getBalanceInfo();
+        try {
+            cachingTradingApi.cancelOrder(ORDER_ID, MARKET_ID);
+            fail("Expected ExchangeNetworkException");
+        } catch (ExchangeNetworkException e) {
+            // expected - the order may or may not have been cancelled
+        }
+        cachingTradingApi.getBalanceInfo();
+
+        verify(exchangeAdapter);
+    }
+
+    @Test
+    public void testInvalidateAllClearsCache() throws Exception {
+
+        expect(exchangeAdapter.getBalanceInfo()).andReturn(balanceInfo).times(2);
+        expect(exchangeAdapter.getMarketOrders(MARKET_ID)).andReturn(marketOrderBook).times(2);
+        replay(exchangeAdapter);
+
+        cachingTradingApi.getBalanceInfo();
+        cachingTradingApi.getMarketOrders(MARKET_ID);
+
+        cachingTradingApi.invalidateAll();
+
+        cachingTradingApi.getBalanceInfo();
+        cachingTradingApi.getMarketOrders(MARKET_ID);
+
+        verify(exchangeAdapter);
+    }
+
+    @Test
+    public void testResultFetchedAcrossAnInvalidationIsNotCached() throws Exception {
+
+        expect(exchangeAdapter.getBalanceInfo()).andAnswer(() -> {
+            // An order is placed while the balance info request is in flight
+            cachingTradingApi.createOrder(MARKET_ID, OrderType.SELL, ORDER_QUANTITY, LATEST_PRICE);
+            return balanceInfo;
+        });
+        expect(exchangeAdapter.createOrder(MARKET_ID, OrderType.SELL, ORDER_QUANTITY, LATEST_PRICE))
+                .andReturn(ORDER_ID);
+        expect(exchangeAdapter.getBalanceInfo()).andReturn(balanceInfo);
+        replay(exchangeAdapter);
+
+        cachingTradingApi.getBalanceInfo();
+        cachingTradingApi.getBalanceInfo();
+
+        verify(exchangeAdapter);
+    }
+
+    @Test
+    public void testAsyncCallsShareTheCache() throws Exception {
+
+        final CompletableFuture<MarketOrderBook> pendingMarketOrders = new CompletableFuture<>();
+
+        expect(exchangeAdapter.getAsyncTradingApi()).andReturn(exchangeAdapterAsyncApi);
+        expect(exchangeAdapterAsyncApi.getMarketOrders(MARKET_ID)).andReturn(pendingMarketOrders);
+        replay(exchangeAdapter, exchangeAdapterAsyncApi);
+
+        final AsyncTradingApi asyncTradingApi = cachingTradingApi.getAsyncTradingApi();
+        final CompletableFuture<MarketOrderBook> miss = asyncTradingApi.getMarketOrders(MARKET_ID);
+        pendingMarketOrders.complete(marketOrderBook);
+        assertSame(marketOrderBook, miss.get());
+
+        final CompletableFuture<MarketOrderBook> hit = asyncTradingApi.getMarketOrders(MARKET_ID);
+        assertTrue(hit.isDone());
+        assertSame(marketOrderBook, hit.get());
+        assertSame(marketOrderBook, cachingTradingApi.getMarketOrders(MARKET_ID));
+
+        verify(exchangeAdapter, exchangeAdapterAsyncApi);
+    }
+
+    @Test
+    public void testAsyncCancelOrderInvalidatesCacheWhenComplete() throws Exception {
+
+        final CompletableFuture<Boolean> pendingCancel = new CompletableFuture<>();
+
+        expect(exchangeAdapter.getBalanceInfo()).andReturn(balanceInfo).times(2);
+        expect(exchangeAdapter.getAsyncTradingApi()).andReturn(exchangeAdapterAsyncApi);
+        expect(exchangeAdapterAsyncApi.cancelOrder(ORDER_ID, MARKET_ID)).andReturn(pendingCancel);
+        replay(exchangeAdapter, exchangeAdapterAsyncApi);
+
+        cachingTradingApi.getBalanceInfo();
+        final CompletableFuture<Boolean> cancelled =
+                cachingTradingApi.getAsyncTradingApi().cancelOrder(ORDER_ID, MARKET_ID);
+        pendingCancel.complete(true);
+        assertTrue(cancelled.get());
+        cachingTradingApi.getBalanceInfo();
+
+        verify(exchangeAdapter, exchangeAdapterAsyncApi);
+    }
+}
@@ -0,0 +1,383 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+
+package com.gazbert.bxbot.core.engine;
+
+import com.gazbert.bxbot.marketdata.MarketDataCursor;
+import com.gazbert.bxbot.marketdata.MarketDataFile;
+import com.gazbert.bxbot.marketdata.MarketDataFileReader;
+import com.gazbert.bxbot.domain.engine.MarketDataRecorderConfig;
+import com.gazbert.bxbot.exchanges.trading.api.impl.MarketOrderBookImpl;
+import com.gazbert.bxbot.exchanges.trading.api.impl.MarketOrderImpl;
+import com.gazbert.bxbot.exchanges.trading.api.impl.TickerImpl;
+import com.gazbert.bxbot.trading.api.ExchangeNetworkException;
+import com.gazbert.bxbot.trading.api.FixedPointMarketOrderBook;
+import com.gazbert.bxbot.trading.api.MarketOrder;
+import com.gazbert.bxbot.trading.api.MarketOrderBook;
+import com.gazbert.bxbot.trading.api.OrderType;
+import com.gazbert.bxbot.trading.api.Ticker;
+import com.gazbert.bxbot.trading.api.TradingApi;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static com.gazbert.bxbot.marketdata.MarketDataFile.NULL_VALUE;
+import static com.gazbert.bxbot.marketdata.MarketDataFile.TICKER_HIGH;
+import static com.gazbert.bxbot.marketdata.MarketDataFile.TICKER_LAST;
+import static com.gazbert.bxbot.marketdata.MarketDataFile.TICKER_VWAP;
+import static org.easymock.EasyMock.createMock;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.replay;
+import static org.easymock.EasyMock.verify;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests the Market Data Recorder and the Recording Trading API behave as expected.
+ *
+ * @author gazbert
+ */
+public class TestMarketDataRecorder {
+
+    private static final String EXCHANGE_ID = "bitstamp";
+    private static final String OTHER_EXCHANGE_ID = "gdax";
+    private static final String MARKET_ID = "btcusd";
+    private static final LocalDate DAY_1 = LocalDate.of(2018, 3, 1);
+    private static final LocalDate DAY_2 = DAY_1.plusDays(1);
+    private static final long DAY_1_MILLIS = DAY_1.atStartOfDay(ZoneOffset.UTC).toInstant().toEpochMilli();
+    private static final long CLOSE_TIMEOUT_SECS = 10;
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    private Path dataDirectory;
+    private MutableClock clock;
+    private MarketDataRecorderConfig config;
+
+    @Before
+    public void setupForEachTest() {
+        dataDirectory = folder.getRoot().toPath();
+        clock = new MutableClock(DAY_1_MILLIS);
+
+        config = new MarketDataRecorderConfig();
+        config.setDataDirectory(dataDirectory.toString());
+        config.setOrderBookDepth(2);
+        config.setPriceScale(2);
+        config.setQuantityScale(4);
+    }
+
+    @Test
+    public void testRecordsEachSampleAsAFullSnapshotOfTheMarket() throws Exception {
+
+        final MarketDataRecorder recorder = new MarketDataRecorder(config, clock);
+        recorder.recordMarketOrders(EXCHANGE_ID, MARKET_ID, someMarketOrderBook());
+        clock.millis += 100;
+        recorder.recordTicker(EXCHANGE_ID, MARKET_ID, someTicker());
+        clock.millis += 100;
+        recorder.recordLatestMarketPrice(EXCHANGE_ID, MARKET_ID, new BigDecimal("1000.126"));
+        recorder.close(CLOSE_TIMEOUT_SECS, TimeUnit.SECONDS);
+
+        assertEquals(3, recorder.getRecordedCount());
+        assertEquals(0, recorder.getDroppedCount());
+
+        final MarketDataFileReader reader = MarketDataFileReader.open(
+                MarketDataFile.getPath(dataDirectory, EXCHANGE_ID, MARKET_ID, DAY_1));
+        assertEquals(MARKET_ID, reader.getMarketId());
+        assertEquals(2, reader.getDepth());
+        assertEquals(2, reader.getPriceScale());
+        assertEquals(4, reader.getQuantityScale());
+        assertEquals(3, reader.getRowCount());
+
+        final MarketDataCursor cursor = reader.cursor();
+
+        // Only the top 2 levels are kept
+        assertTrue(cursor.next());
+        assertEquals(DAY_1_MILLIS, cursor.getTimestamp());
+        assertEquals(NULL_VALUE, cursor.getLastPrice());
+        assertEquals(NULL_VALUE, cursor.getTickerPrice(TICKER_LAST));
+        assertBook(cursor);
+
+        // The book is carried forward
+        assertTrue(cursor.next());
+        assertEquals(DAY_1_MILLIS + 100, cursor.getTimestamp());
+        assertEquals(NULL_VALUE, cursor.getLastPrice());
+        assertEquals(100050, cursor.getTickerPrice(TICKER_LAST));
+        assertEquals(110000, cursor.getTickerPrice(TICKER_HIGH));
+        assertEquals(NULL_VALUE, cursor.getTickerPrice(TICKER_VWAP));
+        assertEquals(12345000, cursor.getTickerVolume());
+        assertBook(cursor);
+
+        // Prices are rounded half-even to the price scale
+        assertTrue(cursor.next());
+        assertEquals(DAY_1_MILLIS + 200, cursor.getTimestamp());
+        assertEquals(100013, cursor.getLastPrice());
+        assertEquals(100050, cursor.getTickerPrice(TICKER_LAST));
+        assertBook(cursor);
+
+        assertFalse(cursor.next());
+    }
+
+    @Test
+    public void testStartsANewFileWhenTheDayRollsOver() throws Exception {
+
+        final MarketDataRecorder recorder = new MarketDataRecorder(config, clock);
+        recorder.recordLatestMarketPrice(EXCHANGE_ID, MARKET_ID, new BigDecimal("1000"));
+        clock.millis = DAY_1_MILLIS + TimeUnit.DAYS.toMillis(1) - 1;
+        recorder.recordLatestMarketPrice(EXCHANGE_ID, MARKET_ID, new BigDecimal("1001"));
+        clock.millis = DAY_1_MILLIS + TimeUnit.DAYS.toMillis(1);
+        recorder.recordLatestMarketPrice(EXCHANGE_ID, MARKET_ID, new BigDecimal("1002"));
+        recorder.close(CLOSE_TIMEOUT_SECS, TimeUnit.SECONDS);
+
+        final MarketDataCursor day1 = MarketDataFileReader.open(
+                MarketDataFile.getPath(dataDirectory, EXCHANGE_ID, MARKET_ID, DAY_1)).cursor();
+        assertTrue(day1.next());
+        assertEquals(100000, day1.getLastPrice());
+        assertTrue(day1.next());
+        assertEquals(100100, day1.getLastPrice());
+        assertFalse(day1.next());
+
+        final MarketDataCursor day2 = MarketDataFileReader.open(
+                MarketDataFile.getPath(dataDirectory, EXCHANGE_ID, MARKET_ID, DAY_2)).cursor();
+        assertTrue(day2.next());
+        assertEquals(100200, day2.getLastPrice());
+        assertFalse(day2.next());
+    }
+
+    @Test
+    public void testRecordsTheSameMarketOnEachExchangeToItsOwnFile() throws Exception {
+
+        final MarketDataRecorder recorder = new MarketDataRecorder(config, clock);
+        recorder.recordLatestMarketPrice(EXCHANGE_ID, MARKET_ID, new BigDecimal("1000"));
+        recorder.recordLatestMarketPrice(OTHER_EXCHANGE_ID, MARKET_ID, new BigDecimal("2000"));
+        clock.millis += 100;
+        recorder.recordLatestMarketPrice(EXCHANGE_ID, MARKET_ID, new BigDecimal("1001"));
+        recorder.close(CLOSE_TIMEOUT_SECS, TimeUnit.SECONDS);
+
+        final MarketDataCursor exchangeCursor = MarketDataFileReader.open(
+                MarketDataFile.getPath(dataDirectory, EXCHANGE_ID, MARKET_ID, DAY_1)).cursor();
+        assertTrue(exchangeCursor.next());
+        assertEquals(100000, exchangeCursor.getLastPrice());
+        assertTrue(exchangeCursor.next());
+        assertEquals(100100, exchangeCursor.getLastPrice());
+        assertFalse(exchangeCursor.next());
+
+        final MarketDataCursor otherExchangeCursor = MarketDataFileReader.open(
+                MarketDataFile.getPath(dataDirectory, OTHER_EXCHANGE_ID, MARKET_ID, DAY_1)).cursor();
+        assertTrue(otherExchangeCursor.next());
+        assertEquals(200000, otherExchangeCursor.getLastPrice());
+        assertFalse(otherExchangeCursor.next());
+    }
+
+    @Test
+    public void testAppendsToTodaysFileAfterRestart() throws Exception {
+
+        MarketDataRecorder recorder = new MarketDataRecorder(config, clock);
+        recorder.recordLatestMarketPrice(EXCHANGE_ID, MARKET_ID, new BigDecimal("1000"));
+        recorder.close(CLOSE_TIMEOUT_SECS, TimeUnit.SECONDS);
+
+        clock.millis += 1000;
+        recorder = new MarketDataRecorder(config, clock);
+        recorder.recordLatestMarketPrice(EXCHANGE_ID, MARKET_ID, new BigDecimal("1001"));
+        recorder.close(CLOSE_TIMEOUT_SECS, TimeUnit.SECONDS);
+
+        final MarketDataFileReader reader = MarketDataFileReader.open(
+                MarketDataFile.getPath(dataDirectory, EXCHANGE_ID, MARKET_ID, DAY_1));
+        assertEquals(2, reader.getRowCount());
+    }
+
+    @Test
+    public void testEverySampleIsEitherWrittenOrCountedAsDropped() throws Exception {
+
+        config.setBufferSize(1);
+        final int sampleCount = 5000;
+
+        final MarketDataRecorder recorder = new MarketDataRecorder(config, clock);
+        for (int i = 0; i < sampleCount; i++) {
+            recorder.recordLatestMarketPrice(EXCHANGE_ID, MARKET_ID, BigDecimal.valueOf(i));
+        }
+        recorder.close(CLOSE_TIMEOUT_SECS, TimeUnit.SECONDS);
+
+        assertEquals(sampleCount, recorder.getRecordedCount() + recorder.getDroppedCount());
+        final MarketDataFileReader reader = MarketDataFileReader.open(
+                MarketDataFile.getPath(dataDirectory, EXCHANGE_ID, MARKET_ID, DAY_1));
+        assertEquals(recorder.getRecordedCount(), reader.getRowCount());
+    }
+
+    @Test
+    public void testFixedPointOrderBookIsRecordedAtTheConfiguredScales() throws Exception {
+
+        // Quantity scale differs from the recorded one, so the levels are converted
+        final FixedPointMarketOrderBook marketOrderBook = new FixedPointMarketOrderBook.Builder(MARKET_ID, 2, 2)
+                .addBid(new BigDecimal("999.50"), new BigDecimal("1.25"))
+                .addAsk(new BigDecimal("1000.50"), new BigDecimal("2.5"))
+                .build();
+
+        final MarketDataRecorder recorder = new MarketDataRecorder(config, clock);
+        recorder.recordMarketOrders(EXCHANGE_ID, MARKET_ID, marketOrderBook);
+        recorder.close(CLOSE_TIMEOUT_SECS, TimeUnit.SECONDS);
+
+        final MarketDataCursor cursor = MarketDataFileReader.open(
+                MarketDataFile.getPath(dataDirectory, EXCHANGE_ID, MARKET_ID, DAY_1)).cursor();
+        assertTrue(cursor.next());
+        assertEquals(1, cursor.getBidDepth());
+        assertEquals(99950, cursor.getBidPrice(0));
+        assertEquals(12500, cursor.getBidQuantity(0));
+        assertEquals(1, cursor.getAskDepth());
+        assertEquals(100050, cursor.getAskPrice(0));
+        assertEquals(25000, cursor.getAskQuantity(0));
+    }
+
+    @Test
+    public void testSamplesAfterCloseAreNotRecorded() throws Exception {
+
+        final MarketDataRecorder recorder = new MarketDataRecorder(config, clock);
+        recorder.close(CLOSE_TIMEOUT_SECS, TimeUnit.SECONDS);
+        recorder.recordLatestMarketPrice(EXCHANGE_ID, MARKET_ID, new BigDecimal("1000"));
+
+        assertEquals(0, recorder.getRecordedCount());
+        assertFalse(Files.exists(MarketDataFile.getPath(dataDirectory, EXCHANGE_ID, MARKET_ID, DAY_1)));
+    }
+
+    @Test
+    public void testRecordingTradingApiRecordsMarketDataCalls() throws Exception {
+
+        final MarketOrderBook marketOrderBook = someMarketOrderBook();
+        final Ticker ticker = someTicker();
+        final TradingApi exchangeAdapter = createMock(TradingApi.class);
+        expect(exchangeAdapter.getMarketOrders(MARKET_ID)).andReturn(marketOrderBook);
+        expect(exchangeAdapter.getTicker(MARKET_ID)).andReturn(ticker);
+        expect(exchangeAdapter.getLatestMarketPrice(MARKET_ID)).andThrow(new ExchangeNetworkException("timeout"));
+        expect(exchangeAdapter.getBalanceInfo()).andReturn(null);
+        replay(exchangeAdapter);
+
+        final MarketDataRecorder recorder = new MarketDataRecorder(config, clock);
+        final RecordingTradingApi recordingTradingApi = new RecordingTradingApi(exchangeAdapter, EXCHANGE_ID, recorder);
+        assertSame(marketOrderBook, recordingTradingApi.getMarketOrders(MARKET_ID));
+        assertSame(ticker, recordingTradingApi.getTicker(MARKET_ID));
+        try {
+            recordingTradingApi.getLatestMarketPrice(MARKET_ID);
+            fail("Expected ExchangeNetworkException");
+        } catch (ExchangeNetworkException e) {
+            // expected - and not recorded
+        }
+        recordingTradingApi.getBalanceInfo();
+        recorder.close(CLOSE_TIMEOUT_SECS, TimeUnit.SECONDS);
+
+        assertEquals(2, recorder.getRecordedCount());
+        final MarketDataFileReader reader = MarketDataFileReader.open(
+                MarketDataFile.getPath(dataDirectory, EXCHANGE_ID, MARKET_ID, DAY_1));
+        assertEquals(2, reader.getRowCount());
+
+        verify(exchangeAdapter);
+    }
+
+    // ------------------------------------------------------------------------
+    // Private utils
+    // ------------------------------------------------------------------------
+
+    private static void assertBook(MarketDataCursor cursor) {
+        assertEquals(2, cursor.getBidDepth());
+        assertEquals(99900, cursor.getBidPrice(0));
+        assertEquals(15000, cursor.getBidQuantity(0));
+        assertEquals(99800, cursor.getBidPrice(1));
+        assertEquals(25000, cursor.getBidQuantity(1));
+        assertEquals(2, cursor.getAskDepth());
+        assertEquals(100100, cursor.getAskPrice(0));
+        assertEquals(10000, cursor.getAskQuantity(0));
+        assertEquals(100200, cursor.getAskPrice(1));
+        assertEquals(20000, cursor.getAskQuantity(1));
+    }
+
+    private static MarketOrderBook someMarketOrderBook() {
+        final List<MarketOrder> buyOrders = Arrays.asList(
+                marketOrder(OrderType.BUY, "999.00", "1.5"),
+                marketOrder(OrderType.BUY, "998.00", "2.5"),
+                marketOrder(OrderType.BUY, "997.00", "3.5"));
+        final List<MarketOrder> sellOrders = Arrays.asList(
+                marketOrder(OrderType.SELL, "1001.00", "1"),
+                marketOrder(OrderType.SELL, "1002.00", "2"),
+                marketOrder(OrderType.SELL, "1003.00", "3"));
+        return new MarketOrderBookImpl(MARKET_ID, sellOrders, buyOrders);
+    }
+
+    private static MarketOrder marketOrder(OrderType type, String price, String quantity) {
+        final BigDecimal orderPrice = new BigDecimal(price);
+        final BigDecimal orderQuantity = new BigDecimal(quantity);
+        return new MarketOrderImpl(type, orderPrice, orderQuantity, orderPrice.multiply(orderQuantity));
+    }
+
+    private static Ticker someTicker() {
+        return new TickerImpl(new BigDecimal("1000.50"), new BigDecimal("1000.00"), new BigDecimal("1001.00"),
+                new BigDecimal("900.00"), new BigDecimal("1100.00"), new BigDecimal("950.00"),
+                new BigDecimal("1234.5"), null, 1519862400000L);
+    }
+
+    /*
+     * A clock the tests can move forward.
+     */
+    private static final class MutableClock extends Clock {
+
+        private volatile long millis;
+
+        private MutableClock(long millis) {
+            this.millis = millis;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public long millis() {
+            return millis;
+        }
+
+        @Override
+        public Instant instant() {
+            return Instant.ofEpochMilli(millis);
+        }
+    }
+}
@@ -0,0 +1,149 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+
+package com.gazbert.bxbot.core.engine;
+
+import com.gazbert.bxbot.trading.api.AsyncTradingApi;
+import com.gazbert.bxbot.trading.api.ExchangeNetworkException;
+import com.gazbert.bxbot.trading.api.MarketOrderBook;
+import com.gazbert.bxbot.trading.api.TradingApi;
+import com.gazbert.bxbot.trading.api.TradingApiException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.util.concurrent.CompletableFuture;
+
+import static org.easymock.EasyMock.createMock;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.replay;
+import static org.easymock.EasyMock.verify;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests the Metered Trading API behaves as expected.
+ *
+ * @author gazbert
+ */
+public class TestMeteredTradingApi {
+
+    private static final String EXCHANGE_ID = "bitstamp";
+    private static final String MARKET_ID = "btcusd";
+
+    private TradingApi exchangeAdapter;
+    private AsyncTradingApi exchangeAdapterAsyncApi;
+    private MeterRegistry meterRegistry;
+    private MeteredTradingApi meteredTradingApi;
+
+    @Before
+    public void setupForEachTest() {
+        exchangeAdapter = createMock(TradingApi.class);
+        exchangeAdapterAsyncApi = createMock(AsyncTradingApi.class);
+        meterRegistry = new SimpleMeterRegistry();
+        meteredTradingApi = new MeteredTradingApi(exchangeAdapter, EXCHANGE_ID, meterRegistry);
+    }
+
+    @Test
+    public void testSuccessfulCallsAreTimedByMethod() throws Exception {
+
+        final MarketOrderBook marketOrderBook = createMock(MarketOrderBook.class);
+        expect(exchangeAdapter.getMarketOrders(MARKET_ID)).andReturn(marketOrderBook).times(2);
+        expect(exchangeAdapter.getLatestMarketPrice(MARKET_ID)).andReturn(new BigDecimal("6500.00"));
+        replay(exchangeAdapter);
+
+        assertSame(marketOrderBook, meteredTradingApi.getMarketOrders(MARKET_ID));
+        assertSame(marketOrderBook, meteredTradingApi.getMarketOrders(MARKET_ID));
+        assertEquals(new BigDecimal("6500.00"), meteredTradingApi.getLatestMarketPrice(MARKET_ID));
+
+        assertEquals(2, meterRegistry.get(MeteredTradingApi.CALL_TIMER_NAME)
+                .tags("exchange", EXCHANGE_ID, "method", "getMarketOrders", "exception", "None").timer().count());
+        assertEquals(1, meterRegistry.get(MeteredTradingApi.CALL_TIMER_NAME)
+                .tags("exchange", EXCHANGE_ID, "method", "getLatestMarketPrice", "exception", "None").timer().count());
+        verify(exchangeAdapter);
+    }
+
+    @Test
+    public void testFailedCallsAreTimedByException() throws Exception {
+
+        final ExchangeNetworkException networkException = new ExchangeNetworkException("Read timed out");
+        expect(exchangeAdapter.getBalanceInfo()).andThrow(networkException);
+        expect(exchangeAdapter.cancelOrder("1234", MARKET_ID)).andThrow(new TradingApiException("Unknown order"));
+        replay(exchangeAdapter);
+
+        try {
+            meteredTradingApi.getBalanceInfo();
+            fail("Expected ExchangeNetworkException");
+        } catch (ExchangeNetworkException e) {
+            assertSame(networkException, e);
+        }
+        try {
+            meteredTradingApi.cancelOrder("1234", MARKET_ID);
+            fail("Expected TradingApiException");
+        } catch (TradingApiException e) {
+            // expected
+        }
+
+        assertEquals(1, meterRegistry.get(MeteredTradingApi.CALL_TIMER_NAME)
+                .tags("method", "getBalanceInfo", "exception", "ExchangeNetworkException").timer().count());
+        assertEquals(1, meterRegistry.get(MeteredTradingApi.CALL_TIMER_NAME)
+                .tags("method", "cancelOrder", "exception", "TradingApiException").timer().count());
+        assertNull(meterRegistry.find(MeteredTradingApi.CALL_TIMER_NAME).tags("exception", "None").timer());
+        verify(exchangeAdapter);
+    }
+
+    @Test
+    public void testAsyncCallsAreTimedWhenTheirFutureCompletes() throws Exception {
+
+        final CompletableFuture<MarketOrderBook> pendingOrderBook = new CompletableFuture<>();
+        final CompletableFuture<BigDecimal> failedPrice = new CompletableFuture<>();
+        failedPrice.completeExceptionally(new ExchangeNetworkException("Connection reset"));
+
+        expect(exchangeAdapter.getAsyncTradingApi()).andReturn(exchangeAdapterAsyncApi).times(2);
+        expect(exchangeAdapterAsyncApi.getMarketOrders(MARKET_ID)).andReturn(pendingOrderBook);
+        expect(exchangeAdapterAsyncApi.getLatestMarketPrice(MARKET_ID)).andReturn(failedPrice);
+        replay(exchangeAdapter, exchangeAdapterAsyncApi);
+
+        final CompletableFuture<MarketOrderBook> orderBook =
+                meteredTradingApi.getAsyncTradingApi().getMarketOrders(MARKET_ID);
+        final CompletableFuture<BigDecimal> price =
+                meteredTradingApi.getAsyncTradingApi().getLatestMarketPrice(MARKET_ID);
+        assertTrue(price.isCompletedExceptionally());
+        assertEquals(1, meterRegistry.get(MeteredTradingApi.CALL_TIMER_NAME)
+                .tags("method", "getLatestMarketPrice", "exception", "ExchangeNetworkException").timer().count());
+
+        // Not timed until it completes
+        assertNull(meterRegistry.find(MeteredTradingApi.CALL_TIMER_NAME).tags("method", "getMarketOrders").timer());
+        pendingOrderBook.complete(createMock(MarketOrderBook.class));
+        assertTrue(orderBook.isDone());
+        assertEquals(1, meterRegistry.get(MeteredTradingApi.CALL_TIMER_NAME)
+                .tags("method", "getMarketOrders", "exception", "None").timer().count());
+        verify(exchangeAdapter, exchangeAdapterAsyncApi);
+    }
+}
@@ -0,0 +1,205 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.core.engine;
+
+import com.gazbert.bxbot.strategy.api.OrderEvent;
+import com.gazbert.bxbot.strategy.api.OrderEventListener;
+import com.gazbert.bxbot.trading.api.ExchangeNetworkException;
+import com.gazbert.bxbot.trading.api.OpenOrder;
+import com.gazbert.bxbot.trading.api.OrderType;
+import com.gazbert.bxbot.trading.api.TradingApi;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.easymock.EasyMock.createMock;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.replay;
+import static org.easymock.EasyMock.verify;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests the Order Tracking Trading API behaves as expected.
+ *
+ * @author gazbert
+ */
+public class TestOrderTrackingTradingApi {
+
+    private static final String MARKET_ID = "btcusd";
+    private static final String OTHER_MARKET_ID = "ltcusd";
+    private static final String ORDER_ID = "4239407233";
+    private static final BigDecimal PRICE = new BigDecimal("6500.00");
+    private static final BigDecimal QUANTITY = new BigDecimal("0.5");
+
+    private TradingApi exchangeAdapter;
+    private RecordingListener listener;
+    private OrderTrackingTradingApi orderTracker;
+
+    @Before
+    public void setupForEachTest() {
+        exchangeAdapter = createMock(TradingApi.class);
+        listener = new RecordingListener();
+        orderTracker = new OrderTrackingTradingApi(exchangeAdapter);
+        orderTracker.addListener(MARKET_ID, listener);
+    }
+
+    @Test
+    public void testOrderMissingFromOpenOrdersIsReportedFilled() throws Exception {
+
+        expect(exchangeAdapter.createOrder(MARKET_ID, OrderType.BUY, QUANTITY, PRICE)).andReturn(ORDER_ID);
+        expect(exchangeAdapter.getYourOpenOrders(MARKET_ID)).andReturn(Collections.emptyList());
+        replay(exchangeAdapter);
+
+        assertEquals(ORDER_ID, orderTracker.createOrder(MARKET_ID, OrderType.BUY, QUANTITY, PRICE));
+        assertEquals(1, orderTracker.getTrackedOrderCount());
+
+        orderTracker.refresh(Collections.singleton(MARKET_ID));
+
+        assertEquals(1, listener.filled.size());
+        final OrderEvent orderEvent = listener.filled.get(0);
+        assertEquals(ORDER_ID, orderEvent.getOrderId());
+        assertEquals(MARKET_ID, orderEvent.getMarketId());
+        assertEquals(OrderType.BUY, orderEvent.getType());
+        assertEquals(PRICE, orderEvent.getPrice());
+        assertEquals(QUANTITY, orderEvent.getFilledQuantity());
+        assertEquals(0, orderTracker.getTrackedOrderCount());
+
+        // nothing left to track - no more open orders requests
+        orderTracker.refresh(Collections.singleton(MARKET_ID));
+
+        verify(exchangeAdapter);
+    }
+
+    @Test
+    public void testOpenOrderWithLessQuantityIsReportedPartiallyFilledOnce() throws Exception {
+
+        final OpenOrder openOrder = createMock(OpenOrder.class);
+        expect(openOrder.getId()).andReturn(ORDER_ID).times(2);
+        expect(openOrder.getQuantity()).andReturn(new BigDecimal("0.2")).times(2);
+
+        expect(exchangeAdapter.createOrder(MARKET_ID, OrderType.SELL, QUANTITY, PRICE)).andReturn(ORDER_ID);
+        expect(exchangeAdapter.getYourOpenOrders(MARKET_ID)).andReturn(Collections.singletonList(openOrder)).times(2);
+        replay(exchangeAdapter, openOrder);
+
+        orderTracker.createOrder(MARKET_ID, OrderType.SELL, QUANTITY, PRICE);
+        orderTracker.refresh(Collections.singleton(MARKET_ID));
+        orderTracker.refresh(Collections.singleton(MARKET_ID));
+
+        assertEquals(1, listener.partiallyFilled.size());
+        assertEquals(0, new BigDecimal("0.3").compareTo(listener.partiallyFilled.get(0).getFilledQuantity()));
+        assertTrue(listener.filled.isEmpty());
+        assertEquals(1, orderTracker.getTrackedOrderCount());
+
+        verify(exchangeAdapter, openOrder);
+    }
+
+    @Test
+    public void testCancelledOrderIsReportedWithoutOpenOrdersRequest() throws Exception {
+
+        expect(exchangeAdapter.createOrder(MARKET_ID, OrderType.BUY, QUANTITY, PRICE)).andReturn(ORDER_ID);
+        expect(exchangeAdapter.cancelOrder(ORDER_ID, MARKET_ID)).andReturn(true);
+        replay(exchangeAdapter);
+
+        orderTracker.createOrder(MARKET_ID, OrderType.BUY, QUANTITY, PRICE);
+        assertTrue(orderTracker.cancelOrder(ORDER_ID, MARKET_ID));
+        orderTracker.refresh(Collections.singleton(MARKET_ID));
+
+        assertEquals(1, listener.cancelled.size());
+        assertEquals(ORDER_ID, listener.cancelled.get(0).getOrderId());
+        assertTrue(listener.filled.isEmpty());
+        assertEquals(0, orderTracker.getTrackedOrderCount());
+
+        verify(exchangeAdapter);
+    }
+
+    @Test
+    public void testOrdersOnMarketsWithoutListenerOrNotDueAreNotChecked() throws Exception {
+
+        expect(exchangeAdapter.createOrder(OTHER_MARKET_ID, OrderType.BUY, QUANTITY, PRICE)).andReturn("1");
+        expect(exchangeAdapter.createOrder(MARKET_ID, OrderType.BUY, QUANTITY, PRICE)).andReturn(ORDER_ID);
+        replay(exchangeAdapter);
+
+        orderTracker.createOrder(OTHER_MARKET_ID, OrderType.BUY, QUANTITY, PRICE);
+        assertEquals(0, orderTracker.getTrackedOrderCount());
+
+        orderTracker.createOrder(MARKET_ID, OrderType.BUY, QUANTITY, PRICE);
+        orderTracker.refresh(Collections.singleton(OTHER_MARKET_ID));
+        assertEquals(1, orderTracker.getTrackedOrderCount());
+
+        orderTracker.removeListener(MARKET_ID);
+        assertEquals(0, orderTracker.getTrackedOrderCount());
+
+        verify(exchangeAdapter);
+    }
+
+    @Test
+    public void testNetworkErrorLeavesOrdersTrackedUntilNextRefresh() throws Exception {
+
+        expect(exchangeAdapter.createOrder(MARKET_ID, OrderType.BUY, QUANTITY, PRICE)).andReturn(ORDER_ID);
+        expect(exchangeAdapter.getYourOpenOrders(MARKET_ID)).andThrow(new ExchangeNetworkException("Timeout"));
+        expect(exchangeAdapter.getYourOpenOrders(MARKET_ID)).andReturn(Collections.emptyList());
+        replay(exchangeAdapter);
+
+        orderTracker.createOrder(MARKET_ID, OrderType.BUY, QUANTITY, PRICE);
+        orderTracker.refresh(Collections.singleton(MARKET_ID));
+        assertTrue(listener.filled.isEmpty());
+        assertEquals(1, orderTracker.getTrackedOrderCount());
+
+        orderTracker.refresh(Collections.singleton(MARKET_ID));
+        assertEquals(1, listener.filled.size());
+
+        verify(exchangeAdapter);
+    }
+
+    // ------------------------------------------------------------------------
+    // Private utils
+    // ------------------------------------------------------------------------
+
+    private static final class RecordingListener implements OrderEventListener {
+
+        private final List<OrderEvent> filled = new ArrayList<>();
+        private final List<OrderEvent> partiallyFilled = new ArrayList<>();
+        private final List<OrderEvent> cancelled = new ArrayList<>();
+
+        @Override
+        public void onOrderFilled(OrderEvent orderEvent) {
+            filled.add(orderEvent);
+        }
+
+        @Override
+        public void onOrderPartiallyFilled(OrderEvent orderEvent) {
+            partiallyFilled.add(orderEvent);
+        }
+
+        @Override
+        public void onOrderCancelled(OrderEvent orderEvent) {
+            cancelled.add(orderEvent);
+        }
+    }
+}
@@ -0,0 +1,286 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+
+package com.gazbert.bxbot.core.engine;
+
+import com.gazbert.bxbot.strategy.api.StrategyConfig;
+import com.gazbert.bxbot.strategy.api.StrategyException;
+import com.gazbert.bxbot.strategy.api.TradingStrategy;
+import com.gazbert.bxbot.trading.api.Market;
+import com.gazbert.bxbot.trading.api.TradingApi;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests the Parallel Strategy Executor behaves as expected.
+ *
+ * @author gazbert
+ */
+public class TestParallelStrategyExecutor {
+
+    private static final int THREAD_COUNT = 2;
+    private static final int TIMEOUT_IN_SECS = 1;
+
+    private ParallelStrategyExecutor executor;
+
+    @Before
+    public void setupForEachTest() {
+        executor = new ParallelStrategyExecutor(THREAD_COUNT, TIMEOUT_IN_SECS);
+    }
+
+    @After
+    public void tearDownAfterEachTest() {
+        executor.shutdown();
+    }
+
+    @Test
+    public void testAllStrategiesAreExecutedConcurrently() throws Exception {
+
+        // each strategy waits for the other - would deadlock (and time out) if executed sequentially
+        final CountDownLatch bothRunning = new CountDownLatch(2);
+        final CountingStrategy strategy1 = new CountingStrategy(() -> {
+            bothRunning.countDown();
+            awaitQuietly(bothRunning);
+        });
+        final CountingStrategy strategy2 = new CountingStrategy(() -> {
+            bothRunning.countDown();
+            awaitQuietly(bothRunning);
+        });
+
+        executor.execute(Arrays.asList(strategy1, strategy2));
+
+        assertEquals(1, strategy1.executions.get());
+        assertEquals(1, strategy2.executions.get());
+        assertEquals(0, bothRunning.getCount());
+    }
+
+    @Test
+    public void testStrategiesSubmittedToDifferentExecutorsRunConcurrently() throws Exception {
+
+        final ParallelStrategyExecutor otherExecutor = new ParallelStrategyExecutor("bxbot-strategy-other", 1,
+                TIMEOUT_IN_SECS);
+        try {
+            // the 1st strategy waits for the 2nd - would time out if the executors were waited on one at a time
+            final CountDownLatch otherStrategyRun = new CountDownLatch(1);
+            final CountDownLatch waitingStrategyFinished = new CountDownLatch(1);
+            final CountingStrategy waitingStrategy = new CountingStrategy(() -> {
+                awaitQuietly(otherStrategyRun);
+                waitingStrategyFinished.countDown();
+            });
+            final CountingStrategy otherStrategy = new CountingStrategy(otherStrategyRun::countDown);
+
+            final ParallelStrategyExecutor.CycleRun cycleRun = executor.submit(Collections.singletonList(waitingStrategy));
+            final ParallelStrategyExecutor.CycleRun otherCycleRun = otherExecutor.submit(
+                    Collections.singletonList(otherStrategy));
+            cycleRun.await();
+            assertEquals(0, waitingStrategyFinished.getCount());
+            otherCycleRun.await();
+
+            assertEquals(1, waitingStrategy.executions.get());
+            assertEquals(1, otherStrategy.executions.get());
+            assertEquals(0, otherStrategyRun.getCount());
+        } finally {
+            otherExecutor.shutdown();
+        }
+    }
+
+    @Test
+    public void testStrategyExceptionIsRethrown() throws Exception {
+
+        final StrategyException strategyException = new StrategyException("Not today!");
+        final CountingStrategy goodStrategy = new CountingStrategy(() -> {
+        });
+        final CountingStrategy badStrategy = new CountingStrategy(() -> {
+            throw strategyException;
+        });
+
+        try {
+            executor.execute(Arrays.asList(goodStrategy, badStrategy));
+            fail("Expected StrategyException to be thrown");
+        } catch (StrategyException e) {
+            assertSame(strategyException, e);
+        }
+
+        assertEquals(1, goodStrategy.executions.get());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testUnexpectedExceptionIsRethrownAsIs() throws Exception {
+
+        final CountingStrategy badStrategy = new CountingStrategy(() -> {
+            throw new IllegalStateException("Bang!");
+        });
+        executor.execute(Collections.singletonList(badStrategy));
+    }
+
+    @Test
+    public void testOverrunningStrategyIsNotExecutedAgainUntilItCompletes() throws Exception {
+
+        final CountDownLatch release = new CountDownLatch(1);
+        final CountDownLatch finished = new CountDownLatch(1);
+        final CountingStrategy slowStrategy = new CountingStrategy(() -> {
+            awaitQuietly(release);
+            finished.countDown();
+        });
+        final CountingStrategy fastStrategy = new CountingStrategy(() -> {
+        });
+
+        // 1st cycle - slow strategy times out, barrier still releases
+        final long start = System.nanoTime();
+        executor.execute(Arrays.asList(slowStrategy, fastStrategy));
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(TIMEOUT_IN_SECS + 2));
+
+        // 2nd cycle - slow strategy is still running so it is skipped
+        executor.execute(Arrays.asList(slowStrategy, fastStrategy));
+        assertEquals(1, slowStrategy.executions.get());
+        assertEquals(2, fastStrategy.executions.get());
+
+        // 3rd cycle - slow strategy has finished so it is executed again
+        release.countDown();
+        assertTrue(finished.await(TIMEOUT_IN_SECS, TimeUnit.SECONDS));
+        waitForWorkerToComplete();
+        executor.execute(Arrays.asList(slowStrategy, fastStrategy));
+        assertEquals(2, slowStrategy.executions.get());
+        assertEquals(3, fastStrategy.executions.get());
+    }
+
+    @Test
+    public void testFailureFromOverrunningStrategyIsReportedInNextCycle() throws Exception {
+
+        final CountDownLatch release = new CountDownLatch(1);
+        final CountDownLatch finished = new CountDownLatch(1);
+        final CountingStrategy slowStrategy = new CountingStrategy(() -> {
+            try {
+                awaitQuietly(release);
+                throw new StrategyException("Too slow and broken");
+            } finally {
+                finished.countDown();
+            }
+        });
+
+        executor.execute(Collections.singletonList(slowStrategy));
+
+        release.countDown();
+        assertTrue(finished.await(TIMEOUT_IN_SECS, TimeUnit.SECONDS));
+        waitForWorkerToComplete();
+
+        try {
+            executor.execute(Collections.singletonList(slowStrategy));
+            fail("Expected StrategyException to be thrown");
+        } catch (StrategyException e) {
+            assertEquals("Too slow and broken", e.getMessage());
+        }
+        assertEquals(1, slowStrategy.executions.get());
+    }
+
+    @Test
+    public void testStrategyWithItsOwnTimeoutIsGivenItToComplete() throws Exception {
+
+        final AtomicInteger completions = new AtomicInteger();
+        final CountingStrategy slowStrategy = new CountingStrategy(() -> {
+            sleepQuietly(TimeUnit.SECONDS.toMillis(TIMEOUT_IN_SECS) + 500);
+            completions.incrementAndGet();
+        });
+
+        // Would overrun the executor's timeout - completes within its own
+        executor.setTimeout(slowStrategy, TIMEOUT_IN_SECS + 2);
+        executor.execute(Collections.singletonList(slowStrategy));
+        assertEquals(1, completions.get());
+
+        // Back on the executor's timeout - overruns, and is skipped next cycle
+        executor.removeTimeout(slowStrategy);
+        executor.execute(Collections.singletonList(slowStrategy));
+        assertEquals(1, completions.get());
+        executor.execute(Collections.singletonList(slowStrategy));
+        assertEquals(2, slowStrategy.executions.get());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testZeroThreadCountIsRejected() {
+        new ParallelStrategyExecutor(0, TIMEOUT_IN_SECS);
+    }
+
+    // ------------------------------------------------------------------------------------------------
+    // Private utils
+    // ------------------------------------------------------------------------------------------------
+
+    /*
+     * The latch in the strategy is released just before the worker's future completes.
+     */
+    private static void waitForWorkerToComplete() throws InterruptedException {
+        Thread.sleep(100);
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void sleepQuietly(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private interface StrategyBody {
+        void run() throws StrategyException;
+    }
+
+    private static class CountingStrategy implements TradingStrategy {
+
+        private final AtomicInteger executions = new AtomicInteger();
+        private final StrategyBody body;
+
+        CountingStrategy(StrategyBody body) {
+            this.body = body;
+        }
+
+        @Override
+        public void init(TradingApi tradingApi, Market market, StrategyConfig config) {
+        }
+
+        @Override
+        public void execute() throws StrategyException {
+            executions.incrementAndGet();
+            body.run();
+        }
+    }
+}
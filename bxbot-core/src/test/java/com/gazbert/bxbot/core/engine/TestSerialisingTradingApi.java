@@ -0,0 +1,116 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+
+package com.gazbert.bxbot.core.engine;
+
+import com.gazbert.bxbot.trading.api.AsyncTradingApi;
+import com.gazbert.bxbot.trading.api.BalanceInfo;
+import com.gazbert.bxbot.trading.api.OpenOrder;
+import com.gazbert.bxbot.trading.api.TradingApi;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.easymock.EasyMock.createMock;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.replay;
+import static org.easymock.EasyMock.verify;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests the Serialising Trading API behaves as expected.
+ *
+ * @author gazbert
+ */
+public class TestSerialisingTradingApi {
+
+    private static final String MARKET_ID = "btcusd";
+
+    private TradingApi exchangeAdapter;
+    private AsyncTradingApi exchangeAdapterAsyncApi;
+    private SerialisingTradingApi serialisingTradingApi;
+
+    @Before
+    public void setupForEachTest() {
+        exchangeAdapter = createMock(TradingApi.class);
+        exchangeAdapterAsyncApi = createMock(AsyncTradingApi.class);
+        serialisingTradingApi = new SerialisingTradingApi(exchangeAdapter);
+    }
+
+    @Test
+    public void testAsyncAccountCallBlocksOtherAccountCallsUntilItCompletes() throws Exception {
+
+        final CompletableFuture<BalanceInfo> pendingBalanceInfo = new CompletableFuture<>();
+        final List<OpenOrder> openOrders = Collections.emptyList();
+
+        expect(exchangeAdapter.getAsyncTradingApi()).andReturn(exchangeAdapterAsyncApi);
+        expect(exchangeAdapterAsyncApi.getBalanceInfo()).andReturn(pendingBalanceInfo);
+        expect(exchangeAdapter.getYourOpenOrders(MARKET_ID)).andReturn(openOrders);
+        replay(exchangeAdapter, exchangeAdapterAsyncApi);
+
+        final CompletableFuture<BalanceInfo> balanceInfo = serialisingTradingApi.getAsyncTradingApi().getBalanceInfo();
+
+        final CompletableFuture<List<OpenOrder>> blockingCall = CompletableFuture.supplyAsync(() -> {
+            try {
+                return serialisingTradingApi.getYourOpenOrders(MARKET_ID);
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+
+        Thread.sleep(200);
+        assertFalse(blockingCall.isDone());
+
+        pendingBalanceInfo.complete(null);
+        assertSame(openOrders, blockingCall.get(5, TimeUnit.SECONDS));
+        assertTrue(balanceInfo.isDone());
+
+        verify(exchangeAdapter, exchangeAdapterAsyncApi);
+    }
+
+    @Test
+    public void testAsyncPublicCallIsPassedStraightThrough() throws Exception {
+
+        final CompletableFuture<BalanceInfo> pendingBalanceInfo = new CompletableFuture<>();
+        final CompletableFuture<BigDecimal> latestPrice = new CompletableFuture<>();
+
+        expect(exchangeAdapter.getAsyncTradingApi()).andReturn(exchangeAdapterAsyncApi).times(2);
+        expect(exchangeAdapterAsyncApi.getBalanceInfo()).andReturn(pendingBalanceInfo);
+        expect(exchangeAdapterAsyncApi.getLatestMarketPrice(MARKET_ID)).andReturn(latestPrice);
+        replay(exchangeAdapter, exchangeAdapterAsyncApi);
+
+        // An outstanding account call does not hold up market data calls
+        serialisingTradingApi.getAsyncTradingApi().getBalanceInfo();
+        assertSame(latestPrice, serialisingTradingApi.getAsyncTradingApi().getLatestMarketPrice(MARKET_ID));
+
+        verify(exchangeAdapter, exchangeAdapterAsyncApi);
+    }
+}
@@ -0,0 +1,267 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+
+package com.gazbert.bxbot.core.engine;
+
+import com.google.common.base.Ticker;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests the Trade Cycle Scheduler behaves as expected.
+ * <p>
+ * Time is controlled by a fake ticker; sleeping just moves the ticker on.
+ *
+ * @author gazbert
+ */
+public class TestTradeCycleScheduler {
+
+    private static final long PERIOD_NANOS = TimeUnit.SECONDS.toNanos(1);
+    private static final String FAST_MARKET = "btc_usd";
+    private static final String SLOW_MARKET = "ltc_btc";
+
+    private FakeTicker ticker;
+    private List<Long> sleeps;
+
+    @Before
+    public void setupForEachTest() {
+        ticker = new FakeTicker();
+        sleeps = new ArrayList<>();
+    }
+
+    @Test
+    public void testCycleExecutionTimeIsSubtractedFromSleep() throws Exception {
+
+        final TradeCycleScheduler<String> scheduler = createScheduler(MissedCyclePolicy.SKIP, 0);
+
+        scheduler.startCycle();
+        ticker.advanceMillis(300);
+        scheduler.awaitNextCycle();
+
+        assertEquals(1, sleeps.size());
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(700), (long) sleeps.get(0));
+
+        // next cycle starts exactly on schedule
+        scheduler.startCycle();
+        final TradeCycleStatistics statistics = scheduler.getStatistics();
+        assertEquals(2, statistics.getCycleCount());
+        assertEquals(0, statistics.getOverrunCount());
+        assertEquals(0, statistics.getLastJitterMillis());
+        assertEquals(300, statistics.getLastCycleDurationMillis());
+    }
+
+    @Test
+    public void testSkipPolicyDropsMissedCyclesAndWaitsForNextScheduledCycle() throws Exception {
+
+        final TradeCycleScheduler<String> scheduler = createScheduler(MissedCyclePolicy.SKIP, 0);
+
+        scheduler.startCycle();
+        ticker.advanceMillis(2500); // misses the cycles due at 1000ms and 2000ms
+        scheduler.awaitNextCycle();
+
+        assertEquals(1, sleeps.size());
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(500), (long) sleeps.get(0));
+
+        final TradeCycleStatistics statistics = scheduler.getStatistics();
+        assertEquals(1, statistics.getOverrunCount());
+        assertEquals(2, statistics.getMissedCycleCount());
+    }
+
+    @Test
+    public void testCoalescePolicyStartsNextCycleImmediately() throws Exception {
+
+        final TradeCycleScheduler<String> scheduler = createScheduler(MissedCyclePolicy.COALESCE, 0);
+
+        scheduler.startCycle();
+        ticker.advanceMillis(2500); // cycles due at 1000ms and 2000ms are merged into 1
+        scheduler.awaitNextCycle();
+
+        assertTrue(sleeps.isEmpty());
+
+        scheduler.startCycle();
+        final TradeCycleStatistics statistics = scheduler.getStatistics();
+        assertEquals(1, statistics.getOverrunCount());
+        assertEquals(1, statistics.getMissedCycleCount());
+        assertEquals(500, statistics.getLastJitterMillis()); // late compared to the 2000ms cycle
+
+        // back on the fixed rate
+        ticker.advanceMillis(100);
+        scheduler.awaitNextCycle();
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(400), (long) sleeps.get(0));
+    }
+
+    @Test
+    public void testJitterIsRecorded() throws Exception {
+
+        // the sleeper wakes up 20ms late every time
+        final TradeCycleScheduler<String> scheduler = createScheduler(MissedCyclePolicy.SKIP, 20);
+
+        for (int i = 0; i < 3; i++) {
+            scheduler.startCycle();
+            ticker.advanceMillis(100);
+            scheduler.awaitNextCycle();
+        }
+        scheduler.startCycle();
+
+        final TradeCycleStatistics statistics = scheduler.getStatistics();
+        assertEquals(4, statistics.getCycleCount());
+        assertEquals(20, statistics.getLastJitterMillis());
+        assertEquals(20, statistics.getMaxJitterMillis());
+        assertEquals(15.0, statistics.getMeanJitterMillis(), 0.001); // 1st cycle has no jitter
+    }
+
+    @Test
+    public void testMarketsAreOnlyReturnedWhenTheyAreDue() throws Exception {
+
+        final TradeCycleScheduler<String> scheduler = new TradeCycleScheduler<>(PERIOD_NANOS, MissedCyclePolicy.SKIP,
+                ticker, nanos -> {
+            sleeps.add(nanos);
+            ticker.advanceNanos(nanos);
+        });
+        scheduler.schedule(FAST_MARKET, FAST_MARKET, 1);
+        scheduler.schedule(SLOW_MARKET, SLOW_MARKET, 3);
+
+        // everything runs on the first cycle
+        assertEquals(Arrays.asList(FAST_MARKET, SLOW_MARKET), scheduler.startCycle());
+        ticker.advanceMillis(200);
+        scheduler.awaitNextCycle();
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(800), (long) sleeps.get(0));
+
+        assertEquals(Collections.singletonList(FAST_MARKET), scheduler.startCycle());
+        scheduler.awaitNextCycle();
+        assertEquals(Collections.singletonList(FAST_MARKET), scheduler.startCycle());
+        scheduler.awaitNextCycle();
+
+        // both due again at 3s - kept in the order they were scheduled
+        assertEquals(Arrays.asList(FAST_MARKET, SLOW_MARKET), scheduler.startCycle());
+        ticker.advanceMillis(1500); // only the 1s market overruns
+        scheduler.awaitNextCycle();
+
+        final TradeCycleStatistics statistics = scheduler.getStatistics();
+        assertEquals(4, statistics.getCycleCount());
+        assertEquals(1, statistics.getOverrunCount());
+        assertEquals(1, statistics.getMissedCycleCount());
+        assertEquals(0, statistics.getMaxJitterMillis());
+
+        // 1s market skipped its 4s cycle and is next due at 5s
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(500), (long) sleeps.get(sleeps.size() - 1));
+        assertEquals(Collections.singletonList(FAST_MARKET), scheduler.startCycle());
+        scheduler.awaitNextCycle();
+        assertEquals(Arrays.asList(FAST_MARKET, SLOW_MARKET), scheduler.startCycle());
+    }
+
+    @Test
+    public void testEmptyListReturnedWhenNothingIsScheduled() throws Exception {
+
+        final TradeCycleScheduler<String> scheduler = new TradeCycleScheduler<>(PERIOD_NANOS, MissedCyclePolicy.SKIP,
+                ticker, nanos -> {
+            sleeps.add(nanos);
+            ticker.advanceNanos(nanos);
+        });
+
+        assertTrue(scheduler.startCycle().isEmpty());
+        scheduler.awaitNextCycle();
+        assertEquals(PERIOD_NANOS, (long) sleeps.get(0));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidMarketTradeCycleIntervalIsRejected() {
+        createScheduler(MissedCyclePolicy.SKIP, 0).schedule("invalid", "invalid", 0);
+    }
+
+    @Test
+    public void testItemsCanBeScheduledAndUnscheduledBetweenCycles() throws Exception {
+
+        final TradeCycleScheduler<String> scheduler = createScheduler(MissedCyclePolicy.SKIP, 0);
+
+        assertEquals(Collections.singletonList(FAST_MARKET), scheduler.startCycle());
+        scheduler.awaitNextCycle();
+
+        // new items are due at the next cycle
+        scheduler.schedule(SLOW_MARKET, SLOW_MARKET, PERIOD_NANOS * 3);
+        assertEquals(Arrays.asList(FAST_MARKET, SLOW_MARKET), scheduler.startCycle());
+        scheduler.awaitNextCycle();
+
+        assertTrue(scheduler.unschedule(FAST_MARKET));
+        assertFalse(scheduler.unschedule(FAST_MARKET));
+
+        // only the slow market is left, so the scheduler sleeps until it is next due
+        scheduler.startCycle();
+        scheduler.awaitNextCycle();
+        assertEquals(Collections.singletonList(SLOW_MARKET), scheduler.startCycle());
+    }
+
+    @Test
+    public void testMissedCyclePolicyIsParsedFromConfig() {
+        assertEquals(MissedCyclePolicy.SKIP, MissedCyclePolicy.fromConfig(null));
+        assertEquals(MissedCyclePolicy.SKIP, MissedCyclePolicy.fromConfig("skip"));
+        assertEquals(MissedCyclePolicy.COALESCE, MissedCyclePolicy.fromConfig("coalesce"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnknownMissedCyclePolicyIsRejected() {
+        MissedCyclePolicy.fromConfig("catch-up");
+    }
+
+    // ------------------------------------------------------------------------------------------------
+    // Private utils
+    // ------------------------------------------------------------------------------------------------
+
+    private TradeCycleScheduler<String> createScheduler(MissedCyclePolicy policy, long lateWakeUpMillis) {
+        final TradeCycleScheduler<String> scheduler = new TradeCycleScheduler<>(PERIOD_NANOS, policy, ticker, nanos -> {
+            sleeps.add(nanos);
+            ticker.advanceNanos(nanos + TimeUnit.MILLISECONDS.toNanos(lateWakeUpMillis));
+        });
+        scheduler.schedule(FAST_MARKET, FAST_MARKET, PERIOD_NANOS);
+        return scheduler;
+    }
+
+    private static class FakeTicker extends Ticker {
+
+        private long nanos = TimeUnit.SECONDS.toNanos(1000);
+
+        @Override
+        public long read() {
+            return nanos;
+        }
+
+        void advanceMillis(long millis) {
+            nanos += TimeUnit.MILLISECONDS.toNanos(millis);
+        }
+
+        void advanceNanos(long delta) {
+            nanos += delta;
+        }
+    }
+}
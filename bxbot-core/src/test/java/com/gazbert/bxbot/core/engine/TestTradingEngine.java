@@ -25,7 +25,9 @@ package com.gazbert.bxbot.core.engine;
 
 import com.gazbert.bxbot.core.mail.EmailAlerter;
 import com.gazbert.bxbot.core.util.ConfigurableComponentFactory;
+import com.gazbert.bxbot.core.engine.TradingApiCacheStatistics.CachedCall;
 import com.gazbert.bxbot.domain.engine.EngineConfig;
+import com.gazbert.bxbot.domain.engine.TradingApiCacheConfig;
 import com.gazbert.bxbot.domain.exchange.AuthenticationConfig;
 import com.gazbert.bxbot.domain.exchange.NetworkConfig;
 import com.gazbert.bxbot.domain.exchange.OptionalConfig;
@@ -33,6 +35,9 @@ import com.gazbert.bxbot.domain.market.MarketConfig;
 import com.gazbert.bxbot.domain.strategy.StrategyConfig;
 import com.gazbert.bxbot.exchange.api.ExchangeAdapter;
 import com.gazbert.bxbot.exchange.api.ExchangeConfig;
+import com.gazbert.bxbot.services.ConfigChangedEvent;
+import com.gazbert.bxbot.services.ConfigChangedEvent.ChangeType;
+import com.gazbert.bxbot.services.ConfigChangedEvent.ConfigType;
 import com.gazbert.bxbot.services.EngineConfigService;
 import com.gazbert.bxbot.services.ExchangeConfigService;
 import com.gazbert.bxbot.services.MarketConfigService;
@@ -42,7 +47,12 @@ import com.gazbert.bxbot.strategy.api.TradingStrategy;
 import com.gazbert.bxbot.trading.api.BalanceInfo;
 import com.gazbert.bxbot.trading.api.ExchangeNetworkException;
 import com.gazbert.bxbot.trading.api.Market;
+import com.gazbert.bxbot.trading.api.TradingApi;
 import com.gazbert.bxbot.trading.api.TradingApiException;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import org.easymock.Capture;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -56,10 +66,14 @@ import java.text.DecimalFormat;
 import java.util.*;
 import java.util.concurrent.Executor;
 import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static junit.framework.TestCase.assertTrue;
 import static org.easymock.EasyMock.*;
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 
 /**
  * Tests the behaviour of the Trading Engine is as expected.
@@ -80,6 +94,7 @@ public class TestTradingEngine {
     // Might need to tweak these for diff chips/OS/architectures
     private static final int STATE_CHANGE_WAIT_INTERVAL_IN_SECS = 1;
     private static final int NUMBER_OF_TRADE_CYCLES = 5;
+    private static final int CONFIG_CHANGE_TRADE_CYCLES = 3;
 
     private enum EngineState {
         RUNNING,
@@ -91,6 +106,7 @@ public class TestTradingEngine {
 
     // Exchange Adapter config
     private static final String EXCHANGE_ADAPTER_IMPL_CLASS = "com.my.adapters.DummyBitstampExchangeAdapter";
+    private static final String EXCHANGE_ID = "bitstamp";
     private static final String EXCHANGE_NAME = "Bitstamp";
     private static final Integer EXCHANGE_ADAPTER_NETWORK_TIMEOUT = Integer.valueOf("30");
     private static final List<Integer> EXCHANGE_ADAPTER_NONFATAL_ERROR_CODES = Arrays.asList(502, 503, 504);
@@ -102,11 +118,17 @@ public class TestTradingEngine {
     private static final String EXCHANGE_ADAPTER_AUTHENTICATION_CONFIG_ITEM_VALUE = "myKey123";
     private static final String EXCHANGE_ADAPTER_OTHER_CONFIG_ITEM_NAME = "sell-fee";
     private static final String EXCHANGE_ADAPTER_OTHER_CONFIG_ITEM_VALUE = "0.25";
+    private static final String OTHER_EXCHANGE_ADAPTER_IMPL_CLASS = "com.my.adapters.DummyKrakenExchangeAdapter";
+    private static final String OTHER_EXCHANGE_ID = "kraken";
+    private static final String OTHER_EXCHANGE_NAME = "Kraken";
 
     // Engine config
     private static final String ENGINE_EMERGENCY_STOP_CURRENCY = "BTC";
     private static final BigDecimal ENGINE_EMERGENCY_STOP_BALANCE = new BigDecimal("0.5");
     private static final int ENGINE_TRADE_CYCLE_INTERVAL = 1; // unrealistic, but 1 second speeds up tests ;-)
+    private static final Integer ENGINE_STRATEGY_EXECUTION_THREADS = 2;
+    private static final Integer ENGINE_STRATEGY_EXECUTION_TIMEOUT = 1;
+    private static final Integer ENGINE_BALANCE_INFO_CACHE_TTL = 60;
 
     // Strategies config
     private static final String STRATEGY_ID = "MyMacdStrategy_v3";
@@ -123,6 +145,13 @@ public class TestTradingEngine {
     private static final String MARKET_BASE_CURRENCY = "BTC";
     private static final String MARKET_COUNTER_CURRENCY = "USD";
     private static final boolean MARKET_IS_ENABLED = true;
+    private static final String NEW_MARKET_NAME = "LTC/USD";
+    private static final String NEW_MARKET_ID = "ltc_usd";
+    private static final String NEW_MARKET_BASE_CURRENCY = "LTC";
+    private static final String OTHER_EXCHANGE_MARKET_NAME = "BTC/EUR";
+    private static final String OTHER_EXCHANGE_MARKET_ID = "kraken_btc_eur";
+    private static final String OTHER_EXCHANGE_MARKET_COUNTER_CURRENCY = "EUR";
+    private static final String UNKNOWN_EXCHANGE_ID = "unknown-exchange";
 
     // Mocks used by all tests
     private ExchangeAdapter exchangeAdapter;
@@ -260,11 +289,14 @@ public class TestTradingEngine {
 
         waitForEngineStateChange(tradingEngine, EngineState.RUNNING, NUMBER_OF_TRADE_CYCLES);
         assertTrue(tradingEngine.isRunning());
+        assertNotNull(Metrics.globalRegistry.find(TradingEngine.TRADE_CYCLE_JITTER_TIMER_NAME).timer());
+        assertNotNull(Metrics.globalRegistry.find(TradingEngine.TRADE_CYCLE_OVERRUNS_COUNTER_NAME).functionCounter());
 
         tradingEngine.shutdown();
 
         waitForEngineStateChange(tradingEngine, EngineState.SHUTDOWN, NUMBER_OF_TRADE_CYCLES);
         assertFalse(tradingEngine.isRunning());
+        assertNull(Metrics.globalRegistry.find(TradingEngine.TRADE_CYCLE_OVERRUNS_COUNTER_NAME).functionCounter());
 
         PowerMock.verifyAll();
     }
@@ -485,6 +517,423 @@ public class TestTradingEngine {
         PowerMock.verifyAll();
     }
 
+    /*
+     * Tests the engine executes the strategies in parallel mode, and still shuts down when it receives a
+     * StrategyException from the Trading Strategy.
+     */
+    @Test
+    public void testEngineShutsDownWhenItReceivesStrategyExceptionFromTradingStrategyExecutedInParallel()
+            throws Exception {
+
+        setupConfigLoadingExpectationsForParallelExecution();
+
+        final String exceptionErrorMsg = "Eeek! My strat just broke on a worker thread. Please shutdown!";
+        final Map<String, BigDecimal> balancesAvailable = new HashMap<>();
+        // balance limit NOT breached for BTC
+        balancesAvailable.put(ENGINE_EMERGENCY_STOP_CURRENCY, new BigDecimal("0.5"));
+        final BalanceInfo balanceInfo = PowerMock.createMock(BalanceInfo.class);
+
+        // expect 1st trade cycle to be successful
+        expect(exchangeAdapter.getBalanceInfo()).andReturn(balanceInfo);
+        expect(balanceInfo.getBalancesAvailable()).andReturn(balancesAvailable);
+        tradingStrategy.execute();
+
+        // expect StrategyException in 2nd trade cycle
+        expect(exchangeAdapter.getBalanceInfo()).andReturn(balanceInfo);
+        expect(balanceInfo.getBalancesAvailable()).andReturn(balancesAvailable);
+        tradingStrategy.execute();
+        expectLastCall().andThrow(new StrategyException(exceptionErrorMsg));
+
+        // expect Email Alert to be sent
+        emailAlerter.sendMessage(eq(CRITICAL_EMAIL_ALERT_SUBJECT), contains("A FATAL error has occurred in Trading" +
+                " Strategy! Details: " + exceptionErrorMsg));
+
+        PowerMock.replayAll();
+
+        final TradingEngine tradingEngine = new TradingEngine(exchangeConfigService, engineConfigService,
+                strategyConfigService, marketConfigService, emailAlerter);
+
+        tradingEngine.start();
+
+        waitForEngineStateChange(tradingEngine, EngineState.SHUTDOWN, NUMBER_OF_TRADE_CYCLES);
+        assertFalse(tradingEngine.isRunning());
+
+        PowerMock.verifyAll();
+    }
+
+    /*
+     * Tests the engine shares the Emergency Stop check's balance info with the Trading Strategy when the Trading API
+     * cache is enabled, and clears the cache at the start of every trade cycle.
+     */
+    @Test
+    public void testEngineSharesCachedBalanceInfoWithTradingStrategyWhenCacheIsEnabled() throws Exception {
+
+        final Capture<TradingApi> strategyTradingApi = newCapture();
+        setupExchangeAdapterConfigExpectations();
+        expect(engineConfigService.getEngineConfig()).andReturn(someEngineConfigWithTradingApiCache());
+        expect(strategyConfigService.getAllStrategyConfig()).andReturn(allTheStrategiesConfig());
+        expect(marketConfigService.getAllMarketConfig()).andReturn(allTheMarketsConfig());
+        expect(ConfigurableComponentFactory.createComponent(STRATEGY_IMPL_CLASS)).andReturn(tradingStrategy);
+        tradingStrategy.init(capture(strategyTradingApi), anyObject(Market.class),
+                anyObject(com.gazbert.bxbot.strategy.api.StrategyConfig.class));
+
+        final String exceptionErrorMsg = "Eeek! My strat just broke. Please shutdown!";
+        final Map<String, BigDecimal> balancesAvailable = new HashMap<>();
+        // balance limit NOT breached for BTC
+        balancesAvailable.put(ENGINE_EMERGENCY_STOP_CURRENCY, new BigDecimal("0.5"));
+        final BalanceInfo balanceInfo = PowerMock.createMock(BalanceInfo.class);
+
+        // expect only the Emergency Stop check to fetch BalanceInfo from the exchange - once per trade cycle
+        expect(exchangeAdapter.getBalanceInfo()).andReturn(balanceInfo).times(2);
+        expect(balanceInfo.getBalancesAvailable()).andReturn(balancesAvailable).times(2);
+
+        // expect the strategy's BalanceInfo to come from the cache in both trade cycles
+        tradingStrategy.execute();
+        expectLastCall().andAnswer(() -> {
+            assertEquals(balanceInfo, strategyTradingApi.getValue().getBalanceInfo());
+            return null;
+        });
+        tradingStrategy.execute();
+        expectLastCall().andAnswer(() -> {
+            assertEquals(balanceInfo, strategyTradingApi.getValue().getBalanceInfo());
+            assertEquals(2, findCacheCounter(TradingEngine.TRADING_API_CACHE_HITS_COUNTER_NAME).count(), 0);
+            assertEquals(2, findCacheCounter(TradingEngine.TRADING_API_CACHE_MISSES_COUNTER_NAME).count(), 0);
+            throw new StrategyException(exceptionErrorMsg);
+        });
+
+        // expect Email Alert to be sent
+        emailAlerter.sendMessage(eq(CRITICAL_EMAIL_ALERT_SUBJECT), contains("A FATAL error has occurred in Trading" +
+                " Strategy! Details: " + exceptionErrorMsg));
+
+        PowerMock.replayAll();
+
+        final TradingEngine tradingEngine = new TradingEngine(exchangeConfigService, engineConfigService,
+                strategyConfigService, marketConfigService, emailAlerter);
+
+        tradingEngine.start();
+
+        waitForEngineStateChange(tradingEngine, EngineState.SHUTDOWN, NUMBER_OF_TRADE_CYCLES);
+        assertFalse(tradingEngine.isRunning());
+
+        assertNull(findCacheCounter(TradingEngine.TRADING_API_CACHE_HITS_COUNTER_NAME));
+
+        PowerMock.verifyAll();
+    }
+
+    /*
+     * Tests the engine starts trading a new Market when the Market config changes, and leaves the Trading Strategy
+     * for the existing Market running without re-initialising it.
+     */
+    @Test
+    public void testEngineStartsTradingNewMarketWhenMarketConfigChanges() throws Exception {
+
+        setupConfigLoadingExpectations();
+
+        final Map<String, BigDecimal> balancesAvailable = new HashMap<>();
+        // balance limit NOT breached for BTC
+        balancesAvailable.put(ENGINE_EMERGENCY_STOP_CURRENCY, new BigDecimal("0.5"));
+
+        // expect BalanceInfo to be fetched using Trading API
+        final BalanceInfo balanceInfo = PowerMock.createMock(BalanceInfo.class);
+        expect(exchangeAdapter.getBalanceInfo()).andReturn(balanceInfo).atLeastOnce();
+        expect(balanceInfo.getBalancesAvailable()).andReturn(balancesAvailable).atLeastOnce();
+
+        // expect the changed config to be fetched and only the new Market's Trading Strategy to be initialised
+        final List<MarketConfig> changedMarkets = allTheMarketsConfig();
+        changedMarkets.add(new MarketConfig(NEW_MARKET_ID, NEW_MARKET_NAME, NEW_MARKET_BASE_CURRENCY,
+                MARKET_COUNTER_CURRENCY, MARKET_IS_ENABLED, STRATEGY_ID));
+        expect(strategyConfigService.getAllStrategyConfig()).andReturn(allTheStrategiesConfig());
+        expect(marketConfigService.getAllMarketConfig()).andReturn(changedMarkets);
+
+        final TradingStrategy newTradingStrategy = PowerMock.createMock(TradingStrategy.class);
+        expect(ConfigurableComponentFactory.createComponent(STRATEGY_IMPL_CLASS)).andReturn(newTradingStrategy);
+        newTradingStrategy.init(isA(MeteredTradingApi.class), anyObject(Market.class), anyObject(com.gazbert.bxbot.strategy.api.StrategyConfig.class));
+
+        // expect both Trading Strategies to be invoked
+        tradingStrategy.execute();
+        expectLastCall().atLeastOnce();
+        newTradingStrategy.execute();
+        expectLastCall().atLeastOnce();
+
+        PowerMock.replayAll();
+
+        final TradingEngine tradingEngine = new TradingEngine(exchangeConfigService, engineConfigService,
+                strategyConfigService, marketConfigService, emailAlerter);
+
+        final Executor executor = Executors.newSingleThreadExecutor();
+        executor.execute(tradingEngine::start);
+
+        waitForEngineStateChange(tradingEngine, EngineState.RUNNING, NUMBER_OF_TRADE_CYCLES);
+        assertTrue(tradingEngine.isRunning());
+
+        tradingEngine.onConfigChanged(new ConfigChangedEvent(this, ConfigType.MARKET, ChangeType.CREATED, NEW_MARKET_ID));
+        waitForTradeCycles(CONFIG_CHANGE_TRADE_CYCLES);
+        assertTrue(tradingEngine.isRunning());
+
+        tradingEngine.shutdown();
+
+        waitForEngineStateChange(tradingEngine, EngineState.SHUTDOWN, NUMBER_OF_TRADE_CYCLES);
+        assertFalse(tradingEngine.isRunning());
+
+        PowerMock.verifyAll();
+    }
+
+    /*
+     * Tests the engine removes a Market's Trading Strategy execution Timer when the Market stops being traded.
+     */
+    @Test
+    public void testEngineRemovesStrategyExecutionTimerWhenMarketIsDisabled() throws Exception {
+
+        setupConfigLoadingExpectations();
+
+        final Map<String, BigDecimal> balancesAvailable = new HashMap<>();
+        // balance limit NOT breached for BTC
+        balancesAvailable.put(ENGINE_EMERGENCY_STOP_CURRENCY, new BigDecimal("0.5"));
+
+        // expect BalanceInfo to be fetched using Trading API
+        final BalanceInfo balanceInfo = PowerMock.createMock(BalanceInfo.class);
+        expect(exchangeAdapter.getBalanceInfo()).andReturn(balanceInfo).atLeastOnce();
+        expect(balanceInfo.getBalancesAvailable()).andReturn(balancesAvailable).atLeastOnce();
+
+        // the changed config disables the only Market
+        final List<MarketConfig> changedMarkets = allTheMarketsConfig();
+        changedMarkets.get(0).setEnabled(false);
+        expect(strategyConfigService.getAllStrategyConfig()).andReturn(allTheStrategiesConfig());
+        expect(marketConfigService.getAllMarketConfig()).andReturn(changedMarkets);
+
+        tradingStrategy.execute();
+        expectLastCall().atLeastOnce();
+
+        PowerMock.replayAll();
+
+        final TradingEngine tradingEngine = new TradingEngine(exchangeConfigService, engineConfigService,
+                strategyConfigService, marketConfigService, emailAlerter);
+
+        final Executor executor = Executors.newSingleThreadExecutor();
+        executor.execute(tradingEngine::start);
+
+        waitForEngineStateChange(tradingEngine, EngineState.RUNNING, NUMBER_OF_TRADE_CYCLES);
+        assertTrue(tradingEngine.isRunning());
+        assertNotNull(findStrategyExecutionTimer());
+
+        tradingEngine.onConfigChanged(new ConfigChangedEvent(this, ConfigType.MARKET, ChangeType.UPDATED, MARKET_ID));
+        waitForTradeCycles(CONFIG_CHANGE_TRADE_CYCLES);
+        assertTrue(tradingEngine.isRunning());
+        assertNull(findStrategyExecutionTimer());
+
+        tradingEngine.shutdown();
+
+        waitForEngineStateChange(tradingEngine, EngineState.SHUTDOWN, NUMBER_OF_TRADE_CYCLES);
+        assertFalse(tradingEngine.isRunning());
+
+        PowerMock.verifyAll();
+    }
+
+    /*
+     * Tests the engine rejects invalid config changes and keeps trading with the current config.
+     */
+    @Test
+    public void testEngineKeepsTradingWithCurrentConfigWhenChangedConfigIsInvalid() throws Exception {
+
+        setupConfigLoadingExpectations();
+
+        final Map<String, BigDecimal> balancesAvailable = new HashMap<>();
+        // balance limit NOT breached for BTC
+        balancesAvailable.put(ENGINE_EMERGENCY_STOP_CURRENCY, new BigDecimal("0.5"));
+
+        // expect BalanceInfo to be fetched using Trading API
+        final BalanceInfo balanceInfo = PowerMock.createMock(BalanceInfo.class);
+        expect(exchangeAdapter.getBalanceInfo()).andReturn(balanceInfo).atLeastOnce();
+        expect(balanceInfo.getBalancesAvailable()).andReturn(balancesAvailable).atLeastOnce();
+
+        // the changed Market refers to a Strategy that does not exist - no Trading Strategies should be created
+        final List<MarketConfig> changedMarkets = allTheMarketsConfig();
+        changedMarkets.get(0).setTradingStrategyId("unknown-strategy");
+        expect(strategyConfigService.getAllStrategyConfig()).andReturn(allTheStrategiesConfig());
+        expect(marketConfigService.getAllMarketConfig()).andReturn(changedMarkets);
+
+        // expect the existing Trading Strategy to keep being invoked
+        tradingStrategy.execute();
+        expectLastCall().atLeastOnce();
+
+        PowerMock.replayAll();
+
+        final TradingEngine tradingEngine = new TradingEngine(exchangeConfigService, engineConfigService,
+                strategyConfigService, marketConfigService, emailAlerter);
+
+        final Executor executor = Executors.newSingleThreadExecutor();
+        executor.execute(tradingEngine::start);
+
+        waitForEngineStateChange(tradingEngine, EngineState.RUNNING, NUMBER_OF_TRADE_CYCLES);
+        assertTrue(tradingEngine.isRunning());
+
+        tradingEngine.onConfigChanged(new ConfigChangedEvent(this, ConfigType.MARKET, ChangeType.UPDATED, MARKET_ID));
+        waitForTradeCycles(CONFIG_CHANGE_TRADE_CYCLES);
+        assertTrue(tradingEngine.isRunning());
+
+        tradingEngine.shutdown();
+
+        waitForEngineStateChange(tradingEngine, EngineState.SHUTDOWN, NUMBER_OF_TRADE_CYCLES);
+        assertFalse(tradingEngine.isRunning());
+
+        PowerMock.verifyAll();
+    }
+
+    /*
+     * Tests the engine keeps trading a Market with its current Trading Strategy when the changed Strategy config
+     * refers to a class that cannot be loaded.
+     */
+    @Test
+    public void testEngineKeepsCurrentTradingStrategyWhenChangedStrategyCannotBeCreated() throws Exception {
+
+        setupConfigLoadingExpectations();
+
+        final Map<String, BigDecimal> balancesAvailable = new HashMap<>();
+        // balance limit NOT breached for BTC
+        balancesAvailable.put(ENGINE_EMERGENCY_STOP_CURRENCY, new BigDecimal("0.5"));
+
+        // expect BalanceInfo to be fetched using Trading API
+        final BalanceInfo balanceInfo = PowerMock.createMock(BalanceInfo.class);
+        expect(exchangeAdapter.getBalanceInfo()).andReturn(balanceInfo).atLeastOnce();
+        expect(balanceInfo.getBalancesAvailable()).andReturn(balancesAvailable).atLeastOnce();
+
+        // the changed Strategy refers to a class that does not exist
+        final String unknownStrategyClass = "com.my.strats.UnknownStrategy";
+        final List<StrategyConfig> changedStrategies = allTheStrategiesConfig();
+        changedStrategies.get(0).setClassName(unknownStrategyClass);
+        expect(strategyConfigService.getAllStrategyConfig()).andReturn(changedStrategies);
+        expect(marketConfigService.getAllMarketConfig()).andReturn(allTheMarketsConfig());
+        expect(ConfigurableComponentFactory.createComponent(unknownStrategyClass))
+                .andThrow(new IllegalStateException("Failed to load and initialise class: " + unknownStrategyClass));
+
+        // expect the existing Trading Strategy to keep being invoked
+        final AtomicInteger executions = new AtomicInteger();
+        tradingStrategy.execute();
+        expectLastCall().andAnswer(() -> {
+            executions.incrementAndGet();
+            return null;
+        }).atLeastOnce();
+
+        PowerMock.replayAll();
+
+        final TradingEngine tradingEngine = new TradingEngine(exchangeConfigService, engineConfigService,
+                strategyConfigService, marketConfigService, emailAlerter);
+
+        final Executor executor = Executors.newSingleThreadExecutor();
+        executor.execute(tradingEngine::start);
+
+        waitForEngineStateChange(tradingEngine, EngineState.RUNNING, NUMBER_OF_TRADE_CYCLES);
+        assertTrue(tradingEngine.isRunning());
+
+        tradingEngine.onConfigChanged(new ConfigChangedEvent(this, ConfigType.STRATEGY, ChangeType.UPDATED, STRATEGY_ID));
+        waitForTradeCycles(CONFIG_CHANGE_TRADE_CYCLES);
+        final int executionsAfterConfigChange = executions.get();
+        waitForTradeCycles(CONFIG_CHANGE_TRADE_CYCLES);
+        assertTrue(tradingEngine.isRunning());
+        assertTrue(executions.get() > executionsAfterConfigChange);
+
+        tradingEngine.shutdown();
+
+        waitForEngineStateChange(tradingEngine, EngineState.SHUTDOWN, NUMBER_OF_TRADE_CYCLES);
+        assertFalse(tradingEngine.isRunning());
+
+        PowerMock.verifyAll();
+    }
+
+    /*
+     * Tests the engine trades each Market on the Exchange it references, and keeps trading on the other Exchanges when
+     * one of them has a network error.
+     */
+    @Test
+    public void testEngineKeepsTradingOnOtherExchangesWhenOneExchangeHasNetworkError() throws Exception {
+
+        final ExchangeAdapter otherExchangeAdapter = PowerMock.createMock(ExchangeAdapter.class);
+        final TradingStrategy otherTradingStrategy = PowerMock.createMock(TradingStrategy.class);
+
+        expect(exchangeConfigService.getAllExchangeConfig()).andReturn(
+                Arrays.asList(someExchangeConfig(), someOtherExchangeConfig()));
+        expect(ConfigurableComponentFactory.createComponent(EXCHANGE_ADAPTER_IMPL_CLASS)).andReturn(exchangeAdapter);
+        expect(exchangeAdapter.getImplName()).andReturn(EXCHANGE_NAME);
+        exchangeAdapter.init(anyObject(ExchangeConfig.class));
+        expect(ConfigurableComponentFactory.createComponent(OTHER_EXCHANGE_ADAPTER_IMPL_CLASS)).andReturn(otherExchangeAdapter);
+        expect(otherExchangeAdapter.getImplName()).andReturn(OTHER_EXCHANGE_NAME);
+        otherExchangeAdapter.init(anyObject(ExchangeConfig.class));
+        setupEngineConfigExpectations();
+
+        // the 2nd Market is traded on the other Exchange
+        final List<MarketConfig> markets = allTheMarketsConfig();
+        final MarketConfig otherExchangeMarket = new MarketConfig(OTHER_EXCHANGE_MARKET_ID, OTHER_EXCHANGE_MARKET_NAME,
+                MARKET_BASE_CURRENCY, OTHER_EXCHANGE_MARKET_COUNTER_CURRENCY, MARKET_IS_ENABLED, STRATEGY_ID);
+        otherExchangeMarket.setExchangeId(OTHER_EXCHANGE_ID);
+        markets.add(otherExchangeMarket);
+        expect(strategyConfigService.getAllStrategyConfig()).andReturn(allTheStrategiesConfig());
+        expect(marketConfigService.getAllMarketConfig()).andReturn(markets);
+
+        // strategies are given a wrapper around their Exchange Adapter when there's more than 1 Exchange
+        expect(ConfigurableComponentFactory.createComponent(STRATEGY_IMPL_CLASS)).andReturn(tradingStrategy);
+        tradingStrategy.init(anyObject(TradingApi.class), anyObject(Market.class), anyObject(com.gazbert.bxbot.strategy.api.StrategyConfig.class));
+        expect(ConfigurableComponentFactory.createComponent(STRATEGY_IMPL_CLASS)).andReturn(otherTradingStrategy);
+        otherTradingStrategy.init(anyObject(TradingApi.class), anyObject(Market.class), anyObject(com.gazbert.bxbot.strategy.api.StrategyConfig.class));
+
+        // the default Exchange can't be reached, so its Trading Strategy is never invoked
+        expect(exchangeAdapter.getBalanceInfo()).andThrow(
+                new ExchangeNetworkException("Connection refused")).atLeastOnce();
+
+        // expect the other Exchange to keep trading
+        final Map<String, BigDecimal> balancesAvailable = new HashMap<>();
+        // balance limit NOT breached for BTC
+        balancesAvailable.put(ENGINE_EMERGENCY_STOP_CURRENCY, new BigDecimal("0.5"));
+        final BalanceInfo balanceInfo = PowerMock.createMock(BalanceInfo.class);
+        expect(otherExchangeAdapter.getBalanceInfo()).andReturn(balanceInfo).atLeastOnce();
+        expect(balanceInfo.getBalancesAvailable()).andReturn(balancesAvailable).atLeastOnce();
+        otherTradingStrategy.execute();
+        expectLastCall().atLeastOnce();
+
+        PowerMock.replayAll();
+
+        final TradingEngine tradingEngine = new TradingEngine(exchangeConfigService, engineConfigService,
+                strategyConfigService, marketConfigService, emailAlerter);
+
+        final Executor executor = Executors.newSingleThreadExecutor();
+        executor.execute(tradingEngine::start);
+
+        waitForEngineStateChange(tradingEngine, EngineState.RUNNING, NUMBER_OF_TRADE_CYCLES);
+        assertTrue(tradingEngine.isRunning());
+
+        waitForTradeCycles(CONFIG_CHANGE_TRADE_CYCLES);
+        assertTrue(tradingEngine.isRunning());
+
+        tradingEngine.shutdown();
+
+        waitForEngineStateChange(tradingEngine, EngineState.SHUTDOWN, NUMBER_OF_TRADE_CYCLES);
+        assertFalse(tradingEngine.isRunning());
+
+        PowerMock.verifyAll();
+    }
+
+    /*
+     * Tests the engine won't start if a Market references an Exchange that does not exist.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testEngineCannotBeStartedWhenMarketReferencesUnknownExchange() throws Exception {
+
+        setupExchangeAdapterConfigExpectations();
+        setupEngineConfigExpectations();
+
+        final List<MarketConfig> markets = allTheMarketsConfig();
+        markets.get(0).setExchangeId(UNKNOWN_EXCHANGE_ID);
+        expect(strategyConfigService.getAllStrategyConfig()).andReturn(allTheStrategiesConfig());
+        expect(marketConfigService.getAllMarketConfig()).andReturn(markets);
+
+        PowerMock.replayAll();
+
+        final TradingEngine tradingEngine = new TradingEngine(exchangeConfigService, engineConfigService,
+                strategyConfigService, marketConfigService, emailAlerter);
+        tradingEngine.start();
+
+        PowerMock.verifyAll();
+    }
+
     /*
      * Tests the engine cannot be started more than once.
      */
@@ -527,7 +976,7 @@ public class TestTradingEngine {
     // ------------------------------------------------------------------------------------------------
 
     private void setupExchangeAdapterConfigExpectations() {
-        expect(exchangeConfigService.getExchangeConfig()).andReturn(someExchangeConfig());
+        expect(exchangeConfigService.getAllExchangeConfig()).andReturn(Collections.singletonList(someExchangeConfig()));
         expect(ConfigurableComponentFactory.createComponent(EXCHANGE_ADAPTER_IMPL_CLASS)).andReturn(exchangeAdapter);
         expect(exchangeAdapter.getImplName()).andReturn(EXCHANGE_NAME);
         exchangeAdapter.init(anyObject(ExchangeConfig.class));
@@ -545,7 +994,7 @@ public class TestTradingEngine {
         expect(strategyConfigService.getAllStrategyConfig()).andReturn(allTheStrategiesConfig());
         expect(marketConfigService.getAllMarketConfig()).andReturn(allTheMarketsConfig());
         expect(ConfigurableComponentFactory.createComponent(STRATEGY_IMPL_CLASS)).andReturn(tradingStrategy);
-        tradingStrategy.init(eq(exchangeAdapter), anyObject(Market.class), anyObject(com.gazbert.bxbot.strategy.api.StrategyConfig.class));
+        tradingStrategy.init(isA(MeteredTradingApi.class), anyObject(Market.class), anyObject(com.gazbert.bxbot.strategy.api.StrategyConfig.class));
     }
 
     private void setupConfigLoadingExpectations() {
@@ -554,6 +1003,16 @@ public class TestTradingEngine {
         setupStrategyAndMarketConfigExpectations();
     }
 
+    private void setupConfigLoadingExpectationsForParallelExecution() {
+        setupExchangeAdapterConfigExpectations();
+        expect(engineConfigService.getEngineConfig()).andReturn(someEngineConfigForParallelExecution());
+        expect(strategyConfigService.getAllStrategyConfig()).andReturn(allTheStrategiesConfig());
+        expect(marketConfigService.getAllMarketConfig()).andReturn(allTheMarketsConfig());
+        expect(ConfigurableComponentFactory.createComponent(STRATEGY_IMPL_CLASS)).andReturn(tradingStrategy);
+        // strategies are given a wrapper around the Exchange Adapter in parallel mode
+        tradingStrategy.init(anyObject(TradingApi.class), anyObject(Market.class), anyObject(com.gazbert.bxbot.strategy.api.StrategyConfig.class));
+    }
+
     private void setupConfigLoadingExpectationsForNoEmergencyStopCheck() {
         setupExchangeAdapterConfigExpectations();
         setupEngineConfigForNoEmergencyStopCheckExpectations();
@@ -575,6 +1034,7 @@ public class TestTradingEngine {
         optionalConfig.getItems().put(EXCHANGE_ADAPTER_OTHER_CONFIG_ITEM_NAME, EXCHANGE_ADAPTER_OTHER_CONFIG_ITEM_VALUE);
 
         final com.gazbert.bxbot.domain.exchange.ExchangeConfig exchangeConfig = new com.gazbert.bxbot.domain.exchange.ExchangeConfig();
+        exchangeConfig.setId(EXCHANGE_ID);
         exchangeConfig.setAuthenticationConfig(authenticationConfig);
         exchangeConfig.setExchangeName(EXCHANGE_NAME);
         exchangeConfig.setExchangeAdapter(EXCHANGE_ADAPTER_IMPL_CLASS);
@@ -584,6 +1044,14 @@ public class TestTradingEngine {
         return exchangeConfig;
     }
 
+    private static com.gazbert.bxbot.domain.exchange.ExchangeConfig someOtherExchangeConfig() {
+        final com.gazbert.bxbot.domain.exchange.ExchangeConfig exchangeConfig = someExchangeConfig();
+        exchangeConfig.setId(OTHER_EXCHANGE_ID);
+        exchangeConfig.setExchangeName(OTHER_EXCHANGE_NAME);
+        exchangeConfig.setExchangeAdapter(OTHER_EXCHANGE_ADAPTER_IMPL_CLASS);
+        return exchangeConfig;
+    }
+
     private static EngineConfig someEngineConfig() {
         final EngineConfig engineConfig = new EngineConfig();
         engineConfig.setEmergencyStopCurrency(ENGINE_EMERGENCY_STOP_CURRENCY);
@@ -592,6 +1060,22 @@ public class TestTradingEngine {
         return engineConfig;
     }
 
+    private static EngineConfig someEngineConfigForParallelExecution() {
+        final EngineConfig engineConfig = someEngineConfig();
+        engineConfig.setStrategyExecutionThreads(ENGINE_STRATEGY_EXECUTION_THREADS);
+        engineConfig.setStrategyExecutionTimeout(ENGINE_STRATEGY_EXECUTION_TIMEOUT);
+        return engineConfig;
+    }
+
+    private static EngineConfig someEngineConfigWithTradingApiCache() {
+        final TradingApiCacheConfig tradingApiCacheConfig = new TradingApiCacheConfig();
+        tradingApiCacheConfig.setBalanceInfoTtl(ENGINE_BALANCE_INFO_CACHE_TTL);
+
+        final EngineConfig engineConfig = someEngineConfig();
+        engineConfig.setTradingApiCache(tradingApiCacheConfig);
+        return engineConfig;
+    }
+
     private static EngineConfig someEngineConfigForNoEmergencyStopCheck() {
         final EngineConfig engineConfig = new EngineConfig();
         engineConfig.setEmergencyStopCurrency(ENGINE_EMERGENCY_STOP_CURRENCY);
@@ -621,6 +1105,26 @@ public class TestTradingEngine {
         return allMarkets;
     }
 
+    private static FunctionCounter findCacheCounter(String name) {
+        return Metrics.globalRegistry.find(name)
+                .tags("exchange", EXCHANGE_ID, "call", CachedCall.BALANCE_INFO.getMetricName())
+                .functionCounter();
+    }
+
+    private static Timer findStrategyExecutionTimer() {
+        return Metrics.globalRegistry.find(TradingEngine.STRATEGY_EXECUTION_TIMER_NAME)
+                .tags("market", MARKET_ID, "strategy", STRATEGY_ID)
+                .timer();
+    }
+
+    private static void waitForTradeCycles(int numberOfTradeCycles) {
+        try {
+            Thread.sleep(numberOfTradeCycles * ENGINE_TRADE_CYCLE_INTERVAL * 1000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
     private static void waitForEngineStateChange(TradingEngine engine, EngineState engineState, int numberOfTradeCycles) {
         for (int i = 0; i < numberOfTradeCycles; i++) {
             try {
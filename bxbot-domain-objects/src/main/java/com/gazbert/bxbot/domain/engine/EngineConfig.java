@@ -39,6 +39,11 @@ public class EngineConfig {
     private String emergencyStopCurrency;
     private BigDecimal emergencyStopBalance;
     private int tradeCycleInterval;
+    private Integer strategyExecutionThreads;
+    private Integer strategyExecutionTimeout;
+    private String missedCyclePolicy;
+    private TradingApiCacheConfig tradingApiCache;
+    private MarketDataRecorderConfig marketDataRecorder;
 
     // required for jackson
     public EngineConfig() {
@@ -94,6 +99,46 @@ public class EngineConfig {
         this.tradeCycleInterval = tradeCycleInterval;
     }
 
+    public Integer getStrategyExecutionThreads() {
+        return strategyExecutionThreads;
+    }
+
+    public void setStrategyExecutionThreads(Integer strategyExecutionThreads) {
+        this.strategyExecutionThreads = strategyExecutionThreads;
+    }
+
+    public Integer getStrategyExecutionTimeout() {
+        return strategyExecutionTimeout;
+    }
+
+    public void setStrategyExecutionTimeout(Integer strategyExecutionTimeout) {
+        this.strategyExecutionTimeout = strategyExecutionTimeout;
+    }
+
+    public String getMissedCyclePolicy() {
+        return missedCyclePolicy;
+    }
+
+    public void setMissedCyclePolicy(String missedCyclePolicy) {
+        this.missedCyclePolicy = missedCyclePolicy;
+    }
+
+    public TradingApiCacheConfig getTradingApiCache() {
+        return tradingApiCache;
+    }
+
+    public void setTradingApiCache(TradingApiCacheConfig tradingApiCache) {
+        this.tradingApiCache = tradingApiCache;
+    }
+
+    public MarketDataRecorderConfig getMarketDataRecorder() {
+        return marketDataRecorder;
+    }
+
+    public void setMarketDataRecorder(MarketDataRecorderConfig marketDataRecorder) {
+        this.marketDataRecorder = marketDataRecorder;
+    }
+
     @Override
     public String toString() {
         return MoreObjects.toStringHelper(this)
@@ -102,6 +147,11 @@ public class EngineConfig {
                 .add("emergencyStopCurrency", emergencyStopCurrency)
                 .add("emergencyStopBalance", emergencyStopBalance)
                 .add("tradeCycleInterval", tradeCycleInterval)
+                .add("strategyExecutionThreads", strategyExecutionThreads)
+                .add("strategyExecutionTimeout", strategyExecutionTimeout)
+                .add("missedCyclePolicy", missedCyclePolicy)
+                .add("tradingApiCache", tradingApiCache)
+                .add("marketDataRecorder", marketDataRecorder)
                 .toString();
     }
 }
@@ -0,0 +1,98 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.domain.engine;
+
+import com.google.common.base.MoreObjects;
+
+/**
+ * Domain object representing the Engine's Market Data Recorder config.
+ * <p>
+ * Only the data directory is required; the other values are defaulted by the engine if not set.
+ *
+ * @author gazbert
+ */
+public class MarketDataRecorderConfig {
+
+    private String dataDirectory;
+    private Integer orderBookDepth;
+    private Integer priceScale;
+    private Integer quantityScale;
+    private Integer bufferSize;
+
+
+    // required for jackson
+    public MarketDataRecorderConfig() {
+    }
+
+    public String getDataDirectory() {
+        return dataDirectory;
+    }
+
+    public void setDataDirectory(String dataDirectory) {
+        this.dataDirectory = dataDirectory;
+    }
+
+    public Integer getOrderBookDepth() {
+        return orderBookDepth;
+    }
+
+    public void setOrderBookDepth(Integer orderBookDepth) {
+        this.orderBookDepth = orderBookDepth;
+    }
+
+    public Integer getPriceScale() {
+        return priceScale;
+    }
+
+    public void setPriceScale(Integer priceScale) {
+        this.priceScale = priceScale;
+    }
+
+    public Integer getQuantityScale() {
+        return quantityScale;
+    }
+
+    public void setQuantityScale(Integer quantityScale) {
+        this.quantityScale = quantityScale;
+    }
+
+    public Integer getBufferSize() {
+        return bufferSize;
+    }
+
+    public void setBufferSize(Integer bufferSize) {
+        this.bufferSize = bufferSize;
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                .add("dataDirectory", dataDirectory)
+                .add("orderBookDepth", orderBookDepth)
+                .add("priceScale", priceScale)
+                .add("quantityScale", quantityScale)
+                .add("bufferSize", bufferSize)
+                .toString();
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.domain.engine;
+
+import com.google.common.base.MoreObjects;
+
+/**
+ * Domain object representing the Engine's Trading API cache config.
+ * <p>
+ * Each TTL is in seconds. A TTL that is not set, or set to 0, means that call is not cached.
+ *
+ * @author gazbert
+ */
+public class TradingApiCacheConfig {
+
+    private Integer marketOrdersTtl;
+    private Integer latestMarketPriceTtl;
+    private Integer tickerTtl;
+    private Integer openOrdersTtl;
+    private Integer balanceInfoTtl;
+
+
+    // required for jackson
+    public TradingApiCacheConfig() {
+    }
+
+    public Integer getMarketOrdersTtl() {
+        return marketOrdersTtl;
+    }
+
+    public void setMarketOrdersTtl(Integer marketOrdersTtl) {
+        this.marketOrdersTtl = marketOrdersTtl;
+    }
+
+    public Integer getLatestMarketPriceTtl() {
+        return latestMarketPriceTtl;
+    }
+
+    public void setLatestMarketPriceTtl(Integer latestMarketPriceTtl) {
+        this.latestMarketPriceTtl = latestMarketPriceTtl;
+    }
+
+    public Integer getTickerTtl() {
+        return tickerTtl;
+    }
+
+    public void setTickerTtl(Integer tickerTtl) {
+        this.tickerTtl = tickerTtl;
+    }
+
+    public Integer getOpenOrdersTtl() {
+        return openOrdersTtl;
+    }
+
+    public void setOpenOrdersTtl(Integer openOrdersTtl) {
+        this.openOrdersTtl = openOrdersTtl;
+    }
+
+    public Integer getBalanceInfoTtl() {
+        return balanceInfoTtl;
+    }
+
+    public void setBalanceInfoTtl(Integer balanceInfoTtl) {
+        this.balanceInfoTtl = balanceInfoTtl;
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                .add("marketOrdersTtl", marketOrdersTtl)
+                .add("latestMarketPriceTtl", latestMarketPriceTtl)
+                .add("tickerTtl", tickerTtl)
+                .add("openOrdersTtl", openOrdersTtl)
+                .add("balanceInfoTtl", balanceInfoTtl)
+                .toString();
+    }
+}
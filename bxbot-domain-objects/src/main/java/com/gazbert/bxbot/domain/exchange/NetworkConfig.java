@@ -38,6 +38,10 @@ public class NetworkConfig {
     private Integer connectionTimeout;
     private List<Integer> nonFatalErrorCodes;
     private List<String> nonFatalErrorMessages;
+    private Integer connectionPoolSize;
+    private Integer connectionIdleTimeout;
+    private Integer maxRequestsPerMinute;
+    private Integer maxRequestBurst;
 
 
     public NetworkConfig() {
@@ -69,12 +73,48 @@ public class NetworkConfig {
         this.nonFatalErrorMessages = nonFatalErrorMessages;
     }
 
+    public Integer getConnectionPoolSize() {
+        return connectionPoolSize;
+    }
+
+    public void setConnectionPoolSize(Integer connectionPoolSize) {
+        this.connectionPoolSize = connectionPoolSize;
+    }
+
+    public Integer getConnectionIdleTimeout() {
+        return connectionIdleTimeout;
+    }
+
+    public void setConnectionIdleTimeout(Integer connectionIdleTimeout) {
+        this.connectionIdleTimeout = connectionIdleTimeout;
+    }
+
+    public Integer getMaxRequestsPerMinute() {
+        return maxRequestsPerMinute;
+    }
+
+    public void setMaxRequestsPerMinute(Integer maxRequestsPerMinute) {
+        this.maxRequestsPerMinute = maxRequestsPerMinute;
+    }
+
+    public Integer getMaxRequestBurst() {
+        return maxRequestBurst;
+    }
+
+    public void setMaxRequestBurst(Integer maxRequestBurst) {
+        this.maxRequestBurst = maxRequestBurst;
+    }
+
     @Override
     public String toString() {
         return MoreObjects.toStringHelper(this)
                 .add("connectionTimeout", connectionTimeout)
                 .add("nonFatalErrorCodes", nonFatalErrorCodes)
                 .add("nonFatalErrorMessages", nonFatalErrorMessages)
+                .add("connectionPoolSize", connectionPoolSize)
+                .add("connectionIdleTimeout", connectionIdleTimeout)
+                .add("maxRequestsPerMinute", maxRequestsPerMinute)
+                .add("maxRequestBurst", maxRequestBurst)
                 .toString();
     }
 }
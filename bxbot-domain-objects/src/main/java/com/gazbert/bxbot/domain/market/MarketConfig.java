@@ -39,6 +39,8 @@ public class MarketConfig {
     private String counterCurrency;
     private boolean enabled;
     private String tradingStrategyId; // TODO might change this to ref to StrategyConfig ...
+    private Integer tradeCycleInterval;
+    private String exchangeId;
 
 
     // required for Jackson
@@ -52,6 +54,8 @@ public class MarketConfig {
         this.counterCurrency = other.counterCurrency;
         this.enabled = other.enabled;
         this.tradingStrategyId = other.tradingStrategyId;
+        this.tradeCycleInterval = other.tradeCycleInterval;
+        this.exchangeId = other.exchangeId;
     }
 
     public MarketConfig(String id, String name, String baseCurrency, String counterCurrency, boolean enabled, String tradingStrategyId) {
@@ -111,6 +115,22 @@ public class MarketConfig {
         this.tradingStrategyId = tradingStrategyId;
     }
 
+    public Integer getTradeCycleInterval() {
+        return tradeCycleInterval;
+    }
+
+    public void setTradeCycleInterval(Integer tradeCycleInterval) {
+        this.tradeCycleInterval = tradeCycleInterval;
+    }
+
+    public String getExchangeId() {
+        return exchangeId;
+    }
+
+    public void setExchangeId(String exchangeId) {
+        this.exchangeId = exchangeId;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -133,6 +153,8 @@ public class MarketConfig {
                 .add("counterCurrency", counterCurrency)
                 .add("enabled", enabled)
                 .add("tradingStrategyId", tradingStrategyId)
+                .add("tradeCycleInterval", tradeCycleInterval)
+                .add("exchangeId", exchangeId)
                 .toString();
     }
 }
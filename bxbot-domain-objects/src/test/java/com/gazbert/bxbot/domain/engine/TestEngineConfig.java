@@ -41,6 +41,11 @@ public class TestEngineConfig {
     private static final String EMERGENCY_STOP_CURRENCY = "BTC";
     private static final BigDecimal EMERGENCY_STOP_BALANCE = new BigDecimal("1.5");
     private static final int TRADE_CYCLE_INTERVAL = 30;
+    private static final Integer STRATEGY_EXECUTION_THREADS = 4;
+    private static final Integer STRATEGY_EXECUTION_TIMEOUT = 20;
+    private static final String MISSED_CYCLE_POLICY = "coalesce";
+    private static final TradingApiCacheConfig TRADING_API_CACHE = new TradingApiCacheConfig();
+    private static final MarketDataRecorderConfig MARKET_DATA_RECORDER = new MarketDataRecorderConfig();
 
     @Test
     public void testInitialisationWorksAsExpected() {
@@ -64,6 +69,11 @@ public class TestEngineConfig {
         assertEquals(null, engineConfig.getEmergencyStopCurrency());
         assertEquals(null, engineConfig.getEmergencyStopBalance());
         assertEquals(0, engineConfig.getTradeCycleInterval());
+        assertEquals(null, engineConfig.getStrategyExecutionThreads());
+        assertEquals(null, engineConfig.getStrategyExecutionTimeout());
+        assertEquals(null, engineConfig.getMissedCyclePolicy());
+        assertEquals(null, engineConfig.getTradingApiCache());
+        assertEquals(null, engineConfig.getMarketDataRecorder());
 
         engineConfig.setBotId(BOT_ID);
         assertEquals(BOT_ID, engineConfig.getBotId());
@@ -79,5 +89,20 @@ public class TestEngineConfig {
 
         engineConfig.setTradeCycleInterval(TRADE_CYCLE_INTERVAL);
         assertEquals(TRADE_CYCLE_INTERVAL, engineConfig.getTradeCycleInterval());
+
+        engineConfig.setStrategyExecutionThreads(STRATEGY_EXECUTION_THREADS);
+        assertEquals(STRATEGY_EXECUTION_THREADS, engineConfig.getStrategyExecutionThreads());
+
+        engineConfig.setStrategyExecutionTimeout(STRATEGY_EXECUTION_TIMEOUT);
+        assertEquals(STRATEGY_EXECUTION_TIMEOUT, engineConfig.getStrategyExecutionTimeout());
+
+        engineConfig.setMissedCyclePolicy(MISSED_CYCLE_POLICY);
+        assertEquals(MISSED_CYCLE_POLICY, engineConfig.getMissedCyclePolicy());
+
+        engineConfig.setTradingApiCache(TRADING_API_CACHE);
+        assertEquals(TRADING_API_CACHE, engineConfig.getTradingApiCache());
+
+        engineConfig.setMarketDataRecorder(MARKET_DATA_RECORDER);
+        assertEquals(MARKET_DATA_RECORDER, engineConfig.getMarketDataRecorder());
     }
 }
@@ -0,0 +1,69 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.domain.engine;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Tests a MarketDataRecorderConfig domain object behaves as expected.
+ *
+ * @author gazbert
+ */
+public class TestMarketDataRecorderConfig {
+
+    private static final String DATA_DIRECTORY = "./marketdata";
+    private static final Integer ORDER_BOOK_DEPTH = 10;
+    private static final Integer PRICE_SCALE = 2;
+    private static final Integer QUANTITY_SCALE = 8;
+    private static final Integer BUFFER_SIZE = 1024;
+
+
+    @Test
+    public void testSettersWorkAsExpected() {
+
+        final MarketDataRecorderConfig marketDataRecorderConfig = new MarketDataRecorderConfig();
+        assertEquals(null, marketDataRecorderConfig.getDataDirectory());
+        assertEquals(null, marketDataRecorderConfig.getOrderBookDepth());
+        assertEquals(null, marketDataRecorderConfig.getPriceScale());
+        assertEquals(null, marketDataRecorderConfig.getQuantityScale());
+        assertEquals(null, marketDataRecorderConfig.getBufferSize());
+
+        marketDataRecorderConfig.setDataDirectory(DATA_DIRECTORY);
+        assertEquals(DATA_DIRECTORY, marketDataRecorderConfig.getDataDirectory());
+
+        marketDataRecorderConfig.setOrderBookDepth(ORDER_BOOK_DEPTH);
+        assertEquals(ORDER_BOOK_DEPTH, marketDataRecorderConfig.getOrderBookDepth());
+
+        marketDataRecorderConfig.setPriceScale(PRICE_SCALE);
+        assertEquals(PRICE_SCALE, marketDataRecorderConfig.getPriceScale());
+
+        marketDataRecorderConfig.setQuantityScale(QUANTITY_SCALE);
+        assertEquals(QUANTITY_SCALE, marketDataRecorderConfig.getQuantityScale());
+
+        marketDataRecorderConfig.setBufferSize(BUFFER_SIZE);
+        assertEquals(BUFFER_SIZE, marketDataRecorderConfig.getBufferSize());
+    }
+}
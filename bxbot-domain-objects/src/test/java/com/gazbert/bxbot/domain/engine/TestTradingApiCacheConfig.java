@@ -0,0 +1,69 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.domain.engine;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Tests a TradingApiCacheConfig domain object behaves as expected.
+ *
+ * @author gazbert
+ */
+public class TestTradingApiCacheConfig {
+
+    private static final Integer MARKET_ORDERS_TTL = 5;
+    private static final Integer LATEST_MARKET_PRICE_TTL = 2;
+    private static final Integer TICKER_TTL = 0;
+    private static final Integer OPEN_ORDERS_TTL = 10;
+    private static final Integer BALANCE_INFO_TTL = 30;
+
+
+    @Test
+    public void testSettersWorkAsExpected() {
+
+        final TradingApiCacheConfig tradingApiCacheConfig = new TradingApiCacheConfig();
+        assertEquals(null, tradingApiCacheConfig.getMarketOrdersTtl());
+        assertEquals(null, tradingApiCacheConfig.getLatestMarketPriceTtl());
+        assertEquals(null, tradingApiCacheConfig.getTickerTtl());
+        assertEquals(null, tradingApiCacheConfig.getOpenOrdersTtl());
+        assertEquals(null, tradingApiCacheConfig.getBalanceInfoTtl());
+
+        tradingApiCacheConfig.setMarketOrdersTtl(MARKET_ORDERS_TTL);
+        assertEquals(MARKET_ORDERS_TTL, tradingApiCacheConfig.getMarketOrdersTtl());
+
+        tradingApiCacheConfig.setLatestMarketPriceTtl(LATEST_MARKET_PRICE_TTL);
+        assertEquals(LATEST_MARKET_PRICE_TTL, tradingApiCacheConfig.getLatestMarketPriceTtl());
+
+        tradingApiCacheConfig.setTickerTtl(TICKER_TTL);
+        assertEquals(TICKER_TTL, tradingApiCacheConfig.getTickerTtl());
+
+        tradingApiCacheConfig.setOpenOrdersTtl(OPEN_ORDERS_TTL);
+        assertEquals(OPEN_ORDERS_TTL, tradingApiCacheConfig.getOpenOrdersTtl());
+
+        tradingApiCacheConfig.setBalanceInfoTtl(BALANCE_INFO_TTL);
+        assertEquals(BALANCE_INFO_TTL, tradingApiCacheConfig.getBalanceInfoTtl());
+    }
+}
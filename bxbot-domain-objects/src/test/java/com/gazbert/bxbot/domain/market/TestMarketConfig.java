@@ -40,6 +40,8 @@ public class TestMarketConfig {
     private static final String COUNTER_CURRENCY = "USD";
     private static final boolean IS_ENABLED = true;
     private static final String TRADING_STRATEGY = "macd_trend_follower";
+    private static final Integer TRADE_CYCLE_INTERVAL = 2;
+    private static final String EXCHANGE_ID = "gemini";
 
 
     @Test
@@ -64,6 +66,8 @@ public class TestMarketConfig {
         assertEquals(null, marketConfig.getCounterCurrency());
         assertEquals(false, marketConfig.isEnabled());
         assertEquals(null, marketConfig.getTradingStrategyId());
+        assertEquals(null, marketConfig.getTradeCycleInterval());
+        assertEquals(null, marketConfig.getExchangeId());
 
         marketConfig.setId(ID);
         assertEquals(ID, marketConfig.getId());
@@ -82,13 +86,23 @@ public class TestMarketConfig {
 
         marketConfig.setTradingStrategyId(TRADING_STRATEGY);
         assertEquals(TRADING_STRATEGY, marketConfig.getTradingStrategyId());
+
+        marketConfig.setTradeCycleInterval(TRADE_CYCLE_INTERVAL);
+        assertEquals(TRADE_CYCLE_INTERVAL, marketConfig.getTradeCycleInterval());
+
+        marketConfig.setExchangeId(EXCHANGE_ID);
+        assertEquals(EXCHANGE_ID, marketConfig.getExchangeId());
     }
 
     @Test
     public void testCloningWorksAsExpected() {
         final MarketConfig marketConfig = new MarketConfig(
                 ID, NAME, BASE_CURRENCY, COUNTER_CURRENCY, IS_ENABLED, TRADING_STRATEGY);
+        marketConfig.setTradeCycleInterval(TRADE_CYCLE_INTERVAL);
+        marketConfig.setExchangeId(EXCHANGE_ID);
         final MarketConfig clonedMarketConfig = new MarketConfig(marketConfig);
         assertEquals(clonedMarketConfig, marketConfig);
+        assertEquals(TRADE_CYCLE_INTERVAL, clonedMarketConfig.getTradeCycleInterval());
+        assertEquals(EXCHANGE_ID, clonedMarketConfig.getExchangeId());
     }
 }
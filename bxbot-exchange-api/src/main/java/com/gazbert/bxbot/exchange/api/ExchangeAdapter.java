@@ -33,6 +33,16 @@ import com.gazbert.bxbot.trading.api.TradingApi;
  * <p>
  * The Trading Engine will send only 1 thread through the Exchange Adapter code at a time - you do not have to code for concurrency.
  * </p>
+ * <p>
+ * If the Trading Engine is configured to execute strategies in parallel, the authenticated API calls are still made by
+ * only 1 thread at a time, but the public market data calls - getMarketOrders, getLatestMarketPrice and getTicker -
+ * may be called concurrently and must not modify shared adapter state.
+ * </p>
+ * <p>
+ * The same applies to the {@link TradingApi#getAsyncTradingApi()} calls: the default implementation runs every call on
+ * the calling Trading Strategy thread. Adapters that override it to use their own threads must only make 1
+ * authenticated API call at a time.
+ * </p>
  *
  * @author gazbert
  * @since 1.0
@@ -53,4 +53,33 @@ public interface NetworkConfig {
      * @return the connection timeout value if present, null otherwise.
      */
     Integer getConnectionTimeout();
+
+    /**
+     * Fetches (optional) max number of idle connections to keep open to the exchange.
+     *
+     * @return the connection pool size if present, null otherwise.
+     */
+    Integer getConnectionPoolSize();
+
+    /**
+     * Fetches (optional) time in seconds an idle connection is kept open before it is evicted from the pool.
+     *
+     * @return the connection idle timeout if present, null otherwise.
+     */
+    Integer getConnectionIdleTimeout();
+
+    /**
+     * Fetches (optional) max number of requests per minute the exchange allows the adapter to send.
+     *
+     * @return the max requests per minute if present, null otherwise.
+     */
+    Integer getMaxRequestsPerMinute();
+
+    /**
+     * Fetches (optional) max number of requests the exchange allows the adapter to send in a burst, before the
+     * max-requests-per-minute rate applies.
+     *
+     * @return the max request burst if present, null otherwise.
+     */
+    Integer getMaxRequestBurst();
 }
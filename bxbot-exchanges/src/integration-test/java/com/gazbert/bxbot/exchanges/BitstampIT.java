@@ -81,12 +81,15 @@ public class BitstampIT {
         expect(networkConfig.getConnectionTimeout()).andReturn(30);
         expect(networkConfig.getNonFatalErrorCodes()).andReturn(nonFatalNetworkErrorCodes);
         expect(networkConfig.getNonFatalErrorMessages()).andReturn(nonFatalNetworkErrorMessages);
+        expect(networkConfig.getConnectionPoolSize()).andReturn(5);
+        expect(networkConfig.getConnectionIdleTimeout()).andReturn(60);
+        expect(networkConfig.getMaxRequestsPerMinute()).andReturn(null);
+        expect(networkConfig.getMaxRequestBurst()).andReturn(null);
 
         exchangeConfig = createMock(ExchangeConfig.class);
         expect(exchangeConfig.getAuthenticationConfig()).andReturn(authenticationConfig);
         expect(exchangeConfig.getNetworkConfig()).andReturn(networkConfig);
-
-        // no optional config for this adapter
+        expect(exchangeConfig.getOptionalConfig()).andReturn(null);
     }
 
     @Test
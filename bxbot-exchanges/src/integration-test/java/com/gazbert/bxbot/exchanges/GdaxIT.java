@@ -79,10 +79,15 @@ public class GdaxIT {
         expect(networkConfig.getConnectionTimeout()).andReturn(30);
         expect(networkConfig.getNonFatalErrorCodes()).andReturn(nonFatalNetworkErrorCodes);
         expect(networkConfig.getNonFatalErrorMessages()).andReturn(nonFatalNetworkErrorMessages);
+        expect(networkConfig.getConnectionPoolSize()).andReturn(5);
+        expect(networkConfig.getConnectionIdleTimeout()).andReturn(60);
+        expect(networkConfig.getMaxRequestsPerMinute()).andReturn(null);
+        expect(networkConfig.getMaxRequestBurst()).andReturn(null);
 
         optionalConfig = createMock(OptionalConfig.class);
         expect(optionalConfig.getItem("buy-fee")).andReturn("0.25");
         expect(optionalConfig.getItem("sell-fee")).andReturn("0.25");
+        expect(optionalConfig.getItem("use-market-data-stream")).andReturn(null);
 
         exchangeConfig = createMock(ExchangeConfig.class);
         expect(exchangeConfig.getAuthenticationConfig()).andReturn(authenticationConfig);
@@ -79,8 +79,13 @@ public class GeminiIT {
         expect(networkConfig.getConnectionTimeout()).andReturn(30);
         expect(networkConfig.getNonFatalErrorCodes()).andReturn(nonFatalNetworkErrorCodes);
         expect(networkConfig.getNonFatalErrorMessages()).andReturn(nonFatalNetworkErrorMessages);
+        expect(networkConfig.getConnectionPoolSize()).andReturn(5);
+        expect(networkConfig.getConnectionIdleTimeout()).andReturn(60);
+        expect(networkConfig.getMaxRequestsPerMinute()).andReturn(null);
+        expect(networkConfig.getMaxRequestBurst()).andReturn(null);
 
         optionalConfig = createMock(OptionalConfig.class);
+        expect(optionalConfig.getItem("nonce-file")).andReturn(null);
         expect(optionalConfig.getItem("buy-fee")).andReturn("0.25");
         expect(optionalConfig.getItem("sell-fee")).andReturn("0.25");
 
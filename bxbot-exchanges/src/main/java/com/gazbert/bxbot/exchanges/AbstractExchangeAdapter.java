@@ -26,16 +26,27 @@ import com.gazbert.bxbot.exchange.api.AuthenticationConfig;
 import com.gazbert.bxbot.exchange.api.ExchangeConfig;
 import com.gazbert.bxbot.exchange.api.NetworkConfig;
 import com.gazbert.bxbot.exchange.api.OptionalConfig;
+import com.gazbert.bxbot.trading.api.AsyncTradingApi;
 import com.gazbert.bxbot.trading.api.ExchangeNetworkException;
+import com.gazbert.bxbot.trading.api.TradingApi;
 import com.gazbert.bxbot.trading.api.TradingApiException;
 import com.google.common.base.MoreObjects;
+import com.google.gson.JsonParseException;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.MalformedJsonException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import java.io.*;
 import java.net.*;
+import java.nio.file.Paths;
 import java.text.DecimalFormatSymbols;
 import java.util.*;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Base class for shared Exchange Adapter functionality.
@@ -51,12 +62,18 @@ abstract class AbstractExchangeAdapter {
      * Unexpected IO error message for logging.
      */
     private static final String UNEXPECTED_IO_ERROR_MSG = "Failed to connect to Exchange due to unexpected IO error.";
+    private static final String UNEXPECTED_STATUS_ERROR_MSG = "Exchange returned an unexpected HTTP status.";
 
     /**
      * IO Socket Timeout error message for logging.
      */
     private static final String IO_SOCKET_TIMEOUT_ERROR_MSG = "Failed to connect to Exchange due to socket timeout.";
 
+    /**
+     * Exchange not found error message for logging.
+     */
+    private static final String DEAD_EXCHANGE_ERROR_MSG = "Failed to connect to Exchange. It's dead Jim!";
+
     /**
      * IO 5xx Timeout error message for logging.
      */
@@ -87,6 +104,41 @@ abstract class AbstractExchangeAdapter {
      */
     private static final String CONNECTION_TIMEOUT_PROPERTY_NAME = "connection-timeout";
 
+    /**
+     * Name of connection pool size property in config file.
+     */
+    private static final String CONNECTION_POOL_SIZE_PROPERTY_NAME = "connection-pool-size";
+
+    /**
+     * Name of connection idle timeout property in config file.
+     */
+    private static final String CONNECTION_IDLE_TIMEOUT_PROPERTY_NAME = "connection-idle-timeout";
+
+    /**
+     * Name of max requests per minute property in config file.
+     */
+    private static final String MAX_REQUESTS_PER_MINUTE_PROPERTY_NAME = "max-requests-per-minute";
+
+    /**
+     * Name of max request burst property in config file.
+     */
+    private static final String MAX_REQUEST_BURST_PROPERTY_NAME = "max-request-burst";
+
+    /**
+     * Default max number of idle connections kept open to the exchange.
+     */
+    private static final int DEFAULT_CONNECTION_POOL_SIZE = 5;
+
+    /**
+     * Default time in SECONDS an idle connection is kept open to the exchange.
+     */
+    private static final int DEFAULT_CONNECTION_IDLE_TIMEOUT = 60;
+
+    /**
+     * Default max number of requests that can be sent back-to-back when rate limiting is enabled.
+     */
+    private static final int DEFAULT_MAX_REQUEST_BURST = 1;
+
     /**
      * Name of non-fatal-error-codes property in config file.
      */
@@ -97,16 +149,76 @@ abstract class AbstractExchangeAdapter {
      */
     private static final String NON_FATAL_ERROR_MESSAGES_PROPERTY_NAME = "non-fatal-error-messages";
 
+    /**
+     * Name of the optional config item for streaming market data instead of polling the REST API.
+     */
+    private static final String USE_MARKET_DATA_STREAM_PROPERTY_NAME = "use-market-data-stream";
+
+    /**
+     * Name of the optional config item for the file the nonce high-water mark is stored in.
+     */
+    private static final String NONCE_FILE_PROPERTY_NAME = "nonce-file";
+
     /**
      * Exchange Adapter config file location.
      */
     private static final String EXCHANGE_CONFIG_FILE = "config/exchange.xml";
 
+    /**
+     * Name of the timer for the requests sent to the exchange.
+     */
+    static final String REQUEST_TIMER_NAME = "bxbot.exchange.requests";
+
+    /**
+     * Name of the counter for the requests that failed with an exception.
+     */
+    static final String REQUEST_ERROR_COUNTER_NAME = "bxbot.exchange.request.errors";
+
+    /**
+     * Status tag value for requests that did not get an HTTP response, e.g. the socket timed out.
+     */
+    private static final String NO_RESPONSE_STATUS = "NONE";
+
+    /**
+     * Exception tag value for requests that succeeded.
+     */
+    private static final String NO_EXCEPTION = "None";
+
     /**
      * The connection timeout in SECONDS for terminating hung connections to the exchange.
      */
     private int connectionTimeout;
 
+    /**
+     * The max number of idle connections to keep open to the exchange.
+     */
+    private int connectionPoolSize;
+
+    /**
+     * The time in SECONDS an idle connection to the exchange is kept open before it is closed.
+     */
+    private int connectionIdleTimeout;
+
+    /**
+     * The transport used to send requests to the exchange. Created on first use from the network config.
+     */
+    private HttpTransport httpTransport;
+
+    /**
+     * Limits the rate requests are sent to the exchange. Null if rate limiting is not enabled in the network config.
+     */
+    private volatile RequestRateLimiter requestRateLimiter;
+
+    /**
+     * The asynchronous version of the Trading API for this adapter. Created on first use.
+     */
+    private AsyncTradingApi asyncTradingApi;
+
+    /**
+     * Generates the nonces for authenticated requests. Only used by adapters for exchanges that need a nonce.
+     */
+    private volatile NonceGenerator nonceGenerator;
+
     /**
      * HTTP status codes for non-fatal network connection failures.
      * Used to decide to throw {@link ExchangeNetworkException}.
@@ -124,6 +236,17 @@ abstract class AbstractExchangeAdapter {
      */
     private DecimalFormatSymbols decimalFormatSymbols;
 
+    /**
+     * The request metrics are published to this registry. By default, this is the Micrometer global registry, which
+     * the Spring Boot Actuator adds its registries to.
+     */
+    private MeterRegistry meterRegistry = Metrics.globalRegistry;
+
+    /**
+     * The exchange tag for the request metrics, e.g. Gdax for the GdaxExchangeAdapter.
+     */
+    private final String exchangeTag;
+
 
     /**
      * Constructor sets some sensible defaults for the network config
@@ -131,8 +254,11 @@ abstract class AbstractExchangeAdapter {
      */
     AbstractExchangeAdapter() {
         connectionTimeout = 30;
+        connectionPoolSize = DEFAULT_CONNECTION_POOL_SIZE;
+        connectionIdleTimeout = DEFAULT_CONNECTION_IDLE_TIMEOUT;
         nonFatalNetworkErrorCodes = new HashSet<>();
         nonFatalNetworkErrorMessages = new HashSet<>();
+        exchangeTag = createExchangeTag(getClass());
 
         // Some locales (e.g. Czech Republic) default to ',' instead of '.' for decimal point. Exchanges always require a '.'
         decimalFormatSymbols = new DecimalFormatSymbols(Locale.getDefault());
@@ -141,11 +267,16 @@ abstract class AbstractExchangeAdapter {
 
     /**
      * Makes a request to the Exchange.
+     * <p>
+     * The request is sent using the adapter's {@link HttpTransport}. By default, this is a {@link PooledHttpTransport}
+     * that keeps connections to the exchange alive between requests. Every request is timed and counted by
+     * exchange, HTTP method, status code and exception - see {@link #REQUEST_TIMER_NAME}. The time spent waiting
+     * for the rate limiter is not included.
      *
      * @param url            the URL to invoke.
      * @param postData       optional post data to send. This can be null.
      * @param httpMethod     the HTTP method to use, e.g. GET, POST, DELETE
-     * @param requestHeaders optional request headers to set on the {@link URLConnection} used to invoke the Exchange.
+     * @param requestHeaders optional request headers to send to the Exchange.
      * @return the response from the Exchange.
      * @throws ExchangeNetworkException if a network error occurred trying to connect to the exchange.
      *                                  This exception allows for recovery from temporary network issues.
@@ -155,119 +286,105 @@ abstract class AbstractExchangeAdapter {
     ExchangeHttpResponse sendNetworkRequest(URL url, String httpMethod, String postData, Map<String, String> requestHeaders)
             throws TradingApiException, ExchangeNetworkException {
 
-        HttpURLConnection exchangeConnection = null;
-        final StringBuilder exchangeResponse = new StringBuilder();
-
-        try {
-
-            LOG.debug(() -> "Using following URL for API call: " + url);
-
-            exchangeConnection = (HttpURLConnection) url.openConnection();
-            exchangeConnection.setUseCaches(false);
-            exchangeConnection.setDoOutput(true);
-            exchangeConnection.setRequestMethod(httpMethod); // GET|POST|DELETE
+        LOG.debug(() -> "Using following URL for API call: " + url);
+        if (httpMethod.equalsIgnoreCase("POST") && postData != null) {
+            LOG.debug(() -> "Doing POST with request body: " + postData);
+        }
 
-            // Er, perhaps, I need to be a bit more stealth here... this was needed for some exchanges back in the day!
-            exchangeConnection.setRequestProperty("User-Agent",
-                    "Mozilla/5.0 (X11; Linux x86_64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/60.0.3112.78 Safari/537.36");
+        acquireRequestPermit(url, httpMethod);
 
-            if (requestHeaders != null) {
-                for (final Map.Entry<String, String> requestHeader : requestHeaders.entrySet()) {
-                    exchangeConnection.setRequestProperty(requestHeader.getKey(), requestHeader.getValue());
-                    LOG.debug(() -> "Setting following request header: " + requestHeader);
+        final long startTime = System.nanoTime();
+        int statusCode = 0;
+        Exception failure = null;
+        try {
+            try {
+                final ExchangeHttpResponse exchangeResponse =
+                        getHttpTransport().send(url, httpMethod, postData, requestHeaders);
+                statusCode = exchangeResponse.getStatusCode();
+                if (statusCode >= 400) {
+                    throwErrorResponseException(exchangeResponse);
                 }
-            }
-
-            // Add a timeout so we don't get blocked indefinitely; timeout on URLConnection is in millis.
-            final int timeoutInMillis = connectionTimeout * 1000;
-            exchangeConnection.setConnectTimeout(timeoutInMillis);
-            exchangeConnection.setReadTimeout(timeoutInMillis);
+                return exchangeResponse;
 
-            if (httpMethod.equalsIgnoreCase("POST") && postData != null) {
-                LOG.debug(() -> "Doing POST with request body: " + postData);
-                final OutputStreamWriter outputPostStream = new OutputStreamWriter(exchangeConnection.getOutputStream(), "UTF-8");
-                outputPostStream.write(postData);
-                outputPostStream.close();
+            } catch (IOException e) {
+                throw createExchangeNetworkException(e);
             }
+        } catch (TradingApiException | ExchangeNetworkException | RuntimeException e) {
+            failure = e;
+            throw e;
+        } finally {
+            recordRequest(httpMethod, statusCode, failure, System.nanoTime() - startTime);
+        }
+    }
 
-            // Grab the response - we just block here as per Connection API
-            final BufferedReader responseInputStream = new BufferedReader(new InputStreamReader(
-                    exchangeConnection.getInputStream(), "UTF-8"));
-
-            // Read the JSON response lines into our response buffer
-            String responseLine;
-            while ((responseLine = responseInputStream.readLine()) != null) {
-                exchangeResponse.append(responseLine);
-            }
-            responseInputStream.close();
-
-            return new ExchangeHttpResponse(exchangeConnection.getResponseCode(), exchangeConnection.getResponseMessage(),
-                    exchangeResponse.toString());
-
-        } catch (MalformedURLException e) {
-            final String errorMsg = UNEXPECTED_IO_ERROR_MSG;
-            LOG.error(errorMsg, e);
-            throw new TradingApiException(errorMsg, e);
-
-        } catch (SocketTimeoutException e) {
-            final String errorMsg = IO_SOCKET_TIMEOUT_ERROR_MSG;
-            LOG.error(errorMsg, e);
-            throw new ExchangeNetworkException(errorMsg, e);
+    /**
+     * Makes a request to the Exchange and streams a successful response straight into the given parser.
+     * <p>
+     * Unlike {@link #sendNetworkRequest(URL, String, String, Map)}, the response body is not read into a String
+     * first - the parser reads it as it comes off the wire. This saves copying large responses, e.g. order books,
+     * before they are deserialized. Only HTTP 200 responses are passed to the parser. Responses with an HTTP error
+     * status code are read in full and handled in the same way as {@link #sendNetworkRequest(URL, String, String, Map)};
+     * any other status code throws a TradingApiException, as the adapters do for non-200 responses to unstreamed calls.
+     *
+     * @param url            the URL to invoke.
+     * @param httpMethod     the HTTP method to use, e.g. GET, POST, DELETE
+     * @param postData       optional post data to send. This can be null.
+     * @param requestHeaders optional request headers to send to the Exchange.
+     * @param responseParser parses the response body.
+     * @param <T>            the type the response is parsed into.
+     * @return what the parser returned.
+     * @throws ExchangeNetworkException if a network error occurred trying to connect to the exchange, including while
+     *                                  the response was being streamed into the parser.
+     *                                  This exception allows for recovery from temporary network issues.
+     * @throws TradingApiException      if the API call failed for any reason other than a network error. This means something
+     *                                  really bad as happened.
+     */
+    <T> T sendNetworkRequest(URL url, String httpMethod, String postData, Map<String, String> requestHeaders,
+                             ExchangeResponseParser<T> responseParser)
+            throws TradingApiException, ExchangeNetworkException {
 
-        } catch (FileNotFoundException | UnknownHostException e) {
-            // Huobi started throwing FileNotFoundException as of 8 Nov 2015 :-/
-            // EC2 started throwing UnknownHostException for BTC-e, GDAX, as of 14 July 2016 :-/
-            final String errorMsg = "Failed to connect to Exchange. It's dead Jim!";
-            LOG.error(errorMsg, e);
-            throw new ExchangeNetworkException(errorMsg, e);
+        LOG.debug(() -> "Using following URL for streamed API call: " + url);
+        if (httpMethod.equalsIgnoreCase("POST") && postData != null) {
+            LOG.debug(() -> "Doing POST with request body: " + postData);
+        }
 
-        } catch (IOException e) {
+        acquireRequestPermit(url, httpMethod);
 
-            // Check if this is a non-fatal network error
+        // The time includes parsing the response, as it is read off the wire while it is parsed
+        final long startTime = System.nanoTime();
+        int statusCode = 0;
+        Exception failure = null;
+        try {
             try {
-
-                if (e.getMessage() != null && nonFatalNetworkErrorMessages.contains(e.getMessage())) {
-
-                    final String errorMsg = "Failed to connect to Exchange. SSL Connection was refused or reset by the server.";
-                    LOG.error(errorMsg, e);
-                    throw new ExchangeNetworkException(errorMsg, e);
-
-                } else if (exchangeConnection != null && nonFatalNetworkErrorCodes.contains(exchangeConnection.getResponseCode())) {
-
-                    final String errorMsg = IO_5XX_TIMEOUT_ERROR_MSG;
-                    LOG.error(errorMsg, e);
-                    throw new ExchangeNetworkException(errorMsg, e);
-
-                } else {
-                    String errorMsg = UNEXPECTED_IO_ERROR_MSG;
-
-                    // Check for any clue in the response...
-                    if (exchangeConnection != null) {
-                        final InputStream rawErrorStream = exchangeConnection.getErrorStream();
-                        if (rawErrorStream != null) {
-                            final BufferedReader errorInputStream = new BufferedReader(new InputStreamReader(rawErrorStream, "UTF-8"));
-                            final StringBuilder errorResponse = new StringBuilder();
-                            String errorLine;
-                            while ((errorLine = errorInputStream.readLine()) != null) {
-                                errorResponse.append(errorLine);
+                final StreamedResponse<T> streamedResponse = getHttpTransport().send(url, httpMethod, postData,
+                        requestHeaders, (responseStatusCode, reasonPhrase, body) -> {
+                            if (responseStatusCode != HttpURLConnection.HTTP_OK) {
+                                return StreamedResponse.error(new ExchangeHttpResponse(
+                                        responseStatusCode, reasonPhrase, readFully(body)));
                             }
-                            errorInputStream.close();
-                            errorMsg += " ErrorStream Response: " + errorResponse;
-                        }
+                            return StreamedResponse.parsed(responseStatusCode, parse(responseParser, body));
+                        });
+
+                statusCode = streamedResponse.statusCode;
+                if (streamedResponse.errorResponse != null) {
+                    if (statusCode >= 400) {
+                        throwErrorResponseException(streamedResponse.errorResponse);
                     }
-                    LOG.error(errorMsg, e);
-                    throw new TradingApiException(errorMsg, e);
+                    final String errorMsg = UNEXPECTED_STATUS_ERROR_MSG + " Response: "
+                            + streamedResponse.errorResponse;
+                    LOG.error(errorMsg);
+                    throw new TradingApiException(errorMsg);
                 }
-            } catch (IOException e1) {
+                return streamedResponse.parsedResponse;
 
-                final String errorMsg = UNEXPECTED_IO_ERROR_MSG;
-                LOG.error(errorMsg, e1);
-                throw new TradingApiException(errorMsg, e1);
+            } catch (IOException e) {
+                throw createExchangeNetworkException(e);
             }
+        } catch (TradingApiException | ExchangeNetworkException | RuntimeException e) {
+            failure = e;
+            throw e;
         } finally {
-            if (exchangeConnection != null) {
-                exchangeConnection.disconnect();
-            }
+            recordRequest(httpMethod, statusCode, failure, System.nanoTime() - startTime);
         }
     }
 
@@ -305,6 +422,124 @@ abstract class AbstractExchangeAdapter {
             nonFatalNetworkErrorMessages.addAll(nonFatalErrorMessagesFromConfig);
         }
         LOG.info(() -> NON_FATAL_ERROR_MESSAGES_PROPERTY_NAME + ": " + nonFatalNetworkErrorMessages);
+
+        final Integer connectionPoolSizeFromConfig = networkConfig.getConnectionPoolSize();
+        if (connectionPoolSizeFromConfig != null) {
+            if (connectionPoolSizeFromConfig < 1) {
+                final String errorMsg = CONNECTION_POOL_SIZE_PROPERTY_NAME + " must be at least 1." + exchangeConfig;
+                LOG.error(errorMsg);
+                throw new IllegalArgumentException(errorMsg);
+            }
+            connectionPoolSize = connectionPoolSizeFromConfig;
+        }
+        LOG.info(() -> CONNECTION_POOL_SIZE_PROPERTY_NAME + ": " + connectionPoolSize);
+
+        final Integer connectionIdleTimeoutFromConfig = networkConfig.getConnectionIdleTimeout();
+        if (connectionIdleTimeoutFromConfig != null) {
+            if (connectionIdleTimeoutFromConfig < 1) {
+                final String errorMsg = CONNECTION_IDLE_TIMEOUT_PROPERTY_NAME + " must be at least 1." + exchangeConfig;
+                LOG.error(errorMsg);
+                throw new IllegalArgumentException(errorMsg);
+            }
+            connectionIdleTimeout = connectionIdleTimeoutFromConfig;
+        }
+        LOG.info(() -> CONNECTION_IDLE_TIMEOUT_PROPERTY_NAME + ": " + connectionIdleTimeout);
+
+        final Integer maxRequestsPerMinute = networkConfig.getMaxRequestsPerMinute();
+        final Integer maxRequestBurstFromConfig = networkConfig.getMaxRequestBurst();
+        if (maxRequestsPerMinute != null) {
+            if (maxRequestsPerMinute < 1) {
+                final String errorMsg = MAX_REQUESTS_PER_MINUTE_PROPERTY_NAME + " must be at least 1." + exchangeConfig;
+                LOG.error(errorMsg);
+                throw new IllegalArgumentException(errorMsg);
+            }
+
+            final int maxRequestBurst = maxRequestBurstFromConfig != null
+                    ? maxRequestBurstFromConfig : DEFAULT_MAX_REQUEST_BURST;
+            if (maxRequestBurst < 1) {
+                final String errorMsg = MAX_REQUEST_BURST_PROPERTY_NAME + " must be at least 1." + exchangeConfig;
+                LOG.error(errorMsg);
+                throw new IllegalArgumentException(errorMsg);
+            }
+
+            requestRateLimiter = new RequestRateLimiter(maxRequestsPerMinute, maxRequestBurst);
+            LOG.info(() -> MAX_REQUESTS_PER_MINUTE_PROPERTY_NAME + ": " + maxRequestsPerMinute);
+            LOG.info(() -> MAX_REQUEST_BURST_PROPERTY_NAME + ": " + maxRequestBurst);
+
+        } else {
+            requestRateLimiter = null;
+            LOG.info(() -> MAX_REQUESTS_PER_MINUTE_PROPERTY_NAME + ": not set - requests will not be rate limited");
+        }
+
+        // Pick up the new network config next time we send a request
+        setHttpTransport(null);
+    }
+
+    /**
+     * Sets the registry the request metrics are published to.
+     *
+     * @param meterRegistry the registry to use.
+     */
+    void setMeterRegistry(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Sets the transport used to send requests to the exchange. Any existing transport is closed.
+     * If set to null, a {@link PooledHttpTransport} is created from the network config on the next request.
+     *
+     * @param httpTransport the transport to use.
+     */
+    synchronized void setHttpTransport(HttpTransport httpTransport) {
+        if (this.httpTransport != null && this.httpTransport != httpTransport) {
+            this.httpTransport.close();
+        }
+        this.httpTransport = httpTransport;
+    }
+
+    /**
+     * Returns the priority a request waits with when the adapter is at its rate limit.
+     * <p>
+     * By default, GET requests are treated as market data requests and given {@link RequestRateLimiter.RequestPriority#LOW}
+     * priority; all other requests are assumed to place, cancel or query orders and are given
+     * {@link RequestRateLimiter.RequestPriority#HIGH} priority. Adapters for exchanges that don't follow this
+     * convention can override this method.
+     *
+     * @param url        the URL being invoked.
+     * @param httpMethod the HTTP method being used, e.g. GET, POST, DELETE
+     * @return the request priority.
+     */
+    RequestRateLimiter.RequestPriority getRequestPriority(URL url, String httpMethod) {
+        return "GET".equalsIgnoreCase(httpMethod)
+                ? RequestRateLimiter.RequestPriority.LOW : RequestRateLimiter.RequestPriority.HIGH;
+    }
+
+    /**
+     * Called by adapters when the exchange rejects a request because its rate limit has been exceeded.
+     * If rate limiting is enabled, the next requests are paced at the configured rate instead of being sent as a burst.
+     */
+    void onRateLimitExceeded() {
+        final RequestRateLimiter rateLimiter = requestRateLimiter;
+        if (rateLimiter != null) {
+            rateLimiter.drain();
+        }
+    }
+
+    /**
+     * Returns the asynchronous version of the Trading API for this adapter.
+     * <p>
+     * The public market data calls are executed concurrently on up to connection-pool-size threads; the authenticated
+     * calls are executed one at a time on a single thread - see {@link ExecutorAsyncTradingApi}.
+     *
+     * @return the asynchronous version of the Trading API.
+     */
+    public synchronized AsyncTradingApi getAsyncTradingApi() {
+        if (asyncTradingApi == null) {
+            // All adapters extending this class implement the Trading API
+            asyncTradingApi = new ExecutorAsyncTradingApi(
+                    (TradingApi) this, getClass().getSimpleName(), connectionPoolSize);
+        }
+        return asyncTradingApi;
     }
 
     /**
@@ -374,6 +609,60 @@ abstract class AbstractExchangeAdapter {
         return assertItemExists(itemName, itemValue);
     }
 
+    /**
+     * Checks if the adapter should stream market data instead of polling the REST API. Streaming is only enabled if
+     * the use-market-data-stream optional config item is set to true.
+     *
+     * @param optionalConfig the optional config for the adapter. This can be null.
+     * @return true if market data should be streamed.
+     */
+    boolean isMarketDataStreamEnabled(OptionalConfig optionalConfig) {
+        final String itemValue = optionalConfig == null ? null : optionalConfig.getItem(USE_MARKET_DATA_STREAM_PROPERTY_NAME);
+        final boolean marketDataStreamEnabled = Boolean.parseBoolean(itemValue);
+        LOG.info(() -> USE_MARKET_DATA_STREAM_PROPERTY_NAME + ": " + marketDataStreamEnabled);
+        return marketDataStreamEnabled;
+    }
+
+    /**
+     * Initialises the generator for the nonces sent with authenticated requests. Nonces are in milliseconds.
+     * <p>
+     * If the nonce-file optional config item is set, the nonce high-water mark is stored in that file so nonces keep
+     * increasing across restarts.
+     *
+     * @param optionalConfig the optional config for the adapter. This can be null.
+     * @throws IllegalStateException if the nonce-file exists but could not be read.
+     */
+    void initNonceGenerator(OptionalConfig optionalConfig) {
+
+        final String nonceFile = optionalConfig == null ? null : optionalConfig.getItem(NONCE_FILE_PROPERTY_NAME);
+        LOG.info(() -> NONCE_FILE_PROPERTY_NAME + ": " + nonceFile);
+        try {
+            nonceGenerator = new NonceGenerator(TimeUnit.MILLISECONDS, nonceFile == null ? null : Paths.get(nonceFile));
+        } catch (IOException e) {
+            final String errorMsg = "Failed to read nonce high-water mark from " + NONCE_FILE_PROPERTY_NAME + ": "
+                    + nonceFile;
+            LOG.error(errorMsg, e);
+            throw new IllegalStateException(errorMsg, e);
+        }
+    }
+
+    /**
+     * Returns the nonce to send with the next authenticated request. It is greater than any nonce previously
+     * returned, including nonces returned to other threads.
+     *
+     * @return the nonce.
+     * @throws TradingApiException if the nonce high-water mark could not be stored.
+     */
+    long getNextNonce() throws TradingApiException {
+        try {
+            return nonceGenerator.next();
+        } catch (IOException e) {
+            final String errorMsg = "Failed to store nonce high-water mark.";
+            LOG.error(errorMsg, e);
+            throw new TradingApiException(errorMsg, e);
+        }
+    }
+
     /**
      * Sorts the request params alphabetically (uses natural ordering) and returns them as a query string.
      *
@@ -407,6 +696,26 @@ abstract class AbstractExchangeAdapter {
         return decimalFormatSymbols;
     }
 
+    /**
+     * Parses a response body streamed from the Exchange.
+     * <p>
+     * Adapters typically pass the reader to Gson, e.g. {@code jsonReader -> gson.fromJson(jsonReader, type)}
+     *
+     * @param <T> the type the response is parsed into.
+     */
+    @FunctionalInterface
+    interface ExchangeResponseParser<T> {
+
+        /**
+         * Parses the response.
+         *
+         * @param jsonReader the response body.
+         * @return the parsed response.
+         * @throws IOException if the response could not be read.
+         */
+        T parse(JsonReader jsonReader) throws IOException;
+    }
+
     /**
      * Wrapper for holding Exchange HTTP response.
      */
@@ -448,6 +757,175 @@ abstract class AbstractExchangeAdapter {
     //  Util methods
     // ------------------------------------------------------------------------------------------------
 
+    /*
+     * HTTP error status codes are handled the same way as when we used HttpURLConnection, which threw an
+     * IOException for them.
+     */
+    private void throwErrorResponseException(ExchangeHttpResponse exchangeResponse)
+            throws TradingApiException, ExchangeNetworkException {
+
+        final int statusCode = exchangeResponse.getStatusCode();
+        if (statusCode == 404 || statusCode == 410) {
+            // Huobi started returning 404s as of 8 Nov 2015 :-/
+            final String errorMsg = DEAD_EXCHANGE_ERROR_MSG + " Response: " + exchangeResponse;
+            LOG.error(errorMsg);
+            throw new ExchangeNetworkException(errorMsg);
+
+        } else if (nonFatalNetworkErrorCodes.contains(statusCode)) {
+            final String errorMsg = IO_5XX_TIMEOUT_ERROR_MSG + " Response: " + exchangeResponse;
+            LOG.error(errorMsg);
+            throw new ExchangeNetworkException(errorMsg);
+
+        } else {
+            // Check for any clue in the response...
+            final String errorMsg = UNEXPECTED_IO_ERROR_MSG + " HTTP Status: " + statusCode
+                    + " ErrorStream Response: " + exchangeResponse.getPayload();
+            LOG.error(errorMsg);
+            throw new TradingApiException(errorMsg);
+        }
+    }
+
+    /*
+     * Returns the ExchangeNetworkException to throw for a recoverable IO error, else throws a TradingApiException.
+     */
+    private ExchangeNetworkException createExchangeNetworkException(IOException e) throws TradingApiException {
+
+        if (e instanceof SocketTimeoutException) {
+            final String errorMsg = IO_SOCKET_TIMEOUT_ERROR_MSG;
+            LOG.error(errorMsg, e);
+            return new ExchangeNetworkException(errorMsg, e);
+
+        } else if (e instanceof UnknownHostException) {
+            // EC2 started throwing UnknownHostException for BTC-e, GDAX, as of 14 July 2016 :-/
+            final String errorMsg = DEAD_EXCHANGE_ERROR_MSG;
+            LOG.error(errorMsg, e);
+            return new ExchangeNetworkException(errorMsg, e);
+
+        } else if (!(e instanceof MalformedURLException) && isNonFatalNetworkErrorMessage(e)) {
+            final String errorMsg = "Failed to connect to Exchange. SSL Connection was refused or reset by the server.";
+            LOG.error(errorMsg, e);
+            return new ExchangeNetworkException(errorMsg, e);
+        }
+
+        final String errorMsg = UNEXPECTED_IO_ERROR_MSG;
+        LOG.error(errorMsg, e);
+        throw new TradingApiException(errorMsg, e);
+    }
+
+    /*
+     * Gson wraps IOExceptions thrown by the reader in a JsonParseException. If the connection failed mid-stream,
+     * unwrap it so it is handled like any other network error. Malformed JSON is left for the adapter to handle.
+     */
+    private static <T> T parse(ExchangeResponseParser<T> responseParser, Reader body) throws IOException {
+        try {
+            return responseParser.parse(new JsonReader(body));
+        } catch (JsonParseException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof IOException && !(cause instanceof MalformedJsonException)) {
+                throw (IOException) cause;
+            }
+            throw e;
+        }
+    }
+
+    private static String readFully(Reader body) throws IOException {
+        final StringBuilder payload = new StringBuilder();
+        final BufferedReader reader = new BufferedReader(body);
+        String responseLine;
+        while ((responseLine = reader.readLine()) != null) {
+            payload.append(responseLine);
+        }
+        return payload.toString();
+    }
+
+    /*
+     * A status code of 0 means no HTTP response was received.
+     */
+    private void recordRequest(String httpMethod, int statusCode, Exception failure, long durationNanos) {
+
+        final String method = httpMethod.toUpperCase(Locale.ENGLISH);
+        final String exception = failure == null ? NO_EXCEPTION : failure.getClass().getSimpleName();
+
+        Timer.builder(REQUEST_TIMER_NAME)
+                .description("Requests sent to the exchange")
+                .tags("exchange", exchangeTag, "method", method,
+                        "status", statusCode == 0 ? NO_RESPONSE_STATUS : Integer.toString(statusCode),
+                        "exception", exception)
+                .register(meterRegistry)
+                .record(durationNanos, TimeUnit.NANOSECONDS);
+
+        if (failure != null) {
+            Counter.builder(REQUEST_ERROR_COUNTER_NAME)
+                    .description("Requests sent to the exchange that failed")
+                    .tags("exchange", exchangeTag, "method", method, "exception", exception)
+                    .register(meterRegistry)
+                    .increment();
+        }
+    }
+
+    /*
+     * Drops the ExchangeAdapter suffix from the adapter's class name.
+     */
+    private static String createExchangeTag(Class<?> adapterClass) {
+        final String adapterName = adapterClass.getSimpleName();
+        if (adapterName.isEmpty()) {
+            return adapterClass.getName();
+        }
+        final String suffix = "ExchangeAdapter";
+        return adapterName.endsWith(suffix) && adapterName.length() > suffix.length()
+                ? adapterName.substring(0, adapterName.length() - suffix.length()) : adapterName;
+    }
+
+    private void acquireRequestPermit(URL url, String httpMethod) throws ExchangeNetworkException {
+        final RequestRateLimiter rateLimiter = requestRateLimiter;
+        if (rateLimiter != null) {
+            rateLimiter.acquire(getRequestPriority(url, httpMethod));
+        }
+    }
+
+    private synchronized HttpTransport getHttpTransport() {
+        if (httpTransport == null) {
+            httpTransport = new PooledHttpTransport(connectionTimeout, connectionPoolSize, connectionIdleTimeout);
+        }
+        return httpTransport;
+    }
+
+    /*
+     * The transport may wrap the underlying socket exception, e.g. 'Connection refused', so check the causes too.
+     */
+    private boolean isNonFatalNetworkErrorMessage(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause.getMessage() != null && nonFatalNetworkErrorMessages.contains(cause.getMessage())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /*
+     * Holds either the parsed response or the error response read from the Exchange.
+     */
+    private static final class StreamedResponse<T> {
+
+        private final int statusCode;
+        private final T parsedResponse;
+        private final ExchangeHttpResponse errorResponse;
+
+        private StreamedResponse(int statusCode, T parsedResponse, ExchangeHttpResponse errorResponse) {
+            this.statusCode = statusCode;
+            this.parsedResponse = parsedResponse;
+            this.errorResponse = errorResponse;
+        }
+
+        private static <T> StreamedResponse<T> parsed(int statusCode, T parsedResponse) {
+            return new StreamedResponse<>(statusCode, parsedResponse, null);
+        }
+
+        private static <T> StreamedResponse<T> error(ExchangeHttpResponse errorResponse) {
+            return new StreamedResponse<>(errorResponse.getStatusCode(), null, errorResponse);
+        }
+    }
+
     private static String assertItemExists(String itemName, String itemValue) {
         if (itemValue == null || itemValue.length() == 0) {
             final String errorMsg = itemName + CONFIG_IS_NULL_OR_ZERO_LENGTH + EXCHANGE_CONFIG_FILE + " ?";
@@ -26,6 +26,7 @@ package com.gazbert.bxbot.exchanges;
 import com.gazbert.bxbot.exchange.api.AuthenticationConfig;
 import com.gazbert.bxbot.exchange.api.ExchangeAdapter;
 import com.gazbert.bxbot.exchange.api.ExchangeConfig;
+import com.gazbert.bxbot.exchange.api.OptionalConfig;
 import com.gazbert.bxbot.exchanges.trading.api.impl.*;
 import com.gazbert.bxbot.trading.api.*;
 import com.google.common.base.MoreObjects;
@@ -34,8 +35,6 @@ import com.google.gson.GsonBuilder;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
-import javax.crypto.Mac;
-import javax.crypto.spec.SecretKeySpec;
 import javax.xml.bind.DatatypeConverter;
 import java.io.UnsupportedEncodingException;
 import java.math.BigDecimal;
@@ -68,6 +67,11 @@ import java.util.*;
  * Furthermore, the adapter does not support sending 'hidden' orders.
  * </p>
  * <p>
+ * If the use-market-data-stream optional config item is set to true, the market orders and ticker are served from an
+ * order book kept up to date by the v2 WebSocket API - see {@link BitfinexMarketDataStream}. This saves on the v1 API
+ * call limit. The REST API is used until the book is in sync, and whenever the stream drops.
+ * </p>
+ * <p>
  * There are different exchange fees for Takers and Makers - see <a href="https://www.bitfinex.com/pages/fees">here.</a>
  * This adapter will use the <em>Taker</em> fees to keep things simple for now.
  * </p>
@@ -123,11 +127,6 @@ public final class BitfinexExchangeAdapter extends AbstractExchangeAdapter imple
      */
     private static final String SECRET_PROPERTY_NAME = "secret";
 
-    /**
-     * Nonce used for sending authenticated messages to the exchange.
-     */
-    private long nonce = 0;
-
     /**
      * Used to indicate if we have initialised the MAC authentication protocol.
      */
@@ -144,16 +143,21 @@ public final class BitfinexExchangeAdapter extends AbstractExchangeAdapter imple
     private String secret = "";
 
     /**
-     * Provides the "Message Authentication Code" (MAC) algorithm used for the secure messaging layer.
+     * Signs requests with the "Message Authentication Code" (MAC) algorithm used for the secure messaging layer.
      * Used to encrypt the hash of the entire message with the private key to ensure message integrity.
      */
-    private Mac mac;
+    private RequestSigner requestSigner;
 
     /**
      * GSON engine used for parsing JSON in Bitfinex API call responses.
      */
     private Gson gson;
 
+    /**
+     * Streams market data from the v2 WebSocket API. Null if market data streaming is not enabled.
+     */
+    private MarketDataStream marketDataStream;
+
 
     @Override
     public void init(ExchangeConfig config) {
@@ -162,9 +166,11 @@ public final class BitfinexExchangeAdapter extends AbstractExchangeAdapter imple
         setAuthenticationConfig(config);
         setNetworkConfig(config);
 
-        nonce = System.currentTimeMillis() / 1000; // set the initial nonce used in the secure messaging.
+        final OptionalConfig optionalConfig = config.getOptionalConfig();
+        initNonceGenerator(optionalConfig);
         initSecureMessageLayer();
         initGson();
+        initMarketDataStream(optionalConfig);
     }
 
     // ------------------------------------------------------------------------------------------------
@@ -175,11 +181,18 @@ public final class BitfinexExchangeAdapter extends AbstractExchangeAdapter imple
     @Override
     public MarketOrderBook getMarketOrders(String marketId) throws TradingApiException, ExchangeNetworkException {
 
-        try {
-            final ExchangeHttpResponse response = sendPublicRequestToExchange("book/" + marketId);
-            LOG.debug(() -> "Market Orders response: " + response);
+        if (marketDataStream != null) {
+            final MarketOrderBook streamedOrderBook = marketDataStream.getMarketOrders(marketId);
+            if (streamedOrderBook != null) {
+                return streamedOrderBook;
+            }
+        }
 
-            final BitfinexOrderBook orderBook = gson.fromJson(response.getPayload(), BitfinexOrderBook.class);
+        try {
+            // Order books are big - parse the response as it is streamed from the exchange
+            final BitfinexOrderBook orderBook = streamPublicRequestToExchange("book/" + marketId,
+                    jsonReader -> gson.fromJson(jsonReader, BitfinexOrderBook.class));
+            LOG.debug(() -> "Market Orders response: " + orderBook);
 
             final List<MarketOrder> buyOrders = new ArrayList<>();
             for (BitfinexMarketOrder bitfinexBuyOrder : orderBook.bids) {
@@ -467,6 +480,13 @@ public final class BitfinexExchangeAdapter extends AbstractExchangeAdapter imple
     @Override
     public Ticker getTicker(String marketId) throws TradingApiException, ExchangeNetworkException {
 
+        if (marketDataStream != null) {
+            final Ticker streamedTicker = marketDataStream.getTicker(marketId);
+            if (streamedTicker != null) {
+                return streamedTicker;
+            }
+        }
+
         try {
             final ExchangeHttpResponse response = sendPublicRequestToExchange("pubticker/" + marketId);
             LOG.debug(() -> "Latest Market Price response: " + response);
@@ -864,6 +884,30 @@ public final class BitfinexExchangeAdapter extends AbstractExchangeAdapter imple
         }
     }
 
+    /**
+     * Makes a public API call to the Bitfinex exchange and streams the response into the given parser.
+     *
+     * @param apiMethod      the API method to call.
+     * @param responseParser parses the response from the exchange.
+     * @param <T>            the type the response is parsed into.
+     * @return the parsed response from the exchange.
+     * @throws ExchangeNetworkException if there is a network issue connecting to exchange.
+     * @throws TradingApiException      if anything unexpected happens.
+     */
+    private <T> T streamPublicRequestToExchange(String apiMethod, ExchangeResponseParser<T> responseParser)
+            throws ExchangeNetworkException, TradingApiException {
+
+        try {
+            final URL url = new URL(PUBLIC_API_BASE_URL + apiMethod);
+            return makeStreamingNetworkRequest(url, createHeaderParamMap(), responseParser);
+
+        } catch (MalformedURLException e) {
+            final String errorMsg = UNEXPECTED_IO_ERROR_MSG;
+            LOG.error(errorMsg, e);
+            throw new TradingApiException(errorMsg, e);
+        }
+    }
+
     /**
      * <p>
      * Makes an authenticated API call to the Bitfinex exchange.
@@ -918,8 +962,7 @@ public final class BitfinexExchangeAdapter extends AbstractExchangeAdapter imple
             }
 
             // nonce is required by Bitfinex in every request
-            params.put("nonce", Long.toString(nonce));
-            nonce++; // increment ready for next call.
+            params.put("nonce", Long.toString(getNextNonce()));
 
             // must include the method in request param too
             params.put("request", "/" + BITFINEX_API_VERSION + "/" + apiMethod);
@@ -935,15 +978,11 @@ public final class BitfinexExchangeAdapter extends AbstractExchangeAdapter imple
             requestHeaders.put("X-BFX-APIKEY", key);
             requestHeaders.put("X-BFX-PAYLOAD", base64payload);
 
-            // Add the signature
-            mac.reset(); // force reset
-            mac.update(base64payload.getBytes("UTF-8"));
-
             /*
              * signature = HMAC-SHA384(payload, api-secret) as hexadecimal - MUST be in LOWERCASE else signature fails.
              * See: http://bitcoin.stackexchange.com/questions/25835/bitfinex-api-call-returns-400-bad-request
              */
-            final String signature = toHex(mac.doFinal()).toLowerCase();
+            final String signature = requestSigner.sign(RequestSigner.Encoding.LOWER_CASE_HEX, base64payload);
             requestHeaders.put("X-BFX-SIGNATURE", signature);
 
             // payload is JSON for this exchange
@@ -960,22 +999,6 @@ public final class BitfinexExchangeAdapter extends AbstractExchangeAdapter imple
         }
     }
 
-    /**
-     * Converts a given byte array to a hex String.
-     *
-     * @param byteArrayToConvert byte array to convert.
-     * @return the string representation of the given byte array..
-     */
-    private String toHex(byte[] byteArrayToConvert) {
-
-        final StringBuilder hexString = new StringBuilder();
-
-        for (final byte aByte : byteArrayToConvert) {
-            hexString.append(String.format("%02x", aByte & 0xff));
-        }
-        return hexString.toString();
-    }
-
     /**
      * Initialises the secure messaging layer
      * Sets up the MAC to safeguard the data we send to the exchange.
@@ -985,9 +1008,7 @@ public final class BitfinexExchangeAdapter extends AbstractExchangeAdapter imple
 
         // Setup the MAC
         try {
-            final SecretKeySpec keyspec = new SecretKeySpec(secret.getBytes("UTF-8"), "HmacSHA384");
-            mac = Mac.getInstance("HmacSHA384");
-            mac.init(keyspec);
+            requestSigner = RequestSigner.forHmac("HmacSHA384", secret.getBytes("UTF-8"));
             initializedMACAuthentication = true;
         } catch (UnsupportedEncodingException | NoSuchAlgorithmException e) {
             final String errorMsg = "Failed to setup MAC security. HINT: Is HMAC-SHA384 installed?";
@@ -1023,6 +1044,20 @@ public final class BitfinexExchangeAdapter extends AbstractExchangeAdapter imple
         gson = gsonBuilder.create();
     }
 
+    /**
+     * Initialises the WebSocket market data stream, if enabled. The stream is not connected to until the first market
+     * is requested.
+     */
+    private void initMarketDataStream(OptionalConfig optionalConfig) {
+        if (marketDataStream != null) {
+            marketDataStream.close();
+            marketDataStream = null;
+        }
+        if (isMarketDataStreamEnabled(optionalConfig)) {
+            marketDataStream = new BitfinexMarketDataStream(BitfinexMarketDataStream.WEBSOCKET_API_URL);
+        }
+    }
+
     /*
      * Hack for unit-testing map params passed to transport layer.
      */
@@ -1044,4 +1079,13 @@ public final class BitfinexExchangeAdapter extends AbstractExchangeAdapter imple
             throws TradingApiException, ExchangeNetworkException {
         return super.sendNetworkRequest(url, httpMethod, postData, requestHeaders);
     }
-}
\ No newline at end of file
+
+    /*
+     * Hack for unit-testing streaming transport layer.
+     */
+    private <T> T makeStreamingNetworkRequest(URL url, Map<String, String> requestHeaders,
+                                              ExchangeResponseParser<T> responseParser)
+            throws TradingApiException, ExchangeNetworkException {
+        return super.sendNetworkRequest(url, "GET", null, requestHeaders, responseParser);
+    }
+}
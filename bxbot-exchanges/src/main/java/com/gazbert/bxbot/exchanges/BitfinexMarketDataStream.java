@@ -0,0 +1,282 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.exchanges;
+
+import com.gazbert.bxbot.exchanges.LocalOrderBook.PriceLevel;
+import com.gazbert.bxbot.exchanges.trading.api.impl.TickerImpl;
+import com.gazbert.bxbot.trading.api.OrderType;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import okhttp3.WebSocket;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Streams Bitfinex market data from the <a href="https://docs.bitfinex.com/v2/docs/ws-general">v2 WebSocket API</a>.
+ * <p>
+ * Subscribes to the {@code book} channel for order book changes and the {@code ticker} channel for the last trade and
+ * 24hr stats. The book channel sends a snapshot of the book when it is subscribed to, followed by price level changes.
+ * <p>
+ * The stream asks Bitfinex to number every message on the connection. The REST API order book is not numbered, so it
+ * cannot be lined up with the stream: if a message is missed, the stream reconnects and the books are reloaded from
+ * the snapshots sent on resubscribing.
+ *
+ * @author gazbert
+ */
+class BitfinexMarketDataStream extends MarketDataStream {
+
+    private static final Logger LOG = LogManager.getLogger();
+
+    /**
+     * The v2 WebSocket API URI.
+     */
+    static final String WEBSOCKET_API_URL = "wss://api.bitfinex.com/ws/2";
+
+    /**
+     * Max price levels returned on each side of the book. Matches the REST API order book default.
+     */
+    private static final int MAX_DEPTH = 50;
+
+    /**
+     * Config flag asking Bitfinex to add a sequence number to every message.
+     */
+    private static final int SEQ_ALL_FLAG = 65536;
+
+    /**
+     * Info code sent when Bitfinex wants clients to reconnect, e.g. before a server restart.
+     */
+    private static final int RECONNECT_INFO_CODE = 20051;
+
+    private static final String BOOK_CHANNEL = "book";
+    private static final String TICKER_CHANNEL = "ticker";
+    private static final String HEARTBEAT = "hb";
+
+    private final JsonParser jsonParser = new JsonParser();
+
+    /*
+     * Bitfinex symbol, e.g. tBTCUSD, to market id, e.g. btcusd.
+     */
+    private final Map<String, String> marketIdsBySymbol = new ConcurrentHashMap<>();
+
+    /*
+     * The following are only used on the connection's thread; they are reset on each new connection.
+     */
+    private final Map<Long, Subscription> subscriptionsByChannelId = new ConcurrentHashMap<>();
+    private long lastSequence;
+
+    BitfinexMarketDataStream(String url) {
+        super("Bitfinex", url, MAX_DEPTH);
+    }
+
+    /*
+     * Package-private for unit testing with a short retry delay.
+     */
+    BitfinexMarketDataStream(String url, long retryDelayMillis) {
+        super("Bitfinex", url, MAX_DEPTH, retryDelayMillis);
+    }
+
+    @Override
+    void onConnected(WebSocket webSocket) {
+
+        subscriptionsByChannelId.clear();
+        lastSequence = 0;
+
+        final JsonObject conf = new JsonObject();
+        conf.addProperty("event", "conf");
+        conf.addProperty("flags", SEQ_ALL_FLAG);
+        webSocket.send(conf.toString());
+    }
+
+    @Override
+    void subscribe(WebSocket webSocket, String marketId) {
+
+        final String symbol = "t" + marketId.toUpperCase();
+        marketIdsBySymbol.put(symbol, marketId);
+
+        final JsonObject subscribeToBook = new JsonObject();
+        subscribeToBook.addProperty("event", "subscribe");
+        subscribeToBook.addProperty("channel", BOOK_CHANNEL);
+        subscribeToBook.addProperty("symbol", symbol);
+        subscribeToBook.addProperty("prec", "P0");
+        subscribeToBook.addProperty("freq", "F0");
+        subscribeToBook.addProperty("len", "100");
+        webSocket.send(subscribeToBook.toString());
+
+        final JsonObject subscribeToTicker = new JsonObject();
+        subscribeToTicker.addProperty("event", "subscribe");
+        subscribeToTicker.addProperty("channel", TICKER_CHANNEL);
+        subscribeToTicker.addProperty("symbol", symbol);
+        webSocket.send(subscribeToTicker.toString());
+    }
+
+    @Override
+    void onMessage(String message) {
+
+        final JsonElement json = jsonParser.parse(message);
+        if (json.isJsonObject()) {
+            onEvent(json.getAsJsonObject());
+        } else {
+            onChannelMessage(json.getAsJsonArray());
+        }
+    }
+
+    // ------------------------------------------------------------------------------------------------
+    //  Util methods
+    // ------------------------------------------------------------------------------------------------
+
+    private void onEvent(JsonObject event) {
+
+        final String eventName = event.get("event").getAsString();
+        switch (eventName) {
+            case "subscribed":
+                final String marketId = marketIdsBySymbol.get(event.get("symbol").getAsString());
+                if (marketId != null) {
+                    subscriptionsByChannelId.put(event.get("chanId").getAsLong(),
+                            new Subscription(event.get("channel").getAsString(), marketId));
+                }
+                break;
+            case "info":
+                if (event.has("code") && event.get("code").getAsInt() == RECONNECT_INFO_CODE) {
+                    LOG.info(() -> "Bitfinex asked clients to reconnect");
+                    reconnect();
+                }
+                break;
+            case "error":
+                LOG.error(() -> "Bitfinex market data stream error: " + event);
+                break;
+            default:
+                // e.g. conf
+                break;
+        }
+    }
+
+    /*
+     * Channel messages are [CHANNEL_ID, PAYLOAD, SEQUENCE] where the payload is an array, or 'hb' for a heartbeat.
+     */
+    private void onChannelMessage(JsonArray message) {
+
+        if (message.size() > 2 && message.get(message.size() - 1).isJsonPrimitive()) {
+            final long sequence = message.get(message.size() - 1).getAsLong();
+            if (lastSequence != 0 && sequence != lastSequence + 1) {
+                LOG.warn(() -> "Bitfinex market data message missed before sequence " + sequence
+                        + " - reconnecting to reload order books");
+                lastSequence = 0;
+                getOrderBooks().forEach(LocalOrderBook::invalidate);
+                reconnect();
+                return;
+            }
+            lastSequence = sequence;
+        }
+
+        final JsonElement payload = message.get(1);
+        if (payload.isJsonPrimitive() && HEARTBEAT.equals(payload.getAsString())) {
+            return;
+        }
+
+        final Subscription subscription = subscriptionsByChannelId.get(message.get(0).getAsLong());
+        if (subscription == null) {
+            return;
+        }
+
+        if (BOOK_CHANNEL.equals(subscription.channel)) {
+            onOrderBookMessage(subscription.marketId, payload.getAsJsonArray());
+        } else if (TICKER_CHANNEL.equals(subscription.channel)) {
+            onTicker(subscription.marketId, payload.getAsJsonArray());
+        }
+    }
+
+    /*
+     * A snapshot is an array of [PRICE, COUNT, AMOUNT] price levels; an update is a single price level.
+     */
+    private void onOrderBookMessage(String marketId, JsonArray payload) {
+
+        final LocalOrderBook orderBook = getOrderBook(marketId);
+        if (orderBook == null) {
+            return;
+        }
+
+        if (payload.size() == 0 || payload.get(0).isJsonArray()) {
+            final List<PriceLevel> priceLevels = new ArrayList<>(payload.size());
+            for (final JsonElement priceLevel : payload) {
+                priceLevels.add(toPriceLevel(priceLevel.getAsJsonArray()));
+            }
+            orderBook.reset(0, priceLevels);
+            LOG.info(() -> "Bitfinex order book in sync: " + orderBook);
+        } else {
+            orderBook.apply(Collections.singletonList(toPriceLevel(payload)));
+        }
+    }
+
+    /*
+     * AMOUNT is positive for bids and negative for asks. A COUNT of 0 removes the price level.
+     */
+    private static PriceLevel toPriceLevel(JsonArray priceLevel) {
+        final BigDecimal price = priceLevel.get(0).getAsBigDecimal();
+        final int count = priceLevel.get(1).getAsInt();
+        final BigDecimal amount = priceLevel.get(2).getAsBigDecimal();
+        final OrderType type = amount.signum() > 0 ? OrderType.BUY : OrderType.SELL;
+        return new PriceLevel(type, price, count == 0 ? BigDecimal.ZERO : amount.abs());
+    }
+
+    /*
+     * [BID, BID_SIZE, ASK, ASK_SIZE, DAILY_CHANGE, DAILY_CHANGE_PERC, LAST_PRICE, VOLUME, HIGH, LOW]
+     */
+    private void onTicker(String marketId, JsonArray payload) {
+        final BigDecimal last = payload.get(6).getAsBigDecimal();
+        final BigDecimal dailyChange = payload.get(4).getAsBigDecimal();
+        updateTicker(marketId, new TickerImpl(
+                last,
+                null, // bid from local order book
+                null, // ask from local order book
+                payload.get(9).getAsBigDecimal(),
+                payload.get(8).getAsBigDecimal(),
+                last.subtract(dailyChange),
+                payload.get(7).getAsBigDecimal(),
+                null, // vwap not supplied by Bitfinex
+                System.currentTimeMillis())); // not supplied by Bitfinex
+    }
+
+    /*
+     * A subscribed channel.
+     */
+    private static final class Subscription {
+
+        private final String channel;
+        private final String marketId;
+
+        private Subscription(String channel, String marketId) {
+            this.channel = channel;
+            this.marketId = marketId;
+        }
+    }
+}
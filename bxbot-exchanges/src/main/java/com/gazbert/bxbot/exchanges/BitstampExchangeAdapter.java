@@ -33,8 +33,6 @@ import com.google.gson.*;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
-import javax.crypto.Mac;
-import javax.crypto.spec.SecretKeySpec;
 import java.io.UnsupportedEncodingException;
 import java.lang.reflect.Field;
 import java.lang.reflect.Type;
@@ -122,11 +120,6 @@ public final class BitstampExchangeAdapter extends AbstractExchangeAdapter imple
      */
     private static final String SECRET_PROPERTY_NAME = "secret";
 
-    /**
-     * Nonce used for sending authenticated messages to the exchange.
-     */
-    private long nonce = 0;
-
     /**
      * Used to indicate if we have initialised the MAC authentication protocol.
      */
@@ -148,10 +141,10 @@ public final class BitstampExchangeAdapter extends AbstractExchangeAdapter imple
     private String secret = "";
 
     /**
-     * Provides the "Message Authentication Code" (MAC) algorithm used for the secure messaging layer.
+     * Signs requests with the "Message Authentication Code" (MAC) algorithm used for the secure messaging layer.
      * Used to encrypt the hash of the entire message with the private key to ensure message integrity.
      */
-    private Mac mac;
+    private RequestSigner requestSigner;
 
     /**
      * GSON engine used for parsing JSON in Bitstamp API call responses.
@@ -166,7 +159,7 @@ public final class BitstampExchangeAdapter extends AbstractExchangeAdapter imple
         setAuthenticationConfig(config);
         setNetworkConfig(config);
 
-        nonce = System.currentTimeMillis() / 1000; // set the initial nonce used in the secure messaging.
+        initNonceGenerator(config.getOptionalConfig());
         initSecureMessageLayer();
         initGson();
     }
@@ -753,29 +746,22 @@ public final class BitstampExchangeAdapter extends AbstractExchangeAdapter imple
                 params = createRequestParamMap();
             }
 
+            final String nonce = Long.toString(getNextNonce());
             params.put("key", key);
-            params.put("nonce", Long.toString(nonce));
-
-            // Create MAC message for signature
-            // message = nonce + client_id + api_key
-            mac.reset(); // force reset
-            mac.update(String.valueOf(nonce).getBytes("UTF-8"));
-            mac.update(clientId.getBytes("UTF-8"));
-            mac.update(key.getBytes("UTF-8"));
+            params.put("nonce", nonce);
 
             /*
              * Signature is a HMAC-SHA256 encoded message containing: nonce, client ID and API key.
              * The HMAC-SHA256 code must be generated using a secret key that was generated with your API key.
              * This code must be converted to it's hexadecimal representation (64 uppercase characters).
              *
+             * message = nonce + client_id + api_key
              * signature = hmac.new(API_SECRET, msg=message, digestmod=hashlib.sha256).hexdigest().upper()
              */
-            final String signature = toHex(mac.doFinal()).toUpperCase();
+            final String signature = requestSigner.sign(RequestSigner.Encoding.UPPER_CASE_HEX,
+                    nonce, clientId, key);
             params.put("signature", signature);
 
-            // increment ready for next call...
-            nonce++;
-
             // Build the URL with query param args in it
             final StringBuilder postData = new StringBuilder("");
             for (final Map.Entry<String, String> param : params.entrySet()) {
@@ -801,21 +787,6 @@ public final class BitstampExchangeAdapter extends AbstractExchangeAdapter imple
         }
     }
 
-    /**
-     * Converts a given byte array to a hex String.
-     *
-     * @param byteArrayToConvert byte array to convert.
-     * @return the string representation of the given byte array.
-     */
-    private String toHex(byte[] byteArrayToConvert) {
-        final StringBuilder hexString = new StringBuilder();
-
-        for (final byte aByte : byteArrayToConvert) {
-            hexString.append(String.format("%02x", aByte & 0xff));
-        }
-        return hexString.toString();
-    }
-
     /**
      * Initialises the secure messaging layer
      * Sets up the MAC to safeguard the data we send to the exchange.
@@ -825,9 +796,7 @@ public final class BitstampExchangeAdapter extends AbstractExchangeAdapter imple
 
         // Setup the MAC
         try {
-            final SecretKeySpec keyspec = new SecretKeySpec(secret.getBytes("UTF-8"), "HmacSHA256");
-            mac = Mac.getInstance("HmacSHA256");
-            mac.init(keyspec);
+            requestSigner = RequestSigner.forHmac("HmacSHA256", secret.getBytes("UTF-8"));
             initializedMACAuthentication = true;
         } catch (UnsupportedEncodingException | NoSuchAlgorithmException e) {
             final String errorMsg = "Failed to setup MAC security. HINT: Is HMAC-SHA256 installed?";
@@ -0,0 +1,188 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+
+package com.gazbert.bxbot.exchanges;
+
+import com.gazbert.bxbot.trading.api.AsyncTradingApi;
+import com.gazbert.bxbot.trading.api.BalanceInfo;
+import com.gazbert.bxbot.trading.api.ExchangeNetworkException;
+import com.gazbert.bxbot.trading.api.MarketOrderBook;
+import com.gazbert.bxbot.trading.api.OpenOrder;
+import com.gazbert.bxbot.trading.api.OrderType;
+import com.gazbert.bxbot.trading.api.Ticker;
+import com.gazbert.bxbot.trading.api.TradingApi;
+import com.gazbert.bxbot.trading.api.TradingApiException;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs an Exchange Adapter's blocking Trading API calls on background threads.
+ * <p>
+ * The public market data calls - getMarketOrders, getLatestMarketPrice and getTicker - are executed concurrently on
+ * a small pool of threads. The authenticated calls share state in the adapters, e.g. the nonce and the MAC used to
+ * sign requests, so they are executed one at a time, in the order they were made, on a single thread.
+ * <p>
+ * The threads are daemon threads and are stopped when they have been idle for a while, so there is nothing to shut
+ * down. This class is thread safe.
+ *
+ * @author gazbert
+ */
+final class ExecutorAsyncTradingApi implements AsyncTradingApi {
+
+    /*
+     * How long an idle thread is kept before it is stopped.
+     */
+    private static final long THREAD_KEEP_ALIVE_SECS = 60;
+
+    private final TradingApi tradingApi;
+    private final Executor marketDataExecutor;
+    private final Executor accountExecutor;
+
+    /**
+     * Creates the async API with its own threads.
+     *
+     * @param tradingApi            the Exchange Adapter to call.
+     * @param name                  used to name the threads.
+     * @param marketDataThreadCount max number of threads used for the public market data calls.
+     */
+    ExecutorAsyncTradingApi(TradingApi tradingApi, String name, int marketDataThreadCount) {
+        this(tradingApi,
+                createExecutor(name + "-market-data", marketDataThreadCount),
+                createExecutor(name + "-account", 1));
+    }
+
+    /**
+     * Creates the async API using the given executors. Used for testing.
+     *
+     * @param tradingApi         the Exchange Adapter to call.
+     * @param marketDataExecutor executes the public market data calls.
+     * @param accountExecutor    executes the authenticated calls. Must execute 1 call at a time, in order.
+     */
+    ExecutorAsyncTradingApi(TradingApi tradingApi, Executor marketDataExecutor, Executor accountExecutor) {
+        this.tradingApi = tradingApi;
+        this.marketDataExecutor = marketDataExecutor;
+        this.accountExecutor = accountExecutor;
+    }
+
+    // ------------------------------------------------------------------------
+    // Public API calls
+    // ------------------------------------------------------------------------
+
+    @Override
+    public CompletableFuture<MarketOrderBook> getMarketOrders(String marketId) {
+        return execute(marketDataExecutor, () -> tradingApi.getMarketOrders(marketId));
+    }
+
+    @Override
+    public CompletableFuture<BigDecimal> getLatestMarketPrice(String marketId) {
+        return execute(marketDataExecutor, () -> tradingApi.getLatestMarketPrice(marketId));
+    }
+
+    @Override
+    public CompletableFuture<Ticker> getTicker(String marketId) {
+        return execute(marketDataExecutor, () -> tradingApi.getTicker(marketId));
+    }
+
+    // ------------------------------------------------------------------------
+    // Authenticated API calls
+    // ------------------------------------------------------------------------
+
+    @Override
+    public CompletableFuture<List<OpenOrder>> getYourOpenOrders(String marketId) {
+        return execute(accountExecutor, () -> tradingApi.getYourOpenOrders(marketId));
+    }
+
+    @Override
+    public CompletableFuture<String> createOrder(String marketId, OrderType orderType, BigDecimal quantity,
+                                                 BigDecimal price) {
+        return execute(accountExecutor, () -> tradingApi.createOrder(marketId, orderType, quantity, price));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> cancelOrder(String orderId, String marketId) {
+        return execute(accountExecutor, () -> tradingApi.cancelOrder(orderId, marketId));
+    }
+
+    @Override
+    public CompletableFuture<BalanceInfo> getBalanceInfo() {
+        return execute(accountExecutor, tradingApi::getBalanceInfo);
+    }
+
+    @Override
+    public CompletableFuture<BigDecimal> getPercentageOfBuyOrderTakenForExchangeFee(String marketId) {
+        return execute(accountExecutor, () -> tradingApi.getPercentageOfBuyOrderTakenForExchangeFee(marketId));
+    }
+
+    @Override
+    public CompletableFuture<BigDecimal> getPercentageOfSellOrderTakenForExchangeFee(String marketId) {
+        return execute(accountExecutor, () -> tradingApi.getPercentageOfSellOrderTakenForExchangeFee(marketId));
+    }
+
+    // ------------------------------------------------------------------------
+    // Private utils
+    // ------------------------------------------------------------------------
+
+    private static <T> CompletableFuture<T> execute(Executor executor, TradingApiCall<T> tradingApiCall) {
+        final CompletableFuture<T> future = new CompletableFuture<>();
+        try {
+            executor.execute(() -> {
+                try {
+                    future.complete(tradingApiCall.call());
+                } catch (Exception e) {
+                    future.completeExceptionally(e);
+                }
+            });
+        } catch (RuntimeException e) {
+            future.completeExceptionally(e); // e.g. RejectedExecutionException
+        }
+        return future;
+    }
+
+    private static Executor createExecutor(String name, int threadCount) {
+        final AtomicInteger threadNumber = new AtomicInteger(1);
+        final ThreadPoolExecutor executor = new ThreadPoolExecutor(threadCount, threadCount,
+                THREAD_KEEP_ALIVE_SECS, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), runnable -> {
+            final Thread thread = new Thread(runnable, "bxbot-" + name + "-" + threadNumber.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /*
+     * A Trading API call that can throw the Trading API's checked exceptions.
+     */
+    @FunctionalInterface
+    private interface TradingApiCall<T> {
+        T call() throws ExchangeNetworkException, TradingApiException;
+    }
+}
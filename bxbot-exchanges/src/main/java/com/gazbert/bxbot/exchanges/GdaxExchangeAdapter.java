@@ -35,8 +35,6 @@ import com.google.gson.GsonBuilder;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
-import javax.crypto.Mac;
-import javax.crypto.spec.SecretKeySpec;
 import javax.xml.bind.DatatypeConverter;
 import java.io.UnsupportedEncodingException;
 import java.math.BigDecimal;
@@ -62,10 +60,15 @@ import java.util.*;
  * </strong>
  * </p>
  * <p>
- * This adapter only supports the GDAX <a href="https://docs.gdax.com/#api">REST API</a>. The design
+ * This adapter uses the GDAX <a href="https://docs.gdax.com/#api">REST API</a>. The design
  * of the API and documentation is excellent.
  * </p>
  * <p>
+ * If the use-market-data-stream optional config item is set to true, the market orders and ticker are served from an
+ * order book kept up to date by the GDAX <a href="https://docs.gdax.com/#websocket-feed">WebSocket feed</a> - see
+ * {@link GdaxMarketDataStream}. The REST API is used until the book is in sync, and whenever the feed drops.
+ * </p>
+ * <p>
  * The adapter currently only supports <a href="https://docs.gdax.com/#place-a-new-order">Limit Orders</a>.
  * It was originally developed and tested for BTC-GBP market, but it should work for BTC-USD.
  * </p>
@@ -172,16 +175,26 @@ public final class GdaxExchangeAdapter extends AbstractExchangeAdapter implement
     private String secret = "";
 
     /**
-     * Provides the "Message Authentication Code" (MAC) algorithm used for the secure messaging layer.
+     * Signs requests with the "Message Authentication Code" (MAC) algorithm used for the secure messaging layer.
      * Used to encrypt the hash of the entire message with the private key to ensure message integrity.
      */
-    private Mac mac;
+    private RequestSigner requestSigner;
 
     /**
      * GSON engine used for parsing JSON in GDAX API call responses.
      */
     private Gson gson;
 
+    /**
+     * Used to indicate if market data should be streamed from the WebSocket feed.
+     */
+    private boolean useMarketDataStream;
+
+    /**
+     * Streams market data from the WebSocket feed. Null if market data streaming is not enabled.
+     */
+    private MarketDataStream marketDataStream;
+
     @Override
     public void init(ExchangeConfig config) {
 
@@ -192,6 +205,7 @@ public final class GdaxExchangeAdapter extends AbstractExchangeAdapter implement
 
         initSecureMessageLayer();
         initGson();
+        initMarketDataStream();
     }
 
     // ------------------------------------------------------------------------------------------------
@@ -356,46 +370,46 @@ public final class GdaxExchangeAdapter extends AbstractExchangeAdapter implement
     @Override
     public MarketOrderBook getMarketOrders(String marketId) throws TradingApiException, ExchangeNetworkException {
 
+        if (marketDataStream != null) {
+            final MarketOrderBook streamedOrderBook = marketDataStream.getMarketOrders(marketId);
+            if (streamedOrderBook != null) {
+                return streamedOrderBook;
+            }
+        }
+
         try {
 
             final Map<String, String> params = createRequestParamMap();
             params.put("level", "2"); //  "2" = Top 50 bids and asks (aggregated)
 
-            final ExchangeHttpResponse response = sendPublicRequestToExchange("products/" + marketId + "/book", params);
-            LOG.debug(() -> "Market Orders response: " + response);
-
-            if (response.getStatusCode() == HttpURLConnection.HTTP_OK) {
-
-                final GdaxBookWrapper orderBook = gson.fromJson(response.getPayload(), GdaxBookWrapper.class);
-
-                final List<MarketOrder> buyOrders = new ArrayList<>();
-                for (GdaxMarketOrder gdaxBuyOrder : orderBook.bids) {
-                    final MarketOrder buyOrder = new MarketOrderImpl(
-                            OrderType.BUY,
-                            gdaxBuyOrder.get(0),
-                            gdaxBuyOrder.get(1),
-                            gdaxBuyOrder.get(0).multiply(gdaxBuyOrder.get(1)));
-                    buyOrders.add(buyOrder);
-                }
-
-                final List<MarketOrder> sellOrders = new ArrayList<>();
-                for (GdaxMarketOrder gdaxSellOrder : orderBook.asks) {
-                    final MarketOrder sellOrder = new MarketOrderImpl(
-                            OrderType.SELL,
-                            gdaxSellOrder.get(0),
-                            gdaxSellOrder.get(1),
-                            gdaxSellOrder.get(0).multiply(gdaxSellOrder.get(1)));
-                    sellOrders.add(sellOrder);
-                }
-
-                return new MarketOrderBookImpl(marketId, sellOrders, buyOrders);
+            // Order books are big - parse the response as it is streamed from the exchange.
+            // A non-200 response is never parsed - it throws a TradingApiException or ExchangeNetworkException.
+            final GdaxBookWrapper orderBook = streamPublicRequestToExchange("products/" + marketId + "/book", params,
+                    jsonReader -> gson.fromJson(jsonReader, GdaxBookWrapper.class));
+            LOG.debug(() -> "Market Orders response: " + orderBook);
+
+            final List<MarketOrder> buyOrders = new ArrayList<>();
+            for (GdaxMarketOrder gdaxBuyOrder : orderBook.bids) {
+                final MarketOrder buyOrder = new MarketOrderImpl(
+                        OrderType.BUY,
+                        gdaxBuyOrder.get(0),
+                        gdaxBuyOrder.get(1),
+                        gdaxBuyOrder.get(0).multiply(gdaxBuyOrder.get(1)));
+                buyOrders.add(buyOrder);
+            }
 
-            } else {
-                final String errorMsg = "Failed to get market order book from exchange. Details: " + response;
-                LOG.error(errorMsg);
-                throw new TradingApiException(errorMsg);
+            final List<MarketOrder> sellOrders = new ArrayList<>();
+            for (GdaxMarketOrder gdaxSellOrder : orderBook.asks) {
+                final MarketOrder sellOrder = new MarketOrderImpl(
+                        OrderType.SELL,
+                        gdaxSellOrder.get(0),
+                        gdaxSellOrder.get(1),
+                        gdaxSellOrder.get(0).multiply(gdaxSellOrder.get(1)));
+                sellOrders.add(sellOrder);
             }
 
+            return new MarketOrderBookImpl(marketId, sellOrders, buyOrders);
+
         } catch (ExchangeNetworkException | TradingApiException e) {
             throw e;
         } catch (Exception e) {
@@ -489,6 +503,13 @@ public final class GdaxExchangeAdapter extends AbstractExchangeAdapter implement
     @Override
     public Ticker getTicker(String marketId) throws ExchangeNetworkException, TradingApiException {
 
+        if (marketDataStream != null) {
+            final Ticker streamedTicker = marketDataStream.getTicker(marketId);
+            if (streamedTicker != null) {
+                return streamedTicker;
+            }
+        }
+
         try {
 
             final ExchangeHttpResponse tickerResponse = sendPublicRequestToExchange("products/" + marketId + "/ticker", null);
@@ -707,12 +728,42 @@ public final class GdaxExchangeAdapter extends AbstractExchangeAdapter implement
     private ExchangeHttpResponse sendPublicRequestToExchange(String apiMethod, Map<String, String> params)
             throws ExchangeNetworkException, TradingApiException {
 
-        if (params == null) {
-            params = createRequestParamMap(); // no params, so empty query string
-        }
+        // Request headers required by Exchange
+        final Map<String, String> requestHeaders = new HashMap<>();
+        final URL url = createPublicApiUrl(apiMethod, params, requestHeaders);
+        return makeNetworkRequest(url, "GET", null, requestHeaders);
+    }
+
+    /**
+     * Makes a public API call to the GDAX exchange and streams the response into the given parser.
+     *
+     * @param apiMethod      the API method to call.
+     * @param params         any (optional) query param args to use in the API call.
+     * @param responseParser parses the response from the exchange.
+     * @param <T>            the type the response is parsed into.
+     * @return the parsed response from the exchange.
+     * @throws ExchangeNetworkException if there is a network issue connecting to exchange.
+     * @throws TradingApiException      if anything unexpected happens.
+     */
+    private <T> T streamPublicRequestToExchange(String apiMethod, Map<String, String> params,
+                                                ExchangeResponseParser<T> responseParser)
+            throws ExchangeNetworkException, TradingApiException {
 
         // Request headers required by Exchange
         final Map<String, String> requestHeaders = new HashMap<>();
+        final URL url = createPublicApiUrl(apiMethod, params, requestHeaders);
+        return makeStreamingNetworkRequest(url, requestHeaders, responseParser);
+    }
+
+    /*
+     * Builds the URL for a public API call. Sets the Content-Type request header if there are any query params.
+     */
+    private URL createPublicApiUrl(String apiMethod, Map<String, String> params, Map<String, String> requestHeaders)
+            throws TradingApiException {
+
+        if (params == null) {
+            params = createRequestParamMap(); // no params, so empty query string
+        }
 
         try {
 
@@ -734,8 +785,7 @@ public final class GdaxExchangeAdapter extends AbstractExchangeAdapter implement
                 requestHeaders.put("Content-Type", "application/x-www-form-urlencoded");
             }
 
-            final URL url = new URL(PUBLIC_API_BASE_URL + apiMethod + queryString);
-            return makeNetworkRequest(url, "GET", null, requestHeaders);
+            return new URL(PUBLIC_API_BASE_URL + apiMethod + queryString);
 
         } catch (MalformedURLException | UnsupportedEncodingException e) {
             final String errorMsg = UNEXPECTED_IO_ERROR_MSG;
@@ -860,9 +910,7 @@ public final class GdaxExchangeAdapter extends AbstractExchangeAdapter implement
                     requestBody;
 
             // Sign the signature string and Base64 encode it
-            mac.reset();
-            mac.update(signatureBuilder.getBytes("UTF-8"));
-            final String signature = DatatypeConverter.printBase64Binary(mac.doFinal());
+            final String signature = requestSigner.sign(RequestSigner.Encoding.BASE64, signatureBuilder);
 
             // Request headers required by Exchange
             final Map<String, String> requestHeaders = createHeaderParamMap();
@@ -875,7 +923,7 @@ public final class GdaxExchangeAdapter extends AbstractExchangeAdapter implement
             final URL url = new URL(invocationUrl);
             return makeNetworkRequest(url, httpMethod, requestBody, requestHeaders);
 
-        } catch (MalformedURLException | UnsupportedEncodingException e) {
+        } catch (MalformedURLException e) {
             final String errorMsg = UNEXPECTED_IO_ERROR_MSG;
             LOG.error(errorMsg, e);
             throw new TradingApiException(errorMsg, e);
@@ -895,9 +943,7 @@ public final class GdaxExchangeAdapter extends AbstractExchangeAdapter implement
             // GDAX secret is in Base64 so we must decode it first.
             final byte[] decodedBase64Secret = DatatypeConverter.parseBase64Binary(secret);
 
-            final SecretKeySpec keyspec = new SecretKeySpec(decodedBase64Secret, "HmacSHA256");
-            mac = Mac.getInstance("HmacSHA256");
-            mac.init(keyspec);
+            requestSigner = RequestSigner.forHmac("HmacSHA256", decodedBase64Secret);
             initializedMACAuthentication = true;
         } catch (NoSuchAlgorithmException e) {
             final String errorMsg = "Failed to setup MAC security. HINT: Is HMAC-SHA256 installed?";
@@ -910,6 +956,16 @@ public final class GdaxExchangeAdapter extends AbstractExchangeAdapter implement
         }
     }
 
+    /*
+     * The open orders and account balances are fetched with GET too, so only the public product endpoints are given
+     * the market data priority.
+     */
+    @Override
+    RequestRateLimiter.RequestPriority getRequestPriority(URL url, String httpMethod) {
+        return "GET".equalsIgnoreCase(httpMethod) && url.getPath().startsWith("/products/")
+                ? RequestRateLimiter.RequestPriority.LOW : RequestRateLimiter.RequestPriority.HIGH;
+    }
+
     // ------------------------------------------------------------------------------------------------
     //  Config methods
     // ------------------------------------------------------------------------------------------------
@@ -933,6 +989,8 @@ public final class GdaxExchangeAdapter extends AbstractExchangeAdapter implement
         final String sellFeeInConfig = getOptionalConfigItem(optionalConfig, SELL_FEE_PROPERTY_NAME);
         sellFeePercentage = new BigDecimal(sellFeeInConfig).divide(new BigDecimal("100"), 8, BigDecimal.ROUND_HALF_UP);
         LOG.info(() -> "Sell fee % in BigDecimal format: " + sellFeePercentage);
+
+        useMarketDataStream = isMarketDataStreamEnabled(optionalConfig);
     }
 
     // ------------------------------------------------------------------------------------------------
@@ -947,6 +1005,20 @@ public final class GdaxExchangeAdapter extends AbstractExchangeAdapter implement
         gson = gsonBuilder.create();
     }
 
+    /**
+     * Initialises the WebSocket market data stream, if enabled. The feed is not connected to until the first market
+     * is requested.
+     */
+    private void initMarketDataStream() {
+        if (marketDataStream != null) {
+            marketDataStream.close();
+            marketDataStream = null;
+        }
+        if (useMarketDataStream) {
+            marketDataStream = new GdaxMarketDataStream(GdaxMarketDataStream.WEBSOCKET_FEED_URL);
+        }
+    }
+
     /*
      * Hack for unit-testing request params passed to transport layer.
      */
@@ -968,4 +1040,13 @@ public final class GdaxExchangeAdapter extends AbstractExchangeAdapter implement
             throws TradingApiException, ExchangeNetworkException {
         return super.sendNetworkRequest(url, httpMethod, postData, requestHeaders);
     }
-}
\ No newline at end of file
+
+    /*
+     * Hack for unit-testing streaming transport layer.
+     */
+    private <T> T makeStreamingNetworkRequest(URL url, Map<String, String> requestHeaders,
+                                              ExchangeResponseParser<T> responseParser)
+            throws TradingApiException, ExchangeNetworkException {
+        return super.sendNetworkRequest(url, "GET", null, requestHeaders, responseParser);
+    }
+}
@@ -0,0 +1,196 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.exchanges;
+
+import com.gazbert.bxbot.exchanges.LocalOrderBook.PriceLevel;
+import com.gazbert.bxbot.exchanges.trading.api.impl.TickerImpl;
+import com.gazbert.bxbot.trading.api.OrderType;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import okhttp3.WebSocket;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streams GDAX market data from the <a href="https://docs.gdax.com/#websocket-feed">WebSocket feed</a>.
+ * <p>
+ * Subscribes to the {@code level2} channel for order book changes and the {@code ticker} channel for the last trade
+ * and 24hr stats. The level2 channel sends a {@code snapshot} of the whole book when it is subscribed to, followed
+ * by {@code l2update} messages with the changed price levels.
+ * <p>
+ * The level2 messages are not numbered, so a missed update cannot be detected, and the REST API order book cannot be
+ * lined up with the stream to resync from. The book is only trusted while the connection is up: if it drops, the book
+ * goes out of sync until the snapshot sent on resubscribing has been loaded.
+ *
+ * @author gazbert
+ */
+class GdaxMarketDataStream extends MarketDataStream {
+
+    private static final Logger LOG = LogManager.getLogger();
+
+    /**
+     * The WebSocket feed URI.
+     */
+    static final String WEBSOCKET_FEED_URL = "wss://ws-feed.gdax.com";
+
+    /**
+     * Max price levels returned on each side of the book. Matches the REST API level 2 order book.
+     */
+    private static final int MAX_DEPTH = 50;
+
+    private final JsonParser jsonParser = new JsonParser();
+
+    /**
+     * Creates the stream.
+     *
+     * @param url the WebSocket feed URL.
+     */
+    GdaxMarketDataStream(String url) {
+        super("GDAX", url, MAX_DEPTH);
+    }
+
+    /*
+     * Package-private for unit testing with a short retry delay.
+     */
+    GdaxMarketDataStream(String url, long retryDelayMillis) {
+        super("GDAX", url, MAX_DEPTH, retryDelayMillis);
+    }
+
+    @Override
+    void subscribe(WebSocket webSocket, String marketId) {
+
+        final JsonArray productIds = new JsonArray();
+        productIds.add(marketId);
+        final JsonArray channels = new JsonArray();
+        channels.add("level2");
+        channels.add("ticker");
+
+        final JsonObject subscribe = new JsonObject();
+        subscribe.addProperty("type", "subscribe");
+        subscribe.add("product_ids", productIds);
+        subscribe.add("channels", channels);
+        webSocket.send(subscribe.toString());
+    }
+
+    @Override
+    void onMessage(String message) {
+
+        final JsonObject json = jsonParser.parse(message).getAsJsonObject();
+        final String type = json.get("type").getAsString();
+        switch (type) {
+            case "snapshot":
+                onOrderBookSnapshot(json);
+                break;
+            case "l2update":
+                onOrderBookUpdate(json);
+                break;
+            case "ticker":
+                onTicker(json);
+                break;
+            case "error":
+                LOG.error(() -> "GDAX market data stream error: " + message);
+                break;
+            default:
+                // e.g. subscriptions, heartbeat
+                break;
+        }
+    }
+
+    // ------------------------------------------------------------------------------------------------
+    //  Util methods
+    // ------------------------------------------------------------------------------------------------
+
+    /*
+     * The snapshot's bids and asks are arrays of [PRICE, SIZE] price levels.
+     */
+    private void onOrderBookSnapshot(JsonObject json) {
+
+        final LocalOrderBook orderBook = getOrderBook(json.get("product_id").getAsString());
+        if (orderBook == null) {
+            return;
+        }
+
+        final JsonArray bids = json.getAsJsonArray("bids");
+        final JsonArray asks = json.getAsJsonArray("asks");
+        final List<PriceLevel> priceLevels = new ArrayList<>(bids.size() + asks.size());
+        addPriceLevels(OrderType.BUY, bids, priceLevels);
+        addPriceLevels(OrderType.SELL, asks, priceLevels);
+        orderBook.reset(0, priceLevels);
+        LOG.info(() -> "GDAX order book in sync: " + orderBook);
+    }
+
+    /*
+     * The update's changes are arrays of [SIDE, PRICE, SIZE]. A SIZE of 0 removes the price level.
+     */
+    private void onOrderBookUpdate(JsonObject json) {
+
+        final LocalOrderBook orderBook = getOrderBook(json.get("product_id").getAsString());
+        if (orderBook == null) {
+            return;
+        }
+
+        final List<PriceLevel> changes = new ArrayList<>();
+        for (final JsonElement change : json.getAsJsonArray("changes")) {
+            final JsonArray sideAndPriceLevel = change.getAsJsonArray();
+            changes.add(new PriceLevel(
+                    "buy".equals(sideAndPriceLevel.get(0).getAsString()) ? OrderType.BUY : OrderType.SELL,
+                    sideAndPriceLevel.get(1).getAsBigDecimal(),
+                    sideAndPriceLevel.get(2).getAsBigDecimal()));
+        }
+        orderBook.apply(changes);
+    }
+
+    private static void addPriceLevels(OrderType type, JsonArray priceLevels, List<PriceLevel> target) {
+        for (final JsonElement priceLevel : priceLevels) {
+            final JsonArray priceAndSize = priceLevel.getAsJsonArray();
+            target.add(new PriceLevel(type, priceAndSize.get(0).getAsBigDecimal(),
+                    priceAndSize.get(1).getAsBigDecimal()));
+        }
+    }
+
+    private void onTicker(JsonObject json) {
+        updateTicker(json.get("product_id").getAsString(), new TickerImpl(
+                getBigDecimal(json, "price"),
+                null, // bid from local order book
+                null, // ask from local order book
+                getBigDecimal(json, "low_24h"),
+                getBigDecimal(json, "high_24h"),
+                getBigDecimal(json, "open_24h"),
+                getBigDecimal(json, "volume_24h"),
+                null, // vwap - not supplied by GDAX
+                json.has("time") ? Instant.parse(json.get("time").getAsString()).toEpochMilli() : null));
+    }
+
+    private static BigDecimal getBigDecimal(JsonObject json, String name) {
+        final JsonElement value = json.get(name);
+        return value == null || value.isJsonNull() ? null : value.getAsBigDecimal();
+    }
+}
@@ -38,8 +38,6 @@ import com.google.gson.GsonBuilder;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
-import javax.crypto.Mac;
-import javax.crypto.spec.SecretKeySpec;
 import javax.xml.bind.DatatypeConverter;
 import java.io.UnsupportedEncodingException;
 import java.math.BigDecimal;
@@ -149,11 +147,6 @@ public final class GeminiExchangeAdapter extends AbstractExchangeAdapter impleme
      */
     private static final String SELL_FEE_PROPERTY_NAME = "sell-fee";
 
-    /**
-     * Nonce used for sending authenticated messages to the exchange.
-     */
-    private long nonce = 0;
-
     /**
      * Markets on the exchange. Used for determining order price truncation/rounding policy.
      * See: https://docs.gemini.com/rest-api/#symbols-and-minimums
@@ -199,10 +192,10 @@ public final class GeminiExchangeAdapter extends AbstractExchangeAdapter impleme
     private String secret = "";
 
     /**
-     * Provides the "Message Authentication Code" (MAC) algorithm used for the secure messaging layer.
+     * Signs requests with the "Message Authentication Code" (MAC) algorithm used for the secure messaging layer.
      * Used to encrypt the hash of the entire message with the private key to ensure message integrity.
      */
-    private Mac mac;
+    private RequestSigner requestSigner;
 
     /**
      * GSON engine used for parsing JSON in Gemini API call responses.
@@ -218,7 +211,6 @@ public final class GeminiExchangeAdapter extends AbstractExchangeAdapter impleme
         setNetworkConfig(config);
         setOptionalConfig(config);
 
-        nonce = System.currentTimeMillis() / 1000; // set the initial nonce used in the secure messaging.
         initSecureMessageLayer();
         initGson();
     }
@@ -755,8 +747,7 @@ public final class GeminiExchangeAdapter extends AbstractExchangeAdapter impleme
             params.put("request", "/" + GEMINI_API_VERSION + "/" + apiMethod);
 
             // nonce is required by Gemini in every request
-            params.put("nonce", Long.toString(nonce));
-            nonce++;
+            params.put("nonce", Long.toString(getNextNonce()));
 
             // JSON-ify the param dictionary
             final String paramsInJson = gson.toJson(params);
@@ -765,9 +756,7 @@ public final class GeminiExchangeAdapter extends AbstractExchangeAdapter impleme
             final String base64payload = DatatypeConverter.printBase64Binary(paramsInJson.getBytes("UTF-8"));
 
             // Create the signature
-            mac.reset(); // force reset
-            mac.update(base64payload.getBytes("UTF-8"));
-            final String signature = toHex(mac.doFinal()).toLowerCase();
+            final String signature = requestSigner.sign(RequestSigner.Encoding.LOWER_CASE_HEX, base64payload);
 
             // Request headers required by Exchange
             final Map<String, String> requestHeaders = createHeaderParamMap();
@@ -789,22 +778,6 @@ public final class GeminiExchangeAdapter extends AbstractExchangeAdapter impleme
         }
     }
 
-    /**
-     * Converts a given byte array to a hex String.
-     *
-     * @param byteArrayToConvert byte array to convert.
-     * @return the string representation of the given byte array.
-     */
-    private String toHex(byte[] byteArrayToConvert) {
-
-        final StringBuilder hexString = new StringBuilder();
-
-        for (final byte aByte : byteArrayToConvert) {
-            hexString.append(String.format("%02x", aByte & 0xff));
-        }
-        return hexString.toString();
-    }
-
     /**
      * Initialises the secure messaging layer
      * Sets up the MAC to safeguard the data we send to the exchange.
@@ -813,9 +786,7 @@ public final class GeminiExchangeAdapter extends AbstractExchangeAdapter impleme
     private void initSecureMessageLayer() {
 
         try {
-            final SecretKeySpec keyspec = new SecretKeySpec(secret.getBytes("UTF-8"), "HmacSHA384");
-            mac = Mac.getInstance("HmacSHA384");
-            mac.init(keyspec);
+            requestSigner = RequestSigner.forHmac("HmacSHA384", secret.getBytes("UTF-8"));
             initializedMACAuthentication = true;
         } catch (UnsupportedEncodingException | NoSuchAlgorithmException e) {
             final String errorMsg = "Failed to setup MAC security. HINT: Is HMAC-SHA384 installed?";
@@ -850,6 +821,8 @@ public final class GeminiExchangeAdapter extends AbstractExchangeAdapter impleme
         final String sellFeeInConfig = getOptionalConfigItem(optionalConfig, SELL_FEE_PROPERTY_NAME);
         sellFeePercentage = new BigDecimal(sellFeeInConfig).divide(new BigDecimal("100"), 8, BigDecimal.ROUND_HALF_UP);
         LOG.info(() -> "Sell fee % in BigDecimal format: " + sellFeePercentage);
+
+        initNonceGenerator(optionalConfig);
     }
 
     // ------------------------------------------------------------------------------------------------
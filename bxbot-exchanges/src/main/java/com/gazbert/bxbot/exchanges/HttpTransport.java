@@ -0,0 +1,103 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+
+package com.gazbert.bxbot.exchanges;
+
+import com.gazbert.bxbot.exchanges.AbstractExchangeAdapter.ExchangeHttpResponse;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.net.URL;
+import java.util.Map;
+
+/**
+ * The transport used by {@link AbstractExchangeAdapter#sendNetworkRequest(URL, String, String, Map)} to send HTTP
+ * requests to the exchange.
+ * <p>
+ * Implementations must be thread safe - an Exchange Adapter can be called by more than one Trading Strategy at the
+ * same time.
+ *
+ * @author gazbert
+ */
+interface HttpTransport {
+
+    /**
+     * Sends a request to the exchange and reads the response.
+     * <p>
+     * Responses with an HTTP error status code are returned - it is up to the caller to decide what to do with them.
+     *
+     * @param url            the URL to invoke.
+     * @param httpMethod     the HTTP method to use, e.g. GET, POST, DELETE
+     * @param postData       optional post data to send. This can be null.
+     * @param requestHeaders optional request headers. This can be null.
+     * @return the response from the exchange.
+     * @throws IOException if the request could not be sent or the response could not be read.
+     */
+    ExchangeHttpResponse send(URL url, String httpMethod, String postData, Map<String, String> requestHeaders)
+            throws IOException;
+
+    /**
+     * Sends a request to the exchange and hands the response body to the given reader as it arrives off the wire.
+     * <p>
+     * The body is not buffered into a String first; the transport releases the connection once the reader returns.
+     * As with {@link #send(URL, String, String, Map)}, responses with an HTTP error status code are passed to the
+     * reader too.
+     *
+     * @param url            the URL to invoke.
+     * @param httpMethod     the HTTP method to use, e.g. GET, POST, DELETE
+     * @param postData       optional post data to send. This can be null.
+     * @param requestHeaders optional request headers. This can be null.
+     * @param responseReader reads the response.
+     * @param <T>            the type the response is read into.
+     * @return what the response reader returned.
+     * @throws IOException if the request could not be sent or the response could not be read.
+     */
+    <T> T send(URL url, String httpMethod, String postData, Map<String, String> requestHeaders,
+               ResponseReader<T> responseReader) throws IOException;
+
+    /**
+     * Closes any connections held open by the transport.
+     */
+    void close();
+
+    /**
+     * Reads a streamed response from the exchange.
+     *
+     * @param <T> the type the response is read into.
+     */
+    @FunctionalInterface
+    interface ResponseReader<T> {
+
+        /**
+         * Reads the response.
+         *
+         * @param statusCode   the HTTP status code.
+         * @param reasonPhrase the HTTP reason phrase.
+         * @param body         the response body. Decoded as UTF-8.
+         * @return the result of reading the response.
+         * @throws IOException if the response could not be read.
+         */
+        T read(int statusCode, String reasonPhrase, Reader body) throws IOException;
+    }
+}
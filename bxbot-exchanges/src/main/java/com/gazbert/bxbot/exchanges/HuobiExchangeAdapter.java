@@ -44,7 +44,6 @@ import java.net.MalformedURLException;
 import java.net.URL;
 import java.net.URLConnection;
 import java.net.URLEncoder;
-import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.text.DecimalFormat;
 import java.util.*;
@@ -211,10 +210,10 @@ public final class HuobiExchangeAdapter extends AbstractExchangeAdapter implemen
     private String secret = "";
 
     /**
-     * The Message Digest generator used by the secure messaging layer.
+     * Signs requests with the Message Digest generator used by the secure messaging layer.
      * Used to create the hash of the entire message with the private key to ensure message integrity.
      */
-    private MessageDigest messageDigest;
+    private RequestSigner requestSigner;
 
     /**
      * GSON engine used for parsing JSON in Huobi API call responses.
@@ -1064,22 +1063,14 @@ public final class HuobiExchangeAdapter extends AbstractExchangeAdapter implemen
      * @param stringToHash the string to create the MD5 hash for.
      * @return the MD5 hash as an lowercase string.
      */
-    private String createMd5HashAndReturnAsLowerCaseString(String stringToHash) throws UnsupportedEncodingException {
+    private String createMd5HashAndReturnAsLowerCaseString(String stringToHash) {
 
-        final char[] HEX_DIGITS = {'0', '1', '2', '3', '4', '5', '6', '7', '8', '9', 'a', 'b', 'c', 'd', 'e', 'f'};
 
         if (stringToHash == null || stringToHash.isEmpty()) {
             return "";
         }
 
-        messageDigest.update(stringToHash.getBytes("UTF-8"));
-        final byte[] md5HashInBytes = messageDigest.digest();
-
-        final StringBuilder md5HashAsLowerCaseString = new StringBuilder();
-        for (final byte md5HashByte : md5HashInBytes) {
-            md5HashAsLowerCaseString.append(HEX_DIGITS[(md5HashByte & 0xf0) >> 4]).append("").append(HEX_DIGITS[md5HashByte & 0xf]);
-        }
-        return md5HashAsLowerCaseString.toString();
+        return requestSigner.digest(RequestSigner.Encoding.LOWER_CASE_HEX, stringToHash);
     }
 
     /**
@@ -1090,7 +1081,7 @@ public final class HuobiExchangeAdapter extends AbstractExchangeAdapter implemen
     private void initSecureMessageLayer() {
 
         try {
-            messageDigest = MessageDigest.getInstance("MD5");
+            requestSigner = RequestSigner.forDigest("MD5");
             initializedSecureMessagingLayer = true;
         } catch (NoSuchAlgorithmException e) {
             final String errorMsg = "Failed to setup MessageDigest for secure message layer. Details: " + e.getMessage();
@@ -35,9 +35,6 @@ import com.google.gson.GsonBuilder;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
-import javax.crypto.Mac;
-import javax.crypto.spec.SecretKeySpec;
-import javax.xml.bind.DatatypeConverter;
 import java.io.UnsupportedEncodingException;
 import java.math.BigDecimal;
 import java.net.HttpURLConnection;
@@ -45,7 +42,6 @@ import java.net.MalformedURLException;
 import java.net.URL;
 import java.net.URLConnection;
 import java.security.InvalidKeyException;
-import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.text.DecimalFormat;
 import java.time.Instant;
@@ -175,11 +171,6 @@ public final class ItBitExchangeAdapter extends AbstractExchangeAdapter implemen
      */
     private static final String EXCHANGE_UNDERGOING_MAINTENANCE_RESPONSE = "The itBit API is currently undergoing maintenance";
 
-    /**
-     * Nonce used for sending authenticated messages to the exchange.
-     */
-    private long nonce = 0;
-
     /**
      * The UUID of the wallet in use on the exchange.
      */
@@ -221,10 +212,10 @@ public final class ItBitExchangeAdapter extends AbstractExchangeAdapter implemen
     private String secret = "";
 
     /**
-     * Provides the "Message Authentication Code" (MAC) algorithm used for the secure messaging layer.
+     * Signs requests with the "Message Authentication Code" (MAC) algorithm used for the secure messaging layer.
      * Used to encrypt the hash of the entire message with the private key to ensure message integrity.
      */
-    private Mac mac;
+    private RequestSigner requestSigner;
 
     /**
      * GSON engine used for parsing JSON in itBit API call responses.
@@ -240,7 +231,6 @@ public final class ItBitExchangeAdapter extends AbstractExchangeAdapter implemen
         setNetworkConfig(config);
         setOptionalConfig(config);
 
-        nonce = System.currentTimeMillis() / 1000; // set the initial nonce used in the secure messaging.
         initSecureMessageLayer();
         initGson();
     }
@@ -933,8 +923,8 @@ public final class ItBitExchangeAdapter extends AbstractExchangeAdapter implemen
             // Generate new UNIX time in secs
             final String unixTime = Long.toString(System.currentTimeMillis());
 
-            // increment nonce for use in this call
-            nonce++;
+            // get the nonce for use in this call
+            final long nonce = getNextNonce();
 
             if (params == null) {
                 // create empty map for non-param API calls
@@ -1025,17 +1015,10 @@ public final class ItBitExchangeAdapter extends AbstractExchangeAdapter implemen
             final String noncePrependedToJson = Long.toString(nonce) + signatureParamsInJson;
 
             // Construct the SHA-256 hash of the noncePrependedToJson. Call this the message hash.
-            final MessageDigest md = MessageDigest.getInstance("SHA-256");
-            md.update(noncePrependedToJson.getBytes("UTF-8"));
-            final byte[] messageHash = md.digest();
-
             // Prepend the UTF-8 encoded request URL to the message hash.
             // Generate the SHA-512 HMAC of the prependRequestUrlToMsgHash using your API secret as the key.
-            mac.reset(); // force reset
-            mac.update(invocationUrl.getBytes("UTF-8"));
-            mac.update(messageHash);
-
-            final String signature = DatatypeConverter.printBase64Binary(mac.doFinal());
+            final String signature = requestSigner.signWithDigest(
+                    RequestSigner.Encoding.BASE64, invocationUrl, noncePrependedToJson);
 
             // Request headers required by Exchange
             final Map<String, String> requestHeaders = createHeaderParamMap();
@@ -1052,15 +1035,10 @@ public final class ItBitExchangeAdapter extends AbstractExchangeAdapter implemen
             final URL url = new URL(invocationUrl);
             return makeNetworkRequest(url, httpMethod, requestBody, requestHeaders);
 
-        } catch (MalformedURLException | UnsupportedEncodingException e) {
+        } catch (MalformedURLException e) {
             final String errorMsg = UNEXPECTED_IO_ERROR_MSG;
             LOG.error(errorMsg, e);
             throw new TradingApiException(errorMsg, e);
-
-        } catch (NoSuchAlgorithmException e) {
-            final String errorMsg = "Failed to create SHA-256 digest when building message signature.";
-            LOG.error(errorMsg, e);
-            throw new TradingApiException(errorMsg, e);
         }
     }
 
@@ -1072,12 +1050,10 @@ public final class ItBitExchangeAdapter extends AbstractExchangeAdapter implemen
     private void initSecureMessageLayer() {
 
         try {
-            final SecretKeySpec keyspec = new SecretKeySpec(secret.getBytes("UTF-8"), "HmacSHA512");
-            mac = Mac.getInstance("HmacSHA512");
-            mac.init(keyspec);
+            requestSigner = RequestSigner.forHmacWithDigest("HmacSHA512", secret.getBytes("UTF-8"), "SHA-256");
             initializedMACAuthentication = true;
         } catch (UnsupportedEncodingException | NoSuchAlgorithmException e) {
-            final String errorMsg = "Failed to setup MAC security. HINT: Is HMAC-SHA512 installed?";
+            final String errorMsg = "Failed to setup MAC security. HINT: Are HMAC-SHA512 and SHA-256 installed?";
             LOG.error(errorMsg, e);
             throw new IllegalStateException(errorMsg, e);
         } catch (InvalidKeyException e) {
@@ -1087,6 +1063,16 @@ public final class ItBitExchangeAdapter extends AbstractExchangeAdapter implemen
         }
     }
 
+    /*
+     * The open orders and wallet balances are fetched with GET too, so only the public market endpoints are given the
+     * market data priority.
+     */
+    @Override
+    RequestRateLimiter.RequestPriority getRequestPriority(URL url, String httpMethod) {
+        return "GET".equalsIgnoreCase(httpMethod) && url.getPath().startsWith("/" + ITBIT_API_VERSION + "/markets/")
+                ? RequestRateLimiter.RequestPriority.LOW : RequestRateLimiter.RequestPriority.HIGH;
+    }
+
     // ------------------------------------------------------------------------------------------------
     //  Config methods
     // ------------------------------------------------------------------------------------------------
@@ -1119,6 +1105,8 @@ public final class ItBitExchangeAdapter extends AbstractExchangeAdapter implemen
         } else {
             LOG.info(() -> KEEP_ALIVE_DURING_MAINTENANCE_PROPERTY_NAME + " is not set in exchange.xml");
         }
+
+        initNonceGenerator(optionalConfig);
     }
 
     // ------------------------------------------------------------------------------------------------
@@ -35,14 +35,11 @@ import com.google.gson.reflect.TypeToken;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
-import javax.crypto.Mac;
-import javax.crypto.spec.SecretKeySpec;
 import java.io.UnsupportedEncodingException;
 import java.lang.reflect.Type;
 import java.math.BigDecimal;
 import java.net.*;
 import java.security.InvalidKeyException;
-import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.text.DecimalFormat;
 import java.util.*;
@@ -150,6 +147,12 @@ public final class KrakenExchangeAdapter extends AbstractExchangeAdapter impleme
      */
     private static final String UNDER_MAINTENANCE_WARNING_MESSAGE = "Exchange is undergoing maintenance - keep alive is true.";
 
+    /**
+     * Warning message for when Kraken rejects an API call because the rate limit has been exceeded.
+     */
+    private static final String RATE_LIMIT_EXCEEDED_WARNING_MESSAGE = "Exchange rate limit exceeded - backing off. "
+            + "HINT: is max-requests-per-minute set too high in the exchange.xml file?";
+
     /**
      * Error message for when API call to get Market Orders fails.
      */
@@ -211,9 +214,9 @@ public final class KrakenExchangeAdapter extends AbstractExchangeAdapter impleme
     private static final String EXCHANGE_UNDERGOING_MAINTENANCE_RESPONSE = "EService:Unavailable";
 
     /**
-     * Nonce used for sending authenticated messages to the exchange.
+     * Error message returned by Kraken when the API call counter has gone over the limit.
      */
-    private long nonce = 0;
+    private static final String RATE_LIMIT_EXCEEDED_RESPONSE = "Rate limit exceeded";
 
     /**
      * Exchange buy fees in % in {@link BigDecimal} format.
@@ -246,10 +249,10 @@ public final class KrakenExchangeAdapter extends AbstractExchangeAdapter impleme
     private String secret = "";
 
     /**
-     * Provides the "Message Authentication Code" (MAC) algorithm used for the secure messaging layer.
+     * Signs requests with the "Message Authentication Code" (MAC) algorithm used for the secure messaging layer.
      * Used to encrypt the hash of the entire message with the private key to ensure message integrity.
      */
-    private Mac mac;
+    private RequestSigner requestSigner;
 
     /**
      * GSON engine used for parsing JSON in Kraken API call responses.
@@ -265,7 +268,6 @@ public final class KrakenExchangeAdapter extends AbstractExchangeAdapter impleme
         setNetworkConfig(config);
         setOptionalConfig(config);
 
-        nonce = System.currentTimeMillis() / 1000; // set the initial nonce used in the secure messaging.
         initSecureMessageLayer();
         initGson();
     }
@@ -278,69 +280,63 @@ public final class KrakenExchangeAdapter extends AbstractExchangeAdapter impleme
     @Override
     public MarketOrderBook getMarketOrders(String marketId) throws TradingApiException, ExchangeNetworkException {
 
-        ExchangeHttpResponse response;
-
         try {
 
             final Map<String, String> params = createRequestParamMap();
             params.put("pair", marketId);
 
-            response = sendPublicRequestToExchange("Depth", params);
+            // Order books are big - parse the response as it is streamed from the exchange
+            final Type resultType = new TypeToken<KrakenResponse<KrakenMarketOrderBookResult>>() {
+            }.getType();
+            final KrakenResponse<KrakenMarketOrderBookResult> krakenResponse = streamPublicRequestToExchange(
+                    "Depth", params, jsonReader -> gson.fromJson(jsonReader, resultType));
 
             if (LOG.isDebugEnabled()) {
-                LOG.debug("Market Orders response: " + response);
+                LOG.debug("Market Orders response: " + krakenResponse);
             }
 
-            if (response.getStatusCode() == HttpURLConnection.HTTP_OK) {
+            final List<String> errors = krakenResponse.error;
+            if (errors == null || errors.isEmpty()) {
 
-                final Type resultType = new TypeToken<KrakenResponse<KrakenMarketOrderBookResult>>() {
-                }.getType();
-                final KrakenResponse krakenResponse = gson.fromJson(response.getPayload(), resultType);
+                // Assume we'll always get something here if errors array is empty; else blow fast wih NPE
+                final KrakenMarketOrderBookResult krakenOrderBookResult = krakenResponse.result;
 
-                final List<String> errors = krakenResponse.error;
-                if (errors == null || errors.isEmpty()) {
+                final KrakenOrderBook krakenOrderBook = krakenOrderBookResult.values().stream().findFirst().get();
 
-                    // Assume we'll always get something here if errors array is empty; else blow fast wih NPE
-                    final KrakenMarketOrderBookResult krakenOrderBookResult = (KrakenMarketOrderBookResult) krakenResponse.result;
-
-                    final KrakenOrderBook krakenOrderBook = krakenOrderBookResult.values().stream().findFirst().get();
-
-                    final List<MarketOrder> buyOrders = new ArrayList<>();
-                    for (KrakenMarketOrder krakenBuyOrder : krakenOrderBook.bids) {
-                        final MarketOrder buyOrder = new MarketOrderImpl(
-                                OrderType.BUY,
-                                krakenBuyOrder.get(0),
-                                krakenBuyOrder.get(1),
-                                krakenBuyOrder.get(0).multiply(krakenBuyOrder.get(1)));
-                        buyOrders.add(buyOrder);
-                    }
+                final List<MarketOrder> buyOrders = new ArrayList<>();
+                for (KrakenMarketOrder krakenBuyOrder : krakenOrderBook.bids) {
+                    final MarketOrder buyOrder = new MarketOrderImpl(
+                            OrderType.BUY,
+                            krakenBuyOrder.get(0),
+                            krakenBuyOrder.get(1),
+                            krakenBuyOrder.get(0).multiply(krakenBuyOrder.get(1)));
+                    buyOrders.add(buyOrder);
+                }
 
-                    final List<MarketOrder> sellOrders = new ArrayList<>();
-                    for (KrakenMarketOrder krakenSellOrder : krakenOrderBook.asks) {
-                        final MarketOrder sellOrder = new MarketOrderImpl(
-                                OrderType.SELL,
-                                krakenSellOrder.get(0),
-                                krakenSellOrder.get(1),
-                                krakenSellOrder.get(0).multiply(krakenSellOrder.get(1)));
-                        sellOrders.add(sellOrder);
-                    }
+                final List<MarketOrder> sellOrders = new ArrayList<>();
+                for (KrakenMarketOrder krakenSellOrder : krakenOrderBook.asks) {
+                    final MarketOrder sellOrder = new MarketOrderImpl(
+                            OrderType.SELL,
+                            krakenSellOrder.get(0),
+                            krakenSellOrder.get(1),
+                            krakenSellOrder.get(0).multiply(krakenSellOrder.get(1)));
+                    sellOrders.add(sellOrder);
+                }
 
-                    return new MarketOrderBookImpl(marketId, sellOrders, buyOrders);
+                return new MarketOrderBookImpl(marketId, sellOrders, buyOrders);
 
-                } else {
+            } else {
 
-                    if (isExchangeUndergoingMaintenance(response) && keepAliveDuringMaintenance) {
-                        LOG.warn(() -> UNDER_MAINTENANCE_WARNING_MESSAGE);
-                        throw new ExchangeNetworkException(UNDER_MAINTENANCE_WARNING_MESSAGE);
-                    }
+                if (isExchangeUndergoingMaintenance(errors) && keepAliveDuringMaintenance) {
+                    LOG.warn(() -> UNDER_MAINTENANCE_WARNING_MESSAGE);
+                    throw new ExchangeNetworkException(UNDER_MAINTENANCE_WARNING_MESSAGE);
+                }
 
-                    final String errorMsg = FAILED_TO_GET_MARKET_ORDERS + response;
-                    LOG.error(errorMsg);
-                    throw new TradingApiException(errorMsg);
+                if (isRateLimitExceeded(errors)) {
+                    throw createRateLimitExceededException();
                 }
 
-            } else {
-                final String errorMsg = FAILED_TO_GET_MARKET_ORDERS + response;
+                final String errorMsg = FAILED_TO_GET_MARKET_ORDERS + krakenResponse;
                 LOG.error(errorMsg);
                 throw new TradingApiException(errorMsg);
             }
@@ -430,6 +426,10 @@ public final class KrakenExchangeAdapter extends AbstractExchangeAdapter impleme
                         throw new ExchangeNetworkException(UNDER_MAINTENANCE_WARNING_MESSAGE);
                     }
 
+                    if (isRateLimitExceeded(response)) {
+                        throw createRateLimitExceededException();
+                    }
+
                     final String errorMsg = FAILED_TO_GET_OPEN_ORDERS + response;
                     LOG.error(errorMsg);
                     throw new TradingApiException(errorMsg);
@@ -505,6 +505,10 @@ public final class KrakenExchangeAdapter extends AbstractExchangeAdapter impleme
                         throw new ExchangeNetworkException(UNDER_MAINTENANCE_WARNING_MESSAGE);
                     }
 
+                    if (isRateLimitExceeded(response)) {
+                        throw createRateLimitExceededException();
+                    }
+
                     final String errorMsg = FAILED_TO_ADD_ORDER + response;
                     LOG.error(errorMsg);
                     throw new TradingApiException(errorMsg);
@@ -571,6 +575,10 @@ public final class KrakenExchangeAdapter extends AbstractExchangeAdapter impleme
                         throw new ExchangeNetworkException(UNDER_MAINTENANCE_WARNING_MESSAGE);
                     }
 
+                    if (isRateLimitExceeded(response)) {
+                        throw createRateLimitExceededException();
+                    }
+
                     final String errorMsg = FAILED_TO_CANCEL_ORDER + response;
                     LOG.error(errorMsg);
                     throw new TradingApiException(errorMsg);
@@ -628,6 +636,10 @@ public final class KrakenExchangeAdapter extends AbstractExchangeAdapter impleme
                         throw new ExchangeNetworkException(UNDER_MAINTENANCE_WARNING_MESSAGE);
                     }
 
+                    if (isRateLimitExceeded(response)) {
+                        throw createRateLimitExceededException();
+                    }
+
                     final String errorMsg = FAILED_TO_GET_TICKER + response;
                     LOG.error(errorMsg);
                     throw new TradingApiException(errorMsg);
@@ -689,6 +701,10 @@ public final class KrakenExchangeAdapter extends AbstractExchangeAdapter impleme
                             throw new ExchangeNetworkException(UNDER_MAINTENANCE_WARNING_MESSAGE);
                         }
 
+                        if (isRateLimitExceeded(response)) {
+                            throw createRateLimitExceededException();
+                        }
+
                         final String errorMsg = FAILED_TO_GET_BALANCE + response;
                         LOG.error(errorMsg);
                         throw new TradingApiException(errorMsg);
@@ -780,6 +796,10 @@ public final class KrakenExchangeAdapter extends AbstractExchangeAdapter impleme
                         throw new ExchangeNetworkException(UNDER_MAINTENANCE_WARNING_MESSAGE);
                     }
 
+                    if (isRateLimitExceeded(response)) {
+                        throw createRateLimitExceededException();
+                    }
+
                     final String errorMsg = FAILED_TO_GET_TICKER + response;
                     LOG.error(errorMsg);
                     throw new TradingApiException(errorMsg);
@@ -1099,12 +1119,42 @@ public final class KrakenExchangeAdapter extends AbstractExchangeAdapter impleme
     private ExchangeHttpResponse sendPublicRequestToExchange(String apiMethod, Map<String, String> params)
             throws ExchangeNetworkException, TradingApiException {
 
-        if (params == null) {
-            params = createRequestParamMap(); // no params, so empty query string
-        }
+        // Request headers required by Exchange
+        final Map<String, String> requestHeaders = createHeaderParamMap();
+        final URL url = createPublicApiUrl(apiMethod, params, requestHeaders);
+        return makeNetworkRequest(url, "GET", null, requestHeaders);
+    }
+
+    /**
+     * Makes a public API call to the Kraken exchange and streams the response into the given parser.
+     *
+     * @param apiMethod      the API method to call.
+     * @param params         any (optional) query param args to use in the API call.
+     * @param responseParser parses the response from the exchange.
+     * @param <T>            the type the response is parsed into.
+     * @return the parsed response from the exchange.
+     * @throws ExchangeNetworkException if there is a network issue connecting to exchange.
+     * @throws TradingApiException      if anything unexpected happens.
+     */
+    private <T> T streamPublicRequestToExchange(String apiMethod, Map<String, String> params,
+                                                ExchangeResponseParser<T> responseParser)
+            throws ExchangeNetworkException, TradingApiException {
 
         // Request headers required by Exchange
         final Map<String, String> requestHeaders = createHeaderParamMap();
+        final URL url = createPublicApiUrl(apiMethod, params, requestHeaders);
+        return makeStreamingNetworkRequest(url, requestHeaders, responseParser);
+    }
+
+    /*
+     * Builds the URL for a public API call. Sets the Content-Type request header if there are any query params.
+     */
+    private URL createPublicApiUrl(String apiMethod, Map<String, String> params, Map<String, String> requestHeaders)
+            throws TradingApiException {
+
+        if (params == null) {
+            params = createRequestParamMap(); // no params, so empty query string
+        }
 
         try {
 
@@ -1124,8 +1174,7 @@ public final class KrakenExchangeAdapter extends AbstractExchangeAdapter impleme
                 requestHeaders.put("Content-Type", "application/x-www-form-urlencoded");
             }
 
-            final URL url = new URL(PUBLIC_API_BASE_URL + apiMethod + queryString);
-            return makeNetworkRequest(url, "GET", null, requestHeaders);
+            return new URL(PUBLIC_API_BASE_URL + apiMethod + queryString);
 
         } catch (MalformedURLException | UnsupportedEncodingException e) {
             final String errorMsg = UNEXPECTED_IO_ERROR_MSG;
@@ -1178,7 +1227,7 @@ public final class KrakenExchangeAdapter extends AbstractExchangeAdapter impleme
 
             // The nonce is required by Kraken in every request.
             // It MUST be incremented each time and the nonce param MUST match the value used in signature.
-            nonce++;
+            final long nonce = getNextNonce();
             params.put("nonce", Long.toString(nonce));
 
             // Current adapter does not support optional 2FA
@@ -1197,21 +1246,12 @@ public final class KrakenExchangeAdapter extends AbstractExchangeAdapter impleme
 
             // And now the tricky part... ;-o
 
-            final byte[] pathInBytes = ("/" + KRAKEN_API_VERSION + KRAKEN_PRIVATE_PATH + apiMethod).getBytes("UTF-8");
+            final String path = "/" + KRAKEN_API_VERSION + KRAKEN_PRIVATE_PATH + apiMethod;
             final String noncePrependedToPostData = Long.toString(nonce) + postData;
 
-            // Create sha256 hash of nonce and post data:
-            final MessageDigest md = MessageDigest.getInstance("SHA-256");
-            md.update(noncePrependedToPostData.getBytes("UTF-8"));
-            final byte[] messageHash = md.digest();
-
-            // Create hmac_sha512 digest of path and previous sha256 hash
-            mac.reset(); // force reset
-            mac.update(pathInBytes);
-            mac.update(messageHash);
-
-            // Signature in Base64
-            final String signature = Base64.getEncoder().encodeToString(mac.doFinal());
+            // Create hmac_sha512 digest of path and sha256 hash of nonce and post data. Signature in Base64.
+            final String signature = requestSigner.signWithDigest(
+                    RequestSigner.Encoding.BASE64, path, noncePrependedToPostData);
 
             // Request headers required by Exchange
             final Map<String, String> requestHeaders = createHeaderParamMap();
@@ -1222,7 +1262,7 @@ public final class KrakenExchangeAdapter extends AbstractExchangeAdapter impleme
             final URL url = new URL(AUTHENTICATED_API_URL + apiMethod);
             return makeNetworkRequest(url, "POST", postData.toString(), requestHeaders);
 
-        } catch (MalformedURLException | NoSuchAlgorithmException | UnsupportedEncodingException e) {
+        } catch (MalformedURLException | UnsupportedEncodingException e) {
 
             final String errorMsg = UNEXPECTED_IO_ERROR_MSG;
             LOG.error(errorMsg, e);
@@ -1241,12 +1281,10 @@ public final class KrakenExchangeAdapter extends AbstractExchangeAdapter impleme
             // Kraken secret key is in Base64, so we need to decode it first
             final byte[] base64DecodedSecret = Base64.getDecoder().decode(secret);
 
-            final SecretKeySpec keyspec = new SecretKeySpec(base64DecodedSecret, "HmacSHA512");
-            mac = Mac.getInstance("HmacSHA512");
-            mac.init(keyspec);
+            requestSigner = RequestSigner.forHmacWithDigest("HmacSHA512", base64DecodedSecret, "SHA-256");
             initializedMACAuthentication = true;
         } catch (NoSuchAlgorithmException e) {
-            final String errorMsg = "Failed to setup MAC security. HINT: Is HmacSHA512 installed?";
+            final String errorMsg = "Failed to setup MAC security. HINT: Are HmacSHA512 and SHA-256 installed?";
             LOG.error(errorMsg, e);
             throw new IllegalStateException(errorMsg, e);
         } catch (InvalidKeyException e) {
@@ -1286,6 +1324,8 @@ public final class KrakenExchangeAdapter extends AbstractExchangeAdapter impleme
         } else {
             LOG.info(() -> KEEP_ALIVE_DURING_MAINTENANCE_PROPERTY_NAME + " is not set in exchange.xml");
         }
+
+        initNonceGenerator(optionalConfig);
     }
 
     // ------------------------------------------------------------------------------------------------
@@ -1301,6 +1341,11 @@ public final class KrakenExchangeAdapter extends AbstractExchangeAdapter impleme
         gson = gsonBuilder.create();
     }
 
+    private static boolean isExchangeUndergoingMaintenance(List<String> errors) {
+        return errors != null && errors.stream().anyMatch(
+                error -> error != null && error.contains(EXCHANGE_UNDERGOING_MAINTENANCE_RESPONSE));
+    }
+
     private static boolean isExchangeUndergoingMaintenance(ExchangeHttpResponse response) {
         if (response != null) {
             final String payload = response.getPayload();
@@ -1311,6 +1356,30 @@ public final class KrakenExchangeAdapter extends AbstractExchangeAdapter impleme
         return false;
     }
 
+    private static boolean isRateLimitExceeded(List<String> errors) {
+        return errors != null && errors.stream().anyMatch(
+                error -> error != null && error.contains(RATE_LIMIT_EXCEEDED_RESPONSE));
+    }
+
+    private static boolean isRateLimitExceeded(ExchangeHttpResponse response) {
+        if (response != null) {
+            final String payload = response.getPayload();
+            if (payload != null && payload.contains(RATE_LIMIT_EXCEEDED_RESPONSE)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /*
+     * Kraken's rate limit errors are not fatal: we back off and the call can be retried next trade cycle.
+     */
+    private ExchangeNetworkException createRateLimitExceededException() {
+        LOG.warn(() -> RATE_LIMIT_EXCEEDED_WARNING_MESSAGE);
+        onRateLimitExceeded();
+        return new ExchangeNetworkException(RATE_LIMIT_EXCEEDED_WARNING_MESSAGE);
+    }
+
     /*
      * Hack for unit-testing map params passed to transport layer.
      */
@@ -1332,4 +1401,13 @@ public final class KrakenExchangeAdapter extends AbstractExchangeAdapter impleme
             throws TradingApiException, ExchangeNetworkException {
         return super.sendNetworkRequest(url, httpMethod, postData, requestHeaders);
     }
-}
\ No newline at end of file
+
+    /*
+     * Hack for unit-testing streaming transport layer.
+     */
+    private <T> T makeStreamingNetworkRequest(URL url, Map<String, String> requestHeaders,
+                                              ExchangeResponseParser<T> responseParser)
+            throws TradingApiException, ExchangeNetworkException {
+        return super.sendNetworkRequest(url, "GET", null, requestHeaders, responseParser);
+    }
+}
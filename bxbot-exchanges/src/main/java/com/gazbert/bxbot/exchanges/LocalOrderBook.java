@@ -0,0 +1,332 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.exchanges;
+
+import com.gazbert.bxbot.trading.api.FixedPointMarketOrderBook;
+import com.gazbert.bxbot.trading.api.MarketOrderBook;
+import com.gazbert.bxbot.trading.api.OrderType;
+import com.google.common.base.MoreObjects;
+
+import java.math.BigDecimal;
+import java.util.ArrayDeque;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.function.BiConsumer;
+
+/**
+ * An in-memory level 2 (price aggregated) order book for a single market, kept up to date from a
+ * {@link MarketDataStream}.
+ * <p>
+ * The book starts out of sync. It is brought into sync by a snapshot of the full book, and then kept in sync by
+ * applying the price level changes streamed from the exchange. If the exchange numbers its updates, a gap in the
+ * sequence means an update has been missed: the book goes out of sync and buffers any further updates until the next
+ * snapshot arrives. Buffered updates newer than the snapshot are replayed on top of it.
+ * <p>
+ * The {@link MarketOrderBook} view returned to callers is a {@link FixedPointMarketOrderBook}. It is only rebuilt after
+ * the book has changed, so repeated reads between updates are cheap.
+ * <p>
+ * This class is thread safe.
+ *
+ * @author gazbert
+ */
+class LocalOrderBook {
+
+    /**
+     * The outcome of applying a sequenced update to the book.
+     */
+    enum UpdateResult {
+
+        /**
+         * The update was applied.
+         */
+        APPLIED,
+
+        /**
+         * The update was older than the book and was ignored.
+         */
+        STALE,
+
+        /**
+         * The book is out of sync - the update was buffered until the next snapshot.
+         */
+        BUFFERED,
+
+        /**
+         * An update was missed. The book is now out of sync and needs a new snapshot.
+         */
+        GAP
+    }
+
+    /*
+     * Caps the updates buffered while waiting for a snapshot. If the oldest are dropped, the replay detects the gap.
+     */
+    private static final int MAX_BUFFERED_UPDATES = 10000;
+
+    private final String marketId;
+    private final int maxDepth;
+
+    private final NavigableMap<BigDecimal, BigDecimal> bids = new TreeMap<>(Comparator.reverseOrder());
+    private final NavigableMap<BigDecimal, BigDecimal> asks = new TreeMap<>();
+    private final Deque<SequencedUpdate> bufferedUpdates = new ArrayDeque<>();
+    private final FixedPointMarketOrderBook.Builder viewBuilder;
+
+    private long sequence;
+    private boolean synchronised;
+    private MarketOrderBook marketOrderBookView;
+
+    /**
+     * Creates an empty, out of sync, order book.
+     *
+     * @param marketId the id of the market.
+     * @param maxDepth the max number of price levels on each side of the book returned by
+     *                 {@link #getMarketOrderBook()}.
+     */
+    LocalOrderBook(String marketId, int maxDepth) {
+        this.marketId = marketId;
+        this.maxDepth = maxDepth;
+        this.viewBuilder = new FixedPointMarketOrderBook.Builder(marketId);
+    }
+
+    String getMarketId() {
+        return marketId;
+    }
+
+    synchronized long getSequence() {
+        return sequence;
+    }
+
+    synchronized boolean isSynchronised() {
+        return synchronised;
+    }
+
+    /**
+     * Replaces the contents of the book with a snapshot and replays any buffered updates newer than it.
+     *
+     * @param snapshotSequence the sequence number of the snapshot. Use 0 if the exchange does not number its updates.
+     * @param priceLevels      every price level in the book.
+     * @return true if the book is now in sync, false if there was a gap between the snapshot and the buffered updates.
+     */
+    synchronized boolean reset(long snapshotSequence, List<PriceLevel> priceLevels) {
+
+        bids.clear();
+        asks.clear();
+        applyChanges(priceLevels);
+        sequence = snapshotSequence;
+        synchronised = true;
+        marketOrderBookView = null;
+
+        while (!bufferedUpdates.isEmpty()) {
+            final SequencedUpdate bufferedUpdate = bufferedUpdates.peekFirst();
+            if (bufferedUpdate.sequence > sequence + 1) {
+                synchronised = false;
+                return false;
+            }
+            bufferedUpdates.removeFirst();
+            if (bufferedUpdate.sequence == sequence + 1) {
+                applyChanges(bufferedUpdate.changes);
+                sequence = bufferedUpdate.sequence;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Applies an update from an exchange that numbers its updates.
+     *
+     * @param updateSequence the sequence number of the update.
+     * @param changes        the changed price levels.
+     * @return the outcome.
+     */
+    synchronized UpdateResult apply(long updateSequence, List<PriceLevel> changes) {
+
+        if (!synchronised) {
+            buffer(new SequencedUpdate(updateSequence, changes));
+            return UpdateResult.BUFFERED;
+        }
+
+        if (updateSequence <= sequence) {
+            return UpdateResult.STALE;
+        }
+
+        if (updateSequence != sequence + 1) {
+            invalidate();
+            buffer(new SequencedUpdate(updateSequence, changes));
+            return UpdateResult.GAP;
+        }
+
+        applyChanges(changes);
+        sequence = updateSequence;
+        marketOrderBookView = null;
+        return UpdateResult.APPLIED;
+    }
+
+    /**
+     * Applies an update from an exchange that does not number its updates. Updates received while the book is out of
+     * sync are dropped.
+     *
+     * @param changes the changed price levels.
+     * @return true if the update was applied.
+     */
+    synchronized boolean apply(List<PriceLevel> changes) {
+        if (!synchronised) {
+            return false;
+        }
+        applyChanges(changes);
+        marketOrderBookView = null;
+        return true;
+    }
+
+    /**
+     * Marks the book as out of sync, e.g. after the stream has disconnected. Buffered updates are discarded.
+     */
+    synchronized void invalidate() {
+        synchronised = false;
+        bufferedUpdates.clear();
+        marketOrderBookView = null;
+    }
+
+    /**
+     * Returns the book as a Trading API Market Order Book.
+     *
+     * @return the order book, or null if the book is out of sync.
+     */
+    synchronized MarketOrderBook getMarketOrderBook() {
+        if (!synchronised) {
+            return null;
+        }
+        if (marketOrderBookView == null) {
+            viewBuilder.clear();
+            addLevels(bids, viewBuilder::addBid);
+            addLevels(asks, viewBuilder::addAsk);
+            marketOrderBookView = viewBuilder.build();
+        }
+        return marketOrderBookView;
+    }
+
+    /**
+     * Returns the highest bid price.
+     *
+     * @return the best bid, or null if the book is out of sync or there are no bids.
+     */
+    synchronized BigDecimal getBestBid() {
+        return synchronised && !bids.isEmpty() ? bids.firstKey() : null;
+    }
+
+    /**
+     * Returns the lowest ask price.
+     *
+     * @return the best ask, or null if the book is out of sync or there are no asks.
+     */
+    synchronized BigDecimal getBestAsk() {
+        return synchronised && !asks.isEmpty() ? asks.firstKey() : null;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return MoreObjects.toStringHelper(this)
+                .add("marketId", marketId)
+                .add("sequence", sequence)
+                .add("synchronised", synchronised)
+                .add("bidLevels", bids.size())
+                .add("askLevels", asks.size())
+                .add("bufferedUpdates", bufferedUpdates.size())
+                .toString();
+    }
+
+    // ------------------------------------------------------------------------------------------------
+    //  Util methods
+    // ------------------------------------------------------------------------------------------------
+
+    private void applyChanges(List<PriceLevel> changes) {
+        for (final PriceLevel change : changes) {
+            final NavigableMap<BigDecimal, BigDecimal> side = change.type == OrderType.BUY ? bids : asks;
+            if (change.quantity.signum() == 0) {
+                side.remove(change.price);
+            } else {
+                side.put(change.price, change.quantity);
+            }
+        }
+    }
+
+    private void buffer(SequencedUpdate update) {
+        if (bufferedUpdates.size() == MAX_BUFFERED_UPDATES) {
+            bufferedUpdates.removeFirst();
+        }
+        bufferedUpdates.addLast(update);
+    }
+
+    private void addLevels(NavigableMap<BigDecimal, BigDecimal> side,
+                           BiConsumer<BigDecimal, BigDecimal> addLevel) {
+        int depth = 0;
+        for (final Map.Entry<BigDecimal, BigDecimal> priceLevel : side.entrySet()) {
+            if (depth++ == maxDepth) {
+                break;
+            }
+            addLevel.accept(priceLevel.getKey(), priceLevel.getValue());
+        }
+    }
+
+    /**
+     * A price level in the book. A quantity of zero removes the price level.
+     */
+    static final class PriceLevel {
+
+        private final OrderType type;
+        private final BigDecimal price;
+        private final BigDecimal quantity;
+
+        PriceLevel(OrderType type, BigDecimal price, BigDecimal quantity) {
+            this.type = type;
+            this.price = price;
+            this.quantity = quantity;
+        }
+
+        @Override
+        public String toString() {
+            return MoreObjects.toStringHelper(this)
+                    .add("type", type)
+                    .add("price", price)
+                    .add("quantity", quantity)
+                    .toString();
+        }
+    }
+
+    /*
+     * An update buffered while the book is out of sync.
+     */
+    private static final class SequencedUpdate {
+
+        private final long sequence;
+        private final List<PriceLevel> changes;
+
+        private SequencedUpdate(long sequence, List<PriceLevel> changes) {
+            this.sequence = sequence;
+            this.changes = changes;
+        }
+    }
+}
@@ -0,0 +1,348 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.exchanges;
+
+import com.gazbert.bxbot.exchanges.trading.api.impl.TickerImpl;
+import com.gazbert.bxbot.trading.api.MarketOrderBook;
+import com.gazbert.bxbot.trading.api.Ticker;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.WebSocket;
+import okhttp3.WebSocketListener;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Base class for streaming an exchange's market data over a WebSocket into {@link LocalOrderBook}s.
+ * <p>
+ * Markets are subscribed to on demand: the first call to {@link #getMarketOrders(String)} or
+ * {@link #getTicker(String)} for a market subscribes to it and returns null. Once the market's book is in sync, the
+ * calls are served from memory without going to the exchange. Whenever a book is out of sync - while it is waiting for
+ * its snapshot, or while the stream is reconnecting after a dropped connection or a message it failed to handle - the
+ * calls return null and the Exchange Adapter falls back to its REST API.
+ * <p>
+ * Subclasses build the exchange's subscribe messages and parse its market data messages, including the order book
+ * snapshots sent on subscribing. Messages for a connection are delivered on a single OkHttp thread; reconnects are run
+ * on the stream's own thread.
+ * <p>
+ * This class is thread safe.
+ *
+ * @author gazbert
+ */
+abstract class MarketDataStream {
+
+    private static final Logger LOG = LogManager.getLogger();
+
+    private static final long DEFAULT_RETRY_DELAY_MILLIS = TimeUnit.SECONDS.toMillis(5);
+
+    /*
+     * WebSocket close code for a normal closure.
+     */
+    private static final int NORMAL_CLOSURE_STATUS = 1000;
+
+    private final String name;
+    private final String url;
+    private final int maxDepth;
+    private final long retryDelayMillis;
+    private final OkHttpClient client;
+    private final ScheduledExecutorService executor;
+
+    private final Map<String, LocalOrderBook> orderBooks = new ConcurrentHashMap<>();
+    private final Map<String, TickerImpl> tickers = new ConcurrentHashMap<>();
+
+    /*
+     * The current connection. Guarded by this.
+     */
+    private WebSocket webSocket;
+    private boolean connected;
+    private boolean closed;
+
+    /**
+     * Creates the stream. It does not connect until the first market is subscribed to.
+     *
+     * @param name             the exchange name, used for logging and thread names.
+     * @param url              the WebSocket URL of the exchange's market data feed.
+     * @param maxDepth         the max number of price levels on each side of the book returned to callers.
+     * @param retryDelayMillis how long to wait before reconnecting.
+     */
+    MarketDataStream(String name, String url, int maxDepth, long retryDelayMillis) {
+        this.name = name;
+        this.url = url;
+        this.maxDepth = maxDepth;
+        this.retryDelayMillis = retryDelayMillis;
+        this.client = new OkHttpClient.Builder()
+                .pingInterval(30, TimeUnit.SECONDS)
+                .build();
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "bxbot-" + name.toLowerCase() + "-market-data");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    MarketDataStream(String name, String url, int maxDepth) {
+        this(name, url, maxDepth, DEFAULT_RETRY_DELAY_MILLIS);
+    }
+
+    /**
+     * Returns the market's order book from memory.
+     *
+     * @param marketId the id of the market.
+     * @return the order book, or null if the book is not in sync yet.
+     */
+    MarketOrderBook getMarketOrders(String marketId) {
+        return getOrSubscribe(marketId).getMarketOrderBook();
+    }
+
+    /**
+     * Returns the market's ticker from memory. The bid and ask prices are taken from the local order book.
+     *
+     * @param marketId the id of the market.
+     * @return the ticker, or null if the book is not in sync yet or no ticker has been received.
+     */
+    Ticker getTicker(String marketId) {
+
+        final LocalOrderBook orderBook = getOrSubscribe(marketId);
+        final TickerImpl streamedTicker = tickers.get(marketId);
+        final BigDecimal bestBid = orderBook.getBestBid();
+        final BigDecimal bestAsk = orderBook.getBestAsk();
+        if (streamedTicker == null || bestBid == null || bestAsk == null) {
+            return null;
+        }
+
+        synchronized (streamedTicker) {
+            return new TickerImpl(streamedTicker.getLast(), bestBid, bestAsk, streamedTicker.getLow(),
+                    streamedTicker.getHigh(), streamedTicker.getOpen(), streamedTicker.getVolume(),
+                    streamedTicker.getVwap(), streamedTicker.getTimestamp());
+        }
+    }
+
+    /**
+     * Disconnects from the exchange and stops the stream's thread.
+     */
+    void close() {
+        synchronized (this) {
+            closed = true;
+            if (webSocket != null) {
+                webSocket.close(NORMAL_CLOSURE_STATUS, null);
+                webSocket = null;
+            }
+        }
+        executor.shutdownNow();
+        orderBooks.values().forEach(LocalOrderBook::invalidate);
+    }
+
+    // ------------------------------------------------------------------------------------------------
+    //  Exchange specific hooks
+    // ------------------------------------------------------------------------------------------------
+
+    /**
+     * Sends the messages to subscribe to the market's order book and ticker.
+     *
+     * @param webSocket the connection.
+     * @param marketId  the id of the market.
+     */
+    abstract void subscribe(WebSocket webSocket, String marketId);
+
+    /**
+     * Handles a message from the exchange.
+     *
+     * @param message the message.
+     * @throws Exception if the message could not be handled. It is logged, and the stream reconnects to reload every
+     *                   book from a new snapshot.
+     */
+    abstract void onMessage(String message) throws Exception;
+
+    /**
+     * Called after the stream has connected and before the markets are subscribed to. Does nothing by default.
+     *
+     * @param webSocket the new connection.
+     */
+    void onConnected(WebSocket webSocket) {
+    }
+
+    // ------------------------------------------------------------------------------------------------
+    //  Helpers for subclasses
+    // ------------------------------------------------------------------------------------------------
+
+    LocalOrderBook getOrderBook(String marketId) {
+        return orderBooks.get(marketId);
+    }
+
+    Iterable<LocalOrderBook> getOrderBooks() {
+        return orderBooks.values();
+    }
+
+    /**
+     * Stores the latest ticker for a market.
+     *
+     * @param marketId the id of the market.
+     * @param ticker   the ticker. The bid and ask are ignored in favour of the local order book.
+     */
+    void updateTicker(String marketId, TickerImpl ticker) {
+        tickers.put(marketId, ticker);
+    }
+
+    /**
+     * Drops the connection and reconnects, e.g. after a gap in a connection-wide sequence. Every book goes out of
+     * sync until it is resubscribed to.
+     */
+    void reconnect() {
+        final WebSocket currentWebSocket;
+        synchronized (this) {
+            currentWebSocket = webSocket;
+        }
+        if (currentWebSocket != null) {
+            // Cancelling fails the connection, which triggers the reconnect
+            currentWebSocket.cancel();
+        }
+    }
+
+    // ------------------------------------------------------------------------------------------------
+    //  Util methods
+    // ------------------------------------------------------------------------------------------------
+
+    private LocalOrderBook getOrSubscribe(String marketId) {
+
+        final LocalOrderBook existingOrderBook = orderBooks.get(marketId);
+        if (existingOrderBook != null) {
+            return existingOrderBook;
+        }
+
+        final LocalOrderBook orderBook = new LocalOrderBook(marketId, maxDepth);
+        if (orderBooks.putIfAbsent(marketId, orderBook) != null) {
+            return orderBooks.get(marketId);
+        }
+
+        LOG.info(() -> name + " market data stream subscribing to market: " + marketId);
+        synchronized (this) {
+            if (closed) {
+                return orderBook;
+            }
+            if (webSocket == null) {
+                connect();
+            } else if (connected) {
+                subscribe(webSocket, marketId);
+            }
+            // else the market is subscribed to when the connection opens
+        }
+        return orderBook;
+    }
+
+    /*
+     * Must be called holding the lock.
+     */
+    private void connect() {
+        LOG.info(() -> "Connecting to " + name + " market data stream: " + url);
+        connected = false;
+        webSocket = client.newWebSocket(new Request.Builder().url(url).build(), new Listener());
+    }
+
+    private void onDisconnected(WebSocket disconnectedWebSocket) {
+        synchronized (this) {
+            if (disconnectedWebSocket != webSocket || closed) {
+                return; // already replaced or closed
+            }
+            webSocket = null;
+            connected = false;
+        }
+
+        orderBooks.values().forEach(LocalOrderBook::invalidate);
+        tickers.clear();
+
+        LOG.warn(() -> name + " market data stream disconnected - reconnecting in " + retryDelayMillis + "ms");
+        executor.schedule(() -> {
+            synchronized (this) {
+                if (!closed && webSocket == null) {
+                    connect();
+                }
+            }
+        }, retryDelayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /*
+     * Receives the callbacks for a single connection. Callbacks for a connection that has been replaced are ignored.
+     */
+    private final class Listener extends WebSocketListener {
+
+        @Override
+        public void onOpen(WebSocket openedWebSocket, Response response) {
+            synchronized (MarketDataStream.this) {
+                if (openedWebSocket != webSocket) {
+                    return;
+                }
+                LOG.info(() -> name + " market data stream connected");
+                connected = true;
+                onConnected(openedWebSocket);
+                for (final String marketId : orderBooks.keySet()) {
+                    subscribe(openedWebSocket, marketId);
+                }
+            }
+        }
+
+        @Override
+        public void onMessage(WebSocket messageWebSocket, String message) {
+            synchronized (MarketDataStream.this) {
+                if (messageWebSocket != webSocket) {
+                    return;
+                }
+            }
+            try {
+                LOG.debug(() -> name + " market data message: " + message);
+                MarketDataStream.this.onMessage(message);
+            } catch (Exception e) {
+                // The message may have been part applied - don't serve the books until they are reloaded
+                LOG.error(name + " failed to handle market data message - reconnecting to reload order books: "
+                        + message, e);
+                orderBooks.values().forEach(LocalOrderBook::invalidate);
+                reconnect();
+            }
+        }
+
+        @Override
+        public void onClosing(WebSocket closingWebSocket, int code, String reason) {
+            closingWebSocket.close(NORMAL_CLOSURE_STATUS, null);
+        }
+
+        @Override
+        public void onClosed(WebSocket closedWebSocket, int code, String reason) {
+            LOG.warn(() -> name + " market data stream closed by exchange. Code: " + code + " Reason: " + reason);
+            onDisconnected(closedWebSocket);
+        }
+
+        @Override
+        public void onFailure(WebSocket failedWebSocket, Throwable t, Response response) {
+            LOG.warn(name + " market data stream failed. Response: " + response, t);
+            onDisconnected(failedWebSocket);
+        }
+    }
+}
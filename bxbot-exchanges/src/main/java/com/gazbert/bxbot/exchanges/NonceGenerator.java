@@ -0,0 +1,172 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.exchanges;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Generates the nonces sent with authenticated requests to an exchange.
+ * <p>
+ * Nonces are taken from the clock at millisecond or microsecond resolution. Every nonce is greater than the last
+ * one handed out, even if several threads ask for one at the same time or the clock goes backwards: if the clock
+ * has not moved on, the last nonce is incremented instead.
+ * <p>
+ * If a high-water mark file is given, the generator also survives restarts. Before it hands out a nonce greater than
+ * the stored mark, it writes a new mark a minute's worth of nonces ahead. When the generator is created, it starts
+ * from the stored mark. This means a bot restarted within the same second, or on a host whose clock is behind, does
+ * not send a nonce the exchange has already seen. The file is only written about once a minute, not on every request.
+ * <p>
+ * This class is thread safe.
+ *
+ * @author gazbert
+ */
+final class NonceGenerator {
+
+    /*
+     * How far ahead of the nonce being handed out the high-water mark is written.
+     */
+    private static final long RESERVATION_MILLIS = TimeUnit.MINUTES.toMillis(1);
+
+    private final TimeUnit resolution;
+    private final Path highWaterMarkFile;
+    private final long reservationSize;
+    private final LongSupplier currentTimeMillis;
+    private final AtomicLong lastNonce;
+
+    /*
+     * The last high-water mark written to the file. Writes are guarded by this object's monitor.
+     */
+    private volatile long highWaterMark;
+
+    /**
+     * Creates a new nonce generator.
+     *
+     * @param resolution        the resolution of the nonces, either {@link TimeUnit#MILLISECONDS} or
+     *                          {@link TimeUnit#MICROSECONDS}.
+     * @param highWaterMarkFile the file the high-water mark is stored in. If null, the mark is not stored.
+     * @throws IOException if the high-water mark file exists but could not be read.
+     */
+    NonceGenerator(TimeUnit resolution, Path highWaterMarkFile) throws IOException {
+        this(resolution, highWaterMarkFile, System::currentTimeMillis);
+    }
+
+    NonceGenerator(TimeUnit resolution, Path highWaterMarkFile, LongSupplier currentTimeMillis) throws IOException {
+
+        if (resolution != TimeUnit.MILLISECONDS && resolution != TimeUnit.MICROSECONDS) {
+            throw new IllegalArgumentException("Nonce resolution must be milliseconds or microseconds: " + resolution);
+        }
+
+        this.resolution = resolution;
+        this.highWaterMarkFile = highWaterMarkFile;
+        this.reservationSize = resolution.convert(RESERVATION_MILLIS, TimeUnit.MILLISECONDS);
+        this.currentTimeMillis = currentTimeMillis;
+
+        highWaterMark = highWaterMarkFile == null ? 0 : readHighWaterMark(highWaterMarkFile);
+        lastNonce = new AtomicLong(highWaterMark);
+    }
+
+    /**
+     * Returns the next nonce.
+     *
+     * @return the nonce; greater than any nonce previously returned.
+     * @throws IOException if the new high-water mark could not be written to the file.
+     */
+    long next() throws IOException {
+
+        final long now = resolution.convert(currentTimeMillis.getAsLong(), TimeUnit.MILLISECONDS);
+        final long nonce = lastNonce.updateAndGet(last -> Math.max(last + 1, now));
+
+        if (highWaterMarkFile != null && nonce > highWaterMark) {
+            reserve(nonce);
+        }
+        return nonce;
+    }
+
+    /**
+     * Returns the high-water mark last written to the file.
+     *
+     * @return the high-water mark; 0 if it is not stored.
+     */
+    long getHighWaterMark() {
+        return highWaterMark;
+    }
+
+    // ------------------------------------------------------------------------------------------------
+    //  Util methods
+    // ------------------------------------------------------------------------------------------------
+
+    private synchronized void reserve(long nonce) throws IOException {
+        if (nonce > highWaterMark) {
+            final long newHighWaterMark = nonce + reservationSize;
+            writeHighWaterMark(newHighWaterMark);
+            highWaterMark = newHighWaterMark;
+        }
+    }
+
+    private static long readHighWaterMark(Path file) throws IOException {
+
+        if (!Files.exists(file)) {
+            return 0;
+        }
+
+        final String content = new String(Files.readAllBytes(file), StandardCharsets.US_ASCII).trim();
+        try {
+            return Long.parseLong(content);
+        } catch (NumberFormatException e) {
+            throw new IOException("Nonce high-water mark file " + file + " does not contain a number: " + content, e);
+        }
+    }
+
+    /*
+     * Writes to a temp file and renames it, so the file never holds a partly written mark if we crash part way
+     * through.
+     */
+    private void writeHighWaterMark(long mark) throws IOException {
+
+        final Path parent = highWaterMarkFile.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+
+        final Path tempFile = highWaterMarkFile.resolveSibling(highWaterMarkFile.getFileName() + ".tmp");
+        Files.write(tempFile, Long.toString(mark).getBytes(StandardCharsets.US_ASCII),
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE,
+                StandardOpenOption.DSYNC);
+        try {
+            Files.move(tempFile, highWaterMarkFile, StandardCopyOption.ATOMIC_MOVE,
+                    StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tempFile, highWaterMarkFile, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+}
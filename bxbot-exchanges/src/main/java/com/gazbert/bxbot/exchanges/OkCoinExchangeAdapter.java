@@ -41,7 +41,6 @@ import java.net.MalformedURLException;
 import java.net.URL;
 import java.net.URLConnection;
 import java.net.URLEncoder;
-import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.text.DecimalFormat;
 import java.util.*;
@@ -158,10 +157,10 @@ public final class OkCoinExchangeAdapter extends AbstractExchangeAdapter impleme
     private String secret = "";
 
     /**
-     * The Message Digest generator used by the secure messaging layer.
+     * Signs requests with the Message Digest generator used by the secure messaging layer.
      * Used to create the hash of the entire message with the private key to ensure message integrity.
      */
-    private MessageDigest messageDigest;
+    private RequestSigner requestSigner;
 
     /**
      * GSON engine used for parsing JSON in OKCoin API call responses.
@@ -880,22 +879,13 @@ public final class OkCoinExchangeAdapter extends AbstractExchangeAdapter impleme
      * @param stringToHash the string to create the MD5 hash for.
      * @return the MD5 hash as an uppercase string.
      */
-    private String createMd5HashAndReturnAsUpperCaseString(String stringToHash) throws UnsupportedEncodingException {
-
-        final char HEX_DIGITS[] = {'0', '1', '2', '3', '4', '5', '6', '7', '8', '9', 'A', 'B', 'C', 'D', 'E', 'F'};
+    private String createMd5HashAndReturnAsUpperCaseString(String stringToHash) {
 
         if (stringToHash == null || stringToHash.isEmpty()) {
             return "";
         }
 
-        messageDigest.update(stringToHash.getBytes("UTF-8"));
-        final byte[] md5HashInBytes = messageDigest.digest();
-
-        final StringBuilder md5HashAsUpperCaseString = new StringBuilder();
-        for (final byte md5HashByte : md5HashInBytes) {
-            md5HashAsUpperCaseString.append(HEX_DIGITS[(md5HashByte & 0xf0) >> 4]).append("").append(HEX_DIGITS[md5HashByte & 0xf]);
-        }
-        return md5HashAsUpperCaseString.toString();
+        return requestSigner.digest(RequestSigner.Encoding.UPPER_CASE_HEX, stringToHash);
     }
 
     /**
@@ -906,7 +896,7 @@ public final class OkCoinExchangeAdapter extends AbstractExchangeAdapter impleme
     private void initSecureMessageLayer() {
 
         try {
-            messageDigest = MessageDigest.getInstance("MD5");
+            requestSigner = RequestSigner.forDigest("MD5");
             initializedSecureMessagingLayer = true;
         } catch (NoSuchAlgorithmException e) {
             final String errorMsg = "Failed to setup MessageDigest for secure message layer. Details: " + e.getMessage();
@@ -0,0 +1,445 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+
+package com.gazbert.bxbot.exchanges;
+
+import com.gazbert.bxbot.exchange.api.ExchangeAdapter;
+import com.gazbert.bxbot.exchange.api.ExchangeConfig;
+import com.gazbert.bxbot.exchange.api.OptionalConfig;
+import com.gazbert.bxbot.exchanges.PaperTradingOrderBook.PaperOrder;
+import com.gazbert.bxbot.exchanges.trading.api.impl.BalanceInfoImpl;
+import com.gazbert.bxbot.trading.api.BalanceInfo;
+import com.gazbert.bxbot.trading.api.ExchangeNetworkException;
+import com.gazbert.bxbot.trading.api.MarketOrderBook;
+import com.gazbert.bxbot.trading.api.OpenOrder;
+import com.gazbert.bxbot.trading.api.OrderType;
+import com.gazbert.bxbot.trading.api.Ticker;
+import com.gazbert.bxbot.trading.api.TradingApiException;
+import com.google.common.base.MoreObjects;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.lang.reflect.InvocationTargetException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * <p>
+ * Paper trading Exchange Adapter. It trades with simulated balances against the live market data of a real exchange.
+ * </p>
+ * <p>
+ * The market data calls - getMarketOrders, getLatestMarketPrice and getTicker - are passed through to a real Exchange
+ * Adapter, set by the paper-trading-adapter optional config item. The real adapter is initialised with this adapter's
+ * config, so it must include anything the real adapter needs, e.g. dummy authentication config items. No authenticated
+ * calls are ever made to the exchange.
+ * </p>
+ * <p>
+ * Orders are held by a {@link PaperTradingOrderBook} for each market, and are matched against the exchange's order
+ * book whenever it is fetched: when a Trading Strategy calls getMarketOrders, when an order is placed, and when the
+ * open orders are fetched for a market that has open orders. A new order takes the exchange levels it crosses at their
+ * prices; after that, it rests at its limit price until the exchange book trades through it.
+ * </p>
+ * <p>
+ * Balances are held for open orders and the configured buy-fee and sell-fee are taken from the counter currency of
+ * each fill, as on the real exchange. An order that cannot be paid for is rejected with a TradingApiException. The
+ * balances start from the starting-balances optional config item and are not persisted - they reset when the bot is
+ * restarted.
+ * </p>
+ * <p>
+ * Optional config items:
+ * </p>
+ * <ul>
+ * <li>paper-trading-adapter - the fully qualified class name of the real Exchange Adapter for the market data.</li>
+ * <li>buy-fee, sell-fee - the exchange fees in %, e.g. 0.25</li>
+ * <li>markets - the base and counter currency of each market, e.g. btcusd=BTC/USD,ltcusd=LTC/USD</li>
+ * <li>starting-balances - optional, e.g. BTC=2,USD=1000. Currencies not listed start at 0.</li>
+ * </ul>
+ * <p>
+ * This adapter is thread safe. Matching is done under a lock per market, so it can paper trade dozens of markets in
+ * the same JVM.
+ * </p>
+ *
+ * @author gazbert
+ * @since 1.2
+ */
+public final class PaperTradingExchangeAdapter implements ExchangeAdapter {
+
+    private static final Logger LOG = LogManager.getLogger();
+
+    private static final String PAPER_TRADING_ADAPTER_PROPERTY_NAME = "paper-trading-adapter";
+    private static final String BUY_FEE_PROPERTY_NAME = "buy-fee";
+    private static final String SELL_FEE_PROPERTY_NAME = "sell-fee";
+    private static final String MARKETS_PROPERTY_NAME = "markets";
+    private static final String STARTING_BALANCES_PROPERTY_NAME = "starting-balances";
+
+    private static final String ORDER_ID_PREFIX = "PAPER-";
+
+    private ExchangeAdapter exchangeAdapter;
+    private BigDecimal buyFeePercentage;
+    private BigDecimal sellFeePercentage;
+
+    /*
+     * Set at init and not changed after.
+     */
+    private Map<String, PaperTradingMarket> markets = Collections.emptyMap();
+
+    private final Map<String, BigDecimal> balancesAvailable = new HashMap<>();
+    private final Map<String, BigDecimal> balancesOnHold = new HashMap<>();
+    private final AtomicLong nextOrderId = new AtomicLong(1);
+
+    /**
+     * Creates the adapter. The real Exchange Adapter is created at init.
+     */
+    public PaperTradingExchangeAdapter() {
+    }
+
+    /*
+     * For testing - uses the given real Exchange Adapter instead of creating one.
+     */
+    PaperTradingExchangeAdapter(ExchangeAdapter exchangeAdapter) {
+        this.exchangeAdapter = exchangeAdapter;
+    }
+
+    @Override
+    public void init(ExchangeConfig config) {
+
+        LOG.info(() -> "About to initialise Paper Trading ExchangeConfig: " + config);
+        final OptionalConfig optionalConfig = config.getOptionalConfig();
+        if (optionalConfig == null) {
+            final String errorMsg = "Optional config is missing for Paper Trading adapter: " + config;
+            LOG.error(errorMsg);
+            throw new IllegalArgumentException(errorMsg);
+        }
+
+        buyFeePercentage = getFeePercentage(optionalConfig, BUY_FEE_PROPERTY_NAME);
+        sellFeePercentage = getFeePercentage(optionalConfig, SELL_FEE_PROPERTY_NAME);
+
+        final Map<String, PaperTradingMarket> configuredMarkets = new HashMap<>();
+        for (final Map.Entry<String, String> market : parseItems(optionalConfig, MARKETS_PROPERTY_NAME, true)
+                .entrySet()) {
+            final String[] currencies = market.getValue().split("/");
+            if (currencies.length != 2 || currencies[0].trim().isEmpty() || currencies[1].trim().isEmpty()) {
+                throw new IllegalArgumentException("Paper Trading market must be set as marketId=BASE/COUNTER: "
+                        + market.getKey() + "=" + market.getValue());
+            }
+            configuredMarkets.put(market.getKey(),
+                    new PaperTradingMarket(market.getKey(), currencies[0].trim(), currencies[1].trim()));
+        }
+        markets = Collections.unmodifiableMap(configuredMarkets);
+
+        synchronized (balancesAvailable) {
+            balancesAvailable.clear();
+            balancesOnHold.clear();
+            for (final Map.Entry<String, String> balance : parseItems(optionalConfig, STARTING_BALANCES_PROPERTY_NAME,
+                    false).entrySet()) {
+                balancesAvailable.put(balance.getKey(), new BigDecimal(balance.getValue()));
+            }
+            LOG.info(() -> "Paper Trading starting balances: " + balancesAvailable);
+        }
+
+        if (exchangeAdapter == null) {
+            exchangeAdapter = createExchangeAdapter(optionalConfig.getItem(PAPER_TRADING_ADAPTER_PROPERTY_NAME));
+        }
+        exchangeAdapter.init(config);
+    }
+
+    // ------------------------------------------------------------------------------------------------
+    // Market data API calls - passed through to the real exchange.
+    // ------------------------------------------------------------------------------------------------
+
+    @Override
+    public MarketOrderBook getMarketOrders(String marketId) throws TradingApiException, ExchangeNetworkException {
+        final MarketOrderBook marketOrderBook = exchangeAdapter.getMarketOrders(marketId);
+        final PaperTradingMarket market = markets.get(marketId);
+        if (market != null) {
+            market.orderBook.match(marketOrderBook, market);
+        }
+        return marketOrderBook;
+    }
+
+    @Override
+    public BigDecimal getLatestMarketPrice(String marketId) throws TradingApiException, ExchangeNetworkException {
+        return exchangeAdapter.getLatestMarketPrice(marketId);
+    }
+
+    @Override
+    public Ticker getTicker(String marketId) throws TradingApiException, ExchangeNetworkException {
+        return exchangeAdapter.getTicker(marketId);
+    }
+
+    // ------------------------------------------------------------------------------------------------
+    // Order and balance API calls - simulated.
+    // ------------------------------------------------------------------------------------------------
+
+    @Override
+    public String createOrder(String marketId, OrderType orderType, BigDecimal quantity, BigDecimal price)
+            throws TradingApiException, ExchangeNetworkException {
+
+        final PaperTradingMarket market = getMarket(marketId);
+        final long fixedPointPrice;
+        final long fixedPointQuantity;
+        try {
+            fixedPointPrice = PaperTradingOrderBook.toFixedPoint(price);
+            fixedPointQuantity = PaperTradingOrderBook.toFixedPoint(quantity);
+        } catch (ArithmeticException e) {
+            throw new TradingApiException("Order price or quantity is out of range - price: " + price
+                    + ", quantity: " + quantity, e);
+        }
+        if (fixedPointPrice <= 0 || fixedPointQuantity <= 0) {
+            throw new TradingApiException("Order price and quantity must be positive - price: " + price
+                    + ", quantity: " + quantity);
+        }
+
+        final PaperOrder order = new PaperOrder(ORDER_ID_PREFIX + nextOrderId.getAndIncrement(), orderType,
+                fixedPointPrice, fixedPointQuantity, System.currentTimeMillis());
+
+        synchronized (balancesAvailable) {
+            if (orderType == OrderType.BUY) {
+                final BigDecimal total = PaperTradingOrderBook.toBigDecimal(fixedPointPrice)
+                        .multiply(PaperTradingOrderBook.toBigDecimal(fixedPointQuantity));
+                order.counterOnHold = total.add(total.multiply(buyFeePercentage));
+                hold(market.counterCurrency, order.counterOnHold, "buy " + quantity + " at " + price);
+            } else {
+                hold(market.baseCurrency, PaperTradingOrderBook.toBigDecimal(fixedPointQuantity),
+                        "sell " + quantity);
+            }
+        }
+        market.orderBook.add(order);
+        LOG.info(() -> "Paper Trading " + orderType + " order " + order.id + " placed on market " + marketId
+                + " - quantity: " + quantity + ", price: " + price);
+
+        // Take whatever the order crosses in the latest book
+        getMarketOrders(marketId);
+        return order.id;
+    }
+
+    @Override
+    public boolean cancelOrder(String orderId, String marketId) throws TradingApiException, ExchangeNetworkException {
+
+        final PaperTradingMarket market = getMarket(marketId);
+        final PaperOrder order = market.orderBook.remove(orderId);
+        if (order == null) {
+            return false;
+        }
+
+        synchronized (balancesAvailable) {
+            if (order.type == OrderType.BUY) {
+                release(market.counterCurrency, order.counterOnHold);
+                order.counterOnHold = BigDecimal.ZERO;
+            } else {
+                release(market.baseCurrency, PaperTradingOrderBook.toBigDecimal(order.remainingQuantity));
+            }
+        }
+        LOG.info(() -> "Paper Trading order " + orderId + " cancelled on market " + marketId);
+        return true;
+    }
+
+    @Override
+    public List<OpenOrder> getYourOpenOrders(String marketId) throws TradingApiException, ExchangeNetworkException {
+
+        final PaperTradingMarket market = getMarket(marketId);
+
+        // Bring the fills up to date - there is nothing to match if there are no open orders
+        if (!market.orderBook.isEmpty()) {
+            getMarketOrders(marketId);
+        }
+        return market.orderBook.getOpenOrders();
+    }
+
+    @Override
+    public BalanceInfo getBalanceInfo() throws TradingApiException, ExchangeNetworkException {
+        synchronized (balancesAvailable) {
+            return new BalanceInfoImpl(new HashMap<>(balancesAvailable), new HashMap<>(balancesOnHold));
+        }
+    }
+
+    @Override
+    public BigDecimal getPercentageOfBuyOrderTakenForExchangeFee(String marketId) throws TradingApiException,
+            ExchangeNetworkException {
+        return buyFeePercentage;
+    }
+
+    @Override
+    public BigDecimal getPercentageOfSellOrderTakenForExchangeFee(String marketId) throws TradingApiException,
+            ExchangeNetworkException {
+        return sellFeePercentage;
+    }
+
+    @Override
+    public String getImplName() {
+        return "Paper Trading Adapter - market data from "
+                + (exchangeAdapter == null ? "(not initialised)" : exchangeAdapter.getImplName());
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                .add("exchangeAdapter", exchangeAdapter)
+                .add("buyFeePercentage", buyFeePercentage)
+                .add("sellFeePercentage", sellFeePercentage)
+                .add("markets", markets.keySet())
+                .toString();
+    }
+
+    // ------------------------------------------------------------------------------------------------
+    //  Util methods
+    // ------------------------------------------------------------------------------------------------
+
+    private PaperTradingMarket getMarket(String marketId) throws TradingApiException {
+        final PaperTradingMarket market = markets.get(marketId);
+        if (market == null) {
+            throw new TradingApiException("Market is not set in the Paper Trading " + MARKETS_PROPERTY_NAME
+                    + " config: " + marketId);
+        }
+        return market;
+    }
+
+    /*
+     * Called with the balances locked.
+     */
+    private void hold(String currency, BigDecimal amount, String description) throws TradingApiException {
+        final BigDecimal available = balancesAvailable.getOrDefault(currency, BigDecimal.ZERO);
+        if (amount.compareTo(available) > 0) {
+            throw new TradingApiException("Insufficient " + currency + " balance to " + description
+                    + " - available: " + available + ", required: " + amount);
+        }
+        balancesAvailable.put(currency, available.subtract(amount));
+        balancesOnHold.merge(currency, amount, BigDecimal::add);
+    }
+
+    /*
+     * Called with the balances locked.
+     */
+    private void release(String currency, BigDecimal amount) {
+        balancesOnHold.merge(currency, amount.negate(), BigDecimal::add);
+        balancesAvailable.merge(currency, amount, BigDecimal::add);
+    }
+
+    private static BigDecimal getFeePercentage(OptionalConfig optionalConfig, String itemName) {
+        final String itemValue = optionalConfig.getItem(itemName);
+        if (itemValue == null) {
+            throw new IllegalArgumentException("Paper Trading config item is not set: " + itemName);
+        }
+        final BigDecimal feePercentage = new BigDecimal(itemValue).divide(new BigDecimal("100"), 8,
+                RoundingMode.HALF_UP);
+        LOG.info(() -> itemName + " % in BigDecimal format: " + feePercentage);
+        return feePercentage;
+    }
+
+    /*
+     * Parses a config item of comma separated key=value pairs.
+     */
+    private static Map<String, String> parseItems(OptionalConfig optionalConfig, String itemName, boolean required) {
+        final String itemValue = optionalConfig.getItem(itemName);
+        LOG.info(() -> itemName + ": " + itemValue);
+        if (itemValue == null || itemValue.trim().isEmpty()) {
+            if (required) {
+                throw new IllegalArgumentException("Paper Trading config item is not set: " + itemName);
+            }
+            return Collections.emptyMap();
+        }
+
+        final Map<String, String> items = new HashMap<>();
+        for (final String pair : itemValue.split(",")) {
+            final int separator = pair.indexOf('=');
+            if (separator <= 0) {
+                throw new IllegalArgumentException("Paper Trading " + itemName + " must be set as key=value pairs: "
+                        + itemValue);
+            }
+            items.put(pair.substring(0, separator).trim(), pair.substring(separator + 1).trim());
+        }
+        return items;
+    }
+
+    private static ExchangeAdapter createExchangeAdapter(String className) {
+        if (className == null) {
+            throw new IllegalArgumentException("Paper Trading config item is not set: "
+                    + PAPER_TRADING_ADAPTER_PROPERTY_NAME);
+        }
+        try {
+            final Object exchangeAdapter = Class.forName(className).getDeclaredConstructor().newInstance();
+            if (!(exchangeAdapter instanceof ExchangeAdapter)) {
+                throw new IllegalArgumentException("Paper Trading " + PAPER_TRADING_ADAPTER_PROPERTY_NAME
+                        + " is not an ExchangeAdapter: " + className);
+            }
+            LOG.info(() -> "Paper Trading market data will be fetched using: " + className);
+            return (ExchangeAdapter) exchangeAdapter;
+        } catch (ClassNotFoundException | NoSuchMethodException | InstantiationException | IllegalAccessException
+                | InvocationTargetException e) {
+            final String errorMsg = "Failed to create Paper Trading " + PAPER_TRADING_ADAPTER_PROPERTY_NAME + ": "
+                    + className;
+            LOG.error(errorMsg, e);
+            throw new IllegalArgumentException(errorMsg, e);
+        }
+    }
+
+    /*
+     * A market being paper traded: its currencies and open orders. Updates the balances as its orders fill.
+     */
+    private final class PaperTradingMarket implements PaperTradingOrderBook.FillListener {
+
+        private final String baseCurrency;
+        private final String counterCurrency;
+        private final PaperTradingOrderBook orderBook;
+
+        private PaperTradingMarket(String marketId, String baseCurrency, String counterCurrency) {
+            this.baseCurrency = baseCurrency;
+            this.counterCurrency = counterCurrency;
+            this.orderBook = new PaperTradingOrderBook(marketId);
+        }
+
+        @Override
+        public void onFill(PaperOrder order, long price, long quantity) {
+
+            final BigDecimal fillQuantity = PaperTradingOrderBook.toBigDecimal(quantity);
+            final BigDecimal total = PaperTradingOrderBook.toBigDecimal(price).multiply(fillQuantity);
+
+            synchronized (balancesAvailable) {
+                if (order.type == OrderType.BUY) {
+                    final BigDecimal cost = total.add(total.multiply(buyFeePercentage));
+                    balancesOnHold.merge(counterCurrency, cost.negate(), BigDecimal::add);
+                    order.counterOnHold = order.counterOnHold.subtract(cost);
+                    balancesAvailable.merge(baseCurrency, fillQuantity, BigDecimal::add);
+                    if (order.remainingQuantity == 0) {
+                        // Return whatever was held over, e.g. from filling below the limit price
+                        release(counterCurrency, order.counterOnHold);
+                        order.counterOnHold = BigDecimal.ZERO;
+                    }
+                } else {
+                    balancesOnHold.merge(baseCurrency, fillQuantity.negate(), BigDecimal::add);
+                    balancesAvailable.merge(counterCurrency, total.subtract(total.multiply(sellFeePercentage)),
+                            BigDecimal::add);
+                }
+            }
+
+            LOG.info(() -> "Paper Trading filled " + fillQuantity + " of " + order.type + " order " + order.id
+                    + " on market " + orderBook.getMarketId() + " at " + PaperTradingOrderBook.toBigDecimal(price));
+        }
+    }
+}
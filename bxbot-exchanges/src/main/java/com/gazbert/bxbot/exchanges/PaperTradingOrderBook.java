@@ -0,0 +1,449 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+
+package com.gazbert.bxbot.exchanges;
+
+import com.gazbert.bxbot.exchanges.trading.api.impl.OpenOrderImpl;
+import com.gazbert.bxbot.trading.api.FixedPointMarketOrderBook;
+import com.gazbert.bxbot.trading.api.MarketOrder;
+import com.gazbert.bxbot.trading.api.MarketOrderBook;
+import com.gazbert.bxbot.trading.api.OpenOrder;
+import com.gazbert.bxbot.trading.api.OrderType;
+import com.google.common.base.MoreObjects;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * The open paper trading orders for a single market, held in price-time priority and matched against the exchange's
+ * order book.
+ * <p>
+ * Prices and quantities are held as fixed-point longs at {@link FixedPointMarketOrderBook#DEFAULT_SCALE}. Each side
+ * is a map of price levels, best price first, with a queue of orders at each level in the order they were placed.
+ * <p>
+ * Every time a new exchange order book is matched:
+ * <ul>
+ * <li>Orders are matched best price first, and first come first served at the same price.</li>
+ * <li>An order placed since the last match takes the levels it crosses, at their prices. After that, it rests at its
+ * limit price and fills whenever the exchange book trades through it.</li>
+ * <li>The exchange liquidity is shared between our orders: a level filled by one order is not available to the next.
+ * What our orders take from a level stays taken until the exchange shows a different quantity at that price, so the
+ * same liquidity is not filled twice when an unchanged book is fetched again.</li>
+ * <li>A book that has already been matched (e.g. the same streamed book returned again) is only matched against the
+ * newly placed orders.</li>
+ * </ul>
+ * If the best resting bid is below the best exchange ask, and the best resting ask above the best exchange bid,
+ * nothing more is looked at, so matching markets with no crossing orders is cheap.
+ * <p>
+ * This class is thread safe.
+ *
+ * @author gazbert
+ */
+class PaperTradingOrderBook {
+
+    static final int SCALE = FixedPointMarketOrderBook.DEFAULT_SCALE;
+
+    /**
+     * Told about each fill. Called while the book is locked.
+     */
+    @FunctionalInterface
+    interface FillListener {
+
+        /**
+         * Called when an order fills.
+         *
+         * @param order    the order. Its remaining quantity has already been reduced by the fill.
+         * @param price    the fixed-point fill price.
+         * @param quantity the fixed-point fill quantity.
+         */
+        void onFill(PaperOrder order, long price, long quantity);
+    }
+
+    private final String marketId;
+
+    private final NavigableMap<Long, Deque<PaperOrder>> bids = new TreeMap<>(Comparator.reverseOrder());
+    private final NavigableMap<Long, Deque<PaperOrder>> asks = new TreeMap<>();
+    private final Map<String, PaperOrder> ordersById = new HashMap<>();
+
+    private final BookSide exchangeAsks = new BookSide(true);
+    private final BookSide exchangeBids = new BookSide(false);
+
+    private MarketOrderBook lastMatchedBook;
+    private int newOrderCount;
+
+    PaperTradingOrderBook(String marketId) {
+        this.marketId = marketId;
+    }
+
+    String getMarketId() {
+        return marketId;
+    }
+
+    synchronized boolean isEmpty() {
+        return ordersById.isEmpty();
+    }
+
+    /**
+     * Adds an order to the back of the queue at its price. It takes liquidity at the next match.
+     *
+     * @param order the order.
+     */
+    synchronized void add(PaperOrder order) {
+        final NavigableMap<Long, Deque<PaperOrder>> side = order.type == OrderType.BUY ? bids : asks;
+        side.computeIfAbsent(order.price, price -> new ArrayDeque<>()).addLast(order);
+        ordersById.put(order.id, order);
+        newOrderCount++;
+    }
+
+    /**
+     * Removes an order.
+     *
+     * @param orderId the order id.
+     * @return the removed order, or null if there is no open order with the id.
+     */
+    synchronized PaperOrder remove(String orderId) {
+        final PaperOrder order = ordersById.remove(orderId);
+        if (order == null) {
+            return null;
+        }
+        final NavigableMap<Long, Deque<PaperOrder>> side = order.type == OrderType.BUY ? bids : asks;
+        final Deque<PaperOrder> level = side.get(order.price);
+        level.remove(order);
+        if (level.isEmpty()) {
+            side.remove(order.price);
+        }
+        if (!order.resting) {
+            newOrderCount--;
+        }
+        return order;
+    }
+
+    /**
+     * Returns the open orders, best price first.
+     *
+     * @return a snapshot of the open orders.
+     */
+    synchronized List<OpenOrder> getOpenOrders() {
+        final List<OpenOrder> openOrders = new ArrayList<>(ordersById.size());
+        addOpenOrders(bids, openOrders);
+        addOpenOrders(asks, openOrders);
+        return openOrders;
+    }
+
+    /**
+     * Matches the open orders against the exchange's order book. Fully filled orders are removed.
+     *
+     * @param marketOrderBook the exchange's order book, best price first.
+     * @param listener        told about each fill.
+     */
+    synchronized void match(MarketOrderBook marketOrderBook, FillListener listener) {
+
+        final boolean alreadyMatched = marketOrderBook == lastMatchedBook;
+        if (ordersById.isEmpty() || (alreadyMatched && newOrderCount == 0)) {
+            lastMatchedBook = marketOrderBook;
+            return;
+        }
+        lastMatchedBook = marketOrderBook;
+
+        exchangeAsks.reset(marketOrderBook);
+        exchangeBids.reset(marketOrderBook);
+        try {
+            matchSide(bids, exchangeAsks, alreadyMatched, listener);
+            matchSide(asks, exchangeBids, alreadyMatched, listener);
+        } finally {
+            exchangeAsks.reset(null);
+            exchangeBids.reset(null);
+        }
+
+        // Whatever is left now rests at its limit price
+        for (final PaperOrder order : ordersById.values()) {
+            order.resting = true;
+        }
+        newOrderCount = 0;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return MoreObjects.toStringHelper(this)
+                .add("marketId", marketId)
+                .add("bidLevels", bids.size())
+                .add("askLevels", asks.size())
+                .add("openOrders", ordersById.size())
+                .toString();
+    }
+
+    static long toFixedPoint(BigDecimal value) {
+        return value.setScale(SCALE, RoundingMode.HALF_EVEN).unscaledValue().longValueExact();
+    }
+
+    static BigDecimal toBigDecimal(long value) {
+        return BigDecimal.valueOf(value, SCALE);
+    }
+
+    // ------------------------------------------------------------------------
+    // Private utils
+    // ------------------------------------------------------------------------
+
+    private void addOpenOrders(NavigableMap<Long, Deque<PaperOrder>> side, List<OpenOrder> openOrders) {
+        for (final Deque<PaperOrder> level : side.values()) {
+            for (final PaperOrder order : level) {
+                final BigDecimal price = toBigDecimal(order.price);
+                final BigDecimal quantity = toBigDecimal(order.remainingQuantity);
+                openOrders.add(new OpenOrderImpl(order.id, new Date(order.creationTime), marketId, order.type,
+                        price, quantity, toBigDecimal(order.originalQuantity), price.multiply(quantity)));
+            }
+        }
+    }
+
+    /*
+     * Matches 1 side of our orders (best price first) against the opposite side of the exchange book.
+     */
+    private void matchSide(NavigableMap<Long, Deque<PaperOrder>> orders, BookSide exchangeSide,
+                           boolean alreadyMatched, FillListener listener) {
+
+        final int depth = exchangeSide.depth();
+        if (orders.isEmpty() || depth == 0) {
+            return;
+        }
+
+        int level = exchangeSide.nextLevelWithLiquidity(0);
+        if (level == depth) {
+            return;
+        }
+        long levelPrice = exchangeSide.price(level);
+        long levelQuantity = exchangeSide.availableQuantity(level);
+
+        final Iterator<Map.Entry<Long, Deque<PaperOrder>>> priceLevels = orders.entrySet().iterator();
+        while (priceLevels.hasNext() && level < depth) {
+
+            final Map.Entry<Long, Deque<PaperOrder>> priceLevel = priceLevels.next();
+            final long price = priceLevel.getKey();
+            if (!exchangeSide.crosses(price, levelPrice)) {
+                return;
+            }
+
+            final Iterator<PaperOrder> queue = priceLevel.getValue().iterator();
+            while (queue.hasNext() && level < depth) {
+                final PaperOrder order = queue.next();
+                if (alreadyMatched && order.resting) {
+                    continue;
+                }
+
+                while (order.remainingQuantity > 0 && level < depth && exchangeSide.crosses(price, levelPrice)) {
+                    final long fillQuantity = Math.min(order.remainingQuantity, levelQuantity);
+                    order.remainingQuantity -= fillQuantity;
+                    levelQuantity -= fillQuantity;
+                    exchangeSide.take(level, fillQuantity);
+                    listener.onFill(order, order.resting ? order.price : levelPrice, fillQuantity);
+
+                    if (levelQuantity == 0) {
+                        level = exchangeSide.nextLevelWithLiquidity(level + 1);
+                        if (level < depth) {
+                            levelPrice = exchangeSide.price(level);
+                            levelQuantity = exchangeSide.availableQuantity(level);
+                        }
+                    }
+                }
+
+                if (order.remainingQuantity == 0) {
+                    queue.remove();
+                    ordersById.remove(order.id);
+                    if (!order.resting) {
+                        newOrderCount--;
+                    }
+                }
+            }
+
+            if (priceLevel.getValue().isEmpty()) {
+                priceLevels.remove();
+            }
+        }
+    }
+
+    /**
+     * An open paper trading order. The prices and quantities are fixed-point.
+     */
+    static final class PaperOrder {
+
+        final String id;
+        final OrderType type;
+        final long price;
+        final long originalQuantity;
+        final long creationTime;
+        long remainingQuantity;
+
+        /*
+         * Set once the order has been matched against a book - it fills at its own price from then on.
+         */
+        boolean resting;
+
+        /*
+         * The counter currency still held for a buy order, including its fee.
+         */
+        BigDecimal counterOnHold = BigDecimal.ZERO;
+
+        PaperOrder(String id, OrderType type, long price, long quantity, long creationTime) {
+            this.id = id;
+            this.type = type;
+            this.price = price;
+            this.originalQuantity = quantity;
+            this.remainingQuantity = quantity;
+            this.creationTime = creationTime;
+        }
+
+        @Override
+        public String toString() {
+            return MoreObjects.toStringHelper(this)
+                    .add("id", id)
+                    .add("type", type)
+                    .add("price", price)
+                    .add("originalQuantity", originalQuantity)
+                    .add("remainingQuantity", remainingQuantity)
+                    .add("resting", resting)
+                    .toString();
+        }
+    }
+
+    /*
+     * Reads 1 side of an exchange order book as fixed-point values. A fixed-point book at our scale is read as it is;
+     * any other book has its levels converted as they are read, so only the levels we cross are converted.
+     *
+     * Also tracks the liquidity our orders have taken from each level, which is kept across books.
+     */
+    private static final class BookSide {
+
+        private final boolean asks;
+        private FixedPointMarketOrderBook fixedPointBook;
+        private List<MarketOrder> marketOrders;
+
+        /*
+         * The quantity taken from each exchange price level, and the level quantity it was taken from:
+         * price -> {levelQuantity, takenQuantity}. Ordered best price first.
+         */
+        private final NavigableMap<Long, long[]> takenLiquidity;
+
+        private BookSide(boolean asks) {
+            this.asks = asks;
+            this.takenLiquidity = asks ? new TreeMap<>() : new TreeMap<>(Comparator.reverseOrder());
+        }
+
+        private void reset(MarketOrderBook marketOrderBook) {
+            fixedPointBook = null;
+            marketOrders = null;
+            if (marketOrderBook instanceof FixedPointMarketOrderBook
+                    && ((FixedPointMarketOrderBook) marketOrderBook).getPriceScale() == SCALE
+                    && ((FixedPointMarketOrderBook) marketOrderBook).getQuantityScale() == SCALE) {
+                fixedPointBook = (FixedPointMarketOrderBook) marketOrderBook;
+            } else if (marketOrderBook != null) {
+                marketOrders = asks ? marketOrderBook.getSellOrders() : marketOrderBook.getBuyOrders();
+            }
+
+            // Levels better than the best one have gone from the exchange, and what we took from them with them
+            if (!takenLiquidity.isEmpty() && marketOrderBook != null) {
+                if (depth() == 0) {
+                    takenLiquidity.clear();
+                } else {
+                    takenLiquidity.headMap(price(0), false).clear();
+                }
+            }
+        }
+
+        /*
+         * Returns the first level from the given one that our orders have not taken all of, or the depth if there
+         * is none.
+         */
+        private int nextLevelWithLiquidity(int level) {
+            final int depth = depth();
+            while (level < depth && availableQuantity(level) == 0) {
+                level++;
+            }
+            return level;
+        }
+
+        /*
+         * Returns the quantity at a level less what our orders have taken from it. A level showing a different
+         * quantity from when we took from it has been updated by the exchange, so all of it is available again.
+         */
+        private long availableQuantity(int level) {
+            final long levelQuantity = quantity(level);
+            if (takenLiquidity.isEmpty()) {
+                return levelQuantity;
+            }
+            final long price = price(level);
+            final long[] taken = takenLiquidity.get(price);
+            if (taken == null) {
+                return levelQuantity;
+            }
+            if (taken[0] != levelQuantity) {
+                takenLiquidity.remove(price);
+                return levelQuantity;
+            }
+            return levelQuantity - taken[1];
+        }
+
+        private void take(int level, long quantity) {
+            final long levelQuantity = quantity(level);
+            takenLiquidity.computeIfAbsent(price(level), price -> new long[]{levelQuantity, 0})[1] += quantity;
+        }
+
+        private int depth() {
+            if (fixedPointBook != null) {
+                return asks ? fixedPointBook.getAskDepth() : fixedPointBook.getBidDepth();
+            }
+            return marketOrders == null ? 0 : marketOrders.size();
+        }
+
+        private long price(int level) {
+            if (fixedPointBook != null) {
+                return asks ? fixedPointBook.getAskPrice(level) : fixedPointBook.getBidPrice(level);
+            }
+            return toFixedPoint(marketOrders.get(level).getPrice());
+        }
+
+        private long quantity(int level) {
+            if (fixedPointBook != null) {
+                return asks ? fixedPointBook.getAskQuantity(level) : fixedPointBook.getBidQuantity(level);
+            }
+            return toFixedPoint(marketOrders.get(level).getQuantity());
+        }
+
+        /*
+         * Does our order at this price trade with the exchange level at that price?
+         */
+        private boolean crosses(long orderPrice, long levelPrice) {
+            return asks ? orderPrice >= levelPrice : orderPrice <= levelPrice;
+        }
+    }
+}
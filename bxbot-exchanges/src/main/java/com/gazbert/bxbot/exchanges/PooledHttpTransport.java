@@ -0,0 +1,185 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+
+package com.gazbert.bxbot.exchanges;
+
+import com.gazbert.bxbot.exchanges.AbstractExchangeAdapter.ExchangeHttpResponse;
+import okhttp3.ConnectionPool;
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringReader;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * HTTP transport that keeps connections to the exchange open and reuses them across requests.
+ * <p>
+ * Built on OkHttp:
+ * - Idle connections are kept alive in a pool and evicted after the configured idle timeout.
+ * - TLS sessions are reused, so only the first request on a new connection pays for a full TLS handshake.
+ * - HTTP/2 is negotiated (via ALPN) when both the exchange and the JVM support it, otherwise HTTP/1.1 is used.
+ *   With HTTP/2, concurrent requests to the same exchange are multiplexed over a single connection.
+ * <p>
+ * Requests are executed synchronously on the calling thread. This class is thread safe.
+ *
+ * @author gazbert
+ */
+final class PooledHttpTransport implements HttpTransport {
+
+    private static final Logger LOG = LogManager.getLogger();
+
+    /*
+     * Er, perhaps, I need to be a bit more stealth here... this was needed for some exchanges back in the day!
+     */
+    private static final String USER_AGENT =
+            "Mozilla/5.0 (X11; Linux x86_64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/60.0.3112.78 Safari/537.36";
+
+    /*
+     * Content type sent with POST requests if the adapter does not set one - same as HttpURLConnection.
+     */
+    private static final String DEFAULT_POST_CONTENT_TYPE = "application/x-www-form-urlencoded";
+
+    private final OkHttpClient httpClient;
+
+    /**
+     * Creates the transport.
+     *
+     * @param timeoutInSecs      the connect, read and write timeout in seconds.
+     * @param connectionPoolSize the max number of idle connections to keep open.
+     * @param idleTimeoutInSecs  how long an idle connection is kept open before it is evicted, in seconds.
+     */
+    PooledHttpTransport(int timeoutInSecs, int connectionPoolSize, int idleTimeoutInSecs) {
+
+        httpClient = new OkHttpClient.Builder()
+                .connectionPool(new ConnectionPool(connectionPoolSize, idleTimeoutInSecs, TimeUnit.SECONDS))
+                .protocols(Arrays.asList(Protocol.HTTP_2, Protocol.HTTP_1_1))
+                .connectTimeout(timeoutInSecs, TimeUnit.SECONDS)
+                .readTimeout(timeoutInSecs, TimeUnit.SECONDS)
+                .writeTimeout(timeoutInSecs, TimeUnit.SECONDS)
+                .build();
+
+        LOG.info(() -> "Created pooled HTTP transport - timeout: " + timeoutInSecs + "s, pool size: "
+                + connectionPoolSize + ", idle timeout: " + idleTimeoutInSecs + "s");
+    }
+
+    @Override
+    public ExchangeHttpResponse send(URL url, String httpMethod, String postData, Map<String, String> requestHeaders)
+            throws IOException {
+        return send(url, httpMethod, postData, requestHeaders,
+                (statusCode, reasonPhrase, body) -> new ExchangeHttpResponse(statusCode, reasonPhrase, readPayload(body)));
+    }
+
+    @Override
+    public <T> T send(URL url, String httpMethod, String postData, Map<String, String> requestHeaders,
+                      ResponseReader<T> responseReader) throws IOException {
+
+        final Request.Builder requestBuilder;
+        try {
+            requestBuilder = new Request.Builder().url(url);
+        } catch (IllegalArgumentException e) {
+            throw new MalformedURLException("Unsupported URL: " + url + " - " + e.getMessage());
+        }
+
+        requestBuilder.header("User-Agent", USER_AGENT);
+
+        String contentType = null;
+        if (requestHeaders != null) {
+            for (final Map.Entry<String, String> requestHeader : requestHeaders.entrySet()) {
+                requestBuilder.header(requestHeader.getKey(), requestHeader.getValue());
+                LOG.debug(() -> "Setting following request header: " + requestHeader);
+                if ("Content-Type".equalsIgnoreCase(requestHeader.getKey())) {
+                    contentType = requestHeader.getValue();
+                }
+            }
+        }
+
+        RequestBody requestBody = null;
+        if (httpMethod.equalsIgnoreCase("POST")) {
+            final MediaType mediaType = MediaType.parse(contentType != null ? contentType : DEFAULT_POST_CONTENT_TYPE);
+            final byte[] content = postData != null ? postData.getBytes(StandardCharsets.UTF_8) : new byte[0];
+            requestBody = RequestBody.create(mediaType, content);
+        }
+        requestBuilder.method(httpMethod.toUpperCase(), requestBody); // GET|POST|DELETE
+
+        try (final Response response = httpClient.newCall(requestBuilder.build()).execute()) {
+            LOG.debug(() -> "Response received using " + response.protocol());
+            final ResponseBody responseBody = response.body();
+            if (responseBody == null) {
+                return responseReader.read(response.code(), response.message(), new StringReader(""));
+            }
+            try (final Reader body = new InputStreamReader(responseBody.byteStream(), StandardCharsets.UTF_8)) {
+                return responseReader.read(response.code(), response.message(), body);
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        httpClient.dispatcher().executorService().shutdown();
+        httpClient.connectionPool().evictAll();
+    }
+
+    /**
+     * Returns the connection pool. Used for testing.
+     *
+     * @return the connection pool.
+     */
+    ConnectionPool getConnectionPool() {
+        return httpClient.connectionPool();
+    }
+
+    // ------------------------------------------------------------------------------------------------
+    //  Util methods
+    // ------------------------------------------------------------------------------------------------
+
+    /*
+     * Reads the response lines into a single string. The body must be read fully for the connection to be reused.
+     */
+    private static String readPayload(Reader body) throws IOException {
+
+        final StringBuilder payload = new StringBuilder();
+        final BufferedReader reader = new BufferedReader(body);
+        String responseLine;
+        while ((responseLine = reader.readLine()) != null) {
+            payload.append(responseLine);
+        }
+        return payload.toString();
+    }
+}
@@ -0,0 +1,217 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.exchanges;
+
+import com.gazbert.bxbot.trading.api.ExchangeNetworkException;
+
+import java.util.PriorityQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * A token bucket rate limiter for the requests an Exchange Adapter sends to the exchange.
+ * <p>
+ * The bucket holds up to {@code maxBurst} tokens and is refilled at {@code maxRequestsPerMinute} tokens a minute.
+ * Each request takes a token before it is sent. If the bucket is empty, the caller is queued until a token becomes
+ * available; requests are never rejected.
+ * <p>
+ * Queued requests are served in {@link RequestPriority} order, then in the order they arrived. This means order
+ * placement and cancellation are not stuck behind a backlog of market data requests when the adapter is at its limit.
+ * <p>
+ * This class is thread safe.
+ *
+ * @author gazbert
+ */
+class RequestRateLimiter {
+
+    /**
+     * The priority of a request waiting for a token. Lower ordinal values are served first.
+     */
+    enum RequestPriority {
+
+        /**
+         * Trading and account requests, e.g. placing and cancelling orders.
+         */
+        HIGH,
+
+        /**
+         * Market data requests, e.g. fetching the order book or ticker.
+         */
+        LOW
+    }
+
+    private static final long NANOS_PER_MINUTE = TimeUnit.MINUTES.toNanos(1);
+
+    private final int maxRequestsPerMinute;
+    private final int maxBurst;
+    private final long nanosPerToken;
+    private final LongSupplier nanoClock;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition queueChanged = lock.newCondition();
+    private final PriorityQueue<Waiter> waiters = new PriorityQueue<>();
+
+    /*
+     * The following are guarded by the lock.
+     */
+    private double availableTokens;
+    private long lastRefillTime;
+    private long nextSequence;
+
+    RequestRateLimiter(int maxRequestsPerMinute, int maxBurst) {
+        this(maxRequestsPerMinute, maxBurst, System::nanoTime);
+    }
+
+    /*
+     * Package-private for unit testing with a fake clock.
+     */
+    RequestRateLimiter(int maxRequestsPerMinute, int maxBurst, LongSupplier nanoClock) {
+
+        if (maxRequestsPerMinute < 1) {
+            throw new IllegalArgumentException("Max requests per minute must be at least 1: " + maxRequestsPerMinute);
+        }
+        if (maxBurst < 1) {
+            throw new IllegalArgumentException("Max request burst must be at least 1: " + maxBurst);
+        }
+
+        this.maxRequestsPerMinute = maxRequestsPerMinute;
+        this.maxBurst = maxBurst;
+        this.nanosPerToken = NANOS_PER_MINUTE / maxRequestsPerMinute;
+        this.nanoClock = nanoClock;
+        this.availableTokens = maxBurst;
+        this.lastRefillTime = nanoClock.getAsLong();
+    }
+
+    /**
+     * Takes a token, waiting for one to become available if the bucket is empty.
+     *
+     * @param priority the priority of the request.
+     * @throws ExchangeNetworkException if the thread was interrupted while waiting. The thread's interrupt status is
+     *                                  restored.
+     */
+    void acquire(RequestPriority priority) throws ExchangeNetworkException {
+
+        lock.lock();
+        try {
+            final Waiter waiter = new Waiter(priority, nextSequence++);
+            waiters.add(waiter);
+            // A higher priority waiter may have just replaced the head of the queue
+            queueChanged.signalAll();
+            try {
+                while (true) {
+                    if (waiters.peek() == waiter) {
+                        refill();
+                        if (availableTokens >= 1) {
+                            availableTokens -= 1;
+                            return;
+                        }
+                        final long waitNanos = (long) Math.ceil((1 - availableTokens) * nanosPerToken);
+                        queueChanged.awaitNanos(Math.max(1, waitNanos));
+                    } else {
+                        queueChanged.await();
+                    }
+                }
+            } finally {
+                waiters.remove(waiter);
+                // Wake the new head of the queue
+                queueChanged.signalAll();
+            }
+
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ExchangeNetworkException("Interrupted while waiting for the exchange request rate limit", e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Empties the bucket. Called when the exchange tells us we have gone over its rate limit, so the next requests are
+     * paced at the refill rate instead of being sent as a burst.
+     */
+    void drain() {
+        lock.lock();
+        try {
+            refill();
+            availableTokens = 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /*
+     * Package-private for unit testing.
+     */
+    int getQueueLength() {
+        lock.lock();
+        try {
+            return waiters.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    int getMaxRequestsPerMinute() {
+        return maxRequestsPerMinute;
+    }
+
+    int getMaxBurst() {
+        return maxBurst;
+    }
+
+    // ------------------------------------------------------------------------------------------------
+    //  Util methods
+    // ------------------------------------------------------------------------------------------------
+
+    private void refill() {
+        final long now = nanoClock.getAsLong();
+        final long elapsed = now - lastRefillTime;
+        if (elapsed > 0) {
+            availableTokens = Math.min(maxBurst, availableTokens + (double) elapsed / nanosPerToken);
+            lastRefillTime = now;
+        }
+    }
+
+    /*
+     * A request waiting for a token.
+     */
+    private static final class Waiter implements Comparable<Waiter> {
+
+        private final RequestPriority priority;
+        private final long sequence;
+
+        private Waiter(RequestPriority priority, long sequence) {
+            this.priority = priority;
+            this.sequence = sequence;
+        }
+
+        @Override
+        public int compareTo(Waiter other) {
+            final int byPriority = priority.compareTo(other.priority);
+            return byPriority != 0 ? byPriority : Long.compare(sequence, other.sequence);
+        }
+    }
+}
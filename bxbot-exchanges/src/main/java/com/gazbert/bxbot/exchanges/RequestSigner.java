@@ -0,0 +1,342 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.exchanges;
+
+import javax.crypto.Mac;
+import javax.crypto.ShortBufferException;
+import javax.crypto.spec.SecretKeySpec;
+import java.security.DigestException;
+import java.security.InvalidKeyException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+
+/**
+ * Signs authenticated requests sent to an exchange.
+ * <p>
+ * {@link Mac} and {@link MessageDigest} instances are stateful and not thread safe, so each thread that signs a request
+ * gets its own, along with the buffers used to encode the message and the signature. They are created the first time a
+ * thread signs a request and reused after that, so signing does not allocate beyond the returned signature String. Each
+ * thread's Mac is cloned from one that was initialised with the secret key when the signer was created.
+ * <p>
+ * Messages are encoded as UTF-8 before they are signed.
+ * <p>
+ * This class is thread safe.
+ *
+ * @author gazbert
+ */
+final class RequestSigner {
+
+    /**
+     * How the signature bytes are encoded in the String returned to the caller.
+     */
+    enum Encoding {
+
+        /**
+         * Hexadecimal, using lowercase a-f.
+         */
+        LOWER_CASE_HEX,
+
+        /**
+         * Hexadecimal, using uppercase A-F.
+         */
+        UPPER_CASE_HEX,
+
+        /**
+         * Base64, as per RFC 4648.
+         */
+        BASE64
+    }
+
+    private static final char[] LOWER_CASE_HEX_DIGITS = "0123456789abcdef".toCharArray();
+    private static final char[] UPPER_CASE_HEX_DIGITS = "0123456789ABCDEF".toCharArray();
+
+    /*
+     * Initial size of each thread's message buffer - big enough for most requests. It grows if needed.
+     */
+    private static final int INITIAL_MESSAGE_BUFFER_SIZE = 1024;
+
+    private final SecretKeySpec secretKey;
+    private final Mac macPrototype;
+    private final String digestAlgorithm;
+    private final ThreadLocal<SigningContext> signingContext = ThreadLocal.withInitial(this::createSigningContext);
+
+    private RequestSigner(SecretKeySpec secretKey, String digestAlgorithm)
+            throws NoSuchAlgorithmException, InvalidKeyException {
+
+        this.secretKey = secretKey;
+        this.digestAlgorithm = digestAlgorithm;
+
+        if (secretKey != null) {
+            macPrototype = Mac.getInstance(secretKey.getAlgorithm());
+            macPrototype.init(secretKey);
+        } else {
+            macPrototype = null;
+        }
+
+        if (digestAlgorithm != null) {
+            MessageDigest.getInstance(digestAlgorithm); // fail fast if not installed
+        }
+    }
+
+    /**
+     * Creates a signer that signs messages with an HMAC.
+     *
+     * @param macAlgorithm the HMAC algorithm, e.g. HmacSHA256
+     * @param secret       the secret key.
+     * @return the signer.
+     * @throws NoSuchAlgorithmException if the HMAC algorithm is not installed.
+     * @throws InvalidKeyException      if the secret key is not valid for the HMAC algorithm.
+     */
+    static RequestSigner forHmac(String macAlgorithm, byte[] secret)
+            throws NoSuchAlgorithmException, InvalidKeyException {
+        return new RequestSigner(new SecretKeySpec(secret, macAlgorithm), null);
+    }
+
+    /**
+     * Creates a signer that signs messages with an HMAC, where part of the message is a hash of the request.
+     *
+     * @param macAlgorithm    the HMAC algorithm, e.g. HmacSHA512
+     * @param secret          the secret key.
+     * @param digestAlgorithm the hash algorithm, e.g. SHA-256
+     * @return the signer.
+     * @throws NoSuchAlgorithmException if the HMAC or hash algorithm is not installed.
+     * @throws InvalidKeyException      if the secret key is not valid for the HMAC algorithm.
+     */
+    static RequestSigner forHmacWithDigest(String macAlgorithm, byte[] secret, String digestAlgorithm)
+            throws NoSuchAlgorithmException, InvalidKeyException {
+        return new RequestSigner(new SecretKeySpec(secret, macAlgorithm), digestAlgorithm);
+    }
+
+    /**
+     * Creates a signer that only hashes messages; used by exchanges that sign requests by hashing them along with the
+     * secret key.
+     *
+     * @param digestAlgorithm the hash algorithm, e.g. MD5
+     * @return the signer.
+     * @throws NoSuchAlgorithmException if the hash algorithm is not installed.
+     */
+    static RequestSigner forDigest(String digestAlgorithm) throws NoSuchAlgorithmException {
+        try {
+            return new RequestSigner(null, digestAlgorithm);
+        } catch (InvalidKeyException e) {
+            throw new IllegalStateException("No key is used for a digest", e);
+        }
+    }
+
+    /**
+     * Returns the HMAC of the given message. The message parts are signed as if they were concatenated.
+     *
+     * @param encoding     how to encode the signature.
+     * @param messageParts the message to sign.
+     * @return the signature.
+     * @throws IllegalStateException if this signer was not created with an HMAC algorithm.
+     */
+    String sign(Encoding encoding, String... messageParts) {
+
+        final SigningContext context = getSigningContext(true, false);
+        for (final String messagePart : messageParts) {
+            final int length = context.encode(messagePart);
+            context.mac.update(context.messageBuffer, 0, length);
+        }
+        return context.encode(context.doFinalMac(), encoding);
+    }
+
+    /**
+     * Returns the HMAC of the prefix followed by the hash of the message to digest.
+     *
+     * @param encoding        how to encode the signature.
+     * @param prefix          the start of the message to sign.
+     * @param messageToDigest the message to hash before it is added to the message to sign.
+     * @return the signature.
+     * @throws IllegalStateException if this signer was not created with an HMAC and a hash algorithm.
+     */
+    String signWithDigest(Encoding encoding, String prefix, String messageToDigest) {
+
+        final SigningContext context = getSigningContext(true, true);
+
+        int length = context.encode(messageToDigest);
+        context.messageDigest.update(context.messageBuffer, 0, length);
+        final byte[] hash = context.digestResult();
+
+        length = context.encode(prefix);
+        context.mac.update(context.messageBuffer, 0, length);
+        context.mac.update(hash, 0, hash.length);
+        return context.encode(context.doFinalMac(), encoding);
+    }
+
+    /**
+     * Returns the hash of the given message.
+     *
+     * @param encoding how to encode the hash.
+     * @param message  the message to hash.
+     * @return the hash.
+     * @throws IllegalStateException if this signer was not created with a hash algorithm.
+     */
+    String digest(Encoding encoding, String message) {
+
+        final SigningContext context = getSigningContext(false, true);
+        final int length = context.encode(message);
+        context.messageDigest.update(context.messageBuffer, 0, length);
+        return context.encode(context.digestResult(), encoding);
+    }
+
+    // ------------------------------------------------------------------------------------------------
+    //  Util methods
+    // ------------------------------------------------------------------------------------------------
+
+    private SigningContext getSigningContext(boolean macNeeded, boolean digestNeeded) {
+        if (macNeeded && macPrototype == null) {
+            throw new IllegalStateException("Signer was not created with an HMAC algorithm");
+        }
+        if (digestNeeded && digestAlgorithm == null) {
+            throw new IllegalStateException("Signer was not created with a digest algorithm");
+        }
+        final SigningContext context = signingContext.get();
+        context.reset(); // in case a previous call on this thread failed part way through
+        return context;
+    }
+
+    private SigningContext createSigningContext() {
+        try {
+            return new SigningContext(macPrototype == null ? null : newMac(),
+                    digestAlgorithm == null ? null : MessageDigest.getInstance(digestAlgorithm));
+        } catch (NoSuchAlgorithmException | InvalidKeyException e) {
+            // Should never happen - the algorithms and key were checked when the signer was created
+            throw new IllegalStateException("Failed to create Mac or MessageDigest for signing thread", e);
+        }
+    }
+
+    private Mac newMac() throws NoSuchAlgorithmException, InvalidKeyException {
+        try {
+            return (Mac) macPrototype.clone();
+        } catch (CloneNotSupportedException e) {
+            final Mac mac = Mac.getInstance(secretKey.getAlgorithm());
+            mac.init(secretKey);
+            return mac;
+        }
+    }
+
+    /*
+     * A thread's Mac, MessageDigest, and buffers.
+     */
+    private static final class SigningContext {
+
+        private final Mac mac;
+        private final MessageDigest messageDigest;
+        private final byte[] macResult;
+        private final byte[] digestResult;
+        private final char[] hexChars;
+        private byte[] messageBuffer = new byte[INITIAL_MESSAGE_BUFFER_SIZE];
+
+        private SigningContext(Mac mac, MessageDigest messageDigest) {
+            this.mac = mac;
+            this.messageDigest = messageDigest;
+            macResult = new byte[mac == null ? 0 : mac.getMacLength()];
+            digestResult = new byte[messageDigest == null ? 0 : messageDigest.getDigestLength()];
+            hexChars = new char[2 * Math.max(macResult.length, digestResult.length)];
+        }
+
+        private void reset() {
+            if (mac != null) {
+                mac.reset();
+            }
+            if (messageDigest != null) {
+                messageDigest.reset();
+            }
+        }
+
+        private byte[] doFinalMac() {
+            try {
+                mac.doFinal(macResult, 0);
+                return macResult;
+            } catch (ShortBufferException e) {
+                throw new IllegalStateException("Mac result buffer is too small", e);
+            }
+        }
+
+        private byte[] digestResult() {
+            try {
+                messageDigest.digest(digestResult, 0, digestResult.length);
+                return digestResult;
+            } catch (DigestException e) {
+                throw new IllegalStateException("Digest result buffer is too small", e);
+            }
+        }
+
+        /*
+         * Encodes the String as UTF-8 into the message buffer and returns the number of bytes written. Unpaired
+         * surrogates are encoded as '?', as String.getBytes() does.
+         */
+        private int encode(String message) {
+
+            final int maxLength = message.length() * 3; // a UTF-16 char never takes more than 3 UTF-8 bytes
+            if (messageBuffer.length < maxLength) {
+                messageBuffer = new byte[Math.max(maxLength, messageBuffer.length * 2)];
+            }
+
+            final byte[] buffer = messageBuffer;
+            int position = 0;
+            for (int i = 0; i < message.length(); i++) {
+                final char c = message.charAt(i);
+                if (c < 0x80) {
+                    buffer[position++] = (byte) c;
+                } else if (c < 0x800) {
+                    buffer[position++] = (byte) (0xc0 | (c >> 6));
+                    buffer[position++] = (byte) (0x80 | (c & 0x3f));
+                } else if (Character.isSurrogate(c)) {
+                    if (Character.isHighSurrogate(c) && i + 1 < message.length()
+                            && Character.isLowSurrogate(message.charAt(i + 1))) {
+                        final int codePoint = Character.toCodePoint(c, message.charAt(++i));
+                        buffer[position++] = (byte) (0xf0 | (codePoint >> 18));
+                        buffer[position++] = (byte) (0x80 | ((codePoint >> 12) & 0x3f));
+                        buffer[position++] = (byte) (0x80 | ((codePoint >> 6) & 0x3f));
+                        buffer[position++] = (byte) (0x80 | (codePoint & 0x3f));
+                    } else {
+                        buffer[position++] = (byte) '?';
+                    }
+                } else {
+                    buffer[position++] = (byte) (0xe0 | (c >> 12));
+                    buffer[position++] = (byte) (0x80 | ((c >> 6) & 0x3f));
+                    buffer[position++] = (byte) (0x80 | (c & 0x3f));
+                }
+            }
+            return position;
+        }
+
+        private String encode(byte[] bytes, Encoding encoding) {
+
+            if (encoding == Encoding.BASE64) {
+                return Base64.getEncoder().encodeToString(bytes);
+            }
+
+            final char[] hexDigits = encoding == Encoding.UPPER_CASE_HEX ? UPPER_CASE_HEX_DIGITS : LOWER_CASE_HEX_DIGITS;
+            for (int i = 0; i < bytes.length; i++) {
+                hexChars[2 * i] = hexDigits[(bytes[i] >> 4) & 0xf];
+                hexChars[2 * i + 1] = hexDigits[bytes[i] & 0xf];
+            }
+            return new String(hexChars, 0, 2 * bytes.length);
+        }
+    }
+}
@@ -1,5 +1,12 @@
 package com.gazbert.bxbot.exchanges;
 
+import com.google.gson.stream.JsonReader;
+import org.easymock.EasyMock;
+import org.easymock.IAnswer;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 import java.text.DecimalFormatSymbols;
 import java.util.Locale;
 
@@ -28,4 +35,25 @@ abstract class AbstractExchangeAdapterTest {
     DecimalFormatSymbols getDecimalFormatSymbols() {
         return decimalFormatSymbols;
     }
+
+    /**
+     * Answers a mocked streaming request by feeding a canned exchange response to the response parser. The parser
+     * must be the last arg of the mocked method.
+     *
+     * @param cannedResponseFile the canned response to stream.
+     * @param <T>                the type the response is parsed into.
+     * @return the answer.
+     */
+    @SuppressWarnings("unchecked")
+    static <T> IAnswer<T> streamCannedResponse(String cannedResponseFile) {
+        return () -> {
+            final Object[] args = EasyMock.getCurrentArguments();
+            final AbstractExchangeAdapter.ExchangeResponseParser<T> responseParser =
+                    (AbstractExchangeAdapter.ExchangeResponseParser<T>) args[args.length - 1];
+            try (final JsonReader jsonReader = new JsonReader(
+                    Files.newBufferedReader(Paths.get(cannedResponseFile), StandardCharsets.UTF_8))) {
+                return responseParser.parse(jsonReader);
+            }
+        };
+    }
 }
@@ -0,0 +1,384 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+
+package com.gazbert.bxbot.exchanges;
+
+import com.gazbert.bxbot.exchange.api.ExchangeConfig;
+import com.gazbert.bxbot.exchange.api.NetworkConfig;
+import com.gazbert.bxbot.exchanges.AbstractExchangeAdapter.ExchangeHttpResponse;
+import com.gazbert.bxbot.trading.api.ExchangeNetworkException;
+import com.gazbert.bxbot.trading.api.TradingApiException;
+import com.google.gson.Gson;
+import com.google.gson.JsonSyntaxException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.net.ConnectException;
+import java.net.SocketTimeoutException;
+import java.net.URL;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.easymock.EasyMock.createMock;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.replay;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests the shared network request handling in the Abstract Exchange Adapter behaves as expected.
+ * <p>
+ * The HTTP transport is stubbed to return canned responses and errors.
+ *
+ * @author gazbert
+ */
+public class TestAbstractExchangeAdapter {
+
+    private static final List<Integer> nonFatalNetworkErrorCodes = Arrays.asList(502, 503, 504);
+    private static final List<String> nonFatalNetworkErrorMessages = Arrays.asList(
+            "Connection refused", "Connection reset", "Remote host closed connection during handshake");
+
+    private static final String API_URL = "https://api.exchange.com/ticker";
+
+    private AbstractExchangeAdapter exchangeAdapter;
+    private StubHttpTransport httpTransport;
+    private MeterRegistry meterRegistry;
+
+    @Before
+    public void setupForEachTest() {
+
+        final NetworkConfig networkConfig = createMock(NetworkConfig.class);
+        expect(networkConfig.getConnectionTimeout()).andReturn(30);
+        expect(networkConfig.getNonFatalErrorCodes()).andReturn(nonFatalNetworkErrorCodes);
+        expect(networkConfig.getNonFatalErrorMessages()).andReturn(nonFatalNetworkErrorMessages);
+        expect(networkConfig.getConnectionPoolSize()).andReturn(5);
+        expect(networkConfig.getConnectionIdleTimeout()).andReturn(60);
+        expect(networkConfig.getMaxRequestsPerMinute()).andReturn(null);
+        expect(networkConfig.getMaxRequestBurst()).andReturn(null);
+
+        final ExchangeConfig exchangeConfig = createMock(ExchangeConfig.class);
+        expect(exchangeConfig.getNetworkConfig()).andReturn(networkConfig);
+        replay(networkConfig, exchangeConfig);
+
+        exchangeAdapter = new AbstractExchangeAdapter() {
+        };
+        exchangeAdapter.setNetworkConfig(exchangeConfig);
+
+        httpTransport = new StubHttpTransport();
+        exchangeAdapter.setHttpTransport(httpTransport);
+
+        meterRegistry = new SimpleMeterRegistry();
+        exchangeAdapter.setMeterRegistry(meterRegistry);
+    }
+
+    @Test
+    public void testSuccessfulResponseIsReturned() throws Exception {
+
+        httpTransport.response = new ExchangeHttpResponse(200, "OK", "{\"last\":\"1234.56\"}");
+        final ExchangeHttpResponse response = exchangeAdapter.sendNetworkRequest(new URL(API_URL), "GET", null, null);
+        assertSame(httpTransport.response, response);
+    }
+
+    @Test(expected = ExchangeNetworkException.class)
+    public void testNonFatalErrorCodeThrowsExchangeNetworkException() throws Exception {
+        httpTransport.response = new ExchangeHttpResponse(503, "Service Unavailable", "");
+        exchangeAdapter.sendNetworkRequest(new URL(API_URL), "GET", null, null);
+    }
+
+    @Test(expected = ExchangeNetworkException.class)
+    public void testNotFoundThrowsExchangeNetworkException() throws Exception {
+        httpTransport.response = new ExchangeHttpResponse(404, "Not Found", "");
+        exchangeAdapter.sendNetworkRequest(new URL(API_URL), "GET", null, null);
+    }
+
+    @Test
+    public void testUnexpectedErrorCodeThrowsTradingApiExceptionWithErrorResponse() throws Exception {
+
+        httpTransport.response = new ExchangeHttpResponse(400, "Bad Request", "{\"error\":\"Invalid nonce\"}");
+        try {
+            exchangeAdapter.sendNetworkRequest(new URL(API_URL), "POST", "nonce=1", null);
+            fail("Expected TradingApiException");
+        } catch (TradingApiException e) {
+            assertTrue(e.getMessage().contains("{\"error\":\"Invalid nonce\"}"));
+        }
+    }
+
+    @Test(expected = ExchangeNetworkException.class)
+    public void testSocketTimeoutThrowsExchangeNetworkException() throws Exception {
+        httpTransport.error = new SocketTimeoutException("Read timed out");
+        exchangeAdapter.sendNetworkRequest(new URL(API_URL), "GET", null, null);
+    }
+
+    @Test
+    public void testWrappedNonFatalErrorMessageThrowsExchangeNetworkException() throws Exception {
+
+        final ConnectException cause = new ConnectException("Connection refused");
+        httpTransport.error = new IOException("Failed to connect to api.exchange.com", cause);
+        try {
+            exchangeAdapter.sendNetworkRequest(new URL(API_URL), "GET", null, null);
+            fail("Expected ExchangeNetworkException");
+        } catch (ExchangeNetworkException e) {
+            assertSame(httpTransport.error, e.getCause());
+        }
+    }
+
+    @Test(expected = TradingApiException.class)
+    public void testUnexpectedIoErrorThrowsTradingApiException() throws Exception {
+        httpTransport.error = new IOException("Something bad happened");
+        exchangeAdapter.sendNetworkRequest(new URL(API_URL), "GET", null, null);
+    }
+
+    @Test
+    public void testStreamedResponseIsPassedToParser() throws Exception {
+
+        httpTransport.response = new ExchangeHttpResponse(200, "OK", "{\"last\":\"1234.56\"}");
+        final StubTicker ticker = exchangeAdapter.sendNetworkRequest(new URL(API_URL), "GET", null, null,
+                jsonReader -> new Gson().fromJson(jsonReader, StubTicker.class));
+        assertEquals(new BigDecimal("1234.56"), ticker.last);
+    }
+
+    @Test
+    public void testStreamedErrorCodeIsNotPassedToParser() throws Exception {
+
+        httpTransport.response = new ExchangeHttpResponse(400, "Bad Request", "{\"error\":\"Unknown pair\"}");
+        try {
+            exchangeAdapter.sendNetworkRequest(new URL(API_URL), "GET", null, null, jsonReader -> {
+                throw new AssertionError("Error response should not be parsed");
+            });
+            fail("Expected TradingApiException");
+        } catch (TradingApiException e) {
+            assertTrue(e.getMessage().contains("{\"error\":\"Unknown pair\"}"));
+        }
+    }
+
+    @Test
+    public void testStreamedNon200SuccessCodeIsNotPassedToParser() throws Exception {
+
+        httpTransport.response = new ExchangeHttpResponse(204, "No Content", "");
+        try {
+            exchangeAdapter.sendNetworkRequest(new URL(API_URL), "GET", null, null, jsonReader -> {
+                throw new AssertionError("Non-200 response should not be parsed");
+            });
+            fail("Expected TradingApiException");
+        } catch (TradingApiException e) {
+            assertTrue(e.getMessage().contains("204"));
+        }
+    }
+
+    @Test(expected = ExchangeNetworkException.class)
+    public void testStreamedNonFatalErrorCodeThrowsExchangeNetworkException() throws Exception {
+        httpTransport.response = new ExchangeHttpResponse(503, "Service Unavailable", "");
+        exchangeAdapter.sendNetworkRequest(new URL(API_URL), "GET", null, null,
+                jsonReader -> new Gson().fromJson(jsonReader, StubTicker.class));
+    }
+
+    @Test(expected = ExchangeNetworkException.class)
+    public void testSocketTimeoutMidStreamThrowsExchangeNetworkException() throws Exception {
+
+        httpTransport.response = new ExchangeHttpResponse(200, "OK", "{\"last\":\"1234.56\"}");
+        httpTransport.bodyError = new SocketTimeoutException("Read timed out");
+        exchangeAdapter.sendNetworkRequest(new URL(API_URL), "GET", null, null,
+                jsonReader -> new Gson().fromJson(jsonReader, StubTicker.class));
+    }
+
+    @Test(expected = JsonSyntaxException.class)
+    public void testMalformedStreamedResponseIsLeftForAdapterToHandle() throws Exception {
+        httpTransport.response = new ExchangeHttpResponse(200, "OK", "{\"last\":}");
+        exchangeAdapter.sendNetworkRequest(new URL(API_URL), "GET", null, null,
+                jsonReader -> new Gson().fromJson(jsonReader, StubTicker.class));
+    }
+
+    @Test
+    public void testSuccessfulRequestIsTimedWithStatusCode() throws Exception {
+
+        httpTransport.response = new ExchangeHttpResponse(200, "OK", "{\"last\":\"1234.56\"}");
+        exchangeAdapter.sendNetworkRequest(new URL(API_URL), "get", null, null);
+        exchangeAdapter.sendNetworkRequest(new URL(API_URL), "GET", null, null,
+                jsonReader -> new Gson().fromJson(jsonReader, StubTicker.class));
+
+        final Timer timer = meterRegistry.get(AbstractExchangeAdapter.REQUEST_TIMER_NAME)
+                .tags("method", "GET", "status", "200", "exception", "None").timer();
+        assertEquals(2, timer.count());
+        assertNull(meterRegistry.find(AbstractExchangeAdapter.REQUEST_ERROR_COUNTER_NAME).counter());
+    }
+
+    @Test
+    public void testFailedRequestsAreTimedAndCounted() throws Exception {
+
+        httpTransport.response = new ExchangeHttpResponse(503, "Service Unavailable", "");
+        try {
+            exchangeAdapter.sendNetworkRequest(new URL(API_URL), "GET", null, null);
+            fail("Expected ExchangeNetworkException");
+        } catch (ExchangeNetworkException e) {
+            // expected
+        }
+
+        httpTransport.error = new SocketTimeoutException("Read timed out");
+        try {
+            exchangeAdapter.sendNetworkRequest(new URL(API_URL), "POST", "nonce=1", null);
+            fail("Expected ExchangeNetworkException");
+        } catch (ExchangeNetworkException e) {
+            // expected
+        }
+
+        assertEquals(1, meterRegistry.get(AbstractExchangeAdapter.REQUEST_TIMER_NAME)
+                .tags("method", "GET", "status", "503", "exception", "ExchangeNetworkException").timer().count());
+        assertEquals(1, meterRegistry.get(AbstractExchangeAdapter.REQUEST_TIMER_NAME)
+                .tags("method", "POST", "status", "NONE", "exception", "ExchangeNetworkException").timer().count());
+        assertEquals(1.0, meterRegistry.get(AbstractExchangeAdapter.REQUEST_ERROR_COUNTER_NAME)
+                .tags("method", "GET", "exception", "ExchangeNetworkException").counter().count(), 0);
+        assertEquals(1.0, meterRegistry.get(AbstractExchangeAdapter.REQUEST_ERROR_COUNTER_NAME)
+                .tags("method", "POST", "exception", "ExchangeNetworkException").counter().count(), 0);
+    }
+
+    @Test
+    public void testReplacingTransportClosesPreviousTransport() {
+
+        exchangeAdapter.setHttpTransport(new StubHttpTransport());
+        assertEquals(1, httpTransport.closeCount);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testZeroMaxRequestsPerMinuteIsRejected() {
+        exchangeAdapter.setNetworkConfig(createExchangeConfig(0, null));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testZeroMaxRequestBurstIsRejected() {
+        exchangeAdapter.setNetworkConfig(createExchangeConfig(60, 0));
+    }
+
+    @Test
+    public void testRateLimitedRequestIsSent() throws Exception {
+
+        exchangeAdapter.setNetworkConfig(createExchangeConfig(60, 2));
+        exchangeAdapter.setHttpTransport(httpTransport);
+
+        httpTransport.response = new ExchangeHttpResponse(200, "OK", "{\"last\":\"1234.56\"}");
+        assertSame(httpTransport.response, exchangeAdapter.sendNetworkRequest(new URL(API_URL), "GET", null, null));
+        assertSame(httpTransport.response, exchangeAdapter.sendNetworkRequest(new URL(API_URL), "POST", "", null));
+    }
+
+    @Test
+    public void testMarketDataRequestsAreLowPriority() throws Exception {
+        assertEquals(RequestRateLimiter.RequestPriority.LOW,
+                exchangeAdapter.getRequestPriority(new URL(API_URL), "GET"));
+        assertEquals(RequestRateLimiter.RequestPriority.HIGH,
+                exchangeAdapter.getRequestPriority(new URL(API_URL), "POST"));
+        assertEquals(RequestRateLimiter.RequestPriority.HIGH,
+                exchangeAdapter.getRequestPriority(new URL(API_URL), "DELETE"));
+    }
+
+    // ------------------------------------------------------------------------------------------------
+    //  Util methods
+    // ------------------------------------------------------------------------------------------------
+
+    private static ExchangeConfig createExchangeConfig(Integer maxRequestsPerMinute, Integer maxRequestBurst) {
+
+        final NetworkConfig networkConfig = createMock(NetworkConfig.class);
+        expect(networkConfig.getConnectionTimeout()).andReturn(30);
+        expect(networkConfig.getNonFatalErrorCodes()).andReturn(nonFatalNetworkErrorCodes);
+        expect(networkConfig.getNonFatalErrorMessages()).andReturn(nonFatalNetworkErrorMessages);
+        expect(networkConfig.getConnectionPoolSize()).andReturn(5);
+        expect(networkConfig.getConnectionIdleTimeout()).andReturn(60);
+        expect(networkConfig.getMaxRequestsPerMinute()).andReturn(maxRequestsPerMinute);
+        expect(networkConfig.getMaxRequestBurst()).andReturn(maxRequestBurst);
+
+        final ExchangeConfig exchangeConfig = createMock(ExchangeConfig.class);
+        expect(exchangeConfig.getNetworkConfig()).andReturn(networkConfig);
+        replay(networkConfig, exchangeConfig);
+        return exchangeConfig;
+    }
+
+    private static class StubTicker {
+        private BigDecimal last;
+    }
+
+    private static class StubHttpTransport implements HttpTransport {
+
+        private ExchangeHttpResponse response;
+        private IOException error;
+        private IOException bodyError;
+        private int closeCount;
+
+        @Override
+        public ExchangeHttpResponse send(URL url, String httpMethod, String postData,
+                                         Map<String, String> requestHeaders) throws IOException {
+            if (error != null) {
+                throw error;
+            }
+            return response;
+        }
+
+        @Override
+        public <T> T send(URL url, String httpMethod, String postData, Map<String, String> requestHeaders,
+                          ResponseReader<T> responseReader) throws IOException {
+            if (error != null) {
+                throw error;
+            }
+            final Reader body = bodyError != null
+                    ? new FailingReader(response.getPayload(), bodyError)
+                    : new StringReader(response.getPayload());
+            return responseReader.read(response.getStatusCode(), response.getReasonPhrase(), body);
+        }
+
+        @Override
+        public void close() {
+            closeCount++;
+        }
+    }
+
+    /*
+     * Returns the start of the payload, then fails as if the connection was dropped mid-stream.
+     */
+    private static class FailingReader extends StringReader {
+
+        private final IOException error;
+
+        FailingReader(String payload, IOException error) {
+            super(payload.substring(0, payload.length() / 2));
+            this.error = error;
+        }
+
+        @Override
+        public int read(char[] buffer, int offset, int length) throws IOException {
+            final int charsRead = super.read(buffer, offset, length);
+            if (charsRead == -1) {
+                throw error;
+            }
+            return charsRead;
+        }
+    }
+}
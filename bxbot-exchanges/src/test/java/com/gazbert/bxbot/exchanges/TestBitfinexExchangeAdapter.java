@@ -91,6 +91,7 @@ public class TestBitfinexExchangeAdapter extends AbstractExchangeAdapterTest {
     private static final String MOCKED_CREATE_REQUEST_PARAM_MAP_METHOD = "createRequestParamMap";
     private static final String MOCKED_SEND_AUTHENTICATED_REQUEST_TO_EXCHANGE_METHOD = "sendAuthenticatedRequestToExchange";
     private static final String MOCKED_SEND_PUBLIC_REQUEST_TO_EXCHANGE_METHOD = "sendPublicRequestToExchange";
+    private static final String MOCKED_STREAM_PUBLIC_REQUEST_TO_EXCHANGE_METHOD = "streamPublicRequestToExchange";
     private static final String MOCKED_CREATE_REQUEST_HEADER_MAP_METHOD = "createHeaderParamMap";
     private static final String MOCKED_MAKE_NETWORK_REQUEST_METHOD = "makeNetworkRequest";
 
@@ -124,10 +125,15 @@ public class TestBitfinexExchangeAdapter extends AbstractExchangeAdapterTest {
         expect(networkConfig.getConnectionTimeout()).andReturn(30);
         expect(networkConfig.getNonFatalErrorCodes()).andReturn(nonFatalNetworkErrorCodes);
         expect(networkConfig.getNonFatalErrorMessages()).andReturn(nonFatalNetworkErrorMessages);
+        expect(networkConfig.getConnectionPoolSize()).andReturn(5);
+        expect(networkConfig.getConnectionIdleTimeout()).andReturn(60);
+        expect(networkConfig.getMaxRequestsPerMinute()).andReturn(null);
+        expect(networkConfig.getMaxRequestBurst()).andReturn(null);
 
         exchangeConfig = PowerMock.createMock(ExchangeConfig.class);
         expect(exchangeConfig.getAuthenticationConfig()).andReturn(authenticationConfig);
         expect(exchangeConfig.getNetworkConfig()).andReturn(networkConfig);
+        expect(exchangeConfig.getOptionalConfig()).andReturn(null);
         // optional config not needed for this adapter
     }
 
@@ -328,16 +334,11 @@ public class TestBitfinexExchangeAdapter extends AbstractExchangeAdapterTest {
     @Test
     public void testGettingMarketOrdersSuccessfully() throws Exception {
 
-        // Load the canned response from the exchange
-        final byte[] encoded = Files.readAllBytes(Paths.get(BOOK_JSON_RESPONSE));
-        final AbstractExchangeAdapter.ExchangeHttpResponse exchangeResponse =
-                new AbstractExchangeAdapter.ExchangeHttpResponse(200, "OK", new String(encoded, StandardCharsets.UTF_8));
-
         // Partial mock so we do not send stuff down the wire
         final BitfinexExchangeAdapter exchangeAdapter = PowerMock.createPartialMockAndInvokeDefaultConstructor(
-                BitfinexExchangeAdapter.class, MOCKED_SEND_PUBLIC_REQUEST_TO_EXCHANGE_METHOD);
-        PowerMock.expectPrivate(exchangeAdapter, MOCKED_SEND_PUBLIC_REQUEST_TO_EXCHANGE_METHOD, BOOK + "/" + MARKET_ID).
-                andReturn(exchangeResponse);
+                BitfinexExchangeAdapter.class, MOCKED_STREAM_PUBLIC_REQUEST_TO_EXCHANGE_METHOD);
+        PowerMock.expectPrivate(exchangeAdapter, MOCKED_STREAM_PUBLIC_REQUEST_TO_EXCHANGE_METHOD, eq(BOOK + "/" + MARKET_ID),
+                anyObject(AbstractExchangeAdapter.ExchangeResponseParser.class)).andAnswer(streamCannedResponse(BOOK_JSON_RESPONSE));
 
         PowerMock.replayAll();
         exchangeAdapter.init(exchangeConfig);
@@ -375,8 +376,9 @@ public class TestBitfinexExchangeAdapter extends AbstractExchangeAdapterTest {
 
         // Partial mock so we do not send stuff down the wire
         final BitfinexExchangeAdapter exchangeAdapter = PowerMock.createPartialMockAndInvokeDefaultConstructor(
-                BitfinexExchangeAdapter.class, MOCKED_SEND_PUBLIC_REQUEST_TO_EXCHANGE_METHOD);
-        PowerMock.expectPrivate(exchangeAdapter, MOCKED_SEND_PUBLIC_REQUEST_TO_EXCHANGE_METHOD, BOOK + "/" + MARKET_ID).
+                BitfinexExchangeAdapter.class, MOCKED_STREAM_PUBLIC_REQUEST_TO_EXCHANGE_METHOD);
+        PowerMock.expectPrivate(exchangeAdapter, MOCKED_STREAM_PUBLIC_REQUEST_TO_EXCHANGE_METHOD, eq(BOOK + "/" + MARKET_ID),
+                anyObject(AbstractExchangeAdapter.ExchangeResponseParser.class)).
                 andThrow(new ExchangeNetworkException("There are three basic types, Mr. Pizer: the Wills, the Won'ts," +
                         " and the Can'ts. The Wills accomplish everything, the Won'ts oppose everything, and the " +
                         "Can'ts won't try anything."));
@@ -393,8 +395,9 @@ public class TestBitfinexExchangeAdapter extends AbstractExchangeAdapterTest {
 
         // Partial mock so we do not send stuff down the wire
         final BitfinexExchangeAdapter exchangeAdapter = PowerMock.createPartialMockAndInvokeDefaultConstructor(
-                BitfinexExchangeAdapter.class, MOCKED_SEND_PUBLIC_REQUEST_TO_EXCHANGE_METHOD);
-        PowerMock.expectPrivate(exchangeAdapter, MOCKED_SEND_PUBLIC_REQUEST_TO_EXCHANGE_METHOD, BOOK + "/" + MARKET_ID).
+                BitfinexExchangeAdapter.class, MOCKED_STREAM_PUBLIC_REQUEST_TO_EXCHANGE_METHOD);
+        PowerMock.expectPrivate(exchangeAdapter, MOCKED_STREAM_PUBLIC_REQUEST_TO_EXCHANGE_METHOD, eq(BOOK + "/" + MARKET_ID),
+                anyObject(AbstractExchangeAdapter.ExchangeResponseParser.class)).
                 andThrow(new IllegalArgumentException("Deckard. B26354"));
 
         PowerMock.replayAll();
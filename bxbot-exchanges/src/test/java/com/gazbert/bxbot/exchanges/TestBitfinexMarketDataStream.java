@@ -0,0 +1,181 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.exchanges;
+
+import com.gazbert.bxbot.exchanges.TestGdaxMarketDataStream.ExchangeFeed;
+import com.gazbert.bxbot.trading.api.MarketOrderBook;
+import com.gazbert.bxbot.trading.api.Ticker;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+import static com.gazbert.bxbot.exchanges.TestGdaxMarketDataStream.waitFor;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests the Bitfinex Market Data Stream behaves as expected.
+ * <p>
+ * The stream connects to a local WebSocket server standing in for the Bitfinex v2 WebSocket API.
+ *
+ * @author gazbert
+ */
+public class TestBitfinexMarketDataStream {
+
+    private static final String MARKET_ID = "btcusd";
+    private static final long TEST_TIMEOUT_MILLIS = 5000;
+
+    private static final int BOOK_CHANNEL_ID = 17;
+    private static final int TICKER_CHANNEL_ID = 18;
+
+    private MockWebServer exchange;
+    private ExchangeFeed exchangeFeed;
+    private BitfinexMarketDataStream stream;
+
+    @Before
+    public void setupForEachTest() throws Exception {
+
+        exchange = new MockWebServer();
+        exchangeFeed = new ExchangeFeed();
+        exchange.enqueue(new MockResponse().withWebSocketUpgrade(exchangeFeed));
+        exchange.start();
+
+        stream = new BitfinexMarketDataStream(exchange.url("/").toString(), 50);
+    }
+
+    @After
+    public void tearDownAfterEachTest() throws Exception {
+        stream.close();
+        exchange.shutdown();
+    }
+
+    @Test
+    public void testOrderBookIsLoadedFromSnapshotAndKeptUpToDate() throws Exception {
+
+        assertNull(stream.getMarketOrders(MARKET_ID));
+        subscribe(exchangeFeed);
+
+        exchangeFeed.send("[" + BOOK_CHANNEL_ID + ",[[7000.1,2,1.5],[7000.0,1,0.5],[7001.0,1,-2.0]],1]");
+        waitFor(() -> stream.getMarketOrders(MARKET_ID) != null);
+
+        MarketOrderBook orderBook = stream.getMarketOrders(MARKET_ID);
+        assertEquals(MARKET_ID, orderBook.getMarketId());
+        assertTrue(orderBook.getBuyOrders().get(0).getPrice().compareTo(new BigDecimal("7000.1")) == 0);
+        assertTrue(orderBook.getBuyOrders().get(0).getQuantity().compareTo(new BigDecimal("1.5")) == 0);
+        assertTrue(orderBook.getSellOrders().get(0).getPrice().compareTo(new BigDecimal("7001.0")) == 0);
+        assertTrue(orderBook.getSellOrders().get(0).getQuantity().compareTo(new BigDecimal("2.0")) == 0);
+
+        // Remove best bid, heartbeat, then add an ask
+        exchangeFeed.send("[" + BOOK_CHANNEL_ID + ",[7000.1,0,1],2]");
+        exchangeFeed.send("[" + BOOK_CHANNEL_ID + ",\"hb\",3]");
+        exchangeFeed.send("[" + BOOK_CHANNEL_ID + ",[7000.5,1,-0.25],4]");
+
+        waitFor(() -> stream.getMarketOrders(MARKET_ID).getSellOrders().size() == 2);
+        orderBook = stream.getMarketOrders(MARKET_ID);
+        assertEquals(1, orderBook.getBuyOrders().size());
+        assertTrue(orderBook.getBuyOrders().get(0).getPrice().compareTo(new BigDecimal("7000.0")) == 0);
+        assertTrue(orderBook.getSellOrders().get(0).getPrice().compareTo(new BigDecimal("7000.5")) == 0);
+        assertTrue(orderBook.getSellOrders().get(0).getQuantity().compareTo(new BigDecimal("0.25")) == 0);
+    }
+
+    @Test
+    public void testTickerUsesBestPricesFromOrderBook() throws Exception {
+
+        assertNull(stream.getTicker(MARKET_ID));
+        subscribe(exchangeFeed);
+
+        exchangeFeed.send("[" + BOOK_CHANNEL_ID + ",[[7000.1,2,1.5],[7001.0,1,-2.0]],1]");
+        exchangeFeed.send("[" + TICKER_CHANNEL_ID
+                + ",[7000.0,10.5,7001.5,8.25,125.5,0.0183,7000.5,24680.12,7100.0,6800.0],2]");
+
+        waitFor(() -> stream.getTicker(MARKET_ID) != null);
+        final Ticker ticker = stream.getTicker(MARKET_ID);
+        assertEquals(new BigDecimal("7000.5"), ticker.getLast());
+        assertEquals(new BigDecimal("7000.1"), ticker.getBid());
+        assertEquals(new BigDecimal("7001.0"), ticker.getAsk());
+        assertEquals(new BigDecimal("6800.0"), ticker.getLow());
+        assertEquals(new BigDecimal("7100.0"), ticker.getHigh());
+        assertEquals(new BigDecimal("6875.0"), ticker.getOpen());
+        assertEquals(new BigDecimal("24680.12"), ticker.getVolume());
+        assertNull(ticker.getVwap());
+        assertNotNull(ticker.getTimestamp());
+    }
+
+    @Test
+    public void testSequenceGapReconnectsAndReloadsOrderBook() throws Exception {
+
+        final ExchangeFeed reconnectedExchangeFeed = new ExchangeFeed();
+        exchange.enqueue(new MockResponse().withWebSocketUpgrade(reconnectedExchangeFeed));
+
+        stream.getMarketOrders(MARKET_ID);
+        subscribe(exchangeFeed);
+        exchangeFeed.send("[" + BOOK_CHANNEL_ID + ",[[7000.1,2,1.5],[7001.0,1,-2.0]],1]");
+        waitFor(() -> stream.getMarketOrders(MARKET_ID) != null);
+
+        // Message 2 is missed
+        exchangeFeed.send("[" + BOOK_CHANNEL_ID + ",[7000.2,1,1],3]");
+        waitFor(() -> stream.getMarketOrders(MARKET_ID) == null);
+
+        subscribe(reconnectedExchangeFeed);
+        reconnectedExchangeFeed.send("[" + BOOK_CHANNEL_ID + ",[[6999.9,1,1.0],[7001.0,1,-2.0]],1]");
+        waitFor(() -> stream.getMarketOrders(MARKET_ID) != null);
+        assertTrue(stream.getMarketOrders(MARKET_ID).getBuyOrders().get(0).getPrice().compareTo(new BigDecimal("6999.9")) == 0);
+    }
+
+    // ------------------------------------------------------------------------------------------------
+    //  Util methods
+    // ------------------------------------------------------------------------------------------------
+
+    /*
+     * Checks the stream's conf and subscribe messages and confirms the subscriptions.
+     */
+    private static void subscribe(ExchangeFeed exchangeFeed) throws InterruptedException {
+
+        final String conf = exchangeFeed.receivedMessages.poll(TEST_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+        assertNotNull(conf);
+        assertTrue(conf.contains("\"event\":\"conf\""));
+        assertTrue(conf.contains("\"flags\":65536"));
+
+        final String subscribeToBook = exchangeFeed.receivedMessages.poll(TEST_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+        assertNotNull(subscribeToBook);
+        assertTrue(subscribeToBook.contains("\"channel\":\"book\""));
+        assertTrue(subscribeToBook.contains("\"symbol\":\"tBTCUSD\""));
+
+        final String subscribeToTicker = exchangeFeed.receivedMessages.poll(TEST_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+        assertNotNull(subscribeToTicker);
+        assertTrue(subscribeToTicker.contains("\"channel\":\"ticker\""));
+
+        exchangeFeed.send("{\"event\":\"subscribed\",\"channel\":\"book\",\"chanId\":" + BOOK_CHANNEL_ID
+                + ",\"symbol\":\"tBTCUSD\",\"prec\":\"P0\",\"freq\":\"F0\",\"len\":\"100\",\"pair\":\"BTCUSD\"}");
+        exchangeFeed.send("{\"event\":\"subscribed\",\"channel\":\"ticker\",\"chanId\":" + TICKER_CHANNEL_ID
+                + ",\"symbol\":\"tBTCUSD\",\"pair\":\"BTCUSD\"}");
+    }
+}
@@ -0,0 +1,149 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+
+package com.gazbert.bxbot.exchanges;
+
+import com.gazbert.bxbot.trading.api.AsyncTradingApi;
+import com.gazbert.bxbot.trading.api.BalanceInfo;
+import com.gazbert.bxbot.trading.api.OrderType;
+import com.gazbert.bxbot.trading.api.TradingApi;
+import com.gazbert.bxbot.trading.api.TradingApiException;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.easymock.EasyMock.anyObject;
+import static org.easymock.EasyMock.anyString;
+import static org.easymock.EasyMock.createMock;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.getCurrentArguments;
+import static org.easymock.EasyMock.makeThreadSafe;
+import static org.easymock.EasyMock.replay;
+import static org.easymock.EasyMock.verify;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests the Executor Async Trading API behaves as expected.
+ *
+ * @author gazbert
+ */
+public class TestExecutorAsyncTradingApi {
+
+    private static final String MARKET_ID = "btcusd";
+    private static final BigDecimal ORDER_QUANTITY = new BigDecimal("0.5");
+    private static final BigDecimal ORDER_PRICE = new BigDecimal("1234.56");
+
+    private TradingApi tradingApi;
+    private AsyncTradingApi asyncTradingApi;
+
+    @Before
+    public void setupForEachTest() {
+        tradingApi = createMock(TradingApi.class);
+        asyncTradingApi = new ExecutorAsyncTradingApi(tradingApi, "TestExchangeAdapter", 2);
+    }
+
+    @Test
+    public void testMarketDataCallsAreExecutedConcurrently() throws Exception {
+
+        // Each call waits for the other to start - they will only both complete if they run at the same time
+        final CountDownLatch callsStarted = new CountDownLatch(2);
+        expect(tradingApi.getLatestMarketPrice(MARKET_ID)).andAnswer(() -> {
+            callsStarted.countDown();
+            return callsStarted.await(5, TimeUnit.SECONDS) ? ORDER_PRICE : BigDecimal.ZERO;
+        }).times(2);
+        makeThreadSafe(tradingApi, false); // thread safe mocks only let 1 thread in at a time
+        replay(tradingApi);
+
+        final CompletableFuture<BigDecimal> firstPrice = asyncTradingApi.getLatestMarketPrice(MARKET_ID);
+        final CompletableFuture<BigDecimal> secondPrice = asyncTradingApi.getLatestMarketPrice(MARKET_ID);
+
+        assertEquals(ORDER_PRICE, firstPrice.join());
+        assertEquals(ORDER_PRICE, secondPrice.join());
+        verify(tradingApi);
+    }
+
+    @Test
+    public void testAccountCallsAreExecutedOneAtATimeInOrder() throws Exception {
+
+        final AtomicInteger callsInProgress = new AtomicInteger();
+        final AtomicInteger maxCallsInProgress = new AtomicInteger();
+        final List<String> callOrder = Collections.synchronizedList(new ArrayList<>());
+
+        expect(tradingApi.cancelOrder(anyString(), anyObject())).andAnswer(() -> {
+            maxCallsInProgress.accumulateAndGet(callsInProgress.incrementAndGet(), Math::max);
+            Thread.sleep(50);
+            callOrder.add((String) getCurrentArguments()[0]);
+            callsInProgress.decrementAndGet();
+            return true;
+        }).times(3);
+        expect(tradingApi.createOrder(MARKET_ID, OrderType.BUY, ORDER_QUANTITY, ORDER_PRICE)).andAnswer(() -> {
+            maxCallsInProgress.accumulateAndGet(callsInProgress.incrementAndGet(), Math::max);
+            callOrder.add("new-order");
+            callsInProgress.decrementAndGet();
+            return "new-order";
+        });
+        replay(tradingApi);
+
+        final CompletableFuture<Boolean> firstCancel = asyncTradingApi.cancelOrder("order-1", MARKET_ID);
+        final CompletableFuture<Boolean> secondCancel = asyncTradingApi.cancelOrder("order-2", MARKET_ID);
+        final CompletableFuture<Boolean> thirdCancel = asyncTradingApi.cancelOrder("order-3", MARKET_ID);
+        final CompletableFuture<String> newOrder =
+                asyncTradingApi.createOrder(MARKET_ID, OrderType.BUY, ORDER_QUANTITY, ORDER_PRICE);
+
+        CompletableFuture.allOf(firstCancel, secondCancel, thirdCancel, newOrder).join();
+
+        assertEquals(1, maxCallsInProgress.get());
+        assertEquals(Arrays.asList("order-1", "order-2", "order-3", "new-order"), callOrder);
+        verify(tradingApi);
+    }
+
+    @Test
+    public void testFailedCallCompletesFutureExceptionally() throws Exception {
+
+        final TradingApiException exception = new TradingApiException("Invalid nonce");
+        expect(tradingApi.getBalanceInfo()).andThrow(exception);
+        replay(tradingApi);
+
+        final CompletableFuture<BalanceInfo> balanceInfo = asyncTradingApi.getBalanceInfo();
+        try {
+            balanceInfo.join();
+            fail("Expected CompletionException");
+        } catch (CompletionException e) {
+            assertSame(exception, e.getCause());
+        }
+        verify(tradingApi);
+    }
+}
@@ -44,6 +44,7 @@ import java.time.Instant;
 import java.util.*;
 
 import static org.easymock.EasyMock.*;
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 
@@ -89,6 +90,7 @@ public class TestGdaxExchangeAdapter extends AbstractExchangeAdapterTest {
     private static final String MOCKED_CREATE_REQUEST_PARAM_MAP_METHOD = "createRequestParamMap";
     private static final String MOCKED_SEND_AUTHENTICATED_REQUEST_TO_EXCHANGE_METHOD = "sendAuthenticatedRequestToExchange";
     private static final String MOCKED_SEND_PUBLIC_REQUEST_TO_EXCHANGE_METHOD = "sendPublicRequestToExchange";
+    private static final String MOCKED_STREAM_PUBLIC_REQUEST_TO_EXCHANGE_METHOD = "streamPublicRequestToExchange";
     private static final String MOCKED_CREATE_REQUEST_HEADER_MAP_METHOD = "createHeaderParamMap";
     private static final String MOCKED_MAKE_NETWORK_REQUEST_METHOD = "makeNetworkRequest";
 
@@ -124,10 +126,15 @@ public class TestGdaxExchangeAdapter extends AbstractExchangeAdapterTest {
         expect(networkConfig.getConnectionTimeout()).andReturn(30);
         expect(networkConfig.getNonFatalErrorCodes()).andReturn(nonFatalNetworkErrorCodes);
         expect(networkConfig.getNonFatalErrorMessages()).andReturn(nonFatalNetworkErrorMessages);
+        expect(networkConfig.getConnectionPoolSize()).andReturn(5);
+        expect(networkConfig.getConnectionIdleTimeout()).andReturn(60);
+        expect(networkConfig.getMaxRequestsPerMinute()).andReturn(null);
+        expect(networkConfig.getMaxRequestBurst()).andReturn(null);
 
         optionalConfig = PowerMock.createMock(OptionalConfig.class);
         expect(optionalConfig.getItem("buy-fee")).andReturn("0.25");
         expect(optionalConfig.getItem("sell-fee")).andReturn("0.25");
+        expect(optionalConfig.getItem("use-market-data-stream")).andReturn(null);
 
         exchangeConfig = PowerMock.createMock(ExchangeConfig.class);
         expect(exchangeConfig.getAuthenticationConfig()).andReturn(authenticationConfig);
@@ -389,23 +396,18 @@ public class TestGdaxExchangeAdapter extends AbstractExchangeAdapterTest {
     @SuppressWarnings("unchecked")
     public void testGettingMarketOrders() throws Exception {
 
-        // Load the canned response from the exchange
-        final byte[] encoded = Files.readAllBytes(Paths.get(BOOK_JSON_RESPONSE));
-        final AbstractExchangeAdapter.ExchangeHttpResponse exchangeResponse =
-                new AbstractExchangeAdapter.ExchangeHttpResponse(200, "OK", new String(encoded, StandardCharsets.UTF_8));
-
         // Mock out param map so we can assert the contents passed to the transport layer are what we expect.
         final Map<String, String> requestParamMap = PowerMock.createMock(Map.class);
         expect(requestParamMap.put("level", ORDER_BOOK_DEPTH_LEVEL)).andStubReturn(null);
 
         // Partial mock so we do not send stuff down the wire
         final GdaxExchangeAdapter exchangeAdapter = PowerMock.createPartialMockAndInvokeDefaultConstructor(
-                GdaxExchangeAdapter.class, MOCKED_SEND_PUBLIC_REQUEST_TO_EXCHANGE_METHOD,
+                GdaxExchangeAdapter.class, MOCKED_STREAM_PUBLIC_REQUEST_TO_EXCHANGE_METHOD,
                 MOCKED_CREATE_REQUEST_PARAM_MAP_METHOD);
 
         PowerMock.expectPrivate(exchangeAdapter, MOCKED_CREATE_REQUEST_PARAM_MAP_METHOD).andReturn(requestParamMap);
-        PowerMock.expectPrivate(exchangeAdapter, MOCKED_SEND_PUBLIC_REQUEST_TO_EXCHANGE_METHOD, eq(BOOK),
-                eq(requestParamMap)).andReturn(exchangeResponse);
+        PowerMock.expectPrivate(exchangeAdapter, MOCKED_STREAM_PUBLIC_REQUEST_TO_EXCHANGE_METHOD, eq(BOOK),
+                eq(requestParamMap), anyObject(AbstractExchangeAdapter.ExchangeResponseParser.class)).andAnswer(streamCannedResponse(BOOK_JSON_RESPONSE));
 
         PowerMock.replayAll();
         exchangeAdapter.init(exchangeConfig);
@@ -443,10 +445,10 @@ public class TestGdaxExchangeAdapter extends AbstractExchangeAdapterTest {
 
         // Partial mock so we do not send stuff down the wire
         final GdaxExchangeAdapter exchangeAdapter = PowerMock.createPartialMockAndInvokeDefaultConstructor(
-                GdaxExchangeAdapter.class, MOCKED_SEND_PUBLIC_REQUEST_TO_EXCHANGE_METHOD);
+                GdaxExchangeAdapter.class, MOCKED_STREAM_PUBLIC_REQUEST_TO_EXCHANGE_METHOD);
 
-        PowerMock.expectPrivate(exchangeAdapter, MOCKED_SEND_PUBLIC_REQUEST_TO_EXCHANGE_METHOD, eq(BOOK),
-                anyObject(Map.class)).
+        PowerMock.expectPrivate(exchangeAdapter, MOCKED_STREAM_PUBLIC_REQUEST_TO_EXCHANGE_METHOD, eq(BOOK),
+                anyObject(Map.class), anyObject(AbstractExchangeAdapter.ExchangeResponseParser.class)).
                 andThrow(new ExchangeNetworkException("Re-verify our range to target... one ping only."));
 
         PowerMock.replayAll();
@@ -461,10 +463,10 @@ public class TestGdaxExchangeAdapter extends AbstractExchangeAdapterTest {
 
         // Partial mock so we do not send stuff down the wire
         final GdaxExchangeAdapter exchangeAdapter = PowerMock.createPartialMockAndInvokeDefaultConstructor(
-                GdaxExchangeAdapter.class, MOCKED_SEND_PUBLIC_REQUEST_TO_EXCHANGE_METHOD);
+                GdaxExchangeAdapter.class, MOCKED_STREAM_PUBLIC_REQUEST_TO_EXCHANGE_METHOD);
 
-        PowerMock.expectPrivate(exchangeAdapter, MOCKED_SEND_PUBLIC_REQUEST_TO_EXCHANGE_METHOD, eq(BOOK),
-                anyObject(Map.class)).
+        PowerMock.expectPrivate(exchangeAdapter, MOCKED_STREAM_PUBLIC_REQUEST_TO_EXCHANGE_METHOD, eq(BOOK),
+                anyObject(Map.class), anyObject(AbstractExchangeAdapter.ExchangeResponseParser.class)).
                 andThrow(new IllegalArgumentException("Mr. Ambassador, you have nearly a hundred naval vessels" +
                         " operating in the North Atlantic right now. Your aircraft has dropped enough sonar buoys" +
                         " so that a man could walk from Greenland to Iceland to Scotland without getting his feet " +
@@ -725,6 +727,24 @@ public class TestGdaxExchangeAdapter extends AbstractExchangeAdapterTest {
         PowerMock.verifyAll();
     }
 
+    @Test
+    public void testAccountAndOrderRequestsAreGivenHighPriority() throws Exception {
+
+        PowerMock.replayAll();
+        final GdaxExchangeAdapter exchangeAdapter = new GdaxExchangeAdapter();
+        exchangeAdapter.init(exchangeConfig);
+
+        assertEquals(RequestRateLimiter.RequestPriority.LOW,
+                exchangeAdapter.getRequestPriority(new URL("https://api.gdax.com/products/BTC-USD/book?level=2"), "GET"));
+        assertEquals(RequestRateLimiter.RequestPriority.HIGH,
+                exchangeAdapter.getRequestPriority(new URL("https://api.gdax.com/orders"), "GET"));
+        assertEquals(RequestRateLimiter.RequestPriority.HIGH,
+                exchangeAdapter.getRequestPriority(new URL("https://api.gdax.com/accounts"), "GET"));
+        assertEquals(RequestRateLimiter.RequestPriority.HIGH,
+                exchangeAdapter.getRequestPriority(new URL("https://api.gdax.com/orders"), "POST"));
+        PowerMock.verifyAll();
+    }
+
     // ------------------------------------------------------------------------------------------------
     //  Initialisation tests
     // ------------------------------------------------------------------------------------------------
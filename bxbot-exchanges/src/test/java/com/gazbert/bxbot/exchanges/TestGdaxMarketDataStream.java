@@ -0,0 +1,242 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.exchanges;
+
+import com.gazbert.bxbot.trading.api.MarketOrderBook;
+import com.gazbert.bxbot.trading.api.Ticker;
+import okhttp3.Response;
+import okhttp3.WebSocket;
+import okhttp3.WebSocketListener;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests the GDAX Market Data Stream behaves as expected.
+ * <p>
+ * The stream connects to a local WebSocket server standing in for the GDAX feed. The fixtures follow the level2
+ * channel's message formats - the {@code snapshot} and {@code l2update} messages are not numbered.
+ *
+ * @author gazbert
+ */
+public class TestGdaxMarketDataStream {
+
+    private static final String MARKET_ID = "BTC-USD";
+    private static final long TEST_TIMEOUT_MILLIS = 5000;
+
+    private static final String SNAPSHOT = "{\"type\":\"snapshot\",\"product_id\":\"BTC-USD\","
+            + "\"bids\":[[\"6500.01\",\"1.5\"],[\"6500.00\",\"2\"]],"
+            + "\"asks\":[[\"6501.00\",\"0.5\"]]}";
+
+    private MockWebServer exchange;
+    private ExchangeFeed exchangeFeed;
+    private GdaxMarketDataStream stream;
+
+    @Before
+    public void setupForEachTest() throws Exception {
+
+        exchange = new MockWebServer();
+        exchangeFeed = new ExchangeFeed();
+        exchange.enqueue(new MockResponse().withWebSocketUpgrade(exchangeFeed));
+        exchange.start();
+
+        stream = new GdaxMarketDataStream(exchange.url("/").toString(), 50);
+    }
+
+    @After
+    public void tearDownAfterEachTest() throws Exception {
+        stream.close();
+        exchange.shutdown();
+    }
+
+    @Test
+    public void testOrderBookIsLoadedFromSnapshotAndKeptUpToDate() throws Exception {
+
+        // First call subscribes - the book is not in sync yet
+        assertNull(stream.getMarketOrders(MARKET_ID));
+
+        final String subscribe = exchangeFeed.receivedMessages.poll(TEST_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+        assertNotNull(subscribe);
+        assertTrue(subscribe.contains("\"type\":\"subscribe\""));
+        assertTrue(subscribe.contains("\"product_ids\":[\"BTC-USD\"]"));
+        assertTrue(subscribe.contains("\"level2\""));
+        assertTrue(subscribe.contains("\"ticker\""));
+
+        exchangeFeed.send(SNAPSHOT);
+        waitFor(() -> stream.getMarketOrders(MARKET_ID) != null);
+        assertTrue(stream.getMarketOrders(MARKET_ID).getBuyOrders().get(0).getPrice().compareTo(new BigDecimal("6500.01")) == 0);
+
+        exchangeFeed.send("{\"type\":\"l2update\",\"product_id\":\"BTC-USD\",\"time\":\"2018-03-21T19:19:37.012Z\","
+                + "\"changes\":[[\"buy\",\"6500.01\",\"0\"],[\"sell\",\"6500.50\",\"1.25\"]]}");
+
+        waitFor(() -> stream.getMarketOrders(MARKET_ID).getSellOrders().size() == 2);
+        final MarketOrderBook orderBook = stream.getMarketOrders(MARKET_ID);
+        assertTrue(orderBook.getBuyOrders().get(0).getPrice().compareTo(new BigDecimal("6500.00")) == 0);
+        assertTrue(orderBook.getSellOrders().get(0).getPrice().compareTo(new BigDecimal("6500.50")) == 0);
+        assertTrue(orderBook.getSellOrders().get(0).getQuantity().compareTo(new BigDecimal("1.25")) == 0);
+    }
+
+    @Test
+    public void testUpdatesBeforeSnapshotAreIgnored() throws Exception {
+
+        stream.getMarketOrders(MARKET_ID);
+        assertNotNull(exchangeFeed.receivedMessages.poll(TEST_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS));
+
+        exchangeFeed.send("{\"type\":\"l2update\",\"product_id\":\"BTC-USD\",\"time\":\"2018-03-21T19:19:37.012Z\","
+                + "\"changes\":[[\"buy\",\"6500.02\",\"1\"]]}");
+        exchangeFeed.send(SNAPSHOT);
+
+        waitFor(() -> stream.getMarketOrders(MARKET_ID) != null);
+        final MarketOrderBook orderBook = stream.getMarketOrders(MARKET_ID);
+        assertEquals(2, orderBook.getBuyOrders().size());
+        assertTrue(orderBook.getBuyOrders().get(0).getPrice().compareTo(new BigDecimal("6500.01")) == 0);
+    }
+
+    @Test
+    public void testTickerUsesBestPricesFromOrderBook() throws Exception {
+
+        assertNull(stream.getTicker(MARKET_ID));
+        exchangeFeed.send(SNAPSHOT);
+        waitFor(() -> stream.getMarketOrders(MARKET_ID) != null);
+
+        exchangeFeed.send("{\"type\":\"ticker\",\"sequence\":101,\"product_id\":\"BTC-USD\",\"price\":\"6500.75\","
+                + "\"open_24h\":\"6400.00\",\"volume_24h\":\"12345.67\",\"low_24h\":\"6350.00\","
+                + "\"high_24h\":\"6600.00\",\"best_bid\":\"6499.00\",\"best_ask\":\"6502.00\","
+                + "\"time\":\"2018-03-21T19:19:36.604735Z\"}");
+
+        waitFor(() -> stream.getTicker(MARKET_ID) != null);
+        final Ticker ticker = stream.getTicker(MARKET_ID);
+        assertEquals(new BigDecimal("6500.75"), ticker.getLast());
+        assertEquals(new BigDecimal("6500.01"), ticker.getBid());
+        assertEquals(new BigDecimal("6501.00"), ticker.getAsk());
+        assertEquals(new BigDecimal("6350.00"), ticker.getLow());
+        assertEquals(new BigDecimal("6600.00"), ticker.getHigh());
+        assertEquals(new BigDecimal("6400.00"), ticker.getOpen());
+        assertEquals(new BigDecimal("12345.67"), ticker.getVolume());
+        assertNull(ticker.getVwap());
+        assertEquals(1521659976604L, (long) ticker.getTimestamp());
+    }
+
+    @Test
+    public void testDisconnectTakesBookOutOfSyncUntilSnapshotResent() throws Exception {
+
+        final ExchangeFeed reconnectedExchangeFeed = new ExchangeFeed();
+        exchange.enqueue(new MockResponse().withWebSocketUpgrade(reconnectedExchangeFeed));
+
+        stream.getMarketOrders(MARKET_ID);
+        exchangeFeed.send(SNAPSHOT);
+        waitFor(() -> stream.getMarketOrders(MARKET_ID) != null);
+
+        exchangeFeed.webSocket.close(1001, "Going away");
+        waitFor(() -> stream.getMarketOrders(MARKET_ID) == null);
+
+        // Resubscribes on reconnecting, and stays out of sync until the new snapshot arrives
+        final String subscribe = reconnectedExchangeFeed.receivedMessages.poll(TEST_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+        assertNotNull(subscribe);
+        assertTrue(subscribe.contains("\"product_ids\":[\"BTC-USD\"]"));
+        assertNull(stream.getMarketOrders(MARKET_ID));
+
+        reconnectedExchangeFeed.send(SNAPSHOT);
+        waitFor(() -> stream.getMarketOrders(MARKET_ID) != null);
+    }
+
+    @Test
+    public void testMessageThatFailsToBeHandledTakesBookOutOfSyncUntilSnapshotResent() throws Exception {
+
+        final ExchangeFeed reconnectedExchangeFeed = new ExchangeFeed();
+        exchange.enqueue(new MockResponse().withWebSocketUpgrade(reconnectedExchangeFeed));
+
+        stream.getMarketOrders(MARKET_ID);
+        exchangeFeed.send(SNAPSHOT);
+        waitFor(() -> stream.getMarketOrders(MARKET_ID) != null);
+
+        exchangeFeed.send("{\"type\":\"l2update\",\"product_id\":\"BTC-USD\",\"time\":\"2018-03-21T19:19:37.012Z\","
+                + "\"changes\":[[\"buy\",\"not-a-price\",\"1\"]]}");
+        waitFor(() -> stream.getMarketOrders(MARKET_ID) == null);
+
+        // Reconnects and resubscribes, and stays out of sync until the new snapshot arrives
+        final String subscribe = reconnectedExchangeFeed.receivedMessages.poll(TEST_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+        assertNotNull(subscribe);
+        assertNull(stream.getMarketOrders(MARKET_ID));
+
+        reconnectedExchangeFeed.send(SNAPSHOT);
+        waitFor(() -> stream.getMarketOrders(MARKET_ID) != null);
+    }
+
+    // ------------------------------------------------------------------------------------------------
+    //  Util methods
+    // ------------------------------------------------------------------------------------------------
+
+    static void waitFor(BooleanSupplier condition) throws InterruptedException {
+        final long deadline = System.currentTimeMillis() + TEST_TIMEOUT_MILLIS;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline) {
+                throw new AssertionError("Timed out waiting for condition");
+            }
+            Thread.sleep(5);
+        }
+    }
+
+    /*
+     * The exchange's end of the WebSocket connection.
+     */
+    static class ExchangeFeed extends WebSocketListener {
+
+        final BlockingQueue<String> receivedMessages = new LinkedBlockingQueue<>();
+        volatile WebSocket webSocket;
+
+        @Override
+        public void onOpen(WebSocket webSocket, Response response) {
+            this.webSocket = webSocket;
+        }
+
+        @Override
+        public void onMessage(WebSocket webSocket, String text) {
+            receivedMessages.add(text);
+        }
+
+        @Override
+        public void onClosing(WebSocket webSocket, int code, String reason) {
+            webSocket.close(1000, null);
+        }
+
+        void send(String message) throws InterruptedException {
+            waitFor(() -> webSocket != null);
+            webSocket.send(message);
+        }
+    }
+}
@@ -129,8 +129,13 @@ public class TestItBitExchangeAdapter extends AbstractExchangeAdapterTest {
         expect(networkConfig.getConnectionTimeout()).andReturn(30);
         expect(networkConfig.getNonFatalErrorCodes()).andReturn(nonFatalNetworkErrorCodes);
         expect(networkConfig.getNonFatalErrorMessages()).andReturn(nonFatalNetworkErrorMessages);
+        expect(networkConfig.getConnectionPoolSize()).andReturn(5);
+        expect(networkConfig.getConnectionIdleTimeout()).andReturn(60);
+        expect(networkConfig.getMaxRequestsPerMinute()).andReturn(null);
+        expect(networkConfig.getMaxRequestBurst()).andReturn(null);
 
         optionalConfig = PowerMock.createMock(OptionalConfig.class);
+        expect(optionalConfig.getItem("nonce-file")).andReturn(null);
         expect(optionalConfig.getItem("buy-fee")).andReturn("0.5");
         expect(optionalConfig.getItem("sell-fee")).andReturn("0.5");
         expect(optionalConfig.getItem("keep-alive-during-maintenance")).andReturn("false");
@@ -738,6 +743,24 @@ public class TestItBitExchangeAdapter extends AbstractExchangeAdapterTest {
         PowerMock.verifyAll();
     }
 
+    @Test
+    public void testAccountAndOrderRequestsAreGivenHighPriority() throws Exception {
+
+        PowerMock.replayAll();
+        final ItBitExchangeAdapter exchangeAdapter = new ItBitExchangeAdapter();
+        exchangeAdapter.init(exchangeConfig);
+
+        assertEquals(RequestRateLimiter.RequestPriority.LOW,
+                exchangeAdapter.getRequestPriority(new URL("https://api.itbit.com/v1/markets/XBTUSD/order_book"), "GET"));
+        assertEquals(RequestRateLimiter.RequestPriority.HIGH,
+                exchangeAdapter.getRequestPriority(new URL("https://api.itbit.com/v1/wallets?userId=1"), "GET"));
+        assertEquals(RequestRateLimiter.RequestPriority.HIGH,
+                exchangeAdapter.getRequestPriority(new URL("https://api.itbit.com/v1/wallets/1/orders"), "GET"));
+        assertEquals(RequestRateLimiter.RequestPriority.HIGH,
+                exchangeAdapter.getRequestPriority(new URL("https://api.itbit.com/v1/wallets/1/orders"), "POST"));
+        PowerMock.verifyAll();
+    }
+
     // ------------------------------------------------------------------------------------------------
     //  Initialisation tests
     // ------------------------------------------------------------------------------------------------
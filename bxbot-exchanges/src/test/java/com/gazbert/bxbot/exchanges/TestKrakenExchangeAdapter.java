@@ -69,6 +69,7 @@ public class TestKrakenExchangeAdapter extends AbstractExchangeAdapterTest {
     private static final String ADD_ORDER_BUY_JSON_RESPONSE = "./src/test/exchange-data/kraken/AddOrder-buy.json";
     private static final String ADD_ORDER_SELL_JSON_RESPONSE = "./src/test/exchange-data/kraken/AddOrder-sell.json";
     private static final String ADD_ORDER_ERROR_JSON_RESPONSE = "./src/test/exchange-data/kraken/AddOrder-error.json";
+    private static final String ADD_ORDER_RATE_LIMIT_JSON_RESPONSE = "./src/test/exchange-data/kraken/AddOrder-rate-limit.json";
     private static final String CANCEL_ORDER_JSON_RESPONSE = "./src/test/exchange-data/kraken/CancelOrder.json";
     private static final String CANCEL_ORDER_ERROR_JSON_RESPONSE = "./src/test/exchange-data/kraken/CancelOrder-error.json";
 
@@ -93,6 +94,7 @@ public class TestKrakenExchangeAdapter extends AbstractExchangeAdapterTest {
     private static final String MOCKED_CREATE_REQUEST_PARAM_MAP_METHOD = "createRequestParamMap";
     private static final String MOCKED_SEND_AUTHENTICATED_REQUEST_TO_EXCHANGE_METHOD = "sendAuthenticatedRequestToExchange";
     private static final String MOCKED_SEND_PUBLIC_REQUEST_TO_EXCHANGE_METHOD = "sendPublicRequestToExchange";
+    private static final String MOCKED_STREAM_PUBLIC_REQUEST_TO_EXCHANGE_METHOD = "streamPublicRequestToExchange";
     private static final String MOCKED_CREATE_REQUEST_HEADER_MAP_METHOD = "createHeaderParamMap";
     private static final String MOCKED_MAKE_NETWORK_REQUEST_METHOD = "makeNetworkRequest";
 
@@ -131,8 +133,13 @@ public class TestKrakenExchangeAdapter extends AbstractExchangeAdapterTest {
         expect(networkConfig.getConnectionTimeout()).andReturn(30);
         expect(networkConfig.getNonFatalErrorCodes()).andReturn(nonFatalNetworkErrorCodes);
         expect(networkConfig.getNonFatalErrorMessages()).andReturn(nonFatalNetworkErrorMessages);
+        expect(networkConfig.getConnectionPoolSize()).andReturn(5);
+        expect(networkConfig.getConnectionIdleTimeout()).andReturn(60);
+        expect(networkConfig.getMaxRequestsPerMinute()).andReturn(null);
+        expect(networkConfig.getMaxRequestBurst()).andReturn(null);
 
         optionalConfig = PowerMock.createMock(OptionalConfig.class);
+        expect(optionalConfig.getItem("nonce-file")).andReturn(null);
         expect(optionalConfig.getItem("buy-fee")).andReturn("0.1");
         expect(optionalConfig.getItem("sell-fee")).andReturn("0.2");
         expect(optionalConfig.getItem("keep-alive-during-maintenance")).andReturn("false");
@@ -152,23 +159,18 @@ public class TestKrakenExchangeAdapter extends AbstractExchangeAdapterTest {
     @SuppressWarnings("unchecked")
     public void testGettingMarketOrdersSuccessfully() throws Exception {
 
-        // Load the canned response from the exchange
-        final byte[] encoded = Files.readAllBytes(Paths.get(DEPTH_JSON_RESPONSE));
-        final AbstractExchangeAdapter.ExchangeHttpResponse exchangeResponse =
-                new AbstractExchangeAdapter.ExchangeHttpResponse(200, "OK", new String(encoded, StandardCharsets.UTF_8));
-
         // Mock out param map so we can assert the contents passed to the transport layer are what we expect.
         final Map<String, String> requestParamMap = PowerMock.createMock(Map.class);
         expect(requestParamMap.put("pair", MARKET_ID)).andStubReturn(null);
 
         // Partial mock so we do not send stuff down the wire
         final KrakenExchangeAdapter exchangeAdapter = PowerMock.createPartialMockAndInvokeDefaultConstructor(
-                KrakenExchangeAdapter.class, MOCKED_SEND_PUBLIC_REQUEST_TO_EXCHANGE_METHOD,
+                KrakenExchangeAdapter.class, MOCKED_STREAM_PUBLIC_REQUEST_TO_EXCHANGE_METHOD,
                 MOCKED_CREATE_REQUEST_PARAM_MAP_METHOD);
 
         PowerMock.expectPrivate(exchangeAdapter, MOCKED_CREATE_REQUEST_PARAM_MAP_METHOD).andReturn(requestParamMap);
-        PowerMock.expectPrivate(exchangeAdapter, MOCKED_SEND_PUBLIC_REQUEST_TO_EXCHANGE_METHOD, eq(DEPTH),
-                eq(requestParamMap)).andReturn(exchangeResponse);
+        PowerMock.expectPrivate(exchangeAdapter, MOCKED_STREAM_PUBLIC_REQUEST_TO_EXCHANGE_METHOD, eq(DEPTH),
+                eq(requestParamMap), anyObject(AbstractExchangeAdapter.ExchangeResponseParser.class)).andAnswer(streamCannedResponse(DEPTH_JSON_RESPONSE));
 
         PowerMock.replayAll();
         exchangeAdapter.init(exchangeConfig);
@@ -205,23 +207,18 @@ public class TestKrakenExchangeAdapter extends AbstractExchangeAdapterTest {
     @SuppressWarnings("unchecked")
     public void testGettingMarketOrdersHandlesErrorResponse() throws Exception {
 
-        // Load the canned response from the exchange
-        final byte[] encoded = Files.readAllBytes(Paths.get(DEPTH_ERROR_JSON_RESPONSE));
-        final AbstractExchangeAdapter.ExchangeHttpResponse exchangeResponse =
-                new AbstractExchangeAdapter.ExchangeHttpResponse(200, "OK", new String(encoded, StandardCharsets.UTF_8));
-
         // Mock out param map so we can assert the contents passed to the transport layer are what we expect.
         final Map<String, String> requestParamMap = PowerMock.createMock(Map.class);
         expect(requestParamMap.put("pair", MARKET_ID)).andStubReturn(null);
 
         // Partial mock so we do not send stuff down the wire
         final KrakenExchangeAdapter exchangeAdapter = PowerMock.createPartialMockAndInvokeDefaultConstructor(
-                KrakenExchangeAdapter.class, MOCKED_SEND_PUBLIC_REQUEST_TO_EXCHANGE_METHOD,
+                KrakenExchangeAdapter.class, MOCKED_STREAM_PUBLIC_REQUEST_TO_EXCHANGE_METHOD,
                 MOCKED_CREATE_REQUEST_PARAM_MAP_METHOD);
 
         PowerMock.expectPrivate(exchangeAdapter, MOCKED_CREATE_REQUEST_PARAM_MAP_METHOD).andReturn(requestParamMap);
-        PowerMock.expectPrivate(exchangeAdapter, MOCKED_SEND_PUBLIC_REQUEST_TO_EXCHANGE_METHOD, eq(DEPTH),
-                eq(requestParamMap)).andReturn(exchangeResponse);
+        PowerMock.expectPrivate(exchangeAdapter, MOCKED_STREAM_PUBLIC_REQUEST_TO_EXCHANGE_METHOD, eq(DEPTH),
+                eq(requestParamMap), anyObject(AbstractExchangeAdapter.ExchangeResponseParser.class)).andAnswer(streamCannedResponse(DEPTH_ERROR_JSON_RESPONSE));
 
         PowerMock.replayAll();
         exchangeAdapter.init(exchangeConfig);
@@ -235,10 +232,10 @@ public class TestKrakenExchangeAdapter extends AbstractExchangeAdapterTest {
 
         // Partial mock so we do not send stuff down the wire
         final KrakenExchangeAdapter exchangeAdapter = PowerMock.createPartialMockAndInvokeDefaultConstructor(
-                KrakenExchangeAdapter.class, MOCKED_SEND_PUBLIC_REQUEST_TO_EXCHANGE_METHOD);
+                KrakenExchangeAdapter.class, MOCKED_STREAM_PUBLIC_REQUEST_TO_EXCHANGE_METHOD);
 
-        PowerMock.expectPrivate(exchangeAdapter, MOCKED_SEND_PUBLIC_REQUEST_TO_EXCHANGE_METHOD, eq(DEPTH),
-                anyObject(Map.class)).
+        PowerMock.expectPrivate(exchangeAdapter, MOCKED_STREAM_PUBLIC_REQUEST_TO_EXCHANGE_METHOD, eq(DEPTH),
+                anyObject(Map.class), anyObject(AbstractExchangeAdapter.ExchangeResponseParser.class)).
                 andThrow(new ExchangeNetworkException("You're not giving orders. You're in my world now."));
 
         PowerMock.replayAll();
@@ -253,10 +250,10 @@ public class TestKrakenExchangeAdapter extends AbstractExchangeAdapterTest {
 
         // Partial mock so we do not send stuff down the wire
         final KrakenExchangeAdapter exchangeAdapter = PowerMock.createPartialMockAndInvokeDefaultConstructor(
-                KrakenExchangeAdapter.class, MOCKED_SEND_PUBLIC_REQUEST_TO_EXCHANGE_METHOD);
+                KrakenExchangeAdapter.class, MOCKED_STREAM_PUBLIC_REQUEST_TO_EXCHANGE_METHOD);
 
-        PowerMock.expectPrivate(exchangeAdapter, MOCKED_SEND_PUBLIC_REQUEST_TO_EXCHANGE_METHOD, eq(DEPTH),
-                anyObject(Map.class)).
+        PowerMock.expectPrivate(exchangeAdapter, MOCKED_STREAM_PUBLIC_REQUEST_TO_EXCHANGE_METHOD, eq(DEPTH),
+                anyObject(Map.class), anyObject(AbstractExchangeAdapter.ExchangeResponseParser.class)).
                 andThrow(new IllegalArgumentException("Down time is the worst, isn’t it? " +
                         "Adrenaline leaves and the mind starts to wander..."));
 
@@ -456,6 +453,27 @@ public class TestKrakenExchangeAdapter extends AbstractExchangeAdapterTest {
         PowerMock.verifyAll();
     }
 
+    @Test(expected = ExchangeNetworkException.class)
+    public void testCreateOrderRateLimitExceededResponseThrowsExchangeNetworkException() throws Exception {
+
+        // Load the canned response from the exchange
+        final byte[] encoded = Files.readAllBytes(Paths.get(ADD_ORDER_RATE_LIMIT_JSON_RESPONSE));
+        final AbstractExchangeAdapter.ExchangeHttpResponse exchangeResponse =
+                new AbstractExchangeAdapter.ExchangeHttpResponse(200, "OK", new String(encoded, StandardCharsets.UTF_8));
+
+        // Partial mock so we do not send stuff down the wire
+        final KrakenExchangeAdapter exchangeAdapter = PowerMock.createPartialMockAndInvokeDefaultConstructor(
+                KrakenExchangeAdapter.class, MOCKED_SEND_AUTHENTICATED_REQUEST_TO_EXCHANGE_METHOD);
+        PowerMock.expectPrivate(exchangeAdapter, MOCKED_SEND_AUTHENTICATED_REQUEST_TO_EXCHANGE_METHOD, eq(ADD_ORDER),
+                anyObject(Map.class)).andReturn(exchangeResponse);
+
+        PowerMock.replayAll();
+        exchangeAdapter.init(exchangeConfig);
+
+        exchangeAdapter.createOrder(MARKET_ID, OrderType.SELL, SELL_ORDER_QUANTITY, SELL_ORDER_PRICE);
+        PowerMock.verifyAll();
+    }
+
     @Test(expected = ExchangeNetworkException.class)
     public void testCreateOrderHandlesExchangeNetworkException() throws Exception {
 
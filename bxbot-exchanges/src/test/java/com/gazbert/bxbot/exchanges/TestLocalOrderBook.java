@@ -0,0 +1,175 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.exchanges;
+
+import com.gazbert.bxbot.exchanges.LocalOrderBook.PriceLevel;
+import com.gazbert.bxbot.exchanges.LocalOrderBook.UpdateResult;
+import com.gazbert.bxbot.trading.api.MarketOrderBook;
+import com.gazbert.bxbot.trading.api.OrderType;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests the Local Order Book behaves as expected.
+ *
+ * @author gazbert
+ */
+public class TestLocalOrderBook {
+
+    private static final String MARKET_ID = "BTC-USD";
+
+    private LocalOrderBook orderBook;
+
+    @Before
+    public void setupForEachTest() {
+        orderBook = new LocalOrderBook(MARKET_ID, 2);
+    }
+
+    @Test
+    public void testBookIsOutOfSyncUntilSnapshotIsLoaded() {
+
+        assertFalse(orderBook.isSynchronised());
+        assertNull(orderBook.getMarketOrderBook());
+        assertNull(orderBook.getBestBid());
+
+        assertTrue(orderBook.reset(100, Arrays.asList(
+                bid("6500.01", "1.5"), bid("6500.03", "0.5"), bid("6499.00", "3"),
+                ask("6501.00", "2"), ask("6500.50", "0.25"))));
+
+        assertTrue(orderBook.isSynchronised());
+        assertEquals(100, orderBook.getSequence());
+        assertEquals(new BigDecimal("6500.03"), orderBook.getBestBid());
+        assertEquals(new BigDecimal("6500.50"), orderBook.getBestAsk());
+
+        // Book is sorted best price first and limited to max depth
+        final MarketOrderBook marketOrderBook = orderBook.getMarketOrderBook();
+        assertEquals(MARKET_ID, marketOrderBook.getMarketId());
+        assertEquals(2, marketOrderBook.getBuyOrders().size());
+        assertTrue(marketOrderBook.getBuyOrders().get(0).getPrice().compareTo(new BigDecimal("6500.03")) == 0);
+        assertTrue(marketOrderBook.getBuyOrders().get(1).getPrice().compareTo(new BigDecimal("6500.01")) == 0);
+        assertEquals(OrderType.BUY, marketOrderBook.getBuyOrders().get(0).getType());
+        assertEquals(2, marketOrderBook.getSellOrders().size());
+        assertTrue(marketOrderBook.getSellOrders().get(0).getPrice().compareTo(new BigDecimal("6500.50")) == 0);
+        assertTrue(marketOrderBook.getSellOrders().get(0).getQuantity().compareTo(new BigDecimal("0.25")) == 0);
+        assertTrue(marketOrderBook.getSellOrders().get(0).getTotal().compareTo(new BigDecimal("1625.1250")) == 0);
+        assertEquals(OrderType.SELL, marketOrderBook.getSellOrders().get(0).getType());
+    }
+
+    @Test
+    public void testSequencedUpdatesAreAppliedInOrder() {
+
+        orderBook.reset(100, Arrays.asList(bid("6500.01", "1.5"), ask("6501.00", "2")));
+        final MarketOrderBook before = orderBook.getMarketOrderBook();
+        assertSame(before, orderBook.getMarketOrderBook());
+
+        assertEquals(UpdateResult.APPLIED, orderBook.apply(101, Collections.singletonList(bid("6500.50", "1"))));
+        assertEquals(UpdateResult.APPLIED, orderBook.apply(102, Arrays.asList(
+                bid("6500.01", "0"), ask("6501.00", "0.5"))));
+
+        assertEquals(102, orderBook.getSequence());
+        final MarketOrderBook after = orderBook.getMarketOrderBook();
+        assertEquals(1, after.getBuyOrders().size());
+        assertTrue(after.getBuyOrders().get(0).getPrice().compareTo(new BigDecimal("6500.50")) == 0);
+        assertTrue(after.getSellOrders().get(0).getQuantity().compareTo(new BigDecimal("0.5")) == 0);
+    }
+
+    @Test
+    public void testStaleUpdateIsIgnored() {
+
+        orderBook.reset(100, Collections.singletonList(bid("6500.01", "1.5")));
+        assertEquals(UpdateResult.STALE, orderBook.apply(100, Collections.singletonList(bid("6500.01", "0"))));
+        assertEquals(new BigDecimal("6500.01"), orderBook.getBestBid());
+    }
+
+    @Test
+    public void testGapTakesBookOutOfSyncAndBuffersUpdatesForNextSnapshot() {
+
+        orderBook.reset(100, Collections.singletonList(bid("6500.01", "1.5")));
+
+        assertEquals(UpdateResult.GAP, orderBook.apply(102, Collections.singletonList(bid("6500.02", "1"))));
+        assertFalse(orderBook.isSynchronised());
+        assertNull(orderBook.getMarketOrderBook());
+        assertEquals(UpdateResult.BUFFERED, orderBook.apply(103, Collections.singletonList(bid("6500.03", "1"))));
+
+        // Snapshot is older than the first buffered update - still a gap
+        assertFalse(orderBook.reset(100, Collections.singletonList(bid("6500.01", "1.5"))));
+        assertFalse(orderBook.isSynchronised());
+
+        // Snapshot includes update 102, so only 103 is replayed
+        assertTrue(orderBook.reset(102, Arrays.asList(bid("6500.01", "1.5"), bid("6500.02", "1"))));
+        assertTrue(orderBook.isSynchronised());
+        assertEquals(103, orderBook.getSequence());
+        assertEquals(new BigDecimal("6500.03"), orderBook.getBestBid());
+        assertTrue(orderBook.getMarketOrderBook().getBuyOrders().get(1).getPrice().compareTo(new BigDecimal("6500.02")) == 0);
+    }
+
+    @Test
+    public void testPricesBeyondBookScaleAreMergedInMarketOrderBook() {
+
+        orderBook.reset(0, Arrays.asList(
+                bid("0.000012345678", "1"), bid("0.000012345676", "2"), ask("0.00001236", "5")));
+
+        final MarketOrderBook marketOrderBook = orderBook.getMarketOrderBook();
+        assertEquals(1, marketOrderBook.getBuyOrders().size());
+        assertTrue(marketOrderBook.getBuyOrders().get(0).getPrice().compareTo(new BigDecimal("0.00001235")) == 0);
+        assertTrue(marketOrderBook.getBuyOrders().get(0).getQuantity().compareTo(new BigDecimal("3")) == 0);
+        assertEquals(1, marketOrderBook.getSellOrders().size());
+    }
+
+    @Test
+    public void testUnsequencedUpdatesAreDroppedWhileOutOfSync() {
+
+        assertFalse(orderBook.apply(Collections.singletonList(bid("6500.01", "1.5"))));
+
+        orderBook.reset(0, Collections.singletonList(ask("6501.00", "2")));
+        assertTrue(orderBook.apply(Collections.singletonList(bid("6500.01", "1.5"))));
+        assertEquals(new BigDecimal("6500.01"), orderBook.getBestBid());
+
+        orderBook.invalidate();
+        assertNull(orderBook.getBestBid());
+        assertNull(orderBook.getBestAsk());
+    }
+
+    // ------------------------------------------------------------------------------------------------
+    //  Util methods
+    // ------------------------------------------------------------------------------------------------
+
+    private static PriceLevel bid(String price, String quantity) {
+        return new PriceLevel(OrderType.BUY, new BigDecimal(price), new BigDecimal(quantity));
+    }
+
+    private static PriceLevel ask(String price, String quantity) {
+        return new PriceLevel(OrderType.SELL, new BigDecimal(price), new BigDecimal(quantity));
+    }
+}
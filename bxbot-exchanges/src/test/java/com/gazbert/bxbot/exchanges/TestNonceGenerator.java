@@ -0,0 +1,191 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.exchanges;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests the Nonce Generator behaves as expected.
+ * <p>
+ * Tests use a fake clock so the time only moves when the test moves it.
+ *
+ * @author gazbert
+ */
+public class TestNonceGenerator {
+
+    private static final long NOW_MILLIS = 1483228800000L;
+    private static final long ONE_MINUTE_MILLIS = TimeUnit.MINUTES.toMillis(1);
+
+    private final AtomicLong fakeClock = new AtomicLong(NOW_MILLIS);
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testSecondsResolutionIsRejected() throws Exception {
+        new NonceGenerator(TimeUnit.SECONDS, null, fakeClock::get);
+    }
+
+    @Test
+    public void testNonceIsTakenFromClock() throws Exception {
+        final NonceGenerator nonceGenerator = new NonceGenerator(TimeUnit.MILLISECONDS, null, fakeClock::get);
+        assertEquals(NOW_MILLIS, nonceGenerator.next());
+        fakeClock.addAndGet(500);
+        assertEquals(NOW_MILLIS + 500, nonceGenerator.next());
+    }
+
+    @Test
+    public void testNonceIsInMicrosecondsIfRequested() throws Exception {
+        final NonceGenerator nonceGenerator = new NonceGenerator(TimeUnit.MICROSECONDS, null, fakeClock::get);
+        assertEquals(NOW_MILLIS * 1000, nonceGenerator.next());
+    }
+
+    @Test
+    public void testNonceIsIncrementedIfClockHasNotMoved() throws Exception {
+        final NonceGenerator nonceGenerator = new NonceGenerator(TimeUnit.MILLISECONDS, null, fakeClock::get);
+        assertEquals(NOW_MILLIS, nonceGenerator.next());
+        assertEquals(NOW_MILLIS + 1, nonceGenerator.next());
+        assertEquals(NOW_MILLIS + 2, nonceGenerator.next());
+    }
+
+    @Test
+    public void testNonceIsIncrementedIfClockGoesBackwards() throws Exception {
+        final NonceGenerator nonceGenerator = new NonceGenerator(TimeUnit.MILLISECONDS, null, fakeClock::get);
+        assertEquals(NOW_MILLIS, nonceGenerator.next());
+        fakeClock.addAndGet(-5000);
+        assertEquals(NOW_MILLIS + 1, nonceGenerator.next());
+    }
+
+    @Test
+    public void testConcurrentCallersNeverGetTheSameNonce() throws Exception {
+
+        final NonceGenerator nonceGenerator = new NonceGenerator(TimeUnit.MILLISECONDS,
+                folder.getRoot().toPath().resolve("nonce"), fakeClock::get);
+        final ExecutorService executorService = Executors.newFixedThreadPool(8);
+        try {
+            final List<Future<List<Long>>> results = new ArrayList<>();
+            for (int task = 0; task < 8; task++) {
+                final Callable<List<Long>> nonceTask = () -> {
+                    final List<Long> nonces = new ArrayList<>();
+                    for (int i = 0; i < 1000; i++) {
+                        nonces.add(nonceGenerator.next());
+                        if (i % 100 == 0) {
+                            fakeClock.addAndGet(ONE_MINUTE_MILLIS); // force some high-water mark writes
+                        }
+                    }
+                    return nonces;
+                };
+                results.add(executorService.submit(nonceTask));
+            }
+
+            final Set<Long> allNonces = new HashSet<>();
+            for (final Future<List<Long>> result : results) {
+                final List<Long> nonces = result.get(10, TimeUnit.SECONDS);
+                for (int i = 1; i < nonces.size(); i++) {
+                    assertTrue(nonces.get(i) > nonces.get(i - 1));
+                }
+                allNonces.addAll(nonces);
+            }
+            assertEquals(8000, allNonces.size());
+
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testHighWaterMarkIsStoredAheadOfNonce() throws Exception {
+
+        final Path nonceFile = folder.getRoot().toPath().resolve("nonce");
+        final NonceGenerator nonceGenerator = new NonceGenerator(TimeUnit.MILLISECONDS, nonceFile, fakeClock::get);
+
+        assertEquals(NOW_MILLIS, nonceGenerator.next());
+        assertEquals(NOW_MILLIS + ONE_MINUTE_MILLIS, readNonceFile(nonceFile));
+
+        // Not written again until the nonce passes the mark
+        fakeClock.addAndGet(ONE_MINUTE_MILLIS - 1);
+        nonceGenerator.next();
+        assertEquals(NOW_MILLIS + ONE_MINUTE_MILLIS, readNonceFile(nonceFile));
+
+        fakeClock.addAndGet(2);
+        final long nonce = nonceGenerator.next();
+        assertEquals(nonce + ONE_MINUTE_MILLIS, readNonceFile(nonceFile));
+        assertEquals(nonce + ONE_MINUTE_MILLIS, nonceGenerator.getHighWaterMark());
+    }
+
+    @Test
+    public void testNonceKeepsIncreasingAfterRestartWithClockBehind() throws Exception {
+
+        final Path nonceFile = folder.getRoot().toPath().resolve("nonce");
+        final long lastNonceBeforeRestart =
+                new NonceGenerator(TimeUnit.MILLISECONDS, nonceFile, fakeClock::get).next();
+
+        fakeClock.addAndGet(-10000);
+        final NonceGenerator restartedNonceGenerator =
+                new NonceGenerator(TimeUnit.MILLISECONDS, nonceFile, fakeClock::get);
+        assertTrue(restartedNonceGenerator.next() > lastNonceBeforeRestart);
+    }
+
+    @Test
+    public void testMissingDirectoryIsCreated() throws Exception {
+        final Path nonceFile = folder.getRoot().toPath().resolve("state").resolve("nonce");
+        new NonceGenerator(TimeUnit.MILLISECONDS, nonceFile, fakeClock::get).next();
+        assertEquals(NOW_MILLIS + ONE_MINUTE_MILLIS, readNonceFile(nonceFile));
+    }
+
+    @Test(expected = IOException.class)
+    public void testCorruptHighWaterMarkFileIsRejected() throws Exception {
+        final Path nonceFile = folder.getRoot().toPath().resolve("nonce");
+        Files.write(nonceFile, "not-a-nonce".getBytes(StandardCharsets.US_ASCII));
+        new NonceGenerator(TimeUnit.MILLISECONDS, nonceFile, fakeClock::get);
+    }
+
+    // ------------------------------------------------------------------------------------------------
+    //  Private utils
+    // ------------------------------------------------------------------------------------------------
+
+    private static long readNonceFile(Path nonceFile) throws IOException {
+        return Long.parseLong(new String(Files.readAllBytes(nonceFile), StandardCharsets.US_ASCII));
+    }
+}
@@ -0,0 +1,324 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+
+package com.gazbert.bxbot.exchanges;
+
+import com.gazbert.bxbot.exchange.api.ExchangeAdapter;
+import com.gazbert.bxbot.exchange.api.ExchangeConfig;
+import com.gazbert.bxbot.exchange.api.OptionalConfig;
+import com.gazbert.bxbot.trading.api.BalanceInfo;
+import com.gazbert.bxbot.trading.api.FixedPointMarketOrderBook;
+import com.gazbert.bxbot.trading.api.MarketOrderBook;
+import com.gazbert.bxbot.trading.api.OpenOrder;
+import com.gazbert.bxbot.trading.api.OrderType;
+import com.gazbert.bxbot.trading.api.TradingApiException;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.easymock.EasyMock.createMock;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.expectLastCall;
+import static org.easymock.EasyMock.replay;
+import static org.easymock.EasyMock.verify;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests the Paper Trading Exchange Adapter behaves as expected.
+ *
+ * @author gazbert
+ */
+public class TestPaperTradingExchangeAdapter {
+
+    private static final String MARKET_ID = "btcusd";
+
+    private ExchangeConfig exchangeConfig;
+    private OptionalConfig optionalConfig;
+    private ExchangeAdapter exchangeAdapter;
+
+    @Before
+    public void setupForEachTest() {
+
+        optionalConfig = createMock(OptionalConfig.class);
+        expect(optionalConfig.getItem("buy-fee")).andReturn("0.25").anyTimes();
+        expect(optionalConfig.getItem("sell-fee")).andReturn("0.5").anyTimes();
+        expect(optionalConfig.getItem("markets")).andReturn("btcusd=BTC/USD, ltcusd=LTC/USD").anyTimes();
+        expect(optionalConfig.getItem("starting-balances")).andReturn("BTC=1,USD=1000").anyTimes();
+
+        exchangeConfig = createMock(ExchangeConfig.class);
+        expect(exchangeConfig.getOptionalConfig()).andReturn(optionalConfig).anyTimes();
+
+        exchangeAdapter = createMock(ExchangeAdapter.class);
+        exchangeAdapter.init(exchangeConfig);
+        expectLastCall();
+    }
+
+    @Test
+    public void testInitSetsUpBalancesAndFees() throws Exception {
+
+        replay(exchangeConfig, optionalConfig, exchangeAdapter);
+        final PaperTradingExchangeAdapter adapter = initAdapter();
+
+        final BalanceInfo balanceInfo = adapter.getBalanceInfo();
+        assertEquals(0, new BigDecimal("1").compareTo(balanceInfo.getBalancesAvailable().get("BTC")));
+        assertEquals(0, new BigDecimal("1000").compareTo(balanceInfo.getBalancesAvailable().get("USD")));
+        assertTrue(balanceInfo.getBalancesOnHold().isEmpty());
+
+        assertEquals(0, new BigDecimal("0.0025").compareTo(adapter.getPercentageOfBuyOrderTakenForExchangeFee(
+                MARKET_ID)));
+        assertEquals(0, new BigDecimal("0.005").compareTo(adapter.getPercentageOfSellOrderTakenForExchangeFee(
+                MARKET_ID)));
+        verify(exchangeConfig, optionalConfig, exchangeAdapter);
+    }
+
+    @Test
+    public void testMarketDataIsPassedThroughToExchange() throws Exception {
+
+        final MarketOrderBook book = book().addBid(bd("99"), bd("1")).addAsk(bd("100"), bd("1")).build();
+        expect(exchangeAdapter.getMarketOrders(MARKET_ID)).andReturn(book);
+        expect(exchangeAdapter.getLatestMarketPrice(MARKET_ID)).andReturn(bd("99.5"));
+        replay(exchangeConfig, optionalConfig, exchangeAdapter);
+
+        final PaperTradingExchangeAdapter adapter = initAdapter();
+        assertSame(book, adapter.getMarketOrders(MARKET_ID));
+        assertEquals(bd("99.5"), adapter.getLatestMarketPrice(MARKET_ID));
+        verify(exchangeConfig, optionalConfig, exchangeAdapter);
+    }
+
+    @Test
+    public void testNewBuyOrderTakesCrossedLevelsAtTheirPrices() throws Exception {
+
+        expect(exchangeAdapter.getMarketOrders(MARKET_ID)).andReturn(book()
+                .addBid(bd("99"), bd("1"))
+                .addAsk(bd("100"), bd("1")).addAsk(bd("101"), bd("1")).addAsk(bd("102"), bd("1"))
+                .build());
+        replay(exchangeConfig, optionalConfig, exchangeAdapter);
+
+        final PaperTradingExchangeAdapter adapter = initAdapter();
+        adapter.createOrder(MARKET_ID, OrderType.BUY, bd("1.5"), bd("101"));
+
+        // 1 @ 100 + 0.5 @ 101 = 150.5, plus 0.25% fee = 150.87625
+        final BalanceInfo balanceInfo = adapter.getBalanceInfo();
+        assertEquals(0, bd("2.5").compareTo(balanceInfo.getBalancesAvailable().get("BTC")));
+        assertEquals(0, bd("849.12375").compareTo(balanceInfo.getBalancesAvailable().get("USD")));
+        assertEquals(0, BigDecimal.ZERO.compareTo(balanceInfo.getBalancesOnHold().get("USD")));
+        assertTrue(adapter.getYourOpenOrders(MARKET_ID).isEmpty());
+        verify(exchangeConfig, optionalConfig, exchangeAdapter);
+    }
+
+    @Test
+    public void testRestingOrderFillsAtItsLimitPriceWhenBookTradesThroughIt() throws Exception {
+
+        expect(exchangeAdapter.getMarketOrders(MARKET_ID)).andReturn(book()
+                .addBid(bd("99"), bd("1")).addAsk(bd("102"), bd("1")).build());
+        expect(exchangeAdapter.getMarketOrders(MARKET_ID)).andReturn(book()
+                .addBid(bd("100.5"), bd("0.5")).addBid(bd("99"), bd("1")).addAsk(bd("102"), bd("1")).build());
+        replay(exchangeConfig, optionalConfig, exchangeAdapter);
+
+        final PaperTradingExchangeAdapter adapter = initAdapter();
+        final String orderId = adapter.createOrder(MARKET_ID, OrderType.SELL, bd("0.8"), bd("100"));
+
+        BalanceInfo balanceInfo = adapter.getBalanceInfo();
+        assertEquals(0, bd("0.2").compareTo(balanceInfo.getBalancesAvailable().get("BTC")));
+        assertEquals(0, bd("0.8").compareTo(balanceInfo.getBalancesOnHold().get("BTC")));
+
+        final List<OpenOrder> openOrders = adapter.getYourOpenOrders(MARKET_ID);
+        assertEquals(1, openOrders.size());
+        assertEquals(orderId, openOrders.get(0).getId());
+        assertEquals(OrderType.SELL, openOrders.get(0).getType());
+        assertEquals(0, bd("0.3").compareTo(openOrders.get(0).getQuantity()));
+
+        // 0.5 @ 100 = 50, less 0.5% fee = 49.75
+        balanceInfo = adapter.getBalanceInfo();
+        assertEquals(0, bd("0.3").compareTo(balanceInfo.getBalancesOnHold().get("BTC")));
+        assertEquals(0, bd("1049.75").compareTo(balanceInfo.getBalancesAvailable().get("USD")));
+        verify(exchangeConfig, optionalConfig, exchangeAdapter);
+    }
+
+    @Test
+    public void testOrdersAtSamePriceFillInTimePriority() throws Exception {
+
+        final MarketOrderBook restingBook = book().addBid(bd("98"), bd("1")).addAsk(bd("100"), bd("1")).build();
+        expect(exchangeAdapter.getMarketOrders(MARKET_ID)).andReturn(restingBook).times(2);
+        expect(exchangeAdapter.getMarketOrders(MARKET_ID)).andReturn(book()
+                .addBid(bd("98"), bd("1")).addAsk(bd("97"), bd("1.5")).build());
+        replay(exchangeConfig, optionalConfig, exchangeAdapter);
+
+        final PaperTradingExchangeAdapter adapter = initAdapter();
+        final String firstOrderId = adapter.createOrder(MARKET_ID, OrderType.BUY, bd("1"), bd("99"));
+        final String secondOrderId = adapter.createOrder(MARKET_ID, OrderType.BUY, bd("1"), bd("99"));
+
+        // Resting orders fill at their limit price, first order first
+        final List<OpenOrder> openOrders = adapter.getYourOpenOrders(MARKET_ID);
+        assertEquals(1, openOrders.size());
+        assertEquals(secondOrderId, openOrders.get(0).getId());
+        assertEquals(0, bd("0.5").compareTo(openOrders.get(0).getQuantity()));
+        assertEquals(0, bd("1").compareTo(openOrders.get(0).getOriginalQuantity()));
+        assertFalse(firstOrderId.equals(secondOrderId));
+
+        // 1.5 @ 99 = 148.5 + 0.25% fee = 148.87125 paid, 0.5 @ 99 + fee = 49.62375 still on hold
+        final BalanceInfo balanceInfo = adapter.getBalanceInfo();
+        assertEquals(0, bd("2.5").compareTo(balanceInfo.getBalancesAvailable().get("BTC")));
+        assertEquals(0, bd("801.505").compareTo(balanceInfo.getBalancesAvailable().get("USD")));
+        assertEquals(0, bd("49.62375").compareTo(balanceInfo.getBalancesOnHold().get("USD")));
+        verify(exchangeConfig, optionalConfig, exchangeAdapter);
+    }
+
+    @Test
+    public void testTakenLiquidityIsNotFilledAgainUntilTheExchangeLevelChanges() throws Exception {
+
+        // An unchanged book is fetched again before the exchange level changes
+        expect(exchangeAdapter.getMarketOrders(MARKET_ID)).andReturn(book()
+                .addBid(bd("98"), bd("1")).addAsk(bd("100"), bd("1")).build());
+        expect(exchangeAdapter.getMarketOrders(MARKET_ID)).andReturn(book()
+                .addBid(bd("98"), bd("1")).addAsk(bd("100"), bd("1")).build());
+        expect(exchangeAdapter.getMarketOrders(MARKET_ID)).andReturn(book()
+                .addBid(bd("98"), bd("1")).addAsk(bd("100"), bd("2")).build());
+        replay(exchangeConfig, optionalConfig, exchangeAdapter);
+
+        final PaperTradingExchangeAdapter adapter = initAdapter();
+        adapter.createOrder(MARKET_ID, OrderType.BUY, bd("1"), bd("100"));
+        adapter.createOrder(MARKET_ID, OrderType.BUY, bd("1"), bd("100"));
+
+        // 1 @ 100 + 0.25% fee = 100.25 paid, the second order is still waiting for liquidity
+        BalanceInfo balanceInfo = adapter.getBalanceInfo();
+        assertEquals(0, bd("2").compareTo(balanceInfo.getBalancesAvailable().get("BTC")));
+        assertEquals(0, bd("100.25").compareTo(balanceInfo.getBalancesOnHold().get("USD")));
+
+        // The exchange now shows a new quantity at 100
+        assertTrue(adapter.getYourOpenOrders(MARKET_ID).isEmpty());
+        balanceInfo = adapter.getBalanceInfo();
+        assertEquals(0, bd("3").compareTo(balanceInfo.getBalancesAvailable().get("BTC")));
+        assertEquals(0, bd("799.5").compareTo(balanceInfo.getBalancesAvailable().get("USD")));
+        verify(exchangeConfig, optionalConfig, exchangeAdapter);
+    }
+
+    @Test
+    public void testSellFillPaysProceedsLessFee() throws Exception {
+
+        expect(exchangeAdapter.getMarketOrders(MARKET_ID)).andReturn(book()
+                .addBid(bd("100"), bd("0.5")).addBid(bd("99"), bd("1")).addAsk(bd("101"), bd("1")).build());
+        replay(exchangeConfig, optionalConfig, exchangeAdapter);
+
+        final PaperTradingExchangeAdapter adapter = initAdapter();
+        adapter.createOrder(MARKET_ID, OrderType.SELL, bd("1"), bd("99"));
+
+        // 0.5 @ 100 + 0.5 @ 99 = 99.5, less 0.5% fee = 99.0025
+        final BalanceInfo balanceInfo = adapter.getBalanceInfo();
+        assertEquals(0, BigDecimal.ZERO.compareTo(balanceInfo.getBalancesAvailable().get("BTC")));
+        assertEquals(0, BigDecimal.ZERO.compareTo(balanceInfo.getBalancesOnHold().get("BTC")));
+        assertEquals(0, bd("1099.0025").compareTo(balanceInfo.getBalancesAvailable().get("USD")));
+        verify(exchangeConfig, optionalConfig, exchangeAdapter);
+    }
+
+    @Test
+    public void testCancelOrderReleasesHeldBalance() throws Exception {
+
+        expect(exchangeAdapter.getMarketOrders(MARKET_ID)).andReturn(book()
+                .addBid(bd("98"), bd("1")).addAsk(bd("100"), bd("1")).build());
+        replay(exchangeConfig, optionalConfig, exchangeAdapter);
+
+        final PaperTradingExchangeAdapter adapter = initAdapter();
+        final String orderId = adapter.createOrder(MARKET_ID, OrderType.BUY, bd("2"), bd("99"));
+        assertEquals(0, bd("198.495").compareTo(adapter.getBalanceInfo().getBalancesOnHold().get("USD")));
+
+        assertTrue(adapter.cancelOrder(orderId, MARKET_ID));
+        assertFalse(adapter.cancelOrder(orderId, MARKET_ID));
+
+        final BalanceInfo balanceInfo = adapter.getBalanceInfo();
+        assertEquals(0, bd("1000").compareTo(balanceInfo.getBalancesAvailable().get("USD")));
+        assertEquals(0, BigDecimal.ZERO.compareTo(balanceInfo.getBalancesOnHold().get("USD")));
+
+        // No open orders, so the book is not fetched
+        assertTrue(adapter.getYourOpenOrders(MARKET_ID).isEmpty());
+        verify(exchangeConfig, optionalConfig, exchangeAdapter);
+    }
+
+    @Test
+    public void testOrderIsRejectedWhenBalanceIsInsufficient() throws Exception {
+
+        replay(exchangeConfig, optionalConfig, exchangeAdapter);
+        final PaperTradingExchangeAdapter adapter = initAdapter();
+
+        try {
+            adapter.createOrder(MARKET_ID, OrderType.SELL, bd("1.5"), bd("100"));
+            fail("Sell order with insufficient BTC should be rejected");
+        } catch (TradingApiException e) {
+            assertTrue(e.getMessage().startsWith("Insufficient BTC"));
+        }
+        try {
+            adapter.createOrder(MARKET_ID, OrderType.BUY, bd("10"), bd("100"));
+            fail("Buy order with insufficient USD should be rejected");
+        } catch (TradingApiException e) {
+            assertTrue(e.getMessage().startsWith("Insufficient USD"));
+        }
+        assertTrue(adapter.getBalanceInfo().getBalancesOnHold().isEmpty());
+        verify(exchangeConfig, optionalConfig, exchangeAdapter);
+    }
+
+    @Test(expected = TradingApiException.class)
+    public void testOrderForUnknownMarketIsRejected() throws Exception {
+
+        replay(exchangeConfig, optionalConfig, exchangeAdapter);
+        initAdapter().createOrder("ethusd", OrderType.BUY, bd("1"), bd("100"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInitFailsWhenMarketsAreBadlyConfigured() {
+
+        final OptionalConfig badOptionalConfig = createMock(OptionalConfig.class);
+        expect(badOptionalConfig.getItem("buy-fee")).andReturn("0.25").anyTimes();
+        expect(badOptionalConfig.getItem("sell-fee")).andReturn("0.25").anyTimes();
+        expect(badOptionalConfig.getItem("markets")).andReturn("btcusd=BTCUSD").anyTimes();
+        final ExchangeConfig badExchangeConfig = createMock(ExchangeConfig.class);
+        expect(badExchangeConfig.getOptionalConfig()).andReturn(badOptionalConfig).anyTimes();
+        replay(badExchangeConfig, badOptionalConfig);
+
+        new PaperTradingExchangeAdapter(exchangeAdapter).init(badExchangeConfig);
+    }
+
+    // ------------------------------------------------------------------------------------------------
+    //  Util methods
+    // ------------------------------------------------------------------------------------------------
+
+    private PaperTradingExchangeAdapter initAdapter() {
+        final PaperTradingExchangeAdapter adapter = new PaperTradingExchangeAdapter(exchangeAdapter);
+        adapter.init(exchangeConfig);
+        return adapter;
+    }
+
+    private static FixedPointMarketOrderBook.Builder book() {
+        return new FixedPointMarketOrderBook.Builder(MARKET_ID);
+    }
+
+    private static BigDecimal bd(String value) {
+        return new BigDecimal(value);
+    }
+}
@@ -0,0 +1,205 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+
+package com.gazbert.bxbot.exchanges;
+
+import com.gazbert.bxbot.exchanges.AbstractExchangeAdapter.ExchangeHttpResponse;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Tests the Pooled HTTP Transport behaves as expected.
+ * <p>
+ * Requests are sent to a local HTTP server.
+ *
+ * @author gazbert
+ */
+public class TestPooledHttpTransport {
+
+    private static final String TICKER_PATH = "/ticker";
+    private static final String ORDER_PATH = "/order";
+    private static final String ERROR_PATH = "/error";
+
+    private static final String TICKER_RESPONSE = "{\"last\":\"1234.56\"}";
+    private static final String ERROR_RESPONSE = "{\"error\":\"Invalid nonce\"}";
+
+    private HttpServer exchange;
+    private PooledHttpTransport transport;
+    private String baseUrl;
+
+    /*
+     * The client ports the exchange has seen requests from - 1 port per connection.
+     */
+    private final Set<Integer> clientPorts = Collections.newSetFromMap(new ConcurrentHashMap<>());
+
+    @Before
+    public void setupForEachTest() throws Exception {
+
+        exchange = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+
+        exchange.createContext(TICKER_PATH, httpExchange -> {
+            clientPorts.add(httpExchange.getRemoteAddress().getPort());
+            respond(httpExchange, 200, TICKER_RESPONSE);
+        });
+
+        // Echoes back the request method, content type, and body
+        exchange.createContext(ORDER_PATH, httpExchange -> {
+            clientPorts.add(httpExchange.getRemoteAddress().getPort());
+            final String echo = httpExchange.getRequestMethod() + " "
+                    + httpExchange.getRequestHeaders().getFirst("Content-Type") + " "
+                    + httpExchange.getRequestHeaders().getFirst("API-Key") + " "
+                    + read(httpExchange.getRequestBody());
+            respond(httpExchange, 200, echo);
+        });
+
+        exchange.createContext(ERROR_PATH, httpExchange ->
+                respond(httpExchange, 400, ERROR_RESPONSE));
+
+        exchange.start();
+        baseUrl = "http://" + exchange.getAddress().getHostString() + ":" + exchange.getAddress().getPort();
+        transport = new PooledHttpTransport(5, 5, 60);
+    }
+
+    @After
+    public void tearDownAfterEachTest() {
+        transport.close();
+        exchange.stop(0);
+    }
+
+    @Test
+    public void testConnectionIsKeptAliveAndReusedBetweenRequests() throws Exception {
+
+        for (int i = 0; i < 3; i++) {
+            final ExchangeHttpResponse response = transport.send(new URL(baseUrl + TICKER_PATH), "GET", null, null);
+            assertEquals(200, response.getStatusCode());
+            assertEquals(TICKER_RESPONSE, response.getPayload());
+        }
+
+        assertEquals(1, clientPorts.size());
+        assertEquals(1, transport.getConnectionPool().idleConnectionCount());
+    }
+
+    @Test
+    public void testStreamedResponseIsPassedToReaderAndConnectionIsReused() throws Exception {
+
+        for (int i = 0; i < 3; i++) {
+            final String payload = transport.send(new URL(baseUrl + TICKER_PATH), "GET", null, null,
+                    (statusCode, reasonPhrase, body) -> {
+                        assertEquals(200, statusCode);
+                        return new BufferedReader(body).readLine();
+                    });
+            assertEquals(TICKER_RESPONSE, payload);
+        }
+
+        assertEquals(1, clientPorts.size());
+        assertEquals(1, transport.getConnectionPool().idleConnectionCount());
+    }
+
+    @Test
+    public void testPostDataAndRequestHeadersAreSent() throws Exception {
+
+        final Map<String, String> requestHeaders = new HashMap<>();
+        requestHeaders.put("Content-Type", "application/json");
+        requestHeaders.put("API-Key", "my-key");
+
+        final ExchangeHttpResponse response = transport.send(new URL(baseUrl + ORDER_PATH), "POST",
+                "{\"price\":\"1234.56\"}", requestHeaders);
+
+        assertEquals(200, response.getStatusCode());
+        assertEquals("POST application/json my-key {\"price\":\"1234.56\"}", response.getPayload());
+    }
+
+    @Test
+    public void testPostWithoutContentTypeDefaultsToFormEncoding() throws Exception {
+
+        final ExchangeHttpResponse response = transport.send(new URL(baseUrl + ORDER_PATH), "POST",
+                "nonce=1&pair=XBTUSD", null);
+
+        assertEquals("POST application/x-www-form-urlencoded null nonce=1&pair=XBTUSD", response.getPayload());
+    }
+
+    @Test
+    public void testDeleteIsSentWithoutBody() throws Exception {
+
+        final ExchangeHttpResponse response = transport.send(new URL(baseUrl + ORDER_PATH), "DELETE", null, null);
+        assertEquals("DELETE null null ", response.getPayload());
+    }
+
+    @Test
+    public void testErrorResponseIsReturnedToCaller() throws Exception {
+
+        final ExchangeHttpResponse response = transport.send(new URL(baseUrl + ERROR_PATH), "GET", null, null);
+
+        assertEquals(400, response.getStatusCode());
+        assertEquals(ERROR_RESPONSE, response.getPayload());
+    }
+
+    @Test(expected = MalformedURLException.class)
+    public void testUnsupportedUrlIsRejected() throws Exception {
+        transport.send(new URL("file:///tmp/ticker"), "GET", null, null);
+    }
+
+    // ------------------------------------------------------------------------------------------------
+    //  Util methods
+    // ------------------------------------------------------------------------------------------------
+
+    private static void respond(HttpExchange httpExchange, int statusCode, String payload) throws IOException {
+        final byte[] bytes = payload.getBytes(StandardCharsets.UTF_8);
+        httpExchange.sendResponseHeaders(statusCode, bytes.length);
+        try (final OutputStream responseBody = httpExchange.getResponseBody()) {
+            responseBody.write(bytes);
+        }
+    }
+
+    private static String read(InputStream requestBody) throws IOException {
+        final ByteArrayOutputStream content = new ByteArrayOutputStream();
+        final byte[] buffer = new byte[1024];
+        int bytesRead;
+        while ((bytesRead = requestBody.read(buffer)) != -1) {
+            content.write(buffer, 0, bytesRead);
+        }
+        return new String(content.toByteArray(), StandardCharsets.UTF_8);
+    }
+}
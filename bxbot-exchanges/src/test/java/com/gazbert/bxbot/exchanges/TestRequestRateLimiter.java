@@ -0,0 +1,220 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.exchanges;
+
+import com.gazbert.bxbot.exchanges.RequestRateLimiter.RequestPriority;
+import com.gazbert.bxbot.trading.api.ExchangeNetworkException;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests the Request Rate Limiter behaves as expected.
+ * <p>
+ * Most tests use a fake clock so the bucket is only refilled when the test moves the clock on.
+ *
+ * @author gazbert
+ */
+public class TestRequestRateLimiter {
+
+    // 6000 requests per minute = 1 token every 10ms
+    private static final int MAX_REQUESTS_PER_MINUTE = 6000;
+    private static final long NANOS_PER_TOKEN = TimeUnit.MILLISECONDS.toNanos(10);
+
+    private static final long TEST_TIMEOUT_MILLIS = 5000;
+
+    private final AtomicLong fakeClock = new AtomicLong();
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testZeroMaxRequestsPerMinuteIsRejected() {
+        new RequestRateLimiter(0, 1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testZeroMaxBurstIsRejected() {
+        new RequestRateLimiter(60, 0);
+    }
+
+    @Test
+    public void testBurstIsSentWithoutWaiting() throws Exception {
+
+        final RequestRateLimiter rateLimiter = new RequestRateLimiter(MAX_REQUESTS_PER_MINUTE, 3, fakeClock::get);
+        rateLimiter.acquire(RequestPriority.LOW);
+        rateLimiter.acquire(RequestPriority.LOW);
+        rateLimiter.acquire(RequestPriority.HIGH);
+        assertEquals(0, rateLimiter.getQueueLength());
+    }
+
+    @Test
+    public void testRequestWaitsForTokenOnceBurstIsUsed() throws Exception {
+
+        final RequestRateLimiter rateLimiter = new RequestRateLimiter(MAX_REQUESTS_PER_MINUTE, 1, fakeClock::get);
+        rateLimiter.acquire(RequestPriority.HIGH);
+
+        final CountDownLatch acquired = startAcquiring(rateLimiter, RequestPriority.HIGH, null);
+        waitForQueueLength(rateLimiter, 1);
+        assertFalse(acquired.await(50, TimeUnit.MILLISECONDS));
+
+        fakeClock.addAndGet(NANOS_PER_TOKEN);
+        assertTrue(acquired.await(TEST_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void testBucketIsNotRefilledBeyondMaxBurst() throws Exception {
+
+        final RequestRateLimiter rateLimiter = new RequestRateLimiter(MAX_REQUESTS_PER_MINUTE, 2, fakeClock::get);
+        fakeClock.addAndGet(NANOS_PER_TOKEN * 10);
+        rateLimiter.acquire(RequestPriority.LOW);
+        rateLimiter.acquire(RequestPriority.LOW);
+
+        final CountDownLatch acquired = startAcquiring(rateLimiter, RequestPriority.LOW, null);
+        waitForQueueLength(rateLimiter, 1);
+        assertFalse(acquired.await(50, TimeUnit.MILLISECONDS));
+
+        fakeClock.addAndGet(NANOS_PER_TOKEN);
+        assertTrue(acquired.await(TEST_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void testHighPriorityRequestIsServedBeforeQueuedLowPriorityRequests() throws Exception {
+
+        final RequestRateLimiter rateLimiter = new RequestRateLimiter(MAX_REQUESTS_PER_MINUTE, 1, fakeClock::get);
+        rateLimiter.acquire(RequestPriority.LOW);
+
+        final List<String> servedOrder = new CopyOnWriteArrayList<>();
+        final CountDownLatch firstLowAcquired = startAcquiring(rateLimiter, RequestPriority.LOW, () -> servedOrder.add("low-1"));
+        waitForQueueLength(rateLimiter, 1);
+        final CountDownLatch secondLowAcquired = startAcquiring(rateLimiter, RequestPriority.LOW, () -> servedOrder.add("low-2"));
+        waitForQueueLength(rateLimiter, 2);
+        final CountDownLatch highAcquired = startAcquiring(rateLimiter, RequestPriority.HIGH, () -> servedOrder.add("high"));
+        waitForQueueLength(rateLimiter, 3);
+
+        fakeClock.addAndGet(NANOS_PER_TOKEN);
+        assertTrue(highAcquired.await(TEST_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS));
+        assertFalse(firstLowAcquired.await(50, TimeUnit.MILLISECONDS));
+
+        fakeClock.addAndGet(NANOS_PER_TOKEN);
+        assertTrue(firstLowAcquired.await(TEST_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS));
+        assertFalse(secondLowAcquired.await(50, TimeUnit.MILLISECONDS));
+
+        fakeClock.addAndGet(NANOS_PER_TOKEN);
+        assertTrue(secondLowAcquired.await(TEST_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS));
+
+        assertEquals("[high, low-1, low-2]", servedOrder.toString());
+    }
+
+    @Test
+    public void testDrainEmptiesBucket() throws Exception {
+
+        final RequestRateLimiter rateLimiter = new RequestRateLimiter(MAX_REQUESTS_PER_MINUTE, 5, fakeClock::get);
+        rateLimiter.drain();
+
+        final CountDownLatch acquired = startAcquiring(rateLimiter, RequestPriority.HIGH, null);
+        waitForQueueLength(rateLimiter, 1);
+        assertFalse(acquired.await(50, TimeUnit.MILLISECONDS));
+
+        fakeClock.addAndGet(NANOS_PER_TOKEN);
+        assertTrue(acquired.await(TEST_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void testInterruptedWaitThrowsExchangeNetworkException() throws Exception {
+
+        final RequestRateLimiter rateLimiter = new RequestRateLimiter(MAX_REQUESTS_PER_MINUTE, 1, fakeClock::get);
+        rateLimiter.acquire(RequestPriority.HIGH);
+
+        final AtomicBoolean interruptStatusRestored = new AtomicBoolean();
+        final CountDownLatch failed = new CountDownLatch(1);
+        final Thread waitingThread = new Thread(() -> {
+            try {
+                rateLimiter.acquire(RequestPriority.HIGH);
+            } catch (ExchangeNetworkException e) {
+                interruptStatusRestored.set(Thread.currentThread().isInterrupted());
+                failed.countDown();
+            }
+        });
+        waitingThread.start();
+        waitForQueueLength(rateLimiter, 1);
+
+        waitingThread.interrupt();
+        assertTrue(failed.await(TEST_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS));
+        assertTrue(interruptStatusRestored.get());
+        assertEquals(0, rateLimiter.getQueueLength());
+    }
+
+    @Test
+    public void testRealClockPacesRequests() throws Exception {
+
+        // 600 requests per minute = 1 token every 100ms
+        final RequestRateLimiter rateLimiter = new RequestRateLimiter(600, 1);
+        final long startTime = System.nanoTime();
+        rateLimiter.acquire(RequestPriority.LOW);
+        rateLimiter.acquire(RequestPriority.LOW);
+        rateLimiter.acquire(RequestPriority.LOW);
+        assertTrue(System.nanoTime() - startTime >= TimeUnit.MILLISECONDS.toNanos(190));
+    }
+
+    // ------------------------------------------------------------------------------------------------
+    //  Util methods
+    // ------------------------------------------------------------------------------------------------
+
+    private static CountDownLatch startAcquiring(RequestRateLimiter rateLimiter, RequestPriority priority,
+                                                 Runnable onAcquired) {
+        final CountDownLatch acquired = new CountDownLatch(1);
+        final Thread thread = new Thread(() -> {
+            try {
+                rateLimiter.acquire(priority);
+                if (onAcquired != null) {
+                    onAcquired.run();
+                }
+                acquired.countDown();
+            } catch (ExchangeNetworkException e) {
+                // latch is never counted down so the test fails
+            }
+        });
+        thread.setDaemon(true);
+        thread.start();
+        return acquired;
+    }
+
+    private static void waitForQueueLength(RequestRateLimiter rateLimiter, int expectedQueueLength)
+            throws InterruptedException {
+        final long deadline = System.currentTimeMillis() + TEST_TIMEOUT_MILLIS;
+        while (rateLimiter.getQueueLength() != expectedQueueLength) {
+            if (System.currentTimeMillis() > deadline) {
+                throw new AssertionError("Timed out waiting for queue length " + expectedQueueLength);
+            }
+            Thread.sleep(5);
+        }
+    }
+}
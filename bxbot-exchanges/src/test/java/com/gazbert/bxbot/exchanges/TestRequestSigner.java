@@ -0,0 +1,172 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.exchanges;
+
+import com.gazbert.bxbot.exchanges.RequestSigner.Encoding;
+import org.junit.Test;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Tests the Request Signer produces the same signatures as the JDK's Mac and MessageDigest.
+ *
+ * @author gazbert
+ */
+public class TestRequestSigner {
+
+    // RFC 4231 test case 2
+    private static final byte[] RFC_4231_KEY = "Jefe".getBytes(StandardCharsets.UTF_8);
+    private static final String RFC_4231_MESSAGE = "what do ya want for nothing?";
+    private static final String RFC_4231_HMAC_SHA256 =
+            "5bdcc146bf60754e6a042426089575c75a003f089d2739839dec58b964ec3843";
+
+    private static final byte[] SECRET = "my-secret-key".getBytes(StandardCharsets.UTF_8);
+
+    @Test
+    public void testHmacMatchesRfc4231TestVector() throws Exception {
+        final RequestSigner signer = RequestSigner.forHmac("HmacSHA256", RFC_4231_KEY);
+        assertEquals(RFC_4231_HMAC_SHA256, signer.sign(Encoding.LOWER_CASE_HEX, RFC_4231_MESSAGE));
+        assertEquals(RFC_4231_HMAC_SHA256.toUpperCase(), signer.sign(Encoding.UPPER_CASE_HEX, RFC_4231_MESSAGE));
+    }
+
+    @Test
+    public void testHmacIsBase64Encoded() throws Exception {
+        final RequestSigner signer = RequestSigner.forHmac("HmacSHA256", SECRET);
+        assertEquals(Base64.getEncoder().encodeToString(jdkHmac("HmacSHA256", SECRET, "GET/orders")),
+                signer.sign(Encoding.BASE64, "GET/orders"));
+    }
+
+    @Test
+    public void testMessagePartsAreSignedAsIfConcatenated() throws Exception {
+        final RequestSigner signer = RequestSigner.forHmac("HmacSHA384", SECRET);
+        assertEquals(signer.sign(Encoding.LOWER_CASE_HEX, "1234567890clientIdapiKey"),
+                signer.sign(Encoding.LOWER_CASE_HEX, "1234567890", "clientId", "apiKey"));
+    }
+
+    @Test
+    public void testNonAsciiMessageIsSignedAsUtf8() throws Exception {
+        final String message = "price=\u00a3100&note=\u20ac \ud83d\ude80 ok";
+        final RequestSigner signer = RequestSigner.forHmac("HmacSHA256", SECRET);
+        assertEquals(Base64.getEncoder().encodeToString(jdkHmac("HmacSHA256", SECRET, message)),
+                signer.sign(Encoding.BASE64, message));
+    }
+
+    @Test
+    public void testLargeMessageIsSigned() throws Exception {
+        final StringBuilder message = new StringBuilder();
+        for (int i = 0; i < 1000; i++) {
+            message.append("nonce=").append(i).append('&');
+        }
+        final RequestSigner signer = RequestSigner.forHmac("HmacSHA256", SECRET);
+        assertEquals(Base64.getEncoder().encodeToString(jdkHmac("HmacSHA256", SECRET, message.toString())),
+                signer.sign(Encoding.BASE64, message.toString()));
+    }
+
+    @Test
+    public void testHmacWithDigestMatchesKrakenStyleSignature() throws Exception {
+
+        final String path = "/0/private/Balance";
+        final String noncePrependedToPostData = "1483228800000nonce=1483228800000";
+
+        final MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+        final byte[] hash = sha256.digest(noncePrependedToPostData.getBytes(StandardCharsets.UTF_8));
+        final Mac mac = Mac.getInstance("HmacSHA512");
+        mac.init(new SecretKeySpec(SECRET, "HmacSHA512"));
+        mac.update(path.getBytes(StandardCharsets.UTF_8));
+        mac.update(hash);
+        final String expected = Base64.getEncoder().encodeToString(mac.doFinal());
+
+        final RequestSigner signer = RequestSigner.forHmacWithDigest("HmacSHA512", SECRET, "SHA-256");
+        assertEquals(expected, signer.signWithDigest(Encoding.BASE64, path, noncePrependedToPostData));
+    }
+
+    @Test
+    public void testDigest() throws Exception {
+        final RequestSigner signer = RequestSigner.forDigest("MD5");
+        assertEquals("900150983cd24fb0d6963f7d28e17f72", signer.digest(Encoding.LOWER_CASE_HEX, "abc"));
+        assertEquals("900150983CD24FB0D6963F7D28E17F72", signer.digest(Encoding.UPPER_CASE_HEX, "abc"));
+    }
+
+    @Test
+    public void testSignersOnManyThreadsProduceSameSignatures() throws Exception {
+
+        final RequestSigner signer = RequestSigner.forHmac("HmacSHA256", SECRET);
+        final ExecutorService executorService = Executors.newFixedThreadPool(8);
+        try {
+            final List<Future<Boolean>> results = new ArrayList<>();
+            for (int task = 0; task < 8; task++) {
+                final Callable<Boolean> signingTask = () -> {
+                    for (int i = 0; i < 500; i++) {
+                        final String message = "nonce=" + i + "&pair=XBTUSD";
+                        final String expected = Base64.getEncoder().encodeToString(
+                                jdkHmac("HmacSHA256", SECRET, message));
+                        if (!expected.equals(signer.sign(Encoding.BASE64, message))) {
+                            return false;
+                        }
+                    }
+                    return true;
+                };
+                results.add(executorService.submit(signingTask));
+            }
+            for (final Future<Boolean> result : results) {
+                assertEquals(true, result.get(10, TimeUnit.SECONDS));
+            }
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testSignWithoutHmacAlgorithmIsRejected() throws Exception {
+        RequestSigner.forDigest("MD5").sign(Encoding.LOWER_CASE_HEX, "abc");
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testSignWithDigestWithoutDigestAlgorithmIsRejected() throws Exception {
+        RequestSigner.forHmac("HmacSHA256", SECRET).signWithDigest(Encoding.BASE64, "/path", "abc");
+    }
+
+    // ------------------------------------------------------------------------------------------------
+    //  Private utils
+    // ------------------------------------------------------------------------------------------------
+
+    private static byte[] jdkHmac(String algorithm, byte[] secret, String message) throws Exception {
+        final Mac mac = Mac.getInstance(algorithm);
+        mac.init(new SecretKeySpec(secret, algorithm));
+        return mac.doFinal(message.getBytes(StandardCharsets.UTF_8));
+    }
+}
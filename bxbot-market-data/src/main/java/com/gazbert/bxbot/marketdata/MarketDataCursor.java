@@ -0,0 +1,221 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.marketdata;
+
+import java.nio.ByteBuffer;
+
+import static com.gazbert.bxbot.marketdata.MarketDataFile.BLOCK_HEADER_SIZE;
+import static com.gazbert.bxbot.marketdata.MarketDataFile.NULL_PRICE_DELTA;
+import static com.gazbert.bxbot.marketdata.MarketDataFile.NULL_VALUE;
+import static com.gazbert.bxbot.marketdata.MarketDataFile.TICKER_PRICE_FIELDS;
+
+/**
+ * <p>
+ * Steps through the rows of one or more memory-mapped market data files in order.
+ * </p>
+ * <p>
+ * The cursor reads each value straight out of the mapped file when it is asked for, so stepping through rows and
+ * reading them does not allocate. Prices, quantities and volumes are fixed-point longs at the scales of the files;
+ * missing values are {@link MarketDataFile#NULL_VALUE}.
+ * </p>
+ * <p>
+ * Instances are not thread safe; create a cursor per thread.
+ * </p>
+ *
+ * @author gazbert
+ * @since 1.2
+ */
+public final class MarketDataCursor {
+
+    private final MarketDataFileReader[] files;
+    private int fileIndex;
+    private int blockIndex = -1;
+    private int row = -1;
+
+    private ByteBuffer buffer;
+    private int depth;
+    private int blockRows;
+    private int priceWidth;
+    private long baseTimestamp;
+    private long basePrice;
+    private int dataOffset;
+
+    MarketDataCursor(MarketDataFileReader[] files) {
+        this.files = files;
+        if (files.length > 0) {
+            openFile(0);
+        }
+    }
+
+    /**
+     * Moves to the next row.
+     *
+     * @return true if there is a next row, false if the cursor is past the last row.
+     */
+    public boolean next() {
+        if (buffer == null) {
+            return false;
+        }
+        if (++row < blockRows) {
+            return true;
+        }
+        while (true) {
+            if (++blockIndex < files[fileIndex].getBlockCount()) {
+                openBlock();
+                row = 0;
+                return true;
+            }
+            if (fileIndex + 1 == files.length) {
+                buffer = null;
+                return false;
+            }
+            openFile(fileIndex + 1);
+        }
+    }
+
+    /**
+     * Returns the time of the current row.
+     *
+     * @return the timestamp in millis since the epoch.
+     */
+    public long getTimestamp() {
+        return baseTimestamp + buffer.getInt(dataOffset + 4 * row);
+    }
+
+    /**
+     * Returns the latest market price of the current row.
+     *
+     * @return the fixed-point price, or {@link MarketDataFile#NULL_VALUE} if it was not recorded.
+     */
+    public long getLastPrice() {
+        return getPrice(MarketDataFile.lastPriceColumn(blockRows));
+    }
+
+    /**
+     * Returns a Ticker price of the current row.
+     *
+     * @param field the field, one of the {@code MarketDataFile.TICKER_*} constants.
+     * @return the fixed-point price, or {@link MarketDataFile#NULL_VALUE} if it was not recorded.
+     */
+    public long getTickerPrice(int field) {
+        if (field < 0 || field >= TICKER_PRICE_FIELDS) {
+            throw new IndexOutOfBoundsException("Ticker field: " + field);
+        }
+        return getPrice(MarketDataFile.tickerPriceColumn(blockRows, priceWidth, field));
+    }
+
+    /**
+     * Returns the Ticker volume of the current row.
+     *
+     * @return the fixed-point volume, or {@link MarketDataFile#NULL_VALUE} if it was not recorded.
+     */
+    public long getTickerVolume() {
+        return buffer.getLong(dataOffset + MarketDataFile.tickerVolumeColumn(blockRows, priceWidth) + 8 * row);
+    }
+
+    public int getBidDepth() {
+        return buffer.get(dataOffset + MarketDataFile.bidDepthColumn(blockRows, priceWidth) + row);
+    }
+
+    public long getBidPrice(int level) {
+        checkLevel(level, getBidDepth());
+        return getPrice(MarketDataFile.bidPriceColumn(blockRows, priceWidth, level));
+    }
+
+    public long getBidQuantity(int level) {
+        checkLevel(level, getBidDepth());
+        return buffer.getLong(dataOffset + MarketDataFile.bidQuantityColumn(blockRows, priceWidth, level) + 8 * row);
+    }
+
+    public int getAskDepth() {
+        return buffer.get(dataOffset + MarketDataFile.askDepthColumn(blockRows, priceWidth) + row);
+    }
+
+    public long getAskPrice(int level) {
+        checkLevel(level, getAskDepth());
+        return getPrice(MarketDataFile.askPriceColumn(blockRows, priceWidth, level));
+    }
+
+    public long getAskQuantity(int level) {
+        checkLevel(level, getAskDepth());
+        return buffer.getLong(dataOffset + MarketDataFile.askQuantityColumn(blockRows, priceWidth, level) + 8 * row);
+    }
+
+    /**
+     * Returns the most order book levels per side of the current file.
+     *
+     * @return the depth.
+     */
+    public int getDepth() {
+        return depth;
+    }
+
+    public int getPriceScale() {
+        return files[fileIndex].getPriceScale();
+    }
+
+    public int getQuantityScale() {
+        return files[fileIndex].getQuantityScale();
+    }
+
+    public String getMarketId() {
+        return files[fileIndex].getMarketId();
+    }
+
+    // ------------------------------------------------------------------------
+    // Private utils
+    // ------------------------------------------------------------------------
+
+    private long getPrice(int column) {
+        if (priceWidth == 4) {
+            final int delta = buffer.getInt(dataOffset + column + 4 * row);
+            return delta == NULL_PRICE_DELTA ? NULL_VALUE : basePrice + delta;
+        }
+        return buffer.getLong(dataOffset + column + 8 * row);
+    }
+
+    private void openFile(int index) {
+        fileIndex = index;
+        blockIndex = -1;
+        blockRows = 0;
+        row = -1;
+        buffer = files[index].newView();
+        depth = files[index].getDepth();
+    }
+
+    private void openBlock() {
+        final int offset = files[fileIndex].getBlockOffset(blockIndex);
+        blockRows = buffer.getInt(offset);
+        priceWidth = buffer.getInt(offset + 4);
+        baseTimestamp = buffer.getLong(offset + 8);
+        basePrice = buffer.getLong(offset + 16);
+        dataOffset = offset + BLOCK_HEADER_SIZE;
+    }
+
+    private static void checkLevel(int level, int depth) {
+        if (level < 0 || level >= depth) {
+            throw new IndexOutOfBoundsException("Level: " + level + ", Depth: " + depth);
+        }
+    }
+}
@@ -0,0 +1,176 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.marketdata;
+
+import java.nio.ByteOrder;
+import java.nio.file.Path;
+import java.time.LocalDate;
+
+/**
+ * <p>
+ * The layout of the recorded market data files that backtests are replayed from.
+ * </p>
+ * <p>
+ * There is a file for each market on each exchange for each (UTC) day:
+ * {dataDirectory}/{exchangeId}/{marketId}/{yyyy-MM-dd}.bxmd - see {@link #getPath(Path, String, String, LocalDate)}.
+ * Markets with the same id on different exchanges are kept apart. Each row of a file is a snapshot of the market: the latest market price,
+ * the Ticker, and the top N levels of each side of the order book. Prices and quantities are fixed-point longs, i.e.
+ * the value scaled by 10^scale, using the scales in the file header. Missing values are {@link #NULL_VALUE}.
+ * </p>
+ * <p>
+ * The file is a 64 byte header followed by blocks of up to {@link #MAX_BLOCK_ROWS} rows. Each block is laid out
+ * column by column rather than row by row, with a 24 byte block header holding the row count, the price width, the
+ * base timestamp and the base price:
+ * </p>
+ * <ul>
+ * <li>Timestamps are stored as int deltas (in millis) from the block's base timestamp. A new block is started
+ * whenever a timestamp does not fit.</li>
+ * <li>Prices are stored as int deltas from the block's base price (its lowest price) when the block's price range
+ * fits in an int, and as longs otherwise.</li>
+ * <li>Quantities and the Ticker volume are stored as longs.</li>
+ * <li>The order book depth of each row is stored as a byte per side; levels past the depth are zero.</li>
+ * </ul>
+ * <p>
+ * All values are little-endian. The layout is fixed-width within a block, so a memory-mapped file can be read without
+ * decoding it first - see {@link MarketDataCursor}.
+ * </p>
+ *
+ * @author gazbert
+ * @since 1.2
+ */
+public final class MarketDataFile {
+
+    /**
+     * The file extension of the market data files.
+     */
+    public static final String FILE_EXTENSION = ".bxmd";
+
+    /**
+     * The value of a missing price, quantity or volume.
+     */
+    public static final long NULL_VALUE = Long.MIN_VALUE;
+
+    /**
+     * The most rows a block can hold.
+     */
+    public static final int MAX_BLOCK_ROWS = 1024;
+
+    /**
+     * The most order book levels per side a file can hold.
+     */
+    public static final int MAX_DEPTH = 100;
+
+    /**
+     * The Ticker price fields, in the order their columns are stored.
+     */
+    public static final int TICKER_LAST = 0;
+    public static final int TICKER_BID = 1;
+    public static final int TICKER_ASK = 2;
+    public static final int TICKER_LOW = 3;
+    public static final int TICKER_HIGH = 4;
+    public static final int TICKER_OPEN = 5;
+    public static final int TICKER_VWAP = 6;
+    static final int TICKER_PRICE_FIELDS = 7;
+
+    static final ByteOrder BYTE_ORDER = ByteOrder.LITTLE_ENDIAN;
+    static final int MAGIC = 0x444d5842; // "BXMD"
+    static final short VERSION = 1;
+    static final int HEADER_SIZE = 64;
+    static final int MAX_MARKET_ID_LENGTH = 48;
+    static final int BLOCK_HEADER_SIZE = 24;
+    static final int NULL_PRICE_DELTA = Integer.MIN_VALUE;
+
+    private MarketDataFile() {
+    }
+
+    /**
+     * Returns the path of the file for a market on a given day.
+     *
+     * @param dataDirectory the market data directory.
+     * @param exchangeId    the id of the exchange the market is traded on.
+     * @param marketId      the market id.
+     * @param date          the (UTC) day.
+     * @return the file path.
+     */
+    public static Path getPath(Path dataDirectory, String exchangeId, String marketId, LocalDate date) {
+        return getMarketDirectory(dataDirectory, exchangeId, marketId).resolve(date + FILE_EXTENSION);
+    }
+
+    /**
+     * Returns the directory holding a market's day files.
+     *
+     * @param dataDirectory the market data directory.
+     * @param exchangeId    the id of the exchange the market is traded on.
+     * @param marketId      the market id.
+     * @return the directory path.
+     */
+    public static Path getMarketDirectory(Path dataDirectory, String exchangeId, String marketId) {
+        return dataDirectory.resolve(exchangeId).resolve(marketId);
+    }
+
+    // ------------------------------------------------------------------------
+    // Block layout - the size of a block and the byte offset of each column from the start of its data, for a block
+    // of n rows holding prices w bytes wide
+    // ------------------------------------------------------------------------
+
+    static long blockSize(int n, int w, int depth) {
+        return BLOCK_HEADER_SIZE + (long) n * (14 + 8 * w + depth * (2 * w + 16));
+    }
+
+    static int lastPriceColumn(int n) {
+        return 4 * n;
+    }
+
+    static int tickerPriceColumn(int n, int w, int field) {
+        return 4 * n + w * n * (1 + field);
+    }
+
+    static int tickerVolumeColumn(int n, int w) {
+        return 4 * n + 8 * w * n;
+    }
+
+    static int bidDepthColumn(int n, int w) {
+        return 12 * n + 8 * w * n;
+    }
+
+    static int askDepthColumn(int n, int w) {
+        return 13 * n + 8 * w * n;
+    }
+
+    static int bidPriceColumn(int n, int w, int level) {
+        return 14 * n + 8 * w * n + (2 * w + 16) * n * level;
+    }
+
+    static int bidQuantityColumn(int n, int w, int level) {
+        return bidPriceColumn(n, w, level) + w * n;
+    }
+
+    static int askPriceColumn(int n, int w, int level) {
+        return bidPriceColumn(n, w, level) + w * n + 8 * n;
+    }
+
+    static int askQuantityColumn(int n, int w, int level) {
+        return bidPriceColumn(n, w, level) + 2 * w * n + 8 * n;
+    }
+}
@@ -0,0 +1,275 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.marketdata;
+
+import com.google.common.base.MoreObjects;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import static com.gazbert.bxbot.marketdata.MarketDataFile.BLOCK_HEADER_SIZE;
+import static com.gazbert.bxbot.marketdata.MarketDataFile.BYTE_ORDER;
+import static com.gazbert.bxbot.marketdata.MarketDataFile.HEADER_SIZE;
+import static com.gazbert.bxbot.marketdata.MarketDataFile.MAGIC;
+import static com.gazbert.bxbot.marketdata.MarketDataFile.MAX_BLOCK_ROWS;
+import static com.gazbert.bxbot.marketdata.MarketDataFile.MAX_MARKET_ID_LENGTH;
+import static com.gazbert.bxbot.marketdata.MarketDataFile.VERSION;
+
+/**
+ * <p>
+ * A market data file, memory-mapped read-only.
+ * </p>
+ * <p>
+ * Opening a file maps it and indexes its blocks; the rows are read in place through a {@link MarketDataCursor}. A
+ * partly written block at the end of the file (e.g. from a crash, or a file that is still being recorded to) is
+ * ignored.
+ * </p>
+ * <p>
+ * Instances are immutable and thread safe; each thread reads through its own cursor.
+ * </p>
+ *
+ * @author gazbert
+ * @since 1.2
+ */
+public final class MarketDataFileReader {
+
+    private final Path file;
+    private final Header header;
+    private final ByteBuffer buffer;
+    private final int[] blockOffsets;
+    private final long rowCount;
+
+    private MarketDataFileReader(Path file, Header header, ByteBuffer buffer, int[] blockOffsets, long rowCount) {
+        this.file = file;
+        this.header = header;
+        this.buffer = buffer;
+        this.blockOffsets = blockOffsets;
+        this.rowCount = rowCount;
+    }
+
+    /**
+     * Maps a market data file.
+     *
+     * @param file the file.
+     * @return the reader.
+     * @throws IOException if the file cannot be read or is not a market data file.
+     */
+    public static MarketDataFileReader open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            final Header header = readHeader(channel, file);
+            final long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Market data file is too big to map: " + file + " (" + size + " bytes)");
+            }
+
+            // The mapping stays valid after the channel is closed
+            final MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            final ByteBuffer buffer = mapped.order(BYTE_ORDER);
+
+            int[] blockOffsets = new int[16];
+            int blockCount = 0;
+            long rowCount = 0;
+            int offset = HEADER_SIZE;
+            while (offset + BLOCK_HEADER_SIZE <= size) {
+                final int blockRows = buffer.getInt(offset);
+                final int priceWidth = buffer.getInt(offset + 4);
+                if (!isValidBlock(blockRows, priceWidth)) {
+                    throw new IOException("Corrupt block at offset " + offset + " in market data file: " + file);
+                }
+                final long blockEnd = offset + MarketDataFile.blockSize(blockRows, priceWidth, header.depth);
+                if (blockEnd > size) {
+                    break;
+                }
+                if (blockCount == blockOffsets.length) {
+                    blockOffsets = Arrays.copyOf(blockOffsets, blockCount * 2);
+                }
+                blockOffsets[blockCount++] = offset;
+                rowCount += blockRows;
+                offset = (int) blockEnd;
+            }
+            return new MarketDataFileReader(file, header, buffer, Arrays.copyOf(blockOffsets, blockCount),
+                    rowCount);
+        }
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    public String getMarketId() {
+        return header.marketId;
+    }
+
+    /**
+     * Returns the most order book levels per side the file holds.
+     *
+     * @return the depth.
+     */
+    public int getDepth() {
+        return header.depth;
+    }
+
+    public int getPriceScale() {
+        return header.priceScale;
+    }
+
+    public int getQuantityScale() {
+        return header.quantityScale;
+    }
+
+    /**
+     * Returns the number of complete rows in the file.
+     *
+     * @return the row count.
+     */
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * Returns a cursor positioned before the first row of the file.
+     *
+     * @return a new cursor.
+     */
+    public MarketDataCursor cursor() {
+        return new MarketDataCursor(new MarketDataFileReader[]{this});
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                .add("file", file)
+                .add("header", header)
+                .add("blockCount", blockOffsets.length)
+                .add("rowCount", rowCount)
+                .toString();
+    }
+
+    int getBlockCount() {
+        return blockOffsets.length;
+    }
+
+    int getBlockOffset(int block) {
+        return blockOffsets[block];
+    }
+
+    /*
+     * Each cursor gets its own view of the mapping so that its reads do not share a position with other threads.
+     */
+    ByteBuffer newView() {
+        return buffer.duplicate().order(BYTE_ORDER);
+    }
+
+    // ------------------------------------------------------------------------
+    // File header and block scanning - shared with the writer for appending to existing files
+    // ------------------------------------------------------------------------
+
+    static Header readHeader(FileChannel channel, Path file) throws IOException {
+        final ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE).order(BYTE_ORDER);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, buffer.position()) < 0) {
+                throw new IOException("Market data file is truncated: " + file);
+            }
+        }
+        buffer.flip();
+        if (buffer.getInt() != MAGIC) {
+            throw new IOException("Not a market data file: " + file);
+        }
+        final short version = buffer.getShort();
+        if (version != VERSION) {
+            throw new IOException("Unsupported market data file version " + version + ": " + file);
+        }
+        final int depth = buffer.getShort();
+        final int priceScale = buffer.get();
+        final int quantityScale = buffer.get();
+        final int marketIdLength = buffer.getShort();
+        if (marketIdLength < 0 || marketIdLength > MAX_MARKET_ID_LENGTH) {
+            throw new IOException("Corrupt market data file header: " + file);
+        }
+        final byte[] marketIdBytes = new byte[marketIdLength];
+        buffer.get(marketIdBytes);
+        return new Header(new String(marketIdBytes, StandardCharsets.UTF_8), depth, priceScale, quantityScale);
+    }
+
+    static long endOfLastCompleteBlock(FileChannel channel, int depth) throws IOException {
+        final long size = channel.size();
+        final ByteBuffer blockHeader = ByteBuffer.allocate(8).order(BYTE_ORDER);
+        long offset = HEADER_SIZE;
+        while (offset + BLOCK_HEADER_SIZE <= size) {
+            blockHeader.clear();
+            while (blockHeader.hasRemaining()) {
+                channel.read(blockHeader, offset + blockHeader.position());
+            }
+            final int blockRows = blockHeader.getInt(0);
+            final int priceWidth = blockHeader.getInt(4);
+            if (!isValidBlock(blockRows, priceWidth)) {
+                break;
+            }
+            final long blockEnd = offset + MarketDataFile.blockSize(blockRows, priceWidth, depth);
+            if (blockEnd > size) {
+                break;
+            }
+            offset = blockEnd;
+        }
+        return offset;
+    }
+
+    private static boolean isValidBlock(int blockRows, int priceWidth) {
+        return blockRows > 0 && blockRows <= MAX_BLOCK_ROWS && (priceWidth == 4 || priceWidth == 8);
+    }
+
+    /*
+     * The file header.
+     */
+    static final class Header {
+
+        final String marketId;
+        final int depth;
+        final int priceScale;
+        final int quantityScale;
+
+        Header(String marketId, int depth, int priceScale, int quantityScale) {
+            this.marketId = marketId;
+            this.depth = depth;
+            this.priceScale = priceScale;
+            this.quantityScale = quantityScale;
+        }
+
+        @Override
+        public String toString() {
+            return MoreObjects.toStringHelper(this)
+                    .add("marketId", marketId)
+                    .add("depth", depth)
+                    .add("priceScale", priceScale)
+                    .add("quantityScale", quantityScale)
+                    .toString();
+        }
+    }
+}
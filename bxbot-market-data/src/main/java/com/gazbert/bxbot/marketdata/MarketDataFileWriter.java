@@ -0,0 +1,318 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.marketdata;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static com.gazbert.bxbot.marketdata.MarketDataFile.BYTE_ORDER;
+import static com.gazbert.bxbot.marketdata.MarketDataFile.HEADER_SIZE;
+import static com.gazbert.bxbot.marketdata.MarketDataFile.MAGIC;
+import static com.gazbert.bxbot.marketdata.MarketDataFile.MAX_BLOCK_ROWS;
+import static com.gazbert.bxbot.marketdata.MarketDataFile.MAX_DEPTH;
+import static com.gazbert.bxbot.marketdata.MarketDataFile.MAX_MARKET_ID_LENGTH;
+import static com.gazbert.bxbot.marketdata.MarketDataFile.NULL_PRICE_DELTA;
+import static com.gazbert.bxbot.marketdata.MarketDataFile.NULL_VALUE;
+import static com.gazbert.bxbot.marketdata.MarketDataFile.TICKER_PRICE_FIELDS;
+import static com.gazbert.bxbot.marketdata.MarketDataFile.VERSION;
+
+/**
+ * <p>
+ * Appends {@link MarketSnapshot}s to a market data file.
+ * </p>
+ * <p>
+ * Rows are buffered column by column and written a block at a time, when the block is full, when a timestamp will
+ * not fit the block's deltas, or on {@link #flush()}. If the file already exists, rows are appended to it after any
+ * partly written block at the end of it (e.g. from a crash) is truncated; its header must match this writer's.
+ * </p>
+ * <p>
+ * Instances are not thread safe.
+ * </p>
+ *
+ * @author gazbert
+ * @since 1.2
+ */
+public final class MarketDataFileWriter implements Closeable {
+
+    private final FileChannel channel;
+    private final int depth;
+    private final ByteBuffer blockBuffer;
+
+    private final long[] timestamps = new long[MAX_BLOCK_ROWS];
+    private final long[] lastPrices = new long[MAX_BLOCK_ROWS];
+    private final long[][] tickerPrices = new long[TICKER_PRICE_FIELDS][MAX_BLOCK_ROWS];
+    private final long[] tickerVolumes = new long[MAX_BLOCK_ROWS];
+    private final byte[] bidDepths = new byte[MAX_BLOCK_ROWS];
+    private final byte[] askDepths = new byte[MAX_BLOCK_ROWS];
+    private final long[][] bidPrices;
+    private final long[][] bidQuantities;
+    private final long[][] askPrices;
+    private final long[][] askQuantities;
+
+    private int rowCount;
+    private long baseTimestamp;
+
+    /**
+     * Opens a writer, creating the file and its parent directories if they do not exist.
+     *
+     * @param file          the file.
+     * @param marketId      the market id.
+     * @param depth         the most order book levels per side to write.
+     * @param priceScale    the number of decimal places the fixed-point prices are held to.
+     * @param quantityScale the number of decimal places the fixed-point quantities are held to.
+     * @throws IOException if the file cannot be opened, or it exists with a different header.
+     */
+    public MarketDataFileWriter(Path file, String marketId, int depth, int priceScale, int quantityScale)
+            throws IOException {
+
+        final byte[] marketIdBytes = marketId.getBytes(StandardCharsets.UTF_8);
+        if (marketIdBytes.length > MAX_MARKET_ID_LENGTH) {
+            throw new IllegalArgumentException("Market id is longer than " + MAX_MARKET_ID_LENGTH + " bytes: "
+                    + marketId);
+        }
+        if (depth < 0 || depth > MAX_DEPTH) {
+            throw new IllegalArgumentException("Depth must be between 0 and " + MAX_DEPTH + ": " + depth);
+        }
+
+        this.depth = depth;
+        bidPrices = new long[depth][MAX_BLOCK_ROWS];
+        bidQuantities = new long[depth][MAX_BLOCK_ROWS];
+        askPrices = new long[depth][MAX_BLOCK_ROWS];
+        askQuantities = new long[depth][MAX_BLOCK_ROWS];
+        blockBuffer = ByteBuffer.allocate((int) MarketDataFile.blockSize(MAX_BLOCK_ROWS, 8, depth))
+                .order(BYTE_ORDER);
+
+        final Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        try {
+            if (channel.size() == 0) {
+                writeHeader(marketIdBytes, priceScale, quantityScale);
+            } else {
+                final MarketDataFileReader.Header header = MarketDataFileReader.readHeader(channel, file);
+                if (!header.marketId.equals(marketId) || header.depth != depth || header.priceScale != priceScale
+                        || header.quantityScale != quantityScale) {
+                    throw new IOException("Cannot append to " + file + " - it was written with a different header: "
+                            + header);
+                }
+                channel.truncate(MarketDataFileReader.endOfLastCompleteBlock(channel, depth));
+            }
+            channel.position(channel.size());
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Appends a row.
+     *
+     * @param snapshot the row to append. Order book levels past this writer's depth are not written.
+     * @throws IOException if a full block cannot be written.
+     */
+    public void append(MarketSnapshot snapshot) throws IOException {
+
+        if (rowCount == MAX_BLOCK_ROWS || (rowCount > 0 && !fitsBlock(snapshot.getTimestamp()))) {
+            flush();
+        }
+        if (rowCount == 0) {
+            baseTimestamp = snapshot.getTimestamp();
+        }
+
+        final int row = rowCount;
+        timestamps[row] = snapshot.getTimestamp();
+        lastPrices[row] = snapshot.getLastPrice();
+        for (int field = 0; field < TICKER_PRICE_FIELDS; field++) {
+            tickerPrices[field][row] = snapshot.getTickerPrice(field);
+        }
+        tickerVolumes[row] = snapshot.getTickerVolume();
+
+        final int rowBidDepth = Math.min(depth, snapshot.getBidDepth());
+        for (int level = 0; level < rowBidDepth; level++) {
+            bidPrices[level][row] = snapshot.getBidPrice(level);
+            bidQuantities[level][row] = snapshot.getBidQuantity(level);
+        }
+        bidDepths[row] = (byte) rowBidDepth;
+
+        final int rowAskDepth = Math.min(depth, snapshot.getAskDepth());
+        for (int level = 0; level < rowAskDepth; level++) {
+            askPrices[level][row] = snapshot.getAskPrice(level);
+            askQuantities[level][row] = snapshot.getAskQuantity(level);
+        }
+        askDepths[row] = (byte) rowAskDepth;
+
+        rowCount++;
+    }
+
+    /**
+     * Writes the buffered rows to the file as a block.
+     *
+     * @throws IOException if the block cannot be written.
+     */
+    public void flush() throws IOException {
+
+        if (rowCount == 0) {
+            return;
+        }
+
+        final int n = rowCount;
+
+        // Prices are written as int deltas from the lowest price in the block if they all fit, longs if not
+        long minPrice = Long.MAX_VALUE;
+        long maxPrice = Long.MIN_VALUE;
+        for (int row = 0; row < n; row++) {
+            if (lastPrices[row] != NULL_VALUE) {
+                minPrice = Math.min(minPrice, lastPrices[row]);
+                maxPrice = Math.max(maxPrice, lastPrices[row]);
+            }
+            for (int field = 0; field < TICKER_PRICE_FIELDS; field++) {
+                if (tickerPrices[field][row] != NULL_VALUE) {
+                    minPrice = Math.min(minPrice, tickerPrices[field][row]);
+                    maxPrice = Math.max(maxPrice, tickerPrices[field][row]);
+                }
+            }
+            for (int level = 0; level < bidDepths[row]; level++) {
+                minPrice = Math.min(minPrice, bidPrices[level][row]);
+                maxPrice = Math.max(maxPrice, bidPrices[level][row]);
+            }
+            for (int level = 0; level < askDepths[row]; level++) {
+                minPrice = Math.min(minPrice, askPrices[level][row]);
+                maxPrice = Math.max(maxPrice, askPrices[level][row]);
+            }
+        }
+        final boolean narrow = minPrice > maxPrice
+                || (minPrice >= 0 && maxPrice - minPrice < Integer.MAX_VALUE);
+        final int priceWidth = narrow ? 4 : 8;
+        final long basePrice = narrow && minPrice <= maxPrice ? minPrice : 0L;
+
+        final ByteBuffer buffer = blockBuffer;
+        buffer.clear();
+        buffer.putInt(n);
+        buffer.putInt(priceWidth);
+        buffer.putLong(baseTimestamp);
+        buffer.putLong(basePrice);
+
+        for (int row = 0; row < n; row++) {
+            buffer.putInt((int) (timestamps[row] - baseTimestamp));
+        }
+        putPrices(buffer, lastPrices, n, priceWidth, basePrice);
+        for (int field = 0; field < TICKER_PRICE_FIELDS; field++) {
+            putPrices(buffer, tickerPrices[field], n, priceWidth, basePrice);
+        }
+        for (int row = 0; row < n; row++) {
+            buffer.putLong(tickerVolumes[row]);
+        }
+        buffer.put(bidDepths, 0, n);
+        buffer.put(askDepths, 0, n);
+        for (int level = 0; level < depth; level++) {
+            putLevelPrices(buffer, bidPrices[level], bidDepths, level, n, priceWidth, basePrice);
+            putLevelQuantities(buffer, bidQuantities[level], bidDepths, level, n);
+            putLevelPrices(buffer, askPrices[level], askDepths, level, n, priceWidth, basePrice);
+            putLevelQuantities(buffer, askQuantities[level], askDepths, level, n);
+        }
+
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        rowCount = 0;
+    }
+
+    /**
+     * Flushes the buffered rows and closes the file.
+     *
+     * @throws IOException if the rows cannot be written.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+            channel.force(false);
+        } finally {
+            channel.close();
+        }
+    }
+
+    // ------------------------------------------------------------------------
+    // Private utils
+    // ------------------------------------------------------------------------
+
+    private void writeHeader(byte[] marketIdBytes, int priceScale, int quantityScale) throws IOException {
+        final ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(BYTE_ORDER);
+        header.putInt(MAGIC);
+        header.putShort(VERSION);
+        header.putShort((short) depth);
+        header.put((byte) priceScale);
+        header.put((byte) quantityScale);
+        header.putShort((short) marketIdBytes.length);
+        header.put(marketIdBytes);
+        header.clear();
+        while (header.hasRemaining()) {
+            channel.write(header);
+        }
+    }
+
+    private boolean fitsBlock(long timestamp) {
+        final long timestampDelta = timestamp - baseTimestamp;
+        return timestampDelta >= Integer.MIN_VALUE && timestampDelta <= Integer.MAX_VALUE;
+    }
+
+    private static void putPrices(ByteBuffer buffer, long[] prices, int n, int priceWidth, long basePrice) {
+        for (int row = 0; row < n; row++) {
+            final long price = prices[row];
+            if (priceWidth == 4) {
+                buffer.putInt(price == NULL_VALUE ? NULL_PRICE_DELTA : (int) (price - basePrice));
+            } else {
+                buffer.putLong(price);
+            }
+        }
+    }
+
+    private static void putLevelPrices(ByteBuffer buffer, long[] prices, byte[] depths, int level, int n,
+                                       int priceWidth, long basePrice) {
+        for (int row = 0; row < n; row++) {
+            final long price = level < depths[row] ? prices[row] - basePrice : 0L;
+            if (priceWidth == 4) {
+                buffer.putInt((int) price);
+            } else {
+                buffer.putLong(price);
+            }
+        }
+    }
+
+    private static void putLevelQuantities(ByteBuffer buffer, long[] quantities, byte[] depths, int level, int n) {
+        for (int row = 0; row < n; row++) {
+            buffer.putLong(level < depths[row] ? quantities[row] : 0L);
+        }
+    }
+}
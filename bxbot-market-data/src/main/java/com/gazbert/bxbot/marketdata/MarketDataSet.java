@@ -0,0 +1,195 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.marketdata;
+
+import com.google.common.base.MoreObjects;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * <p>
+ * The recorded market data of a market over a range of days: its day files, memory-mapped and in date order.
+ * </p>
+ * <p>
+ * A data set is read-only once opened, so a single instance can be shared by many backtests running at the same time;
+ * each backtest steps through it with its own {@link #cursor()}.
+ * </p>
+ *
+ * @author gazbert
+ * @since 1.2
+ */
+public final class MarketDataSet {
+
+    private final String marketId;
+    private final MarketDataFileReader[] files;
+
+    private MarketDataSet(String marketId, MarketDataFileReader[] files) {
+        this.marketId = marketId;
+        this.files = files;
+    }
+
+    /**
+     * Opens all the recorded days of a market.
+     *
+     * @param dataDirectory the market data directory.
+     * @param exchangeId    the id of the exchange the market was recorded on.
+     * @param marketId      the market id.
+     * @return the data set.
+     * @throws IOException if the files cannot be read, or there are none.
+     */
+    public static MarketDataSet open(Path dataDirectory, String exchangeId, String marketId) throws IOException {
+        return open(dataDirectory, exchangeId, marketId, LocalDate.MIN, LocalDate.MAX);
+    }
+
+    /**
+     * Opens the recorded days of a market between two dates.
+     *
+     * @param dataDirectory the market data directory.
+     * @param exchangeId    the id of the exchange the market was recorded on.
+     * @param marketId      the market id.
+     * @param from          the first day, inclusive.
+     * @param to            the last day, inclusive.
+     * @return the data set.
+     * @throws IOException if the files cannot be read, or there are none.
+     */
+    public static MarketDataSet open(Path dataDirectory, String exchangeId, String marketId, LocalDate from,
+                                     LocalDate to) throws IOException {
+
+        final Path marketDirectory = MarketDataFile.getMarketDirectory(dataDirectory, exchangeId, marketId);
+        final List<LocalDate> days = new ArrayList<>();
+        if (Files.isDirectory(marketDirectory)) {
+            try (DirectoryStream<Path> dayFiles = Files.newDirectoryStream(marketDirectory,
+                    "*" + MarketDataFile.FILE_EXTENSION)) {
+                for (final Path dayFile : dayFiles) {
+                    final String fileName = dayFile.getFileName().toString();
+                    try {
+                        final LocalDate day = LocalDate.parse(fileName.substring(0,
+                                fileName.length() - MarketDataFile.FILE_EXTENSION.length()));
+                        if (!day.isBefore(from) && !day.isAfter(to)) {
+                            days.add(day);
+                        }
+                    } catch (DateTimeParseException e) {
+                        // not a day file - skip it
+                    }
+                }
+            }
+        }
+        if (days.isEmpty()) {
+            throw new IOException("No market data for market " + marketId + " on exchange " + exchangeId
+                    + " between " + from + " and " + to
+                    + " in " + marketDirectory);
+        }
+        Collections.sort(days);
+
+        final MarketDataFileReader[] files = new MarketDataFileReader[days.size()];
+        for (int i = 0; i < files.length; i++) {
+            files[i] = MarketDataFileReader.open(MarketDataFile.getPath(dataDirectory, exchangeId, marketId,
+                    days.get(i)));
+            if (!files[i].getMarketId().equals(marketId)) {
+                throw new IOException("Market data file " + files[i].getFile() + " is for market "
+                        + files[i].getMarketId() + ", not " + marketId);
+            }
+            if (i > 0 && (files[i].getPriceScale() != files[0].getPriceScale()
+                    || files[i].getQuantityScale() != files[0].getQuantityScale())) {
+                throw new IOException("Market data file " + files[i].getFile()
+                        + " was recorded at different scales to " + files[0].getFile());
+            }
+        }
+        return new MarketDataSet(marketId, files);
+    }
+
+    /**
+     * Opens a data set from individual files, in the order given.
+     *
+     * @param files the files.
+     * @return the data set.
+     * @throws IOException if the files cannot be read, or are for different markets or scales.
+     */
+    public static MarketDataSet of(Path... files) throws IOException {
+        if (files.length == 0) {
+            throw new IllegalArgumentException("At least one market data file is required");
+        }
+        final MarketDataFileReader[] readers = new MarketDataFileReader[files.length];
+        for (int i = 0; i < files.length; i++) {
+            readers[i] = MarketDataFileReader.open(files[i]);
+            if (i > 0 && (!readers[i].getMarketId().equals(readers[0].getMarketId())
+                    || readers[i].getPriceScale() != readers[0].getPriceScale()
+                    || readers[i].getQuantityScale() != readers[0].getQuantityScale())) {
+                throw new IOException("Market data file " + files[i] + " does not match " + files[0]);
+            }
+        }
+        return new MarketDataSet(readers[0].getMarketId(), readers);
+    }
+
+    public String getMarketId() {
+        return marketId;
+    }
+
+    public int getPriceScale() {
+        return files[0].getPriceScale();
+    }
+
+    public int getQuantityScale() {
+        return files[0].getQuantityScale();
+    }
+
+    /**
+     * Returns the number of rows across all the files.
+     *
+     * @return the row count.
+     */
+    public long getRowCount() {
+        long rowCount = 0;
+        for (final MarketDataFileReader file : files) {
+            rowCount += file.getRowCount();
+        }
+        return rowCount;
+    }
+
+    /**
+     * Returns a cursor positioned before the first row of the first day.
+     *
+     * @return a new cursor.
+     */
+    public MarketDataCursor cursor() {
+        return new MarketDataCursor(files);
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                .add("marketId", marketId)
+                .add("fileCount", files.length)
+                .add("rowCount", getRowCount())
+                .toString();
+    }
+}
@@ -0,0 +1,206 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.marketdata;
+
+import java.util.Arrays;
+
+import static com.gazbert.bxbot.marketdata.MarketDataFile.MAX_DEPTH;
+import static com.gazbert.bxbot.marketdata.MarketDataFile.NULL_VALUE;
+import static com.gazbert.bxbot.marketdata.MarketDataFile.TICKER_PRICE_FIELDS;
+
+/**
+ * <p>
+ * A row of a market data file: the state of a market at a point in time, held as fixed-point longs.
+ * </p>
+ * <p>
+ * A snapshot is a mutable holder that is reused for each row appended to a {@link MarketDataFileWriter}. Values that
+ * have not been set are {@link MarketDataFile#NULL_VALUE}. The order book is capped at the depth the snapshot was
+ * created with; levels added past it are ignored.
+ * </p>
+ * <p>
+ * Instances are not thread safe.
+ * </p>
+ *
+ * @author gazbert
+ * @since 1.2
+ */
+public final class MarketSnapshot {
+
+    private final int depth;
+
+    private long timestamp;
+    private long lastPrice = NULL_VALUE;
+    private final long[] tickerPrices = new long[TICKER_PRICE_FIELDS];
+    private long tickerVolume = NULL_VALUE;
+
+    private final long[] bidPrices;
+    private final long[] bidQuantities;
+    private int bidDepth;
+
+    private final long[] askPrices;
+    private final long[] askQuantities;
+    private int askDepth;
+
+    /**
+     * Creates an empty snapshot.
+     *
+     * @param depth the most order book levels to hold per side.
+     */
+    public MarketSnapshot(int depth) {
+        if (depth < 0 || depth > MAX_DEPTH) {
+            throw new IllegalArgumentException("Depth must be between 0 and " + MAX_DEPTH + ": " + depth);
+        }
+        this.depth = depth;
+        bidPrices = new long[depth];
+        bidQuantities = new long[depth];
+        askPrices = new long[depth];
+        askQuantities = new long[depth];
+        Arrays.fill(tickerPrices, NULL_VALUE);
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public void setTimestamp(long timestamp) {
+        this.timestamp = timestamp;
+    }
+
+    public long getLastPrice() {
+        return lastPrice;
+    }
+
+    public void setLastPrice(long lastPrice) {
+        this.lastPrice = lastPrice;
+    }
+
+    /**
+     * Returns a Ticker price.
+     *
+     * @param field the field, one of the {@code MarketDataFile.TICKER_*} constants.
+     * @return the fixed-point price, or {@link MarketDataFile#NULL_VALUE} if not set.
+     */
+    public long getTickerPrice(int field) {
+        return tickerPrices[field];
+    }
+
+    /**
+     * Sets a Ticker price.
+     *
+     * @param field the field, one of the {@code MarketDataFile.TICKER_*} constants.
+     * @param price the fixed-point price, or {@link MarketDataFile#NULL_VALUE} if the exchange did not supply it.
+     */
+    public void setTickerPrice(int field, long price) {
+        tickerPrices[field] = price;
+    }
+
+    public long getTickerVolume() {
+        return tickerVolume;
+    }
+
+    public void setTickerVolume(long tickerVolume) {
+        this.tickerVolume = tickerVolume;
+    }
+
+    /**
+     * Removes all the order book levels.
+     */
+    public void clearBook() {
+        bidDepth = 0;
+        askDepth = 0;
+    }
+
+    /**
+     * Adds the next bid level, best (highest) price first.
+     *
+     * @param price    the fixed-point price.
+     * @param quantity the fixed-point quantity.
+     * @return true if the level was added, false if the snapshot already holds its full depth of bids.
+     */
+    public boolean addBid(long price, long quantity) {
+        if (bidDepth == depth) {
+            return false;
+        }
+        bidPrices[bidDepth] = price;
+        bidQuantities[bidDepth] = quantity;
+        bidDepth++;
+        return true;
+    }
+
+    /**
+     * Adds the next ask level, best (lowest) price first.
+     *
+     * @param price    the fixed-point price.
+     * @param quantity the fixed-point quantity.
+     * @return true if the level was added, false if the snapshot already holds its full depth of asks.
+     */
+    public boolean addAsk(long price, long quantity) {
+        if (askDepth == depth) {
+            return false;
+        }
+        askPrices[askDepth] = price;
+        askQuantities[askDepth] = quantity;
+        askDepth++;
+        return true;
+    }
+
+    public int getBidDepth() {
+        return bidDepth;
+    }
+
+    public long getBidPrice(int level) {
+        return bidPrices[level];
+    }
+
+    public long getBidQuantity(int level) {
+        return bidQuantities[level];
+    }
+
+    public int getAskDepth() {
+        return askDepth;
+    }
+
+    public long getAskPrice(int level) {
+        return askPrices[level];
+    }
+
+    public long getAskQuantity(int level) {
+        return askQuantities[level];
+    }
+
+    /**
+     * Resets the snapshot to empty.
+     */
+    public void clear() {
+        timestamp = 0;
+        lastPrice = NULL_VALUE;
+        Arrays.fill(tickerPrices, NULL_VALUE);
+        tickerVolume = NULL_VALUE;
+        clearBook();
+    }
+}
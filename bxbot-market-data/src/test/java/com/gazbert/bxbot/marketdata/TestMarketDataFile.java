@@ -0,0 +1,267 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.marketdata;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+
+import static com.gazbert.bxbot.marketdata.MarketDataFile.NULL_VALUE;
+import static com.gazbert.bxbot.marketdata.MarketDataFile.TICKER_BID;
+import static com.gazbert.bxbot.marketdata.MarketDataFile.TICKER_HIGH;
+import static com.gazbert.bxbot.marketdata.MarketDataFile.TICKER_LAST;
+import static com.gazbert.bxbot.marketdata.MarketDataFile.TICKER_LOW;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests market data files are written and read back as expected.
+ *
+ * @author gazbert
+ */
+public class TestMarketDataFile {
+
+    private static final String EXCHANGE_ID = "bitstamp";
+    private static final String OTHER_EXCHANGE_ID = "gdax";
+    private static final String MARKET_ID = "btcusd";
+    private static final int DEPTH = 2;
+    private static final int PRICE_SCALE = 2;
+    private static final int QUANTITY_SCALE = 8;
+    private static final long TIMESTAMP = 1496275200000L; // 2017-06-01T00:00:00Z
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testRowsAreReadBackAsWritten() throws Exception {
+
+        final Path file = folder.getRoot().toPath().resolve("rows.bxmd");
+        final MarketSnapshot snapshot = new MarketSnapshot(DEPTH);
+        try (MarketDataFileWriter writer = new MarketDataFileWriter(file, MARKET_ID, DEPTH, PRICE_SCALE,
+                QUANTITY_SCALE)) {
+
+            snapshot.setTimestamp(TIMESTAMP);
+            snapshot.setLastPrice(650000);
+            snapshot.setTickerPrice(TICKER_LAST, 650000);
+            snapshot.setTickerPrice(TICKER_LOW, 640000);
+            snapshot.setTickerPrice(TICKER_HIGH, 660000);
+            snapshot.setTickerVolume(123456789L);
+            snapshot.addBid(649900, 50000000L);
+            snapshot.addBid(649800, 150000000L);
+            snapshot.addAsk(650100, 25000000L);
+            writer.append(snapshot);
+
+            snapshot.clear();
+            snapshot.setTimestamp(TIMESTAMP + 500);
+            snapshot.addAsk(650200, 10000000L);
+            writer.append(snapshot);
+        }
+
+        final MarketDataFileReader reader = MarketDataFileReader.open(file);
+        assertEquals(MARKET_ID, reader.getMarketId());
+        assertEquals(DEPTH, reader.getDepth());
+        assertEquals(PRICE_SCALE, reader.getPriceScale());
+        assertEquals(QUANTITY_SCALE, reader.getQuantityScale());
+        assertEquals(2, reader.getRowCount());
+
+        final MarketDataCursor cursor = reader.cursor();
+        assertTrue(cursor.next());
+        assertEquals(TIMESTAMP, cursor.getTimestamp());
+        assertEquals(650000, cursor.getLastPrice());
+        assertEquals(650000, cursor.getTickerPrice(TICKER_LAST));
+        assertEquals(NULL_VALUE, cursor.getTickerPrice(TICKER_BID));
+        assertEquals(640000, cursor.getTickerPrice(TICKER_LOW));
+        assertEquals(660000, cursor.getTickerPrice(TICKER_HIGH));
+        assertEquals(123456789L, cursor.getTickerVolume());
+        assertEquals(2, cursor.getBidDepth());
+        assertEquals(649900, cursor.getBidPrice(0));
+        assertEquals(50000000L, cursor.getBidQuantity(0));
+        assertEquals(649800, cursor.getBidPrice(1));
+        assertEquals(150000000L, cursor.getBidQuantity(1));
+        assertEquals(1, cursor.getAskDepth());
+        assertEquals(650100, cursor.getAskPrice(0));
+        assertEquals(25000000L, cursor.getAskQuantity(0));
+
+        assertTrue(cursor.next());
+        assertEquals(TIMESTAMP + 500, cursor.getTimestamp());
+        assertEquals(NULL_VALUE, cursor.getLastPrice());
+        assertEquals(NULL_VALUE, cursor.getTickerVolume());
+        assertEquals(0, cursor.getBidDepth());
+        assertEquals(1, cursor.getAskDepth());
+        assertEquals(650200, cursor.getAskPrice(0));
+
+        assertFalse(cursor.next());
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testReadingPastTheBookDepthIsRejected() throws Exception {
+
+        final Path file = folder.getRoot().toPath().resolve("depth.bxmd");
+        writeRows(file, TIMESTAMP, 1, 650000);
+
+        final MarketDataCursor cursor = MarketDataFileReader.open(file).cursor();
+        assertTrue(cursor.next());
+        cursor.getBidPrice(1);
+    }
+
+    @Test
+    public void testFullBlocksRollOverToNewBlocks() throws Exception {
+
+        final Path file = folder.getRoot().toPath().resolve("blocks.bxmd");
+        final int rowCount = MarketDataFile.MAX_BLOCK_ROWS * 2 + 5;
+        writeRows(file, TIMESTAMP, rowCount, 650000);
+
+        final MarketDataFileReader reader = MarketDataFileReader.open(file);
+        assertEquals(3, reader.getBlockCount());
+        assertEquals(rowCount, reader.getRowCount());
+
+        final MarketDataCursor cursor = reader.cursor();
+        for (int row = 0; row < rowCount; row++) {
+            assertTrue(cursor.next());
+            assertEquals(TIMESTAMP + row * 1000L, cursor.getTimestamp());
+            assertEquals(650000 + row, cursor.getLastPrice());
+            assertEquals(650000 + row - 1, cursor.getBidPrice(0));
+        }
+        assertFalse(cursor.next());
+    }
+
+    @Test
+    public void testPriceRangesTooWideForIntDeltasAreStoredInFull() throws Exception {
+
+        // 6000.00000000 to 7000.00000000 at a price scale of 8 does not fit in an int
+        final Path file = folder.getRoot().toPath().resolve("wide.bxmd");
+        final MarketSnapshot snapshot = new MarketSnapshot(DEPTH);
+        try (MarketDataFileWriter writer = new MarketDataFileWriter(file, MARKET_ID, DEPTH, 8, 8)) {
+            snapshot.setTimestamp(TIMESTAMP);
+            snapshot.setLastPrice(650000000000L);
+            snapshot.setTickerPrice(TICKER_LOW, 600000000000L);
+            snapshot.setTickerPrice(TICKER_HIGH, 700000000000L);
+            snapshot.addBid(649999000000L, 1L);
+            writer.append(snapshot);
+        }
+
+        final MarketDataCursor cursor = MarketDataFileReader.open(file).cursor();
+        assertTrue(cursor.next());
+        assertEquals(650000000000L, cursor.getLastPrice());
+        assertEquals(600000000000L, cursor.getTickerPrice(TICKER_LOW));
+        assertEquals(700000000000L, cursor.getTickerPrice(TICKER_HIGH));
+        assertEquals(NULL_VALUE, cursor.getTickerPrice(TICKER_BID));
+        assertEquals(649999000000L, cursor.getBidPrice(0));
+    }
+
+    @Test
+    public void testRowsAreAppendedAfterAPartlyWrittenBlockIsTruncated() throws Exception {
+
+        final Path file = folder.getRoot().toPath().resolve("append.bxmd");
+        writeRows(file, TIMESTAMP, 3, 650000);
+
+        // a block cut off part way through its header, e.g. by a crash
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.APPEND)) {
+            channel.write(ByteBuffer.wrap(new byte[]{1, 0, 0, 0, 4, 0}));
+        }
+        assertEquals(3, MarketDataFileReader.open(file).getRowCount());
+
+        writeRows(file, TIMESTAMP + 3000, 2, 650003);
+
+        final MarketDataFileReader reader = MarketDataFileReader.open(file);
+        assertEquals(5, reader.getRowCount());
+        final MarketDataCursor cursor = reader.cursor();
+        for (int row = 0; row < 5; row++) {
+            assertTrue(cursor.next());
+            assertEquals(TIMESTAMP + row * 1000L, cursor.getTimestamp());
+            assertEquals(650000 + row, cursor.getLastPrice());
+        }
+        assertFalse(cursor.next());
+    }
+
+    @Test(expected = IOException.class)
+    public void testAppendingWithADifferentHeaderIsRejected() throws Exception {
+
+        final Path file = folder.getRoot().toPath().resolve("header.bxmd");
+        writeRows(file, TIMESTAMP, 1, 650000);
+        new MarketDataFileWriter(file, MARKET_ID, DEPTH, PRICE_SCALE + 1, QUANTITY_SCALE).close();
+    }
+
+    @Test
+    public void testDataSetReadsTheDaysInTheRangeInDateOrder() throws Exception {
+
+        final Path dataDirectory = folder.getRoot().toPath();
+        final LocalDate firstDay = LocalDate.of(2017, 6, 1);
+        writeRows(MarketDataFile.getPath(dataDirectory, EXCHANGE_ID, MARKET_ID, firstDay.plusDays(2)), TIMESTAMP + 2000, 1, 3);
+        writeRows(MarketDataFile.getPath(dataDirectory, EXCHANGE_ID, MARKET_ID, firstDay.plusDays(1)), TIMESTAMP + 1000, 1, 2);
+        writeRows(MarketDataFile.getPath(dataDirectory, EXCHANGE_ID, MARKET_ID, firstDay), TIMESTAMP, 1, 1);
+
+        // the same market recorded on another exchange is kept apart
+        writeRows(MarketDataFile.getPath(dataDirectory, OTHER_EXCHANGE_ID, MARKET_ID, firstDay), TIMESTAMP, 1, 9);
+
+        final MarketDataSet allDays = MarketDataSet.open(dataDirectory, EXCHANGE_ID, MARKET_ID);
+        assertEquals(MARKET_ID, allDays.getMarketId());
+        assertEquals(3, allDays.getRowCount());
+        final MarketDataCursor cursor = allDays.cursor();
+        for (int day = 1; day <= 3; day++) {
+            assertTrue(cursor.next());
+            assertEquals(day, cursor.getLastPrice());
+        }
+        assertFalse(cursor.next());
+
+        final MarketDataSet lastTwoDays = MarketDataSet.open(dataDirectory, EXCHANGE_ID, MARKET_ID,
+                firstDay.plusDays(1), firstDay.plusDays(5));
+        assertEquals(2, lastTwoDays.getRowCount());
+        final MarketDataCursor lastTwoDaysCursor = lastTwoDays.cursor();
+        assertTrue(lastTwoDaysCursor.next());
+        assertEquals(2, lastTwoDaysCursor.getLastPrice());
+    }
+
+    @Test(expected = IOException.class)
+    public void testDataSetWithNoFilesIsRejected() throws Exception {
+        MarketDataSet.open(folder.getRoot().toPath(), EXCHANGE_ID, MARKET_ID);
+    }
+
+    // ------------------------------------------------------------------------
+    // Private utils
+    // ------------------------------------------------------------------------
+
+    private static void writeRows(Path file, long firstTimestamp, int rowCount, long firstPrice) throws IOException {
+        final MarketSnapshot snapshot = new MarketSnapshot(DEPTH);
+        try (MarketDataFileWriter writer = new MarketDataFileWriter(file, MARKET_ID, DEPTH, PRICE_SCALE,
+                QUANTITY_SCALE)) {
+            for (int row = 0; row < rowCount; row++) {
+                snapshot.clear();
+                snapshot.setTimestamp(firstTimestamp + row * 1000L);
+                snapshot.setLastPrice(firstPrice + row);
+                snapshot.addBid(firstPrice + row - 1, 100000000L);
+                snapshot.addAsk(firstPrice + row + 1, 100000000L);
+                writer.append(snapshot);
+            }
+        }
+    }
+}
@@ -24,14 +24,28 @@ package com.gazbert.bxbot.repository;
 
 import com.gazbert.bxbot.domain.exchange.ExchangeConfig;
 
+import java.util.List;
+
 /**
  * The Exchange configuration repository.
+ * <p>
+ * BX-bot can trade on more than one Exchange; the first Exchange in the config is the default one used by Markets
+ * that don't reference an Exchange.
  *
  * @author gazbert
  */
 public interface ExchangeConfigRepository {
 
+    List<ExchangeConfig> findAll();
+
+    /**
+     * Returns the default Exchange.
+     */
     ExchangeConfig get();
 
+    /**
+     * Updates the Exchange with the same id, or the default Exchange if the config has no id.
+     * Returns null if the Exchange cannot be found.
+     */
     ExchangeConfig save(ExchangeConfig config);
 }
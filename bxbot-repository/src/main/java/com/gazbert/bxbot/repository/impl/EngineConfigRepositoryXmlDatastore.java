@@ -25,7 +25,11 @@ package com.gazbert.bxbot.repository.impl;
 
 import com.gazbert.bxbot.datastore.ConfigurationManager;
 import com.gazbert.bxbot.datastore.engine.generated.EngineType;
+import com.gazbert.bxbot.datastore.engine.generated.MarketDataRecorderType;
+import com.gazbert.bxbot.datastore.engine.generated.TradingApiCacheType;
 import com.gazbert.bxbot.domain.engine.EngineConfig;
+import com.gazbert.bxbot.domain.engine.MarketDataRecorderConfig;
+import com.gazbert.bxbot.domain.engine.TradingApiCacheConfig;
 import com.gazbert.bxbot.repository.EngineConfigRepository;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -81,6 +85,31 @@ public class EngineConfigRepositoryXmlDatastore implements EngineConfigRepositor
         externalEngineConfig.setEmergencyStopCurrency(internalEngineConfig.getEmergencyStopCurrency());
         externalEngineConfig.setEmergencyStopBalance(internalEngineConfig.getEmergencyStopBalance());
         externalEngineConfig.setTradeCycleInterval(internalEngineConfig.getTradeCycleInterval());
+        externalEngineConfig.setStrategyExecutionThreads(internalEngineConfig.getStrategyExecutionThreads());
+        externalEngineConfig.setStrategyExecutionTimeout(internalEngineConfig.getStrategyExecutionTimeout());
+        externalEngineConfig.setMissedCyclePolicy(internalEngineConfig.getMissedCyclePolicy());
+
+        final TradingApiCacheType internalTradingApiCacheConfig = internalEngineConfig.getTradingApiCache();
+        if (internalTradingApiCacheConfig != null) {
+            final TradingApiCacheConfig externalTradingApiCacheConfig = new TradingApiCacheConfig();
+            externalTradingApiCacheConfig.setMarketOrdersTtl(internalTradingApiCacheConfig.getMarketOrdersTtl());
+            externalTradingApiCacheConfig.setLatestMarketPriceTtl(internalTradingApiCacheConfig.getLatestMarketPriceTtl());
+            externalTradingApiCacheConfig.setTickerTtl(internalTradingApiCacheConfig.getTickerTtl());
+            externalTradingApiCacheConfig.setOpenOrdersTtl(internalTradingApiCacheConfig.getOpenOrdersTtl());
+            externalTradingApiCacheConfig.setBalanceInfoTtl(internalTradingApiCacheConfig.getBalanceInfoTtl());
+            externalEngineConfig.setTradingApiCache(externalTradingApiCacheConfig);
+        }
+
+        final MarketDataRecorderType internalMarketDataRecorderConfig = internalEngineConfig.getMarketDataRecorder();
+        if (internalMarketDataRecorderConfig != null) {
+            final MarketDataRecorderConfig externalMarketDataRecorderConfig = new MarketDataRecorderConfig();
+            externalMarketDataRecorderConfig.setDataDirectory(internalMarketDataRecorderConfig.getDataDirectory());
+            externalMarketDataRecorderConfig.setOrderBookDepth(internalMarketDataRecorderConfig.getOrderBookDepth());
+            externalMarketDataRecorderConfig.setPriceScale(internalMarketDataRecorderConfig.getPriceScale());
+            externalMarketDataRecorderConfig.setQuantityScale(internalMarketDataRecorderConfig.getQuantityScale());
+            externalMarketDataRecorderConfig.setBufferSize(internalMarketDataRecorderConfig.getBufferSize());
+            externalEngineConfig.setMarketDataRecorder(externalMarketDataRecorderConfig);
+        }
         return externalEngineConfig;
     }
 
@@ -92,6 +121,31 @@ public class EngineConfigRepositoryXmlDatastore implements EngineConfigRepositor
         internalEngineConfig.setEmergencyStopCurrency(externalEngineConfig.getEmergencyStopCurrency());
         internalEngineConfig.setEmergencyStopBalance(externalEngineConfig.getEmergencyStopBalance());
         internalEngineConfig.setTradeCycleInterval(externalEngineConfig.getTradeCycleInterval());
+        internalEngineConfig.setStrategyExecutionThreads(externalEngineConfig.getStrategyExecutionThreads());
+        internalEngineConfig.setStrategyExecutionTimeout(externalEngineConfig.getStrategyExecutionTimeout());
+        internalEngineConfig.setMissedCyclePolicy(externalEngineConfig.getMissedCyclePolicy());
+
+        final TradingApiCacheConfig externalTradingApiCacheConfig = externalEngineConfig.getTradingApiCache();
+        if (externalTradingApiCacheConfig != null) {
+            final TradingApiCacheType internalTradingApiCacheConfig = new TradingApiCacheType();
+            internalTradingApiCacheConfig.setMarketOrdersTtl(externalTradingApiCacheConfig.getMarketOrdersTtl());
+            internalTradingApiCacheConfig.setLatestMarketPriceTtl(externalTradingApiCacheConfig.getLatestMarketPriceTtl());
+            internalTradingApiCacheConfig.setTickerTtl(externalTradingApiCacheConfig.getTickerTtl());
+            internalTradingApiCacheConfig.setOpenOrdersTtl(externalTradingApiCacheConfig.getOpenOrdersTtl());
+            internalTradingApiCacheConfig.setBalanceInfoTtl(externalTradingApiCacheConfig.getBalanceInfoTtl());
+            internalEngineConfig.setTradingApiCache(internalTradingApiCacheConfig);
+        }
+
+        final MarketDataRecorderConfig externalMarketDataRecorderConfig = externalEngineConfig.getMarketDataRecorder();
+        if (externalMarketDataRecorderConfig != null) {
+            final MarketDataRecorderType internalMarketDataRecorderConfig = new MarketDataRecorderType();
+            internalMarketDataRecorderConfig.setDataDirectory(externalMarketDataRecorderConfig.getDataDirectory());
+            internalMarketDataRecorderConfig.setOrderBookDepth(externalMarketDataRecorderConfig.getOrderBookDepth());
+            internalMarketDataRecorderConfig.setPriceScale(externalMarketDataRecorderConfig.getPriceScale());
+            internalMarketDataRecorderConfig.setQuantityScale(externalMarketDataRecorderConfig.getQuantityScale());
+            internalMarketDataRecorderConfig.setBufferSize(externalMarketDataRecorderConfig.getBufferSize());
+            internalEngineConfig.setMarketDataRecorder(internalMarketDataRecorderConfig);
+        }
         return internalEngineConfig;
     }
 }
@@ -23,7 +23,9 @@
 
 package com.gazbert.bxbot.repository.impl;
 
+import com.gazbert.bxbot.datastore.ConfigurationConflictException;
 import com.gazbert.bxbot.datastore.ConfigurationManager;
+import com.gazbert.bxbot.datastore.VersionedConfig;
 import com.gazbert.bxbot.datastore.exchange.generated.*;
 import com.gazbert.bxbot.domain.exchange.AuthenticationConfig;
 import com.gazbert.bxbot.domain.exchange.ExchangeConfig;
@@ -32,9 +34,13 @@ import com.gazbert.bxbot.domain.exchange.OptionalConfig;
 import com.gazbert.bxbot.repository.ExchangeConfigRepository;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import static com.gazbert.bxbot.datastore.FileLocations.EXCHANGE_CONFIG_XML_FILENAME;
 import static com.gazbert.bxbot.datastore.FileLocations.EXCHANGE_CONFIG_XSD_FILENAME;
 
@@ -49,14 +55,26 @@ public class ExchangeConfigRepositoryXmlDatastore implements ExchangeConfigRepos
 
     private static final Logger LOG = LogManager.getLogger();
 
+    @Override
+    public List<ExchangeConfig> findAll() {
+
+        LOG.info(() -> "Fetching all Exchange configs...");
+
+        final ExchangesType internalExchangesConfig = ConfigurationManager.loadConfig(ExchangesType.class,
+                EXCHANGE_CONFIG_XML_FILENAME, EXCHANGE_CONFIG_XSD_FILENAME);
+        return adaptAllInternalToAllExternalConfig(internalExchangesConfig);
+    }
+
     @Override
     public ExchangeConfig get() {
 
         LOG.info(() -> "Fetching ExchangeConfig...");
 
-        final ExchangeType internalEngineConfig = ConfigurationManager.loadConfig(ExchangeType.class,
+        final ExchangesType internalExchangesConfig = ConfigurationManager.loadConfig(ExchangesType.class,
                 EXCHANGE_CONFIG_XML_FILENAME, EXCHANGE_CONFIG_XSD_FILENAME);
-        return adaptInternalToExternalConfig(internalEngineConfig);
+
+        // The schema insists on at least 1 Exchange - the 1st one is the default
+        return adaptInternalToExternalConfig(internalExchangesConfig.getExchanges().get(0));
     }
 
     @Override
@@ -64,19 +82,41 @@ public class ExchangeConfigRepositoryXmlDatastore implements ExchangeConfigRepos
 
         LOG.info(() -> "About to save ExchangeConfig: " + config);
 
-        final ExchangeType internalExchangeConfig = adaptExternalToInternalConfig(config);
-        ConfigurationManager.saveConfig(ExchangeType.class, internalExchangeConfig, EXCHANGE_CONFIG_XML_FILENAME);
+        // We load the existing config so we can merge in the auth config, and only save if no one else has
+        // changed it in the meantime
+        final VersionedConfig<ExchangesType> existingExchangesConfig = ConfigurationManager.loadVersionedConfig(
+                ExchangesType.class, EXCHANGE_CONFIG_XML_FILENAME, EXCHANGE_CONFIG_XSD_FILENAME);
+
+        final List<ExchangeType> internalExchanges = existingExchangesConfig.getConfig().getExchanges();
+        final int exchangeIndex = findExchangeIndex(internalExchanges, config.getId());
+        if (exchangeIndex == -1) {
+            LOG.warn("Trying to update ExchangeConfig but id does not exist ExchangeConfig: " + config);
+            return null;
+        }
+
+        final ExchangeType updatedExchangeConfig = adaptExternalToInternalConfig(config,
+                internalExchanges.get(exchangeIndex));
+        internalExchanges.set(exchangeIndex, updatedExchangeConfig);
+        saveConfig(existingExchangesConfig.getConfig(), existingExchangesConfig.getVersion());
 
-        final ExchangeType internalEngineConfig = ConfigurationManager.loadConfig(ExchangeType.class,
+        final ExchangesType internalExchangesConfig = ConfigurationManager.loadConfig(ExchangesType.class,
                 EXCHANGE_CONFIG_XML_FILENAME, EXCHANGE_CONFIG_XSD_FILENAME);
 
-        return adaptInternalToExternalConfig(internalEngineConfig);
+        return adaptInternalToExternalConfig(internalExchangesConfig.getExchanges().get(exchangeIndex));
     }
 
     // ------------------------------------------------------------------------------------------------
     // Adapter methods
     // ------------------------------------------------------------------------------------------------
 
+    private static List<ExchangeConfig> adaptAllInternalToAllExternalConfig(ExchangesType internalExchangesConfig) {
+
+        final List<ExchangeConfig> exchangeConfigItems = new ArrayList<>();
+        internalExchangesConfig.getExchanges()
+                .forEach(item -> exchangeConfigItems.add(adaptInternalToExternalConfig(item)));
+        return exchangeConfigItems;
+    }
+
     private static ExchangeConfig adaptInternalToExternalConfig(ExchangeType internalExchangeConfig) {
 
         final AuthenticationConfig authenticationConfig = new AuthenticationConfig();
@@ -87,6 +127,10 @@ public class ExchangeConfigRepositoryXmlDatastore implements ExchangeConfigRepos
         networkConfig.setConnectionTimeout(internalExchangeConfig.getNetworkConfig().getConnectionTimeout());
         networkConfig.setNonFatalErrorCodes(internalExchangeConfig.getNetworkConfig().getNonFatalErrorCodes().getCodes());
         networkConfig.setNonFatalErrorMessages(internalExchangeConfig.getNetworkConfig().getNonFatalErrorMessages().getMessages());
+        networkConfig.setConnectionPoolSize(internalExchangeConfig.getNetworkConfig().getConnectionPoolSize());
+        networkConfig.setConnectionIdleTimeout(internalExchangeConfig.getNetworkConfig().getConnectionIdleTimeout());
+        networkConfig.setMaxRequestsPerMinute(internalExchangeConfig.getNetworkConfig().getMaxRequestsPerMinute());
+        networkConfig.setMaxRequestBurst(internalExchangeConfig.getNetworkConfig().getMaxRequestBurst());
 
         final OptionalConfig optionalConfig = new OptionalConfig();
         final OptionalConfigType internalOptionalConfig = internalExchangeConfig.getOptionalConfig();
@@ -96,6 +140,7 @@ public class ExchangeConfigRepositoryXmlDatastore implements ExchangeConfigRepos
         }
 
         final ExchangeConfig exchangeConfig = new ExchangeConfig();
+        exchangeConfig.setId(internalExchangeConfig.getId());
         exchangeConfig.setAuthenticationConfig(authenticationConfig);
         exchangeConfig.setExchangeName(internalExchangeConfig.getName());
         exchangeConfig.setExchangeAdapter(internalExchangeConfig.getAdapter());
@@ -104,7 +149,8 @@ public class ExchangeConfigRepositoryXmlDatastore implements ExchangeConfigRepos
         return exchangeConfig;
     }
 
-    private static ExchangeType adaptExternalToInternalConfig(ExchangeConfig externalExchangeConfig) {
+    private static ExchangeType adaptExternalToInternalConfig(ExchangeConfig externalExchangeConfig,
+                                                              ExchangeType existingExchangeConfig) {
 
         final NonFatalErrorCodesType nonFatalErrorCodes = new NonFatalErrorCodesType();
         nonFatalErrorCodes.getCodes().addAll(externalExchangeConfig.getNetworkConfig().getNonFatalErrorCodes());
@@ -114,6 +160,10 @@ public class ExchangeConfigRepositoryXmlDatastore implements ExchangeConfigRepos
         networkConfig.setConnectionTimeout(externalExchangeConfig.getNetworkConfig().getConnectionTimeout());
         networkConfig.setNonFatalErrorCodes(nonFatalErrorCodes);
         networkConfig.setNonFatalErrorMessages(nonFatalErrorMessages);
+        networkConfig.setConnectionPoolSize(externalExchangeConfig.getNetworkConfig().getConnectionPoolSize());
+        networkConfig.setConnectionIdleTimeout(externalExchangeConfig.getNetworkConfig().getConnectionIdleTimeout());
+        networkConfig.setMaxRequestsPerMinute(externalExchangeConfig.getNetworkConfig().getMaxRequestsPerMinute());
+        networkConfig.setMaxRequestBurst(externalExchangeConfig.getNetworkConfig().getMaxRequestBurst());
 
         final OptionalConfigType optionalConfig = new OptionalConfigType();
         externalExchangeConfig.getOptionalConfig().getItems().forEach((key, value) -> {
@@ -123,18 +173,49 @@ public class ExchangeConfigRepositoryXmlDatastore implements ExchangeConfigRepos
             optionalConfig.getConfigItems().add(configItem);
         });
 
+        // The id can't be changed - it's what the Markets use to reference the Exchange
         final ExchangeType exchangeConfig = new ExchangeType();
+        exchangeConfig.setId(existingExchangeConfig.getId());
         exchangeConfig.setName(externalExchangeConfig.getExchangeName());
         exchangeConfig.setAdapter(externalExchangeConfig.getExchangeAdapter());
         exchangeConfig.setNetworkConfig(networkConfig);
         exchangeConfig.setOptionalConfig(optionalConfig);
 
         // TODO - Currently, we don't accept AuthenticationConfig - security risk?
-        // We load the existing auth config and merge it in with the updated stuff...
-        final ExchangeType existingExchangeConfig = ConfigurationManager.loadConfig(ExchangeType.class,
-                EXCHANGE_CONFIG_XML_FILENAME, EXCHANGE_CONFIG_XSD_FILENAME);
+        // We merge the existing auth config in with the updated stuff...
         exchangeConfig.setAuthenticationConfig(existingExchangeConfig.getAuthenticationConfig());
 
         return exchangeConfig;
     }
+
+    // ------------------------------------------------------------------------------------------------
+    // Util methods
+    // ------------------------------------------------------------------------------------------------
+
+    /*
+     * Returns the index of the Exchange with the given id, or the default Exchange if the id is null.
+     */
+    private static int findExchangeIndex(List<ExchangeType> exchanges, String id) {
+        if (id == null) {
+            return 0;
+        }
+        for (int i = 0; i < exchanges.size(); i++) {
+            if (id.equals(exchanges.get(i).getId())) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /*
+     * Only saves the config if no one else has changed it since we loaded it - stops concurrent updates silently
+     * overwriting each other.
+     */
+    private static void saveConfig(ExchangesType config, long loadedVersion) {
+        try {
+            ConfigurationManager.saveConfig(ExchangesType.class, config, EXCHANGE_CONFIG_XML_FILENAME, loadedVersion);
+        } catch (ConfigurationConflictException e) {
+            throw new OptimisticLockingFailureException(e.getMessage(), e);
+        }
+    }
 }
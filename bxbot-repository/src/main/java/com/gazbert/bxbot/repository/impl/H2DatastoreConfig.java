@@ -0,0 +1,93 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.repository.impl;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.h2.jdbcx.JdbcConnectionPool;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.init.DatabasePopulatorUtils;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.sql.DataSource;
+
+/**
+ * Wires up the embedded H2 config datastore.
+ * <p>
+ * Only active when the {@value #PROFILE} Spring profile is; otherwise the XML datastore is used. The database file
+ * is set using the <code>bxbot.datastore.h2.url</code> property and defaults to <code>config/bxbot-config</code>.
+ * The schema is created on startup if it does not exist, and if the store is empty, the Market and Strategy config is
+ * migrated in from the existing XML files - see {@link XmlToH2DatastoreMigrator}.
+ *
+ * @author gazbert
+ */
+@Configuration
+@Profile(H2DatastoreConfig.PROFILE)
+public class H2DatastoreConfig {
+
+    private static final Logger LOG = LogManager.getLogger();
+
+    /**
+     * Name of the Spring profile that switches the Market and Strategy config repositories to the H2 datastore.
+     */
+    public static final String PROFILE = "h2-datastore";
+
+    private static final String SCHEMA_FILENAME = "com/gazbert/bxbot/repository/h2-datastore-schema.sql";
+    private static final String DEFAULT_URL = "jdbc:h2:./config/bxbot-config";
+
+    @Bean(destroyMethod = "dispose")
+    public JdbcConnectionPool dataSource(@Value("${bxbot.datastore.h2.url:" + DEFAULT_URL + "}") String url) {
+
+        LOG.info(() -> "Opening H2 config datastore: " + url);
+
+        final JdbcConnectionPool dataSource = JdbcConnectionPool.create(url, "sa", "");
+        DatabasePopulatorUtils.execute(new ResourceDatabasePopulator(new ClassPathResource(SCHEMA_FILENAME)),
+                dataSource);
+        return dataSource;
+    }
+
+    @Bean
+    public JdbcTemplate jdbcTemplate(DataSource dataSource) {
+        return new JdbcTemplate(dataSource);
+    }
+
+    @Bean
+    public PlatformTransactionManager transactionManager(DataSource dataSource) {
+        return new DataSourceTransactionManager(dataSource);
+    }
+
+    @Bean(initMethod = "migrateIfEmpty")
+    public XmlToH2DatastoreMigrator xmlToH2DatastoreMigrator(JdbcTemplate jdbcTemplate,
+                                                             PlatformTransactionManager transactionManager) {
+        return new XmlToH2DatastoreMigrator(new MarketConfigRepositoryXmlDatastore(),
+                new StrategyConfigRepositoryXmlDatastore(), jdbcTemplate, transactionManager);
+    }
+}
@@ -0,0 +1,177 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.repository.impl;
+
+import com.gazbert.bxbot.domain.market.MarketConfig;
+import com.gazbert.bxbot.repository.MarketConfigRepository;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * An embedded H2 datastore implementation of the Market config repository.
+ * <p>
+ * Each Market is a row in the market_config table, so lookups by id use the primary key and saving one Market does
+ * not rewrite the others.
+ *
+ * @author gazbert
+ */
+@Repository("marketConfigRepository")
+@Profile(H2DatastoreConfig.PROFILE)
+@Transactional
+public class MarketConfigRepositoryH2Datastore implements MarketConfigRepository {
+
+    private static final Logger LOG = LogManager.getLogger();
+
+    private static final String SELECT_MARKETS = "SELECT id, name, base_currency, counter_currency, enabled, "
+            + "trading_strategy_id, trade_cycle_interval, exchange_id FROM market_config";
+    private static final String SELECT_ALL_MARKETS = SELECT_MARKETS + " ORDER BY seq";
+    private static final String SELECT_MARKET_BY_ID = SELECT_MARKETS + " WHERE id = ?";
+    private static final String INSERT_MARKET = "INSERT INTO market_config (id, name, base_currency, "
+            + "counter_currency, enabled, trading_strategy_id, trade_cycle_interval, exchange_id) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String UPDATE_MARKET = "UPDATE market_config SET name = ?, base_currency = ?, "
+            + "counter_currency = ?, enabled = ?, trading_strategy_id = ?, trade_cycle_interval = ?, exchange_id = ? "
+            + "WHERE id = ?";
+    private static final String DELETE_MARKET = "DELETE FROM market_config WHERE id = ?";
+
+    private static final RowMapper<MarketConfig> MARKET_ROW_MAPPER = (resultSet, rowNum) -> {
+        final MarketConfig marketConfig = new MarketConfig();
+        marketConfig.setId(resultSet.getString("id"));
+        marketConfig.setName(resultSet.getString("name"));
+        marketConfig.setBaseCurrency(resultSet.getString("base_currency"));
+        marketConfig.setCounterCurrency(resultSet.getString("counter_currency"));
+        marketConfig.setEnabled(resultSet.getBoolean("enabled"));
+        marketConfig.setTradingStrategyId(resultSet.getString("trading_strategy_id"));
+        marketConfig.setTradeCycleInterval((Integer) resultSet.getObject("trade_cycle_interval"));
+        marketConfig.setExchangeId(resultSet.getString("exchange_id"));
+        return marketConfig;
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public MarketConfigRepositoryH2Datastore(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public List<MarketConfig> findAll() {
+
+        LOG.info(() -> "Fetching all Market configs...");
+        return jdbcTemplate.query(SELECT_ALL_MARKETS, MARKET_ROW_MAPPER);
+    }
+
+    @Override
+    public MarketConfig findById(String id) {
+
+        LOG.info(() -> "Fetching Market config for id: " + id);
+        return findMarket(id);
+    }
+
+    @Override
+    public MarketConfig save(MarketConfig config) {
+
+        if (config.getId() == null || config.getId().isEmpty()) {
+
+            LOG.info(() -> "About to create MarketConfig: " + config);
+
+            final MarketConfig newMarketConfig = new MarketConfig(config);
+            newMarketConfig.setId(generateUuid());
+            insertMarket(jdbcTemplate, newMarketConfig);
+            return findMarket(newMarketConfig.getId());
+
+        } else {
+
+            LOG.info(() -> "About to update MarketConfig: " + config);
+
+            final int rowsUpdated = jdbcTemplate.update(UPDATE_MARKET,
+                    config.getName(),
+                    config.getBaseCurrency(),
+                    config.getCounterCurrency(),
+                    config.isEnabled(),
+                    config.getTradingStrategyId(),
+                    config.getTradeCycleInterval(),
+                    config.getExchangeId(),
+                    config.getId());
+
+            if (rowsUpdated == 0) {
+                LOG.warn("Trying to update MarketConfig but id does not exist MarketConfig: " + config);
+                return null;
+            }
+            return findMarket(config.getId());
+        }
+    }
+
+    @Override
+    public MarketConfig delete(String id) {
+
+        LOG.info(() -> "Deleting Market config for id: " + id);
+
+        final MarketConfig marketToRemove = findMarket(id);
+        if (marketToRemove == null) {
+            LOG.warn("Trying to delete MarketConfig but id does not exist. MarketConfig id: " + id);
+            return null;
+        }
+
+        jdbcTemplate.update(DELETE_MARKET, id);
+        return marketToRemove;
+    }
+
+    // ------------------------------------------------------------------------------------------------
+    // Util methods
+    // ------------------------------------------------------------------------------------------------
+
+    /*
+     * Inserts the Market with the id it already has - used when creating new Markets and by the XML migrator.
+     */
+    static void insertMarket(JdbcTemplate jdbcTemplate, MarketConfig config) {
+        jdbcTemplate.update(INSERT_MARKET,
+                config.getId(),
+                config.getName(),
+                config.getBaseCurrency(),
+                config.getCounterCurrency(),
+                config.isEnabled(),
+                config.getTradingStrategyId(),
+                config.getTradeCycleInterval(),
+                config.getExchangeId());
+    }
+
+    private MarketConfig findMarket(String id) {
+        final List<MarketConfig> markets = jdbcTemplate.query(SELECT_MARKET_BY_ID, MARKET_ROW_MAPPER, id);
+        return markets.isEmpty() ? null : markets.get(0);
+    }
+
+    private String generateUuid() {
+        return UUID.randomUUID().toString();
+    }
+}
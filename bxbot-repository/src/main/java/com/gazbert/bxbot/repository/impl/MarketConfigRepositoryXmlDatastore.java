@@ -23,13 +23,17 @@
 
 package com.gazbert.bxbot.repository.impl;
 
+import com.gazbert.bxbot.datastore.ConfigurationConflictException;
 import com.gazbert.bxbot.datastore.ConfigurationManager;
+import com.gazbert.bxbot.datastore.VersionedConfig;
 import com.gazbert.bxbot.datastore.market.generated.MarketType;
 import com.gazbert.bxbot.datastore.market.generated.MarketsType;
 import com.gazbert.bxbot.domain.market.MarketConfig;
 import com.gazbert.bxbot.repository.MarketConfigRepository;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -48,6 +52,7 @@ import static com.gazbert.bxbot.datastore.FileLocations.MARKETS_CONFIG_XSD_FILEN
  * @author gazbert
  */
 @Repository("marketConfigRepository")
+@Profile("!" + H2DatastoreConfig.PROFILE)
 @Transactional
 public class MarketConfigRepositoryXmlDatastore implements MarketConfigRepository {
 
@@ -83,8 +88,9 @@ public class MarketConfigRepositoryXmlDatastore implements MarketConfigRepositor
     @Override
     public MarketConfig save(MarketConfig config) {
 
-        final MarketsType internalMarketsConfig = ConfigurationManager.loadConfig(MarketsType.class,
-                MARKETS_CONFIG_XML_FILENAME, MARKETS_CONFIG_XSD_FILENAME);
+        final VersionedConfig<MarketsType> versionedMarketsConfig = ConfigurationManager.loadVersionedConfig(
+                MarketsType.class, MARKETS_CONFIG_XML_FILENAME, MARKETS_CONFIG_XSD_FILENAME);
+        final MarketsType internalMarketsConfig = versionedMarketsConfig.getConfig();
 
         final List<MarketType> marketTypes = internalMarketsConfig.getMarkets()
                 .stream()
@@ -102,8 +108,7 @@ public class MarketConfigRepositoryXmlDatastore implements MarketConfigRepositor
                 newMarketConfig.setId(generateUuid());
 
                 internalMarketsConfig.getMarkets().add(adaptExternalToInternalConfig(newMarketConfig));
-                ConfigurationManager.saveConfig(MarketsType.class, internalMarketsConfig,
-                        MARKETS_CONFIG_XML_FILENAME);
+                saveConfig(internalMarketsConfig, versionedMarketsConfig.getVersion());
 
                 final MarketsType updatedInternalMarketsConfig = ConfigurationManager.loadConfig(
                         MarketsType.class, MARKETS_CONFIG_XML_FILENAME, MARKETS_CONFIG_XSD_FILENAME);
@@ -128,8 +133,7 @@ public class MarketConfigRepositoryXmlDatastore implements MarketConfigRepositor
 
                 internalMarketsConfig.getMarkets().remove(marketTypes.get(0)); // will only be 1 unique strat
                 internalMarketsConfig.getMarkets().add(adaptExternalToInternalConfig(config));
-                ConfigurationManager.saveConfig(MarketsType.class, internalMarketsConfig,
-                        MARKETS_CONFIG_XML_FILENAME);
+                saveConfig(internalMarketsConfig, versionedMarketsConfig.getVersion());
 
                 final MarketsType updatedInternalMarketsConfig = ConfigurationManager.loadConfig(
                         MarketsType.class, MARKETS_CONFIG_XML_FILENAME, MARKETS_CONFIG_XSD_FILENAME);
@@ -153,8 +157,9 @@ public class MarketConfigRepositoryXmlDatastore implements MarketConfigRepositor
 
         LOG.info(() -> "Deleting Market config for id: " + id);
 
-        final MarketsType internalMarketsConfig = ConfigurationManager.loadConfig(MarketsType.class,
-                MARKETS_CONFIG_XML_FILENAME, MARKETS_CONFIG_XSD_FILENAME);
+        final VersionedConfig<MarketsType> versionedMarketsConfig = ConfigurationManager.loadVersionedConfig(
+                MarketsType.class, MARKETS_CONFIG_XML_FILENAME, MARKETS_CONFIG_XSD_FILENAME);
+        final MarketsType internalMarketsConfig = versionedMarketsConfig.getConfig();
 
         final List<MarketType> marketTypes = internalMarketsConfig.getMarkets()
                 .stream()
@@ -166,8 +171,7 @@ public class MarketConfigRepositoryXmlDatastore implements MarketConfigRepositor
 
             final MarketType marketToRemove = marketTypes.get(0); // will only be 1 unique strat
             internalMarketsConfig.getMarkets().remove(marketToRemove);
-            ConfigurationManager.saveConfig(MarketsType.class, internalMarketsConfig,
-                    MARKETS_CONFIG_XML_FILENAME);
+            saveConfig(internalMarketsConfig, versionedMarketsConfig.getVersion());
 
             return adaptInternalToExternalConfig(Collections.singletonList(marketToRemove));
         } else {
@@ -195,6 +199,8 @@ public class MarketConfigRepositoryXmlDatastore implements MarketConfigRepositor
             marketConfig.setBaseCurrency(item.getBaseCurrency());
             marketConfig.setCounterCurrency(item.getCounterCurrency());
             marketConfig.setTradingStrategyId(item.getTradingStrategyId());
+            marketConfig.setTradeCycleInterval(item.getTradeCycleInterval());
+            marketConfig.setExchangeId(item.getExchangeId());
 
             marketConfigItems.add(marketConfig);
         });
@@ -216,6 +222,8 @@ public class MarketConfigRepositoryXmlDatastore implements MarketConfigRepositor
             marketConfig.setBaseCurrency(internalMarketConfig.getBaseCurrency());
             marketConfig.setCounterCurrency(internalMarketConfig.getCounterCurrency());
             marketConfig.setTradingStrategyId(internalMarketConfig.getTradingStrategyId());
+            marketConfig.setTradeCycleInterval(internalMarketConfig.getTradeCycleInterval());
+            marketConfig.setExchangeId(internalMarketConfig.getExchangeId());
 
             return marketConfig;
         }
@@ -231,6 +239,8 @@ public class MarketConfigRepositoryXmlDatastore implements MarketConfigRepositor
         marketType.setBaseCurrency(externalMarketConfig.getBaseCurrency());
         marketType.setCounterCurrency(externalMarketConfig.getCounterCurrency());
         marketType.setTradingStrategyId(externalMarketConfig.getTradingStrategyId());
+        marketType.setTradeCycleInterval(externalMarketConfig.getTradeCycleInterval());
+        marketType.setExchangeId(externalMarketConfig.getExchangeId());
         return marketType;
     }
 
@@ -238,6 +248,18 @@ public class MarketConfigRepositoryXmlDatastore implements MarketConfigRepositor
     // Util methods
     // ------------------------------------------------------------------------------------------------
 
+    /*
+     * Only saves the config if no one else has changed it since we loaded it - stops concurrent updates silently
+     * overwriting each other.
+     */
+    private static void saveConfig(MarketsType config, long loadedVersion) {
+        try {
+            ConfigurationManager.saveConfig(MarketsType.class, config, MARKETS_CONFIG_XML_FILENAME, loadedVersion);
+        } catch (ConfigurationConflictException e) {
+            throw new OptimisticLockingFailureException(e.getMessage(), e);
+        }
+    }
+
     private String generateUuid() {
         return UUID.randomUUID().toString();
     }
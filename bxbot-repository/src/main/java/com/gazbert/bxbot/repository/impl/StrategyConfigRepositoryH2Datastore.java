@@ -0,0 +1,211 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.repository.impl;
+
+import com.gazbert.bxbot.domain.strategy.StrategyConfig;
+import com.gazbert.bxbot.repository.StrategyConfigRepository;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * An embedded H2 datastore implementation of the Strategy config repository.
+ * <p>
+ * Each Strategy is a row in the strategy_config table, with its config items in the strategy_config_item table.
+ * Lookups by id use the primary keys and saving one Strategy does not rewrite the others.
+ *
+ * @author gazbert
+ */
+@Repository("strategyConfigRepository")
+@Profile(H2DatastoreConfig.PROFILE)
+@Transactional
+public class StrategyConfigRepositoryH2Datastore implements StrategyConfigRepository {
+
+    private static final Logger LOG = LogManager.getLogger();
+
+    private static final String SELECT_STRATEGIES = "SELECT id, name, description, class_name, bean_name "
+            + "FROM strategy_config";
+    private static final String SELECT_ALL_STRATEGIES = SELECT_STRATEGIES + " ORDER BY seq";
+    private static final String SELECT_STRATEGY_BY_ID = SELECT_STRATEGIES + " WHERE id = ?";
+    private static final String SELECT_ALL_CONFIG_ITEMS = "SELECT strategy_id, item_name, item_value "
+            + "FROM strategy_config_item";
+    private static final String SELECT_CONFIG_ITEMS_BY_STRATEGY_ID = SELECT_ALL_CONFIG_ITEMS + " WHERE strategy_id = ?";
+    private static final String INSERT_STRATEGY = "INSERT INTO strategy_config (id, name, description, class_name, "
+            + "bean_name) VALUES (?, ?, ?, ?, ?)";
+    private static final String INSERT_CONFIG_ITEM = "INSERT INTO strategy_config_item (strategy_id, item_name, "
+            + "item_value) VALUES (?, ?, ?)";
+    private static final String UPDATE_STRATEGY = "UPDATE strategy_config SET name = ?, description = ?, "
+            + "class_name = ?, bean_name = ? WHERE id = ?";
+    private static final String DELETE_STRATEGY = "DELETE FROM strategy_config WHERE id = ?";
+    private static final String DELETE_CONFIG_ITEMS = "DELETE FROM strategy_config_item WHERE strategy_id = ?";
+
+    private static final RowMapper<StrategyConfig> STRATEGY_ROW_MAPPER = (resultSet, rowNum) -> {
+        final StrategyConfig strategyConfig = new StrategyConfig();
+        strategyConfig.setId(resultSet.getString("id"));
+        strategyConfig.setName(resultSet.getString("name"));
+        strategyConfig.setDescription(resultSet.getString("description"));
+        strategyConfig.setClassName(resultSet.getString("class_name"));
+        strategyConfig.setBeanName(resultSet.getString("bean_name"));
+        return strategyConfig;
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public StrategyConfigRepositoryH2Datastore(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public List<StrategyConfig> findAll() {
+
+        LOG.info(() -> "Fetching all Strategy configs...");
+
+        final List<StrategyConfig> strategies = jdbcTemplate.query(SELECT_ALL_STRATEGIES, STRATEGY_ROW_MAPPER);
+
+        // Fetch all the config items in one go rather than a query per Strategy
+        final Map<String, StrategyConfig> strategiesById = new LinkedHashMap<>();
+        strategies.forEach(strategy -> strategiesById.put(strategy.getId(), strategy));
+        jdbcTemplate.query(SELECT_ALL_CONFIG_ITEMS, resultSet -> {
+            final StrategyConfig strategy = strategiesById.get(resultSet.getString("strategy_id"));
+            if (strategy != null) {
+                strategy.getConfigItems().put(resultSet.getString("item_name"), resultSet.getString("item_value"));
+            }
+        });
+
+        return new ArrayList<>(strategiesById.values());
+    }
+
+    @Override
+    public StrategyConfig findById(String id) {
+
+        LOG.info(() -> "Fetching Strategy config for id: " + id);
+        return findStrategy(id);
+    }
+
+    @Override
+    public StrategyConfig save(StrategyConfig config) {
+
+        if (config.getId() == null || config.getId().isEmpty()) {
+
+            LOG.info(() -> "About to create StrategyConfig: " + config);
+
+            final StrategyConfig newStrategyConfig = new StrategyConfig(config);
+            newStrategyConfig.setId(generateUuid());
+            insertStrategy(jdbcTemplate, newStrategyConfig);
+            return findStrategy(newStrategyConfig.getId());
+
+        } else {
+
+            LOG.info(() -> "About to update StrategyConfig: " + config);
+
+            final int rowsUpdated = jdbcTemplate.update(UPDATE_STRATEGY,
+                    config.getName(),
+                    config.getDescription(),
+                    config.getClassName(),
+                    config.getBeanName(),
+                    config.getId());
+
+            if (rowsUpdated == 0) {
+                LOG.warn("Trying to update StrategyConfig but id does not exist StrategyConfig: " + config);
+                return null;
+            }
+
+            jdbcTemplate.update(DELETE_CONFIG_ITEMS, config.getId());
+            insertConfigItems(jdbcTemplate, config);
+            return findStrategy(config.getId());
+        }
+    }
+
+    @Override
+    public StrategyConfig delete(String id) {
+
+        LOG.info(() -> "Deleting Strategy config for id: " + id);
+
+        final StrategyConfig strategyToRemove = findStrategy(id);
+        if (strategyToRemove == null) {
+            LOG.warn("Trying to delete StrategyConfig but id does not exist. StrategyConfig id: " + id);
+            return null;
+        }
+
+        // config items are removed by the ON DELETE CASCADE
+        jdbcTemplate.update(DELETE_STRATEGY, id);
+        return strategyToRemove;
+    }
+
+    // ------------------------------------------------------------------------------------------------
+    // Util methods
+    // ------------------------------------------------------------------------------------------------
+
+    /*
+     * Inserts the Strategy with the id it already has - used when creating new Strategies and by the XML migrator.
+     */
+    static void insertStrategy(JdbcTemplate jdbcTemplate, StrategyConfig config) {
+        jdbcTemplate.update(INSERT_STRATEGY,
+                config.getId(),
+                config.getName(),
+                config.getDescription(),
+                config.getClassName(),
+                config.getBeanName());
+        insertConfigItems(jdbcTemplate, config);
+    }
+
+    private static void insertConfigItems(JdbcTemplate jdbcTemplate, StrategyConfig config) {
+        if (config.getConfigItems() == null || config.getConfigItems().isEmpty()) {
+            return;
+        }
+        final List<Object[]> configItems = new ArrayList<>();
+        config.getConfigItems().forEach((name, value) -> configItems.add(new Object[]{config.getId(), name, value}));
+        jdbcTemplate.batchUpdate(INSERT_CONFIG_ITEM, configItems);
+    }
+
+    private StrategyConfig findStrategy(String id) {
+
+        final List<StrategyConfig> strategies = jdbcTemplate.query(SELECT_STRATEGY_BY_ID, STRATEGY_ROW_MAPPER, id);
+        if (strategies.isEmpty()) {
+            return null;
+        }
+
+        final StrategyConfig strategy = strategies.get(0);
+        jdbcTemplate.query(SELECT_CONFIG_ITEMS_BY_STRATEGY_ID, resultSet -> {
+            strategy.getConfigItems().put(resultSet.getString("item_name"), resultSet.getString("item_value"));
+        }, id);
+        return strategy;
+    }
+
+    private String generateUuid() {
+        return UUID.randomUUID().toString();
+    }
+}
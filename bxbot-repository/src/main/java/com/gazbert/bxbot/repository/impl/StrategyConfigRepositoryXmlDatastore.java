@@ -23,7 +23,9 @@
 
 package com.gazbert.bxbot.repository.impl;
 
+import com.gazbert.bxbot.datastore.ConfigurationConflictException;
 import com.gazbert.bxbot.datastore.ConfigurationManager;
+import com.gazbert.bxbot.datastore.VersionedConfig;
 import com.gazbert.bxbot.datastore.strategy.generated.ConfigItemType;
 import com.gazbert.bxbot.datastore.strategy.generated.OptionalConfigType;
 import com.gazbert.bxbot.datastore.strategy.generated.StrategyType;
@@ -32,6 +34,8 @@ import com.gazbert.bxbot.domain.strategy.StrategyConfig;
 import com.gazbert.bxbot.repository.StrategyConfigRepository;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -50,6 +54,7 @@ import static com.gazbert.bxbot.datastore.FileLocations.STRATEGIES_CONFIG_XSD_FI
  * @author gazbert
  */
 @Repository("strategyConfigRepository")
+@Profile("!" + H2DatastoreConfig.PROFILE)
 @Transactional
 public class StrategyConfigRepositoryXmlDatastore implements StrategyConfigRepository {
 
@@ -84,8 +89,10 @@ public class StrategyConfigRepositoryXmlDatastore implements StrategyConfigRepos
     @Override
     public StrategyConfig save(StrategyConfig config) {
 
-        final TradingStrategiesType internalStrategiesConfig = ConfigurationManager.loadConfig(TradingStrategiesType.class,
-                STRATEGIES_CONFIG_XML_FILENAME, STRATEGIES_CONFIG_XSD_FILENAME);
+        final VersionedConfig<TradingStrategiesType> versionedStrategiesConfig =
+                ConfigurationManager.loadVersionedConfig(TradingStrategiesType.class,
+                        STRATEGIES_CONFIG_XML_FILENAME, STRATEGIES_CONFIG_XSD_FILENAME);
+        final TradingStrategiesType internalStrategiesConfig = versionedStrategiesConfig.getConfig();
 
         final List<StrategyType> strategyTypes = internalStrategiesConfig.getStrategies()
                 .stream()
@@ -103,8 +110,7 @@ public class StrategyConfigRepositoryXmlDatastore implements StrategyConfigRepos
                 newStrategyConfig.setId(generateUuid());
 
                 internalStrategiesConfig.getStrategies().add(adaptExternalToInternalConfig(newStrategyConfig));
-                ConfigurationManager.saveConfig(TradingStrategiesType.class, internalStrategiesConfig,
-                        STRATEGIES_CONFIG_XML_FILENAME);
+                saveConfig(internalStrategiesConfig, versionedStrategiesConfig.getVersion());
 
                 final TradingStrategiesType updatedInternalStrategiesConfig = ConfigurationManager.loadConfig(
                         TradingStrategiesType.class, STRATEGIES_CONFIG_XML_FILENAME, STRATEGIES_CONFIG_XSD_FILENAME);
@@ -129,7 +135,7 @@ public class StrategyConfigRepositoryXmlDatastore implements StrategyConfigRepos
 
                 internalStrategiesConfig.getStrategies().remove(strategyTypes.get(0)); // will only be 1 unique strat
                 internalStrategiesConfig.getStrategies().add(adaptExternalToInternalConfig(config));
-                ConfigurationManager.saveConfig(TradingStrategiesType.class, internalStrategiesConfig, STRATEGIES_CONFIG_XML_FILENAME);
+                saveConfig(internalStrategiesConfig, versionedStrategiesConfig.getVersion());
 
                 final TradingStrategiesType updatedInternalStrategiesConfig = ConfigurationManager.loadConfig(
                         TradingStrategiesType.class, STRATEGIES_CONFIG_XML_FILENAME, STRATEGIES_CONFIG_XSD_FILENAME);
@@ -153,8 +159,10 @@ public class StrategyConfigRepositoryXmlDatastore implements StrategyConfigRepos
 
         LOG.info(() -> "Deleting Strategy config for id: " + id);
 
-        final TradingStrategiesType internalStrategiesConfig = ConfigurationManager.loadConfig(TradingStrategiesType.class,
-                STRATEGIES_CONFIG_XML_FILENAME, STRATEGIES_CONFIG_XSD_FILENAME);
+        final VersionedConfig<TradingStrategiesType> versionedStrategiesConfig =
+                ConfigurationManager.loadVersionedConfig(TradingStrategiesType.class,
+                        STRATEGIES_CONFIG_XML_FILENAME, STRATEGIES_CONFIG_XSD_FILENAME);
+        final TradingStrategiesType internalStrategiesConfig = versionedStrategiesConfig.getConfig();
 
         final List<StrategyType> strategyTypes = internalStrategiesConfig.getStrategies()
                 .stream()
@@ -166,8 +174,7 @@ public class StrategyConfigRepositoryXmlDatastore implements StrategyConfigRepos
 
             final StrategyType strategyToRemove = strategyTypes.get(0); // will only be 1 unique strat
             internalStrategiesConfig.getStrategies().remove(strategyToRemove);
-            ConfigurationManager.saveConfig(TradingStrategiesType.class, internalStrategiesConfig,
-                    STRATEGIES_CONFIG_XML_FILENAME);
+            saveConfig(internalStrategiesConfig, versionedStrategiesConfig.getVersion());
 
             return adaptInternalToExternalConfig(Collections.singletonList(strategyToRemove));
         } else {
@@ -251,6 +258,18 @@ public class StrategyConfigRepositoryXmlDatastore implements StrategyConfigRepos
     // Util methods
     // ------------------------------------------------------------------------------------------------
 
+    /*
+     * Only saves the config if no one else has changed it since we loaded it - stops concurrent updates silently
+     * overwriting each other.
+     */
+    private static void saveConfig(TradingStrategiesType config, long loadedVersion) {
+        try {
+            ConfigurationManager.saveConfig(TradingStrategiesType.class, config, STRATEGIES_CONFIG_XML_FILENAME, loadedVersion);
+        } catch (ConfigurationConflictException e) {
+            throw new OptimisticLockingFailureException(e.getMessage(), e);
+        }
+    }
+
     private String generateUuid() {
         return UUID.randomUUID().toString();
     }
@@ -0,0 +1,98 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.repository.impl;
+
+import com.gazbert.bxbot.domain.market.MarketConfig;
+import com.gazbert.bxbot.domain.strategy.StrategyConfig;
+import com.gazbert.bxbot.repository.MarketConfigRepository;
+import com.gazbert.bxbot.repository.StrategyConfigRepository;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * Migrates the Market and Strategy config from the XML datastore into the H2 datastore.
+ * <p>
+ * The migration only runs if the H2 store is empty, so it is safe to run every time the bot starts: the first start
+ * with the {@value H2DatastoreConfig#PROFILE} profile imports the existing XML config, and after that the H2 store
+ * is the master copy. The ids are kept, so Markets still reference their Strategies. Everything is imported in a
+ * single transaction; if anything fails, nothing is imported.
+ *
+ * @author gazbert
+ */
+public class XmlToH2DatastoreMigrator {
+
+    private static final Logger LOG = LogManager.getLogger();
+
+    private static final String COUNT_MARKETS = "SELECT COUNT(*) FROM market_config";
+    private static final String COUNT_STRATEGIES = "SELECT COUNT(*) FROM strategy_config";
+
+    private final MarketConfigRepository xmlMarketConfigRepository;
+    private final StrategyConfigRepository xmlStrategyConfigRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    public XmlToH2DatastoreMigrator(MarketConfigRepository xmlMarketConfigRepository,
+                                    StrategyConfigRepository xmlStrategyConfigRepository,
+                                    JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+
+        this.xmlMarketConfigRepository = xmlMarketConfigRepository;
+        this.xmlStrategyConfigRepository = xmlStrategyConfigRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Imports the XML config if the H2 store is empty.
+     *
+     * @return true if the config was imported, false if the H2 store already had config in it.
+     */
+    public boolean migrateIfEmpty() {
+
+        return transactionTemplate.execute(status -> {
+
+            final int existingMarkets = jdbcTemplate.queryForObject(COUNT_MARKETS, Integer.class);
+            final int existingStrategies = jdbcTemplate.queryForObject(COUNT_STRATEGIES, Integer.class);
+            if (existingMarkets > 0 || existingStrategies > 0) {
+                LOG.info(() -> "H2 config datastore already has " + existingMarkets + " Markets and "
+                        + existingStrategies + " Strategies - not migrating XML config.");
+                return false;
+            }
+
+            final List<StrategyConfig> strategies = xmlStrategyConfigRepository.findAll();
+            strategies.forEach(strategy -> StrategyConfigRepositoryH2Datastore.insertStrategy(jdbcTemplate, strategy));
+
+            final List<MarketConfig> markets = xmlMarketConfigRepository.findAll();
+            markets.forEach(market -> MarketConfigRepositoryH2Datastore.insertMarket(jdbcTemplate, market));
+
+            LOG.info(() -> "Migrated " + markets.size() + " Markets and " + strategies.size()
+                    + " Strategies from XML config into H2 config datastore.");
+            return true;
+        });
+    }
+}
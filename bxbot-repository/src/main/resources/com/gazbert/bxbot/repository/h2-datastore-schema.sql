@@ -0,0 +1,63 @@
+--
+-- The MIT License (MIT)
+--
+-- Copyright (c) 2017 Gareth Jon Lynch
+--
+-- Permission is hereby granted, free of charge, to any person obtaining a copy of
+-- this software and associated documentation files (the "Software"), to deal in
+-- the Software without restriction, including without limitation the rights to
+-- use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+-- the Software, and to permit persons to whom the Software is furnished to do so,
+-- subject to the following conditions:
+--
+-- The above copyright notice and this permission notice shall be included in all
+-- copies or substantial portions of the Software.
+--
+-- THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+-- IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+-- FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+-- COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+-- IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+-- CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+--
+
+--
+-- Schema for the H2 config datastore.
+--
+-- Each Market and Strategy is its own row, keyed on its id, so lookups use the primary key index and an update
+-- only touches the rows it changes. The seq columns keep the order the config was created in, like the XML files.
+--
+
+CREATE TABLE IF NOT EXISTS strategy_config (
+    id          VARCHAR(255)  NOT NULL PRIMARY KEY,
+    seq         BIGINT        AUTO_INCREMENT,
+    name        VARCHAR(255)  NOT NULL,
+    description VARCHAR(4000),
+    class_name  VARCHAR(1024),
+    bean_name   VARCHAR(1024)
+);
+
+CREATE TABLE IF NOT EXISTS strategy_config_item (
+    strategy_id VARCHAR(255)  NOT NULL,
+    item_name   VARCHAR(255)  NOT NULL,
+    item_value  VARCHAR(4000),
+    PRIMARY KEY (strategy_id, item_name),
+    FOREIGN KEY (strategy_id) REFERENCES strategy_config (id) ON DELETE CASCADE
+);
+
+CREATE TABLE IF NOT EXISTS market_config (
+    id                   VARCHAR(255)  NOT NULL PRIMARY KEY,
+    seq                  BIGINT        AUTO_INCREMENT,
+    name                 VARCHAR(255)  NOT NULL,
+    base_currency        VARCHAR(32)   NOT NULL,
+    counter_currency     VARCHAR(32)   NOT NULL,
+    enabled              BOOLEAN       NOT NULL,
+    trading_strategy_id  VARCHAR(255)  NOT NULL,
+    trade_cycle_interval INT,
+    exchange_id          VARCHAR(255)
+);
+
+-- datastores created before Markets could reference an Exchange
+ALTER TABLE market_config ADD COLUMN IF NOT EXISTS exchange_id VARCHAR(255);
+
+CREATE INDEX IF NOT EXISTS market_config_strategy_idx ON market_config (trading_strategy_id);
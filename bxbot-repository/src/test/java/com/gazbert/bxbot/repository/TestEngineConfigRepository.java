@@ -25,7 +25,11 @@ package com.gazbert.bxbot.repository;
 
 import com.gazbert.bxbot.datastore.ConfigurationManager;
 import com.gazbert.bxbot.datastore.engine.generated.EngineType;
+import com.gazbert.bxbot.datastore.engine.generated.MarketDataRecorderType;
+import com.gazbert.bxbot.datastore.engine.generated.TradingApiCacheType;
 import com.gazbert.bxbot.domain.engine.EngineConfig;
+import com.gazbert.bxbot.domain.engine.MarketDataRecorderConfig;
+import com.gazbert.bxbot.domain.engine.TradingApiCacheConfig;
 import com.gazbert.bxbot.repository.impl.EngineConfigRepositoryXmlDatastore;
 import org.junit.Before;
 import org.junit.Test;
@@ -57,6 +61,19 @@ public class TestEngineConfigRepository {
     private static final String ENGINE_EMERGENCY_STOP_CURRENCY = "BTC";
     private static final BigDecimal ENGINE_EMERGENCY_STOP_BALANCE = new BigDecimal("0.5");
     private static final int ENGINE_TRADE_CYCLE_INTERVAL = 60;
+    private static final Integer ENGINE_STRATEGY_EXECUTION_THREADS = 4;
+    private static final Integer ENGINE_STRATEGY_EXECUTION_TIMEOUT = 20;
+    private static final String ENGINE_MISSED_CYCLE_POLICY = "coalesce";
+    private static final Integer ENGINE_MARKET_ORDERS_TTL = 5;
+    private static final Integer ENGINE_LATEST_MARKET_PRICE_TTL = 2;
+    private static final Integer ENGINE_TICKER_TTL = 0;
+    private static final Integer ENGINE_OPEN_ORDERS_TTL = 10;
+    private static final Integer ENGINE_BALANCE_INFO_TTL = 30;
+    private static final String ENGINE_MARKET_DATA_DIRECTORY = "./marketdata";
+    private static final Integer ENGINE_ORDER_BOOK_DEPTH = 10;
+    private static final Integer ENGINE_PRICE_SCALE = 2;
+    private static final Integer ENGINE_QUANTITY_SCALE = 8;
+    private static final Integer ENGINE_BUFFER_SIZE = 1024;
 
 
     @Before
@@ -82,6 +99,19 @@ public class TestEngineConfigRepository {
         assertThat(engineConfig.getEmergencyStopCurrency()).isEqualTo(ENGINE_EMERGENCY_STOP_CURRENCY);
         assertThat(engineConfig.getEmergencyStopBalance()).isEqualTo(ENGINE_EMERGENCY_STOP_BALANCE);
         assertThat(engineConfig.getTradeCycleInterval()).isEqualTo(ENGINE_TRADE_CYCLE_INTERVAL);
+        assertThat(engineConfig.getStrategyExecutionThreads()).isEqualTo(ENGINE_STRATEGY_EXECUTION_THREADS);
+        assertThat(engineConfig.getStrategyExecutionTimeout()).isEqualTo(ENGINE_STRATEGY_EXECUTION_TIMEOUT);
+        assertThat(engineConfig.getMissedCyclePolicy()).isEqualTo(ENGINE_MISSED_CYCLE_POLICY);
+        assertThat(engineConfig.getTradingApiCache().getMarketOrdersTtl()).isEqualTo(ENGINE_MARKET_ORDERS_TTL);
+        assertThat(engineConfig.getTradingApiCache().getLatestMarketPriceTtl()).isEqualTo(ENGINE_LATEST_MARKET_PRICE_TTL);
+        assertThat(engineConfig.getTradingApiCache().getTickerTtl()).isEqualTo(ENGINE_TICKER_TTL);
+        assertThat(engineConfig.getTradingApiCache().getOpenOrdersTtl()).isEqualTo(ENGINE_OPEN_ORDERS_TTL);
+        assertThat(engineConfig.getTradingApiCache().getBalanceInfoTtl()).isEqualTo(ENGINE_BALANCE_INFO_TTL);
+        assertThat(engineConfig.getMarketDataRecorder().getDataDirectory()).isEqualTo(ENGINE_MARKET_DATA_DIRECTORY);
+        assertThat(engineConfig.getMarketDataRecorder().getOrderBookDepth()).isEqualTo(ENGINE_ORDER_BOOK_DEPTH);
+        assertThat(engineConfig.getMarketDataRecorder().getPriceScale()).isEqualTo(ENGINE_PRICE_SCALE);
+        assertThat(engineConfig.getMarketDataRecorder().getQuantityScale()).isEqualTo(ENGINE_QUANTITY_SCALE);
+        assertThat(engineConfig.getMarketDataRecorder().getBufferSize()).isEqualTo(ENGINE_BUFFER_SIZE);
 
         PowerMock.verifyAll();
     }
@@ -107,6 +137,19 @@ public class TestEngineConfigRepository {
         assertThat(savedConfig.getEmergencyStopCurrency()).isEqualTo(ENGINE_EMERGENCY_STOP_CURRENCY);
         assertThat(savedConfig.getEmergencyStopBalance()).isEqualTo(ENGINE_EMERGENCY_STOP_BALANCE);
         assertThat(savedConfig.getTradeCycleInterval()).isEqualTo(ENGINE_TRADE_CYCLE_INTERVAL);
+        assertThat(savedConfig.getStrategyExecutionThreads()).isEqualTo(ENGINE_STRATEGY_EXECUTION_THREADS);
+        assertThat(savedConfig.getStrategyExecutionTimeout()).isEqualTo(ENGINE_STRATEGY_EXECUTION_TIMEOUT);
+        assertThat(savedConfig.getMissedCyclePolicy()).isEqualTo(ENGINE_MISSED_CYCLE_POLICY);
+        assertThat(savedConfig.getTradingApiCache().getMarketOrdersTtl()).isEqualTo(ENGINE_MARKET_ORDERS_TTL);
+        assertThat(savedConfig.getTradingApiCache().getLatestMarketPriceTtl()).isEqualTo(ENGINE_LATEST_MARKET_PRICE_TTL);
+        assertThat(savedConfig.getTradingApiCache().getTickerTtl()).isEqualTo(ENGINE_TICKER_TTL);
+        assertThat(savedConfig.getTradingApiCache().getOpenOrdersTtl()).isEqualTo(ENGINE_OPEN_ORDERS_TTL);
+        assertThat(savedConfig.getTradingApiCache().getBalanceInfoTtl()).isEqualTo(ENGINE_BALANCE_INFO_TTL);
+        assertThat(savedConfig.getMarketDataRecorder().getDataDirectory()).isEqualTo(ENGINE_MARKET_DATA_DIRECTORY);
+        assertThat(savedConfig.getMarketDataRecorder().getOrderBookDepth()).isEqualTo(ENGINE_ORDER_BOOK_DEPTH);
+        assertThat(savedConfig.getMarketDataRecorder().getPriceScale()).isEqualTo(ENGINE_PRICE_SCALE);
+        assertThat(savedConfig.getMarketDataRecorder().getQuantityScale()).isEqualTo(ENGINE_QUANTITY_SCALE);
+        assertThat(savedConfig.getMarketDataRecorder().getBufferSize()).isEqualTo(ENGINE_BUFFER_SIZE);
 
         PowerMock.verifyAll();
     }
@@ -122,6 +165,25 @@ public class TestEngineConfigRepository {
         internalConfig.setEmergencyStopBalance(ENGINE_EMERGENCY_STOP_BALANCE);
         internalConfig.setEmergencyStopCurrency(ENGINE_EMERGENCY_STOP_CURRENCY);
         internalConfig.setTradeCycleInterval(ENGINE_TRADE_CYCLE_INTERVAL);
+        internalConfig.setStrategyExecutionThreads(ENGINE_STRATEGY_EXECUTION_THREADS);
+        internalConfig.setStrategyExecutionTimeout(ENGINE_STRATEGY_EXECUTION_TIMEOUT);
+        internalConfig.setMissedCyclePolicy(ENGINE_MISSED_CYCLE_POLICY);
+
+        final TradingApiCacheType tradingApiCacheConfig = new TradingApiCacheType();
+        tradingApiCacheConfig.setMarketOrdersTtl(ENGINE_MARKET_ORDERS_TTL);
+        tradingApiCacheConfig.setLatestMarketPriceTtl(ENGINE_LATEST_MARKET_PRICE_TTL);
+        tradingApiCacheConfig.setTickerTtl(ENGINE_TICKER_TTL);
+        tradingApiCacheConfig.setOpenOrdersTtl(ENGINE_OPEN_ORDERS_TTL);
+        tradingApiCacheConfig.setBalanceInfoTtl(ENGINE_BALANCE_INFO_TTL);
+        internalConfig.setTradingApiCache(tradingApiCacheConfig);
+
+        final MarketDataRecorderType marketDataRecorderConfig = new MarketDataRecorderType();
+        marketDataRecorderConfig.setDataDirectory(ENGINE_MARKET_DATA_DIRECTORY);
+        marketDataRecorderConfig.setOrderBookDepth(ENGINE_ORDER_BOOK_DEPTH);
+        marketDataRecorderConfig.setPriceScale(ENGINE_PRICE_SCALE);
+        marketDataRecorderConfig.setQuantityScale(ENGINE_QUANTITY_SCALE);
+        marketDataRecorderConfig.setBufferSize(ENGINE_BUFFER_SIZE);
+        internalConfig.setMarketDataRecorder(marketDataRecorderConfig);
         return internalConfig;
     }
 
@@ -132,6 +194,25 @@ public class TestEngineConfigRepository {
         externalConfig.setEmergencyStopBalance(ENGINE_EMERGENCY_STOP_BALANCE);
         externalConfig.setEmergencyStopCurrency(ENGINE_EMERGENCY_STOP_CURRENCY);
         externalConfig.setTradeCycleInterval(ENGINE_TRADE_CYCLE_INTERVAL);
+        externalConfig.setStrategyExecutionThreads(ENGINE_STRATEGY_EXECUTION_THREADS);
+        externalConfig.setStrategyExecutionTimeout(ENGINE_STRATEGY_EXECUTION_TIMEOUT);
+        externalConfig.setMissedCyclePolicy(ENGINE_MISSED_CYCLE_POLICY);
+
+        final TradingApiCacheConfig tradingApiCacheConfig = new TradingApiCacheConfig();
+        tradingApiCacheConfig.setMarketOrdersTtl(ENGINE_MARKET_ORDERS_TTL);
+        tradingApiCacheConfig.setLatestMarketPriceTtl(ENGINE_LATEST_MARKET_PRICE_TTL);
+        tradingApiCacheConfig.setTickerTtl(ENGINE_TICKER_TTL);
+        tradingApiCacheConfig.setOpenOrdersTtl(ENGINE_OPEN_ORDERS_TTL);
+        tradingApiCacheConfig.setBalanceInfoTtl(ENGINE_BALANCE_INFO_TTL);
+        externalConfig.setTradingApiCache(tradingApiCacheConfig);
+
+        final MarketDataRecorderConfig marketDataRecorderConfig = new MarketDataRecorderConfig();
+        marketDataRecorderConfig.setDataDirectory(ENGINE_MARKET_DATA_DIRECTORY);
+        marketDataRecorderConfig.setOrderBookDepth(ENGINE_ORDER_BOOK_DEPTH);
+        marketDataRecorderConfig.setPriceScale(ENGINE_PRICE_SCALE);
+        marketDataRecorderConfig.setQuantityScale(ENGINE_QUANTITY_SCALE);
+        marketDataRecorderConfig.setBufferSize(ENGINE_BUFFER_SIZE);
+        externalConfig.setMarketDataRecorder(marketDataRecorderConfig);
         return externalConfig;
     }
 }
@@ -23,7 +23,9 @@
 
 package com.gazbert.bxbot.repository;
 
+import com.gazbert.bxbot.datastore.ConfigurationConflictException;
 import com.gazbert.bxbot.datastore.ConfigurationManager;
+import com.gazbert.bxbot.datastore.VersionedConfig;
 import com.gazbert.bxbot.datastore.exchange.generated.*;
 import com.gazbert.bxbot.domain.exchange.AuthenticationConfig;
 import com.gazbert.bxbot.domain.exchange.ExchangeConfig;
@@ -37,6 +39,7 @@ import org.powermock.api.easymock.PowerMock;
 import org.powermock.core.classloader.annotations.PowerMockIgnore;
 import org.powermock.core.classloader.annotations.PrepareForTest;
 import org.powermock.modules.junit4.PowerMockRunner;
+import org.springframework.dao.OptimisticLockingFailureException;
 
 import java.util.Arrays;
 import java.util.List;
@@ -56,9 +59,16 @@ import static org.easymock.EasyMock.*;
 @PowerMockIgnore({"javax.management.*"})
 public class TestExchangeConfigRepository {
 
+    private static final long CONFIG_VERSION = 3L;
+
+    private static final String EXCHANGE_ID = "bitstamp";
     private static final String EXCHANGE_NAME = "Bitstamp";
     private static final String EXCHANGE_ADAPTER = "com.gazbert.bxbot.exchanges.TestExchangeAdapter";
 
+    private static final String EXCHANGE_2_ID = "kraken";
+    private static final String EXCHANGE_2_NAME = "Kraken";
+    private static final String UNKNOWN_EXCHANGE_ID = "unknown-exchange-id";
+
     private static final String API_KEY_CONFIG_ITEM_KEY = "api-key";
     private static final String API_KEY_CONFIG_ITEM_VALUE = "apiKey--123";
 
@@ -66,6 +76,10 @@ public class TestExchangeConfigRepository {
     private static final String SECRET_CONFIG_ITEM_VALUE = "secret-key";
 
     private static final Integer CONNECTION_TIMEOUT = 30;
+    private static final Integer CONNECTION_POOL_SIZE = 10;
+    private static final Integer CONNECTION_IDLE_TIMEOUT = 120;
+    private static final Integer MAX_REQUESTS_PER_MINUTE = 60;
+    private static final Integer MAX_REQUEST_BURST = 10;
     private static final List<Integer> NON_FATAL_ERROR_CODES = Arrays.asList(502, 503, 504);
     private static final List<String> NON_FATAL_ERROR_MESSAGES = Arrays.asList(
             "Connection refused", "Connection reset", "Remote host closed connection during handshake");
@@ -85,16 +99,17 @@ public class TestExchangeConfigRepository {
     public void whenGetCalledThenReturnExchangeConfig() throws Exception {
 
         expect(ConfigurationManager.loadConfig(
-                eq(ExchangeType.class),
+                eq(ExchangesType.class),
                 eq(EXCHANGE_CONFIG_XML_FILENAME),
                 eq(EXCHANGE_CONFIG_XSD_FILENAME))).
-                andReturn(someInternalExchangeConfig());
+                andReturn(someInternalExchangesConfig());
 
         PowerMock.replayAll();
 
         final ExchangeConfigRepository exchangeConfigRepository = new ExchangeConfigRepositoryXmlDatastore();
         final ExchangeConfig exchangeConfig = exchangeConfigRepository.get();
 
+        assertThat(exchangeConfig.getId()).isEqualTo(EXCHANGE_ID);
         assertThat(exchangeConfig.getExchangeName()).isEqualTo(EXCHANGE_NAME);
         assertThat(exchangeConfig.getExchangeAdapter()).isEqualTo(EXCHANGE_ADAPTER);
 
@@ -104,6 +119,10 @@ public class TestExchangeConfigRepository {
         assertThat(exchangeConfig.getNetworkConfig().getConnectionTimeout()).isEqualTo(CONNECTION_TIMEOUT);
         assertThat(exchangeConfig.getNetworkConfig().getNonFatalErrorCodes()).isEqualTo(NON_FATAL_ERROR_CODES);
         assertThat(exchangeConfig.getNetworkConfig().getNonFatalErrorMessages()).isEqualTo(NON_FATAL_ERROR_MESSAGES);
+        assertThat(exchangeConfig.getNetworkConfig().getConnectionPoolSize()).isEqualTo(CONNECTION_POOL_SIZE);
+        assertThat(exchangeConfig.getNetworkConfig().getConnectionIdleTimeout()).isEqualTo(CONNECTION_IDLE_TIMEOUT);
+        assertThat(exchangeConfig.getNetworkConfig().getMaxRequestsPerMinute()).isEqualTo(MAX_REQUESTS_PER_MINUTE);
+        assertThat(exchangeConfig.getNetworkConfig().getMaxRequestBurst()).isEqualTo(MAX_REQUEST_BURST);
         assertThat(exchangeConfig.getOptionalConfig().getItems().get(BUY_FEE_CONFIG_ITEM_KEY)).isEqualTo(BUY_FEE_CONFIG_ITEM_VALUE);
         assertThat(exchangeConfig.getOptionalConfig().getItems().get(SELL_FEE_CONFIG_ITEM_KEY)).isEqualTo(SELL_FEE_CONFIG_ITEM_VALUE);
 
@@ -113,25 +132,26 @@ public class TestExchangeConfigRepository {
     @Test
     public void whenSaveCalledThenExpectRepositoryToSaveItAndReturnSavedExchangeConfig() throws Exception {
 
-        expect(ConfigurationManager.loadConfig(
-                eq(ExchangeType.class),
+        expect(ConfigurationManager.loadVersionedConfig(
+                eq(ExchangesType.class),
                 eq(EXCHANGE_CONFIG_XML_FILENAME),
                 eq(EXCHANGE_CONFIG_XSD_FILENAME))).
-                andReturn(someInternalExchangeConfig());
+                andReturn(new VersionedConfig<>(someInternalExchangesConfig(), CONFIG_VERSION));
 
-        ConfigurationManager.saveConfig(eq(ExchangeType.class), anyObject(ExchangeType.class), eq(EXCHANGE_CONFIG_XML_FILENAME));
+        ConfigurationManager.saveConfig(eq(ExchangesType.class), anyObject(ExchangesType.class), eq(EXCHANGE_CONFIG_XML_FILENAME), eq(CONFIG_VERSION));
 
         expect(ConfigurationManager.loadConfig(
-                eq(ExchangeType.class),
+                eq(ExchangesType.class),
                 eq(EXCHANGE_CONFIG_XML_FILENAME),
                 eq(EXCHANGE_CONFIG_XSD_FILENAME))).
-                andReturn(someInternalExchangeConfig());
+                andReturn(someInternalExchangesConfig());
 
         PowerMock.replayAll();
 
         final ExchangeConfigRepository exchangeConfigRepository = new ExchangeConfigRepositoryXmlDatastore();
         final ExchangeConfig savedExchangeConfig = exchangeConfigRepository.save(withSomeExternalExchangeConfig());
 
+        assertThat(savedExchangeConfig.getId()).isEqualTo(EXCHANGE_ID);
         assertThat(savedExchangeConfig.getExchangeName()).isEqualTo(EXCHANGE_NAME);
         assertThat(savedExchangeConfig.getExchangeAdapter()).isEqualTo(EXCHANGE_ADAPTER);
 
@@ -141,17 +161,133 @@ public class TestExchangeConfigRepository {
         assertThat(savedExchangeConfig.getNetworkConfig().getConnectionTimeout()).isEqualTo(CONNECTION_TIMEOUT);
         assertThat(savedExchangeConfig.getNetworkConfig().getNonFatalErrorCodes()).isEqualTo(NON_FATAL_ERROR_CODES);
         assertThat(savedExchangeConfig.getNetworkConfig().getNonFatalErrorMessages()).isEqualTo(NON_FATAL_ERROR_MESSAGES);
+        assertThat(savedExchangeConfig.getNetworkConfig().getConnectionPoolSize()).isEqualTo(CONNECTION_POOL_SIZE);
+        assertThat(savedExchangeConfig.getNetworkConfig().getConnectionIdleTimeout()).isEqualTo(CONNECTION_IDLE_TIMEOUT);
+        assertThat(savedExchangeConfig.getNetworkConfig().getMaxRequestsPerMinute()).isEqualTo(MAX_REQUESTS_PER_MINUTE);
+        assertThat(savedExchangeConfig.getNetworkConfig().getMaxRequestBurst()).isEqualTo(MAX_REQUEST_BURST);
         assertThat(savedExchangeConfig.getOptionalConfig().getItems().get(BUY_FEE_CONFIG_ITEM_KEY)).isEqualTo(BUY_FEE_CONFIG_ITEM_VALUE);
         assertThat(savedExchangeConfig.getOptionalConfig().getItems().get(SELL_FEE_CONFIG_ITEM_KEY)).isEqualTo(SELL_FEE_CONFIG_ITEM_VALUE);
 
         PowerMock.verifyAll();
     }
 
+    @Test
+    public void whenFindAllCalledThenReturnAllExchangeConfig() throws Exception {
+
+        expect(ConfigurationManager.loadConfig(
+                eq(ExchangesType.class),
+                eq(EXCHANGE_CONFIG_XML_FILENAME),
+                eq(EXCHANGE_CONFIG_XSD_FILENAME))).
+                andReturn(someInternalExchangesConfig());
+
+        PowerMock.replayAll();
+
+        final ExchangeConfigRepository exchangeConfigRepository = new ExchangeConfigRepositoryXmlDatastore();
+        final List<ExchangeConfig> exchangeConfigItems = exchangeConfigRepository.findAll();
+
+        assertThat(exchangeConfigItems.size()).isEqualTo(2);
+
+        assertThat(exchangeConfigItems.get(0).getId()).isEqualTo(EXCHANGE_ID);
+        assertThat(exchangeConfigItems.get(0).getExchangeName()).isEqualTo(EXCHANGE_NAME);
+        assertThat(exchangeConfigItems.get(0).getExchangeAdapter()).isEqualTo(EXCHANGE_ADAPTER);
+
+        assertThat(exchangeConfigItems.get(1).getId()).isEqualTo(EXCHANGE_2_ID);
+        assertThat(exchangeConfigItems.get(1).getExchangeName()).isEqualTo(EXCHANGE_2_NAME);
+        assertThat(exchangeConfigItems.get(1).getExchangeAdapter()).isEqualTo(EXCHANGE_ADAPTER);
+
+        PowerMock.verifyAll();
+    }
+
+    @Test
+    public void whenSaveCalledWithExchangeIdThenExpectRepositoryToUpdateThatExchange() throws Exception {
+
+        final ExchangesType updatedExchangesConfig = someInternalExchangesConfig();
+        updatedExchangesConfig.getExchanges().get(1).getNetworkConfig().setConnectionTimeout(CONNECTION_TIMEOUT + 1);
+
+        expect(ConfigurationManager.loadVersionedConfig(
+                eq(ExchangesType.class),
+                eq(EXCHANGE_CONFIG_XML_FILENAME),
+                eq(EXCHANGE_CONFIG_XSD_FILENAME))).
+                andReturn(new VersionedConfig<>(someInternalExchangesConfig(), CONFIG_VERSION));
+
+        ConfigurationManager.saveConfig(eq(ExchangesType.class), anyObject(ExchangesType.class), eq(EXCHANGE_CONFIG_XML_FILENAME), eq(CONFIG_VERSION));
+
+        expect(ConfigurationManager.loadConfig(
+                eq(ExchangesType.class),
+                eq(EXCHANGE_CONFIG_XML_FILENAME),
+                eq(EXCHANGE_CONFIG_XSD_FILENAME))).
+                andReturn(updatedExchangesConfig);
+
+        PowerMock.replayAll();
+
+        final ExchangeConfig exchangeConfig = withSomeExternalExchangeConfig();
+        exchangeConfig.setId(EXCHANGE_2_ID);
+        exchangeConfig.setExchangeName(EXCHANGE_2_NAME);
+        exchangeConfig.getNetworkConfig().setConnectionTimeout(CONNECTION_TIMEOUT + 1);
+
+        final ExchangeConfigRepository exchangeConfigRepository = new ExchangeConfigRepositoryXmlDatastore();
+        final ExchangeConfig savedExchangeConfig = exchangeConfigRepository.save(exchangeConfig);
+
+        assertThat(savedExchangeConfig.getId()).isEqualTo(EXCHANGE_2_ID);
+        assertThat(savedExchangeConfig.getExchangeName()).isEqualTo(EXCHANGE_2_NAME);
+        assertThat(savedExchangeConfig.getNetworkConfig().getConnectionTimeout()).isEqualTo(CONNECTION_TIMEOUT + 1);
+        assertThat(savedExchangeConfig.getAuthenticationConfig().getItems().get(API_KEY_CONFIG_ITEM_KEY)).isEqualTo(API_KEY_CONFIG_ITEM_VALUE);
+
+        PowerMock.verifyAll();
+    }
+
+    @Test
+    public void whenSaveCalledWithUnknownExchangeIdThenReturnNull() throws Exception {
+
+        expect(ConfigurationManager.loadVersionedConfig(
+                eq(ExchangesType.class),
+                eq(EXCHANGE_CONFIG_XML_FILENAME),
+                eq(EXCHANGE_CONFIG_XSD_FILENAME))).
+                andReturn(new VersionedConfig<>(someInternalExchangesConfig(), CONFIG_VERSION));
+
+        PowerMock.replayAll();
+
+        final ExchangeConfig exchangeConfig = withSomeExternalExchangeConfig();
+        exchangeConfig.setId(UNKNOWN_EXCHANGE_ID);
+
+        final ExchangeConfigRepository exchangeConfigRepository = new ExchangeConfigRepositoryXmlDatastore();
+        assertThat(exchangeConfigRepository.save(exchangeConfig)).isNull();
+
+        PowerMock.verifyAll();
+    }
+
+    @Test(expected = OptimisticLockingFailureException.class)
+    public void whenSaveCalledAndConfigChangedSinceLoadedThenExpectOptimisticLockingFailure() throws Exception {
+
+        expect(ConfigurationManager.loadVersionedConfig(
+                eq(ExchangesType.class),
+                eq(EXCHANGE_CONFIG_XML_FILENAME),
+                eq(EXCHANGE_CONFIG_XSD_FILENAME))).
+                andReturn(new VersionedConfig<>(someInternalExchangesConfig(), CONFIG_VERSION));
+
+        ConfigurationManager.saveConfig(eq(ExchangesType.class), anyObject(ExchangesType.class), eq(EXCHANGE_CONFIG_XML_FILENAME), eq(CONFIG_VERSION));
+        expectLastCall().andThrow(new ConfigurationConflictException("Exchange config has changed"));
+
+        PowerMock.replayAll();
+
+        final ExchangeConfigRepository exchangeConfigRepository = new ExchangeConfigRepositoryXmlDatastore();
+        exchangeConfigRepository.save(withSomeExternalExchangeConfig());
+
+        PowerMock.verifyAll();
+    }
+
     // ------------------------------------------------------------------------------------------------
     // Private utils
     // ------------------------------------------------------------------------------------------------
 
-    private static ExchangeType someInternalExchangeConfig() {
+    private static ExchangesType someInternalExchangesConfig() {
+        final ExchangesType exchangesConfig = new ExchangesType();
+        exchangesConfig.getExchanges().add(someInternalExchangeConfig(EXCHANGE_ID, EXCHANGE_NAME));
+        exchangesConfig.getExchanges().add(someInternalExchangeConfig(EXCHANGE_2_ID, EXCHANGE_2_NAME));
+        return exchangesConfig;
+    }
+
+    private static ExchangeType someInternalExchangeConfig(String id, String name) {
 
         final AuthenticationConfigType authenticationConfig = new AuthenticationConfigType();
         final ConfigItemType apiKey = new ConfigItemType();
@@ -171,6 +307,10 @@ public class TestExchangeConfigRepository {
         networkConfig.setConnectionTimeout(CONNECTION_TIMEOUT);
         networkConfig.setNonFatalErrorCodes(nonFatalErrorCodes);
         networkConfig.setNonFatalErrorMessages(nonFatalErrorMessages);
+        networkConfig.setConnectionPoolSize(CONNECTION_POOL_SIZE);
+        networkConfig.setConnectionIdleTimeout(CONNECTION_IDLE_TIMEOUT);
+        networkConfig.setMaxRequestsPerMinute(MAX_REQUESTS_PER_MINUTE);
+        networkConfig.setMaxRequestBurst(MAX_REQUEST_BURST);
 
         final ConfigItemType buyFee = new ConfigItemType();
         buyFee.setName(BUY_FEE_CONFIG_ITEM_KEY);
@@ -183,7 +323,8 @@ public class TestExchangeConfigRepository {
         optionalConfigType.getConfigItems().add(sellFee);
 
         final ExchangeType exchangeConfig = new ExchangeType();
-        exchangeConfig.setName(EXCHANGE_NAME);
+        exchangeConfig.setId(id);
+        exchangeConfig.setName(name);
         exchangeConfig.setAdapter(EXCHANGE_ADAPTER);
         exchangeConfig.setAuthenticationConfig(authenticationConfig);
         exchangeConfig.setNetworkConfig(networkConfig);
@@ -203,6 +344,10 @@ public class TestExchangeConfigRepository {
         networkConfig.setConnectionTimeout(CONNECTION_TIMEOUT);
         networkConfig.setNonFatalErrorCodes(NON_FATAL_ERROR_CODES);
         networkConfig.setNonFatalErrorMessages(NON_FATAL_ERROR_MESSAGES);
+        networkConfig.setConnectionPoolSize(CONNECTION_POOL_SIZE);
+        networkConfig.setConnectionIdleTimeout(CONNECTION_IDLE_TIMEOUT);
+        networkConfig.setMaxRequestsPerMinute(MAX_REQUESTS_PER_MINUTE);
+        networkConfig.setMaxRequestBurst(MAX_REQUEST_BURST);
 
         final OptionalConfig optionalConfig = new OptionalConfig();
         optionalConfig.getItems().put(BUY_FEE_CONFIG_ITEM_KEY, BUY_FEE_CONFIG_ITEM_VALUE);
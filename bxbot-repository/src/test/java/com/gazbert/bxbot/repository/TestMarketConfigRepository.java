@@ -23,7 +23,9 @@
 
 package com.gazbert.bxbot.repository;
 
+import com.gazbert.bxbot.datastore.ConfigurationConflictException;
 import com.gazbert.bxbot.datastore.ConfigurationManager;
+import com.gazbert.bxbot.datastore.VersionedConfig;
 import com.gazbert.bxbot.datastore.market.generated.MarketType;
 import com.gazbert.bxbot.datastore.market.generated.MarketsType;
 import com.gazbert.bxbot.domain.market.MarketConfig;
@@ -35,6 +37,7 @@ import org.powermock.api.easymock.PowerMock;
 import org.powermock.core.classloader.annotations.PowerMockIgnore;
 import org.powermock.core.classloader.annotations.PrepareForTest;
 import org.powermock.modules.junit4.PowerMockRunner;
+import org.springframework.dao.OptimisticLockingFailureException;
 
 import java.util.List;
 
@@ -56,6 +59,8 @@ public class TestMarketConfigRepository {
     // Mocked out methods
     private static final String MOCKED_GENERATE_UUID_METHOD = "generateUuid";
 
+    private static final long CONFIG_VERSION = 3L;
+
     private static final String UNKNOWN_MARKET_ID = "unknown-or-new-market-id";
     private static final String GENERATED_MARKET_ID = "new-market-id-123";
 
@@ -65,6 +70,8 @@ public class TestMarketConfigRepository {
     private static final String MARKET_1_COUNTER_CURRENCY = "USD";
     private static final boolean MARKET_1_IS_ENABLED = true;
     private static final String MARKET_1_TRADING_STRATEGY_ID = "macd_trend_follower";
+    private static final Integer MARKET_1_TRADE_CYCLE_INTERVAL = 2;
+    private static final String MARKET_1_EXCHANGE_ID = "gemini";
 
     private static final String MARKET_2_ID = "gdax_gbp/btc";
     private static final String MARKET_2_NAME = "BTC/GBP";
@@ -107,6 +114,8 @@ public class TestMarketConfigRepository {
         assertThat(marketConfigItems.get(0).getBaseCurrency()).isEqualTo(MARKET_1_BASE_CURRENCY);
         assertThat(marketConfigItems.get(0).getCounterCurrency()).isEqualTo(MARKET_1_COUNTER_CURRENCY);
         assertThat(marketConfigItems.get(0).getTradingStrategyId()).isEqualTo(MARKET_1_TRADING_STRATEGY_ID);
+        assertThat(marketConfigItems.get(0).getTradeCycleInterval()).isEqualTo(MARKET_1_TRADE_CYCLE_INTERVAL);
+        assertThat(marketConfigItems.get(0).getExchangeId()).isEqualTo(MARKET_1_EXCHANGE_ID);
 
         assertThat(marketConfigItems.get(1).getId()).isEqualTo(MARKET_2_ID);
         assertThat(marketConfigItems.get(1).getName()).isEqualTo(MARKET_2_NAME);
@@ -114,6 +123,8 @@ public class TestMarketConfigRepository {
         assertThat(marketConfigItems.get(1).getBaseCurrency()).isEqualTo(MARKET_2_BASE_CURRENCY);
         assertThat(marketConfigItems.get(1).getCounterCurrency()).isEqualTo(MARKET_2_COUNTER_CURRENCY);
         assertThat(marketConfigItems.get(1).getTradingStrategyId()).isEqualTo(MARKET_2_TRADING_STRATEGY_ID);
+        assertThat(marketConfigItems.get(1).getTradeCycleInterval()).isNull();
+        assertThat(marketConfigItems.get(1).getExchangeId()).isNull();
 
         PowerMock.verifyAll();
     }
@@ -138,6 +149,8 @@ public class TestMarketConfigRepository {
         assertThat(marketConfig.getBaseCurrency()).isEqualTo(MARKET_1_BASE_CURRENCY);
         assertThat(marketConfig.getCounterCurrency()).isEqualTo(MARKET_1_COUNTER_CURRENCY);
         assertThat(marketConfig.getTradingStrategyId()).isEqualTo(MARKET_1_TRADING_STRATEGY_ID);
+        assertThat(marketConfig.getTradeCycleInterval()).isEqualTo(MARKET_1_TRADE_CYCLE_INTERVAL);
+        assertThat(marketConfig.getExchangeId()).isEqualTo(MARKET_1_EXCHANGE_ID);
 
         PowerMock.verifyAll();
     }
@@ -163,16 +176,16 @@ public class TestMarketConfigRepository {
     @Test
     public void whenSaveCalledWithKnownIdThenReturnUpdatedMarketConfig() throws Exception {
 
-        expect(ConfigurationManager.loadConfig(
+        expect(ConfigurationManager.loadVersionedConfig(
                 eq(MarketsType.class),
                 eq(MARKETS_CONFIG_XML_FILENAME),
                 eq(MARKETS_CONFIG_XSD_FILENAME))).
-                andReturn(allTheInternalMarketsConfig());
+                andReturn(new VersionedConfig<>(allTheInternalMarketsConfig(), CONFIG_VERSION));
 
         ConfigurationManager.saveConfig(
                 eq(MarketsType.class),
                 anyObject(MarketsType.class),
-                eq(MARKETS_CONFIG_XML_FILENAME));
+                eq(MARKETS_CONFIG_XML_FILENAME), eq(CONFIG_VERSION));
 
         expect(ConfigurationManager.loadConfig(
                 eq(MarketsType.class),
@@ -198,11 +211,11 @@ public class TestMarketConfigRepository {
     @Test
     public void whenSaveCalledWithUnknownIdThenReturnEmptyMarketConfig() throws Exception {
 
-        expect(ConfigurationManager.loadConfig(
+        expect(ConfigurationManager.loadVersionedConfig(
                 eq(MarketsType.class),
                 eq(MARKETS_CONFIG_XML_FILENAME),
                 eq(MARKETS_CONFIG_XSD_FILENAME))).
-                andReturn(allTheInternalMarketsConfig());
+                andReturn(new VersionedConfig<>(allTheInternalMarketsConfig(), CONFIG_VERSION));
 
         PowerMock.replayAll();
 
@@ -216,16 +229,16 @@ public class TestMarketConfigRepository {
     @Test
     public void whenSaveCalledWithEmptyIdThenExpectCreatedMarketConfigToBeReturned() throws Exception {
 
-        expect(ConfigurationManager.loadConfig(
+        expect(ConfigurationManager.loadVersionedConfig(
                 eq(MarketsType.class),
                 eq(MARKETS_CONFIG_XML_FILENAME),
                 eq(MARKETS_CONFIG_XSD_FILENAME))).
-                andReturn(allTheInternalMarketsConfig());
+                andReturn(new VersionedConfig<>(allTheInternalMarketsConfig(), CONFIG_VERSION));
 
         ConfigurationManager.saveConfig(
                 eq(MarketsType.class),
                 anyObject(MarketsType.class),
-                eq(MARKETS_CONFIG_XML_FILENAME));
+                eq(MARKETS_CONFIG_XML_FILENAME), eq(CONFIG_VERSION));
 
         expect(ConfigurationManager.loadConfig(
                 eq(MarketsType.class),
@@ -251,19 +264,42 @@ public class TestMarketConfigRepository {
         PowerMock.verifyAll();
     }
 
+    @Test(expected = OptimisticLockingFailureException.class)
+    public void whenSaveCalledAndConfigChangedSinceLoadedThenExpectOptimisticLockingFailure() throws Exception {
+
+        expect(ConfigurationManager.loadVersionedConfig(
+                eq(MarketsType.class),
+                eq(MARKETS_CONFIG_XML_FILENAME),
+                eq(MARKETS_CONFIG_XSD_FILENAME))).
+                andReturn(new VersionedConfig<>(allTheInternalMarketsConfig(), CONFIG_VERSION));
+
+        ConfigurationManager.saveConfig(
+                eq(MarketsType.class),
+                anyObject(MarketsType.class),
+                eq(MARKETS_CONFIG_XML_FILENAME), eq(CONFIG_VERSION));
+        expectLastCall().andThrow(new ConfigurationConflictException("Markets config has changed"));
+
+        PowerMock.replayAll();
+
+        final MarketConfigRepository marketConfigRepository = new MarketConfigRepositoryXmlDatastore();
+        marketConfigRepository.save(someExternalMarketConfig());
+
+        PowerMock.verifyAll();
+    }
+
     @Test
     public void whenDeleteCalledWithKnownIdThenReturnMatchingMarketConfig() throws Exception {
 
-        expect(ConfigurationManager.loadConfig(
+        expect(ConfigurationManager.loadVersionedConfig(
                 eq(MarketsType.class),
                 eq(MARKETS_CONFIG_XML_FILENAME),
                 eq(MARKETS_CONFIG_XSD_FILENAME))).
-                andReturn(allTheInternalMarketsConfig());
+                andReturn(new VersionedConfig<>(allTheInternalMarketsConfig(), CONFIG_VERSION));
 
         ConfigurationManager.saveConfig(
                 eq(MarketsType.class),
                 anyObject(MarketsType.class),
-                eq(MARKETS_CONFIG_XML_FILENAME));
+                eq(MARKETS_CONFIG_XML_FILENAME), eq(CONFIG_VERSION));
 
         PowerMock.replayAll();
 
@@ -283,11 +319,11 @@ public class TestMarketConfigRepository {
     @Test
     public void whenDeleteCalledWithUnknownIdThenReturnEmptyMarket() throws Exception {
 
-        expect(ConfigurationManager.loadConfig(
+        expect(ConfigurationManager.loadVersionedConfig(
                 eq(MarketsType.class),
                 eq(MARKETS_CONFIG_XML_FILENAME),
                 eq(MARKETS_CONFIG_XSD_FILENAME))).
-                andReturn(allTheInternalMarketsConfig());
+                andReturn(new VersionedConfig<>(allTheInternalMarketsConfig(), CONFIG_VERSION));
 
         PowerMock.replayAll();
 
@@ -311,6 +347,8 @@ public class TestMarketConfigRepository {
         marketType1.setBaseCurrency(MARKET_1_BASE_CURRENCY);
         marketType1.setCounterCurrency(MARKET_1_COUNTER_CURRENCY);
         marketType1.setTradingStrategyId(MARKET_1_TRADING_STRATEGY_ID);
+        marketType1.setTradeCycleInterval(MARKET_1_TRADE_CYCLE_INTERVAL);
+        marketType1.setExchangeId(MARKET_1_EXCHANGE_ID);
 
         final MarketType marketType2 = new MarketType();
         marketType2.setId(MARKET_2_ID);
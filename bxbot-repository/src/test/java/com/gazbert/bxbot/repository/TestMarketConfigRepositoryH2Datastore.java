@@ -0,0 +1,202 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.repository;
+
+import com.gazbert.bxbot.domain.market.MarketConfig;
+import com.gazbert.bxbot.repository.impl.MarketConfigRepositoryH2Datastore;
+import org.h2.jdbcx.JdbcConnectionPool;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.DatabasePopulatorUtils;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Java6Assertions.assertThat;
+
+/**
+ * Tests H2 Market configuration repository behaves as expected.
+ * Runs against a fresh in-memory H2 database for each test.
+ *
+ * @author gazbert
+ */
+public class TestMarketConfigRepositoryH2Datastore {
+
+    private static final String SCHEMA_FILENAME = "com/gazbert/bxbot/repository/h2-datastore-schema.sql";
+
+    private static final String UNKNOWN_MARKET_ID = "unknown-or-new-market-id";
+
+    private static final String MARKET_1_NAME = "BTC/USD";
+    private static final String MARKET_1_BASE_CURRENCY = "BTC";
+    private static final String MARKET_1_COUNTER_CURRENCY = "USD";
+    private static final boolean MARKET_1_IS_ENABLED = true;
+    private static final String MARKET_1_TRADING_STRATEGY_ID = "macd_trend_follower";
+    private static final Integer MARKET_1_TRADE_CYCLE_INTERVAL = 2;
+    private static final String MARKET_1_EXCHANGE_ID = "gemini";
+
+    private static final String MARKET_2_NAME = "BTC/GBP";
+    private static final String MARKET_2_BASE_CURRENCY = "BTC";
+    private static final String MARKET_2_COUNTER_CURRENCY = "GBP";
+    private static final boolean MARKET_2_IS_ENABLED = false;
+    private static final String MARKET_2_TRADING_STRATEGY_ID = "scalper";
+
+    private JdbcConnectionPool dataSource;
+    private MarketConfigRepository marketConfigRepository;
+
+
+    @Before
+    public void setup() throws Exception {
+        dataSource = JdbcConnectionPool.create("jdbc:h2:mem:" + UUID.randomUUID(), "sa", "");
+        DatabasePopulatorUtils.execute(new ResourceDatabasePopulator(new ClassPathResource(SCHEMA_FILENAME)),
+                dataSource);
+        marketConfigRepository = new MarketConfigRepositoryH2Datastore(new JdbcTemplate(dataSource));
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        dataSource.dispose();
+    }
+
+    @Test
+    public void whenSaveCalledWithEmptyIdThenExpectCreatedMarketConfigToBeReturned() throws Exception {
+
+        final MarketConfig marketConfig = marketConfigRepository.save(someNewMarketConfig());
+
+        assertThat(marketConfig.getId()).isNotEmpty();
+        assertThat(marketConfig.getName()).isEqualTo(MARKET_1_NAME);
+        assertThat(marketConfig.isEnabled()).isEqualTo(MARKET_1_IS_ENABLED);
+        assertThat(marketConfig.getBaseCurrency()).isEqualTo(MARKET_1_BASE_CURRENCY);
+        assertThat(marketConfig.getCounterCurrency()).isEqualTo(MARKET_1_COUNTER_CURRENCY);
+        assertThat(marketConfig.getTradingStrategyId()).isEqualTo(MARKET_1_TRADING_STRATEGY_ID);
+        assertThat(marketConfig.getTradeCycleInterval()).isEqualTo(MARKET_1_TRADE_CYCLE_INTERVAL);
+        assertThat(marketConfig.getExchangeId()).isEqualTo(MARKET_1_EXCHANGE_ID);
+    }
+
+    @Test
+    public void whenFindAllCalledThenExpectMarketConfigsInTheOrderTheyWereCreated() throws Exception {
+
+        final MarketConfig market1 = marketConfigRepository.save(someNewMarketConfig());
+        final MarketConfig market2 = marketConfigRepository.save(anotherNewMarketConfig());
+
+        final List<MarketConfig> marketConfigs = marketConfigRepository.findAll();
+
+        assertThat(marketConfigs.size()).isEqualTo(2);
+        assertThat(marketConfigs.get(0).getId()).isEqualTo(market1.getId());
+        assertThat(marketConfigs.get(1).getId()).isEqualTo(market2.getId());
+        assertThat(marketConfigs.get(1).getName()).isEqualTo(MARKET_2_NAME);
+        assertThat(marketConfigs.get(1).isEnabled()).isEqualTo(MARKET_2_IS_ENABLED);
+        assertThat(marketConfigs.get(1).getTradeCycleInterval()).isNull();
+        assertThat(marketConfigs.get(1).getExchangeId()).isNull();
+    }
+
+    @Test
+    public void whenFindByIdCalledWithKnownIdThenReturnMatchingMarketConfig() throws Exception {
+
+        marketConfigRepository.save(someNewMarketConfig());
+        final MarketConfig market2 = marketConfigRepository.save(anotherNewMarketConfig());
+
+        final MarketConfig marketConfig = marketConfigRepository.findById(market2.getId());
+
+        assertThat(marketConfig.getId()).isEqualTo(market2.getId());
+        assertThat(marketConfig.getName()).isEqualTo(MARKET_2_NAME);
+        assertThat(marketConfig.getBaseCurrency()).isEqualTo(MARKET_2_BASE_CURRENCY);
+        assertThat(marketConfig.getCounterCurrency()).isEqualTo(MARKET_2_COUNTER_CURRENCY);
+        assertThat(marketConfig.getTradingStrategyId()).isEqualTo(MARKET_2_TRADING_STRATEGY_ID);
+    }
+
+    @Test
+    public void whenFindByIdCalledWithUnknownIdThenReturnNullMarketConfig() throws Exception {
+        assertThat(marketConfigRepository.findById(UNKNOWN_MARKET_ID)).isNull();
+    }
+
+    @Test
+    public void whenSaveCalledWithKnownIdThenOnlyThatMarketConfigIsUpdated() throws Exception {
+
+        final MarketConfig market1 = marketConfigRepository.save(someNewMarketConfig());
+        final MarketConfig market2 = marketConfigRepository.save(anotherNewMarketConfig());
+
+        market1.setEnabled(false);
+        market1.setTradeCycleInterval(null);
+        market1.setExchangeId(null);
+        final MarketConfig updatedMarket = marketConfigRepository.save(market1);
+
+        assertThat(updatedMarket.getId()).isEqualTo(market1.getId());
+        assertThat(updatedMarket.isEnabled()).isFalse();
+        assertThat(updatedMarket.getTradeCycleInterval()).isNull();
+        assertThat(updatedMarket.getExchangeId()).isNull();
+
+        final MarketConfig untouchedMarket = marketConfigRepository.findById(market2.getId());
+        assertThat(untouchedMarket.getName()).isEqualTo(MARKET_2_NAME);
+    }
+
+    @Test
+    public void whenSaveCalledWithUnknownIdThenReturnEmptyMarketConfig() throws Exception {
+
+        final MarketConfig unknownMarket = someNewMarketConfig();
+        unknownMarket.setId(UNKNOWN_MARKET_ID);
+
+        assertThat(marketConfigRepository.save(unknownMarket)).isNull();
+        assertThat(marketConfigRepository.findAll()).isEmpty();
+    }
+
+    @Test
+    public void whenDeleteCalledWithKnownIdThenReturnDeletedMarketConfig() throws Exception {
+
+        final MarketConfig market1 = marketConfigRepository.save(someNewMarketConfig());
+        final MarketConfig market2 = marketConfigRepository.save(anotherNewMarketConfig());
+
+        final MarketConfig deletedMarket = marketConfigRepository.delete(market1.getId());
+
+        assertThat(deletedMarket.getId()).isEqualTo(market1.getId());
+        assertThat(deletedMarket.getName()).isEqualTo(MARKET_1_NAME);
+        assertThat(marketConfigRepository.findById(market1.getId())).isNull();
+        assertThat(marketConfigRepository.findById(market2.getId())).isNotNull();
+    }
+
+    @Test
+    public void whenDeleteCalledWithUnknownIdThenReturnEmptyMarket() throws Exception {
+        assertThat(marketConfigRepository.delete(UNKNOWN_MARKET_ID)).isNull();
+    }
+
+    // ------------------------------------------------------------------------------------------------
+    // Private utils
+    // ------------------------------------------------------------------------------------------------
+
+    private static MarketConfig someNewMarketConfig() {
+        final MarketConfig marketConfig = new MarketConfig(null, MARKET_1_NAME, MARKET_1_BASE_CURRENCY,
+                MARKET_1_COUNTER_CURRENCY, MARKET_1_IS_ENABLED, MARKET_1_TRADING_STRATEGY_ID);
+        marketConfig.setTradeCycleInterval(MARKET_1_TRADE_CYCLE_INTERVAL);
+        marketConfig.setExchangeId(MARKET_1_EXCHANGE_ID);
+        return marketConfig;
+    }
+
+    private static MarketConfig anotherNewMarketConfig() {
+        return new MarketConfig(null, MARKET_2_NAME, MARKET_2_BASE_CURRENCY, MARKET_2_COUNTER_CURRENCY,
+                MARKET_2_IS_ENABLED, MARKET_2_TRADING_STRATEGY_ID);
+    }
+}
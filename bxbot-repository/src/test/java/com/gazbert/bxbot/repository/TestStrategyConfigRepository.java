@@ -24,6 +24,7 @@
 package com.gazbert.bxbot.repository;
 
 import com.gazbert.bxbot.datastore.ConfigurationManager;
+import com.gazbert.bxbot.datastore.VersionedConfig;
 import com.gazbert.bxbot.datastore.strategy.generated.ConfigItemType;
 import com.gazbert.bxbot.datastore.strategy.generated.OptionalConfigType;
 import com.gazbert.bxbot.datastore.strategy.generated.StrategyType;
@@ -60,6 +61,8 @@ public class TestStrategyConfigRepository {
     // Mocked out methods
     private static final String MOCKED_GENERATE_UUID_METHOD = "generateUuid";
 
+    private static final long CONFIG_VERSION = 3L;
+
     private static final String UNKNOWN_STRAT_ID = "unknown-or-new-strat-id";
     private static final String GENERATED_STRAT_ID = "new-strat-id-123";
 
@@ -174,16 +177,16 @@ public class TestStrategyConfigRepository {
     @Test
     public void whenSaveCalledWithKnownIdThenReturnUpdatedStrategyConfig() throws Exception {
 
-        expect(ConfigurationManager.loadConfig(
+        expect(ConfigurationManager.loadVersionedConfig(
                 eq(TradingStrategiesType.class),
                 eq(STRATEGIES_CONFIG_XML_FILENAME),
                 eq(STRATEGIES_CONFIG_XSD_FILENAME))).
-                andReturn(allTheInternalStrategiesConfig());
+                andReturn(new VersionedConfig<>(allTheInternalStrategiesConfig(), CONFIG_VERSION));
 
         ConfigurationManager.saveConfig(
                 eq(TradingStrategiesType.class),
                 anyObject(TradingStrategiesType.class),
-                eq(STRATEGIES_CONFIG_XML_FILENAME));
+                eq(STRATEGIES_CONFIG_XML_FILENAME), eq(CONFIG_VERSION));
 
         expect(ConfigurationManager.loadConfig(
                 eq(TradingStrategiesType.class),
@@ -211,11 +214,11 @@ public class TestStrategyConfigRepository {
     @Test
     public void whenSaveCalledWithUnknownIdThenReturnEmptyStrategyConfig() throws Exception {
 
-        expect(ConfigurationManager.loadConfig(
+        expect(ConfigurationManager.loadVersionedConfig(
                 eq(TradingStrategiesType.class),
                 eq(STRATEGIES_CONFIG_XML_FILENAME),
                 eq(STRATEGIES_CONFIG_XSD_FILENAME))).
-                andReturn(allTheInternalStrategiesConfig());
+                andReturn(new VersionedConfig<>(allTheInternalStrategiesConfig(), CONFIG_VERSION));
 
         PowerMock.replayAll();
 
@@ -229,16 +232,16 @@ public class TestStrategyConfigRepository {
     @Test
     public void whenSaveCalledWithEmptyIdThenExpectCreatedStrategyConfigToBeReturned() throws Exception {
 
-        expect(ConfigurationManager.loadConfig(
+        expect(ConfigurationManager.loadVersionedConfig(
                 eq(TradingStrategiesType.class),
                 eq(STRATEGIES_CONFIG_XML_FILENAME),
                 eq(STRATEGIES_CONFIG_XSD_FILENAME))).
-                andReturn(allTheInternalStrategiesConfig());
+                andReturn(new VersionedConfig<>(allTheInternalStrategiesConfig(), CONFIG_VERSION));
 
         ConfigurationManager.saveConfig(
                 eq(TradingStrategiesType.class),
                 anyObject(TradingStrategiesType.class),
-                eq(STRATEGIES_CONFIG_XML_FILENAME));
+                eq(STRATEGIES_CONFIG_XML_FILENAME), eq(CONFIG_VERSION));
 
         expect(ConfigurationManager.loadConfig(
                 eq(TradingStrategiesType.class),
@@ -269,16 +272,16 @@ public class TestStrategyConfigRepository {
     @Test
     public void whenDeleteCalledWithKnownIdThenReturnDeletedStrategyConfig() throws Exception {
 
-        expect(ConfigurationManager.loadConfig(
+        expect(ConfigurationManager.loadVersionedConfig(
                 eq(TradingStrategiesType.class),
                 eq(STRATEGIES_CONFIG_XML_FILENAME),
                 eq(STRATEGIES_CONFIG_XSD_FILENAME))).
-                andReturn(allTheInternalStrategiesConfig());
+                andReturn(new VersionedConfig<>(allTheInternalStrategiesConfig(), CONFIG_VERSION));
 
         ConfigurationManager.saveConfig(
                 eq(TradingStrategiesType.class),
                 anyObject(TradingStrategiesType.class),
-                eq(STRATEGIES_CONFIG_XML_FILENAME));
+                eq(STRATEGIES_CONFIG_XML_FILENAME), eq(CONFIG_VERSION));
 
         PowerMock.replayAll();
 
@@ -300,11 +303,11 @@ public class TestStrategyConfigRepository {
     @Test
     public void whenDeleteCalledWithUnknownIdThenReturnEmptyStrategyConfig() throws Exception {
 
-        expect(ConfigurationManager.loadConfig(
+        expect(ConfigurationManager.loadVersionedConfig(
                 eq(TradingStrategiesType.class),
                 eq(STRATEGIES_CONFIG_XML_FILENAME),
                 eq(STRATEGIES_CONFIG_XSD_FILENAME))).
-                andReturn(allTheInternalStrategiesConfig());
+                andReturn(new VersionedConfig<>(allTheInternalStrategiesConfig(), CONFIG_VERSION));
 
         PowerMock.replayAll();
 
@@ -0,0 +1,184 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.repository;
+
+import com.gazbert.bxbot.domain.strategy.StrategyConfig;
+import com.gazbert.bxbot.repository.impl.StrategyConfigRepositoryH2Datastore;
+import org.h2.jdbcx.JdbcConnectionPool;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.DatabasePopulatorUtils;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Java6Assertions.assertThat;
+
+/**
+ * Tests H2 Strategy configuration repository behaves as expected.
+ * Runs against a fresh in-memory H2 database for each test.
+ *
+ * @author gazbert
+ */
+public class TestStrategyConfigRepositoryH2Datastore {
+
+    private static final String SCHEMA_FILENAME = "com/gazbert/bxbot/repository/h2-datastore-schema.sql";
+
+    private static final String UNKNOWN_STRAT_ID = "unknown-or-new-strat-id";
+
+    private static final String STRAT_NAME_1 = "MACD Long Position Algo";
+    private static final String STRAT_DESCRIPTION_1 = "Uses MACD as indicator and takes long position in base currency.";
+    private static final String STRAT_CLASSNAME_1 = "com.gazbert.nova.algos.MacdLongBase";
+
+    private static final String STRAT_NAME_2 = "Long Scalper";
+    private static final String STRAT_DESCRIPTION_2 = "Scalps and goes long...";
+    private static final String STRAT_BEAN_NAME_2 = "longScalper";
+
+    private static final String BUY_PRICE_CONFIG_ITEM_KEY = "buy-price";
+    private static final String BUY_PRICE_CONFIG_ITEM_VALUE = "671.15";
+    private static final String AMOUNT_TO_BUY_CONFIG_ITEM_KEY = "buy-amount";
+    private static final String AMOUNT_TO_BUY_CONFIG_ITEM_VALUE = "0.5";
+
+    private JdbcConnectionPool dataSource;
+    private StrategyConfigRepository strategyConfigRepository;
+
+
+    @Before
+    public void setup() throws Exception {
+        dataSource = JdbcConnectionPool.create("jdbc:h2:mem:" + UUID.randomUUID(), "sa", "");
+        DatabasePopulatorUtils.execute(new ResourceDatabasePopulator(new ClassPathResource(SCHEMA_FILENAME)),
+                dataSource);
+        strategyConfigRepository = new StrategyConfigRepositoryH2Datastore(new JdbcTemplate(dataSource));
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        dataSource.dispose();
+    }
+
+    @Test
+    public void whenSaveCalledWithEmptyIdThenExpectCreatedStrategyConfigToBeReturned() throws Exception {
+
+        final StrategyConfig strategyConfig = strategyConfigRepository.save(someNewStrategyConfig());
+
+        assertThat(strategyConfig.getId()).isNotEmpty();
+        assertThat(strategyConfig.getName()).isEqualTo(STRAT_NAME_1);
+        assertThat(strategyConfig.getDescription()).isEqualTo(STRAT_DESCRIPTION_1);
+        assertThat(strategyConfig.getClassName()).isEqualTo(STRAT_CLASSNAME_1);
+        assertThat(strategyConfig.getBeanName()).isNull();
+        assertThat(strategyConfig.getConfigItems().get(BUY_PRICE_CONFIG_ITEM_KEY)).isEqualTo(BUY_PRICE_CONFIG_ITEM_VALUE);
+        assertThat(strategyConfig.getConfigItems().get(AMOUNT_TO_BUY_CONFIG_ITEM_KEY)).isEqualTo(AMOUNT_TO_BUY_CONFIG_ITEM_VALUE);
+    }
+
+    @Test
+    public void whenFindAllCalledThenExpectStrategyConfigsWithTheirConfigItems() throws Exception {
+
+        final StrategyConfig strategy1 = strategyConfigRepository.save(someNewStrategyConfig());
+        final StrategyConfig strategy2 = strategyConfigRepository.save(anotherNewStrategyConfig());
+
+        final List<StrategyConfig> strategyConfigs = strategyConfigRepository.findAll();
+
+        assertThat(strategyConfigs.size()).isEqualTo(2);
+        assertThat(strategyConfigs.get(0).getId()).isEqualTo(strategy1.getId());
+        assertThat(strategyConfigs.get(0).getConfigItems().size()).isEqualTo(2);
+        assertThat(strategyConfigs.get(1).getId()).isEqualTo(strategy2.getId());
+        assertThat(strategyConfigs.get(1).getBeanName()).isEqualTo(STRAT_BEAN_NAME_2);
+        assertThat(strategyConfigs.get(1).getConfigItems()).isEmpty();
+    }
+
+    @Test
+    public void whenFindByIdCalledWithUnknownIdThenReturnNullStrategyConfig() throws Exception {
+        assertThat(strategyConfigRepository.findById(UNKNOWN_STRAT_ID)).isNull();
+    }
+
+    @Test
+    public void whenSaveCalledWithKnownIdThenReturnUpdatedStrategyConfig() throws Exception {
+
+        final StrategyConfig strategy = strategyConfigRepository.save(someNewStrategyConfig());
+
+        final Map<String, String> updatedConfigItems = new HashMap<>();
+        updatedConfigItems.put(BUY_PRICE_CONFIG_ITEM_KEY, "700.00");
+        strategy.setConfigItems(updatedConfigItems);
+        strategy.setDescription(STRAT_DESCRIPTION_2);
+
+        final StrategyConfig updatedStrategy = strategyConfigRepository.save(strategy);
+
+        assertThat(updatedStrategy.getId()).isEqualTo(strategy.getId());
+        assertThat(updatedStrategy.getDescription()).isEqualTo(STRAT_DESCRIPTION_2);
+        assertThat(updatedStrategy.getConfigItems().size()).isEqualTo(1);
+        assertThat(updatedStrategy.getConfigItems().get(BUY_PRICE_CONFIG_ITEM_KEY)).isEqualTo("700.00");
+    }
+
+    @Test
+    public void whenSaveCalledWithUnknownIdThenReturnEmptyStrategyConfig() throws Exception {
+
+        final StrategyConfig unknownStrategy = someNewStrategyConfig();
+        unknownStrategy.setId(UNKNOWN_STRAT_ID);
+
+        assertThat(strategyConfigRepository.save(unknownStrategy)).isNull();
+        assertThat(strategyConfigRepository.findAll()).isEmpty();
+    }
+
+    @Test
+    public void whenDeleteCalledWithKnownIdThenReturnDeletedStrategyConfigAndItsConfigItems() throws Exception {
+
+        final StrategyConfig strategy = strategyConfigRepository.save(someNewStrategyConfig());
+
+        final StrategyConfig deletedStrategy = strategyConfigRepository.delete(strategy.getId());
+
+        assertThat(deletedStrategy.getId()).isEqualTo(strategy.getId());
+        assertThat(deletedStrategy.getConfigItems().size()).isEqualTo(2);
+        assertThat(strategyConfigRepository.findById(strategy.getId())).isNull();
+
+        final int orphanedConfigItems = new JdbcTemplate(dataSource).queryForObject(
+                "SELECT COUNT(*) FROM strategy_config_item", Integer.class);
+        assertThat(orphanedConfigItems).isEqualTo(0);
+    }
+
+    @Test
+    public void whenDeleteCalledWithUnknownIdThenReturnEmptyStrategyConfig() throws Exception {
+        assertThat(strategyConfigRepository.delete(UNKNOWN_STRAT_ID)).isNull();
+    }
+
+    // ------------------------------------------------------------------------------------------------
+    // Private utils
+    // ------------------------------------------------------------------------------------------------
+
+    private static StrategyConfig someNewStrategyConfig() {
+        final Map<String, String> configItems = new HashMap<>();
+        configItems.put(BUY_PRICE_CONFIG_ITEM_KEY, BUY_PRICE_CONFIG_ITEM_VALUE);
+        configItems.put(AMOUNT_TO_BUY_CONFIG_ITEM_KEY, AMOUNT_TO_BUY_CONFIG_ITEM_VALUE);
+        return new StrategyConfig(null, STRAT_NAME_1, STRAT_DESCRIPTION_1, STRAT_CLASSNAME_1, null, configItems);
+    }
+
+    private static StrategyConfig anotherNewStrategyConfig() {
+        return new StrategyConfig(null, STRAT_NAME_2, STRAT_DESCRIPTION_2, null, STRAT_BEAN_NAME_2, new HashMap<>());
+    }
+}
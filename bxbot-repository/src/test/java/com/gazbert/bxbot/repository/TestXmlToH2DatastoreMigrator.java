@@ -0,0 +1,164 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.repository;
+
+import com.gazbert.bxbot.domain.market.MarketConfig;
+import com.gazbert.bxbot.domain.strategy.StrategyConfig;
+import com.gazbert.bxbot.repository.impl.MarketConfigRepositoryH2Datastore;
+import com.gazbert.bxbot.repository.impl.StrategyConfigRepositoryH2Datastore;
+import com.gazbert.bxbot.repository.impl.XmlToH2DatastoreMigrator;
+import org.h2.jdbcx.JdbcConnectionPool;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.init.DatabasePopulatorUtils;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Java6Assertions.assertThat;
+import static org.easymock.EasyMock.*;
+
+/**
+ * Tests the XML config is migrated into the H2 datastore as expected.
+ *
+ * @author gazbert
+ */
+public class TestXmlToH2DatastoreMigrator {
+
+    private static final String SCHEMA_FILENAME = "com/gazbert/bxbot/repository/h2-datastore-schema.sql";
+
+    private static final String STRAT_ID = "scalping-strategy";
+    private static final String STRAT_NAME = "Basic Scalping Strat";
+    private static final String STRAT_CLASSNAME = "com.gazbert.bxbot.strategies.ExampleScalpingStrategy";
+    private static final String COUNTER_CURRENCY_BUY_ORDER_AMOUNT_KEY = "counter-currency-buy-order-amount";
+    private static final String COUNTER_CURRENCY_BUY_ORDER_AMOUNT_VALUE = "20";
+
+    private static final String MARKET_1_ID = "btc_usd";
+    private static final String MARKET_2_ID = "ltc_usd";
+
+    private JdbcConnectionPool dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private MarketConfigRepository xmlMarketConfigRepository;
+    private StrategyConfigRepository xmlStrategyConfigRepository;
+    private XmlToH2DatastoreMigrator migrator;
+
+
+    @Before
+    public void setup() throws Exception {
+        dataSource = JdbcConnectionPool.create("jdbc:h2:mem:" + UUID.randomUUID(), "sa", "");
+        DatabasePopulatorUtils.execute(new ResourceDatabasePopulator(new ClassPathResource(SCHEMA_FILENAME)),
+                dataSource);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+
+        xmlMarketConfigRepository = createMock(MarketConfigRepository.class);
+        xmlStrategyConfigRepository = createMock(StrategyConfigRepository.class);
+        migrator = new XmlToH2DatastoreMigrator(xmlMarketConfigRepository, xmlStrategyConfigRepository,
+                jdbcTemplate, new DataSourceTransactionManager(dataSource));
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        dataSource.dispose();
+    }
+
+    @Test
+    public void whenH2DatastoreIsEmptyThenXmlConfigIsMigratedKeepingIds() throws Exception {
+
+        expect(xmlStrategyConfigRepository.findAll()).andReturn(Collections.singletonList(someStrategyConfig()));
+        expect(xmlMarketConfigRepository.findAll()).andReturn(someMarketConfigs());
+        replay(xmlMarketConfigRepository, xmlStrategyConfigRepository);
+
+        assertThat(migrator.migrateIfEmpty()).isTrue();
+
+        final List<StrategyConfig> strategies = new StrategyConfigRepositoryH2Datastore(jdbcTemplate).findAll();
+        assertThat(strategies.size()).isEqualTo(1);
+        assertThat(strategies.get(0).getId()).isEqualTo(STRAT_ID);
+        assertThat(strategies.get(0).getConfigItems().get(COUNTER_CURRENCY_BUY_ORDER_AMOUNT_KEY))
+                .isEqualTo(COUNTER_CURRENCY_BUY_ORDER_AMOUNT_VALUE);
+
+        final List<MarketConfig> markets = new MarketConfigRepositoryH2Datastore(jdbcTemplate).findAll();
+        assertThat(markets.size()).isEqualTo(2);
+        assertThat(markets.get(0).getId()).isEqualTo(MARKET_1_ID);
+        assertThat(markets.get(0).getTradingStrategyId()).isEqualTo(STRAT_ID);
+        assertThat(markets.get(1).getId()).isEqualTo(MARKET_2_ID);
+
+        verify(xmlMarketConfigRepository, xmlStrategyConfigRepository);
+    }
+
+    @Test
+    public void whenH2DatastoreAlreadyHasConfigThenXmlConfigIsNotMigrated() throws Exception {
+
+        final MarketConfig newMarket = new MarketConfig(someMarketConfigs().get(0));
+        newMarket.setId(null);
+        new MarketConfigRepositoryH2Datastore(jdbcTemplate).save(newMarket);
+        replay(xmlMarketConfigRepository, xmlStrategyConfigRepository);
+
+        assertThat(migrator.migrateIfEmpty()).isFalse();
+        verify(xmlMarketConfigRepository, xmlStrategyConfigRepository);
+    }
+
+    @Test
+    public void whenMigrationFailsThenNothingIsMigrated() throws Exception {
+
+        final MarketConfig duplicateMarket = someMarketConfigs().get(0);
+        expect(xmlStrategyConfigRepository.findAll()).andReturn(Collections.singletonList(someStrategyConfig()));
+        expect(xmlMarketConfigRepository.findAll()).andReturn(Arrays.asList(duplicateMarket, duplicateMarket));
+        replay(xmlMarketConfigRepository, xmlStrategyConfigRepository);
+
+        try {
+            migrator.migrateIfEmpty();
+        } catch (RuntimeException e) {
+            // expected - duplicate key
+        }
+
+        assertThat(new StrategyConfigRepositoryH2Datastore(jdbcTemplate).findAll()).isEmpty();
+        assertThat(new MarketConfigRepositoryH2Datastore(jdbcTemplate).findAll()).isEmpty();
+        verify(xmlMarketConfigRepository, xmlStrategyConfigRepository);
+    }
+
+    // ------------------------------------------------------------------------------------------------
+    // Private utils
+    // ------------------------------------------------------------------------------------------------
+
+    private static StrategyConfig someStrategyConfig() {
+        final Map<String, String> configItems = new HashMap<>();
+        configItems.put(COUNTER_CURRENCY_BUY_ORDER_AMOUNT_KEY, COUNTER_CURRENCY_BUY_ORDER_AMOUNT_VALUE);
+        return new StrategyConfig(STRAT_ID, STRAT_NAME, null, STRAT_CLASSNAME, null, configItems);
+    }
+
+    private static List<MarketConfig> someMarketConfigs() {
+        return Arrays.asList(
+                new MarketConfig(MARKET_1_ID, "BTC/USD", "BTC", "USD", true, STRAT_ID),
+                new MarketConfig(MARKET_2_ID, "LTC/USD", "LTC", "USD", false, STRAT_ID));
+    }
+}
@@ -24,6 +24,12 @@
 package com.gazbert.bxbot.rest.api.v1.config;
 
 import com.gazbert.bxbot.rest.api.v1.AbstractController;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
 
 /**
  * Base class for all config controllers.
@@ -31,7 +37,20 @@ import com.gazbert.bxbot.rest.api.v1.AbstractController;
  * @author gazbert
  * @since 1.0
  */
-abstract class AbstractConfigController extends AbstractController {
+public abstract class AbstractConfigController extends AbstractController {
 
+    private static final Logger LOG = LogManager.getLogger();
     static final String CONFIG_ENDPOINT_BASE_URI = API_ENDPOINT_BASE_URI + "/config";
+
+    /**
+     * Config was changed by another request while this one was updating it.
+     *
+     * @param e the exception thrown by the repository.
+     * @return 409 'Conflict' HTTP status code - the client should fetch the latest config and try again.
+     */
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<?> handleConcurrentUpdate(OptimisticLockingFailureException e) {
+        LOG.warn("Config update rejected: " + e.getMessage());
+        return new ResponseEntity<>(HttpStatus.CONFLICT);
+    }
 }
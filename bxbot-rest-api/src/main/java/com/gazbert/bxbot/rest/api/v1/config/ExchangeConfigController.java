@@ -91,7 +91,7 @@ public class ExchangeConfigController extends AbstractConfigController {
      * @param user   the authenticated user making the request.
      * @param config the Exchange config to update.
      * @return 200 'OK' HTTP status code with updated Exchange config in the body if update successful, some other
-     * HTTP status code otherwise.
+     * HTTP status code otherwise. Returns 404 'Not Found' if the config has an id that doesn't match any Exchange.
      */
     @RequestMapping(value = EXCHANGE_RESOURCE_PATH, method = RequestMethod.PUT)
     public ResponseEntity<?> updateExchange(@AuthenticationPrincipal User user, @RequestBody ExchangeConfig config) {
@@ -101,7 +101,9 @@ public class ExchangeConfigController extends AbstractConfigController {
 
         final ExchangeConfig updatedConfig = exchangeConfigService.updateExchangeConfig(
                 mergeWithLocalAuthenticationConfig(config));
-        return buildResponseEntity(updatedConfig, HttpStatus.OK);
+        return updatedConfig == null
+                ? new ResponseEntity<>(HttpStatus.NOT_FOUND)
+                : buildResponseEntity(updatedConfig, HttpStatus.OK);
     }
 
     // ------------------------------------------------------------------------
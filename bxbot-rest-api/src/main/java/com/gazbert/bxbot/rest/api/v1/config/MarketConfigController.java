@@ -107,7 +107,7 @@ public class MarketConfigController extends AbstractConfigController {
         LOG.info("PUT " + MARKETS_RESOURCE_PATH + "/" + marketId + " - updateMarket() - caller: " + user.getUsername());
         LOG.info("Request: " + config);
 
-        if (config.getId() == null || !marketId.equals(config.getId())) {
+        if (config.getId() == null || !marketId.equals(config.getId()) || !isValidTradeCycleInterval(config)) {
             return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
         }
 
@@ -131,6 +131,10 @@ public class MarketConfigController extends AbstractConfigController {
         LOG.info("POST " + MARKETS_RESOURCE_PATH + " - createMarket() - caller: " + user.getUsername());
         LOG.info("Request: " + config);
 
+        if (!isValidTradeCycleInterval(config)) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+
         final MarketConfig createdConfig = marketConfigService.createMarketConfig(config);
         return createdConfig == null
                 ? new ResponseEntity<>(HttpStatus.BAD_REQUEST)
@@ -155,5 +159,15 @@ public class MarketConfigController extends AbstractConfigController {
                 ? new ResponseEntity<>(HttpStatus.NOT_FOUND)
                 : new ResponseEntity<>(HttpStatus.NO_CONTENT);
     }
-}
 
+    // ------------------------------------------------------------------------
+    // Private utils
+    // ------------------------------------------------------------------------
+
+    /*
+     * The trade cycle interval is optional, but if it is set it must be at least 1 second.
+     */
+    private static boolean isValidTradeCycleInterval(MarketConfig config) {
+        return config.getTradeCycleInterval() == null || config.getTradeCycleInterval() >= 1;
+    }
+}
@@ -68,6 +68,10 @@ public class TestExchangeConfigController extends AbstractConfigControllerTest {
     private static final String EXCHANGE_ADAPTER = "com.gazbert.bxbot.exchanges.TestExchangeAdapter";
 
     private static final Integer CONNECTION_TIMEOUT = 30;
+    private static final Integer CONNECTION_POOL_SIZE = 10;
+    private static final Integer CONNECTION_IDLE_TIMEOUT = 120;
+    private static final Integer MAX_REQUESTS_PER_MINUTE = 60;
+    private static final Integer MAX_REQUEST_BURST = 10;
 
     private static final int HTTP_STATUS_502 = 502;
     private static final int HTTP_STATUS_503 = 503;
@@ -124,6 +128,10 @@ public class TestExchangeConfigController extends AbstractConfigControllerTest {
                 .andExpect(jsonPath("$.networkConfig.nonFatalErrorMessages[0]").value(ERROR_MESSAGE_REFUSED))
                 .andExpect(jsonPath("$.networkConfig.nonFatalErrorMessages[1]").value(ERROR_MESSAGE_RESET))
                 .andExpect(jsonPath("$.networkConfig.nonFatalErrorMessages[2]").value(ERROR_MESSAGE_CLOSED))
+                .andExpect(jsonPath("$.networkConfig.connectionPoolSize").value(CONNECTION_POOL_SIZE))
+                .andExpect(jsonPath("$.networkConfig.connectionIdleTimeout").value(CONNECTION_IDLE_TIMEOUT))
+                .andExpect(jsonPath("$.networkConfig.maxRequestsPerMinute").value(MAX_REQUESTS_PER_MINUTE))
+                .andExpect(jsonPath("$.networkConfig.maxRequestBurst").value(MAX_REQUEST_BURST))
 
                 .andExpect(jsonPath("$.optionalConfig.items.buy-fee").value(BUY_FEE_CONFIG_ITEM_VALUE))
                 .andExpect(jsonPath("$.optionalConfig.items.sell-fee").value(SELL_FEE_CONFIG_ITEM_VALUE));
@@ -173,6 +181,10 @@ public class TestExchangeConfigController extends AbstractConfigControllerTest {
                 .andExpect(jsonPath("$.networkConfig.nonFatalErrorMessages[0]").value(ERROR_MESSAGE_REFUSED))
                 .andExpect(jsonPath("$.networkConfig.nonFatalErrorMessages[1]").value(ERROR_MESSAGE_RESET))
                 .andExpect(jsonPath("$.networkConfig.nonFatalErrorMessages[2]").value(ERROR_MESSAGE_CLOSED))
+                .andExpect(jsonPath("$.networkConfig.connectionPoolSize").value(CONNECTION_POOL_SIZE))
+                .andExpect(jsonPath("$.networkConfig.connectionIdleTimeout").value(CONNECTION_IDLE_TIMEOUT))
+                .andExpect(jsonPath("$.networkConfig.maxRequestsPerMinute").value(MAX_REQUESTS_PER_MINUTE))
+                .andExpect(jsonPath("$.networkConfig.maxRequestBurst").value(MAX_REQUEST_BURST))
 
                 .andExpect(jsonPath("$.optionalConfig.items.buy-fee").value(BUY_FEE_CONFIG_ITEM_VALUE))
                 .andExpect(jsonPath("$.optionalConfig.items.sell-fee").value(SELL_FEE_CONFIG_ITEM_VALUE));
@@ -181,6 +193,19 @@ public class TestExchangeConfigController extends AbstractConfigControllerTest {
         verify(exchangeConfigService, times(1)).updateExchangeConfig(any());
     }
 
+    @Test
+    public void testUpdateExchangeConfigWhenIdNotRecognized() throws Exception {
+
+        given(exchangeConfigService.getExchangeConfig()).willReturn(someExchangeConfig());
+        given(exchangeConfigService.updateExchangeConfig(any())).willReturn(null);
+
+        mockMvc.perform(put(EXCHANGE_CONFIG_ENDPOINT_URI)
+                .header("Authorization", buildAuthorizationHeaderValue(VALID_USER_LOGINID, VALID_USER_PASSWORD))
+                .contentType(CONTENT_TYPE)
+                .content(jsonify(someExchangeConfig())))
+                .andExpect(status().isNotFound());
+    }
+
     @Test
     public void testUpdateExchangeConfigWhenUnauthorizedWithMissingCredentials() throws Exception {
 
@@ -211,6 +236,10 @@ public class TestExchangeConfigController extends AbstractConfigControllerTest {
         networkConfig.setConnectionTimeout(CONNECTION_TIMEOUT);
         networkConfig.setNonFatalErrorCodes(NON_FATAL_ERROR_CODES);
         networkConfig.setNonFatalErrorMessages(NON_FATAL_ERROR_MESSAGES);
+        networkConfig.setConnectionPoolSize(CONNECTION_POOL_SIZE);
+        networkConfig.setConnectionIdleTimeout(CONNECTION_IDLE_TIMEOUT);
+        networkConfig.setMaxRequestsPerMinute(MAX_REQUESTS_PER_MINUTE);
+        networkConfig.setMaxRequestBurst(MAX_REQUEST_BURST);
 
         final OptionalConfig optionalConfig = new OptionalConfig();
         optionalConfig.getItems().put(BUY_FEE_CONFIG_ITEM_KEY, BUY_FEE_CONFIG_ITEM_VALUE);
@@ -32,6 +32,7 @@ import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.junit4.SpringRunner;
 import org.springframework.test.context.web.WebAppConfiguration;
@@ -205,6 +206,19 @@ public class TestMarketConfigController extends AbstractConfigControllerTest {
         verify(marketConfigService, times(1)).updateMarketConfig(any());
     }
 
+    @Test
+    public void testUpdateMarketConfigWhenChangedByAnotherRequest() throws Exception {
+
+        given(marketConfigService.updateMarketConfig(someMarketConfig()))
+                .willThrow(new OptimisticLockingFailureException("Markets config has changed"));
+
+        mockMvc.perform(put(MARKETS_CONFIG_ENDPOINT_URI + MARKET_1_ID)
+                .header("Authorization", buildAuthorizationHeaderValue(VALID_USER_LOGINID, VALID_USER_PASSWORD))
+                .contentType(CONTENT_TYPE)
+                .content(jsonify(someMarketConfig())))
+                .andExpect(status().isConflict());
+    }
+
     @Test
     public void testUpdateMarketConfigWhenUnauthorizedWithMissingCredentials() throws Exception {
 
@@ -250,6 +264,19 @@ public class TestMarketConfigController extends AbstractConfigControllerTest {
                 .andExpect(status().isBadRequest());
     }
 
+    @Test
+    public void testUpdateMarketConfigWhenTradeCycleIntervalIsInvalid() throws Exception {
+
+        mockMvc.perform(put(MARKETS_CONFIG_ENDPOINT_URI + MARKET_1_ID)
+                .header("Authorization", buildAuthorizationHeaderValue(VALID_USER_LOGINID, VALID_USER_PASSWORD))
+                .accept(MediaType.APPLICATION_JSON)
+                .contentType(CONTENT_TYPE)
+                .content(jsonify(someMarketConfigWithInvalidTradeCycleInterval())))
+                .andExpect(status().isBadRequest());
+
+        verify(marketConfigService, times(0)).updateMarketConfig(any());
+    }
+
     @Test
     public void testDeleteMarketConfig() throws Exception {
 
@@ -352,6 +379,19 @@ public class TestMarketConfigController extends AbstractConfigControllerTest {
                 .andExpect(status().isBadRequest());
     }
 
+    @Test
+    public void testCreateMarketConfigWhenTradeCycleIntervalIsInvalid() throws Exception {
+
+        mockMvc.perform(post(MARKETS_CONFIG_ENDPOINT_URI)
+                .header("Authorization", buildAuthorizationHeaderValue(VALID_USER_LOGINID, VALID_USER_PASSWORD))
+                .accept(MediaType.APPLICATION_JSON)
+                .contentType(CONTENT_TYPE)
+                .content(jsonify(someMarketConfigWithInvalidTradeCycleInterval())))
+                .andExpect(status().isBadRequest());
+
+        verify(marketConfigService, times(0)).createMarketConfig(any());
+    }
+
     // ------------------------------------------------------------------------------------------------
     // Private utils
     // ------------------------------------------------------------------------------------------------
@@ -376,6 +416,12 @@ public class TestMarketConfigController extends AbstractConfigControllerTest {
                 MARKET_1_COUNTER_CURRENCY, MARKET_1_ENABLED, null);
     }
 
+    private static MarketConfig someMarketConfigWithInvalidTradeCycleInterval() {
+        final MarketConfig marketConfig = someMarketConfig();
+        marketConfig.setTradeCycleInterval(0);
+        return marketConfig;
+    }
+
     private static List<MarketConfig> allMarketConfig() {
         final MarketConfig market1Config = new MarketConfig(MARKET_1_ID, MARKET_1_NAME, MARKET_1_BASE_CURRENCY,
                 MARKET_1_COUNTER_CURRENCY, MARKET_1_ENABLED, MARKET_1_STRATEGY_ID);
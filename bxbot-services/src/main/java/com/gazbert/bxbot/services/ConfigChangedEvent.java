@@ -0,0 +1,89 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.services;
+
+import com.google.common.base.MoreObjects;
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * Published when Market or Strategy config is created, updated, or deleted.
+ * <p>
+ * The Trading Engine listens for these events and applies the changes between trade cycles, so Markets can be
+ * enabled, disabled, or reconfigured without restarting the bot.
+ *
+ * @author gazbert
+ */
+public class ConfigChangedEvent extends ApplicationEvent {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * The type of config that has changed.
+     */
+    public enum ConfigType {
+        MARKET,
+        STRATEGY
+    }
+
+    /**
+     * How the config has changed.
+     */
+    public enum ChangeType {
+        CREATED,
+        UPDATED,
+        DELETED
+    }
+
+    private final ConfigType configType;
+    private final ChangeType changeType;
+    private final String configId;
+
+    public ConfigChangedEvent(Object source, ConfigType configType, ChangeType changeType, String configId) {
+        super(source);
+        this.configType = configType;
+        this.changeType = changeType;
+        this.configId = configId;
+    }
+
+    public ConfigType getConfigType() {
+        return configType;
+    }
+
+    public ChangeType getChangeType() {
+        return changeType;
+    }
+
+    public String getConfigId() {
+        return configId;
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                .add("configType", configType)
+                .add("changeType", changeType)
+                .add("configId", configId)
+                .toString();
+    }
+}
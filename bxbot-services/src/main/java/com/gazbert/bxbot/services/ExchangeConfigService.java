@@ -24,6 +24,8 @@ package com.gazbert.bxbot.services;
 
 import com.gazbert.bxbot.domain.exchange.ExchangeConfig;
 
+import java.util.List;
+
 /**
  * The Exchange configuration service.
  *
@@ -31,6 +33,8 @@ import com.gazbert.bxbot.domain.exchange.ExchangeConfig;
  */
 public interface ExchangeConfigService {
 
+    List<ExchangeConfig> getAllExchangeConfig();
+
     ExchangeConfig getExchangeConfig();
 
     ExchangeConfig updateExchangeConfig(ExchangeConfig config);
@@ -34,6 +34,8 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.Assert;
 
+import java.util.List;
+
 /**
  * Implementation of the Exchange config service.
  *
@@ -53,6 +55,11 @@ public class ExchangeConfigServiceImpl implements ExchangeConfigService {
         this.exchangeConfigRepository = exchangeConfigRepository;
     }
 
+    @Override
+    public List<ExchangeConfig> getAllExchangeConfig() {
+        return exchangeConfigRepository.findAll();
+    }
+
     @Override
     public ExchangeConfig getExchangeConfig() {
         return exchangeConfigRepository.get();
@@ -26,10 +26,14 @@ package com.gazbert.bxbot.services.impl;
 
 import com.gazbert.bxbot.domain.market.MarketConfig;
 import com.gazbert.bxbot.repository.MarketConfigRepository;
+import com.gazbert.bxbot.services.ConfigChangedEvent;
+import com.gazbert.bxbot.services.ConfigChangedEvent.ChangeType;
+import com.gazbert.bxbot.services.ConfigChangedEvent.ConfigType;
 import com.gazbert.bxbot.services.MarketConfigService;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -39,6 +43,8 @@ import java.util.List;
 
 /**
  * Implementation of the Market config service.
+ * <p>
+ * A {@link ConfigChangedEvent} is published whenever Market config is created, updated, or deleted.
  *
  * @author gazbert
  */
@@ -50,10 +56,13 @@ public class MarketConfigServiceImpl implements MarketConfigService {
     private static final Logger LOG = LogManager.getLogger();
 
     private final MarketConfigRepository marketConfigRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Autowired
-    public MarketConfigServiceImpl(MarketConfigRepository marketConfigRepository) {
+    public MarketConfigServiceImpl(MarketConfigRepository marketConfigRepository,
+                                   ApplicationEventPublisher eventPublisher) {
         this.marketConfigRepository = marketConfigRepository;
+        this.eventPublisher = eventPublisher;
     }
 
     @Override
@@ -70,18 +79,30 @@ public class MarketConfigServiceImpl implements MarketConfigService {
     @Override
     public MarketConfig updateMarketConfig(MarketConfig config) {
         LOG.info(() -> "About to update Market config: " + config);
-        return marketConfigRepository.save(config);
+        final MarketConfig savedMarketConfig = marketConfigRepository.save(config);
+        publishConfigChangedEvent(ChangeType.UPDATED, savedMarketConfig);
+        return savedMarketConfig;
     }
 
     @Override
     public MarketConfig createMarketConfig(MarketConfig config) {
         LOG.info(() -> "About to create Market config: " + config);
-        return marketConfigRepository.save(config);
+        final MarketConfig savedMarketConfig = marketConfigRepository.save(config);
+        publishConfigChangedEvent(ChangeType.CREATED, savedMarketConfig);
+        return savedMarketConfig;
     }
 
     @Override
     public MarketConfig deleteMarketConfig(String id) {
         LOG.info(() -> "About to delete Market config for id: " + id);
-        return marketConfigRepository.delete(id);
+        final MarketConfig deletedMarketConfig = marketConfigRepository.delete(id);
+        publishConfigChangedEvent(ChangeType.DELETED, deletedMarketConfig);
+        return deletedMarketConfig;
+    }
+
+    private void publishConfigChangedEvent(ChangeType changeType, MarketConfig config) {
+        if (config != null) {
+            eventPublisher.publishEvent(new ConfigChangedEvent(this, ConfigType.MARKET, changeType, config.getId()));
+        }
     }
 }
@@ -25,10 +25,14 @@ package com.gazbert.bxbot.services.impl;
 
 import com.gazbert.bxbot.domain.strategy.StrategyConfig;
 import com.gazbert.bxbot.repository.StrategyConfigRepository;
+import com.gazbert.bxbot.services.ConfigChangedEvent;
+import com.gazbert.bxbot.services.ConfigChangedEvent.ChangeType;
+import com.gazbert.bxbot.services.ConfigChangedEvent.ConfigType;
 import com.gazbert.bxbot.services.StrategyConfigService;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -38,6 +42,8 @@ import java.util.List;
 
 /**
  * Implementation of the Strategy config service.
+ * <p>
+ * A {@link ConfigChangedEvent} is published whenever Strategy config is created, updated, or deleted.
  *
  * @author gazbert
  */
@@ -49,10 +55,13 @@ public class StrategyConfigServiceImpl implements StrategyConfigService {
     private static final Logger LOG = LogManager.getLogger();
 
     private final StrategyConfigRepository strategyConfigRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Autowired
-    public StrategyConfigServiceImpl(StrategyConfigRepository strategyConfigRepository) {
+    public StrategyConfigServiceImpl(StrategyConfigRepository strategyConfigRepository,
+                                     ApplicationEventPublisher eventPublisher) {
         this.strategyConfigRepository = strategyConfigRepository;
+        this.eventPublisher = eventPublisher;
     }
 
     @Override
@@ -69,18 +78,30 @@ public class StrategyConfigServiceImpl implements StrategyConfigService {
     @Override
     public StrategyConfig updateStrategyConfig(StrategyConfig config) {
         LOG.info(() -> "About to update Strategy config: " + config);
-        return strategyConfigRepository.save(config);
+        final StrategyConfig savedStrategyConfig = strategyConfigRepository.save(config);
+        publishConfigChangedEvent(ChangeType.UPDATED, savedStrategyConfig);
+        return savedStrategyConfig;
     }
 
     @Override
     public StrategyConfig createStrategyConfig(StrategyConfig config) {
         LOG.info(() -> "About to create Strategy config: " + config);
-        return strategyConfigRepository.save(config);
+        final StrategyConfig savedStrategyConfig = strategyConfigRepository.save(config);
+        publishConfigChangedEvent(ChangeType.CREATED, savedStrategyConfig);
+        return savedStrategyConfig;
     }
 
     @Override
     public StrategyConfig deleteStrategyConfig(String id) {
         LOG.info(() -> "About to delete Strategy config for id: " + id);
-        return strategyConfigRepository.delete(id);
+        final StrategyConfig deletedStrategyConfig = strategyConfigRepository.delete(id);
+        publishConfigChangedEvent(ChangeType.DELETED, deletedStrategyConfig);
+        return deletedStrategyConfig;
+    }
+
+    private void publishConfigChangedEvent(ChangeType changeType, StrategyConfig config) {
+        if (config != null) {
+            eventPublisher.publishEvent(new ConfigChangedEvent(this, ConfigType.STRATEGY, changeType, config.getId()));
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,128 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.services;
+
+import com.gazbert.bxbot.domain.market.MarketConfig;
+import com.gazbert.bxbot.repository.MarketConfigRepository;
+import com.gazbert.bxbot.services.ConfigChangedEvent.ChangeType;
+import com.gazbert.bxbot.services.ConfigChangedEvent.ConfigType;
+import com.gazbert.bxbot.services.impl.MarketConfigServiceImpl;
+import org.easymock.Capture;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.context.ApplicationEventPublisher;
+
+import static org.assertj.core.api.Java6Assertions.assertThat;
+import static org.easymock.EasyMock.*;
+
+/**
+ * Tests the Market config service publishes a config changed event for each change.
+ *
+ * @author gazbert
+ */
+public class TestMarketConfigService {
+
+    private static final String MARKET_ID = "btc_usd";
+
+    private MarketConfigRepository marketConfigRepository;
+    private ApplicationEventPublisher eventPublisher;
+    private MarketConfigService marketConfigService;
+
+    @Before
+    public void setup() throws Exception {
+        marketConfigRepository = createMock(MarketConfigRepository.class);
+        eventPublisher = createMock(ApplicationEventPublisher.class);
+        marketConfigService = new MarketConfigServiceImpl(marketConfigRepository, eventPublisher);
+    }
+
+    @Test
+    public void whenCreateMarketConfigCalledThenCreatedEventIsPublished() throws Exception {
+
+        final MarketConfig marketConfig = someMarketConfig();
+        expect(marketConfigRepository.save(marketConfig)).andReturn(marketConfig);
+        final Capture<ConfigChangedEvent> event = newCapture();
+        eventPublisher.publishEvent(capture(event));
+        replay(marketConfigRepository, eventPublisher);
+
+        assertThat(marketConfigService.createMarketConfig(marketConfig)).isEqualTo(marketConfig);
+        assertEvent(event.getValue(), ChangeType.CREATED);
+
+        verify(marketConfigRepository, eventPublisher);
+    }
+
+    @Test
+    public void whenUpdateMarketConfigCalledThenUpdatedEventIsPublished() throws Exception {
+
+        final MarketConfig marketConfig = someMarketConfig();
+        expect(marketConfigRepository.save(marketConfig)).andReturn(marketConfig);
+        final Capture<ConfigChangedEvent> event = newCapture();
+        eventPublisher.publishEvent(capture(event));
+        replay(marketConfigRepository, eventPublisher);
+
+        assertThat(marketConfigService.updateMarketConfig(marketConfig)).isEqualTo(marketConfig);
+        assertEvent(event.getValue(), ChangeType.UPDATED);
+
+        verify(marketConfigRepository, eventPublisher);
+    }
+
+    @Test
+    public void whenDeleteMarketConfigCalledThenDeletedEventIsPublished() throws Exception {
+
+        final MarketConfig marketConfig = someMarketConfig();
+        expect(marketConfigRepository.delete(MARKET_ID)).andReturn(marketConfig);
+        final Capture<ConfigChangedEvent> event = newCapture();
+        eventPublisher.publishEvent(capture(event));
+        replay(marketConfigRepository, eventPublisher);
+
+        assertThat(marketConfigService.deleteMarketConfig(MARKET_ID)).isEqualTo(marketConfig);
+        assertEvent(event.getValue(), ChangeType.DELETED);
+
+        verify(marketConfigRepository, eventPublisher);
+    }
+
+    @Test
+    public void whenDeleteMarketConfigCalledForUnknownIdThenNoEventIsPublished() throws Exception {
+
+        expect(marketConfigRepository.delete(MARKET_ID)).andReturn(null);
+        replay(marketConfigRepository, eventPublisher);
+
+        assertThat(marketConfigService.deleteMarketConfig(MARKET_ID)).isNull();
+
+        verify(marketConfigRepository, eventPublisher);
+    }
+
+    // ------------------------------------------------------------------------------------------------
+    // Private utils
+    // ------------------------------------------------------------------------------------------------
+
+    private static void assertEvent(ConfigChangedEvent event, ChangeType changeType) {
+        assertThat(event.getConfigType()).isEqualTo(ConfigType.MARKET);
+        assertThat(event.getChangeType()).isEqualTo(changeType);
+        assertThat(event.getConfigId()).isEqualTo(MARKET_ID);
+    }
+
+    private static MarketConfig someMarketConfig() {
+        return new MarketConfig(MARKET_ID, "BTC/USD", "btc", "usd", true, "scalping-strategy");
+    }
+}
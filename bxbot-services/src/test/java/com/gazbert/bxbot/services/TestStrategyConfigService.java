@@ -0,0 +1,131 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.services;
+
+import com.gazbert.bxbot.domain.strategy.StrategyConfig;
+import com.gazbert.bxbot.repository.StrategyConfigRepository;
+import com.gazbert.bxbot.services.ConfigChangedEvent.ChangeType;
+import com.gazbert.bxbot.services.ConfigChangedEvent.ConfigType;
+import com.gazbert.bxbot.services.impl.StrategyConfigServiceImpl;
+import org.easymock.Capture;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.util.HashMap;
+
+import static org.assertj.core.api.Java6Assertions.assertThat;
+import static org.easymock.EasyMock.*;
+
+/**
+ * Tests the Strategy config service publishes a config changed event for each change.
+ *
+ * @author gazbert
+ */
+public class TestStrategyConfigService {
+
+    private static final String STRATEGY_ID = "scalping-strategy";
+
+    private StrategyConfigRepository strategyConfigRepository;
+    private ApplicationEventPublisher eventPublisher;
+    private StrategyConfigService strategyConfigService;
+
+    @Before
+    public void setup() throws Exception {
+        strategyConfigRepository = createMock(StrategyConfigRepository.class);
+        eventPublisher = createMock(ApplicationEventPublisher.class);
+        strategyConfigService = new StrategyConfigServiceImpl(strategyConfigRepository, eventPublisher);
+    }
+
+    @Test
+    public void whenCreateStrategyConfigCalledThenCreatedEventIsPublished() throws Exception {
+
+        final StrategyConfig strategyConfig = someStrategyConfig();
+        expect(strategyConfigRepository.save(strategyConfig)).andReturn(strategyConfig);
+        final Capture<ConfigChangedEvent> event = newCapture();
+        eventPublisher.publishEvent(capture(event));
+        replay(strategyConfigRepository, eventPublisher);
+
+        assertThat(strategyConfigService.createStrategyConfig(strategyConfig)).isEqualTo(strategyConfig);
+        assertEvent(event.getValue(), ChangeType.CREATED);
+
+        verify(strategyConfigRepository, eventPublisher);
+    }
+
+    @Test
+    public void whenUpdateStrategyConfigCalledThenUpdatedEventIsPublished() throws Exception {
+
+        final StrategyConfig strategyConfig = someStrategyConfig();
+        expect(strategyConfigRepository.save(strategyConfig)).andReturn(strategyConfig);
+        final Capture<ConfigChangedEvent> event = newCapture();
+        eventPublisher.publishEvent(capture(event));
+        replay(strategyConfigRepository, eventPublisher);
+
+        assertThat(strategyConfigService.updateStrategyConfig(strategyConfig)).isEqualTo(strategyConfig);
+        assertEvent(event.getValue(), ChangeType.UPDATED);
+
+        verify(strategyConfigRepository, eventPublisher);
+    }
+
+    @Test
+    public void whenDeleteStrategyConfigCalledThenDeletedEventIsPublished() throws Exception {
+
+        final StrategyConfig strategyConfig = someStrategyConfig();
+        expect(strategyConfigRepository.delete(STRATEGY_ID)).andReturn(strategyConfig);
+        final Capture<ConfigChangedEvent> event = newCapture();
+        eventPublisher.publishEvent(capture(event));
+        replay(strategyConfigRepository, eventPublisher);
+
+        assertThat(strategyConfigService.deleteStrategyConfig(STRATEGY_ID)).isEqualTo(strategyConfig);
+        assertEvent(event.getValue(), ChangeType.DELETED);
+
+        verify(strategyConfigRepository, eventPublisher);
+    }
+
+    @Test
+    public void whenDeleteStrategyConfigCalledForUnknownIdThenNoEventIsPublished() throws Exception {
+
+        expect(strategyConfigRepository.delete(STRATEGY_ID)).andReturn(null);
+        replay(strategyConfigRepository, eventPublisher);
+
+        assertThat(strategyConfigService.deleteStrategyConfig(STRATEGY_ID)).isNull();
+
+        verify(strategyConfigRepository, eventPublisher);
+    }
+
+    // ------------------------------------------------------------------------------------------------
+    // Private utils
+    // ------------------------------------------------------------------------------------------------
+
+    private static void assertEvent(ConfigChangedEvent event, ChangeType changeType) {
+        assertThat(event.getConfigType()).isEqualTo(ConfigType.STRATEGY);
+        assertThat(event.getChangeType()).isEqualTo(changeType);
+        assertThat(event.getConfigId()).isEqualTo(STRATEGY_ID);
+    }
+
+    private static StrategyConfig someStrategyConfig() {
+        return new StrategyConfig(STRATEGY_ID, "Basic Scalping Strat", "A simple scalper",
+                "com.gazbert.bxbot.strategies.ExampleScalpingStrategy", null, new HashMap<>());
+    }
+}
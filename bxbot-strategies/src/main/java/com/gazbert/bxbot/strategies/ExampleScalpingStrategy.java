@@ -23,6 +23,8 @@
 
 package com.gazbert.bxbot.strategies;
 
+import com.gazbert.bxbot.strategy.api.OrderEvent;
+import com.gazbert.bxbot.strategy.api.OrderEventListener;
 import com.gazbert.bxbot.strategy.api.StrategyConfig;
 import com.gazbert.bxbot.strategy.api.StrategyException;
 import com.gazbert.bxbot.strategy.api.TradingStrategy;
@@ -116,6 +118,10 @@ import java.util.List;
  * This simple demo algorithm only manages 1 order at a time to keep things simple.
  * </p>
  * <p>
+ * It implements {@link OrderEventListener}, so the Trading Engine tells it when its last order has filled; it does not
+ * have to fetch its open orders from the exchange every trade cycle to find out.
+ * </p>
+ * <p>
  * The Trading Engine will only send 1 thread through your strategy code at a time - you do not have to code for concurrency.
  * </p>
  * <p>
@@ -130,7 +136,7 @@ import java.util.List;
  * @author gazbert
  */
 @Component("exampleScalpingStrategy") // this is used to load the strategy using Spring bean injection
-public class ExampleScalpingStrategy implements TradingStrategy {
+public class ExampleScalpingStrategy implements TradingStrategy, OrderEventListener {
 
     private static final Logger LOG = LogManager.getLogger();
 
@@ -267,6 +273,42 @@ public class ExampleScalpingStrategy implements TradingStrategy {
         }
     }
 
+    /**
+     * Called by the Trading Engine before {@link #execute()} when one of our orders has filled.
+     *
+     * @param orderEvent the filled order.
+     */
+    @Override
+    public void onOrderFilled(OrderEvent orderEvent) {
+        if (lastOrder != null && orderEvent.getOrderId().equals(lastOrder.id)) {
+            LOG.info(() -> market.getName() + " Last Order has filled: " + orderEvent);
+            lastOrder.filled = true;
+        }
+    }
+
+    /**
+     * Called by the Trading Engine before {@link #execute()} when one of our orders has been cancelled through the
+     * Trading API. This strategy never cancels its orders, but you might add code that does...
+     * If the last buy order was cancelled, we start again with a new buy order. If the last sell order was cancelled,
+     * we are left holding the base currency - it needs manual intervention.
+     *
+     * @param orderEvent the cancelled order.
+     */
+    @Override
+    public void onOrderCancelled(OrderEvent orderEvent) {
+        if (lastOrder == null || !orderEvent.getOrderId().equals(lastOrder.id)) {
+            return;
+        }
+
+        if (lastOrder.type == OrderType.BUY) {
+            LOG.warn(market.getName() + " Last BUY Order was cancelled - will place a new BUY order: " + orderEvent);
+            lastOrder = new OrderState();
+        } else {
+            LOG.error(market.getName() + " Last SELL Order was cancelled - holding base currency until it is sold"
+                    + " manually: " + orderEvent);
+        }
+    }
+
     /**
      * Algo for executing when the Trading Strategy is invoked for the first time.
      * We start off with a buy order at current BID price.
@@ -329,18 +371,8 @@ public class ExampleScalpingStrategy implements TradingStrategy {
 
         try {
 
-            // Fetch our current open orders and see if the buy order is still outstanding/open on the exchange
-            final List<OpenOrder> myOrders = tradingApi.getYourOpenOrders(market.getId());
-            boolean lastOrderFound = false;
-            for (final OpenOrder myOrder : myOrders) {
-                if (myOrder.getId().equals(lastOrder.id)) {
-                    lastOrderFound = true;
-                    break;
-                }
-            }
-
-            // If the order is not there, it must have all filled.
-            if (!lastOrderFound) {
+            // The Trading Engine tells us when the buy order has filled - see onOrderFilled()
+            if (lastOrder.filled) {
 
                 LOG.info(() -> market.getName() +
                         " ^^^ Yay!!! Last BUY Order Id [" + lastOrder.id + "] filled at [" + lastOrder.price + "]");
@@ -386,6 +418,7 @@ public class ExampleScalpingStrategy implements TradingStrategy {
                 // update last order state
                 lastOrder.price = newAskPrice;
                 lastOrder.type = OrderType.SELL;
+                lastOrder.filled = false;
             } else {
 
                 /*
@@ -433,18 +466,8 @@ public class ExampleScalpingStrategy implements TradingStrategy {
 
         try {
 
-            // Fetch our current open orders and see if the sell order is still outstanding/unfilled on the exchange
-            final List<OpenOrder> myOrders = tradingApi.getYourOpenOrders(market.getId());
-            boolean lastOrderFound = false;
-            for (final OpenOrder myOrder : myOrders) {
-                if (myOrder.getId().equals(lastOrder.id)) {
-                    lastOrderFound = true;
-                    break;
-                }
-            }
-
-            // if the order is not there, it must have all filled.
-            if (!lastOrderFound) {
+            // The Trading Engine tells us when the sell order has filled - see onOrderFilled()
+            if (lastOrder.filled) {
 
                 LOG.info(() -> market.getName() +
                         " ^^^ Yay!!! Last SELL Order Id [" + lastOrder.id + "] filled at [" + lastOrder.price + "]");
@@ -466,6 +489,7 @@ public class ExampleScalpingStrategy implements TradingStrategy {
                 lastOrder.price = currentBidPrice;
                 lastOrder.type = OrderType.BUY;
                 lastOrder.amount = amountOfBaseCurrencyToBuy;
+                lastOrder.filled = false;
             } else {
 
                 /*
@@ -610,6 +634,11 @@ public class ExampleScalpingStrategy implements TradingStrategy {
          */
         private BigDecimal amount = BigDecimal.ZERO;
 
+        /**
+         * Has the order filled? Set when the Trading Engine tells us - default to false.
+         */
+        private boolean filled = false;
+
         @Override
         public String toString() {
             return MoreObjects.toStringHelper(this)
@@ -617,6 +646,7 @@ public class ExampleScalpingStrategy implements TradingStrategy {
                     .add("type", type)
                     .add("price", price)
                     .add("amount", amount)
+                    .add("filled", filled)
                     .toString();
         }
     }
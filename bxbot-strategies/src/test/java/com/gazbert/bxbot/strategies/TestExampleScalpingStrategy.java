@@ -23,6 +23,7 @@
 
 package com.gazbert.bxbot.strategies;
 
+import com.gazbert.bxbot.strategy.api.OrderEvent;
 import com.gazbert.bxbot.strategy.api.StrategyConfig;
 import com.gazbert.bxbot.strategy.api.StrategyException;
 import com.gazbert.bxbot.trading.api.*;
@@ -170,10 +171,6 @@ public class TestExampleScalpingStrategy {
         Whitebox.setInternalState(orderState, "price", lastOrderPrice);
         Whitebox.setInternalState(orderState, "amount", lastOrderAmount);
 
-        // expect to check if the buy order has filled
-        expect(market.getId()).andReturn(MARKET_ID);
-        expect(tradingApi.getYourOpenOrders(MARKET_ID)).andReturn(new ArrayList<>()); // empty list; order has filled
-
         // expect to send new sell order to exchange
         final BigDecimal requiredProfitInPercent = new BigDecimal("0.02");
         final BigDecimal newAskPrice = lastOrderPrice.multiply(requiredProfitInPercent).add(lastOrderPrice).setScale(8, RoundingMode.HALF_UP);
@@ -190,6 +187,11 @@ public class TestExampleScalpingStrategy {
 
         // run test
         strategy.init(tradingApi, market, config);
+
+        // the Trading Engine tells the strategy its last order has filled
+        strategy.onOrderFilled(new OrderEvent("45345346", MARKET_ID, OrderType.BUY, lastOrderPrice, lastOrderAmount,
+                lastOrderAmount));
+
         strategy.execute();
 
         verify(tradingApi, market, config, marketOrderBook, marketBuyOrder, marketSellOrder, orderState);
@@ -221,17 +223,9 @@ public class TestExampleScalpingStrategy {
         Whitebox.setInternalState(orderState, "price", lastOrderPrice);
         Whitebox.setInternalState(orderState, "amount", lastOrderAmount);
 
-        // expect to check if the buy order has filled
-        expect(market.getId()).andReturn(MARKET_ID);
-        final OpenOrder unfilledOrder = createMock(OpenOrder.class);
-        final List<OpenOrder> openOrders = new ArrayList<>();
-        openOrders.add(unfilledOrder); // still have open order
-        expect(tradingApi.getYourOpenOrders(MARKET_ID)).andReturn(openOrders);
-
-        // expect strategy to find existing open order and hold current position
-        expect(openOrders.get(0).getId()).andReturn("45345346");
+        // no fill event from the Trading Engine - expect strategy to hold current position
 
-        replay(tradingApi, market, config, marketOrderBook, marketBuyOrder, marketSellOrder, orderState, unfilledOrder);
+        replay(tradingApi, market, config, marketOrderBook, marketBuyOrder, marketSellOrder, orderState);
 
         final ExampleScalpingStrategy strategy = new ExampleScalpingStrategy();
 
@@ -242,7 +236,7 @@ public class TestExampleScalpingStrategy {
         strategy.init(tradingApi, market, config);
         strategy.execute();
 
-        verify(tradingApi, market, config, marketOrderBook, marketBuyOrder, marketSellOrder, orderState, unfilledOrder);
+        verify(tradingApi, market, config, marketOrderBook, marketBuyOrder, marketSellOrder, orderState);
     }
 
     /*
@@ -271,10 +265,6 @@ public class TestExampleScalpingStrategy {
         Whitebox.setInternalState(orderState, "price", lastOrderPrice);
         Whitebox.setInternalState(orderState, "amount", lastOrderAmount);
 
-        // expect to check if the sell order has filled
-        expect(market.getId()).andReturn(MARKET_ID);
-        expect(tradingApi.getYourOpenOrders(MARKET_ID)).andReturn(new ArrayList<>()); // empty list; order has filled
-
         // expect to get amount of base currency to buy for given counter currency amount
         expect(market.getId()).andReturn(MARKET_ID);
         final BigDecimal lastTradePrice = new BigDecimal("0.015");
@@ -297,6 +287,11 @@ public class TestExampleScalpingStrategy {
 
         // run test
         strategy.init(tradingApi, market, config);
+
+        // the Trading Engine tells the strategy its last order has filled
+        strategy.onOrderFilled(new OrderEvent("45345346", MARKET_ID, OrderType.SELL, lastOrderPrice, lastOrderAmount,
+                lastOrderAmount));
+
         strategy.execute();
 
         verify(tradingApi, market, config, marketOrderBook, marketBuyOrder, marketSellOrder, orderState);
@@ -328,17 +323,9 @@ public class TestExampleScalpingStrategy {
         Whitebox.setInternalState(orderState, "price", lastOrderPrice);
         Whitebox.setInternalState(orderState, "amount", lastOrderAmount);
 
-        // expect to check if the sell order has filled
-        expect(market.getId()).andReturn(MARKET_ID);
-        final OpenOrder unfilledOrder = createMock(OpenOrder.class);
-        final List<OpenOrder> openOrders = new ArrayList<>();
-        openOrders.add(unfilledOrder); // still have open order
-        expect(tradingApi.getYourOpenOrders(MARKET_ID)).andReturn(openOrders);
-
-        // expect strategy to find existing open order and hold current position
-        expect(openOrders.get(0).getId()).andReturn("45345346");
+        // no fill event from the Trading Engine - expect strategy to hold current position
 
-        replay(tradingApi, market, config, marketOrderBook, marketBuyOrder, marketSellOrder, orderState, unfilledOrder);
+        replay(tradingApi, market, config, marketOrderBook, marketBuyOrder, marketSellOrder, orderState);
 
         final ExampleScalpingStrategy strategy = new ExampleScalpingStrategy();
 
@@ -349,7 +336,7 @@ public class TestExampleScalpingStrategy {
         strategy.init(tradingApi, market, config);
         strategy.execute();
 
-        verify(tradingApi, market, config, marketOrderBook, marketBuyOrder, marketSellOrder, orderState, unfilledOrder);
+        verify(tradingApi, market, config, marketOrderBook, marketBuyOrder, marketSellOrder, orderState);
     }
 
     // ------------------------------------------------------------------------
@@ -422,10 +409,6 @@ public class TestExampleScalpingStrategy {
         Whitebox.setInternalState(orderState, "price", lastOrderPrice);
         Whitebox.setInternalState(orderState, "amount", lastOrderAmount);
 
-        // expect to check if the sell order has filled
-        expect(market.getId()).andReturn(MARKET_ID);
-        expect(tradingApi.getYourOpenOrders(MARKET_ID)).andReturn(new ArrayList<>()); // empty list; order has filled
-
         // expect to get amount of base currency to buy for given counter currency amount
         expect(market.getId()).andReturn(MARKET_ID);
         final BigDecimal lastTradePrice = new BigDecimal("0.015");
@@ -448,6 +431,11 @@ public class TestExampleScalpingStrategy {
 
         // run test
         strategy.init(tradingApi, market, config);
+
+        // the Trading Engine tells the strategy its last order has filled
+        strategy.onOrderFilled(new OrderEvent("45345346", MARKET_ID, OrderType.SELL, lastOrderPrice, lastOrderAmount,
+                lastOrderAmount));
+
         strategy.execute();
 
         verify(tradingApi, market, config, marketOrderBook, marketBuyOrder, marketSellOrder, orderState);
@@ -480,10 +468,6 @@ public class TestExampleScalpingStrategy {
         Whitebox.setInternalState(orderState, "price", lastOrderPrice);
         Whitebox.setInternalState(orderState, "amount", lastOrderAmount);
 
-        // expect to check if the buy order has filled
-        expect(market.getId()).andReturn(MARKET_ID);
-        expect(tradingApi.getYourOpenOrders(MARKET_ID)).andReturn(new ArrayList<>()); // empty list; order has filled
-
         // expect to send new sell order to exchange and receive timeout exception
         final BigDecimal requiredProfitInPercent = new BigDecimal("0.02");
         final BigDecimal newAskPrice = lastOrderPrice.multiply(requiredProfitInPercent).add(lastOrderPrice).setScale(8, RoundingMode.HALF_UP);
@@ -500,6 +484,11 @@ public class TestExampleScalpingStrategy {
 
         // run test
         strategy.init(tradingApi, market, config);
+
+        // the Trading Engine tells the strategy its last order has filled
+        strategy.onOrderFilled(new OrderEvent("45345346", MARKET_ID, OrderType.BUY, lastOrderPrice, lastOrderAmount,
+                lastOrderAmount));
+
         strategy.execute();
 
         verify(tradingApi, market, config, marketOrderBook, marketBuyOrder, marketSellOrder, orderState);
@@ -575,10 +564,6 @@ public class TestExampleScalpingStrategy {
         Whitebox.setInternalState(orderState, "price", lastOrderPrice);
         Whitebox.setInternalState(orderState, "amount", lastOrderAmount);
 
-        // expect to check if the sell order has filled
-        expect(market.getId()).andReturn(MARKET_ID);
-        expect(tradingApi.getYourOpenOrders(MARKET_ID)).andReturn(new ArrayList<>()); // empty list; order has filled
-
         // expect to get amount of base currency to buy for given counter currency amount
         expect(market.getId()).andReturn(MARKET_ID);
         final BigDecimal lastTradePrice = new BigDecimal("0.015");
@@ -601,6 +586,11 @@ public class TestExampleScalpingStrategy {
 
         // run test
         strategy.init(tradingApi, market, config);
+
+        // the Trading Engine tells the strategy its last order has filled
+        strategy.onOrderFilled(new OrderEvent("45345346", MARKET_ID, OrderType.SELL, lastOrderPrice, lastOrderAmount,
+                lastOrderAmount));
+
         strategy.execute();
 
         verify(tradingApi, market, config, marketOrderBook, marketBuyOrder, marketSellOrder, orderState);
@@ -633,10 +623,6 @@ public class TestExampleScalpingStrategy {
         Whitebox.setInternalState(orderState, "price", lastOrderPrice);
         Whitebox.setInternalState(orderState, "amount", lastOrderAmount);
 
-        // expect to check if the buy order has filled
-        expect(market.getId()).andReturn(MARKET_ID);
-        expect(tradingApi.getYourOpenOrders(MARKET_ID)).andReturn(new ArrayList<>()); // empty list; order has filled
-
         // expect to send new sell order to exchange and receive timeout exception
         final BigDecimal requiredProfitInPercent = new BigDecimal("0.02");
         final BigDecimal newAskPrice = lastOrderPrice.multiply(requiredProfitInPercent).add(lastOrderPrice).setScale(8, RoundingMode.HALF_UP);
@@ -653,6 +639,11 @@ public class TestExampleScalpingStrategy {
 
         // run test
         strategy.init(tradingApi, market, config);
+
+        // the Trading Engine tells the strategy its last order has filled
+        strategy.onOrderFilled(new OrderEvent("45345346", MARKET_ID, OrderType.BUY, lastOrderPrice, lastOrderAmount,
+                lastOrderAmount));
+
         strategy.execute();
 
         verify(tradingApi, market, config, marketOrderBook, marketBuyOrder, marketSellOrder, orderState);
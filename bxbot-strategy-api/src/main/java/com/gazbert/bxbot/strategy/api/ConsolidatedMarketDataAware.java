@@ -0,0 +1,51 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.strategy.api;
+
+import com.gazbert.bxbot.trading.api.ConsolidatedMarketData;
+
+/**
+ * <p>
+ * Trading Strategies can implement this interface to get a consolidated view of their market across all the
+ * exchanges the bot trades it on, e.g. the best bid and offer across the exchanges, each tagged with the exchange it's
+ * on.
+ * </p>
+ * <p>
+ * The venues are the markets with the same currency pair on each of the bot's exchanges, including the strategy's own
+ * market. A market has to be configured (and enabled) on an exchange for the exchange to be a venue.
+ * </p>
+ *
+ * @author gazbert
+ * @since 1.2
+ */
+public interface ConsolidatedMarketDataAware {
+
+    /**
+     * Called by the Trading Engine after {@link TradingStrategy#init}, and again whenever the markets being traded
+     * change, with the consolidated market data for the strategy's market. It is called between trade cycles.
+     *
+     * @param consolidatedMarketData the consolidated market data.
+     */
+    void setConsolidatedMarketData(ConsolidatedMarketData consolidatedMarketData);
+}
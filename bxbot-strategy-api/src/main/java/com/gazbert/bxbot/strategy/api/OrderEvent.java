@@ -0,0 +1,132 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.strategy.api;
+
+import com.gazbert.bxbot.trading.api.OrderType;
+import com.google.common.base.MoreObjects;
+
+import java.math.BigDecimal;
+
+/**
+ * An order fill or cancel event sent to an {@link OrderEventListener}.
+ *
+ * @author gazbert
+ * @since 1.2
+ */
+public final class OrderEvent {
+
+    private final String orderId;
+    private final String marketId;
+    private final OrderType type;
+    private final BigDecimal price;
+    private final BigDecimal originalQuantity;
+    private final BigDecimal filledQuantity;
+
+    /**
+     * Creates an order event.
+     *
+     * @param orderId          the id of the order.
+     * @param marketId         the id of the market the order is on.
+     * @param type             the order type.
+     * @param price            the limit price of the order.
+     * @param originalQuantity the quantity the order was placed for.
+     * @param filledQuantity   the quantity that has been filled so far.
+     */
+    public OrderEvent(String orderId, String marketId, OrderType type, BigDecimal price, BigDecimal originalQuantity,
+                      BigDecimal filledQuantity) {
+        this.orderId = orderId;
+        this.marketId = marketId;
+        this.type = type;
+        this.price = price;
+        this.originalQuantity = originalQuantity;
+        this.filledQuantity = filledQuantity;
+    }
+
+    /**
+     * Returns the id of the order.
+     *
+     * @return the order id.
+     */
+    public String getOrderId() {
+        return orderId;
+    }
+
+    /**
+     * Returns the id of the market the order is on.
+     *
+     * @return the market id.
+     */
+    public String getMarketId() {
+        return marketId;
+    }
+
+    /**
+     * Returns the order type.
+     *
+     * @return the order type.
+     */
+    public OrderType getType() {
+        return type;
+    }
+
+    /**
+     * Returns the limit price of the order.
+     *
+     * @return the order price.
+     */
+    public BigDecimal getPrice() {
+        return price;
+    }
+
+    /**
+     * Returns the quantity the order was placed for.
+     *
+     * @return the original quantity.
+     */
+    public BigDecimal getOriginalQuantity() {
+        return originalQuantity;
+    }
+
+    /**
+     * Returns the quantity that has been filled so far. For a cancelled order, this is the quantity that was filled
+     * before it was cancelled, as far as the Trading Engine knows.
+     *
+     * @return the filled quantity.
+     */
+    public BigDecimal getFilledQuantity() {
+        return filledQuantity;
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                .add("orderId", orderId)
+                .add("marketId", marketId)
+                .add("type", type)
+                .add("price", price)
+                .add("originalQuantity", originalQuantity)
+                .add("filledQuantity", filledQuantity)
+                .toString();
+    }
+}
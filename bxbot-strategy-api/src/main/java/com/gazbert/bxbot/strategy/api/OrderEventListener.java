@@ -0,0 +1,70 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.strategy.api;
+
+/**
+ * <p>
+ * Trading Strategies can implement this interface to be told when the orders they have placed are filled or
+ * cancelled, instead of calling {@link com.gazbert.bxbot.trading.api.TradingApi#getYourOpenOrders(String)} every
+ * trade cycle and searching the results for their orders.
+ * </p>
+ * <p>
+ * The Trading Engine tracks every order the strategy creates using the Trading API it was given in
+ * {@link TradingStrategy#init}. It checks the open orders for the strategy's market once at the start of each trade
+ * cycle the strategy is due to run in, but only while the strategy has orders that have not yet filled or been
+ * cancelled. The events are delivered on the Trading Engine thread, before {@link TradingStrategy#execute()} is called.
+ * </p>
+ * <p>
+ * An order that is no longer open on the exchange, and was not cancelled using the Trading API, is assumed to have
+ * filled. Orders placed before the bot started, or outside the bot, are not tracked.
+ * </p>
+ *
+ * @author gazbert
+ * @since 1.2
+ */
+public interface OrderEventListener {
+
+    /**
+     * Called when an order has completely filled. No more events are sent for the order.
+     *
+     * @param orderEvent the filled order.
+     */
+    void onOrderFilled(OrderEvent orderEvent);
+
+    /**
+     * Called when an order has been cancelled using the Trading API. No more events are sent for the order.
+     *
+     * @param orderEvent the cancelled order.
+     */
+    void onOrderCancelled(OrderEvent orderEvent);
+
+    /**
+     * Called when more of an order has been filled, but some of it is still open on the exchange.
+     * Only sent for exchanges that report the remaining quantity of open orders. Does nothing by default.
+     *
+     * @param orderEvent the partially filled order.
+     */
+    default void onOrderPartiallyFilled(OrderEvent orderEvent) {
+    }
+}
@@ -33,6 +33,11 @@ import com.gazbert.bxbot.trading.api.TradingApi;
  * <p>
  * The Trading Engine will send only 1 thread through your strategy code at a time - you do not have to code for concurrency.
  * </p>
+ * <p>
+ * If the Trading Engine is configured to execute strategies in parallel, each strategy instance is still only called by
+ * 1 thread at a time, but different strategy instances may be executing at the same time. Any state shared between
+ * strategy instances (e.g. static fields) must be thread safe.
+ * </p>
  *
  * @author gazbert
  * @since 1.0
@@ -0,0 +1,156 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+
+package com.gazbert.bxbot.trading.api;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * <p>
+ * Asynchronous version of the {@link TradingApi}.
+ * </p>
+ * <p>
+ * Every call returns straight away with a {@link CompletableFuture}. This lets a Trading Strategy fan out independent
+ * calls and wait for them all to complete, e.g. fetch the order book, its open orders, and the latest price in
+ * parallel instead of one after the other:
+ * </p>
+ * <pre>
+ * final AsyncTradingApi asyncTradingApi = tradingApi.getAsyncTradingApi();
+ * final CompletableFuture&lt;MarketOrderBook&gt; orderBook = asyncTradingApi.getMarketOrders(marketId);
+ * final CompletableFuture&lt;List&lt;OpenOrder&gt;&gt; openOrders = asyncTradingApi.getYourOpenOrders(marketId);
+ * CompletableFuture.allOf(orderBook, openOrders).join();
+ * </pre>
+ * <p>
+ * If a call fails, its future completes exceptionally with the {@link ExchangeNetworkException} or
+ * {@link TradingApiException} the equivalent {@link TradingApi} call would have thrown. Remember that
+ * {@link CompletableFuture#join()} and {@link CompletableFuture#get()} wrap the exception - use
+ * {@link Throwable#getCause()} to get at it.
+ * </p>
+ * <p>
+ * The authenticated calls - getYourOpenOrders, createOrder, cancelOrder, getBalanceInfo, and the exchange fee
+ * calls - are executed one at a time in the order they were made. Only the public market data calls are executed
+ * concurrently. Exchange Adapters are not written to sign more than 1 request at a time, so wait for any async
+ * authenticated calls to complete before making a blocking authenticated call on the {@link TradingApi}.
+ * </p>
+ *
+ * @author gazbert
+ * @since 1.2
+ */
+public interface AsyncTradingApi {
+
+    /**
+     * Fetches latest <em>market</em> orders for a given market.
+     *
+     * @param marketId the id of the market.
+     * @return the market order book.
+     * @see TradingApi#getMarketOrders(String)
+     * @since 1.2
+     */
+    CompletableFuture<MarketOrderBook> getMarketOrders(String marketId);
+
+    /**
+     * Fetches <em>your</em> current open orders, i.e. the orders placed by the bot.
+     *
+     * @param marketId the id of the market.
+     * @return your current open orders.
+     * @see TradingApi#getYourOpenOrders(String)
+     * @since 1.2
+     */
+    CompletableFuture<List<OpenOrder>> getYourOpenOrders(String marketId);
+
+    /**
+     * Places an order on the exchange.
+     *
+     * @param marketId  the id of the market.
+     * @param orderType Value must be {@link OrderType#BUY} or {@link OrderType#SELL}.
+     * @param quantity  amount of units you are buying/selling in this order.
+     * @param price     the price per unit you are buying/selling at.
+     * @return the id of the order.
+     * @see TradingApi#createOrder(String, OrderType, BigDecimal, BigDecimal)
+     * @since 1.2
+     */
+    CompletableFuture<String> createOrder(String marketId, OrderType orderType, BigDecimal quantity, BigDecimal price);
+
+    /**
+     * Cancels your existing order on the exchange.
+     *
+     * @param orderId  your order Id.
+     * @param marketId the id of the market the order was placed on, e.g. btc_usd
+     * @return true if order cancelled ok, false otherwise.
+     * @see TradingApi#cancelOrder(String, String)
+     * @since 1.2
+     */
+    CompletableFuture<Boolean> cancelOrder(String orderId, String marketId);
+
+    /**
+     * Fetches the latest price for a given market.
+     *
+     * @param marketId the id of the market.
+     * @return the latest market price.
+     * @see TradingApi#getLatestMarketPrice(String)
+     * @since 1.2
+     */
+    CompletableFuture<BigDecimal> getLatestMarketPrice(String marketId);
+
+    /**
+     * Fetches the balance of your wallets on the exchange.
+     *
+     * @return your wallet balance info.
+     * @see TradingApi#getBalanceInfo()
+     * @since 1.2
+     */
+    CompletableFuture<BalanceInfo> getBalanceInfo();
+
+    /**
+     * Returns the exchange BUY order fee for a given market id.
+     *
+     * @param marketId the id of the market.
+     * @return the % of the BUY order that the exchange uses to calculate its fee as a {@link BigDecimal}.
+     * @see TradingApi#getPercentageOfBuyOrderTakenForExchangeFee(String)
+     * @since 1.2
+     */
+    CompletableFuture<BigDecimal> getPercentageOfBuyOrderTakenForExchangeFee(String marketId);
+
+    /**
+     * Returns the exchange SELL order fee for a given market id.
+     *
+     * @param marketId the id of the market.
+     * @return the % of the SELL order that the exchange uses to calculate its fee as a {@link BigDecimal}.
+     * @see TradingApi#getPercentageOfSellOrderTakenForExchangeFee(String)
+     * @since 1.2
+     */
+    CompletableFuture<BigDecimal> getPercentageOfSellOrderTakenForExchangeFee(String marketId);
+
+    /**
+     * Returns the exchange Ticker a given market id.
+     *
+     * @param marketId the id of the market.
+     * @return the exchange Ticker for a given market.
+     * @see TradingApi#getTicker(String)
+     * @since 1.2
+     */
+    CompletableFuture<Ticker> getTicker(String marketId);
+}
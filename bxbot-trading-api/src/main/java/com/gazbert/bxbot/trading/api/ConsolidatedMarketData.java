@@ -0,0 +1,302 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.trading.api;
+
+import com.google.common.base.MoreObjects;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+/**
+ * <p>
+ * Gives Trading Strategies a consolidated view of a currency pair that is traded on several venues (exchanges).
+ * </p>
+ * <p>
+ * Each venue is the {@link TradingApi} for an exchange and the {@link Market} on that exchange. The markets can have
+ * different ids on each exchange, but their currencies must normalise to the same {@link CurrencyPair}.
+ * </p>
+ * <p>
+ * {@link #refreshOrderBook()} and {@link #getBestBidOffer()} fetch from all the venues in parallel using the
+ * {@link Executor} given to the {@link Builder}, so a cycle takes as long as the slowest venue rather than the sum of
+ * them all. A venue that fails is left out of the result; the call only fails if every venue fails.
+ * </p>
+ * <p>
+ * The same {@link ConsolidatedOrderBook} is returned by every refresh and is updated incrementally with each venue's
+ * latest order book.
+ * </p>
+ *
+ * @author gazbert
+ * @since 1.2
+ */
+public final class ConsolidatedMarketData {
+
+    private final CurrencyPair currencyPair;
+    private final List<Venue> venues;
+    private final Executor executor;
+    private final ConsolidatedOrderBook orderBook;
+
+    private ConsolidatedMarketData(Builder builder) {
+        this.currencyPair = builder.venues.get(0).currencyPair;
+        this.venues = new ArrayList<>(builder.venues);
+        this.executor = builder.executor;
+        this.orderBook = new ConsolidatedOrderBook(currencyPair);
+    }
+
+    /**
+     * Returns the currency pair being consolidated.
+     *
+     * @return the currency pair.
+     */
+    public CurrencyPair getCurrencyPair() {
+        return currencyPair;
+    }
+
+    /**
+     * Returns the ids of the venues being consolidated, in the order they were added.
+     *
+     * @return the venue ids.
+     */
+    public Set<String> getVenueIds() {
+        final Set<String> venueIds = new LinkedHashSet<>();
+        for (final Venue venue : venues) {
+            venueIds.add(venue.id);
+        }
+        return Collections.unmodifiableSet(venueIds);
+    }
+
+    /**
+     * Returns the consolidated order book as of the last refresh, without fetching anything.
+     *
+     * @return the consolidated order book.
+     */
+    public ConsolidatedOrderBook getOrderBook() {
+        return orderBook;
+    }
+
+    /**
+     * Fetches the order book from every venue in parallel and merges them into the consolidated order book.
+     * The levels of any venue that fails are removed from the book - see {@link ConsolidatedOrderBook#getVenues()}.
+     *
+     * @return the consolidated order book.
+     * @throws ExchangeNetworkException if every venue failed and the first failure was a network error.
+     * @throws TradingApiException      if every venue failed and the first failure was not a network error.
+     */
+    public ConsolidatedOrderBook refreshOrderBook() throws ExchangeNetworkException, TradingApiException {
+
+        final List<CompletableFuture<MarketOrderBook>> orderBooks =
+                fetchFromAllVenues(venue -> venue.tradingApi.getMarketOrders(venue.marketId));
+
+        Throwable firstFailure = null;
+        int venuesFetched = 0;
+        for (int i = 0; i < venues.size(); i++) {
+            final Venue venue = venues.get(i);
+            try {
+                orderBook.update(venue.id, orderBooks.get(i).join());
+                venuesFetched++;
+            } catch (CompletionException e) {
+                orderBook.removeVenue(venue.id);
+                if (firstFailure == null) {
+                    firstFailure = e.getCause();
+                }
+            }
+        }
+
+        if (venuesFetched == 0) {
+            rethrowFailure("Failed to fetch the order book", firstFailure);
+        }
+        return orderBook;
+    }
+
+    /**
+     * Fetches the Ticker from every venue in parallel and returns the best bid and offer across them.
+     * Venues that fail are left out of the quote - see {@link ConsolidatedQuote#getTickers()}.
+     *
+     * @return the consolidated best bid and offer.
+     * @throws ExchangeNetworkException if every venue failed and the first failure was a network error.
+     * @throws TradingApiException      if every venue failed and the first failure was not a network error.
+     */
+    public ConsolidatedQuote getBestBidOffer() throws ExchangeNetworkException, TradingApiException {
+
+        final List<CompletableFuture<Ticker>> tickers =
+                fetchFromAllVenues(venue -> venue.tradingApi.getTicker(venue.marketId));
+
+        final Map<String, Ticker> venueTickers = new LinkedHashMap<>();
+        Throwable firstFailure = null;
+        for (int i = 0; i < venues.size(); i++) {
+            try {
+                venueTickers.put(venues.get(i).id, tickers.get(i).join());
+            } catch (CompletionException e) {
+                if (firstFailure == null) {
+                    firstFailure = e.getCause();
+                }
+            }
+        }
+
+        if (venueTickers.isEmpty()) {
+            rethrowFailure("Failed to fetch the ticker", firstFailure);
+        }
+        return new ConsolidatedQuote(currencyPair, venueTickers);
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                .add("currencyPair", currencyPair.getId())
+                .add("venues", venues)
+                .toString();
+    }
+
+    // ------------------------------------------------------------------------
+    // Private utils
+    // ------------------------------------------------------------------------
+
+    private <T> List<CompletableFuture<T>> fetchFromAllVenues(VenueCall<T> venueCall) {
+        final List<CompletableFuture<T>> results = new ArrayList<>(venues.size());
+        for (final Venue venue : venues) {
+            results.add(CompletableFuture.supplyAsync(() -> {
+                try {
+                    return venueCall.call(venue);
+                } catch (ExchangeNetworkException | TradingApiException e) {
+                    throw new CompletionException(e);
+                }
+            }, executor));
+        }
+        return results;
+    }
+
+    /*
+     * Rethrows the failure when every venue has failed.
+     */
+    private void rethrowFailure(String msg, Throwable failure)
+            throws ExchangeNetworkException, TradingApiException {
+
+        if (failure instanceof ExchangeNetworkException) {
+            throw (ExchangeNetworkException) failure;
+        } else if (failure instanceof TradingApiException) {
+            throw (TradingApiException) failure;
+        } else if (failure instanceof RuntimeException) {
+            throw (RuntimeException) failure;
+        }
+        throw new TradingApiException(msg + " for " + currencyPair.getId() + " from all venues", failure);
+    }
+
+    /*
+     * A Trading API call made to a venue.
+     */
+    @FunctionalInterface
+    private interface VenueCall<T> {
+        T call(Venue venue) throws ExchangeNetworkException, TradingApiException;
+    }
+
+    /*
+     * A market on an exchange.
+     */
+    private static final class Venue {
+
+        private final String id;
+        private final TradingApi tradingApi;
+        private final String marketId;
+        private final CurrencyPair currencyPair;
+
+        private Venue(String id, TradingApi tradingApi, Market market) {
+            this.id = id;
+            this.tradingApi = tradingApi;
+            this.marketId = market.getId();
+            this.currencyPair = CurrencyPair.of(market);
+        }
+
+        @Override
+        public String toString() {
+            return MoreObjects.toStringHelper(this)
+                    .add("id", id)
+                    .add("marketId", marketId)
+                    .toString();
+        }
+    }
+
+    /**
+     * Builds a {@link ConsolidatedMarketData}.
+     */
+    public static final class Builder {
+
+        private final Executor executor;
+        private final List<Venue> venues = new ArrayList<>();
+
+        /**
+         * Creates a builder.
+         *
+         * @param executor the executor used to fetch from the venues in parallel. It needs a thread for each venue
+         *                 for the fetches to fully overlap.
+         */
+        public Builder(Executor executor) {
+            this.executor = executor;
+        }
+
+        /**
+         * Adds a venue.
+         *
+         * @param venueId    the venue id, e.g. the exchange id. This is what the consolidated levels are tagged with.
+         * @param tradingApi the Trading API for the exchange.
+         * @param market     the market on the exchange.
+         * @return this builder.
+         * @throws IllegalArgumentException if the venue id has already been added, or the market's currency pair is
+         *                                  not the same as the other venues'.
+         */
+        public Builder addVenue(String venueId, TradingApi tradingApi, Market market) {
+            final Venue venue = new Venue(venueId, tradingApi, market);
+            for (final Venue existingVenue : venues) {
+                if (existingVenue.id.equals(venueId)) {
+                    throw new IllegalArgumentException("Venue has already been added: " + venueId);
+                }
+                if (!existingVenue.currencyPair.equals(venue.currencyPair)) {
+                    throw new IllegalArgumentException("Venue " + venueId + " trades " + venue.currencyPair.getId()
+                            + " but the other venues trade " + existingVenue.currencyPair.getId());
+                }
+            }
+            venues.add(venue);
+            return this;
+        }
+
+        /**
+         * Builds the consolidated market data.
+         *
+         * @return the consolidated market data.
+         * @throws IllegalStateException if no venues have been added.
+         */
+        public ConsolidatedMarketData build() {
+            if (venues.isEmpty()) {
+                throw new IllegalStateException("At least 1 venue must be added");
+            }
+            return new ConsolidatedMarketData(this);
+        }
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.trading.api;
+
+import com.google.common.base.MoreObjects;
+
+import java.math.BigDecimal;
+
+/**
+ * A level of a {@link ConsolidatedOrderBook}, tagged with the venue (exchange) the orders are on.
+ *
+ * @author gazbert
+ * @since 1.2
+ */
+public final class ConsolidatedMarketOrder implements MarketOrder {
+
+    private final String venue;
+    private final OrderType type;
+    private final BigDecimal price;
+    private final BigDecimal quantity;
+
+    ConsolidatedMarketOrder(String venue, OrderType type, BigDecimal price, BigDecimal quantity) {
+        this.venue = venue;
+        this.type = type;
+        this.price = price;
+        this.quantity = quantity;
+    }
+
+    /**
+     * Returns the id of the venue (exchange) the orders are on.
+     *
+     * @return the venue id.
+     */
+    public String getVenue() {
+        return venue;
+    }
+
+    @Override
+    public OrderType getType() {
+        return type;
+    }
+
+    @Override
+    public BigDecimal getPrice() {
+        return price;
+    }
+
+    @Override
+    public BigDecimal getQuantity() {
+        return quantity;
+    }
+
+    @Override
+    public BigDecimal getTotal() {
+        return price.multiply(quantity);
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                .add("venue", venue)
+                .add("type", type)
+                .add("price", price)
+                .add("quantity", quantity)
+                .toString();
+    }
+}
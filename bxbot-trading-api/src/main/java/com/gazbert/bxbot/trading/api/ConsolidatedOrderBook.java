@@ -0,0 +1,281 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.trading.api;
+
+import com.google.common.base.MoreObjects;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * <p>
+ * A {@link MarketOrderBook} that merges the order books for the same currency pair on several venues (exchanges).
+ * </p>
+ * <p>
+ * Each level is a {@link ConsolidatedMarketOrder} tagged with the venue it's on. Bids are held best (highest) price
+ * first and asks best (lowest) price first; levels at the same price are ordered by venue id. The first bid and ask
+ * are the consolidated best bid and offer.
+ * </p>
+ * <p>
+ * The levels are held in sorted sets that are updated incrementally: when a venue's order book is refreshed, only the
+ * levels that have been added, removed, or changed quantity since its last update are touched, rather than the whole
+ * book being re-sorted. The book is updated by {@link ConsolidatedMarketData}.
+ * </p>
+ * <p>
+ * This class is thread safe. The order lists are unmodifiable snapshots, built the first time they are requested
+ * after an update.
+ * </p>
+ *
+ * @author gazbert
+ * @since 1.2
+ */
+public final class ConsolidatedOrderBook implements MarketOrderBook {
+
+    private static final Comparator<ConsolidatedMarketOrder> BEST_BID_FIRST =
+            Comparator.comparing(ConsolidatedMarketOrder::getPrice).reversed()
+                    .thenComparing(ConsolidatedMarketOrder::getVenue);
+
+    private static final Comparator<ConsolidatedMarketOrder> BEST_ASK_FIRST =
+            Comparator.comparing(ConsolidatedMarketOrder::getPrice)
+                    .thenComparing(ConsolidatedMarketOrder::getVenue);
+
+    private final CurrencyPair currencyPair;
+
+    private final NavigableSet<ConsolidatedMarketOrder> bids = new TreeSet<>(BEST_BID_FIRST);
+    private final NavigableSet<ConsolidatedMarketOrder> asks = new TreeSet<>(BEST_ASK_FIRST);
+
+    /*
+     * Each venue's current levels keyed by price, so an update can find the levels that have changed.
+     */
+    private final Map<String, VenueLevels> venueLevels = new LinkedHashMap<>();
+
+    private volatile List<ConsolidatedMarketOrder> bidsSnapshot;
+    private volatile List<ConsolidatedMarketOrder> asksSnapshot;
+
+    /**
+     * Creates an empty book.
+     *
+     * @param currencyPair the currency pair the book is for.
+     */
+    public ConsolidatedOrderBook(CurrencyPair currencyPair) {
+        this.currencyPair = currencyPair;
+    }
+
+    /**
+     * Returns the normalised currency pair id, e.g. BTC/USD
+     *
+     * @return the currency pair id.
+     */
+    @Override
+    public String getMarketId() {
+        return currencyPair.getId();
+    }
+
+    /**
+     * Returns the currency pair the book is for.
+     *
+     * @return the currency pair.
+     */
+    public CurrencyPair getCurrencyPair() {
+        return currencyPair;
+    }
+
+    /**
+     * Returns the ask side of the book, best (lowest) price first. Each order is a {@link ConsolidatedMarketOrder}.
+     *
+     * @return the sell orders.
+     */
+    @Override
+    public List<MarketOrder> getSellOrders() {
+        return Collections.unmodifiableList(getAsks());
+    }
+
+    /**
+     * Returns the bid side of the book, best (highest) price first. Each order is a {@link ConsolidatedMarketOrder}.
+     *
+     * @return the buy orders.
+     */
+    @Override
+    public List<MarketOrder> getBuyOrders() {
+        return Collections.unmodifiableList(getBids());
+    }
+
+    /**
+     * Returns the bid side of the book, best (highest) price first.
+     *
+     * @return the venue tagged bids.
+     */
+    public List<ConsolidatedMarketOrder> getBids() {
+        List<ConsolidatedMarketOrder> snapshot = bidsSnapshot;
+        if (snapshot == null) {
+            synchronized (this) {
+                snapshot = Collections.unmodifiableList(new ArrayList<>(bids));
+                bidsSnapshot = snapshot;
+            }
+        }
+        return snapshot;
+    }
+
+    /**
+     * Returns the ask side of the book, best (lowest) price first.
+     *
+     * @return the venue tagged asks.
+     */
+    public List<ConsolidatedMarketOrder> getAsks() {
+        List<ConsolidatedMarketOrder> snapshot = asksSnapshot;
+        if (snapshot == null) {
+            synchronized (this) {
+                snapshot = Collections.unmodifiableList(new ArrayList<>(asks));
+                asksSnapshot = snapshot;
+            }
+        }
+        return snapshot;
+    }
+
+    /**
+     * Returns the highest bid across all the venues.
+     *
+     * @return the best bid, or null if there are no bids.
+     */
+    public synchronized ConsolidatedMarketOrder getBestBid() {
+        return bids.isEmpty() ? null : bids.first();
+    }
+
+    /**
+     * Returns the lowest ask across all the venues.
+     *
+     * @return the best ask, or null if there are no asks.
+     */
+    public synchronized ConsolidatedMarketOrder getBestAsk() {
+        return asks.isEmpty() ? null : asks.first();
+    }
+
+    /**
+     * Returns the ids of the venues whose orders are in the book, in the order they were first added.
+     *
+     * @return the venue ids.
+     */
+    public synchronized Set<String> getVenues() {
+        return Collections.unmodifiableSet(new LinkedHashSet<>(venueLevels.keySet()));
+    }
+
+    @Override
+    public synchronized String toString() {
+        return MoreObjects.toStringHelper(this)
+                .add("currencyPair", currencyPair.getId())
+                .add("venues", venueLevels.keySet())
+                .add("bidDepth", bids.size())
+                .add("askDepth", asks.size())
+                .toString();
+    }
+
+    // ------------------------------------------------------------------------
+    // Updates
+    // ------------------------------------------------------------------------
+
+    /*
+     * Replaces the venue's levels with the ones in its latest order book.
+     */
+    synchronized void update(String venue, MarketOrderBook orderBook) {
+        final VenueLevels levels = venueLevels.computeIfAbsent(venue, v -> new VenueLevels());
+        updateSide(venue, OrderType.BUY, orderBook.getBuyOrders(), levels.bids, bids);
+        updateSide(venue, OrderType.SELL, orderBook.getSellOrders(), levels.asks, asks);
+        bidsSnapshot = null;
+        asksSnapshot = null;
+    }
+
+    /*
+     * Removes all of the venue's levels, e.g. when its order book could not be fetched.
+     */
+    synchronized void removeVenue(String venue) {
+        final VenueLevels levels = venueLevels.remove(venue);
+        if (levels == null) {
+            return;
+        }
+        levels.bids.values().forEach(bids::remove);
+        levels.asks.values().forEach(asks::remove);
+        bidsSnapshot = null;
+        asksSnapshot = null;
+    }
+
+    // ------------------------------------------------------------------------
+    // Private utils
+    // ------------------------------------------------------------------------
+
+    private static void updateSide(String venue, OrderType type, List<MarketOrder> orders,
+                                   NavigableMap<BigDecimal, ConsolidatedMarketOrder> venueSide,
+                                   NavigableSet<ConsolidatedMarketOrder> side) {
+
+        // some exchanges return more than 1 order at the same price, so total them up
+        final Map<BigDecimal, BigDecimal> latest = new TreeMap<>();
+        for (final MarketOrder order : orders) {
+            if (order.getQuantity().signum() > 0) {
+                latest.merge(order.getPrice(), order.getQuantity(), BigDecimal::add);
+            }
+        }
+
+        final Iterator<ConsolidatedMarketOrder> currentLevels = venueSide.values().iterator();
+        while (currentLevels.hasNext()) {
+            final ConsolidatedMarketOrder level = currentLevels.next();
+            if (!latest.containsKey(level.getPrice())) {
+                side.remove(level);
+                currentLevels.remove();
+            }
+        }
+
+        for (final Map.Entry<BigDecimal, BigDecimal> priceLevel : latest.entrySet()) {
+            final ConsolidatedMarketOrder current = venueSide.get(priceLevel.getKey());
+            if (current != null) {
+                if (current.getQuantity().compareTo(priceLevel.getValue()) == 0) {
+                    continue;
+                }
+                side.remove(current);
+            }
+            final ConsolidatedMarketOrder level =
+                    new ConsolidatedMarketOrder(venue, type, priceLevel.getKey(), priceLevel.getValue());
+            side.add(level);
+            venueSide.put(level.getPrice(), level);
+        }
+    }
+
+    /*
+     * A venue's levels. The maps are keyed on BigDecimal#compareTo so 6500.0 and 6500.00 are the same price.
+     */
+    private static final class VenueLevels {
+        private final NavigableMap<BigDecimal, ConsolidatedMarketOrder> bids = new TreeMap<>();
+        private final NavigableMap<BigDecimal, ConsolidatedMarketOrder> asks = new TreeMap<>();
+    }
+}
@@ -0,0 +1,156 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.trading.api;
+
+import com.google.common.base.MoreObjects;
+
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * <p>
+ * The best bid and offer for a currency pair across several venues (exchanges), built from each venue's
+ * {@link Ticker}.
+ * </p>
+ * <p>
+ * It's cheaper to fetch than a {@link ConsolidatedOrderBook} for strategies that only need the top of the book. Venues
+ * whose Ticker does not provide a bid or ask are left out of the best bid or ask respectively.
+ * </p>
+ *
+ * @author gazbert
+ * @since 1.2
+ */
+public final class ConsolidatedQuote {
+
+    private final CurrencyPair currencyPair;
+    private final Map<String, Ticker> tickers;
+
+    private final String bestBidVenue;
+    private final BigDecimal bestBid;
+    private final String bestAskVenue;
+    private final BigDecimal bestAsk;
+
+    ConsolidatedQuote(CurrencyPair currencyPair, Map<String, Ticker> tickers) {
+        this.currencyPair = currencyPair;
+        this.tickers = Collections.unmodifiableMap(new LinkedHashMap<>(tickers));
+
+        String bestBidVenue = null;
+        BigDecimal bestBid = null;
+        String bestAskVenue = null;
+        BigDecimal bestAsk = null;
+        for (final Map.Entry<String, Ticker> venueTicker : this.tickers.entrySet()) {
+            final BigDecimal bid = venueTicker.getValue().getBid();
+            if (bid != null && (bestBid == null || bid.compareTo(bestBid) > 0)) {
+                bestBid = bid;
+                bestBidVenue = venueTicker.getKey();
+            }
+            final BigDecimal ask = venueTicker.getValue().getAsk();
+            if (ask != null && (bestAsk == null || ask.compareTo(bestAsk) < 0)) {
+                bestAsk = ask;
+                bestAskVenue = venueTicker.getKey();
+            }
+        }
+        this.bestBidVenue = bestBidVenue;
+        this.bestBid = bestBid;
+        this.bestAskVenue = bestAskVenue;
+        this.bestAsk = bestAsk;
+    }
+
+    /**
+     * Returns the currency pair the quote is for.
+     *
+     * @return the currency pair.
+     */
+    public CurrencyPair getCurrencyPair() {
+        return currencyPair;
+    }
+
+    /**
+     * Returns the highest bid across all the venues.
+     *
+     * @return the best bid, or null if no venue provided a bid.
+     */
+    public BigDecimal getBestBid() {
+        return bestBid;
+    }
+
+    /**
+     * Returns the venue with the highest bid.
+     *
+     * @return the best bid venue id, or null if no venue provided a bid.
+     */
+    public String getBestBidVenue() {
+        return bestBidVenue;
+    }
+
+    /**
+     * Returns the lowest ask across all the venues.
+     *
+     * @return the best ask, or null if no venue provided an ask.
+     */
+    public BigDecimal getBestAsk() {
+        return bestAsk;
+    }
+
+    /**
+     * Returns the venue with the lowest ask.
+     *
+     * @return the best ask venue id, or null if no venue provided an ask.
+     */
+    public String getBestAskVenue() {
+        return bestAskVenue;
+    }
+
+    /**
+     * Returns true if the best bid is higher than the best ask, i.e. one venue is bidding more than another is
+     * offering.
+     *
+     * @return true if the consolidated market is crossed, false otherwise.
+     */
+    public boolean isCrossed() {
+        return bestBid != null && bestAsk != null && bestBid.compareTo(bestAsk) > 0;
+    }
+
+    /**
+     * Returns the Ticker for each venue that was fetched successfully.
+     *
+     * @return the Tickers keyed by venue id.
+     */
+    public Map<String, Ticker> getTickers() {
+        return tickers;
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                .add("currencyPair", currencyPair.getId())
+                .add("bestBid", bestBid)
+                .add("bestBidVenue", bestBidVenue)
+                .add("bestAsk", bestAsk)
+                .add("bestAskVenue", bestAskVenue)
+                .toString();
+    }
+}
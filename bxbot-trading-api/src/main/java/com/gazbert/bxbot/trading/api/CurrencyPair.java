@@ -0,0 +1,167 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.trading.api;
+
+import com.google.common.base.MoreObjects;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * <p>
+ * A normalised currency pair, used to match up the same market on different exchanges.
+ * </p>
+ * <p>
+ * Each exchange has its own market ids, e.g. btcusd, BTC-USD, XXBTZUSD, and some use their own currency codes, e.g.
+ * Kraken uses XBT for Bitcoin. A currency pair is built from the base and counter currency of a {@link Market}: the
+ * codes are upper-cased and well known aliases are mapped to their common code, so the same market on different
+ * exchanges has the same {@link #getId()}, e.g. BTC/USD.
+ * </p>
+ *
+ * @author gazbert
+ * @since 1.2
+ */
+public final class CurrencyPair {
+
+    private static final String SEPARATOR = "/";
+
+    /*
+     * Exchange specific currency codes and the code they're normalised to.
+     */
+    private static final Map<String, String> CURRENCY_ALIASES = new HashMap<>();
+
+    static {
+        CURRENCY_ALIASES.put("XBT", "BTC");
+        CURRENCY_ALIASES.put("XXBT", "BTC");
+        CURRENCY_ALIASES.put("XETH", "ETH");
+        CURRENCY_ALIASES.put("XLTC", "LTC");
+        CURRENCY_ALIASES.put("XXRP", "XRP");
+        CURRENCY_ALIASES.put("ZUSD", "USD");
+        CURRENCY_ALIASES.put("ZEUR", "EUR");
+        CURRENCY_ALIASES.put("ZGBP", "GBP");
+        CURRENCY_ALIASES.put("ZJPY", "JPY");
+        CURRENCY_ALIASES.put("ZCAD", "CAD");
+    }
+
+    private final String baseCurrency;
+    private final String counterCurrency;
+
+    private CurrencyPair(String baseCurrency, String counterCurrency) {
+        this.baseCurrency = baseCurrency;
+        this.counterCurrency = counterCurrency;
+    }
+
+    /**
+     * Creates a currency pair, normalising the currency codes.
+     *
+     * @param baseCurrency    the base currency code, e.g. XBT
+     * @param counterCurrency the counter currency code, e.g. usd
+     * @return the currency pair, e.g. BTC/USD
+     * @throws IllegalArgumentException if either currency code is missing.
+     */
+    public static CurrencyPair of(String baseCurrency, String counterCurrency) {
+        return new CurrencyPair(normaliseCurrency(baseCurrency), normaliseCurrency(counterCurrency));
+    }
+
+    /**
+     * Creates the currency pair traded on the given market.
+     *
+     * @param market the market.
+     * @return the currency pair.
+     * @throws IllegalArgumentException if the market's currency codes are missing.
+     */
+    public static CurrencyPair of(Market market) {
+        return of(market.getBaseCurrency(), market.getCounterCurrency());
+    }
+
+    /**
+     * Normalises a currency code: it is trimmed, upper-cased, and mapped to its common code if it's a known alias.
+     *
+     * @param currency the currency code, e.g. xbt
+     * @return the normalised currency code, e.g. BTC
+     * @throws IllegalArgumentException if the currency code is missing.
+     */
+    public static String normaliseCurrency(String currency) {
+        if (currency == null || currency.trim().isEmpty()) {
+            throw new IllegalArgumentException("Currency code is missing: " + currency);
+        }
+        final String code = currency.trim().toUpperCase(Locale.ROOT);
+        return CURRENCY_ALIASES.getOrDefault(code, code);
+    }
+
+    /**
+     * Returns the normalised id of the currency pair, e.g. BTC/USD
+     *
+     * @return the currency pair id.
+     */
+    public String getId() {
+        return baseCurrency + SEPARATOR + counterCurrency;
+    }
+
+    /**
+     * Returns the normalised base currency code.
+     *
+     * @return the base currency code.
+     */
+    public String getBaseCurrency() {
+        return baseCurrency;
+    }
+
+    /**
+     * Returns the normalised counter currency code.
+     *
+     * @return the counter currency code.
+     */
+    public String getCounterCurrency() {
+        return counterCurrency;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        final CurrencyPair that = (CurrencyPair) o;
+        return Objects.equals(baseCurrency, that.baseCurrency)
+                && Objects.equals(counterCurrency, that.counterCurrency);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(baseCurrency, counterCurrency);
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                .add("baseCurrency", baseCurrency)
+                .add("counterCurrency", counterCurrency)
+                .toString();
+    }
+}
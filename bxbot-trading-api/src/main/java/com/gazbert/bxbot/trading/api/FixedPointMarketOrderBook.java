@@ -0,0 +1,555 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.trading.api;
+
+import com.google.common.base.MoreObjects;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * <p>
+ * A {@link MarketOrderBook} backed by parallel arrays of fixed-point prices and quantities.
+ * </p>
+ * <p>
+ * Each price and quantity is stored as a long holding the value scaled by 10^scale, e.g. a price of 6500.01 at a
+ * price scale of 8 is stored as 650001000000. Bids are held best (highest) price first and asks are held best
+ * (lowest) price first.
+ * </p>
+ * <p>
+ * The fixed-point accessors - {@link #getBestBidPrice()}, {@link #getBidPrice(int)},
+ * {@link #getCumulativeBidQuantity(long)} and their ask equivalents - do not allocate, so strategies that walk the
+ * book every trade cycle can use them instead of the {@link MarketOrder} lists. The lists returned by
+ * {@link #getBuyOrders()} and {@link #getSellOrders()} are only built the first time they are requested.
+ * </p>
+ * <p>
+ * Instances are immutable and thread safe. Use the {@link Builder} to create one.
+ * </p>
+ *
+ * @author gazbert
+ * @since 1.2
+ */
+public final class FixedPointMarketOrderBook implements MarketOrderBook {
+
+    /**
+     * The default number of decimal places used for prices and quantities. This is the smallest unit of BTC.
+     */
+    public static final int DEFAULT_SCALE = 8;
+
+    private final String marketId;
+    private final int priceScale;
+    private final int quantityScale;
+
+    private final long[] bidPrices;
+    private final long[] bidQuantities;
+    private final int bidDepth;
+
+    private final long[] askPrices;
+    private final long[] askQuantities;
+    private final int askDepth;
+
+    private volatile List<MarketOrder> buyOrders;
+    private volatile List<MarketOrder> sellOrders;
+
+    private FixedPointMarketOrderBook(Builder builder) {
+        this.marketId = builder.marketId;
+        this.priceScale = builder.priceScale;
+        this.quantityScale = builder.quantityScale;
+        this.bidPrices = Arrays.copyOf(builder.bidPrices, builder.bidDepth);
+        this.bidQuantities = Arrays.copyOf(builder.bidQuantities, builder.bidDepth);
+        this.bidDepth = builder.bidDepth;
+        this.askPrices = Arrays.copyOf(builder.askPrices, builder.askDepth);
+        this.askQuantities = Arrays.copyOf(builder.askQuantities, builder.askDepth);
+        this.askDepth = builder.askDepth;
+    }
+
+    @Override
+    public String getMarketId() {
+        return marketId;
+    }
+
+    /**
+     * Returns the ask side of the book as Market Orders, best (lowest) price first.
+     * The list is built on first call and is unmodifiable.
+     *
+     * @return the sell orders.
+     */
+    @Override
+    public List<MarketOrder> getSellOrders() {
+        List<MarketOrder> orders = sellOrders;
+        if (orders == null) {
+            orders = toMarketOrders(OrderType.SELL, askPrices, askQuantities, askDepth);
+            sellOrders = orders;
+        }
+        return orders;
+    }
+
+    /**
+     * Returns the bid side of the book as Market Orders, best (highest) price first.
+     * The list is built on first call and is unmodifiable.
+     *
+     * @return the buy orders.
+     */
+    @Override
+    public List<MarketOrder> getBuyOrders() {
+        List<MarketOrder> orders = buyOrders;
+        if (orders == null) {
+            orders = toMarketOrders(OrderType.BUY, bidPrices, bidQuantities, bidDepth);
+            buyOrders = orders;
+        }
+        return orders;
+    }
+
+    /**
+     * Returns the number of decimal places the prices in this book are scaled by.
+     *
+     * @return the price scale.
+     */
+    public int getPriceScale() {
+        return priceScale;
+    }
+
+    /**
+     * Returns the number of decimal places the quantities in this book are scaled by.
+     *
+     * @return the quantity scale.
+     */
+    public int getQuantityScale() {
+        return quantityScale;
+    }
+
+    // ------------------------------------------------------------------------
+    // Bid side
+    // ------------------------------------------------------------------------
+
+    /**
+     * Returns the number of price levels on the bid side of the book.
+     *
+     * @return the bid depth.
+     */
+    public int getBidDepth() {
+        return bidDepth;
+    }
+
+    /**
+     * Returns the highest bid price as a fixed-point value.
+     *
+     * @return the best bid price.
+     * @throws IndexOutOfBoundsException if there are no bids.
+     */
+    public long getBestBidPrice() {
+        return getBidPrice(0);
+    }
+
+    /**
+     * Returns the bid price at the given level as a fixed-point value. Level 0 is the best bid.
+     *
+     * @param level the price level.
+     * @return the bid price.
+     * @throws IndexOutOfBoundsException if the level is not in the book.
+     */
+    public long getBidPrice(int level) {
+        checkLevel(level, bidDepth);
+        return bidPrices[level];
+    }
+
+    /**
+     * Returns the bid quantity at the given level as a fixed-point value. Level 0 is the best bid.
+     *
+     * @param level the price level.
+     * @return the bid quantity.
+     * @throws IndexOutOfBoundsException if the level is not in the book.
+     */
+    public long getBidQuantity(int level) {
+        checkLevel(level, bidDepth);
+        return bidQuantities[level];
+    }
+
+    /**
+     * Returns the total quantity bid at or above the given price, i.e. how much could be sold without the price
+     * going below it.
+     *
+     * @param price the fixed-point price.
+     * @return the cumulative fixed-point bid quantity.
+     */
+    public long getCumulativeBidQuantity(long price) {
+        long total = 0;
+        for (int i = 0; i < bidDepth && bidPrices[i] >= price; i++) {
+            total += bidQuantities[i];
+        }
+        return total;
+    }
+
+    // ------------------------------------------------------------------------
+    // Ask side
+    // ------------------------------------------------------------------------
+
+    /**
+     * Returns the number of price levels on the ask side of the book.
+     *
+     * @return the ask depth.
+     */
+    public int getAskDepth() {
+        return askDepth;
+    }
+
+    /**
+     * Returns the lowest ask price as a fixed-point value.
+     *
+     * @return the best ask price.
+     * @throws IndexOutOfBoundsException if there are no asks.
+     */
+    public long getBestAskPrice() {
+        return getAskPrice(0);
+    }
+
+    /**
+     * Returns the ask price at the given level as a fixed-point value. Level 0 is the best ask.
+     *
+     * @param level the price level.
+     * @return the ask price.
+     * @throws IndexOutOfBoundsException if the level is not in the book.
+     */
+    public long getAskPrice(int level) {
+        checkLevel(level, askDepth);
+        return askPrices[level];
+    }
+
+    /**
+     * Returns the ask quantity at the given level as a fixed-point value. Level 0 is the best ask.
+     *
+     * @param level the price level.
+     * @return the ask quantity.
+     * @throws IndexOutOfBoundsException if the level is not in the book.
+     */
+    public long getAskQuantity(int level) {
+        checkLevel(level, askDepth);
+        return askQuantities[level];
+    }
+
+    /**
+     * Returns the total quantity offered at or below the given price, i.e. how much could be bought without the price
+     * going above it.
+     *
+     * @param price the fixed-point price.
+     * @return the cumulative fixed-point ask quantity.
+     */
+    public long getCumulativeAskQuantity(long price) {
+        long total = 0;
+        for (int i = 0; i < askDepth && askPrices[i] <= price; i++) {
+            total += askQuantities[i];
+        }
+        return total;
+    }
+
+    // ------------------------------------------------------------------------
+    // Conversions
+    // ------------------------------------------------------------------------
+
+    /**
+     * Converts a price to the fixed-point representation used by this book. Extra decimal places are rounded
+     * half-even.
+     *
+     * @param price the price.
+     * @return the fixed-point price.
+     * @throws ArithmeticException if the scaled price does not fit in a long.
+     */
+    public long toFixedPointPrice(BigDecimal price) {
+        return toFixedPoint(price, priceScale);
+    }
+
+    /**
+     * Converts a fixed-point price from this book to a BigDecimal.
+     *
+     * @param price the fixed-point price.
+     * @return the price.
+     */
+    public BigDecimal toPrice(long price) {
+        return BigDecimal.valueOf(price, priceScale);
+    }
+
+    /**
+     * Converts a quantity to the fixed-point representation used by this book. Extra decimal places are rounded
+     * half-even.
+     *
+     * @param quantity the quantity.
+     * @return the fixed-point quantity.
+     * @throws ArithmeticException if the scaled quantity does not fit in a long.
+     */
+    public long toFixedPointQuantity(BigDecimal quantity) {
+        return toFixedPoint(quantity, quantityScale);
+    }
+
+    /**
+     * Converts a fixed-point quantity from this book to a BigDecimal.
+     *
+     * @param quantity the fixed-point quantity.
+     * @return the quantity.
+     */
+    public BigDecimal toQuantity(long quantity) {
+        return BigDecimal.valueOf(quantity, quantityScale);
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                .add("marketId", marketId)
+                .add("priceScale", priceScale)
+                .add("quantityScale", quantityScale)
+                .add("bidDepth", bidDepth)
+                .add("askDepth", askDepth)
+                .toString();
+    }
+
+    // ------------------------------------------------------------------------
+    // Private utils
+    // ------------------------------------------------------------------------
+
+    private List<MarketOrder> toMarketOrders(OrderType type, long[] prices, long[] quantities, int depth) {
+        final MarketOrder[] marketOrders = new MarketOrder[depth];
+        for (int i = 0; i < depth; i++) {
+            marketOrders[i] = new FixedPointMarketOrder(type, toPrice(prices[i]), toQuantity(quantities[i]));
+        }
+        return Collections.unmodifiableList(Arrays.asList(marketOrders));
+    }
+
+    private static void checkLevel(int level, int depth) {
+        if (level < 0 || level >= depth) {
+            throw new IndexOutOfBoundsException("Level: " + level + ", Depth: " + depth);
+        }
+    }
+
+    private static long toFixedPoint(BigDecimal value, int scale) {
+        return value.setScale(scale, RoundingMode.HALF_EVEN).unscaledValue().longValueExact();
+    }
+
+    /*
+     * A level of the book as returned in the Market Order lists.
+     */
+    private static final class FixedPointMarketOrder implements MarketOrder {
+
+        private final OrderType type;
+        private final BigDecimal price;
+        private final BigDecimal quantity;
+
+        private FixedPointMarketOrder(OrderType type, BigDecimal price, BigDecimal quantity) {
+            this.type = type;
+            this.price = price;
+            this.quantity = quantity;
+        }
+
+        @Override
+        public OrderType getType() {
+            return type;
+        }
+
+        @Override
+        public BigDecimal getPrice() {
+            return price;
+        }
+
+        @Override
+        public BigDecimal getQuantity() {
+            return quantity;
+        }
+
+        @Override
+        public BigDecimal getTotal() {
+            return price.multiply(quantity);
+        }
+
+        @Override
+        public String toString() {
+            return MoreObjects.toStringHelper(this)
+                    .add("type", type)
+                    .add("price", price)
+                    .add("quantity", quantity)
+                    .toString();
+        }
+    }
+
+    /**
+     * <p>
+     * Builds a {@link FixedPointMarketOrderBook}.
+     * </p>
+     * <p>
+     * Bids must be added best (highest) price first and asks best (lowest) price first. The builder can be reused
+     * for the next fetch of the same market by calling {@link #clear()}, which keeps the arrays it has already grown.
+     * </p>
+     * <p>
+     * Exchange prices can have more decimal places than the builder's price scale. Levels added as BigDecimals that
+     * round to the same fixed-point price as the previous level on that side are merged into it by summing their
+     * quantities.
+     * </p>
+     */
+    public static final class Builder {
+
+        private static final int INITIAL_CAPACITY = 64;
+
+        private final String marketId;
+        private final int priceScale;
+        private final int quantityScale;
+
+        private long[] bidPrices = new long[INITIAL_CAPACITY];
+        private long[] bidQuantities = new long[INITIAL_CAPACITY];
+        private int bidDepth;
+
+        private long[] askPrices = new long[INITIAL_CAPACITY];
+        private long[] askQuantities = new long[INITIAL_CAPACITY];
+        private int askDepth;
+
+        /**
+         * Creates a builder using the {@link #DEFAULT_SCALE} for prices and quantities.
+         *
+         * @param marketId the market id.
+         */
+        public Builder(String marketId) {
+            this(marketId, DEFAULT_SCALE, DEFAULT_SCALE);
+        }
+
+        /**
+         * Creates a builder.
+         *
+         * @param marketId      the market id.
+         * @param priceScale    the number of decimal places to hold prices to.
+         * @param quantityScale the number of decimal places to hold quantities to.
+         */
+        public Builder(String marketId, int priceScale, int quantityScale) {
+            if (priceScale < 0 || quantityScale < 0) {
+                throw new IllegalArgumentException("Scale cannot be negative - priceScale: " + priceScale
+                        + ", quantityScale: " + quantityScale);
+            }
+            this.marketId = marketId;
+            this.priceScale = priceScale;
+            this.quantityScale = quantityScale;
+        }
+
+        /**
+         * Adds the next bid level. If the price rounds to the same fixed-point price as the previous bid, the
+         * quantity is added to that level instead.
+         *
+         * @param price    the price.
+         * @param quantity the quantity.
+         * @return this builder.
+         */
+        public Builder addBid(BigDecimal price, BigDecimal quantity) {
+            final long fixedPointPrice = toFixedPoint(price, priceScale);
+            final long fixedPointQuantity = toFixedPoint(quantity, quantityScale);
+            if (bidDepth > 0 && fixedPointPrice == bidPrices[bidDepth - 1]) {
+                bidQuantities[bidDepth - 1] += fixedPointQuantity;
+                return this;
+            }
+            return addBid(fixedPointPrice, fixedPointQuantity);
+        }
+
+        /**
+         * Adds the next bid level.
+         *
+         * @param price    the fixed-point price.
+         * @param quantity the fixed-point quantity.
+         * @return this builder.
+         * @throws IllegalArgumentException if the price is not lower than the previous bid.
+         */
+        public Builder addBid(long price, long quantity) {
+            if (bidDepth > 0 && price >= bidPrices[bidDepth - 1]) {
+                throw new IllegalArgumentException("Bids must be added highest price first: " + price);
+            }
+            if (bidDepth == bidPrices.length) {
+                bidPrices = grow(bidPrices);
+                bidQuantities = grow(bidQuantities);
+            }
+            bidPrices[bidDepth] = price;
+            bidQuantities[bidDepth] = quantity;
+            bidDepth++;
+            return this;
+        }
+
+        /**
+         * Adds the next ask level. If the price rounds to the same fixed-point price as the previous ask, the
+         * quantity is added to that level instead.
+         *
+         * @param price    the price.
+         * @param quantity the quantity.
+         * @return this builder.
+         */
+        public Builder addAsk(BigDecimal price, BigDecimal quantity) {
+            final long fixedPointPrice = toFixedPoint(price, priceScale);
+            final long fixedPointQuantity = toFixedPoint(quantity, quantityScale);
+            if (askDepth > 0 && fixedPointPrice == askPrices[askDepth - 1]) {
+                askQuantities[askDepth - 1] += fixedPointQuantity;
+                return this;
+            }
+            return addAsk(fixedPointPrice, fixedPointQuantity);
+        }
+
+        /**
+         * Adds the next ask level.
+         *
+         * @param price    the fixed-point price.
+         * @param quantity the fixed-point quantity.
+         * @return this builder.
+         * @throws IllegalArgumentException if the price is not higher than the previous ask.
+         */
+        public Builder addAsk(long price, long quantity) {
+            if (askDepth > 0 && price <= askPrices[askDepth - 1]) {
+                throw new IllegalArgumentException("Asks must be added lowest price first: " + price);
+            }
+            if (askDepth == askPrices.length) {
+                askPrices = grow(askPrices);
+                askQuantities = grow(askQuantities);
+            }
+            askPrices[askDepth] = price;
+            askQuantities[askDepth] = quantity;
+            askDepth++;
+            return this;
+        }
+
+        /**
+         * Removes all the levels added so far.
+         *
+         * @return this builder.
+         */
+        public Builder clear() {
+            bidDepth = 0;
+            askDepth = 0;
+            return this;
+        }
+
+        /**
+         * Builds the order book. The levels are copied so the builder can be reused.
+         *
+         * @return the order book.
+         */
+        public FixedPointMarketOrderBook build() {
+            return new FixedPointMarketOrderBook(this);
+        }
+
+        private static long[] grow(long[] array) {
+            return Arrays.copyOf(array, array.length * 2);
+        }
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+
+package com.gazbert.bxbot.trading.api;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * The default {@link AsyncTradingApi}. It makes each call on the calling thread and returns a future that has already
+ * completed.
+ * <p>
+ * This means every {@link TradingApi} implementation supports the async API, but calls are not executed in parallel
+ * unless the implementation provides its own {@link TradingApi#getAsyncTradingApi()}.
+ *
+ * @author gazbert
+ * @since 1.2
+ */
+final class SynchronousAsyncTradingApi implements AsyncTradingApi {
+
+    private final TradingApi tradingApi;
+
+    SynchronousAsyncTradingApi(TradingApi tradingApi) {
+        this.tradingApi = tradingApi;
+    }
+
+    @Override
+    public CompletableFuture<MarketOrderBook> getMarketOrders(String marketId) {
+        return call(() -> tradingApi.getMarketOrders(marketId));
+    }
+
+    @Override
+    public CompletableFuture<List<OpenOrder>> getYourOpenOrders(String marketId) {
+        return call(() -> tradingApi.getYourOpenOrders(marketId));
+    }
+
+    @Override
+    public CompletableFuture<String> createOrder(String marketId, OrderType orderType, BigDecimal quantity,
+                                                 BigDecimal price) {
+        return call(() -> tradingApi.createOrder(marketId, orderType, quantity, price));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> cancelOrder(String orderId, String marketId) {
+        return call(() -> tradingApi.cancelOrder(orderId, marketId));
+    }
+
+    @Override
+    public CompletableFuture<BigDecimal> getLatestMarketPrice(String marketId) {
+        return call(() -> tradingApi.getLatestMarketPrice(marketId));
+    }
+
+    @Override
+    public CompletableFuture<BalanceInfo> getBalanceInfo() {
+        return call(tradingApi::getBalanceInfo);
+    }
+
+    @Override
+    public CompletableFuture<BigDecimal> getPercentageOfBuyOrderTakenForExchangeFee(String marketId) {
+        return call(() -> tradingApi.getPercentageOfBuyOrderTakenForExchangeFee(marketId));
+    }
+
+    @Override
+    public CompletableFuture<BigDecimal> getPercentageOfSellOrderTakenForExchangeFee(String marketId) {
+        return call(() -> tradingApi.getPercentageOfSellOrderTakenForExchangeFee(marketId));
+    }
+
+    @Override
+    public CompletableFuture<Ticker> getTicker(String marketId) {
+        return call(() -> tradingApi.getTicker(marketId));
+    }
+
+    // ------------------------------------------------------------------------
+    // Private utils
+    // ------------------------------------------------------------------------
+
+    private static <T> CompletableFuture<T> call(TradingApiCall<T> tradingApiCall) {
+        final CompletableFuture<T> future = new CompletableFuture<>();
+        try {
+            future.complete(tradingApiCall.call());
+        } catch (Exception e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    /*
+     * A Trading API call that can throw the Trading API's checked exceptions.
+     */
+    @FunctionalInterface
+    private interface TradingApiCall<T> {
+        T call() throws ExchangeNetworkException, TradingApiException;
+    }
+}
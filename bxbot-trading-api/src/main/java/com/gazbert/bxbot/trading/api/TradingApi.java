@@ -54,7 +54,7 @@ public interface TradingApi {
      * @since 1.0
      */
     default String getVersion() {
-        return "1.1";
+        return "1.2";
     }
 
     /**
@@ -281,4 +281,19 @@ public interface TradingApi {
             }
         };
     }
+
+    /**
+     * Returns the asynchronous version of this API. Trading Strategies can use it to make independent API calls in
+     * parallel.
+     * <p>
+     * The default implementation makes each call on the calling thread and returns an already completed future.
+     * Exchange Adapters override this to execute the calls on their own threads - see the documentation for the
+     * adapter you are using.
+     *
+     * @return the asynchronous version of this API.
+     * @since 1.2
+     */
+    default AsyncTradingApi getAsyncTradingApi() {
+        return new SynchronousAsyncTradingApi(this);
+    }
 }
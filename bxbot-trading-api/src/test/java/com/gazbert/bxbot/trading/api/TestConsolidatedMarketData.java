@@ -0,0 +1,204 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.trading.api;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests the Consolidated Market Data behaves as expected.
+ *
+ * @author gazbert
+ */
+public class TestConsolidatedMarketData {
+
+    private static final String GDAX = "gdax";
+    private static final String KRAKEN = "kraken";
+    private static final String GDAX_MARKET_ID = "BTC-USD";
+    private static final String KRAKEN_MARKET_ID = "XXBTZUSD";
+
+    private TradingApi gdaxTradingApi;
+    private TradingApi krakenTradingApi;
+    private ConsolidatedMarketData consolidatedMarketData;
+
+    @Before
+    public void setupForEachTest() {
+        gdaxTradingApi = mock(TradingApi.class);
+        krakenTradingApi = mock(TradingApi.class);
+        consolidatedMarketData = new ConsolidatedMarketData.Builder(Runnable::run)
+                .addVenue(GDAX, gdaxTradingApi, market(GDAX_MARKET_ID, "btc", "usd"))
+                .addVenue(KRAKEN, krakenTradingApi, market(KRAKEN_MARKET_ID, "XXBT", "ZUSD"))
+                .build();
+    }
+
+    @Test
+    public void testCurrencyPairsAreNormalised() {
+        assertEquals(CurrencyPair.of("BTC", "USD"), consolidatedMarketData.getCurrencyPair());
+        assertEquals("BTC/USD", consolidatedMarketData.getCurrencyPair().getId());
+        assertEquals("BTC", CurrencyPair.normaliseCurrency(" xbt "));
+    }
+
+    @Test
+    public void testOrderBooksAreMergedBestPriceFirstAndTaggedWithVenue() throws Exception {
+
+        when(gdaxTradingApi.getMarketOrders(GDAX_MARKET_ID)).thenReturn(new FixedPointMarketOrderBook.Builder(GDAX_MARKET_ID)
+                .addBid(new BigDecimal("6500"), new BigDecimal("1"))
+                .addBid(new BigDecimal("6498"), new BigDecimal("2"))
+                .addAsk(new BigDecimal("6502"), new BigDecimal("1"))
+                .build());
+        when(krakenTradingApi.getMarketOrders(KRAKEN_MARKET_ID)).thenReturn(new FixedPointMarketOrderBook.Builder(KRAKEN_MARKET_ID)
+                .addBid(new BigDecimal("6499"), new BigDecimal("3"))
+                .addAsk(new BigDecimal("6501"), new BigDecimal("4"))
+                .addAsk(new BigDecimal("6502"), new BigDecimal("5"))
+                .build());
+
+        final ConsolidatedOrderBook orderBook = consolidatedMarketData.refreshOrderBook();
+
+        assertEquals("BTC/USD", orderBook.getMarketId());
+        final List<ConsolidatedMarketOrder> bids = orderBook.getBids();
+        assertEquals(3, bids.size());
+        assertLevel(bids.get(0), GDAX, "6500", "1");
+        assertLevel(bids.get(1), KRAKEN, "6499", "3");
+        assertLevel(bids.get(2), GDAX, "6498", "2");
+
+        final List<ConsolidatedMarketOrder> asks = orderBook.getAsks();
+        assertEquals(3, asks.size());
+        assertLevel(asks.get(0), KRAKEN, "6501", "4");
+        assertLevel(asks.get(1), GDAX, "6502", "1");
+        assertLevel(asks.get(2), KRAKEN, "6502", "5");
+
+        assertSame(bids.get(0), orderBook.getBestBid());
+        assertSame(asks.get(0), orderBook.getBestAsk());
+    }
+
+    @Test
+    public void testRefreshOnlyReplacesChangedLevels() throws Exception {
+
+        when(gdaxTradingApi.getMarketOrders(GDAX_MARKET_ID)).thenReturn(new FixedPointMarketOrderBook.Builder(GDAX_MARKET_ID)
+                .addBid(new BigDecimal("6500"), new BigDecimal("1"))
+                .addBid(new BigDecimal("6498"), new BigDecimal("2"))
+                .build());
+        when(krakenTradingApi.getMarketOrders(KRAKEN_MARKET_ID)).thenReturn(new FixedPointMarketOrderBook.Builder(KRAKEN_MARKET_ID)
+                .addBid(new BigDecimal("6499"), new BigDecimal("3"))
+                .build());
+        final ConsolidatedMarketOrder unchangedLevel = consolidatedMarketData.refreshOrderBook().getBids().get(2);
+
+        when(gdaxTradingApi.getMarketOrders(GDAX_MARKET_ID)).thenReturn(new FixedPointMarketOrderBook.Builder(GDAX_MARKET_ID)
+                .addBid(new BigDecimal("6500.5"), new BigDecimal("1"))
+                .addBid(new BigDecimal("6498.00"), new BigDecimal("2"))
+                .build());
+        final ConsolidatedOrderBook orderBook = consolidatedMarketData.refreshOrderBook();
+
+        final List<ConsolidatedMarketOrder> bids = orderBook.getBids();
+        assertEquals(3, bids.size());
+        assertLevel(bids.get(0), GDAX, "6500.5", "1");
+        assertLevel(bids.get(1), KRAKEN, "6499", "3");
+        assertSame(unchangedLevel, bids.get(2));
+        assertTrue(orderBook.getAsks().isEmpty());
+        assertNull(orderBook.getBestAsk());
+    }
+
+    @Test
+    public void testFailedVenueIsRemovedFromOrderBook() throws Exception {
+
+        when(gdaxTradingApi.getMarketOrders(GDAX_MARKET_ID)).thenReturn(new FixedPointMarketOrderBook.Builder(GDAX_MARKET_ID)
+                .addBid(new BigDecimal("6500"), new BigDecimal("1"))
+                .build());
+        when(krakenTradingApi.getMarketOrders(KRAKEN_MARKET_ID)).thenReturn(new FixedPointMarketOrderBook.Builder(KRAKEN_MARKET_ID)
+                .addBid(new BigDecimal("6499"), new BigDecimal("3"))
+                .build());
+        consolidatedMarketData.refreshOrderBook();
+
+        when(krakenTradingApi.getMarketOrders(KRAKEN_MARKET_ID)).thenThrow(new ExchangeNetworkException("Kraken is down"));
+        final ConsolidatedOrderBook orderBook = consolidatedMarketData.refreshOrderBook();
+
+        assertEquals(1, orderBook.getBids().size());
+        assertEquals(GDAX, orderBook.getBestBid().getVenue());
+        assertEquals(1, orderBook.getVenues().size());
+        assertTrue(orderBook.getVenues().contains(GDAX));
+    }
+
+    @Test(expected = ExchangeNetworkException.class)
+    public void testRefreshThrowsWhenEveryVenueFails() throws Exception {
+        when(gdaxTradingApi.getMarketOrders(GDAX_MARKET_ID)).thenThrow(new ExchangeNetworkException("GDAX is down"));
+        when(krakenTradingApi.getMarketOrders(KRAKEN_MARKET_ID)).thenThrow(new TradingApiException("Kraken is broken"));
+        consolidatedMarketData.refreshOrderBook();
+    }
+
+    @Test
+    public void testBestBidOfferIsTakenAcrossVenues() throws Exception {
+
+        final Ticker gdaxTicker = mock(Ticker.class);
+        when(gdaxTicker.getBid()).thenReturn(new BigDecimal("6500"));
+        when(gdaxTicker.getAsk()).thenReturn(new BigDecimal("6503"));
+        final Ticker krakenTicker = mock(Ticker.class);
+        when(krakenTicker.getBid()).thenReturn(new BigDecimal("6504"));
+        when(krakenTicker.getAsk()).thenReturn(new BigDecimal("6505"));
+        when(gdaxTradingApi.getTicker(GDAX_MARKET_ID)).thenReturn(gdaxTicker);
+        when(krakenTradingApi.getTicker(KRAKEN_MARKET_ID)).thenReturn(krakenTicker);
+
+        final ConsolidatedQuote quote = consolidatedMarketData.getBestBidOffer();
+
+        assertEquals(new BigDecimal("6504"), quote.getBestBid());
+        assertEquals(KRAKEN, quote.getBestBidVenue());
+        assertEquals(new BigDecimal("6503"), quote.getBestAsk());
+        assertEquals(GDAX, quote.getBestAskVenue());
+        assertTrue(quote.isCrossed());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testAddingVenueWithDifferentCurrencyPairThrowsIllegalArgumentException() {
+        new ConsolidatedMarketData.Builder(Runnable::run)
+                .addVenue(GDAX, gdaxTradingApi, market(GDAX_MARKET_ID, "BTC", "USD"))
+                .addVenue(KRAKEN, krakenTradingApi, market("XETHZUSD", "XETH", "ZUSD"));
+    }
+
+    // ------------------------------------------------------------------------
+    // Private utils
+    // ------------------------------------------------------------------------
+
+    private static Market market(String id, String baseCurrency, String counterCurrency) {
+        final Market market = mock(Market.class);
+        when(market.getId()).thenReturn(id);
+        when(market.getBaseCurrency()).thenReturn(baseCurrency);
+        when(market.getCounterCurrency()).thenReturn(counterCurrency);
+        return market;
+    }
+
+    private static void assertLevel(ConsolidatedMarketOrder level, String venue, String price, String quantity) {
+        assertEquals(venue, level.getVenue());
+        assertTrue(level.getPrice().compareTo(new BigDecimal(price)) == 0);
+        assertTrue(level.getQuantity().compareTo(new BigDecimal(quantity)) == 0);
+    }
+}
@@ -0,0 +1,154 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.trading.api;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests the fixed-point Market Order Book behaves as expected.
+ *
+ * @author gazbert
+ */
+public class TestFixedPointMarketOrderBook {
+
+    private static final String MARKET_ID = "btcusd";
+
+    private FixedPointMarketOrderBook orderBook;
+
+    @Before
+    public void setupForEachTest() {
+        orderBook = new FixedPointMarketOrderBook.Builder(MARKET_ID, 2, 8)
+                .addBid(new BigDecimal("6500.03"), new BigDecimal("1.5"))
+                .addBid(new BigDecimal("6500.01"), new BigDecimal("0.25"))
+                .addBid(new BigDecimal("6499.00"), new BigDecimal("3"))
+                .addAsk(new BigDecimal("6500.50"), new BigDecimal("0.25"))
+                .addAsk(new BigDecimal("6501.00"), new BigDecimal("2.12345678"))
+                .build();
+    }
+
+    @Test
+    public void testFixedPointAccessors() {
+
+        assertEquals(MARKET_ID, orderBook.getMarketId());
+        assertEquals(3, orderBook.getBidDepth());
+        assertEquals(2, orderBook.getAskDepth());
+
+        assertEquals(650003L, orderBook.getBestBidPrice());
+        assertEquals(650050L, orderBook.getBestAskPrice());
+        assertEquals(649900L, orderBook.getBidPrice(2));
+        assertEquals(300000000L, orderBook.getBidQuantity(2));
+        assertEquals(212345678L, orderBook.getAskQuantity(1));
+
+        assertEquals(175000000L, orderBook.getCumulativeBidQuantity(orderBook.toFixedPointPrice(new BigDecimal("6500"))));
+        assertEquals(475000000L, orderBook.getCumulativeBidQuantity(0));
+        assertEquals(0L, orderBook.getCumulativeAskQuantity(650049L));
+        assertEquals(237345678L, orderBook.getCumulativeAskQuantity(Long.MAX_VALUE));
+    }
+
+    @Test
+    public void testConversionsRoundToScale() {
+        assertEquals(650002L, orderBook.toFixedPointPrice(new BigDecimal("6500.015")));
+        assertEquals(100000000L, orderBook.toFixedPointQuantity(BigDecimal.ONE));
+        assertEquals(new BigDecimal("6500.03"), orderBook.toPrice(orderBook.getBestBidPrice()));
+        assertEquals(new BigDecimal("0.25000000"), orderBook.toQuantity(orderBook.getAskQuantity(0)));
+    }
+
+    @Test
+    public void testMarketOrderViewsAreBuiltOnceFromLevels() {
+
+        final List<MarketOrder> buyOrders = orderBook.getBuyOrders();
+        assertEquals(3, buyOrders.size());
+        assertEquals(OrderType.BUY, buyOrders.get(0).getType());
+        assertTrue(buyOrders.get(0).getPrice().compareTo(new BigDecimal("6500.03")) == 0);
+        assertTrue(buyOrders.get(0).getQuantity().compareTo(new BigDecimal("1.5")) == 0);
+        assertTrue(buyOrders.get(0).getTotal().compareTo(new BigDecimal("9750.045")) == 0);
+
+        final List<MarketOrder> sellOrders = orderBook.getSellOrders();
+        assertEquals(2, sellOrders.size());
+        assertEquals(OrderType.SELL, sellOrders.get(1).getType());
+        assertTrue(sellOrders.get(1).getPrice().compareTo(new BigDecimal("6501")) == 0);
+
+        assertSame(buyOrders, orderBook.getBuyOrders());
+        assertSame(sellOrders, orderBook.getSellOrders());
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testBestBidOfEmptySideThrowsIndexOutOfBoundsException() {
+        new FixedPointMarketOrderBook.Builder(MARKET_ID).build().getBestBidPrice();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testAddingAsksOutOfOrderThrowsIllegalArgumentException() {
+        new FixedPointMarketOrderBook.Builder(MARKET_ID)
+                .addAsk(new BigDecimal("6501"), BigDecimal.ONE)
+                .addAsk(new BigDecimal("6500"), BigDecimal.ONE);
+    }
+
+    @Test
+    public void testLevelsThatRoundToTheSamePriceAreMerged() {
+
+        final FixedPointMarketOrderBook book = new FixedPointMarketOrderBook.Builder(MARKET_ID)
+                .addBid(new BigDecimal("0.000012345678"), new BigDecimal("1"))
+                .addBid(new BigDecimal("0.000012345676"), new BigDecimal("2"))
+                .addBid(new BigDecimal("0.00001234"), new BigDecimal("4"))
+                .addAsk(new BigDecimal("0.000012350001"), new BigDecimal("0.5"))
+                .addAsk(new BigDecimal("0.000012350004"), new BigDecimal("0.25"))
+                .build();
+
+        assertEquals(2, book.getBidDepth());
+        assertEquals(1235L, book.getBestBidPrice());
+        assertEquals(300000000L, book.getBidQuantity(0));
+        assertEquals(1234L, book.getBidPrice(1));
+        assertEquals(400000000L, book.getBidQuantity(1));
+
+        assertEquals(1, book.getAskDepth());
+        assertEquals(1235L, book.getBestAskPrice());
+        assertEquals(75000000L, book.getAskQuantity(0));
+    }
+
+    @Test
+    public void testBuilderCanBeReusedAfterBuild() {
+
+        final FixedPointMarketOrderBook.Builder builder = new FixedPointMarketOrderBook.Builder(MARKET_ID, 0, 0);
+        for (int i = 0; i < 100; i++) {
+            builder.addBid(1000 - i, 1);
+        }
+        final FixedPointMarketOrderBook first = builder.build();
+
+        final FixedPointMarketOrderBook second = builder.clear().addBid(5, 1).build();
+
+        assertEquals(100, first.getBidDepth());
+        assertEquals(901L, first.getBidPrice(99));
+        assertEquals(1, second.getBidDepth());
+        assertEquals(5L, second.getBestBidPrice());
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+
+package com.gazbert.bxbot.trading.api;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests the default Async Trading API behaves as expected.
+ *
+ * @author gazbert
+ */
+public class TestSynchronousAsyncTradingApi {
+
+    private static final String MARKET_ID = "btcusd";
+
+    private TradingApi tradingApi;
+    private AsyncTradingApi asyncTradingApi;
+
+    @Before
+    public void setupForEachTest() {
+        tradingApi = mock(TradingApi.class);
+        asyncTradingApi = new SynchronousAsyncTradingApi(tradingApi);
+    }
+
+    @Test
+    public void testCallIsCompletedWithResult() throws Exception {
+
+        final BigDecimal lastPrice = new BigDecimal("1234.56");
+        when(tradingApi.getLatestMarketPrice(MARKET_ID)).thenReturn(lastPrice);
+
+        final CompletableFuture<BigDecimal> future = asyncTradingApi.getLatestMarketPrice(MARKET_ID);
+
+        assertTrue(future.isDone());
+        assertEquals(lastPrice, future.join());
+    }
+
+    @Test
+    public void testCallIsCompletedExceptionallyWithCheckedException() throws Exception {
+
+        final ExchangeNetworkException exception = new ExchangeNetworkException("Exchange is down");
+        when(tradingApi.getBalanceInfo()).thenThrow(exception);
+
+        final CompletableFuture<BalanceInfo> future = asyncTradingApi.getBalanceInfo();
+
+        assertTrue(future.isCompletedExceptionally());
+        try {
+            future.join();
+            fail("Expected CompletionException");
+        } catch (CompletionException e) {
+            assertSame(exception, e.getCause());
+        }
+    }
+}
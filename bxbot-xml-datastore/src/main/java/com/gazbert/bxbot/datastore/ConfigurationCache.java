@@ -0,0 +1,318 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.datastore;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import javax.xml.bind.JAXBException;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Holds the config most recently loaded from, or saved to, each XML config file.
+ * <p>
+ * A {@link WatchService} watches the directory of every cached file. When a file is changed - e.g. edited by hand -
+ * or deleted, its entry is dropped and the next load reads the file again. Some platforms only poll for changes, so
+ * each lookup also checks the file's last modified time and size match the cached entry; a change the watcher has
+ * not reported yet is never served from the cache.
+ * <p>
+ * Every time config is read from a file, or saved to it, it is given a new version number. Version numbers are never
+ * reused, so if a file's version is unchanged, so is its content.
+ * <p>
+ * The cache stores config objects as given; callers must copy them before handing them out.
+ * <p>
+ * This class is thread safe.
+ *
+ * @author gazbert
+ */
+final class ConfigurationCache {
+
+    private static final Logger LOG = LogManager.getLogger();
+
+    private final Map<Path, CachedConfig> cachedConfigs = new ConcurrentHashMap<>();
+    private final Map<WatchKey, Path> watchedDirectories = new ConcurrentHashMap<>();
+    private final AtomicLong versionSequence = new AtomicLong();
+
+    private WatchService watchService;
+
+    /**
+     * Returns the file's key in the cache.
+     *
+     * @param xmlConfigFile the config file location.
+     * @return the key.
+     */
+    static Path keyFor(String xmlConfigFile) {
+        return Paths.get(xmlConfigFile).toAbsolutePath().normalize();
+    }
+
+    /**
+     * Returns the cached config for the file, if the file has not changed since it was cached.
+     *
+     * @param configFile  the config file.
+     * @param configClass the type of config.
+     * @param <T>         the type of config.
+     * @return the cached config, or null if it is not cached.
+     */
+    <T> VersionedConfig<T> get(Path configFile, Class<T> configClass) {
+
+        final CachedConfig cachedConfig = getIfCurrent(configFile);
+        if (cachedConfig == null || cachedConfig.config.getClass() != configClass) {
+            return null;
+        }
+        return new VersionedConfig<>(configClass.cast(cachedConfig.config), cachedConfig.version);
+    }
+
+    /**
+     * Returns the version of the cached config for the file, if the file has not changed since it was cached.
+     *
+     * @param configFile the config file.
+     * @return the version, or null if the file's config is not cached.
+     */
+    Long getVersion(Path configFile) {
+        final CachedConfig cachedConfig = getIfCurrent(configFile);
+        return cachedConfig == null ? null : cachedConfig.version;
+    }
+
+    /**
+     * Reads config from a file and caches it.
+     * <p>
+     * The file's last modified time and size are taken before it is read. If the file is changed while it is being
+     * read, the cached entry will not match the file and is dropped on the next lookup.
+     *
+     * @param configFile   the config file.
+     * @param configReader reads the config from the file.
+     * @param <T>          the type of config.
+     * @return the config read from the file, and its new version; the config is the cached instance.
+     * @throws JAXBException if the config could not be parsed.
+     * @throws IOException   if the file could not be read.
+     */
+    <T> VersionedConfig<T> load(Path configFile, ConfigReader<T> configReader) throws JAXBException, IOException {
+        final FileStamp fileStamp = FileStamp.of(configFile);
+        final T config = configReader.read();
+        return new VersionedConfig<>(config, put(configFile, config, fileStamp));
+    }
+
+    /**
+     * Caches config that has just been written to a file.
+     *
+     * @param configFile the config file.
+     * @param config     the config written to the file.
+     * @return the config's new version.
+     */
+    long putSaved(Path configFile, Object config) {
+        return put(configFile, config, FileStamp.of(configFile));
+    }
+
+    /**
+     * Drops the cached config for the file.
+     *
+     * @param configFile the config file.
+     */
+    void invalidate(Path configFile) {
+        if (cachedConfigs.remove(configFile) != null) {
+            LOG.info(() -> "Dropped cached configuration for: " + configFile);
+        }
+    }
+
+    /**
+     * Drops all cached config.
+     */
+    void invalidateAll() {
+        cachedConfigs.clear();
+    }
+
+    /**
+     * Reads a config file.
+     *
+     * @param <T> the type of config.
+     */
+    @FunctionalInterface
+    interface ConfigReader<T> {
+
+        /**
+         * Reads the config file.
+         *
+         * @return the config.
+         * @throws JAXBException if the config could not be parsed.
+         * @throws IOException   if the file could not be read.
+         */
+        T read() throws JAXBException, IOException;
+    }
+
+    // ------------------------------------------------------------------------------------------------
+    //  Util methods
+    // ------------------------------------------------------------------------------------------------
+
+    private long put(Path configFile, Object config, FileStamp fileStamp) {
+        final long version = versionSequence.incrementAndGet();
+        if (fileStamp != null) {
+            watch(configFile.getParent());
+            cachedConfigs.put(configFile, new CachedConfig(config, fileStamp, version));
+        } else {
+            invalidate(configFile);
+        }
+        return version;
+    }
+
+    private CachedConfig getIfCurrent(Path configFile) {
+        final CachedConfig cachedConfig = cachedConfigs.get(configFile);
+        if (cachedConfig != null && !cachedConfig.fileStamp.equals(FileStamp.of(configFile))) {
+            invalidate(configFile);
+            return null;
+        }
+        return cachedConfig;
+    }
+
+    private synchronized void watch(Path directory) {
+
+        if (watchedDirectories.containsValue(directory)) {
+            return;
+        }
+
+        try {
+            if (watchService == null) {
+                watchService = FileSystems.getDefault().newWatchService();
+                final Thread watcherThread = new Thread(this::processWatchEvents, "bxbot-config-watcher");
+                watcherThread.setDaemon(true);
+                watcherThread.start();
+            }
+            final WatchKey watchKey = directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+            watchedDirectories.put(watchKey, directory);
+            LOG.info(() -> "Watching for configuration changes in: " + directory);
+
+        } catch (IOException e) {
+            // The file stamp check on every lookup still picks up changes
+            LOG.warn("Failed to watch for configuration changes in: " + directory, e);
+        }
+    }
+
+    private void processWatchEvents() {
+
+        while (true) {
+            final WatchKey watchKey;
+            try {
+                watchKey = watchService.take();
+            } catch (InterruptedException | ClosedWatchServiceException e) {
+                return;
+            }
+
+            final Path directory = watchedDirectories.get(watchKey);
+            for (final WatchEvent<?> event : watchKey.pollEvents()) {
+                if (event.kind() == StandardWatchEventKinds.OVERFLOW || directory == null) {
+                    invalidateAll();
+                } else {
+                    final Path changedFile = directory.resolve((Path) event.context());
+                    final CachedConfig cachedConfig = cachedConfigs.get(changedFile);
+                    // Our own saves are reported too - only drop the entry if the file no longer matches it
+                    if (cachedConfig != null && !cachedConfig.fileStamp.equals(FileStamp.of(changedFile))) {
+                        invalidate(changedFile);
+                    }
+                }
+            }
+
+            if (!watchKey.reset()) {
+                watchedDirectories.remove(watchKey);
+                invalidateAll();
+            }
+        }
+    }
+
+    /*
+     * A cached config, its version, and the state of the file it came from.
+     */
+    private static final class CachedConfig {
+
+        private final Object config;
+        private final FileStamp fileStamp;
+        private final long version;
+
+        private CachedConfig(Object config, FileStamp fileStamp, long version) {
+            this.config = config;
+            this.fileStamp = fileStamp;
+            this.version = version;
+        }
+    }
+
+    /*
+     * The last modified time and size of a file, used to tell if it has changed.
+     */
+    private static final class FileStamp {
+
+        private final long lastModifiedNanos;
+        private final long size;
+
+        private FileStamp(long lastModifiedNanos, long size) {
+            this.lastModifiedNanos = lastModifiedNanos;
+            this.size = size;
+        }
+
+        /*
+         * Returns null if the file does not exist or cannot be read.
+         */
+        private static FileStamp of(Path file) {
+            try {
+                final BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+                return new FileStamp(attributes.lastModifiedTime().to(TimeUnit.NANOSECONDS), attributes.size());
+            } catch (NoSuchFileException e) {
+                return null;
+            } catch (IOException e) {
+                LOG.warn("Failed to read attributes of configuration file: " + file, e);
+                return null;
+            }
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            final FileStamp that = (FileStamp) o;
+            return lastModifiedNanos == that.lastModifiedNanos && size == that.size;
+        }
+
+        @Override
+        public int hashCode() {
+            return Long.hashCode(lastModifiedNanos) * 31 + Long.hashCode(size);
+        }
+    }
+}
@@ -29,20 +29,50 @@ import org.xml.sax.SAXException;
 
 import javax.xml.XMLConstants;
 import javax.xml.bind.*;
+import javax.xml.bind.util.JAXBSource;
 import javax.xml.transform.stream.StreamSource;
 import javax.xml.validation.Schema;
 import javax.xml.validation.SchemaFactory;
 import java.io.*;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 /**
  * The generic configuration manager loads config from a given XML config file.
+ * <p>
+ * The JAXBContext and compiled XML Schema for each type of config are created once and reused. Config loaded from,
+ * or saved to, a file is cached in memory until the file changes - see {@link ConfigurationCache} - so repeat loads
+ * do not read and validate the file again. Callers always get their own copy of the config, so they are free to
+ * change it.
+ * <p>
+ * Each config file has its own read/write lock: any number of threads can load a file at the same time, but saves
+ * are exclusive. Config is saved to a temp file which is synced to disk and then renamed over the config file, so a
+ * crash part way through a save leaves the previous config in place.
+ * <p>
+ * Config loaded with {@link #loadVersionedConfig(Class, String, String)} can be saved with
+ * {@link #saveConfig(Class, Object, String, long)}, which only saves if the file has not been changed since the
+ * config was loaded. This stops concurrent updates silently overwriting each other.
  *
  * @author gazbert
  */
 public final class ConfigurationManager {
 
     private static final Logger LOG = LogManager.getLogger();
-    private final static Object MUTEX = new Object();
+
+    private static final Map<Path, ReadWriteLock> FILE_LOCKS = new ConcurrentHashMap<>();
+    private static final Map<Class<?>, JAXBContext> JAXB_CONTEXTS = new ConcurrentHashMap<>();
+    private static final Map<String, Schema> SCHEMAS = new ConcurrentHashMap<>();
+    private static final ConfigurationCache CONFIG_CACHE = new ConfigurationCache();
 
     private ConfigurationManager() {
     }
@@ -51,31 +81,49 @@ public final class ConfigurationManager {
      * Loads and returns the requested configuration.
      */
     public static <T> T loadConfig(Class<T> configClass, String xmlConfigFile, String xmlSchemaFile) {
+        return loadVersionedConfig(configClass, xmlConfigFile, xmlSchemaFile).getConfig();
+    }
 
-        LOG.info(() -> "Loading configuration for [" + configClass + "] from: " + xmlConfigFile + " ...");
+    /*
+     * Loads and returns the requested configuration along with the version of the config file.
+     */
+    public static <T> VersionedConfig<T> loadVersionedConfig(Class<T> configClass, String xmlConfigFile,
+                                                             String xmlSchemaFile) {
 
+        final Path configFile = ConfigurationCache.keyFor(xmlConfigFile);
+
+        final Lock readLock = getFileLock(configFile).readLock();
+        readLock.lock();
         try {
-            final JAXBContext jaxbContext = JAXBContext.newInstance(configClass.getPackage().getName());
+            final JAXBContext jaxbContext = getJaxbContext(configClass);
+
+            final VersionedConfig<T> cachedConfig = CONFIG_CACHE.get(configFile, configClass);
+            if (cachedConfig != null) {
+                LOG.debug(() -> "Using cached configuration for [" + configClass + "] from: " + xmlConfigFile);
+                return new VersionedConfig<>(copyConfig(jaxbContext, configClass, cachedConfig.getConfig()),
+                        cachedConfig.getVersion());
+            }
+
+            LOG.info(() -> "Loading configuration for [" + configClass + "] from: " + xmlConfigFile + " ...");
+
             final Unmarshaller unmarshaller = jaxbContext.createUnmarshaller();
 
             // optional schema validation
             if (xmlSchemaFile != null) {
-                final InputStream xsdStream = ConfigurationManager.class.getClassLoader().getResourceAsStream(xmlSchemaFile);
-                final StreamSource xsdSource = new StreamSource(xsdStream);
-                final SchemaFactory sf = SchemaFactory.newInstance(XMLConstants.W3C_XML_SCHEMA_NS_URI);
-                final Schema schema = sf.newSchema(xsdSource);
-                unmarshaller.setSchema(schema);
+                unmarshaller.setSchema(getSchema(xmlSchemaFile));
             }
 
-            synchronized (MUTEX) {
-                final FileInputStream fileInputStream = new FileInputStream(xmlConfigFile);
-                final JAXBElement<?> requestedConfigRootXmlElement = (JAXBElement<?>) unmarshaller.unmarshal(fileInputStream);
-                final T requestedConfig = (T) requestedConfigRootXmlElement.getValue();
-                fileInputStream.close();
+            final VersionedConfig<T> requestedConfig = CONFIG_CACHE.load(configFile, () -> {
+                try (final FileInputStream fileInputStream = new FileInputStream(xmlConfigFile)) {
+                    final JAXBElement<?> requestedConfigRootXmlElement =
+                            (JAXBElement<?>) unmarshaller.unmarshal(fileInputStream);
+                    return configClass.cast(requestedConfigRootXmlElement.getValue());
+                }
+            });
 
-                LOG.info(() -> "Loaded and set configuration for [" + configClass + "] successfully!");
-                return requestedConfig;
-            }
+            LOG.info(() -> "Loaded and set configuration for [" + configClass + "] successfully!");
+            return new VersionedConfig<>(copyConfig(jaxbContext, configClass, requestedConfig.getConfig()),
+                    requestedConfig.getVersion());
 
         } catch (JAXBException | SAXException e) {
             final String errorMsg = "Failed to load [" + xmlConfigFile + "] file and validate it using XML Schema [" + xmlSchemaFile + "]";
@@ -85,6 +133,8 @@ public final class ConfigurationManager {
             final String errorMsg = "Failed to find or read [" + xmlConfigFile + "] config";
             LOG.error(errorMsg, e);
             throw new IllegalStateException(errorMsg, e);
+        } finally {
+            readLock.unlock();
         }
     }
 
@@ -92,18 +142,54 @@ public final class ConfigurationManager {
      * Saves given config to filesystem.
      */
     public static <T> void saveConfig(Class<T> configClass, T config, String xmlConfigFile) {
+        save(configClass, config, xmlConfigFile, null);
+    }
+
+    /*
+     * Saves given config to filesystem if the config file is still at the expected version, i.e. it has not been
+     * changed since the config was loaded. Throws ConfigurationConflictException if it has.
+     */
+    public static <T> void saveConfig(Class<T> configClass, T config, String xmlConfigFile, long expectedVersion) {
+        save(configClass, config, xmlConfigFile, expectedVersion);
+    }
+
+    // ------------------------------------------------------------------------------------------------
+    //  Util methods
+    // ------------------------------------------------------------------------------------------------
+
+    private static <T> void save(Class<T> configClass, T config, String xmlConfigFile, Long expectedVersion) {
 
         LOG.info(() -> "Saving configuration for [" + configClass + "] to: " + xmlConfigFile + " ...");
 
+        final Path configFile = ConfigurationCache.keyFor(xmlConfigFile);
+
+        final Lock writeLock = getFileLock(configFile).writeLock();
+        writeLock.lock();
         try {
-            final JAXBContext context = JAXBContext.newInstance(config.getClass());
+            if (expectedVersion != null) {
+                final Long currentVersion = CONFIG_CACHE.getVersion(configFile);
+                if (currentVersion == null || currentVersion.longValue() != expectedVersion) {
+                    final String errorMsg = "Failed to save config to [" + xmlConfigFile + "] file. It has been "
+                            + "changed since the config was loaded. Expected version: " + expectedVersion
+                            + " Current version: " + currentVersion;
+                    LOG.warn(errorMsg);
+                    throw new ConfigurationConflictException(errorMsg);
+                }
+            }
+
+            final JAXBContext context = getJaxbContext(configClass);
             final Marshaller marshaller = context.createMarshaller();
             marshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, Boolean.TRUE);
 
-            synchronized (MUTEX) {
-                final FileOutputStream fileOutputStream = new FileOutputStream(xmlConfigFile);
-                marshaller.marshal(config, fileOutputStream);
-                fileOutputStream.close();
+            // Take a copy first so the caller can't change the cached config after we return
+            final T configToCache = copyConfig(context, configClass, config);
+
+            try {
+                writeAtomically(marshaller, config, configFile);
+                CONFIG_CACHE.putSaved(configFile, configToCache);
+            } catch (JAXBException | IOException e) {
+                CONFIG_CACHE.invalidate(configFile);
+                throw e;
             }
 
         } catch (JAXBException e) {
@@ -114,6 +200,92 @@ public final class ConfigurationManager {
             final String errorMsg = "Failed to find or read [" + xmlConfigFile + "] config";
             LOG.error(errorMsg, e);
             throw new IllegalStateException(errorMsg, e);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /*
+     * Marshals the config to a temp file next to the config file, syncs it to disk, and renames it over the config
+     * file. Readers - and the bot after a crash - only ever see the old or the new file, never a partly written one.
+     */
+    private static void writeAtomically(Marshaller marshaller, Object config, Path configFile)
+            throws JAXBException, IOException {
+
+        final Path tempFile = configFile.resolveSibling(configFile.getFileName() + ".tmp");
+        try {
+            try (final FileChannel channel = FileChannel.open(tempFile, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                final OutputStream outputStream = Channels.newOutputStream(channel);
+                marshaller.marshal(config, outputStream);
+                outputStream.flush();
+                channel.force(true);
+            }
+
+            try {
+                Files.move(tempFile, configFile, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                LOG.warn("Atomic rename not supported - replacing [" + configFile + "] non-atomically", e);
+                Files.move(tempFile, configFile, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+
+        syncDirectory(configFile.getParent());
+    }
+
+    /*
+     * Makes the rename durable. Not all platforms let a directory be opened, so this is best effort.
+     */
+    private static void syncDirectory(Path directory) {
+        try (final FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            LOG.debug(() -> "Could not sync directory " + directory + ": " + e.getMessage());
+        }
+    }
+
+    private static ReadWriteLock getFileLock(Path configFile) {
+        return FILE_LOCKS.computeIfAbsent(configFile, file -> new ReentrantReadWriteLock());
+    }
+
+    /*
+     * JAXBContexts are thread safe and expensive to create, so we create one per config package and reuse it.
+     */
+    private static JAXBContext getJaxbContext(Class<?> configClass) throws JAXBException {
+        final JAXBContext cachedContext = JAXB_CONTEXTS.get(configClass);
+        if (cachedContext != null) {
+            return cachedContext;
+        }
+        final JAXBContext jaxbContext = JAXBContext.newInstance(configClass.getPackage().getName());
+        final JAXBContext existingContext = JAXB_CONTEXTS.putIfAbsent(configClass, jaxbContext);
+        return existingContext != null ? existingContext : jaxbContext;
+    }
+
+    /*
+     * Compiled Schemas are thread safe, so each XSD is only compiled once.
+     */
+    private static Schema getSchema(String xmlSchemaFile) throws SAXException, IOException {
+        final Schema cachedSchema = SCHEMAS.get(xmlSchemaFile);
+        if (cachedSchema != null) {
+            return cachedSchema;
+        }
+
+        try (final InputStream xsdStream = ConfigurationManager.class.getClassLoader().getResourceAsStream(xmlSchemaFile)) {
+            final StreamSource xsdSource = new StreamSource(xsdStream);
+            final SchemaFactory sf = SchemaFactory.newInstance(XMLConstants.W3C_XML_SCHEMA_NS_URI);
+            final Schema schema = sf.newSchema(xsdSource);
+            final Schema existingSchema = SCHEMAS.putIfAbsent(xmlSchemaFile, schema);
+            return existingSchema != null ? existingSchema : schema;
         }
     }
+
+    /*
+     * Deep copies config by marshalling it straight into an unmarshaller - no XML text is written or parsed.
+     */
+    private static <T> T copyConfig(JAXBContext jaxbContext, Class<T> configClass, T config) throws JAXBException {
+        final Unmarshaller unmarshaller = jaxbContext.createUnmarshaller();
+        return unmarshaller.unmarshal(new JAXBSource(jaxbContext, config), configClass).getValue();
+    }
 }
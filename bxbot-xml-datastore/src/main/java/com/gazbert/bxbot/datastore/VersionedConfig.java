@@ -0,0 +1,58 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2017 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.datastore;
+
+/**
+ * Config loaded from an XML config file, along with the version of the file it was loaded from.
+ * <p>
+ * Pass the version to {@link ConfigurationManager#saveConfig(Class, Object, String, long)} when saving changes to the
+ * config; the save is rejected if the file has been changed since the config was loaded.
+ *
+ * @param <T> the type of config.
+ * @author gazbert
+ */
+public final class VersionedConfig<T> {
+
+    private final T config;
+    private final long version;
+
+    /**
+     * Creates a new versioned config.
+     *
+     * @param config  the config.
+     * @param version the version of the config file it was loaded from.
+     */
+    public VersionedConfig(T config, long version) {
+        this.config = config;
+        this.version = version;
+    }
+
+    public T getConfig() {
+        return config;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+}
@@ -57,6 +57,30 @@ import java.math.BigDecimal;
  *             &lt;/restriction&gt;
  *           &lt;/simpleType&gt;
  *         &lt;/element&gt;
+ *         &lt;element name="strategy-execution-threads" minOccurs="0"&gt;
+ *           &lt;simpleType&gt;
+ *             &lt;restriction base="{http://www.w3.org/2001/XMLSchema}int"&gt;
+ *               &lt;minInclusive value="1"/&gt;
+ *             &lt;/restriction&gt;
+ *           &lt;/simpleType&gt;
+ *         &lt;/element&gt;
+ *         &lt;element name="strategy-execution-timeout" minOccurs="0"&gt;
+ *           &lt;simpleType&gt;
+ *             &lt;restriction base="{http://www.w3.org/2001/XMLSchema}int"&gt;
+ *               &lt;minInclusive value="1"/&gt;
+ *             &lt;/restriction&gt;
+ *           &lt;/simpleType&gt;
+ *         &lt;/element&gt;
+ *         &lt;element name="missed-cycle-policy" minOccurs="0"&gt;
+ *           &lt;simpleType&gt;
+ *             &lt;restriction base="{http://www.w3.org/2001/XMLSchema}string"&gt;
+ *               &lt;enumeration value="skip"/&gt;
+ *               &lt;enumeration value="coalesce"/&gt;
+ *             &lt;/restriction&gt;
+ *           &lt;/simpleType&gt;
+ *         &lt;/element&gt;
+ *         &lt;element name="trading-api-cache" type="{}trading-api-cacheType" minOccurs="0"/&gt;
+ *         &lt;element name="market-data-recorder" type="{}market-data-recorderType" minOccurs="0"/&gt;
  *       &lt;/sequence&gt;
  *     &lt;/restriction&gt;
  *   &lt;/complexContent&gt;
@@ -71,7 +95,12 @@ import java.math.BigDecimal;
     "botName",
     "emergencyStopCurrency",
     "emergencyStopBalance",
-    "tradeCycleInterval"
+    "tradeCycleInterval",
+    "strategyExecutionThreads",
+    "strategyExecutionTimeout",
+    "missedCyclePolicy",
+    "tradingApiCache",
+    "marketDataRecorder"
 })
 @XmlRootElement(name="engine")
 public class EngineType {
@@ -86,6 +115,16 @@ public class EngineType {
     protected BigDecimal emergencyStopBalance;
     @XmlElement(name = "trade-cycle-interval")
     protected int tradeCycleInterval;
+    @XmlElement(name = "strategy-execution-threads")
+    protected Integer strategyExecutionThreads;
+    @XmlElement(name = "strategy-execution-timeout")
+    protected Integer strategyExecutionTimeout;
+    @XmlElement(name = "missed-cycle-policy")
+    protected String missedCyclePolicy;
+    @XmlElement(name = "trading-api-cache")
+    protected TradingApiCacheType tradingApiCache;
+    @XmlElement(name = "market-data-recorder")
+    protected MarketDataRecorderType marketDataRecorder;
 
     /**
      * Gets the value of the botId property.
@@ -199,4 +238,124 @@ public class EngineType {
         this.tradeCycleInterval = value;
     }
 
+    /**
+     * Gets the value of the strategyExecutionThreads property.
+     * 
+     * @return
+     *     possible object is
+     *     {@link Integer }
+     *     
+     */
+    public Integer getStrategyExecutionThreads() {
+        return strategyExecutionThreads;
+    }
+
+    /**
+     * Sets the value of the strategyExecutionThreads property.
+     * 
+     * @param value
+     *     allowed object is
+     *     {@link Integer }
+     *     
+     */
+    public void setStrategyExecutionThreads(Integer value) {
+        this.strategyExecutionThreads = value;
+    }
+
+    /**
+     * Gets the value of the strategyExecutionTimeout property.
+     * 
+     * @return
+     *     possible object is
+     *     {@link Integer }
+     *     
+     */
+    public Integer getStrategyExecutionTimeout() {
+        return strategyExecutionTimeout;
+    }
+
+    /**
+     * Sets the value of the strategyExecutionTimeout property.
+     * 
+     * @param value
+     *     allowed object is
+     *     {@link Integer }
+     *     
+     */
+    public void setStrategyExecutionTimeout(Integer value) {
+        this.strategyExecutionTimeout = value;
+    }
+
+    /**
+     * Gets the value of the missedCyclePolicy property.
+     * 
+     * @return
+     *     possible object is
+     *     {@link String }
+     *     
+     */
+    public String getMissedCyclePolicy() {
+        return missedCyclePolicy;
+    }
+
+    /**
+     * Sets the value of the missedCyclePolicy property.
+     * 
+     * @param value
+     *     allowed object is
+     *     {@link String }
+     *     
+     */
+    public void setMissedCyclePolicy(String value) {
+        this.missedCyclePolicy = value;
+    }
+
+    /**
+     * Gets the value of the tradingApiCache property.
+     * 
+     * @return
+     *     possible object is
+     *     {@link TradingApiCacheType }
+     *     
+     */
+    public TradingApiCacheType getTradingApiCache() {
+        return tradingApiCache;
+    }
+
+    /**
+     * Sets the value of the tradingApiCache property.
+     * 
+     * @param value
+     *     allowed object is
+     *     {@link TradingApiCacheType }
+     *     
+     */
+    public void setTradingApiCache(TradingApiCacheType value) {
+        this.tradingApiCache = value;
+    }
+
+    /**
+     * Gets the value of the marketDataRecorder property.
+     * 
+     * @return
+     *     possible object is
+     *     {@link MarketDataRecorderType }
+     *     
+     */
+    public MarketDataRecorderType getMarketDataRecorder() {
+        return marketDataRecorder;
+    }
+
+    /**
+     * Sets the value of the marketDataRecorder property.
+     * 
+     * @param value
+     *     allowed object is
+     *     {@link MarketDataRecorderType }
+     *     
+     */
+    public void setMarketDataRecorder(MarketDataRecorderType value) {
+        this.marketDataRecorder = value;
+    }
+
 }
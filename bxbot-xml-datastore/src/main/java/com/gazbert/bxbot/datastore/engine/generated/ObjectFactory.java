@@ -48,6 +48,22 @@ public class ObjectFactory {
         return new EngineType();
     }
 
+    /**
+     * Create an instance of {@link TradingApiCacheType }
+     * 
+     */
+    public TradingApiCacheType createTradingApiCacheType() {
+        return new TradingApiCacheType();
+    }
+
+    /**
+     * Create an instance of {@link MarketDataRecorderType }
+     * 
+     */
+    public MarketDataRecorderType createMarketDataRecorderType() {
+        return new MarketDataRecorderType();
+    }
+
     /**
      * Create an instance of {@link JAXBElement }{@code <}{@link EngineType }{@code >}}
      * 
@@ -0,0 +1,211 @@
+//
+// This file was generated by the JavaTM Architecture for XML Binding(JAXB) Reference Implementation, v2.2.11 
+// See <a href="http://java.sun.com/xml/jaxb">http://java.sun.com/xml/jaxb</a> 
+// Any modifications to this file will be lost upon recompilation of the source schema. 
+// Generated on: 2017.07.24 at 03:46:19 PM BST 
+//
+
+
+package com.gazbert.bxbot.datastore.engine.generated;
+
+import javax.xml.bind.annotation.XmlAccessType;
+import javax.xml.bind.annotation.XmlAccessorType;
+import javax.xml.bind.annotation.XmlElement;
+import javax.xml.bind.annotation.XmlType;
+
+
+/**
+ * <p>Java class for trading-api-cacheType complex type.
+ * 
+ * <p>The following schema fragment specifies the expected content contained within this class.
+ * 
+ * <pre>
+ * &lt;complexType name="trading-api-cacheType"&gt;
+ *   &lt;complexContent&gt;
+ *     &lt;restriction base="{http://www.w3.org/2001/XMLSchema}anyType"&gt;
+ *       &lt;sequence&gt;
+ *         &lt;element name="market-orders-ttl" minOccurs="0"&gt;
+ *           &lt;simpleType&gt;
+ *             &lt;restriction base="{http://www.w3.org/2001/XMLSchema}int"&gt;
+ *               &lt;minInclusive value="0"/&gt;
+ *             &lt;/restriction&gt;
+ *           &lt;/simpleType&gt;
+ *         &lt;/element&gt;
+ *         &lt;element name="latest-market-price-ttl" minOccurs="0"&gt;
+ *           &lt;simpleType&gt;
+ *             &lt;restriction base="{http://www.w3.org/2001/XMLSchema}int"&gt;
+ *               &lt;minInclusive value="0"/&gt;
+ *             &lt;/restriction&gt;
+ *           &lt;/simpleType&gt;
+ *         &lt;/element&gt;
+ *         &lt;element name="ticker-ttl" minOccurs="0"&gt;
+ *           &lt;simpleType&gt;
+ *             &lt;restriction base="{http://www.w3.org/2001/XMLSchema}int"&gt;
+ *               &lt;minInclusive value="0"/&gt;
+ *             &lt;/restriction&gt;
+ *           &lt;/simpleType&gt;
+ *         &lt;/element&gt;
+ *         &lt;element name="open-orders-ttl" minOccurs="0"&gt;
+ *           &lt;simpleType&gt;
+ *             &lt;restriction base="{http://www.w3.org/2001/XMLSchema}int"&gt;
+ *               &lt;minInclusive value="0"/&gt;
+ *             &lt;/restriction&gt;
+ *           &lt;/simpleType&gt;
+ *         &lt;/element&gt;
+ *         &lt;element name="balance-info-ttl" minOccurs="0"&gt;
+ *           &lt;simpleType&gt;
+ *             &lt;restriction base="{http://www.w3.org/2001/XMLSchema}int"&gt;
+ *               &lt;minInclusive value="0"/&gt;
+ *             &lt;/restriction&gt;
+ *           &lt;/simpleType&gt;
+ *         &lt;/element&gt;
+ *       &lt;/sequence&gt;
+ *     &lt;/restriction&gt;
+ *   &lt;/complexContent&gt;
+ * &lt;/complexType&gt;
+ * </pre>
+ * 
+ * 
+ */
+@XmlAccessorType(XmlAccessType.FIELD)
+@XmlType(name = "trading-api-cacheType", propOrder = {
+    "marketOrdersTtl",
+    "latestMarketPriceTtl",
+    "tickerTtl",
+    "openOrdersTtl",
+    "balanceInfoTtl"
+})
+public class TradingApiCacheType {
+
+    @XmlElement(name = "market-orders-ttl")
+    protected Integer marketOrdersTtl;
+    @XmlElement(name = "latest-market-price-ttl")
+    protected Integer latestMarketPriceTtl;
+    @XmlElement(name = "ticker-ttl")
+    protected Integer tickerTtl;
+    @XmlElement(name = "open-orders-ttl")
+    protected Integer openOrdersTtl;
+    @XmlElement(name = "balance-info-ttl")
+    protected Integer balanceInfoTtl;
+
+    /**
+     * Gets the value of the marketOrdersTtl property.
+     * 
+     * @return
+     *     possible object is
+     *     {@link Integer }
+     *     
+     */
+    public Integer getMarketOrdersTtl() {
+        return marketOrdersTtl;
+    }
+
+    /**
+     * Sets the value of the marketOrdersTtl property.
+     * 
+     * @param value
+     *     allowed object is
+     *     {@link Integer }
+     *     
+     */
+    public void setMarketOrdersTtl(Integer value) {
+        this.marketOrdersTtl = value;
+    }
+
+    /**
+     * Gets the value of the latestMarketPriceTtl property.
+     * 
+     * @return
+     *     possible object is
+     *     {@link Integer }
+     *     
+     */
+    public Integer getLatestMarketPriceTtl() {
+        return latestMarketPriceTtl;
+    }
+
+    /**
+     * Sets the value of the latestMarketPriceTtl property.
+     * 
+     * @param value
+     *     allowed object is
+     *     {@link Integer }
+     *     
+     */
+    public void setLatestMarketPriceTtl(Integer value) {
+        this.latestMarketPriceTtl = value;
+    }
+
+    /**
+     * Gets the value of the tickerTtl property.
+     * 
+     * @return
+     *     possible object is
+     *     {@link Integer }
+     *     
+     */
+    public Integer getTickerTtl() {
+        return tickerTtl;
+    }
+
+    /**
+     * Sets the value of the tickerTtl property.
+     * 
+     * @param value
+     *     allowed object is
+     *     {@link Integer }
+     *     
+     */
+    public void setTickerTtl(Integer value) {
+        this.tickerTtl = value;
+    }
+
+    /**
+     * Gets the value of the openOrdersTtl property.
+     * 
+     * @return
+     *     possible object is
+     *     {@link Integer }
+     *     
+     */
+    public Integer getOpenOrdersTtl() {
+        return openOrdersTtl;
+    }
+
+    /**
+     * Sets the value of the openOrdersTtl property.
+     * 
+     * @param value
+     *     allowed object is
+     *     {@link Integer }
+     *     
+     */
+    public void setOpenOrdersTtl(Integer value) {
+        this.openOrdersTtl = value;
+    }
+
+    /**
+     * Gets the value of the balanceInfoTtl property.
+     * 
+     * @return
+     *     possible object is
+     *     {@link Integer }
+     *     
+     */
+    public Integer getBalanceInfoTtl() {
+        return balanceInfoTtl;
+    }
+
+    /**
+     * Sets the value of the balanceInfoTtl property.
+     * 
+     * @param value
+     *     allowed object is
+     *     {@link Integer }
+     *     
+     */
+    public void setBalanceInfoTtl(Integer value) {
+        this.balanceInfoTtl = value;
+    }
+
+}
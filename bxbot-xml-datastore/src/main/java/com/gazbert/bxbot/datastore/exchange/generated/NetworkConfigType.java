@@ -32,6 +32,34 @@ import javax.xml.bind.annotation.XmlType;
  *         &lt;/element&gt;
  *         &lt;element name="non-fatal-error-codes" type="{}non-fatal-error-codesType" minOccurs="0"/&gt;
  *         &lt;element name="non-fatal-error-messages" type="{}non-fatal-error-messagesType" minOccurs="0"/&gt;
+ *         &lt;element name="connection-pool-size" minOccurs="0"&gt;
+ *           &lt;simpleType&gt;
+ *             &lt;restriction base="{http://www.w3.org/2001/XMLSchema}int"&gt;
+ *               &lt;minInclusive value="1"/&gt;
+ *             &lt;/restriction&gt;
+ *           &lt;/simpleType&gt;
+ *         &lt;/element&gt;
+ *         &lt;element name="connection-idle-timeout" minOccurs="0"&gt;
+ *           &lt;simpleType&gt;
+ *             &lt;restriction base="{http://www.w3.org/2001/XMLSchema}int"&gt;
+ *               &lt;minInclusive value="1"/&gt;
+ *             &lt;/restriction&gt;
+ *           &lt;/simpleType&gt;
+ *         &lt;/element&gt;
+ *         &lt;element name="max-requests-per-minute" minOccurs="0"&gt;
+ *           &lt;simpleType&gt;
+ *             &lt;restriction base="{http://www.w3.org/2001/XMLSchema}int"&gt;
+ *               &lt;minInclusive value="1"/&gt;
+ *             &lt;/restriction&gt;
+ *           &lt;/simpleType&gt;
+ *         &lt;/element&gt;
+ *         &lt;element name="max-request-burst" minOccurs="0"&gt;
+ *           &lt;simpleType&gt;
+ *             &lt;restriction base="{http://www.w3.org/2001/XMLSchema}int"&gt;
+ *               &lt;minInclusive value="1"/&gt;
+ *             &lt;/restriction&gt;
+ *           &lt;/simpleType&gt;
+ *         &lt;/element&gt;
  *       &lt;/sequence&gt;
  *     &lt;/restriction&gt;
  *   &lt;/complexContent&gt;
@@ -44,7 +72,11 @@ import javax.xml.bind.annotation.XmlType;
 @XmlType(name = "network-configType", propOrder = {
     "connectionTimeout",
     "nonFatalErrorCodes",
-    "nonFatalErrorMessages"
+    "nonFatalErrorMessages",
+    "connectionPoolSize",
+    "connectionIdleTimeout",
+    "maxRequestsPerMinute",
+    "maxRequestBurst"
 })
 public class NetworkConfigType {
 
@@ -54,6 +86,14 @@ public class NetworkConfigType {
     protected NonFatalErrorCodesType nonFatalErrorCodes;
     @XmlElement(name = "non-fatal-error-messages")
     protected NonFatalErrorMessagesType nonFatalErrorMessages;
+    @XmlElement(name = "connection-pool-size")
+    protected Integer connectionPoolSize;
+    @XmlElement(name = "connection-idle-timeout")
+    protected Integer connectionIdleTimeout;
+    @XmlElement(name = "max-requests-per-minute")
+    protected Integer maxRequestsPerMinute;
+    @XmlElement(name = "max-request-burst")
+    protected Integer maxRequestBurst;
 
     /**
      * Gets the value of the connectionTimeout property.
@@ -127,4 +167,100 @@ public class NetworkConfigType {
         this.nonFatalErrorMessages = value;
     }
 
+    /**
+     * Gets the value of the connectionPoolSize property.
+     * 
+     * @return
+     *     possible object is
+     *     {@link Integer }
+     *     
+     */
+    public Integer getConnectionPoolSize() {
+        return connectionPoolSize;
+    }
+
+    /**
+     * Sets the value of the connectionPoolSize property.
+     * 
+     * @param value
+     *     allowed object is
+     *     {@link Integer }
+     *     
+     */
+    public void setConnectionPoolSize(Integer value) {
+        this.connectionPoolSize = value;
+    }
+
+    /**
+     * Gets the value of the connectionIdleTimeout property.
+     * 
+     * @return
+     *     possible object is
+     *     {@link Integer }
+     *     
+     */
+    public Integer getConnectionIdleTimeout() {
+        return connectionIdleTimeout;
+    }
+
+    /**
+     * Sets the value of the connectionIdleTimeout property.
+     * 
+     * @param value
+     *     allowed object is
+     *     {@link Integer }
+     *     
+     */
+    public void setConnectionIdleTimeout(Integer value) {
+        this.connectionIdleTimeout = value;
+    }
+
+    /**
+     * Gets the value of the maxRequestsPerMinute property.
+     * 
+     * @return
+     *     possible object is
+     *     {@link Integer }
+     *     
+     */
+    public Integer getMaxRequestsPerMinute() {
+        return maxRequestsPerMinute;
+    }
+
+    /**
+     * Sets the value of the maxRequestsPerMinute property.
+     * 
+     * @param value
+     *     allowed object is
+     *     {@link Integer }
+     *     
+     */
+    public void setMaxRequestsPerMinute(Integer value) {
+        this.maxRequestsPerMinute = value;
+    }
+
+    /**
+     * Gets the value of the maxRequestBurst property.
+     * 
+     * @return
+     *     possible object is
+     *     {@link Integer }
+     *     
+     */
+    public Integer getMaxRequestBurst() {
+        return maxRequestBurst;
+    }
+
+    /**
+     * Sets the value of the maxRequestBurst property.
+     * 
+     * @param value
+     *     allowed object is
+     *     {@link Integer }
+     *     
+     */
+    public void setMaxRequestBurst(Integer value) {
+        this.maxRequestBurst = value;
+    }
+
 }
@@ -31,7 +31,7 @@ import javax.xml.namespace.QName;
 @XmlRegistry
 public class ObjectFactory {
 
-    private final static QName _Exchange_QNAME = new QName("", "exchange");
+    private final static QName _Exchanges_QNAME = new QName("", "exchanges");
 
     /**
      * Create a new ObjectFactory that can be used to create new instances of schema derived classes for package: generated
@@ -40,6 +40,14 @@ public class ObjectFactory {
     public ObjectFactory() {
     }
 
+    /**
+     * Create an instance of {@link ExchangesType }
+     * 
+     */
+    public ExchangesType createExchangesType() {
+        return new ExchangesType();
+    }
+
     /**
      * Create an instance of {@link ExchangeType }
      * 
@@ -97,12 +105,12 @@ public class ObjectFactory {
     }
 
     /**
-     * Create an instance of {@link JAXBElement }{@code <}{@link ExchangeType }{@code >}}
+     * Create an instance of {@link JAXBElement }{@code <}{@link ExchangesType }{@code >}}
      * 
      */
-    @XmlElementDecl(namespace = "", name = "exchange")
-    public JAXBElement<ExchangeType> createExchange(ExchangeType value) {
-        return new JAXBElement<ExchangeType>(_Exchange_QNAME, ExchangeType.class, null, value);
+    @XmlElementDecl(namespace = "", name = "exchanges")
+    public JAXBElement<ExchangesType> createExchanges(ExchangesType value) {
+        return new JAXBElement<ExchangesType>(_Exchanges_QNAME, ExchangesType.class, null, value);
     }
 
 }
@@ -61,6 +61,21 @@ import javax.xml.bind.annotation.XmlType;
  *             &lt;/restriction&gt;
  *           &lt;/simpleType&gt;
  *         &lt;/element&gt;
+ *         &lt;element name="trade-cycle-interval" minOccurs="0"&gt;
+ *           &lt;simpleType&gt;
+ *             &lt;restriction base="{http://www.w3.org/2001/XMLSchema}int"&gt;
+ *               &lt;minInclusive value="1"/&gt;
+ *             &lt;/restriction&gt;
+ *           &lt;/simpleType&gt;
+ *         &lt;/element&gt;
+ *         &lt;element name="exchange-id" minOccurs="0"&gt;
+ *           &lt;simpleType&gt;
+ *             &lt;restriction base="{http://www.w3.org/2001/XMLSchema}string"&gt;
+ *               &lt;pattern value="[a-zA-Z0-9/_\- ]*"/&gt;
+ *               &lt;minLength value="1"/&gt;
+ *             &lt;/restriction&gt;
+ *           &lt;/simpleType&gt;
+ *         &lt;/element&gt;
  *       &lt;/sequence&gt;
  *     &lt;/restriction&gt;
  *   &lt;/complexContent&gt;
@@ -76,7 +91,9 @@ import javax.xml.bind.annotation.XmlType;
     "baseCurrency",
     "counterCurrency",
     "enabled",
-    "tradingStrategyId"
+    "tradingStrategyId",
+    "tradeCycleInterval",
+    "exchangeId"
 })
 public class MarketType {
 
@@ -91,6 +108,10 @@ public class MarketType {
     protected boolean enabled;
     @XmlElement(name = "trading-strategy-id", required = true)
     protected String tradingStrategyId;
+    @XmlElement(name = "trade-cycle-interval")
+    protected Integer tradeCycleInterval;
+    @XmlElement(name = "exchange-id")
+    protected String exchangeId;
 
     /**
      * Gets the value of the id property.
@@ -228,4 +249,52 @@ public class MarketType {
         this.tradingStrategyId = value;
     }
 
+    /**
+     * Gets the value of the tradeCycleInterval property.
+     * 
+     * @return
+     *     possible object is
+     *     {@link Integer }
+     *     
+     */
+    public Integer getTradeCycleInterval() {
+        return tradeCycleInterval;
+    }
+
+    /**
+     * Sets the value of the tradeCycleInterval property.
+     * 
+     * @param value
+     *     allowed object is
+     *     {@link Integer }
+     *     
+     */
+    public void setTradeCycleInterval(Integer value) {
+        this.tradeCycleInterval = value;
+    }
+
+    /**
+     * Gets the value of the exchangeId property.
+     * 
+     * @return
+     *     possible object is
+     *     {@link String }
+     *     
+     */
+    public String getExchangeId() {
+        return exchangeId;
+    }
+
+    /**
+     * Sets the value of the exchangeId property.
+     * 
+     * @param value
+     *     allowed object is
+     *     {@link String }
+     *     
+     */
+    public void setExchangeId(String value) {
+        this.exchangeId = value;
+    }
+
 }
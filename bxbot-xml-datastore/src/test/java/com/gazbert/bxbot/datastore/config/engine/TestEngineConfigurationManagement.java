@@ -25,6 +25,8 @@ package com.gazbert.bxbot.datastore.config.engine;
 
 import com.gazbert.bxbot.datastore.ConfigurationManager;
 import com.gazbert.bxbot.datastore.engine.generated.EngineType;
+import com.gazbert.bxbot.datastore.engine.generated.MarketDataRecorderType;
+import com.gazbert.bxbot.datastore.engine.generated.TradingApiCacheType;
 import org.junit.Test;
 
 import java.math.BigDecimal;
@@ -55,6 +57,19 @@ public class TestEngineConfigurationManagement {
     private static final String EMERGENCY_STOP_CURRENCY = "BTC";
     private static final BigDecimal EMERGENCY_STOP_BALANCE = new BigDecimal("0.5");
     private static final int TRADE_CYCLE_INTERVAL = 60;
+    private static final Integer STRATEGY_EXECUTION_THREADS = 4;
+    private static final Integer STRATEGY_EXECUTION_TIMEOUT = 20;
+    private static final String MISSED_CYCLE_POLICY = "coalesce";
+    private static final Integer MARKET_ORDERS_TTL = 5;
+    private static final Integer LATEST_MARKET_PRICE_TTL = 2;
+    private static final Integer TICKER_TTL = 0;
+    private static final Integer OPEN_ORDERS_TTL = 10;
+    private static final Integer BALANCE_INFO_TTL = 30;
+    private static final String MARKET_DATA_DIRECTORY = "./marketdata";
+    private static final Integer ORDER_BOOK_DEPTH = 10;
+    private static final Integer PRICE_SCALE = 2;
+    private static final Integer QUANTITY_SCALE = 8;
+    private static final Integer BUFFER_SIZE = 1024;
 
 
     @Test
@@ -68,6 +83,23 @@ public class TestEngineConfigurationManagement {
         assertEquals(EMERGENCY_STOP_CURRENCY, engine.getEmergencyStopCurrency());
         assertTrue(EMERGENCY_STOP_BALANCE.compareTo(engine.getEmergencyStopBalance()) == 0);
         assertTrue(TRADE_CYCLE_INTERVAL == engine.getTradeCycleInterval());
+        assertEquals(STRATEGY_EXECUTION_THREADS, engine.getStrategyExecutionThreads());
+        assertEquals(STRATEGY_EXECUTION_TIMEOUT, engine.getStrategyExecutionTimeout());
+        assertEquals(MISSED_CYCLE_POLICY, engine.getMissedCyclePolicy());
+
+        final TradingApiCacheType tradingApiCache = engine.getTradingApiCache();
+        assertEquals(MARKET_ORDERS_TTL, tradingApiCache.getMarketOrdersTtl());
+        assertEquals(LATEST_MARKET_PRICE_TTL, tradingApiCache.getLatestMarketPriceTtl());
+        assertEquals(TICKER_TTL, tradingApiCache.getTickerTtl());
+        assertEquals(OPEN_ORDERS_TTL, tradingApiCache.getOpenOrdersTtl());
+        assertEquals(BALANCE_INFO_TTL, tradingApiCache.getBalanceInfoTtl());
+
+        final MarketDataRecorderType marketDataRecorder = engine.getMarketDataRecorder();
+        assertEquals(MARKET_DATA_DIRECTORY, marketDataRecorder.getDataDirectory());
+        assertEquals(ORDER_BOOK_DEPTH, marketDataRecorder.getOrderBookDepth());
+        assertEquals(PRICE_SCALE, marketDataRecorder.getPriceScale());
+        assertEquals(QUANTITY_SCALE, marketDataRecorder.getQuantityScale());
+        assertEquals(BUFFER_SIZE, marketDataRecorder.getBufferSize());
     }
 
     @Test(expected = IllegalStateException.class)
@@ -89,6 +121,25 @@ public class TestEngineConfigurationManagement {
         engineConfig.setEmergencyStopCurrency(EMERGENCY_STOP_CURRENCY);
         engineConfig.setEmergencyStopBalance(EMERGENCY_STOP_BALANCE);
         engineConfig.setTradeCycleInterval(TRADE_CYCLE_INTERVAL);
+        engineConfig.setStrategyExecutionThreads(STRATEGY_EXECUTION_THREADS);
+        engineConfig.setStrategyExecutionTimeout(STRATEGY_EXECUTION_TIMEOUT);
+        engineConfig.setMissedCyclePolicy(MISSED_CYCLE_POLICY);
+
+        final TradingApiCacheType tradingApiCache = new TradingApiCacheType();
+        tradingApiCache.setMarketOrdersTtl(MARKET_ORDERS_TTL);
+        tradingApiCache.setLatestMarketPriceTtl(LATEST_MARKET_PRICE_TTL);
+        tradingApiCache.setTickerTtl(TICKER_TTL);
+        tradingApiCache.setOpenOrdersTtl(OPEN_ORDERS_TTL);
+        tradingApiCache.setBalanceInfoTtl(BALANCE_INFO_TTL);
+        engineConfig.setTradingApiCache(tradingApiCache);
+
+        final MarketDataRecorderType marketDataRecorder = new MarketDataRecorderType();
+        marketDataRecorder.setDataDirectory(MARKET_DATA_DIRECTORY);
+        marketDataRecorder.setOrderBookDepth(ORDER_BOOK_DEPTH);
+        marketDataRecorder.setPriceScale(PRICE_SCALE);
+        marketDataRecorder.setQuantityScale(QUANTITY_SCALE);
+        marketDataRecorder.setBufferSize(BUFFER_SIZE);
+        engineConfig.setMarketDataRecorder(marketDataRecorder);
 
         ConfigurationManager.saveConfig(EngineType.class, engineConfig, XML_CONFIG_TO_SAVE_FILENAME);
 
@@ -101,6 +152,23 @@ public class TestEngineConfigurationManagement {
         assertEquals(EMERGENCY_STOP_CURRENCY, engineReloaded.getEmergencyStopCurrency());
         assertTrue(EMERGENCY_STOP_BALANCE.compareTo(engineReloaded.getEmergencyStopBalance()) == 0);
         assertTrue(TRADE_CYCLE_INTERVAL == engineReloaded.getTradeCycleInterval());
+        assertEquals(STRATEGY_EXECUTION_THREADS, engineReloaded.getStrategyExecutionThreads());
+        assertEquals(STRATEGY_EXECUTION_TIMEOUT, engineReloaded.getStrategyExecutionTimeout());
+        assertEquals(MISSED_CYCLE_POLICY, engineReloaded.getMissedCyclePolicy());
+
+        final TradingApiCacheType tradingApiCacheReloaded = engineReloaded.getTradingApiCache();
+        assertEquals(MARKET_ORDERS_TTL, tradingApiCacheReloaded.getMarketOrdersTtl());
+        assertEquals(LATEST_MARKET_PRICE_TTL, tradingApiCacheReloaded.getLatestMarketPriceTtl());
+        assertEquals(TICKER_TTL, tradingApiCacheReloaded.getTickerTtl());
+        assertEquals(OPEN_ORDERS_TTL, tradingApiCacheReloaded.getOpenOrdersTtl());
+        assertEquals(BALANCE_INFO_TTL, tradingApiCacheReloaded.getBalanceInfoTtl());
+
+        final MarketDataRecorderType marketDataRecorderReloaded = engineReloaded.getMarketDataRecorder();
+        assertEquals(MARKET_DATA_DIRECTORY, marketDataRecorderReloaded.getDataDirectory());
+        assertEquals(ORDER_BOOK_DEPTH, marketDataRecorderReloaded.getOrderBookDepth());
+        assertEquals(PRICE_SCALE, marketDataRecorderReloaded.getPriceScale());
+        assertEquals(QUANTITY_SCALE, marketDataRecorderReloaded.getQuantityScale());
+        assertEquals(BUFFER_SIZE, marketDataRecorderReloaded.getBufferSize());
 
         // cleanup
         Files.delete(FileSystems.getDefault().getPath(XML_CONFIG_TO_SAVE_FILENAME));
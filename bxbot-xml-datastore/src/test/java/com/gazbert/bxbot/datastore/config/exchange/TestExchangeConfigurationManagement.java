@@ -48,12 +48,19 @@ public class TestExchangeConfigurationManagement {
     /* Test XML config */
     private static final String VALID_XML_CONFIG_FILENAME = "src/test/config/exchange/valid-exchange.xml";
     private static final String INVALID_XML_CONFIG_FILENAME = "src/test/config/exchange/invalid-exchange.xml";
+    private static final String DUPLICATE_ID_XML_CONFIG_FILENAME = "src/test/config/exchange/duplicate-id-exchange.xml";
     private static final String MISSING_XML_CONFIG_FILENAME = "src/test/config/exchange-/missing-exchange.xml";
     private static final String XML_CONFIG_TO_SAVE_FILENAME = "src/test/config/exchange/saved-exchange.xml";
 
+    private static final String EXCHANGE_ID = "bitstamp";
     private static final String EXCHANGE_NAME = "Bitstamp";
     private static final String EXCHANGE_ADAPTER = "com.gazbert.bxbot.exchanges.BitstampExchangeAdapter";
 
+    private static final String EXCHANGE_2_ID = "kraken";
+    private static final String EXCHANGE_2_NAME = "Kraken";
+    private static final String EXCHANGE_2_ADAPTER = "com.gazbert.bxbot.exchanges.KrakenExchangeAdapter";
+    private static final Integer EXCHANGE_2_CONNECTION_TIMEOUT = 15;
+
     private static final String CLIENT_ID_CONFIG_ITEM_KEY = "client-id";
     private static final String CLIENT_ID_CONFIG_ITEM_VALUE = "your-client-id";
     private static final String API_KEY_CONFIG_ITEM_KEY = "key";
@@ -62,6 +69,10 @@ public class TestExchangeConfigurationManagement {
     private static final String SECRET_CONFIG_ITEM_VALUE = "your-secret-key";
 
     private static final Integer CONNECTION_TIMEOUT = 30;
+    private static final Integer CONNECTION_POOL_SIZE = 10;
+    private static final Integer CONNECTION_IDLE_TIMEOUT = 120;
+    private static final Integer MAX_REQUESTS_PER_MINUTE = 60;
+    private static final Integer MAX_REQUEST_BURST = 10;
     private static final List<Integer> NON_FATAL_ERROR_CODES = Arrays.asList(502, 503, 504, 520, 522, 525);
     private static final List<String> NON_FATAL_ERROR_MESSAGES = Arrays.asList(
             "Connection refused",
@@ -78,9 +89,12 @@ public class TestExchangeConfigurationManagement {
     @Test
     public void testLoadingValidXmlConfigFileIsSuccessful() {
 
-        final ExchangeType exchangeType = ConfigurationManager.loadConfig(ExchangeType.class,
+        final ExchangesType exchangesType = ConfigurationManager.loadConfig(ExchangesType.class,
                 VALID_XML_CONFIG_FILENAME, XML_SCHEMA_FILENAME);
+        assertThat(exchangesType.getExchanges().size()).isEqualTo(2);
 
+        final ExchangeType exchangeType = exchangesType.getExchanges().get(0);
+        assertThat(exchangeType.getId()).isEqualTo(EXCHANGE_ID);
         assertThat(exchangeType.getName()).isEqualTo(EXCHANGE_NAME);
         assertThat(exchangeType.getAdapter()).isEqualTo(EXCHANGE_ADAPTER);
 
@@ -94,25 +108,43 @@ public class TestExchangeConfigurationManagement {
         assertThat(exchangeType.getNetworkConfig().getConnectionTimeout()).isEqualTo(CONNECTION_TIMEOUT);
         assertTrue(exchangeType.getNetworkConfig().getNonFatalErrorCodes().getCodes().containsAll(NON_FATAL_ERROR_CODES));
         assertTrue(exchangeType.getNetworkConfig().getNonFatalErrorMessages().getMessages().containsAll(NON_FATAL_ERROR_MESSAGES));
+        assertThat(exchangeType.getNetworkConfig().getConnectionPoolSize()).isEqualTo(CONNECTION_POOL_SIZE);
+        assertThat(exchangeType.getNetworkConfig().getConnectionIdleTimeout()).isEqualTo(CONNECTION_IDLE_TIMEOUT);
+        assertThat(exchangeType.getNetworkConfig().getMaxRequestsPerMinute()).isEqualTo(MAX_REQUESTS_PER_MINUTE);
+        assertThat(exchangeType.getNetworkConfig().getMaxRequestBurst()).isEqualTo(MAX_REQUEST_BURST);
 
         assertThat(exchangeType.getOptionalConfig().getConfigItems().get(0).getName()).isEqualTo(BUY_FEE_CONFIG_ITEM_KEY);
         assertThat(exchangeType.getOptionalConfig().getConfigItems().get(0).getValue()).isEqualTo(BUY_FEE_CONFIG_ITEM_VALUE);
         assertThat(exchangeType.getOptionalConfig().getConfigItems().get(1).getName()).isEqualTo(SELL_FEE_CONFIG_ITEM_KEY);
         assertThat(exchangeType.getOptionalConfig().getConfigItems().get(1).getValue()).isEqualTo(SELL_FEE_CONFIG_ITEM_VALUE);
+
+        final ExchangeType exchange2Type = exchangesType.getExchanges().get(1);
+        assertThat(exchange2Type.getId()).isEqualTo(EXCHANGE_2_ID);
+        assertThat(exchange2Type.getName()).isEqualTo(EXCHANGE_2_NAME);
+        assertThat(exchange2Type.getAdapter()).isEqualTo(EXCHANGE_2_ADAPTER);
+        assertThat(exchange2Type.getNetworkConfig().getConnectionTimeout()).isEqualTo(EXCHANGE_2_CONNECTION_TIMEOUT);
+        assertThat(exchange2Type.getOptionalConfig()).isNull();
     }
 
     @Test(expected = IllegalStateException.class)
     public void testLoadingMissingXmlConfigFileThrowsException() {
-        ConfigurationManager.loadConfig(ExchangeType.class, MISSING_XML_CONFIG_FILENAME, XML_SCHEMA_FILENAME);
+        ConfigurationManager.loadConfig(ExchangesType.class, MISSING_XML_CONFIG_FILENAME, XML_SCHEMA_FILENAME);
     }
 
     @Test(expected = IllegalArgumentException.class)
     public void testLoadingInvalidXmlConfigFileThrowsException() {
 
-        ConfigurationManager.loadConfig(ExchangeType.class,
+        ConfigurationManager.loadConfig(ExchangesType.class,
                 INVALID_XML_CONFIG_FILENAME, XML_SCHEMA_FILENAME);
     }
 
+    @Test(expected = IllegalArgumentException.class)
+    public void testLoadingXmlConfigFileWithDuplicateExchangeIdsThrowsException() {
+
+        ConfigurationManager.loadConfig(ExchangesType.class,
+                DUPLICATE_ID_XML_CONFIG_FILENAME, XML_SCHEMA_FILENAME);
+    }
+
     /*
      * Painful, but necessary... ;-/
      */
@@ -137,6 +169,10 @@ public class TestExchangeConfigurationManagement {
         networkConfig.setConnectionTimeout(CONNECTION_TIMEOUT);
         networkConfig.setNonFatalErrorCodes(nonFatalErrorCodes);
         networkConfig.setNonFatalErrorMessages(nonFatalErrorMessages);
+        networkConfig.setConnectionPoolSize(CONNECTION_POOL_SIZE);
+        networkConfig.setConnectionIdleTimeout(CONNECTION_IDLE_TIMEOUT);
+        networkConfig.setMaxRequestsPerMinute(MAX_REQUESTS_PER_MINUTE);
+        networkConfig.setMaxRequestBurst(MAX_REQUEST_BURST);
 
         final ConfigItemType buyFee = new ConfigItemType();
         buyFee.setName(BUY_FEE_CONFIG_ITEM_KEY);
@@ -149,19 +185,26 @@ public class TestExchangeConfigurationManagement {
         optionalConfig.getConfigItems().add(sellFee);
 
         final ExchangeType exchangeConfig = new ExchangeType();
+        exchangeConfig.setId(EXCHANGE_ID);
         exchangeConfig.setName(EXCHANGE_NAME);
         exchangeConfig.setAdapter(EXCHANGE_ADAPTER);
         exchangeConfig.setAuthenticationConfig(authenticationConfig);
         exchangeConfig.setNetworkConfig(networkConfig);
         exchangeConfig.setOptionalConfig(optionalConfig);
 
+        final ExchangesType exchangesConfig = new ExchangesType();
+        exchangesConfig.getExchanges().add(exchangeConfig);
+
         // Save it!
-        ConfigurationManager.saveConfig(ExchangeType.class, exchangeConfig, XML_CONFIG_TO_SAVE_FILENAME);
+        ConfigurationManager.saveConfig(ExchangesType.class, exchangesConfig, XML_CONFIG_TO_SAVE_FILENAME);
 
         // Read it back in
-        final ExchangeType exchangeReloaded = ConfigurationManager.loadConfig(ExchangeType.class,
+        final ExchangesType exchangesReloaded = ConfigurationManager.loadConfig(ExchangesType.class,
                 XML_CONFIG_TO_SAVE_FILENAME, XML_SCHEMA_FILENAME);
+        assertThat(exchangesReloaded.getExchanges().size()).isEqualTo(1);
 
+        final ExchangeType exchangeReloaded = exchangesReloaded.getExchanges().get(0);
+        assertThat(exchangeReloaded.getId()).isEqualTo(EXCHANGE_ID);
         assertThat(exchangeReloaded.getName()).isEqualTo(EXCHANGE_NAME);
         assertThat(exchangeReloaded.getAdapter()).isEqualTo(EXCHANGE_ADAPTER);
 
@@ -173,6 +216,10 @@ public class TestExchangeConfigurationManagement {
         assertThat(exchangeReloaded.getNetworkConfig().getConnectionTimeout()).isEqualTo(CONNECTION_TIMEOUT);
         assertTrue(exchangeReloaded.getNetworkConfig().getNonFatalErrorCodes().getCodes().containsAll(NON_FATAL_ERROR_CODES));
         assertTrue(exchangeReloaded.getNetworkConfig().getNonFatalErrorMessages().getMessages().containsAll(NON_FATAL_ERROR_MESSAGES));
+        assertThat(exchangeReloaded.getNetworkConfig().getConnectionPoolSize()).isEqualTo(CONNECTION_POOL_SIZE);
+        assertThat(exchangeReloaded.getNetworkConfig().getConnectionIdleTimeout()).isEqualTo(CONNECTION_IDLE_TIMEOUT);
+        assertThat(exchangeReloaded.getNetworkConfig().getMaxRequestsPerMinute()).isEqualTo(MAX_REQUESTS_PER_MINUTE);
+        assertThat(exchangeReloaded.getNetworkConfig().getMaxRequestBurst()).isEqualTo(MAX_REQUEST_BURST);
 
         assertThat(exchangeReloaded.getOptionalConfig().getConfigItems().get(0).getName()).isEqualTo(BUY_FEE_CONFIG_ITEM_KEY);
         assertThat(exchangeReloaded.getOptionalConfig().getConfigItems().get(0).getValue()).isEqualTo(BUY_FEE_CONFIG_ITEM_VALUE);
@@ -23,13 +23,17 @@
 
 package com.gazbert.bxbot.datastore.config.market;
 
+import com.gazbert.bxbot.datastore.ConfigurationConflictException;
 import com.gazbert.bxbot.datastore.ConfigurationManager;
+import com.gazbert.bxbot.datastore.VersionedConfig;
 import com.gazbert.bxbot.datastore.market.generated.MarketType;
 import com.gazbert.bxbot.datastore.market.generated.MarketsType;
 import org.junit.Test;
 
 import java.nio.file.FileSystems;
 import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 
 import static org.assertj.core.api.Java6Assertions.assertThat;
 import static org.junit.Assert.*;
@@ -49,6 +53,8 @@ public class TestMarketConfigurationManagement {
     private static final String INVALID_XML_CONFIG_FILENAME = "src/test/config/markets/invalid-markets.xml";
     private static final String MISSING_XML_CONFIG_FILENAME = "src/test/config/markets/missing-markets.xml";
     private static final String XML_CONFIG_TO_SAVE_FILENAME = "src/test/config/markets/saved-markets.xml";
+    private static final String XML_CONFIG_TO_CHANGE_FILENAME = "src/test/config/markets/changed-markets.xml";
+    private static final String XML_CONFIG_TO_VERSION_FILENAME = "src/test/config/markets/versioned-markets.xml";
 
     private static final String MARKET_1_ID = "gemini_usd/btc";
     private static final String MARKET_1_NAME = "BTC/USD";
@@ -56,6 +62,8 @@ public class TestMarketConfigurationManagement {
     private static final String MARKET_1_COUNTER_CURRENCY = "USD";
     private static final boolean MARKET_1_IS_ENABLED = true;
     private static final String MARKET_1_TRADING_STRATEGY_ID = "macd_trend_follower";
+    private static final Integer MARKET_1_TRADE_CYCLE_INTERVAL = 2;
+    private static final String MARKET_1_EXCHANGE_ID = "bitstamp";
 
     private static final String MARKET_2_ID = "gdax_gbp/btc";
     private static final String MARKET_2_NAME = "BTC/GBP";
@@ -79,6 +87,8 @@ public class TestMarketConfigurationManagement {
         assertEquals("USD", marketsType.getMarkets().get(0).getCounterCurrency());
         assertTrue(marketsType.getMarkets().get(0).isEnabled());
         assertEquals("scalping-strategy", marketsType.getMarkets().get(0).getTradingStrategyId());
+        assertEquals(Integer.valueOf(2), marketsType.getMarkets().get(0).getTradeCycleInterval());
+        assertEquals("bitstamp", marketsType.getMarkets().get(0).getExchangeId());
 
         assertEquals("ltc_usd", marketsType.getMarkets().get(1).getId());
         assertEquals("LTC/BTC", marketsType.getMarkets().get(1).getName());
@@ -86,6 +96,8 @@ public class TestMarketConfigurationManagement {
         assertEquals("BTC", marketsType.getMarkets().get(1).getCounterCurrency());
         assertFalse(marketsType.getMarkets().get(1).isEnabled());
         assertEquals("scalping-strategy", marketsType.getMarkets().get(1).getTradingStrategyId());
+        assertNull(marketsType.getMarkets().get(1).getTradeCycleInterval());
+        assertNull(marketsType.getMarkets().get(1).getExchangeId());
     }
 
     @Test(expected = IllegalStateException.class)
@@ -112,6 +124,8 @@ public class TestMarketConfigurationManagement {
         market1.setBaseCurrency(MARKET_1_BASE_CURRENCY);
         market1.setCounterCurrency(MARKET_1_COUNTER_CURRENCY);
         market1.setTradingStrategyId(MARKET_1_TRADING_STRATEGY_ID);
+        market1.setTradeCycleInterval(MARKET_1_TRADE_CYCLE_INTERVAL);
+        market1.setExchangeId(MARKET_1_EXCHANGE_ID);
 
         final MarketType market2 = new MarketType();
         market2.setEnabled(MARKET_2_IS_ENABLED);
@@ -137,6 +151,8 @@ public class TestMarketConfigurationManagement {
         assertThat(marketsReloaded.getMarkets().get(0).getBaseCurrency()).isEqualTo(MARKET_1_BASE_CURRENCY);
         assertThat(marketsReloaded.getMarkets().get(0).getCounterCurrency()).isEqualTo(MARKET_1_COUNTER_CURRENCY);
         assertThat(marketsReloaded.getMarkets().get(0).getTradingStrategyId()).isEqualTo(MARKET_1_TRADING_STRATEGY_ID);
+        assertThat(marketsReloaded.getMarkets().get(0).getTradeCycleInterval()).isEqualTo(MARKET_1_TRADE_CYCLE_INTERVAL);
+        assertThat(marketsReloaded.getMarkets().get(0).getExchangeId()).isEqualTo(MARKET_1_EXCHANGE_ID);
 
         assertThat(marketsReloaded.getMarkets().get(1).isEnabled()).isEqualTo(MARKET_2_IS_ENABLED);
         assertThat(marketsReloaded.getMarkets().get(1).getId()).isEqualTo(MARKET_2_ID);
@@ -144,8 +160,145 @@ public class TestMarketConfigurationManagement {
         assertThat(marketsReloaded.getMarkets().get(1).getBaseCurrency()).isEqualTo(MARKET_2_BASE_CURRENCY);
         assertThat(marketsReloaded.getMarkets().get(1).getCounterCurrency()).isEqualTo(MARKET_2_COUNTER_CURRENCY);
         assertThat(marketsReloaded.getMarkets().get(1).getTradingStrategyId()).isEqualTo(MARKET_2_TRADING_STRATEGY_ID);
+        assertThat(marketsReloaded.getMarkets().get(1).getTradeCycleInterval()).isNull();
 
         // cleanup
         Files.delete(FileSystems.getDefault().getPath(XML_CONFIG_TO_SAVE_FILENAME));
     }
+
+    @Test
+    public void testChangingLoadedConfigDoesNotChangeCachedConfig() {
+
+        final MarketsType marketsType = ConfigurationManager.loadConfig(MarketsType.class,
+                VALID_XML_CONFIG_FILENAME, XML_SCHEMA_FILENAME);
+        marketsType.getMarkets().get(0).setName("changed");
+        marketsType.getMarkets().remove(1);
+
+        final MarketsType marketsReloaded = ConfigurationManager.loadConfig(MarketsType.class,
+                VALID_XML_CONFIG_FILENAME, XML_SCHEMA_FILENAME);
+        assertEquals(2, marketsReloaded.getMarkets().size());
+        assertEquals("BTC/USD", marketsReloaded.getMarkets().get(0).getName());
+    }
+
+    @Test
+    public void testChangesMadeToXmlFileAreLoaded() throws Exception {
+
+        final MarketType market = new MarketType();
+        market.setEnabled(MARKET_2_IS_ENABLED);
+        market.setId(MARKET_2_ID);
+        market.setName(MARKET_2_NAME);
+        market.setBaseCurrency(MARKET_2_BASE_CURRENCY);
+        market.setCounterCurrency(MARKET_2_COUNTER_CURRENCY);
+        market.setTradingStrategyId(MARKET_2_TRADING_STRATEGY_ID);
+
+        final MarketsType marketsConfig = new MarketsType();
+        marketsConfig.getMarkets().add(market);
+        ConfigurationManager.saveConfig(MarketsType.class, marketsConfig, XML_CONFIG_TO_CHANGE_FILENAME);
+
+        final MarketsType marketsSaved = ConfigurationManager.loadConfig(MarketsType.class,
+                XML_CONFIG_TO_CHANGE_FILENAME, XML_SCHEMA_FILENAME);
+        assertEquals(1, marketsSaved.getMarkets().size());
+
+        // Change the file behind the config manager's back, e.g. edited by hand
+        final Path fileToChange = FileSystems.getDefault().getPath(XML_CONFIG_TO_CHANGE_FILENAME);
+        Files.copy(FileSystems.getDefault().getPath(VALID_XML_CONFIG_FILENAME), fileToChange,
+                StandardCopyOption.REPLACE_EXISTING);
+
+        final MarketsType marketsChanged = ConfigurationManager.loadConfig(MarketsType.class,
+                XML_CONFIG_TO_CHANGE_FILENAME, XML_SCHEMA_FILENAME);
+        assertEquals(2, marketsChanged.getMarkets().size());
+        assertEquals("btc_usd", marketsChanged.getMarkets().get(0).getId());
+
+        // cleanup
+        Files.delete(fileToChange);
+    }
+
+    @Test
+    public void testSavingConfigDoesNotLeaveTempFileBehind() throws Exception {
+
+        final MarketsType marketsConfig = new MarketsType();
+        marketsConfig.getMarkets().add(createMarket(MARKET_1_ID));
+        ConfigurationManager.saveConfig(MarketsType.class, marketsConfig, XML_CONFIG_TO_SAVE_FILENAME);
+
+        final Path savedFile = FileSystems.getDefault().getPath(XML_CONFIG_TO_SAVE_FILENAME);
+        assertTrue(Files.exists(savedFile));
+        assertFalse(Files.exists(savedFile.resolveSibling(savedFile.getFileName() + ".tmp")));
+
+        // cleanup
+        Files.delete(savedFile);
+    }
+
+    @Test
+    public void testSavingConfigAtLoadedVersionIsSuccessfulAndBumpsVersion() throws Exception {
+
+        final MarketsType marketsConfig = new MarketsType();
+        marketsConfig.getMarkets().add(createMarket(MARKET_1_ID));
+        ConfigurationManager.saveConfig(MarketsType.class, marketsConfig, XML_CONFIG_TO_VERSION_FILENAME);
+
+        final VersionedConfig<MarketsType> loaded = ConfigurationManager.loadVersionedConfig(MarketsType.class,
+                XML_CONFIG_TO_VERSION_FILENAME, XML_SCHEMA_FILENAME);
+        loaded.getConfig().getMarkets().add(createMarket(MARKET_2_ID));
+        ConfigurationManager.saveConfig(MarketsType.class, loaded.getConfig(), XML_CONFIG_TO_VERSION_FILENAME,
+                loaded.getVersion());
+
+        final VersionedConfig<MarketsType> reloaded = ConfigurationManager.loadVersionedConfig(MarketsType.class,
+                XML_CONFIG_TO_VERSION_FILENAME, XML_SCHEMA_FILENAME);
+        assertEquals(2, reloaded.getConfig().getMarkets().size());
+        assertTrue(reloaded.getVersion() > loaded.getVersion());
+
+        // cleanup
+        Files.delete(FileSystems.getDefault().getPath(XML_CONFIG_TO_VERSION_FILENAME));
+    }
+
+    @Test
+    public void testSavingConfigAtStaleVersionThrowsConflictAndKeepsLatestConfig() throws Exception {
+
+        final MarketsType marketsConfig = new MarketsType();
+        marketsConfig.getMarkets().add(createMarket(MARKET_1_ID));
+        ConfigurationManager.saveConfig(MarketsType.class, marketsConfig, XML_CONFIG_TO_VERSION_FILENAME);
+
+        // Two concurrent updates load the same version...
+        final VersionedConfig<MarketsType> firstUpdate = ConfigurationManager.loadVersionedConfig(MarketsType.class,
+                XML_CONFIG_TO_VERSION_FILENAME, XML_SCHEMA_FILENAME);
+        final VersionedConfig<MarketsType> secondUpdate = ConfigurationManager.loadVersionedConfig(MarketsType.class,
+                XML_CONFIG_TO_VERSION_FILENAME, XML_SCHEMA_FILENAME);
+        assertEquals(firstUpdate.getVersion(), secondUpdate.getVersion());
+
+        // ...first one wins
+        firstUpdate.getConfig().getMarkets().add(createMarket(MARKET_2_ID));
+        ConfigurationManager.saveConfig(MarketsType.class, firstUpdate.getConfig(), XML_CONFIG_TO_VERSION_FILENAME,
+                firstUpdate.getVersion());
+
+        // ...second one must not overwrite it
+        secondUpdate.getConfig().getMarkets().clear();
+        try {
+            ConfigurationManager.saveConfig(MarketsType.class, secondUpdate.getConfig(),
+                    XML_CONFIG_TO_VERSION_FILENAME, secondUpdate.getVersion());
+            fail("Expected ConfigurationConflictException");
+        } catch (ConfigurationConflictException e) {
+            // expected
+        }
+
+        final MarketsType marketsReloaded = ConfigurationManager.loadConfig(MarketsType.class,
+                XML_CONFIG_TO_VERSION_FILENAME, XML_SCHEMA_FILENAME);
+        assertEquals(2, marketsReloaded.getMarkets().size());
+
+        // cleanup
+        Files.delete(FileSystems.getDefault().getPath(XML_CONFIG_TO_VERSION_FILENAME));
+    }
+
+    // ------------------------------------------------------------------------------------------------
+    //  Private utils
+    // ------------------------------------------------------------------------------------------------
+
+    private static MarketType createMarket(String id) {
+        final MarketType market = new MarketType();
+        market.setEnabled(MARKET_1_IS_ENABLED);
+        market.setId(id);
+        market.setName(MARKET_1_NAME);
+        market.setBaseCurrency(MARKET_1_BASE_CURRENCY);
+        market.setCounterCurrency(MARKET_1_COUNTER_CURRENCY);
+        market.setTradingStrategyId(MARKET_1_TRADING_STRATEGY_ID);
+        return market;
+    }
 }